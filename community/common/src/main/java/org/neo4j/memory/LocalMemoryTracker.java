@@ -29,11 +29,16 @@ package org.neo4j.memory;
 public class LocalMemoryTracker implements MemoryAllocationTracker
 {
     private long allocatedBytes;
+    private long peakBytes;
 
     @Override
     public void allocated( long bytes )
     {
         this.allocatedBytes += bytes;
+        if ( allocatedBytes > peakBytes )
+        {
+            peakBytes = allocatedBytes;
+        }
     }
 
     @Override
@@ -50,4 +55,21 @@ public class LocalMemoryTracker implements MemoryAllocationTracker
     {
         return allocatedBytes;
     }
+
+    /**
+     * @return highest number of used bytes since creation or since last call to {@link #resetPeakMemoryUsage()}.
+     */
+    @Override
+    public long peakMemoryUsage()
+    {
+        return peakBytes;
+    }
+
+    /**
+     * Starts recording a new peak, beginning at the number of currently used bytes.
+     */
+    public void resetPeakMemoryUsage()
+    {
+        peakBytes = allocatedBytes;
+    }
 }
@@ -34,4 +34,13 @@ public interface MemoryTracker
      * @return number of bytes of direct memory that are used
      */
     long usedDirectMemory();
+
+    /**
+     * @return highest number of bytes of direct memory that have been in use at the same time, trackers that
+     * do not record a peak report the number of currently used bytes
+     */
+    default long peakMemoryUsage()
+    {
+        return usedDirectMemory();
+    }
 }
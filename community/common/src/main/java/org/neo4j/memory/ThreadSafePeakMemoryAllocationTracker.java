@@ -80,6 +80,7 @@ public class ThreadSafePeakMemoryAllocationTracker implements MemoryAllocationTr
         return allocated.get();
     }
 
+    @Override
     public long peakMemoryUsage()
     {
         return peak.get();
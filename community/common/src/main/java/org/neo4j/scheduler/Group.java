@@ -53,6 +53,14 @@ public enum Group
     INDEX_SAMPLING( "IndexSampling" ),
     /** Background index update applier, for eventually consistent indexes. */
     INDEX_UPDATING( "IndexUpdating", ExecutorServiceFactory.singleThread() ), // Single-threaded to serialise updates with opening/closing/flushing of indexes.
+    /** Background searcher refresh, making applied updates of eventually consistent indexes visible. */
+    INDEX_REFRESH( "IndexRefresh" ),
+    /** Background compaction of native indexes. */
+    INDEX_COMPACTION( "IndexCompaction" ),
+    /** Applies partitions of large batches of label scan store updates in parallel, in the transaction apply phase. */
+    LABEL_SCAN_UPDATING( "LabelScanUpdating" ),
+    /** Searches partitions of partitioned Lucene indexes in parallel with the threads running the queries. */
+    LUCENE_INDEX_SEARCH( "LuceneIndexSearch" ),
     /** Thread pool for anyone who want some help doing file IO in parallel. */
     FILE_IO_HELPER( "FileIOHelper" ),
     NATIVE_SECURITY( "NativeSecurity" ),
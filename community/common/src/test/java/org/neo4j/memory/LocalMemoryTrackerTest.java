@@ -51,4 +51,21 @@ class LocalMemoryTrackerTest
         memoryTracker.deallocated( 40 );
         assertEquals( 40, memoryTracker.usedDirectMemory() );
     }
+
+    @Test
+    void trackPeakMemoryUsage()
+    {
+        LocalMemoryTracker memoryTracker = new LocalMemoryTracker();
+        memoryTracker.allocated( 100 );
+        memoryTracker.allocated( 50 );
+        memoryTracker.deallocated( 120 );
+        assertEquals( 30, memoryTracker.usedDirectMemory() );
+        assertEquals( 150, memoryTracker.peakMemoryUsage() );
+
+        memoryTracker.resetPeakMemoryUsage();
+        assertEquals( 30, memoryTracker.peakMemoryUsage() );
+
+        memoryTracker.allocated( 10 );
+        assertEquals( 40, memoryTracker.peakMemoryUsage() );
+    }
 }
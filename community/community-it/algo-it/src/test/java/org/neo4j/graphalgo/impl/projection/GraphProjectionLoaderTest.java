@@ -0,0 +1,183 @@
+/*
+ * Copyright (c) 2018-2020 "Graph Foundation"
+ * Graph Foundation, Inc. [https://graphfoundation.org]
+ *
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of ONgDB.
+ *
+ * ONgDB is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.impl.projection;
+
+import common.Neo4jAlgoTestCase;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.neo4j.graphalgo.GraphAlgoFactory;
+import org.neo4j.graphalgo.PathFinder;
+import org.neo4j.graphdb.Direction;
+import org.neo4j.graphdb.Label;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Path;
+import org.neo4j.graphdb.Relationship;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class GraphProjectionLoaderTest extends Neo4jAlgoTestCase
+{
+    private static final Label CITY = Label.label( "City" );
+
+    @Test
+    public void shouldProjectNodesWithLabelsAndRelationshipsOfTypes()
+    {
+        // GIVEN
+        graph.setCurrentRelType( MyRelTypes.R1 );
+        Node a = city( "a" );
+        Node b = city( "b" );
+        Node c = city( "c" );
+        Node other = graph.makeNode( "other" );
+        Relationship ab = graph.makeEdge( "a", "b", "length", 2d );
+        Relationship ca = graph.makeEdge( "c", "a" );
+        graph.makeEdge( "a", "other" );
+        graph.setCurrentRelType( MyRelTypes.R2 );
+        graph.makeEdge( "b", "c" );
+        graph.setCurrentRelType( MyRelTypes.R1 );
+        commit();
+
+        // WHEN
+        GraphProjection projection = new GraphProjectionLoader( graphDb )
+                .withLabels( CITY.name() )
+                .withRelationshipTypes( MyRelTypes.R1.name() )
+                .withWeightProperty( "length", 5d )
+                .withThreads( 2 )
+                .load();
+
+        // THEN
+        assertEquals( 3, projection.nodeCount() );
+        assertEquals( 2, projection.relationshipCount() );
+        assertTrue( projection.contains( a.getId() ) );
+        assertFalse( projection.contains( other.getId() ) );
+        assertEquals( 1, projection.degree( a.getId(), Direction.OUTGOING ) );
+        assertEquals( 1, projection.degree( a.getId(), Direction.INCOMING ) );
+        assertEquals( 2, projection.degree( a.getId(), Direction.BOTH ) );
+        assertEquals( 0, projection.degree( b.getId(), Direction.OUTGOING ) );
+        assertEquals( 0, projection.degree( other.getId(), Direction.BOTH ) );
+
+        Map<Long,Long> neighbours = new HashMap<>();
+        Map<Long,Double> weights = new HashMap<>();
+        projection.forEachRelationship( a.getId(), Direction.BOTH, ( relationshipId, neighbourId, weight ) ->
+        {
+            neighbours.put( relationshipId, neighbourId );
+            weights.put( relationshipId, weight );
+            return true;
+        } );
+        assertEquals( b.getId(), (long) neighbours.get( ab.getId() ) );
+        assertEquals( c.getId(), (long) neighbours.get( ca.getId() ) );
+        assertEquals( 2d, weights.get( ab.getId() ), 0d );
+        assertEquals( 5d, weights.get( ca.getId() ), 0d );
+    }
+
+    @Test
+    public void shouldProjectRelationshipsOfDenseNodesAndLoops()
+    {
+        // GIVEN
+        graph.makeNode( "hub" );
+        for ( int i = 0; i < 200; i++ )
+        {
+            graph.makeEdge( "hub", "n" + i );
+        }
+        graph.makeEdge( "n0", "hub" );
+        graph.makeEdge( "hub", "hub" );
+        commit();
+
+        // WHEN
+        GraphProjection projection = new GraphProjectionLoader( graphDb ).withThreads( 3 ).load();
+
+        // THEN
+        long hub = graph.getNode( "hub" ).getId();
+        assertEquals( 201, projection.nodeCount() );
+        assertEquals( 202, projection.relationshipCount() );
+        assertEquals( 201, projection.degree( hub, Direction.OUTGOING ) );
+        assertEquals( 2, projection.degree( hub, Direction.INCOMING ) );
+        assertEquals( 202, projection.degree( hub, Direction.BOTH ) );
+        int[] visited = new int[1];
+        projection.forEachRelationship( hub, Direction.BOTH, ( relationshipId, neighbourId, weight ) ->
+        {
+            visited[0]++;
+            assertEquals( 1d, weight, 0d );
+            return true;
+        } );
+        assertEquals( 202, visited[0] );
+    }
+
+    @Test( expected = IllegalStateException.class )
+    public void shouldNotTraverseDirectionNotLoaded()
+    {
+        // GIVEN
+        graph.makeEdge( "a", "b" );
+        commit();
+        GraphProjection projection = new GraphProjectionLoader( graphDb ).withDirection( Direction.OUTGOING ).load();
+
+        // WHEN
+        projection.degree( graph.getNode( "a" ).getId(), Direction.INCOMING );
+    }
+
+    @Test
+    public void shouldFindShortestPathsInProjection()
+    {
+        // GIVEN
+        graph.makeEdgeChain( "a,b,d" );
+        graph.makeEdgeChain( "a,c,d" );
+        graph.makeEdgeChain( "a,e,f,d" );
+        graph.makeEdgeChain( "x,y" );
+        commit();
+        GraphProjection projection = new GraphProjectionLoader( graphDb ).load();
+
+        // WHEN
+        PathFinder<Path> finder = GraphAlgoFactory.shortestPath( projection, Direction.OUTGOING, 10 );
+
+        // THEN
+        assertPaths( finder.findAllPaths( graph.getNode( "a" ), graph.getNode( "d" ) ), "a,b,d", "a,c,d" );
+        assertEquals( 2, finder.findSinglePath( graph.getNode( "a" ), graph.getNode( "d" ) ).length() );
+        assertPaths( finder.findAllPaths( graph.getNode( "d" ), graph.getNode( "a" ) ) );
+        assertPaths( GraphAlgoFactory.shortestPath( projection, Direction.INCOMING, 10 )
+                .findAllPaths( graph.getNode( "d" ), graph.getNode( "a" ) ), "d,b,a", "d,c,a" );
+        assertNull( GraphAlgoFactory.shortestPath( projection, Direction.BOTH, 1 )
+                .findSinglePath( graph.getNode( "a" ), graph.getNode( "d" ) ) );
+        assertNull( finder.findSinglePath( graph.getNode( "a" ), graph.getNode( "y" ) ) );
+        assertEquals( 0, finder.findSinglePath( graph.getNode( "a" ), graph.getNode( "a" ) ).length() );
+    }
+
+    private Node city( String name )
+    {
+        Node node = graph.makeNode( name );
+        node.addLabel( CITY );
+        return node;
+    }
+
+    private void commit()
+    {
+        // Projections are loaded from committed data
+        tx.success();
+        tx.close();
+        tx = graphDb.beginTx();
+    }
+}
@@ -0,0 +1,206 @@
+/*
+ * Copyright (c) 2018-2020 "Graph Foundation"
+ * Graph Foundation, Inc. [https://graphfoundation.org]
+ *
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of ONgDB.
+ *
+ * ONgDB is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.path;
+
+import common.Neo4jAlgoTestCase;
+import org.junit.Test;
+
+import java.util.Random;
+
+import org.neo4j.graphalgo.Adjacency;
+import org.neo4j.graphalgo.CommonEvaluators;
+import org.neo4j.graphalgo.GraphAlgoFactory;
+import org.neo4j.graphalgo.PathFinder;
+import org.neo4j.graphalgo.WeightedPath;
+import org.neo4j.graphdb.Direction;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.PathExpanders;
+import org.neo4j.graphdb.Relationship;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class AdjacencyDijkstraTest extends Neo4jAlgoTestCase
+{
+    @Test
+    public void shouldFindCheapestPaths()
+    {
+        // GIVEN
+        graph.makeEdge( "a", "b", "length", 1d );
+        graph.makeEdge( "b", "d", "length", 3d );
+        graph.makeEdge( "a", "c", "length", 2d );
+        graph.makeEdge( "c", "d", "length", 2d );
+        graph.makeEdge( "a", "d", "length", 4d );
+        graph.makeEdge( "d", "e", "length", 1d );
+        graph.makeEdge( "x", "y", "length", 1d );
+        commit();
+        Adjacency projection = GraphAlgoFactory.adjacencyLoader( graphDb ).withWeightProperty( "length", 1d ).load();
+
+        // WHEN
+        PathFinder<WeightedPath> finder = GraphAlgoFactory.dijkstra( projection, Direction.OUTGOING );
+
+        // THEN
+        WeightedPath path = finder.findSinglePath( graph.getNode( "a" ), graph.getNode( "e" ) );
+        assertEquals( 5d, path.weight(), 0d );
+        assertPaths( finder.findAllPaths( graph.getNode( "a" ), graph.getNode( "d" ) ), "a,b,d", "a,c,d", "a,d" );
+        assertPaths( GraphAlgoFactory.dijkstra( projection, Direction.INCOMING )
+                .findAllPaths( graph.getNode( "e" ), graph.getNode( "c" ) ), "e,d,c" );
+        assertNull( finder.findSinglePath( graph.getNode( "e" ), graph.getNode( "a" ) ) );
+        assertNull( finder.findSinglePath( graph.getNode( "a" ), graph.getNode( "y" ) ) );
+        assertPaths( finder.findAllPaths( graph.getNode( "a" ), graph.getNode( "y" ) ) );
+        assertEquals( 0, finder.findSinglePath( graph.getNode( "a" ), graph.getNode( "a" ) ).length() );
+    }
+
+    @Test
+    public void shouldFindCheapestPathInProjectionOfOneDirection()
+    {
+        // GIVEN
+        graph.makeEdge( "a", "b", "length", 1d );
+        graph.makeEdge( "b", "d", "length", 3d );
+        graph.makeEdge( "a", "c", "length", 2d );
+        graph.makeEdge( "c", "d", "length", 1d );
+        graph.makeEdge( "a", "d", "length", 4d );
+        graph.makeEdge( "d", "e", "length", 1d );
+        commit();
+        Adjacency outgoing = GraphAlgoFactory.adjacencyLoader( graphDb ).withWeightProperty( "length", 1d )
+                .withDirection( Direction.OUTGOING ).load();
+        Adjacency incoming = GraphAlgoFactory.adjacencyLoader( graphDb ).withWeightProperty( "length", 1d )
+                .withDirection( Direction.INCOMING ).load();
+
+        // WHEN
+        PathFinder<WeightedPath> finder = GraphAlgoFactory.dijkstra( outgoing, Direction.OUTGOING );
+
+        // THEN
+        WeightedPath path = finder.findSinglePath( graph.getNode( "a" ), graph.getNode( "e" ) );
+        assertPath( path, "a,c,d,e" );
+        assertEquals( 4d, path.weight(), 0d );
+        assertNull( finder.findSinglePath( graph.getNode( "e" ), graph.getNode( "a" ) ) );
+        assertEquals( 0, finder.findSinglePath( graph.getNode( "a" ), graph.getNode( "a" ) ).length() );
+        path = GraphAlgoFactory.dijkstra( incoming, Direction.INCOMING ).findSinglePath( graph.getNode( "e" ), graph.getNode( "a" ) );
+        assertPath( path, "e,d,c,a" );
+        assertEquals( 4d, path.weight(), 0d );
+    }
+
+    @Test
+    public void shouldFindPathsAsCheapAsDijkstraOnNodes()
+    {
+        // GIVEN
+        Random random = new Random( 42 );
+        int nodes = 60;
+        for ( int i = 0; i < nodes; i++ )
+        {
+            graph.makeNode( "n" + i );
+        }
+        for ( int i = 0; i < nodes * 4; i++ )
+        {
+            graph.makeEdge( "n" + random.nextInt( nodes ), "n" + random.nextInt( nodes ), "length",
+                    (double) random.nextInt( 10 ) );
+        }
+        commit();
+        Adjacency projection = GraphAlgoFactory.adjacencyLoader( graphDb ).withWeightProperty( "length", 1d ).load();
+        PathFinder<WeightedPath> reference = GraphAlgoFactory.dijkstra( PathExpanders.forDirection( Direction.BOTH ),
+                CommonEvaluators.doubleCostEvaluator( "length" ) );
+
+        for ( int i = 0; i < 50; i++ )
+        {
+            Node start = graph.getNode( "n" + random.nextInt( nodes ) );
+            Node end = graph.getNode( "n" + random.nextInt( nodes ) );
+
+            // WHEN
+            WeightedPath expected = reference.findSinglePath( start, end );
+            WeightedPath single = GraphAlgoFactory.dijkstra( projection, Direction.BOTH ).findSinglePath( start, end );
+            WeightedPath aStar = GraphAlgoFactory.aStar( projection, Direction.BOTH, ( node, goal ) -> 0d )
+                    .findSinglePath( start, end );
+
+            // THEN
+            if ( expected == null )
+            {
+                assertNull( single );
+                assertNull( aStar );
+            }
+            else
+            {
+                assertEquals( expected.weight(), single.weight(), 0.0001 );
+                assertEquals( expected.weight(), aStar.weight(), 0.0001 );
+                assertEquals( expected.weight(), weightOf( single ), 0.0001 );
+                for ( WeightedPath path : GraphAlgoFactory.dijkstra( projection, Direction.BOTH ).findAllPaths( start, end ) )
+                {
+                    assertEquals( expected.weight(), weightOf( path ), 0.0001 );
+                }
+            }
+        }
+    }
+
+    @Test
+    public void shouldFindCheapestPathWithAStarEstimates()
+    {
+        // GIVEN
+        // Nodes on a line where "position" is the distance from "a", so the estimate never overshoots
+        graph.makeEdge( "a", "b", "length", 1d );
+        graph.makeEdge( "b", "c", "length", 1d );
+        graph.makeEdge( "c", "d", "length", 1d );
+        graph.makeEdge( "a", "x", "length", 1d );
+        graph.makeEdge( "x", "d", "length", 4d );
+        graph.makeEdge( "a", "d", "length", 10d );
+        graph.getNode( "a" ).setProperty( "position", 0d );
+        graph.getNode( "b" ).setProperty( "position", 1d );
+        graph.getNode( "c" ).setProperty( "position", 2d );
+        graph.getNode( "d" ).setProperty( "position", 3d );
+        graph.getNode( "x" ).setProperty( "position", 0.5d );
+        commit();
+        Adjacency projection = GraphAlgoFactory.adjacencyLoader( graphDb ).withWeightProperty( "length", 1d ).load();
+        PathFinder<WeightedPath> finder = GraphAlgoFactory.aStar( projection, Direction.OUTGOING, ( node, goal ) ->
+                Math.abs( position( node ) - position( goal ) ) );
+
+        // WHEN
+        WeightedPath path = finder.findSinglePath( graph.getNode( "a" ), graph.getNode( "d" ) );
+
+        // THEN
+        assertPath( path, "a,b,c,d" );
+        assertEquals( 3d, path.weight(), 0d );
+        assertNull( finder.findSinglePath( graph.getNode( "d" ), graph.getNode( "a" ) ) );
+    }
+
+    private double position( long nodeId )
+    {
+        return (double) graphDb.getNodeById( nodeId ).getProperty( "position" );
+    }
+
+    private static double weightOf( WeightedPath path )
+    {
+        double weight = 0;
+        for ( Relationship relationship : path.relationships() )
+        {
+            weight += (double) relationship.getProperty( "length" );
+        }
+        return weight;
+    }
+
+    private void commit()
+    {
+        // Projections are loaded from committed data
+        tx.success();
+        tx.close();
+        tx = graphDb.beginTx();
+    }
+}
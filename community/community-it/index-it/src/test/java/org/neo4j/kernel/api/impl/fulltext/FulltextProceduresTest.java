@@ -50,6 +50,8 @@ import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.LongFunction;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
@@ -75,6 +77,7 @@ import org.neo4j.kernel.api.exceptions.schema.RepeatedPropertyInSchemaException;
 import org.neo4j.kernel.api.exceptions.schema.RepeatedRelationshipTypeInSchemaException;
 import org.neo4j.kernel.configuration.Settings;
 import org.neo4j.kernel.internal.GraphDatabaseAPI;
+import org.neo4j.kernel.monitoring.Monitors;
 import org.neo4j.scheduler.Group;
 import org.neo4j.scheduler.JobScheduler;
 import org.neo4j.test.ThreadTestUtils;
@@ -91,6 +94,7 @@ import static java.lang.String.format;
 import static java.util.Arrays.asList;
 import static org.eclipse.collections.impl.set.mutable.primitive.LongHashSet.newSetWith;
 import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
 import static org.hamcrest.Matchers.hasItem;
 import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.is;
@@ -571,6 +575,73 @@ public class FulltextProceduresTest
         assertQueryFindsIds( db, false, "rel", "bla", relIds );
     }
 
+    @Test
+    public void awaitRefreshMustMakeUpdatesVisibleRegardlessOfMaxStaleness()
+    {
+        builder.setConfig( FulltextConfig.eventually_consistent_refresh_max_staleness, "1h" );
+        db = createDatabase();
+
+        try ( Transaction tx = db.beginTx() )
+        {
+            db.execute( format( NODE_CREATE, "node", array( LABEL.name() ), array( PROP ) + EVENTUALLY_CONSISTENT ) );
+            tx.success();
+        }
+        awaitIndexesOnline();
+
+        LongHashSet nodeIds = new LongHashSet();
+        try ( Transaction tx = db.beginTx() )
+        {
+            for ( int i = 0; i < 200; i++ )
+            {
+                Node node = db.createNode( LABEL );
+                node.setProperty( PROP, "bla bla" );
+                nodeIds.add( node.getId() );
+            }
+            tx.success();
+        }
+
+        db.execute( AWAIT_REFRESH ).close();
+        assertQueryFindsIds( db, true, "node", "bla", nodeIds );
+    }
+
+    @Test
+    public void eventuallyConsistentIndexRefreshesMustBeReportedToMonitors() throws InterruptedException
+    {
+        builder.setConfig( FulltextConfig.eventually_consistent_refresh_max_staleness, "100ms" );
+        db = createDatabase();
+        CountDownLatch refreshed = new CountDownLatch( 1 );
+        AtomicReference<String> refreshedIndex = new AtomicReference<>();
+        AtomicLong staleness = new AtomicLong( -1 );
+        EventuallyConsistentIndexRefresher.Monitor monitor = ( indexName, stalenessMillis, refreshMillis, queueDepth ) ->
+        {
+            refreshedIndex.set( indexName );
+            staleness.set( stalenessMillis );
+            refreshed.countDown();
+        };
+        db.getDependencyResolver().resolveDependency( Monitors.class ).addMonitorListener( monitor );
+
+        try ( Transaction tx = db.beginTx() )
+        {
+            db.execute( format( NODE_CREATE, "node", array( LABEL.name() ), array( PROP ) + EVENTUALLY_CONSISTENT ) );
+            tx.success();
+        }
+        awaitIndexesOnline();
+
+        long nodeId;
+        try ( Transaction tx = db.beginTx() )
+        {
+            Node node = db.createNode( LABEL );
+            node.setProperty( PROP, "bla bla" );
+            nodeId = node.getId();
+            tx.success();
+        }
+
+        assertTrue( refreshed.await( 20, TimeUnit.SECONDS ) );
+        assertEquals( "node", refreshedIndex.get() );
+        assertThat( staleness.get(), greaterThanOrEqualTo( 0L ) );
+        assertQueryFindsIds( db, true, "node", "bla", newSetWith( nodeId ) );
+    }
+
     @Test
     public void eventuallyConsistentIndexMustPopulateWithExistingDataWhenCreated()
     {
@@ -1448,6 +1519,51 @@ public class FulltextProceduresTest
         }
     }
 
+    @Test
+    public void queryResultsMustReflectChangesMadeBetweenQueriesInThisTransaction()
+    {
+        db = createDatabase();
+        try ( Transaction tx = db.beginTx() )
+        {
+            createSimpleNodesIndex();
+            tx.success();
+        }
+        awaitIndexesOnline();
+        long nodeIdA;
+        long nodeIdB;
+        try ( Transaction tx = db.beginTx() )
+        {
+            Node nodeA = db.createNode( LABEL );
+            nodeA.setProperty( PROP, "apa" );
+            nodeIdA = nodeA.getId();
+            Node nodeB = db.createNode( LABEL );
+            nodeB.setProperty( PROP, "apa" );
+            nodeIdB = nodeB.getId();
+            tx.success();
+        }
+        try ( Transaction tx = db.beginTx() )
+        {
+            Node nodeA = db.getNodeById( nodeIdA );
+            nodeA.setProperty( PROP, "bepa" );
+            assertQueryFindsIds( db, true, "nodes", "apa", newSetWith( nodeIdB ) );
+            assertQueryFindsIds( db, true, "nodes", "bepa", newSetWith( nodeIdA ) );
+
+            Node nodeC = db.createNode( LABEL );
+            nodeC.setProperty( PROP, "bepa" );
+            assertQueryFindsIds( db, true, "nodes", "bepa", newSetWith( nodeIdA, nodeC.getId() ) );
+
+            nodeA.setProperty( PROP, "apa" );
+            assertQueryFindsIds( db, true, "nodes", "apa", newSetWith( nodeIdA, nodeIdB ) );
+            assertQueryFindsIds( db, true, "nodes", "bepa", newSetWith( nodeC.getId() ) );
+
+            nodeC.removeLabel( LABEL );
+            db.getNodeById( nodeIdB ).removeProperty( PROP );
+            assertQueryFindsIds( db, true, "nodes", "apa", newSetWith( nodeIdA ) );
+            assertQueryFindsIds( db, true, "nodes", "bepa", new LongHashSet() );
+            tx.success();
+        }
+    }
+
     @Test
     public void queryResultsMustIncludeRelationshipsAddedInThisTransaction()
     {
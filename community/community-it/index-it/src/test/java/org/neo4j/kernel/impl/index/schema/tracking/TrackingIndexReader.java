@@ -76,6 +76,12 @@ public class TrackingIndexReader implements IndexReader
         return delegate.hasFullValuePrecision( predicates );
     }
 
+    @Override
+    public boolean hasFullValuePrecision( IndexOrder indexOrder, boolean needsValues, IndexQuery... predicates )
+    {
+        return delegate.hasFullValuePrecision( indexOrder, needsValues, predicates );
+    }
+
     @Override
     public void distinctValues( IndexProgressor.NodeValueClient client, NodePropertyAccessor propertyAccessor, boolean needsValues )
     {
@@ -199,6 +199,23 @@ public abstract class CompositeIndexAccessorCompatibility extends IndexAccessorC
         assertThat( query( exists( 1 ) ), equalTo( asList( 1L, 2L, 3L, 4L, 5L, 6L ) ) );
     }
 
+    @Test
+    public void testIndexSeekRangeWithExactByString() throws Exception
+    {
+        Assume.assumeTrue( "Assume support for granular composite queries", testSuite.supportsGranularCompositeQueries() );
+
+        updateAndCommit( asList(
+                add( 1L, descriptor.schema(), "a", "x" ),
+                add( 2L, descriptor.schema(), "b", "y" ),
+                add( 3L, descriptor.schema(), "c", "x" ),
+                add( 4L, descriptor.schema(), "d", "y" ),
+                add( 5L, descriptor.schema(), "e", "x" ) ) );
+
+        assertThat( query( range( 0, "a", true, "d", true ), exact( 1, "x" ) ), equalTo( asList( 1L, 3L ) ) );
+        assertThat( query( range( 0, "b", false, null, false ), exact( 1, "y" ) ), equalTo( singletonList( 4L ) ) );
+        assertThat( query( range( 0, null, false, "c", true ), exact( 1, "y" ) ), equalTo( singletonList( 2L ) ) );
+    }
+
     /* testIndexExactAndRangeExact_Range */
 
     @Test
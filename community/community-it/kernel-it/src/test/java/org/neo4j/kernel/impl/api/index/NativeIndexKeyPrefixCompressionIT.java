@@ -0,0 +1,302 @@
+/*
+ * Copyright (c) 2018-2020 "Graph Foundation"
+ * Graph Foundation, Inc. [https://graphfoundation.org]
+ *
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of ONgDB.
+ *
+ * ONgDB is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.api.index;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.neo4j.graphdb.Label;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.ResourceIterator;
+import org.neo4j.graphdb.StringSearchMode;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.graphdb.factory.GraphDatabaseSettings.SchemaIndex;
+import org.neo4j.index.internal.gbptree.GBPTree;
+import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.kernel.impl.index.schema.GenericNativeIndexProvider;
+import org.neo4j.kernel.impl.index.schema.StringIndexProvider;
+import org.neo4j.test.rule.EmbeddedDatabaseRule;
+import org.neo4j.util.FeatureToggles;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.neo4j.graphdb.Label.label;
+import static org.neo4j.graphdb.factory.GraphDatabaseSettings.default_schema_provider;
+
+@RunWith( Parameterized.class )
+public class NativeIndexKeyPrefixCompressionIT
+{
+    private static final Label LABEL = label( "Url" );
+    private static final String KEY = "url";
+    private static final String OTHER_KEY = "path";
+    private static final int NODES = 5_000;
+
+    @Parameterized.Parameters( name = "{0}" )
+    public static Collection<Object[]> providers()
+    {
+        return asList( new Object[]{SchemaIndex.NATIVE_BTREE10}, new Object[]{SchemaIndex.NATIVE20} );
+    }
+
+    @Parameterized.Parameter
+    public SchemaIndex schemaIndex;
+
+    @Rule
+    public final EmbeddedDatabaseRule db = new EmbeddedDatabaseRule().startLazily();
+
+    @Before
+    public void enableCompression()
+    {
+        FeatureToggles.set( GenericNativeIndexProvider.class, GenericNativeIndexProvider.COMPRESS_KEY_PREFIXES_NAME, true );
+        FeatureToggles.set( StringIndexProvider.class, StringIndexProvider.COMPRESS_KEY_PREFIXES_NAME, true );
+        db.withSetting( default_schema_provider, schemaIndex.providerName() );
+    }
+
+    @After
+    public void restoreFeatureToggles()
+    {
+        FeatureToggles.clear( GenericNativeIndexProvider.class, GenericNativeIndexProvider.COMPRESS_KEY_PREFIXES_NAME );
+        FeatureToggles.clear( StringIndexProvider.class, StringIndexProvider.COMPRESS_KEY_PREFIXES_NAME );
+    }
+
+    @Test
+    public void shouldFindPopulatedAndUpdatedEntriesInCompressedIndexes() throws IOException
+    {
+        // given some nodes before the indexes are created, so that they get populated
+        Map<Long,String> urls = new HashMap<>();
+        createNodes( 0, NODES / 2, urls );
+        try ( Transaction tx = db.beginTx() )
+        {
+            db.schema().indexFor( LABEL ).on( KEY ).create();
+            db.schema().indexFor( LABEL ).on( KEY ).on( OTHER_KEY ).create();
+            tx.success();
+        }
+        awaitIndexesOnline();
+
+        // when updating the online indexes
+        createNodes( NODES / 2, NODES, urls );
+        removeAndChangeSome( urls );
+
+        // then
+        assertTrue( allIndexFilesCompressed() );
+        assertFindsAll( urls );
+
+        // and when restarting without compression for new indexes, the existing indexes keep their leaf format
+        restoreFeatureToggles();
+        db.restartDatabase();
+        awaitIndexesOnline();
+        assertTrue( allIndexFilesCompressed() );
+        assertFindsAll( urls );
+        createNodes( NODES, NODES + 100, urls );
+        assertFindsAll( urls );
+    }
+
+    @Test
+    public void shouldNotCompressIndexesWhenToggledOff()
+    {
+        // given
+        restoreFeatureToggles();
+        Map<Long,String> urls = new HashMap<>();
+        createNodes( 0, 100, urls );
+
+        // when
+        try ( Transaction tx = db.beginTx() )
+        {
+            db.schema().indexFor( LABEL ).on( KEY ).create();
+            tx.success();
+        }
+        awaitIndexesOnline();
+
+        // then
+        assertFalse( allIndexFilesCompressed() );
+        assertFindsAll( urls );
+    }
+
+    private void createNodes( int from, int to, Map<Long,String> urls )
+    {
+        try ( Transaction tx = db.beginTx() )
+        {
+            for ( int i = from; i < to; i++ )
+            {
+                Node node = db.createNode( LABEL );
+                String url = url( i );
+                node.setProperty( KEY, url );
+                node.setProperty( OTHER_KEY, path( url ) );
+                urls.put( node.getId(), url );
+            }
+            tx.success();
+        }
+    }
+
+    private void removeAndChangeSome( Map<Long,String> urls )
+    {
+        try ( Transaction tx = db.beginTx() )
+        {
+            int i = 0;
+            for ( Long nodeId : new ArrayList<>( urls.keySet() ) )
+            {
+                Node node = db.getNodeById( nodeId );
+                if ( i % 7 == 0 )
+                {
+                    node.removeProperty( KEY );
+                    urls.remove( nodeId );
+                }
+                else if ( i % 11 == 0 )
+                {
+                    String url = url( NODES * 2 + i );
+                    node.setProperty( KEY, url );
+                    node.setProperty( OTHER_KEY, path( url ) );
+                    urls.put( nodeId, url );
+                }
+                i++;
+            }
+            tx.success();
+        }
+    }
+
+    private void assertFindsAll( Map<Long,String> urls )
+    {
+        try ( Transaction tx = db.beginTx() )
+        {
+            for ( Map.Entry<Long,String> entry : urls.entrySet() )
+            {
+                String url = entry.getValue();
+                assertEquals( url, set( entry.getKey() ), ids( db.findNodes( LABEL, KEY, url ) ) );
+                assertEquals( url, set( entry.getKey() ), ids( db.findNodes( LABEL, KEY, url, OTHER_KEY, path( url ) ) ) );
+            }
+
+            String prefix = "https://example.org/catalogue/section-3";
+            Set<Long> expected = new HashSet<>();
+            urls.forEach( ( nodeId, url ) ->
+            {
+                if ( url.startsWith( prefix ) )
+                {
+                    expected.add( nodeId );
+                }
+            } );
+            assertEquals( expected, ids( db.findNodes( LABEL, KEY, prefix, StringSearchMode.PREFIX ) ) );
+            tx.success();
+        }
+    }
+
+    private boolean allIndexFilesCompressed()
+    {
+        PageCache pageCache = db.resolveDependency( PageCache.class );
+        List<File> indexFiles = new ArrayList<>();
+        collectIndexFiles( db.databaseLayout().file( "schema" ), indexFiles );
+        assertFalse( indexFiles.isEmpty() );
+        boolean compressed = true;
+        for ( File indexFile : indexFiles )
+        {
+            try
+            {
+                compressed &= GBPTree.hasCompressedKeyPrefixes( pageCache, indexFile );
+            }
+            catch ( IOException e )
+            {
+                throw new AssertionError( indexFile.toString(), e );
+            }
+        }
+        return compressed;
+    }
+
+    private static void collectIndexFiles( File directory, List<File> into )
+    {
+        File[] files = directory.listFiles();
+        if ( files == null )
+        {
+            return;
+        }
+        for ( File file : files )
+        {
+            if ( file.isDirectory() )
+            {
+                collectIndexFiles( file, into );
+            }
+            else if ( file.getName().startsWith( "index-" ) && isStringOrGenericIndexFile( file ) )
+            {
+                into.add( file );
+            }
+        }
+    }
+
+    private static boolean isStringOrGenericIndexFile( File file )
+    {
+        // Other parts of fusion indexes, e.g. numbers, have fixed size keys which are never compressed
+        String path = file.getPath();
+        return path.contains( File.separator + "native-btree-1.0" + File.separator ) || path.contains( File.separator + "string-1.0" + File.separator );
+    }
+
+    private void awaitIndexesOnline()
+    {
+        try ( Transaction tx = db.beginTx() )
+        {
+            db.schema().awaitIndexesOnline( 1, TimeUnit.MINUTES );
+            tx.success();
+        }
+    }
+
+    private static String url( int i )
+    {
+        // Long shared prefixes, which is what prefix compression is for
+        return "https://example.org/catalogue/section-" + (i % 10) + "/category-" + (i % 100) + "/item-" + i;
+    }
+
+    private static String path( String url )
+    {
+        return url.substring( 0, url.lastIndexOf( '/' ) );
+    }
+
+    private static Set<Long> set( long nodeId )
+    {
+        Set<Long> set = new HashSet<>();
+        set.add( nodeId );
+        return set;
+    }
+
+    private static Set<Long> ids( ResourceIterator<Node> nodes )
+    {
+        Set<Long> ids = new HashSet<>();
+        while ( nodes.hasNext() )
+        {
+            ids.add( nodes.next().getId() );
+        }
+        return ids;
+    }
+}
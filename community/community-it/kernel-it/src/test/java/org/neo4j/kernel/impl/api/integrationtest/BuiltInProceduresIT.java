@@ -206,6 +206,9 @@ public class BuiltInProceduresIT extends KernelIntegrationTest
                 proc( "db.resampleIndex", "(index :: STRING?) :: VOID",
                       "Schedule resampling of an index (for example: CALL db.resampleIndex(\":Person(name)\")).", "READ" ),
                 proc( "db.resampleOutdatedIndexes", "() :: VOID", "Schedule resampling of all outdated indexes.", "READ" ),
+                proc( "db.index.nearestNeighbours", "(index :: STRING?, point :: POINT?, k :: INTEGER?) :: (node :: NODE?, weight :: FLOAT?)",
+                      "Find the nodes with the points closest to a point, closest first, using a native index on a point property " +
+                      "(for example: CALL db.index.nearestNeighbours(\":Place(location)\", point({x: 1.0, y: 2.0}), 10)).", "READ" ),
                 proc( "db.propertyKeys", "() :: (propertyKey :: STRING?)", "List all property keys in the database.", "READ" ),
                 proc( "db.labels", "() :: (label :: STRING?)", "List all labels in the database.", "READ" ),
                 proc( "db.schema", "() :: (nodes :: LIST? OF NODE?, relationships :: LIST? " + "OF " + "RELATIONSHIP?)",
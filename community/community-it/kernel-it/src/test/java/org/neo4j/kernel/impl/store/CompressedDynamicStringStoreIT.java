@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) 2018-2020 "Graph Foundation"
+ * Graph Foundation, Inc. [https://graphfoundation.org]
+ *
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of ONgDB.
+ *
+ * ONgDB is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.store;
+
+import org.junit.Rule;
+import org.junit.Test;
+
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.graphdb.factory.GraphDatabaseSettings;
+import org.neo4j.kernel.impl.storageengine.impl.recordstorage.RecordStorageEngine;
+import org.neo4j.kernel.impl.store.format.standard.StandardCompressedV3_6;
+import org.neo4j.test.rule.DatabaseRule;
+import org.neo4j.test.rule.EmbeddedDatabaseRule;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class CompressedDynamicStringStoreIT
+{
+    @Rule
+    public final DatabaseRule db = new EmbeddedDatabaseRule()
+            .withSetting( GraphDatabaseSettings.record_format, StandardCompressedV3_6.NAME );
+
+    @Test
+    public void shouldReadBackCompressedStringsCommittedInTransactions() throws Exception
+    {
+        // GIVEN
+        StringBuilder builder = new StringBuilder();
+        for ( int i = 0; i < 200; i++ )
+        {
+            builder.append( "{\"name\":\"node-" ).append( i ).append( "\",\"active\":true}," );
+        }
+        String value = builder.toString();
+        PropertyStore propertyStore = propertyStore();
+        assertSame( DynamicStringCompression.DEFLATE, propertyStore.stringCompression() );
+        long stringRecordsBefore = propertyStore.getStringStore().getHighId();
+
+        // WHEN
+        long nodeId;
+        try ( Transaction tx = db.beginTx() )
+        {
+            Node node = db.createNode();
+            node.setProperty( "json", value );
+            nodeId = node.getId();
+            tx.success();
+        }
+
+        // THEN
+        long stringRecords = propertyStore().getStringStore().getHighId() - stringRecordsBefore;
+        int uncompressedRecords = value.length() / propertyStore.getStringStore().getRecordDataSize();
+        assertTrue( "Expected string to be stored compressed in " + stringRecords + " records",
+                stringRecords < uncompressedRecords );
+        assertValue( nodeId, value );
+        db.restartDatabase();
+        assertValue( nodeId, value );
+    }
+
+    private void assertValue( long nodeId, String value )
+    {
+        try ( Transaction tx = db.beginTx() )
+        {
+            assertEquals( value, db.getNodeById( nodeId ).getProperty( "json" ) );
+            tx.success();
+        }
+    }
+
+    private PropertyStore propertyStore()
+    {
+        return db.getDependencyResolver().resolveDependency( RecordStorageEngine.class ).testAccessNeoStores().getPropertyStore();
+    }
+}
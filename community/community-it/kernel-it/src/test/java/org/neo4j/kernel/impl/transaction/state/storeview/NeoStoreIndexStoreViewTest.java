@@ -59,6 +59,7 @@ import org.neo4j.kernel.impl.storageengine.impl.recordstorage.RecordStorageEngin
 import org.neo4j.kernel.impl.storageengine.impl.recordstorage.RecordStorageReader;
 import org.neo4j.kernel.impl.store.NeoStores;
 import org.neo4j.kernel.internal.GraphDatabaseAPI;
+import org.neo4j.scheduler.JobScheduler;
 import org.neo4j.storageengine.api.StorageNodeCursor;
 import org.neo4j.storageengine.api.StorageReader;
 import org.neo4j.storageengine.api.StorageRelationshipScanCursor;
@@ -137,6 +138,11 @@ public class NeoStoreIndexStoreViewTest
         reader.close();
     }
 
+    private JobScheduler scheduler()
+    {
+        return graphDb.getDependencyResolver().resolveDependency( JobScheduler.class );
+    }
+
     @Test
     public void shouldScanExistingNodesForALabel() throws Exception
     {
@@ -158,6 +164,44 @@ public class NeoStoreIndexStoreViewTest
             ), visitor.getUpdates() );
     }
 
+    @Test
+    public void shouldScanExistingNodesForALabelInParallel() throws Exception
+    {
+        // given
+        Set<EntityUpdates> expected = new HashSet<>();
+        expected.add( add( alistair.getId(), propertyKeyId, "Alistair", new long[] { labelId } ) );
+        expected.add( add( stefan.getId(), propertyKeyId, "Stefan", new long[] { labelId } ) );
+        int nodesPerChunk = ParallelNodeStoreScan.PAGES_PER_CHUNK * neoStores.getNodeStore().getRecordsPerPage();
+        expected.addAll( createNamedNodes( nodesPerChunk * 3 ) );
+
+        EntityUpdateCollectingVisitor visitor = new EntityUpdateCollectingVisitor();
+        NeoStoreIndexStoreView storeView = new NeoStoreIndexStoreView( LockService.NO_LOCK_SERVICE, neoStores );
+        StoreScan<Exception> storeScan = storeView.visitNodesInParallel( new int[]{labelId}, id -> id == propertyKeyId, visitor, 4, scheduler() );
+
+        // when
+        storeScan.run();
+
+        // then
+        assertEquals( expected, visitor.getUpdates() );
+    }
+
+    @Test
+    public void shouldNotScanInParallelWhenStoppedBeforeRunning() throws Exception
+    {
+        // given
+        createNamedNodes( ParallelNodeStoreScan.PAGES_PER_CHUNK * neoStores.getNodeStore().getRecordsPerPage() );
+        EntityUpdateCollectingVisitor visitor = new EntityUpdateCollectingVisitor();
+        NeoStoreIndexStoreView storeView = new NeoStoreIndexStoreView( LockService.NO_LOCK_SERVICE, neoStores );
+        StoreScan<Exception> storeScan = storeView.visitNodesInParallel( new int[]{labelId}, id -> id == propertyKeyId, visitor, 4, scheduler() );
+
+        // when
+        storeScan.stop();
+        storeScan.run();
+
+        // then
+        assertEquals( emptySet(), visitor.getUpdates() );
+    }
+
     @Test
     public void shouldScanExistingRelationshipsForARelationshiptype() throws Exception
     {
@@ -354,6 +398,25 @@ public class NeoStoreIndexStoreViewTest
         }
     }
 
+    private Set<EntityUpdates> createNamedNodes( int count )
+    {
+        Set<EntityUpdates> updates = new HashSet<>();
+        for ( int i = 0; i < count; i += 10_000 )
+        {
+            try ( Transaction tx = graphDb.beginTx() )
+            {
+                for ( int j = i; j < Math.min( count, i + 10_000 ); j++ )
+                {
+                    Node node = graphDb.createNode( label );
+                    node.setProperty( "name", "Node" + j );
+                    updates.add( add( node.getId(), propertyKeyId, "Node" + j, new long[] { labelId } ) );
+                }
+                tx.success();
+            }
+        }
+        return updates;
+    }
+
     private void deleteAlistairAndStefanNodes()
     {
         try ( Transaction tx = graphDb.beginTx() )
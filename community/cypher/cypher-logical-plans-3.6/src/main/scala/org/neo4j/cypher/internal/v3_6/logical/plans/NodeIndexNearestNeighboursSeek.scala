@@ -0,0 +1,44 @@
+/*
+ * Copyright (c) 2018-2020 "Graph Foundation"
+ * Graph Foundation, Inc. [https://graphfoundation.org]
+ *
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of ONgDB.
+ *
+ * ONgDB is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.v3_6.logical.plans
+
+import org.neo4j.cypher.internal.v3_6.expressions.{Expression, LabelToken, PropertyKeyToken}
+import org.neo4j.cypher.internal.v3_6.util.attribution.IdGen
+
+/**
+  * Produce one row for each of the 'k' nodes labelled 'label' whose 'property' is closest to 'point', using an index on
+  * label(property). Each row contains the contents of argument and a node (assigned to 'idName').
+  *
+  * If fewer than 'k' nodes have a point comparable to 'point', the remaining rows are other nodes labelled 'label'. Their
+  * distance to 'point' is null, so sorting these rows by distance and keeping the first 'k' gives the same result as
+  * doing so for all nodes labelled 'label'.
+  */
+case class NodeIndexNearestNeighboursSeek(idName: String,
+                                          label: LabelToken,
+                                          property: PropertyKeyToken,
+                                          point: Expression,
+                                          k: Expression,
+                                          argumentIds: Set[String])(implicit idGen: IdGen) extends NodeLogicalLeafPlan(idGen) {
+
+  override val availableSymbols: Set[String] = argumentIds + idName
+}
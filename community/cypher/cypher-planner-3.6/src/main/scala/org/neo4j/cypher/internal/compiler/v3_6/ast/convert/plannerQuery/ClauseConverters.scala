@@ -23,6 +23,7 @@
 package org.neo4j.cypher.internal.compiler.v3_6.ast.convert.plannerQuery
 
 import org.neo4j.cypher.internal.compiler.v3_6.planner._
+import org.neo4j.cypher.internal.compiler.v3_6.planner.logical.ordering.OrderedAggregation
 import org.neo4j.cypher.internal.ir.v3_6.helpers.ExpressionConverters._
 import org.neo4j.cypher.internal.ir.v3_6.helpers.PatternConverters._
 import org.neo4j.cypher.internal.ir.v3_6.{NoHeaders, _}
@@ -108,10 +109,9 @@ object ClauseConverters {
       }
       val requiredOrder = findRequiredOrder(projection)
 
-      acc.
+      withOrderedAggregation(acc, projection, requiredOrder).
         withHorizon(projection).
-        withReturns(returns).
-        withInterestingOrder(requiredOrder)
+        withReturns(returns)
     case _ =>
       throw new InternalException("AST needs to be rewritten before it can be used for planning. Got: " + clause)
   }
@@ -129,6 +129,35 @@ object ClauseConverters {
     InterestingOrder(requiredOrderColumns)
   }
 
+  /*
+  A lone min or max over a node property, without grouping keys, only needs the first non-null value of that property
+  in ascending (min) or descending (max) order. Rows where the property is null do not change the result, so we solve
+  them away with an IS NOT NULL predicate and mark the order as interesting. This lets an index scan or seek provide the
+  order, and the aggregation planner can then stop after the first row.
+   */
+  private def withOrderedAggregation(builder: PlannerQueryBuilder,
+                                     horizon: QueryHorizon,
+                                     requiredOrder: InterestingOrder): PlannerQueryBuilder = {
+    val queryGraph = builder.currentQueryGraph
+    horizon match {
+      case AggregatingQueryProjection(groupingExpressions, aggregationExpressions, _, _)
+        if groupingExpressions.isEmpty && aggregationExpressions.size == 1 && queryGraph.readOnly =>
+        aggregationExpressions.values.head match {
+          case OrderedAggregation(property@Property(LogicalVariable(varName), propName), ascending)
+            if queryGraph.patternNodes.contains(varName) && !queryGraph.argumentIds.contains(varName) =>
+            val column = s"$varName.${propName.name}"
+            val interestingOrder = if (ascending) requiredOrder.ascInteresting(column) else requiredOrder.descInteresting(column)
+            builder.
+              amendQueryGraph(_.addPredicates(IsNotNull(property)(property.position))).
+              withInterestingOrder(interestingOrder)
+          case _ =>
+            builder.withInterestingOrder(requiredOrder)
+        }
+      case _ =>
+        builder.withInterestingOrder(requiredOrder)
+    }
+  }
+
   private def extractColumnsFromHorizon(shuffle: QueryShuffle, projections: Map[String, Expression]): Seq[InterestingOrder.ColumnOrder] = {
 
     import InterestingOrder._
@@ -478,9 +507,8 @@ object ClauseConverters {
 
       val requiredOrder = findRequiredOrder(queryProjection)
 
-      builder.
+      withOrderedAggregation(builder, queryProjection, requiredOrder).
         withHorizon(queryProjection).
-        withInterestingOrder(requiredOrder).
         withTail(RegularPlannerQuery(QueryGraph()))
 
     case _ =>
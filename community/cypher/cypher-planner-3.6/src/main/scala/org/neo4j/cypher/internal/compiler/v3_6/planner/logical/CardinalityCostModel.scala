@@ -73,7 +73,8 @@ case class CardinalityCostModel(config: CypherPlannerConfiguration) extends Cost
     case _: NodeUniqueIndexSeek |
          _: NodeIndexSeek |
          _: NodeIndexContainsScan |
-         _: NodeIndexEndsWithScan
+         _: NodeIndexEndsWithScan |
+         _: NodeIndexNearestNeighboursSeek
     => 1.9
 
     case _: NodeByIdSeek |
@@ -54,7 +54,7 @@ case object PlanEventHorizon extends EventHorizonPlanner {
         }
 
       case regularProjection: RegularQueryProjection =>
-        val sortedAndLimited = sortSkipAndLimit(selectedPlan, query, query.interestingOrder, context)
+        val sortedAndLimited = sortSkipAndLimit(nearestNeighboursSeekPlanner(selectedPlan, regularProjection, context), query, query.interestingOrder, context)
         val projected =
           if (regularProjection.projections.isEmpty && query.tail.isEmpty) {
             context.logicalPlanProducer.planEmptyProjection(plan, context)
@@ -227,7 +227,7 @@ abstract class AbstractIndexSeekLeafPlanner extends LeafPlanner with LeafPlanFro
     }
 
     maybeMatchingPredicates
-      .filter(isValidPredicateCombination)
+      .filter(isValidPredicateCombination(_, indexDescriptor))
       .map { matchingPredicates =>
         matchPredicateWithIndexDescriptorAndInterestingOrder(matchingPredicates, indexDescriptor, interestingOrder)
       }
@@ -250,20 +250,37 @@ abstract class AbstractIndexSeekLeafPlanner extends LeafPlanner with LeafPlanFro
 
     // Ask the index for its order capabilities for the types in prefix/subset defined by the interesting order
     val indexNamesAndTypes = matchingPredicates.map(mp => s"${mp.name}.${mp.propertyKeyName.name}").zip(types)
-    val providedOrder= ResultOrdering.withIndexOrderCapability(interestingOrder, indexNamesAndTypes, indexDescriptor.orderCapability)
+    // In a composite range seek the leading properties are seeked by single exact values, which are the same for all
+    // results. The order is therefore provided by the properties from the first non-exact one and on.
+    val orderedNamesAndTypes = matchingPredicates.indexWhere(!_.exactPredicate) match {
+      case -1 => indexNamesAndTypes
+      case firstNonExact => indexNamesAndTypes.drop(firstNonExact)
+    }
+    val providedOrder= ResultOrdering.withIndexOrderCapability(interestingOrder, orderedNamesAndTypes, _ => indexDescriptor.orderCapability(types))
 
     // Return a tuple of matching predicates(plannables), an equal length seq of property behaviours and a single index ordering capability
     (matchingPredicates, propertyBehaviours, providedOrder)
   }
 
-  private def isValidPredicateCombination(foundPredicates: Seq[IndexCompatiblePredicate]): Boolean = {
-    // We currently only support range queries against single prop indexes
-    // TODO: Consider fixing this once kernel support native composite indexes for range queries
+  private def isValidPredicateCombination(foundPredicates: Seq[IndexCompatiblePredicate], indexDescriptor: IndexDescriptor): Boolean = {
+    // Range queries against composite indexes are only supported by indexes that can seek them, and only
+    // for exact values on the leading properties followed by a range on the last one
     foundPredicates.length == 1 ||
       foundPredicates.forall(_.queryExpression match {
         case _: SingleQueryExpression[_] => true
         case _: ManyQueryExpression[_] => true
         case _ => false
+      }) ||
+      indexDescriptor.supportsGranularCompositeQueries && isCompositeRangeSeek(foundPredicates)
+  }
+
+  private def isCompositeRangeSeek(foundPredicates: Seq[IndexCompatiblePredicate]): Boolean = {
+    // Single exact values on the leading properties, so that the results can be read by one ordered seek
+    foundPredicates.init.forall(_.queryExpression.isInstanceOf[SingleQueryExpression[_]]) &&
+      (foundPredicates.last.queryExpression match {
+        case RangeQueryExpression(_: InequalitySeekRangeWrapper) => true
+        case RangeQueryExpression(_: PrefixSeekRangeWrapper) => true
+        case _ => false
       })
   }
 
@@ -37,7 +37,7 @@ import org.neo4j.cypher.internal.v3_6.logical.plans.{DeleteExpression => DeleteE
 import org.neo4j.cypher.internal.v3_6.util.AssertionRunner.Thunk
 import org.neo4j.cypher.internal.v3_6.util.Foldable.FoldableAny
 import org.neo4j.cypher.internal.v3_6.util.attribution.{Attributes, IdGen}
-import org.neo4j.cypher.internal.v3_6.util.{AssertionRunner, ExhaustiveShortestPathForbiddenException, InternalException}
+import org.neo4j.cypher.internal.v3_6.util.{AssertionRunner, ExhaustiveShortestPathForbiddenException, InputPosition, InternalException}
 
 /*
  * The responsibility of this class is to produce the correct solved PlannerQuery when creating logical plans.
@@ -205,6 +205,20 @@ case class LogicalPlanProducer(cardinalityModel: CardinalityModel, planningAttri
     annotate(NodeByLabelScan(idName, label, argumentIds), solved, ProvidedOrder.empty, context)
   }
 
+  /**
+    * Replaces a label scan that is only sorted by distance and limited afterwards. It solves the same as the scan,
+    * the sort and limit on top of it solve the rest.
+    */
+  def planNodeIndexNearestNeighboursSeek(scan: NodeByLabelScan,
+                                         label: LabelToken,
+                                         property: PropertyKeyToken,
+                                         point: Expression,
+                                         k: Expression,
+                                         context: LogicalPlanningContext): LogicalPlan = {
+    val plan = NodeIndexNearestNeighboursSeek(scan.idName, label, property, point, k, scan.argumentIds)
+    annotate(plan, solveds.get(scan.id), ProvidedOrder.empty, context)
+  }
+
   def planNodeIndexSeek(idName: String,
                         label: LabelToken,
                         properties: Seq[IndexedProperty],
@@ -551,6 +565,13 @@ case class LogicalPlanProducer(cardinalityModel: CardinalityModel, planningAttri
     annotate(LimitPlan(inner, count, ties), solved, providedOrders.get(inner.id), context)
   }
 
+  /**
+    * A limit of one row below an aggregation that only needs the first row. It does not solve anything by itself,
+    * the aggregation on top of it solves the projection.
+    */
+  def planLimitForAggregation(inner: LogicalPlan, context: LogicalPlanningContext): LogicalPlan =
+    annotate(LimitPlan(inner, SignedDecimalIntegerLiteral("1")(InputPosition.NONE), DoNotIncludeTies), solveds.get(inner.id), providedOrders.get(inner.id), context)
+
   def planSort(inner: LogicalPlan, sortColumns: Seq[ColumnOrder], reportedSortItems: Seq[ast.SortItem], interestingOrder: InterestingOrder, context: LogicalPlanningContext): LogicalPlan = {
     val solved = solveds.get(inner.id).updateTailOrSelf(_.updateQueryProjection(_.updateShuffle(_.withSortItems(reportedSortItems))).withInterestingOrder(interestingOrder))
     val providedOrder = ProvidedOrder(sortColumns.map(sortColumnToProvided))
@@ -23,7 +23,9 @@
 package org.neo4j.cypher.internal.compiler.v3_6.planner.logical.steps
 
 import org.neo4j.cypher.internal.compiler.v3_6.planner.logical.LogicalPlanningContext
-import org.neo4j.cypher.internal.ir.v3_6.{AggregatingQueryProjection, InterestingOrder}
+import org.neo4j.cypher.internal.compiler.v3_6.planner.logical.ordering.OrderedAggregation
+import org.neo4j.cypher.internal.ir.v3_6.{AggregatingQueryProjection, InterestingOrder, ProvidedOrder}
+import org.neo4j.cypher.internal.v3_6.expressions._
 import org.neo4j.cypher.internal.v3_6.logical.plans.LogicalPlan
 
 object aggregation {
@@ -33,12 +35,43 @@ object aggregation {
     val (step1, groupingExpressions) = expressionSolver(plan, aggregation.groupingExpressions, interestingOrder, context)
     val (rewrittenPlan, aggregations) = expressionSolver(step1, aggregation.aggregationExpressions, interestingOrder, context)
 
+    val aggregationInput =
+      if (groupingExpressions.isEmpty && firstRowSolves(rewrittenPlan, aggregations, context))
+        context.logicalPlanProducer.planLimitForAggregation(rewrittenPlan, context)
+      else
+        rewrittenPlan
+
     context.logicalPlanProducer.planAggregation(
-      rewrittenPlan,
+      aggregationInput,
       groupingExpressions,
       aggregations,
       aggregation.groupingExpressions,
       aggregation.aggregationExpressions,
       context)
   }
+
+  /*
+  A lone min or max over a node property is the value of the first row, if the rows come ordered by that property in the
+  matching direction and without nulls. The IR asks for that order and adds the IS NOT NULL predicate, see
+  ClauseConverters, so here we check that the plan both provides the order and has solved that predicate.
+   */
+  private def firstRowSolves(plan: LogicalPlan, aggregations: Map[String, Expression], context: LogicalPlanningContext): Boolean = {
+    val firstColumn = context.planningAttributes.providedOrders.get(plan.id).columns.headOption
+    val solvedPredicates = context.planningAttributes.solveds.get(plan.id).lastQueryGraph.selections.flatPredicates
+    (aggregations.values.toSeq, firstColumn) match {
+      case (Seq(OrderedAggregation(argument, ascending)), Some(column@ProvidedOrder.ColumnOfProperty((varName, propName))))
+        if column.isAscending == ascending =>
+        val sameProperty = argument match {
+          case Property(Variable(`varName`), PropertyKeyName(`propName`)) => true
+          case CachedNodeProperty(`varName`, PropertyKeyName(`propName`)) => true
+          case _ => false
+        }
+        sameProperty && solvedPredicates.exists {
+          case IsNotNull(Property(Variable(`varName`), PropertyKeyName(`propName`))) => true
+          case _ => false
+        }
+      case _ =>
+        false
+    }
+  }
 }
@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2018-2020 "Graph Foundation"
+ * Graph Foundation, Inc. [https://graphfoundation.org]
+ *
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of ONgDB.
+ *
+ * ONgDB is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.compiler.v3_6.planner.logical.steps
+
+import org.neo4j.cypher.internal.compiler.v3_6.planner.logical.LogicalPlanningContext
+import org.neo4j.cypher.internal.ir.v3_6.{QueryShuffle, RegularQueryProjection}
+import org.neo4j.cypher.internal.v3_6.ast.AscSortItem
+import org.neo4j.cypher.internal.v3_6.expressions._
+import org.neo4j.cypher.internal.v3_6.logical.plans.{LogicalPlan, NodeByLabelScan}
+
+/*
+ORDER BY distance(n.prop, point) LIMIT k over all nodes with a label only needs the k nodes closest to the point. If
+label(prop) has an index that can find nearest neighbours, the label scan is replaced by a seek producing at most k
+rows, and the sort and limit are planned on top of it as before.
+ */
+case object nearestNeighboursSeekPlanner {
+
+  def apply(plan: LogicalPlan, projection: RegularQueryProjection, context: LogicalPlanningContext): LogicalPlan =
+    (plan, projection.shuffle) match {
+      case (scan@NodeByLabelScan(idName, label, argumentIds), QueryShuffle(Seq(AscSortItem(sortExpression)), skip, Some(limit))) =>
+        val k = skip.fold(limit)(s => Add(s, limit)(limit.position))
+        val neighbours = for {
+          (propertyKeyName, point) <- distanceToProperty(idName, unalias(sortExpression, projection))
+          if point.dependencies.map(_.name).subsetOf(argumentIds) && k.dependencies.isEmpty
+          index <- context.planContext.indexGetForLabelAndProperties(label.name, Seq(propertyKeyName.name))
+          if index.supportsNearestNeighbours
+        } yield {
+          val labelToken = LabelToken(label.name, index.label)
+          val propertyKeyToken = PropertyKeyToken(propertyKeyName.name, index.property)
+          context.logicalPlanProducer.planNodeIndexNearestNeighboursSeek(scan, labelToken, propertyKeyToken, point, k, context)
+        }
+        neighbours.getOrElse(plan)
+
+      case _ =>
+        plan
+    }
+
+  private def unalias(sortExpression: Expression, projection: RegularQueryProjection): Expression = sortExpression match {
+    case Variable(name) => projection.projections.getOrElse(name, sortExpression)
+    case _ => sortExpression
+  }
+
+  private def distanceToProperty(idName: String, expression: Expression): Option[(PropertyKeyName, Expression)] = expression match {
+    case func@FunctionInvocation(_, _, false, IndexedSeq(Property(Variable(`idName`), propertyKeyName), point), _)
+      if func.function == functions.Distance =>
+      Some((propertyKeyName, point))
+    case func@FunctionInvocation(_, _, false, IndexedSeq(point, Property(Variable(`idName`), propertyKeyName)), _)
+      if func.function == functions.Distance =>
+      Some((propertyKeyName, point))
+    case _ =>
+      None
+  }
+}
@@ -130,7 +130,9 @@ trait LogicalPlanningTestSupport2 extends CypherTestSupport with AstConstruction
           indexDef.propertyKeys.map(semanticTable.resolvedPropertyKeyNames(_)),
           valueCapability = valueCapability,
           orderCapability = orderCapability,
-          isUnique = indexType.isUnique
+          isUnique = indexType.isUnique,
+          supportsGranularCompositeQueries = indexType.withGranularCompositeQueries,
+          supportsNearestNeighbours = indexType.withNearestNeighbours
         )
       }
 
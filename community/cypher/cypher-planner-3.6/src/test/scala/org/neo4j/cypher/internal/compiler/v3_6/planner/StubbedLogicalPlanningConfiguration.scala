@@ -66,6 +66,14 @@ class StubbedLogicalPlanningConfiguration(val parent: LogicalPlanningConfigurati
       indexType.withOrdering = order
       this
     }
+    def supportsGranularCompositeQueries(): IndexModifier = {
+      indexType.withGranularCompositeQueries = true
+      this
+    }
+    def supportsNearestNeighbours(): IndexModifier = {
+      indexType.withNearestNeighbours = true
+      this
+    }
   }
 
   def indexOn(label: String, properties: String*): IndexModifier = {
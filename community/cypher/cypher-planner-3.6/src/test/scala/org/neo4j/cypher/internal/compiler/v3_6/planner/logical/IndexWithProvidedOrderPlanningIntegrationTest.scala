@@ -27,10 +27,11 @@ import org.neo4j.cypher.internal.ir.v3_6.RegularPlannerQuery
 import org.neo4j.cypher.internal.planner.v3_6.spi.IndexOrderCapability
 import org.neo4j.cypher.internal.planner.v3_6.spi.IndexOrderCapability.{ASC, DESC, BOTH}
 import org.neo4j.cypher.internal.v3_6.logical.plans._
-import org.neo4j.cypher.internal.v3_6.logical.plans.{Skip => SkipPlan}
+import org.neo4j.cypher.internal.v3_6.logical.plans.{Limit => LimitPlan, Skip => SkipPlan}
 import org.neo4j.cypher.internal.v3_6.ast._
 import org.neo4j.cypher.internal.v3_6.expressions._
 import org.neo4j.cypher.internal.v3_6.util._
+import org.neo4j.cypher.internal.v3_6.util.Foldable._
 import org.neo4j.cypher.internal.v3_6.util.test_helpers.CypherFunSuite
 
 class IndexWithProvidedOrderPlanningIntegrationTest extends CypherFunSuite with LogicalPlanningTestSupport2 with AstConstructionTestSupport {
@@ -313,4 +314,61 @@ class IndexWithProvidedOrderPlanningIntegrationTest extends CypherFunSuite with
       )
     }
   }
+
+  test("min of index backed property should plan limit over an ascending index scan") {
+    val plan = new given {
+      indexOn("Awesome", "prop").providesOrder(ASC)
+    } getLogicalPlanFor "MATCH (n:Awesome) RETURN min(n.prop)"
+
+    plan._2 should beLike {
+      case Aggregation(LimitPlan(NodeIndexScan("n", LabelToken("Awesome", _), _, _, IndexOrderAscending), SignedDecimalIntegerLiteral("1"), DoNotIncludeTies), grouping, _)
+        if grouping.isEmpty => ()
+    }
+  }
+
+  test("max of index backed property should plan limit over a descending index scan") {
+    val plan = new given {
+      indexOn("Awesome", "prop").providesOrder(BOTH)
+    } getLogicalPlanFor "MATCH (n:Awesome) RETURN max(n.prop)"
+
+    plan._2 should beLike {
+      case Aggregation(LimitPlan(NodeIndexScan("n", LabelToken("Awesome", _), _, _, IndexOrderDescending), SignedDecimalIntegerLiteral("1"), DoNotIncludeTies), grouping, _)
+        if grouping.isEmpty => ()
+    }
+  }
+
+  test("max of index backed property should plan limit over a descending index seek") {
+    val plan = new given {
+      indexOn("Awesome", "prop").providesOrder(DESC)
+    } getLogicalPlanFor "MATCH (n:Awesome) WHERE n.prop > 'foo' RETURN max(n.prop)"
+
+    plan._2 should beLike {
+      case Aggregation(LimitPlan(seek: NodeIndexSeek, SignedDecimalIntegerLiteral("1"), DoNotIncludeTies), _, _)
+        if seek.indexOrder == IndexOrderDescending => ()
+    }
+  }
+
+  test("max of index backed property should not plan limit if the index only provides ascending order") {
+    val plan = new given {
+      indexOn("Awesome", "prop").providesOrder(ASC)
+    } getLogicalPlanFor "MATCH (n:Awesome) RETURN max(n.prop)"
+
+    plan._2.treeExists { case _: LimitPlan => true } should be(false)
+  }
+
+  test("min of index backed property should not plan limit together with other aggregations") {
+    val plan = new given {
+      indexOn("Awesome", "prop").providesOrder(ASC)
+    } getLogicalPlanFor "MATCH (n:Awesome) RETURN min(n.prop), count(*)"
+
+    plan._2.treeExists { case _: LimitPlan => true } should be(false)
+  }
+
+  test("min of index backed property should not plan limit when grouping") {
+    val plan = new given {
+      indexOn("Awesome", "prop").providesOrder(ASC)
+    } getLogicalPlanFor "MATCH (n:Awesome) RETURN n.other, min(n.prop)"
+
+    plan._2.treeExists { case _: LimitPlan => true } should be(false)
+  }
 }
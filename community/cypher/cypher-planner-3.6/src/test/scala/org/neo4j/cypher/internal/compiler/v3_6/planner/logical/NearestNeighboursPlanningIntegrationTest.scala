@@ -0,0 +1,107 @@
+/*
+ * Copyright (c) 2018-2020 "Graph Foundation"
+ * Graph Foundation, Inc. [https://graphfoundation.org]
+ *
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of ONgDB.
+ *
+ * ONgDB is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.compiler.v3_6.planner.logical
+
+import org.neo4j.cypher.internal.compiler.v3_6.planner.LogicalPlanningTestSupport2
+import org.neo4j.cypher.internal.v3_6.expressions._
+import org.neo4j.cypher.internal.v3_6.logical.plans._
+import org.neo4j.cypher.internal.v3_6.util.Foldable._
+import org.neo4j.cypher.internal.v3_6.util.test_helpers.CypherFunSuite
+
+class NearestNeighboursPlanningIntegrationTest extends CypherFunSuite with LogicalPlanningTestSupport2 {
+
+  private def nearestNeighboursSeek(plan: LogicalPlan): Option[NodeIndexNearestNeighboursSeek] =
+    plan.treeFind[NodeIndexNearestNeighboursSeek] { case _: NodeIndexNearestNeighboursSeek => true }
+
+  test("should plan nearest neighbours seek for order by distance with limit") {
+    val plan = new given {
+      indexOn("Place", "location").supportsNearestNeighbours()
+    } getLogicalPlanFor "MATCH (n:Place) RETURN n ORDER BY distance(n.location, $point) LIMIT 3"
+
+    nearestNeighboursSeek(plan._2) should beLike {
+      case Some(NodeIndexNearestNeighboursSeek("n", LabelToken("Place", _), PropertyKeyToken("location", _), Parameter("point", _),
+                                               SignedDecimalIntegerLiteral("3"), _)) => ()
+    }
+    plan._2.treeExists { case _: NodeByLabelScan => true } should be(false)
+  }
+
+  test("should plan nearest neighbours seek for order by aliased distance with the point first") {
+    val plan = new given {
+      indexOn("Place", "location").supportsNearestNeighbours()
+    } getLogicalPlanFor "MATCH (n:Place) RETURN n, distance($point, n.location) AS d ORDER BY d LIMIT 3"
+
+    nearestNeighboursSeek(plan._2) should beLike {
+      case Some(NodeIndexNearestNeighboursSeek("n", _, PropertyKeyToken("location", _), Parameter("point", _), _, _)) => ()
+    }
+  }
+
+  test("should seek skip plus limit nearest neighbours") {
+    val plan = new given {
+      indexOn("Place", "location").supportsNearestNeighbours()
+    } getLogicalPlanFor "MATCH (n:Place) RETURN n ORDER BY distance(n.location, $point) SKIP 2 LIMIT 3"
+
+    nearestNeighboursSeek(plan._2) should beLike {
+      case Some(NodeIndexNearestNeighboursSeek(_, _, _, _, Add(SignedDecimalIntegerLiteral("2"), SignedDecimalIntegerLiteral("3")), _)) => ()
+    }
+  }
+
+  test("should not plan nearest neighbours seek if the index does not support it") {
+    val plan = new given {
+      indexOn("Place", "location")
+    } getLogicalPlanFor "MATCH (n:Place) RETURN n ORDER BY distance(n.location, $point) LIMIT 3"
+
+    nearestNeighboursSeek(plan._2) should be(None)
+  }
+
+  test("should not plan nearest neighbours seek without limit") {
+    val plan = new given {
+      indexOn("Place", "location").supportsNearestNeighbours()
+    } getLogicalPlanFor "MATCH (n:Place) RETURN n ORDER BY distance(n.location, $point)"
+
+    nearestNeighboursSeek(plan._2) should be(None)
+  }
+
+  test("should not plan nearest neighbours seek for descending order") {
+    val plan = new given {
+      indexOn("Place", "location").supportsNearestNeighbours()
+    } getLogicalPlanFor "MATCH (n:Place) RETURN n ORDER BY distance(n.location, $point) DESC LIMIT 3"
+
+    nearestNeighboursSeek(plan._2) should be(None)
+  }
+
+  test("should not plan nearest neighbours seek if other predicates could remove neighbours") {
+    val plan = new given {
+      indexOn("Place", "location").supportsNearestNeighbours()
+    } getLogicalPlanFor "MATCH (n:Place) WHERE n.name = 'x' RETURN n ORDER BY distance(n.location, $point) LIMIT 3"
+
+    nearestNeighboursSeek(plan._2) should be(None)
+  }
+
+  test("should not plan nearest neighbours seek for a distance between two properties") {
+    val plan = new given {
+      indexOn("Place", "location").supportsNearestNeighbours()
+    } getLogicalPlanFor "MATCH (n:Place) RETURN n ORDER BY distance(n.location, n.other) LIMIT 3"
+
+    nearestNeighboursSeek(plan._2) should be(None)
+  }
+}
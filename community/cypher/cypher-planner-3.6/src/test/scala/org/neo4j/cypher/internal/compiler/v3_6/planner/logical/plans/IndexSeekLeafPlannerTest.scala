@@ -25,7 +25,8 @@ package org.neo4j.cypher.internal.compiler.v3_6.planner.logical.plans
 import org.neo4j.cypher.internal.compiler.v3_6.planner.BeLikeMatcher._
 import org.neo4j.cypher.internal.compiler.v3_6.planner._
 import org.neo4j.cypher.internal.compiler.v3_6.planner.logical.steps.{indexSeekLeafPlanner, mergeUniqueIndexSeekLeafPlanner}
-import org.neo4j.cypher.internal.ir.v3_6.{Predicate, QueryGraph, InterestingOrder, Selections}
+import org.neo4j.cypher.internal.ir.v3_6.{Predicate, ProvidedOrder, QueryGraph, InterestingOrder, Selections}
+import org.neo4j.cypher.internal.planner.v3_6.spi.IndexOrderCapability
 import org.neo4j.cypher.internal.v3_6.logical.plans._
 import org.neo4j.cypher.internal.v3_6.ast._
 import org.neo4j.cypher.internal.v3_6.expressions._
@@ -46,6 +47,8 @@ class IndexSeekLeafPlannerTest extends CypherFunSuite with LogicalPlanningTestSu
 
   val inPredicate: Expression = In(property, ListLiteral(Seq(lit42))(pos))(pos)
   val lessThanPredicate: Expression = AndedPropertyInequalities(varFor("n"), property, NonEmptyList(LessThan(property, lit42)(pos)))
+  val greaterThan6OnProp2: Expression = AndedPropertyInequalities(varFor("n"), property2, NonEmptyList(GreaterThan(property2, lit6)(pos)))
+  val litFoo: Expression = StringLiteral("foo") _
 
   private def hasLabel(l: String) = HasLabels(varFor("n"), Seq(LabelName(l) _)) _
 
@@ -573,6 +576,136 @@ class IndexSeekLeafPlannerTest extends CypherFunSuite with LogicalPlanningTestSu
     }
   }
 
+  test("index seek by exact prefix and range on last property when the composite index supports granular queries") {
+    new given {
+      addTypeToSemanticTable(lit6, CTInteger.invariant)
+      addTypeToSemanticTable(lit42, CTInteger.invariant)
+      qg = queryGraph(inPredicate, greaterThan6OnProp2, hasLabels)
+
+      indexOn("Awesome", "prop", "prop2").supportsGranularCompositeQueries()
+    }.withLogicalPlanningContext { (cfg, ctx) =>
+      // when
+      val resultPlans = indexSeekLeafPlanner(cfg.qg, InterestingOrder.empty, ctx)
+
+      // then
+      resultPlans should beLike {
+        case Seq(NodeIndexSeek(`idName`, LabelToken("Awesome", _),
+        Seq(IndexedProperty(PropertyKeyToken("prop", _), _), IndexedProperty(PropertyKeyToken("prop2", _), _)),
+        CompositeQueryExpression(Seq(
+        SingleQueryExpression(`lit42`),
+        RangeQueryExpression(InequalitySeekRangeWrapper(RangeGreaterThan(NonEmptyList(ExclusiveBound(`lit6`))))))), _, IndexOrderNone)) => ()
+      }
+    }
+  }
+
+  test("index seek by exact prefix and string prefix on last property when the composite index supports granular queries") {
+    new given {
+      addTypeToSemanticTable(lit42, CTInteger.invariant)
+      addTypeToSemanticTable(litFoo, CTString.invariant)
+      qg = queryGraph(inPredicate, StartsWith(property2, litFoo) _, hasLabels)
+
+      indexOn("Awesome", "prop", "prop2").supportsGranularCompositeQueries()
+    }.withLogicalPlanningContext { (cfg, ctx) =>
+      // when
+      val resultPlans = indexSeekLeafPlanner(cfg.qg, InterestingOrder.empty, ctx)
+
+      // then
+      resultPlans should beLike {
+        case Seq(NodeIndexSeek(`idName`, LabelToken("Awesome", _), _,
+        CompositeQueryExpression(Seq(
+        SingleQueryExpression(`lit42`),
+        RangeQueryExpression(PrefixSeekRangeWrapper(PrefixRange(`litFoo`))))), _, _)) => ()
+      }
+    }
+  }
+
+  test("unique index seek by exact prefix and range on last property when the composite index supports granular queries") {
+    new given {
+      addTypeToSemanticTable(lit6, CTInteger.invariant)
+      addTypeToSemanticTable(lit42, CTInteger.invariant)
+      qg = queryGraph(inPredicate, greaterThan6OnProp2, hasLabels)
+
+      uniqueIndexOn("Awesome", "prop", "prop2").supportsGranularCompositeQueries()
+    }.withLogicalPlanningContext { (cfg, ctx) =>
+      // when
+      val resultPlans = indexSeekLeafPlanner(cfg.qg, InterestingOrder.empty, ctx)
+
+      // then
+      resultPlans should beLike {
+        case Seq(NodeUniqueIndexSeek(`idName`, _, _,
+        CompositeQueryExpression(Seq(SingleQueryExpression(`lit42`), RangeQueryExpression(_))), _, _)) => ()
+      }
+    }
+  }
+
+  test("composite range seek provides the order of the last property") {
+    new given {
+      addTypeToSemanticTable(lit6, CTInteger.invariant)
+      addTypeToSemanticTable(lit42, CTInteger.invariant)
+      qg = queryGraph(inPredicate, greaterThan6OnProp2, hasLabels)
+
+      indexOn("Awesome", "prop", "prop2").supportsGranularCompositeQueries().providesOrder(IndexOrderCapability.BOTH)
+    }.withLogicalPlanningContext { (cfg, ctx) =>
+      // when
+      val resultPlans = indexSeekLeafPlanner(cfg.qg, InterestingOrder.desc("n.prop2"), ctx)
+
+      // then
+      resultPlans should beLike {
+        case Seq(NodeIndexSeek(`idName`, _, _, CompositeQueryExpression(_), _, IndexOrderDescending)) => ()
+      }
+      ctx.planningAttributes.providedOrders.get(resultPlans.head.id) should equal(ProvidedOrder.desc("n.prop2"))
+    }
+  }
+
+  test("does not plan composite range seek when the index does not support granular queries") {
+    new given {
+      addTypeToSemanticTable(lit6, CTInteger.invariant)
+      addTypeToSemanticTable(lit42, CTInteger.invariant)
+      qg = queryGraph(inPredicate, greaterThan6OnProp2, hasLabels)
+
+      indexOn("Awesome", "prop", "prop2")
+    }.withLogicalPlanningContext { (cfg, ctx) =>
+      // when
+      val resultPlans = indexSeekLeafPlanner(cfg.qg, InterestingOrder.empty, ctx)
+
+      // then
+      resultPlans shouldBe empty
+    }
+  }
+
+  test("does not plan composite range seek when the range is not on the last property") {
+    new given {
+      addTypeToSemanticTable(lit6, CTInteger.invariant)
+      addTypeToSemanticTable(lit42, CTInteger.invariant)
+      val equals6OnProp2 = In(property2, ListLiteral(Seq(lit6)) _) _
+      qg = queryGraph(lessThanPredicate, equals6OnProp2, hasLabels)
+
+      indexOn("Awesome", "prop", "prop2").supportsGranularCompositeQueries()
+    }.withLogicalPlanningContext { (cfg, ctx) =>
+      // when
+      val resultPlans = indexSeekLeafPlanner(cfg.qg, InterestingOrder.empty, ctx)
+
+      // then
+      resultPlans shouldBe empty
+    }
+  }
+
+  test("does not plan composite range seek when there are ranges on more than one property") {
+    new given {
+      addTypeToSemanticTable(lit6, CTInteger.invariant)
+      addTypeToSemanticTable(lit42, CTInteger.invariant)
+      qg = queryGraph(lessThanPredicate, greaterThan6OnProp2, hasLabels)
+
+      indexOn("Awesome", "prop", "prop2").supportsGranularCompositeQueries()
+    }.withLogicalPlanningContext { (cfg, ctx) =>
+      // when
+      val resultPlans = indexSeekLeafPlanner(cfg.qg, InterestingOrder.empty, ctx)
+
+      // then
+      resultPlans shouldBe empty
+    }
+  }
+
   private def queryGraph(predicates: Expression*) =
     QueryGraph(
       selections = Selections(predicates.map(Predicate(Set(idName), _)).toSet),
@@ -95,6 +95,9 @@ case class InterpretedPipeBuilder(recurse: LogicalPlan => Pipe,
       case NodeIndexScan(ident, label, property, _, indexOrder) =>
         NodeIndexScanPipe(ident, label, property, indexOrder)(id = id)
 
+      case NodeIndexNearestNeighboursSeek(ident, label, property, point, k, _) =>
+        NodeIndexNearestNeighboursSeekPipe(ident, label, property, buildExpression(point), buildExpression(k))(id = id)
+
       case NodeIndexContainsScan(ident, label, property, valueExpr, _, indexOrder) =>
         NodeIndexContainsScanPipe(ident, label,property, buildExpression(valueExpr), indexOrder)(id = id)
 
@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2018-2020 "Graph Foundation"
+ * Graph Foundation, Inc. [https://graphfoundation.org]
+ *
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of ONgDB.
+ *
+ * ONgDB is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.runtime.interpreted.pipes
+
+import org.neo4j.cypher.internal.runtime.QueryContext
+import org.neo4j.cypher.internal.runtime.interpreted.ExecutionContext
+import org.neo4j.cypher.internal.runtime.interpreted.commands.expressions.{Expression, NumericHelper}
+import org.neo4j.cypher.internal.v3_6.expressions.{LabelToken, PropertyKeyToken}
+import org.neo4j.cypher.internal.v3_6.logical.plans.IndexOrderNone
+import org.neo4j.cypher.internal.v3_6.util.attribution.Id
+import org.neo4j.internal.kernel.api.{IndexQuery, IndexReference}
+import org.neo4j.values.storable.PointValue
+import org.neo4j.values.virtual.NodeValue
+
+import scala.collection.mutable
+
+case class NodeIndexNearestNeighboursSeekPipe(ident: String,
+                                              label: LabelToken,
+                                              property: PropertyKeyToken,
+                                              point: Expression,
+                                              k: Expression)
+                                             (val id: Id = Id.INVALID_ID) extends Pipe with NumericHelper {
+
+  point.registerOwningPipe(this)
+  k.registerOwningPipe(this)
+
+  private var reference: IndexReference = IndexReference.NO_INDEX
+
+  private def reference(context: QueryContext): IndexReference = {
+    if (reference == IndexReference.NO_INDEX) {
+      reference = context.indexReference(label.nameId.id, property.nameId.id)
+    }
+    reference
+  }
+
+  protected def internalCreateResults(state: QueryState): Iterator[ExecutionContext] = {
+    val baseContext = state.newExecutionContext(executionContextFactory)
+    val count = math.min(asPrimitiveLong(k(baseContext, state)), Int.MaxValue).toInt
+
+    val neighbours = mutable.ArrayBuffer[NodeValue]()
+    point(baseContext, state) match {
+      case value: PointValue if count > 0 =>
+        val query = IndexQuery.nearestNeighbours(property.nameId.id, value, count)
+        val cursor = state.query.indexSeek(reference(state.query), needsValues = false, IndexOrderNone, Seq(query))
+        try {
+          while (cursor.next()) {
+            neighbours += state.query.nodeById(cursor.nodeReference())
+          }
+        } finally {
+          cursor.close()
+        }
+      case _ =>
+        // No point to be close to, the distance to any node is null
+    }
+
+    // All nodes with comparable points were found, any other node of the label has a null distance and sorts last
+    val others =
+      if (neighbours.size < count) {
+        val found = neighbours.map(_.id()).toSet
+        state.query.getNodesByLabel(label.nameId.id).filterNot(node => found.contains(node.id())).take(count - neighbours.size)
+      } else {
+        Iterator.empty
+      }
+
+    (neighbours.iterator ++ others).map(node => executionContextFactory.copyWith(baseContext, ident, node))
+  }
+}
@@ -74,75 +74,89 @@ trait NodeIndexSeeker {
       // Index range seek over range of values
       case RangeQueryExpression(rangeWrapper) =>
         assert(propertyIds.length == 1)
-        rangeWrapper match {
-          case PrefixSeekRangeExpression(range) =>
-            val expr = range.prefix
-            expr(row, state) match {
-              case text: TextValue =>
-                Array(Seq(IndexQuery.stringPrefix(propertyIds.head, text)))
-              case Values.NO_VALUE =>
+        computeRangeQueries(state, row, rangeWrapper, propertyIds.head)
+
+      // Index range seek on a composite index, exact values on the leading properties followed by a range on the last one
+      //    eg:   x = 1 AND y > 2
+      case CompositeQueryExpression(exprs) if exprs.last.isInstanceOf[RangeQueryExpression[_]] =>
+        assert(exprs.lengthCompare(propertyIds.length) == 0)
+        val RangeQueryExpression(rangeWrapper) = exprs.last
+        val seekValues = exprs.init.map(expressionValues(row, state))
+        val rangeQueries = computeRangeQueries(state, row, rangeWrapper, propertyIds.last)
+        for (seekTuple <- combine(seekValues);
+             rangeQuery <- rangeQueries)
+          yield seekTuple.zip(propertyIds).map { case (v, propId) => IndexQuery.exact(propId, makeValueNeoSafe(v)) } ++ rangeQuery
+
+      case exactQuery =>
+        computeExactQueries(state, row)
+    }
+
+  private def computeRangeQueries(state: QueryState, row: ExecutionContext, rangeWrapper: Expression, propertyId: Int): Seq[Seq[IndexQuery]] =
+    rangeWrapper match {
+      case PrefixSeekRangeExpression(range) =>
+        val expr = range.prefix
+        expr(row, state) match {
+          case text: TextValue =>
+            Array(Seq(IndexQuery.stringPrefix(propertyId, text)))
+          case Values.NO_VALUE =>
+            Nil
+          case other =>
+            throw new CypherTypeException("Expected TextValue, got "+other )
+        }
+
+      case InequalitySeekRangeExpression(innerRange) =>
+        val valueRange: InequalitySeekRange[Value] = innerRange.mapBounds(expr => makeValueNeoSafe(expr(row, state)))
+        val groupedRanges = valueRange.groupBy(bound => bound.endPoint.valueGroup())
+        if (groupedRanges.size > 1) {
+          Nil // predicates of more than one value group mean that no node can ever match
+        } else {
+          val (valueGroup, range) = groupedRanges.head
+          range match {
+            case rangeLessThan: RangeLessThan[Value] =>
+              rangeLessThan.limit(BY_VALUE).map( limit =>
+                List(IndexQuery.range(propertyId, null, false, limit.endPoint, limit.isInclusive))
+              ).toSeq
+
+            case rangeGreaterThan: RangeGreaterThan[Value] =>
+              rangeGreaterThan.limit(BY_VALUE).map( limit =>
+                List(IndexQuery.range(propertyId, limit.endPoint, limit.isInclusive, null, false))
+              ).toSeq
+
+            case RangeBetween(rangeGreaterThan, rangeLessThan) =>
+              val greaterThanLimit = rangeGreaterThan.limit(BY_VALUE).get
+              val lessThanLimit = rangeLessThan.limit(BY_VALUE).get
+
+              val compare = Values.COMPARATOR.compare(greaterThanLimit.endPoint, lessThanLimit.endPoint)
+              if (compare < 0) {
+                List(List(IndexQuery.range(propertyId,
+                                     greaterThanLimit.endPoint,
+                                     greaterThanLimit.isInclusive,
+                                     lessThanLimit.endPoint,
+                                     lessThanLimit.isInclusive)))
+              } else if (compare == 0 && greaterThanLimit.isInclusive && lessThanLimit.isInclusive) {
+                List(List(IndexQuery.exact(propertyId, lessThanLimit.endPoint)))
+              } else {
                 Nil
-              case other =>
-                throw new CypherTypeException("Expected TextValue, got "+other )
-            }
-
-          case InequalitySeekRangeExpression(innerRange) =>
-            val valueRange: InequalitySeekRange[Value] = innerRange.mapBounds(expr => makeValueNeoSafe(expr(row, state)))
-            val groupedRanges = valueRange.groupBy(bound => bound.endPoint.valueGroup())
-            if (groupedRanges.size > 1) {
-              Nil // predicates of more than one value group mean that no node can ever match
-            } else {
-              val (valueGroup, range) = groupedRanges.head
-              range match {
-                case rangeLessThan: RangeLessThan[Value] =>
-                  rangeLessThan.limit(BY_VALUE).map( limit =>
-                    List(IndexQuery.range(propertyIds.head, null, false, limit.endPoint, limit.isInclusive))
-                  ).toSeq
-
-                case rangeGreaterThan: RangeGreaterThan[Value] =>
-                  rangeGreaterThan.limit(BY_VALUE).map( limit =>
-                    List(IndexQuery.range(propertyIds.head, limit.endPoint, limit.isInclusive, null, false))
-                  ).toSeq
-
-                case RangeBetween(rangeGreaterThan, rangeLessThan) =>
-                  val greaterThanLimit = rangeGreaterThan.limit(BY_VALUE).get
-                  val lessThanLimit = rangeLessThan.limit(BY_VALUE).get
-
-                  val compare = Values.COMPARATOR.compare(greaterThanLimit.endPoint, lessThanLimit.endPoint)
-                  if (compare < 0) {
-                    List(List(IndexQuery.range(propertyIds.head,
-                                         greaterThanLimit.endPoint,
-                                         greaterThanLimit.isInclusive,
-                                         lessThanLimit.endPoint,
-                                         lessThanLimit.isInclusive)))
-                  } else if (compare == 0 && greaterThanLimit.isInclusive && lessThanLimit.isInclusive) {
-                    List(List(IndexQuery.exact(propertyIds.head, lessThanLimit.endPoint)))
-                  } else {
-                    Nil
-                  }
               }
-            }
-
-          case PointDistanceSeekRangeExpression(range) =>
-            val valueRange = range.map(expr => makeValueNeoSafe(expr(row, state)))
-            (valueRange.distance, valueRange.point) match {
-              case (distance: NumberValue, point: PointValue) =>
-                val bboxes = point.getCoordinateReferenceSystem.getCalculator.boundingBox(point, distance.doubleValue()).asScala
-                // The geographic calculator pads the range to avoid numerical errors, which means we rely more on post-filtering
-                // This also means we can fix the date-line '<' case by simply being inclusive in the index seek, and again rely on post-filtering
-                val inclusive = if (bboxes.length > 1) true else range.inclusive
-                bboxes.map( bbox => List(IndexQuery.range(propertyIds.head,
-                  bbox.first(),
-                  inclusive,
-                  bbox.other(),
-                  inclusive
-                )))
-              case _ => Nil
-            }
+          }
         }
 
-      case exactQuery =>
-        computeExactQueries(state, row)
+      case PointDistanceSeekRangeExpression(range) =>
+        val valueRange = range.map(expr => makeValueNeoSafe(expr(row, state)))
+        (valueRange.distance, valueRange.point) match {
+          case (distance: NumberValue, point: PointValue) =>
+            val bboxes = point.getCoordinateReferenceSystem.getCalculator.boundingBox(point, distance.doubleValue()).asScala
+            // The geographic calculator pads the range to avoid numerical errors, which means we rely more on post-filtering
+            // This also means we can fix the date-line '<' case by simply being inclusive in the index seek, and again rely on post-filtering
+            val inclusive = if (bboxes.length > 1) true else range.inclusive
+            bboxes.map( bbox => List(IndexQuery.range(propertyId,
+              bbox.first(),
+              inclusive,
+              bbox.other(),
+              inclusive
+            )))
+          case _ => Nil
+        }
     }
 
   private def computeExactQueries(state: QueryState, row: ExecutionContext): Seq[Seq[IndexQuery.ExactPredicate]] =
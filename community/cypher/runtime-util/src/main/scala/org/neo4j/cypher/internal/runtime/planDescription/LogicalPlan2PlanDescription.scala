@@ -105,6 +105,10 @@ case class LogicalPlan2PlanDescription(readOnly: Boolean, cardinalities: Cardina
       case NodeIndexScan(_, label, property, _, _) =>
         PlanDescriptionImpl(id, "NodeIndexScan", NoChildren, Seq(Index(label.name, Seq(property.propertyKeyToken.name))), variables)
 
+      case NodeIndexNearestNeighboursSeek(_, label, property, point, _, _) =>
+        val arguments = Seq(Index(label.name, Seq(property.name)), Expression(point))
+        PlanDescriptionImpl(id, "NodeIndexNearestNeighboursSeek", NoChildren, arguments, variables)
+
       case ProcedureCall(_, call) =>
         val signature = Signature(call.qualifiedName, call.callArguments, call.callResultTypes)
         PlanDescriptionImpl(id, "ProcedureCall", NoChildren, Seq(signature), variables)
@@ -468,6 +472,10 @@ case class LogicalPlan2PlanDescription(readOnly: Boolean, cardinalities: Cardina
             (name, PointDistanceIndex(label.name, propertyKey, poi, distance.toString, inclusive))
           case _ => throw new InternalException("This should never happen. Missing a case?")
         }
+      case CompositeQueryExpression(inner) if inner.exists(_.isInstanceOf[RangeQueryExpression[_]]) =>
+        // Exact values on the leading properties followed by a range on the last one, which is not a locking seek
+        val name = if (unique) "NodeUniqueIndexSeekByRange" else "NodeIndexSeekByRange"
+        (name, Index(label.name, propertyKeys.map(_.name)))
       case _ =>
         val name =
           if (unique && readOnly) "NodeUniqueIndexSeek"
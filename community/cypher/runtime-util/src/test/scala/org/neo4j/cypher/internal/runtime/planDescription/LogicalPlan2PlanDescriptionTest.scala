@@ -97,6 +97,20 @@ class LogicalPlan2PlanDescriptionTest extends CypherFunSuite with TableDrivenPro
                             Seq(Index("Lebal", Seq("Prop")), EstimatedRows(95), CYPHER_VERSION, RUNTIME_VERSION,
                                 Planner("COST"), PlannerImpl("IDP"), PLANNER_VERSION), Set("x"))
 
+      , attach(
+        NodeIndexSeek("x", LabelToken("Label", LabelId(0)),
+                      Seq(IndexedProperty(PropertyKeyToken("Prop", PropertyKeyId(0)), DoNotGetValue),
+                          IndexedProperty(PropertyKeyToken("Other", PropertyKeyId(1)), DoNotGetValue)),
+                      CompositeQueryExpression(Seq(
+                        SingleQueryExpression(StringLiteral("Andres")(pos)),
+                        RangeQueryExpression(InequalitySeekRangeWrapper(
+                          RangeGreaterThan(NonEmptyList(ExclusiveBound(SignedDecimalIntegerLiteral("3")(pos)))))(pos)))),
+                      Set.empty, IndexOrderNone),
+        17.0) ->
+        PlanDescriptionImpl(id, "NodeIndexSeekByRange", NoChildren,
+                            Seq(Index("Label", Seq("Prop", "Other")), EstimatedRows(17), CYPHER_VERSION, RUNTIME_VERSION,
+                                Planner("COST"), PlannerImpl("IDP"), PLANNER_VERSION), Set("x"))
+
       , attach(Expand(lhsLP, "a", SemanticDirection.OUTGOING, Seq.empty, "b", "r1", ExpandAll), 95.0) ->
         PlanDescriptionImpl(id, "Expand(All)", SingleChild(lhsPD),
                             Seq(ExpandExpression("a", "r1", Seq.empty, "b", SemanticDirection.OUTGOING, 1, Some(1)),
@@ -0,0 +1,154 @@
+/*
+ * Copyright (c) 2018-2020 "Graph Foundation"
+ * Graph Foundation, Inc. [https://graphfoundation.org]
+ *
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of ONgDB.
+ *
+ * ONgDB is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.api.impl.fulltext;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.neo4j.kernel.api.impl.index.DatabaseIndex;
+import org.neo4j.scheduler.Group;
+import org.neo4j.scheduler.JobHandle;
+import org.neo4j.scheduler.JobScheduler;
+import org.neo4j.storageengine.api.schema.IndexReader;
+
+/**
+ * Makes the updates applied to an eventually consistent fulltext index visible to its readers.
+ * <p>
+ * Rather than refreshing the searchers on the update applier thread every time a transaction worth of updates has been applied, which stalls
+ * update application under heavy write load, refresh requests are coalesced into a single background refresh. That refresh is scheduled such
+ * that the oldest unrefreshed update becomes visible within roughly the configured max staleness, taking the latency of the previous refresh
+ * into account.
+ */
+public class EventuallyConsistentIndexRefresher
+{
+    public interface Monitor
+    {
+        /**
+         * Called after the searchers of an eventually consistent fulltext index have been refreshed.
+         *
+         * @param indexName the name of the refreshed index.
+         * @param stalenessMillis how long the oldest update made visible by this refresh waited to become visible, including the refresh itself.
+         * @param refreshMillis how long the refresh itself took.
+         * @param queueDepth the number of enqueued index updates, across all eventually consistent fulltext indexes, not yet applied.
+         */
+        void refreshed( String indexName, long stalenessMillis, long refreshMillis, int queueDepth );
+    }
+
+    public static final Monitor NO_MONITOR = ( indexName, stalenessMillis, refreshMillis, queueDepth ) ->
+    {
+    };
+
+    private final DatabaseIndex<? extends IndexReader> index;
+    private final String indexName;
+    private final JobScheduler scheduler;
+    private final IndexUpdateSink indexUpdateSink;
+    private final long maxStalenessMillis;
+    private final Monitor monitor;
+    private final AtomicBoolean refreshPending = new AtomicBoolean();
+
+    private volatile long oldestUnrefreshedUpdateMillis;
+    private volatile long lastRefreshMillis;
+    private volatile JobHandle pendingRefresh;
+    private boolean closed;
+
+    EventuallyConsistentIndexRefresher( DatabaseIndex<? extends IndexReader> index, String indexName, JobScheduler scheduler,
+            IndexUpdateSink indexUpdateSink, long maxStalenessMillis, Monitor monitor )
+    {
+        this.index = index;
+        this.indexName = indexName;
+        this.scheduler = scheduler;
+        this.indexUpdateSink = indexUpdateSink;
+        this.maxStalenessMillis = maxStalenessMillis;
+        this.monitor = monitor;
+    }
+
+    /**
+     * Notify that updates have been applied to the index, and need to be made visible. Any number of calls made before the scheduled refresh
+     * starts are served by that single refresh.
+     */
+    void updatesApplied()
+    {
+        if ( refreshPending.compareAndSet( false, true ) )
+        {
+            oldestUnrefreshedUpdateMillis = System.currentTimeMillis();
+            long delay = Math.max( 0, maxStalenessMillis - lastRefreshMillis );
+            pendingRefresh = scheduler.schedule( Group.INDEX_REFRESH, this::scheduledRefresh, delay, TimeUnit.MILLISECONDS );
+        }
+    }
+
+    /**
+     * Refresh the index right away, making all updates applied so far visible.
+     */
+    void refreshNow()
+    {
+        refresh( refreshPending.getAndSet( false ) ? oldestUnrefreshedUpdateMillis : System.currentTimeMillis() );
+    }
+
+    /**
+     * Cancel any pending refresh, and wait for an ongoing refresh to complete. The index will not be refreshed by this refresher afterwards.
+     */
+    void close()
+    {
+        JobHandle refresh = pendingRefresh;
+        if ( refresh != null )
+        {
+            refresh.cancel( false );
+        }
+        synchronized ( this )
+        {
+            closed = true;
+        }
+    }
+
+    private void scheduledRefresh()
+    {
+        // Read the time of the oldest update before clearing the flag, since the next update to be applied will overwrite it.
+        long oldestUpdate = oldestUnrefreshedUpdateMillis;
+        if ( refreshPending.getAndSet( false ) )
+        {
+            refresh( oldestUpdate );
+        }
+    }
+
+    private synchronized void refresh( long oldestUpdateMillis )
+    {
+        if ( closed )
+        {
+            return;
+        }
+        long startMillis = System.currentTimeMillis();
+        try
+        {
+            index.maybeRefreshBlocking();
+        }
+        catch ( IOException e )
+        {
+            throw new UncheckedIOException( e );
+        }
+        long endMillis = System.currentTimeMillis();
+        lastRefreshMillis = endMillis - startMillis;
+        monitor.refreshed( indexName, endMillis - oldestUpdateMillis, lastRefreshMillis, indexUpdateSink.queueDepth() );
+    }
+}
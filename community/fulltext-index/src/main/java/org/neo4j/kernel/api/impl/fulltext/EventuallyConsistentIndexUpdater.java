@@ -32,23 +32,36 @@ class EventuallyConsistentIndexUpdater implements IndexUpdater
     private final DatabaseIndex<? extends IndexReader> index;
     private final IndexUpdater indexUpdater;
     private final IndexUpdateSink indexUpdateSink;
+    private final EventuallyConsistentIndexRefresher refresher;
+    private boolean hasChanges;
 
-    EventuallyConsistentIndexUpdater( DatabaseIndex<? extends IndexReader> index, IndexUpdater indexUpdater, IndexUpdateSink indexUpdateSink )
+    EventuallyConsistentIndexUpdater( DatabaseIndex<? extends IndexReader> index, IndexUpdater indexUpdater, IndexUpdateSink indexUpdateSink,
+            EventuallyConsistentIndexRefresher refresher )
     {
         this.index = index;
         this.indexUpdater = indexUpdater;
         this.indexUpdateSink = indexUpdateSink;
+        this.refresher = refresher;
     }
 
     @Override
     public void process( IndexEntryUpdate<?> update )
     {
         indexUpdateSink.enqueueUpdate( index, indexUpdater, update );
+        hasChanges = true;
     }
 
     @Override
     public void close()
     {
-        indexUpdateSink.closeUpdater( index, indexUpdater );
+        indexUpdateSink.closeUpdater( index, indexUpdater, this::updatesApplied );
+    }
+
+    private void updatesApplied()
+    {
+        if ( hasChanges )
+        {
+            refresher.updatesApplied();
+        }
     }
 }
@@ -22,6 +22,8 @@
  */
 package org.neo4j.kernel.api.impl.fulltext;
 
+import java.time.Duration;
+
 import org.neo4j.kernel.api.impl.fulltext.analyzer.providers.Standard;
 
 import org.neo4j.configuration.Description;
@@ -30,11 +32,14 @@ import org.neo4j.graphdb.config.Setting;
 import org.neo4j.kernel.configuration.Settings;
 
 import static org.neo4j.kernel.configuration.Settings.BOOLEAN;
+import static org.neo4j.kernel.configuration.Settings.BYTES;
+import static org.neo4j.kernel.configuration.Settings.DURATION;
 import static org.neo4j.kernel.configuration.Settings.INTEGER;
 import static org.neo4j.kernel.configuration.Settings.STRING;
 import static org.neo4j.kernel.configuration.Settings.buildSetting;
 import static org.neo4j.kernel.configuration.Settings.max;
 import static org.neo4j.kernel.configuration.Settings.min;
+import static org.neo4j.kernel.configuration.Settings.range;
 import static org.neo4j.kernel.configuration.Settings.setting;
 
 /**
@@ -58,4 +63,25 @@ public class FulltextConfig implements LoadableConfig
                     .constraint( min( 1 ) )
                     .constraint( max( 50_000_000 ) )
                     .build();
+
+    @Description( "The eventually_consistent mode of the fulltext indexes makes applied index updates visible to queries by refreshing the index " +
+                  "searchers in the background. Refreshes are coalesced, and scheduled such that no applied update stays invisible for much longer " +
+                  "than this target. A value of zero refreshes as soon as possible after updates have been applied. Larger values trade freshness " +
+                  "for fewer, cheaper refreshes under heavy write load." )
+    public static final Setting<Duration> eventually_consistent_refresh_max_staleness =
+            setting( "dbms.index.fulltext.eventually_consistent_refresh_max_staleness", DURATION, "0s" );
+
+    @Description( "The number of similarly sized segments that are merged together in the background by fulltext indexes. " +
+                  "Higher values mean fewer, larger background merges while writing, at the cost of more segments to search." )
+    public static final Setting<Integer> merge_factor =
+            buildSetting( "dbms.index.fulltext.merge_factor", INTEGER, "2" )
+                    .constraint( min( 2 ) )
+                    .build();
+
+    @Description( "Fulltext index segments larger than this are not considered for background merges while writing, " +
+                  "which bounds the amount of merge work that a heavy write load can trigger." )
+    public static final Setting<Long> merge_max_segment_size =
+            buildSetting( "dbms.index.fulltext.merge_max_segment_size", BYTES, "2g" )
+                    .constraint( range( /* 1m */ 1048576L, Long.MAX_VALUE ) )
+                    .build();
 }
@@ -45,13 +45,15 @@ public class FulltextIndexAccessor extends AbstractLuceneIndexAccessor<FulltextI
 {
     private final IndexUpdateSink indexUpdateSink;
     private final FulltextIndexDescriptor descriptor;
+    private final EventuallyConsistentIndexRefresher refresher;
     private final Runnable onClose;
 
-    public FulltextIndexAccessor( IndexUpdateSink indexUpdateSink, DatabaseFulltextIndex luceneIndex, FulltextIndexDescriptor descriptor,
-            Runnable onClose )
+    public FulltextIndexAccessor( IndexUpdateSink indexUpdateSink, EventuallyConsistentIndexRefresher refresher, DatabaseFulltextIndex luceneIndex,
+            FulltextIndexDescriptor descriptor, Runnable onClose )
     {
         super( luceneIndex, descriptor );
         this.indexUpdateSink = indexUpdateSink;
+        this.refresher = refresher;
         this.descriptor = descriptor;
         this.onClose = onClose;
     }
@@ -64,12 +66,31 @@ public class FulltextIndexAccessor extends AbstractLuceneIndexAccessor<FulltextI
     @Override
     public IndexUpdater getIndexUpdater( IndexUpdateMode mode )
     {
-        IndexUpdater indexUpdater = new FulltextIndexUpdater( mode.requiresIdempotency(), mode.requiresRefresh() );
         if ( descriptor.isEventuallyConsistent() )
         {
-            indexUpdater = new EventuallyConsistentIndexUpdater( luceneIndex, indexUpdater, indexUpdateSink );
+            // Refreshing is left to the refresher, so that it does not stall the update applier thread.
+            IndexUpdater indexUpdater = new FulltextIndexUpdater( mode.requiresIdempotency(), false );
+            return new EventuallyConsistentIndexUpdater( luceneIndex, indexUpdater, indexUpdateSink, refresher );
         }
-        return indexUpdater;
+        return new FulltextIndexUpdater( mode.requiresIdempotency(), mode.requiresRefresh() );
+    }
+
+    /**
+     * Make all index updates applied so far visible to readers of this index.
+     */
+    void awaitRefresh()
+    {
+        if ( descriptor.isEventuallyConsistent() )
+        {
+            refresher.refreshNow();
+        }
+    }
+
+    @Override
+    public void drop()
+    {
+        refresher.close();
+        super.drop();
     }
 
     @Override
@@ -80,6 +101,7 @@ public class FulltextIndexAccessor extends AbstractLuceneIndexAccessor<FulltextI
             if ( descriptor.isEventuallyConsistent() )
             {
                 indexUpdateSink.awaitUpdateApplication();
+                refresher.close();
             }
             super.close();
         }
@@ -35,6 +35,7 @@ import org.neo4j.kernel.impl.core.TokenHolder;
 public class FulltextIndexBuilder extends AbstractLuceneIndexBuilder<FulltextIndexBuilder>
 {
     private final FulltextIndexDescriptor descriptor;
+    private final Config config;
     private final TokenHolder propertyKeyTokenHolder;
     private boolean populating;
     private IndexUpdateSink indexUpdateSink = NullIndexUpdateSink.INSTANCE;
@@ -43,6 +44,7 @@ public class FulltextIndexBuilder extends AbstractLuceneIndexBuilder<FulltextInd
     {
         super( config );
         this.descriptor = descriptor;
+        this.config = config;
         this.propertyKeyTokenHolder = propertyKeyTokenHolder;
     }
 
@@ -88,7 +90,7 @@ public class FulltextIndexBuilder extends AbstractLuceneIndexBuilder<FulltextInd
         {
             final ReadOnlyIndexPartitionFactory partitionFactory = new ReadOnlyIndexPartitionFactory();
             LuceneFulltextIndex fulltextIndex =
-                    new LuceneFulltextIndex( storageBuilder.build(), partitionFactory, descriptor, propertyKeyTokenHolder );
+                    new LuceneFulltextIndex( storageBuilder.build(), partitionFactory, descriptor, propertyKeyTokenHolder, partitionedSearch );
             return new ReadOnlyFulltextIndex( fulltextIndex );
         }
         else
@@ -100,11 +102,13 @@ public class FulltextIndexBuilder extends AbstractLuceneIndexBuilder<FulltextInd
             }
             else
             {
-                writerConfigFactory = () -> IndexWriterConfigs.standard( descriptor.analyzer() );
+                int mergeFactor = config.get( FulltextConfig.merge_factor );
+                double maxMergeMB = config.get( FulltextConfig.merge_max_segment_size ) / (1024.0 * 1024.0);
+                writerConfigFactory = () -> IndexWriterConfigs.standard( descriptor.analyzer(), mergeFactor, maxMergeMB );
             }
             WritableIndexPartitionFactory partitionFactory = new WritableIndexPartitionFactory( writerConfigFactory );
             LuceneFulltextIndex fulltextIndex =
-                    new LuceneFulltextIndex( storageBuilder.build(), partitionFactory, descriptor, propertyKeyTokenHolder );
+                    new LuceneFulltextIndex( storageBuilder.build(), partitionFactory, descriptor, propertyKeyTokenHolder, partitionedSearch );
             return new WritableFulltextIndex( indexUpdateSink, fulltextIndex );
         }
     }
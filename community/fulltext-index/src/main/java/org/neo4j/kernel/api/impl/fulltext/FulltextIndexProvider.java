@@ -46,6 +46,7 @@ import org.neo4j.io.fs.FileSystemAbstraction;
 import org.neo4j.io.pagecache.PageCache;
 import org.neo4j.kernel.api.KernelTransaction;
 import org.neo4j.kernel.api.impl.index.DatabaseIndex;
+import org.neo4j.kernel.api.impl.index.partition.PartitionedSearch;
 import org.neo4j.kernel.api.impl.index.storage.DirectoryFactory;
 import org.neo4j.kernel.api.impl.index.storage.IndexStorageFactory;
 import org.neo4j.kernel.api.impl.index.storage.PartitionedIndexStorage;
@@ -69,6 +70,7 @@ import org.neo4j.kernel.impl.newapi.AllStoreHolder;
 import org.neo4j.kernel.impl.storemigration.StoreMigrationParticipant;
 import org.neo4j.kernel.impl.storemigration.participant.SchemaIndexMigrator;
 import org.neo4j.kernel.impl.util.FulltextSortType;
+import org.neo4j.kernel.monitoring.Monitors;
 import org.neo4j.logging.Log;
 import org.neo4j.scheduler.JobScheduler;
 import org.neo4j.storageengine.api.EntityType;
@@ -93,12 +95,16 @@ class FulltextIndexProvider extends IndexProvider implements FulltextAdapter, Au
     private final AuxiliaryTransactionStateManager auxiliaryTransactionStateManager;
     private final Log log;
     private final IndexUpdateSink indexUpdateSink;
+    private final JobScheduler scheduler;
+    private final long refreshMaxStalenessMillis;
+    private final EventuallyConsistentIndexRefresher.Monitor refreshMonitor;
     private final ConcurrentMap<StoreIndexDescriptor,FulltextIndexAccessor> openOnlineAccessors;
     private final IndexStorageFactory indexStorageFactory;
+    private final PartitionedSearch partitionedSearch;
 
     FulltextIndexProvider( IndexProviderDescriptor descriptor, IndexDirectoryStructure.Factory directoryStructureFactory,
             FileSystemAbstraction fileSystem, Config config, TokenHolders tokenHolders, DirectoryFactory directoryFactory, OperationalMode operationalMode,
-            JobScheduler scheduler, AuxiliaryTransactionStateManager auxiliaryTransactionStateManager, Log log )
+            JobScheduler scheduler, AuxiliaryTransactionStateManager auxiliaryTransactionStateManager, Monitors monitors, Log log )
     {
         super( descriptor, directoryStructureFactory );
         this.fileSystem = fileSystem;
@@ -111,6 +117,10 @@ class FulltextIndexProvider extends IndexProvider implements FulltextAdapter, Au
         defaultAnalyzerName = config.get( FulltextConfig.fulltext_default_analyzer );
         defaultEventuallyConsistentSetting = Boolean.toString( config.get( FulltextConfig.eventually_consistent ) );
         indexUpdateSink = new IndexUpdateSink( scheduler, config.get( FulltextConfig.eventually_consistent_index_update_queue_max_length ) );
+        this.scheduler = scheduler;
+        partitionedSearch = new PartitionedSearch( scheduler, Runtime.getRuntime().availableProcessors() );
+        refreshMaxStalenessMillis = config.get( FulltextConfig.eventually_consistent_refresh_max_staleness ).toMillis();
+        refreshMonitor = monitors.newMonitor( EventuallyConsistentIndexRefresher.Monitor.class );
         openOnlineAccessors = new ConcurrentHashMap<>();
         indexStorageFactory = buildIndexStorageFactory( fileSystem, directoryFactory );
     }
@@ -264,6 +274,7 @@ class FulltextIndexProvider extends IndexProvider implements FulltextAdapter, Au
                 .withFileSystem( fileSystem )
                 .withOperationalMode( operationalMode )
                 .withIndexStorage( indexStorage )
+                .withPartitionedSearch( partitionedSearch )
                 .withPopulatingMode( false );
         if ( fulltextIndexDescriptor.isEventuallyConsistent() )
         {
@@ -273,7 +284,9 @@ class FulltextIndexProvider extends IndexProvider implements FulltextAdapter, Au
         fulltextIndex.open();
 
         Runnable onClose = () -> openOnlineAccessors.remove( descriptor );
-        FulltextIndexAccessor accessor = new FulltextIndexAccessor( indexUpdateSink, fulltextIndex, fulltextIndexDescriptor, onClose );
+        EventuallyConsistentIndexRefresher refresher = new EventuallyConsistentIndexRefresher(
+                fulltextIndex, fulltextIndexDescriptor.getName(), scheduler, indexUpdateSink, refreshMaxStalenessMillis, refreshMonitor );
+        FulltextIndexAccessor accessor = new FulltextIndexAccessor( indexUpdateSink, refresher, fulltextIndex, fulltextIndexDescriptor, onClose );
         openOnlineAccessors.put( descriptor, accessor );
         log.debug( "Created online accessor for fulltext schema index %s: %s", descriptor, accessor );
         return accessor;
@@ -461,6 +474,7 @@ class FulltextIndexProvider extends IndexProvider implements FulltextAdapter, Au
     public void awaitRefresh()
     {
         indexUpdateSink.awaitUpdateApplication();
+        openOnlineAccessors.values().forEach( FulltextIndexAccessor::awaitRefresh );
     }
 
     @Override
@@ -43,6 +43,7 @@ import org.neo4j.kernel.impl.proc.Procedures;
 import org.neo4j.kernel.impl.spi.KernelContext;
 import org.neo4j.kernel.impl.util.UnsatisfiedDependencyException;
 import org.neo4j.kernel.lifecycle.Lifecycle;
+import org.neo4j.kernel.monitoring.Monitors;
 import org.neo4j.logging.Log;
 import org.neo4j.logging.Logger;
 import org.neo4j.logging.internal.LogService;
@@ -73,6 +74,8 @@ public class FulltextIndexProviderFactory extends KernelExtensionFactory<Fulltex
         LogService getLogService();
 
         AuxiliaryTransactionStateManager auxiliaryTransactionStateManager();
+
+        Monitors monitors();
     }
 
     public FulltextIndexProviderFactory()
@@ -114,7 +117,7 @@ public class FulltextIndexProviderFactory extends KernelExtensionFactory<Fulltex
 
         FulltextIndexProvider provider = new FulltextIndexProvider(
                 DESCRIPTOR, directoryStructureFactory, fileSystemAbstraction, config, tokenHolders,
-                directoryFactory, operationalMode, scheduler, auxiliaryTransactionStateManager, log );
+                directoryFactory, operationalMode, scheduler, auxiliaryTransactionStateManager, dependencies.monitors(), log );
 
         String procedureRegistrationFailureMessage = "Failed to register the fulltext index procedures. The fulltext index provider will be loaded and " +
                 "updated like normal, but it might not be possible to query any fulltext indexes. The reason given is: ";
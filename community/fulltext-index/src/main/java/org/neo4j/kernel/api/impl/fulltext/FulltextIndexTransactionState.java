@@ -50,7 +50,8 @@ import org.neo4j.storageengine.api.schema.StoreIndexDescriptor;
  * index, where the transaction state is indexed. This all happens in the {@link TransactionStateFulltextIndexReader}.
  * <p>
  * The transaction state is indexed prior to querying whenever we detect that the
- * {@link KernelTransactionImplementation#getTransactionDataRevision() transaction data revision} has changed.
+ * {@link KernelTransactionImplementation#getTransactionDataRevision() transaction data revision} has changed. The in-memory index is kept across
+ * such updates, and only entities whose indexed property values changed since the previous update are analyzed and indexed again.
  * <p>
  * The actual transaction state indexing is done by the {@link FulltextIndexTransactionStateVisitor}, which for the most part only looks at the ids, and then
  * loads the modified entities up through the existing transaction state, via the {@link AllStoreHolder} API.
@@ -103,7 +104,7 @@ class FulltextIndexTransactionState implements Closeable
     private void updateReader( KernelTransactionImplementation kti ) throws Exception
     {
         modifiedEntityIdsInThisTransaction.clear(); // Clear this so we don't filter out entities who have had their changes reversed since last time.
-        writer.resetWriterState();
+        writer.openIfNeeded();
         AllStoreHolder read = (AllStoreHolder) kti.dataRead();
         TransactionState transactionState = kti.txState();
 
@@ -113,6 +114,7 @@ class FulltextIndexTransactionState implements Closeable
         {
             transactionState.accept( txStateVisitor.init( read, nodeCursor, relationshipCursor, propertyCursor ) );
         }
+        txStateVisitor.removeEntitiesNotVisited();
         FulltextIndexReader baseReader = (FulltextIndexReader) read.indexReader( descriptor, false );
         FulltextIndexReader nearRealTimeReader = writer.getNearRealTimeReader();
         currentReader = new TransactionStateFulltextIndexReader( baseReader, nearRealTimeReader, modifiedEntityIdsInThisTransaction );
@@ -22,10 +22,14 @@
  */
 package org.neo4j.kernel.api.impl.fulltext;
 
+import org.apache.lucene.document.Document;
 import org.eclipse.collections.api.IntIterable;
+import org.eclipse.collections.api.map.primitive.MutableLongObjectMap;
 import org.eclipse.collections.api.set.primitive.LongSet;
 import org.eclipse.collections.api.set.primitive.MutableLongSet;
 import org.eclipse.collections.impl.map.mutable.primitive.IntIntHashMap;
+import org.eclipse.collections.impl.map.mutable.primitive.LongObjectHashMap;
+import org.eclipse.collections.impl.set.mutable.primitive.LongHashSet;
 
 import java.io.IOException;
 import java.io.UncheckedIOException;
@@ -45,10 +49,15 @@ import org.neo4j.values.storable.Value;
 
 import static org.neo4j.kernel.api.impl.fulltext.LuceneFulltextDocumentStructure.documentRepresentingProperties;
 import static org.neo4j.kernel.api.impl.fulltext.LuceneFulltextDocumentStructure.documentRepresentingPropertiesWithSort;
+import static org.neo4j.kernel.api.impl.fulltext.LuceneFulltextDocumentStructure.newTermForChangeOrRemove;
 
 /**
  * A {@link TxStateVisitor} that adds all entities to a {@link TransactionStateLuceneIndexWriter}, that matches the index according to the
  * {@link FulltextIndexDescriptor}.
+ * <p>
+ * The writer is kept across visits of the same transaction, and the visitor remembers the property values each entity was last indexed with.
+ * Entities whose indexed property values are unchanged since the previous visit are not analyzed and indexed again, and entities that are
+ * no longer part of the transaction state are removed by {@link #removeEntitiesNotVisited()}.
  */
 class FulltextIndexTransactionStateVisitor extends TxStateVisitor.Adapter
 {
@@ -60,6 +69,8 @@ class FulltextIndexTransactionStateVisitor extends TxStateVisitor.Adapter
     private final IntIntHashMap propKeyToIndex;
     private final MutableLongSet modifiedEntityIdsInThisTransaction;
     private final TransactionStateLuceneIndexWriter writer;
+    private final MutableLongObjectMap<Value[]> indexedPropertyValues;
+    private final MutableLongSet indexedInThisVisit;
     private AllStoreHolder read;
     private NodeCursor nodeCursor;
     private PropertyCursor propertyCursor;
@@ -76,6 +87,8 @@ class FulltextIndexTransactionStateVisitor extends TxStateVisitor.Adapter
         entityTokenIds = schema.getEntityTokenIds();
         int[] propertyIds = schema.getPropertyIds();
         propertyValues = new Value[propertyIds.length];
+        indexedPropertyValues = new LongObjectHashMap<>();
+        indexedInThisVisit = new LongHashSet();
         propKeyToIndex = new IntIntHashMap();
         for ( int i = 0; i < propertyIds.length; i++ )
         {
@@ -90,9 +103,31 @@ class FulltextIndexTransactionStateVisitor extends TxStateVisitor.Adapter
         this.nodeCursor = nodeCursor;
         this.relationshipCursor = relationshipCursor;
         this.propertyCursor = propertyCursor;
+        indexedInThisVisit.clear();
         return this;
     }
 
+    /**
+     * Remove the documents of entities that were indexed by a previous visit, but not by the latest one, because their changes have since
+     * been reverted, or because they no longer match the index.
+     */
+    void removeEntitiesNotVisited() throws IOException
+    {
+        MutableLongSet stale = new LongHashSet();
+        indexedPropertyValues.forEachKey( id ->
+        {
+            if ( !indexedInThisVisit.contains( id ) )
+            {
+                stale.add( id );
+            }
+        } );
+        for ( long id : stale.toArray() )
+        {
+            writer.deleteDocuments( newTermForChangeOrRemove( id ) );
+            indexedPropertyValues.remove( id );
+        }
+    }
+
     @Override
     public void visitCreatedNode( long id )
     {
@@ -179,23 +214,39 @@ class FulltextIndexTransactionStateVisitor extends TxStateVisitor.Adapter
         }
         if ( modifiedEntityIdsInThisTransaction.add( id ) )
         {
-            try
+            indexedInThisVisit.add( id );
+            Value[] previousValues = indexedPropertyValues.get( id );
+            if ( !Arrays.equals( previousValues, propertyValues ) )
             {
-                if ( descriptor.sortPropertyNames() == null || descriptor.sortPropertyNames().isEmpty() )
+                try
                 {
-                    writer.addDocument( documentRepresentingProperties( id, descriptor.propertyNames(), propertyValues ) );
+                    Document document = createDocument( id );
+                    if ( previousValues == null )
+                    {
+                        writer.addDocument( document );
+                    }
+                    else
+                    {
+                        writer.updateDocument( newTermForChangeOrRemove( id ), document );
+                    }
                 }
-                else
+                catch ( IOException e )
                 {
-                    writer.addDocument( documentRepresentingPropertiesWithSort( id, descriptor.propertyNames(), propertyValues, descriptor.sortPropertyNames(),
-                                                                                descriptor.sortTypes() ) );
+                    throw new UncheckedIOException( e );
                 }
-            }
-            catch ( IOException e )
-            {
-                throw new UncheckedIOException( e );
+                indexedPropertyValues.put( id, propertyValues.clone() );
             }
         }
         Arrays.fill( propertyValues, null );
     }
+
+    private Document createDocument( long id )
+    {
+        if ( descriptor.sortPropertyNames() == null || descriptor.sortPropertyNames().isEmpty() )
+        {
+            return documentRepresentingProperties( id, descriptor.propertyNames(), propertyValues );
+        }
+        return documentRepresentingPropertiesWithSort( id, descriptor.propertyNames(), propertyValues, descriptor.sortPropertyNames(),
+                                                       descriptor.sortTypes() );
+    }
 }
@@ -41,11 +41,13 @@ import org.neo4j.util.concurrent.BinaryLatch;
 public class IndexUpdateSink
 {
     private final JobScheduler scheduler;
+    private final int maxQueueLength;
     private final Semaphore updateQueueLimit;
 
     IndexUpdateSink( JobScheduler scheduler, int eventuallyConsistentUpdateQueueLimit )
     {
         this.scheduler = scheduler;
+        this.maxQueueLength = eventuallyConsistentUpdateQueueLimit;
         updateQueueLimit = new Semaphore( eventuallyConsistentUpdateQueueLimit );
     }
 
@@ -92,13 +94,21 @@ public class IndexUpdateSink
         }
     }
 
-    public void closeUpdater( DatabaseIndex<? extends IndexReader> index, IndexUpdater indexUpdater )
+    /**
+     * Close the given updater once all updates enqueued before this call have been applied.
+     *
+     * @param index the index the updater belongs to.
+     * @param indexUpdater the updater to close.
+     * @param afterClose run on the update applier thread right after the updater has been closed.
+     */
+    public void closeUpdater( DatabaseIndex<? extends IndexReader> index, IndexUpdater indexUpdater, Runnable afterClose )
     {
         scheduler.schedule( Group.INDEX_UPDATING, () ->
         {
             try
             {
                 indexUpdater.close();
+                afterClose.run();
             }
             catch ( IndexEntryConflictException e )
             {
@@ -107,6 +117,14 @@ public class IndexUpdateSink
         } );
     }
 
+    /**
+     * @return the number of enqueued index updates that have not yet been applied.
+     */
+    public int queueDepth()
+    {
+        return maxQueueLength - updateQueueLimit.availablePermits();
+    }
+
     public void awaitUpdateApplication()
     {
         BinaryLatch updateLatch = new BinaryLatch();
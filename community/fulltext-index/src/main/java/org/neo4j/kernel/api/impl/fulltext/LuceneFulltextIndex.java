@@ -36,6 +36,7 @@ import org.neo4j.kernel.api.impl.index.AbstractLuceneIndex;
 import org.neo4j.kernel.api.impl.index.partition.AbstractIndexPartition;
 import org.neo4j.kernel.api.impl.index.partition.IndexPartitionFactory;
 import org.neo4j.kernel.api.impl.index.partition.PartitionSearcher;
+import org.neo4j.kernel.api.impl.index.partition.PartitionedSearch;
 import org.neo4j.kernel.api.impl.index.storage.PartitionedIndexStorage;
 import org.neo4j.kernel.impl.core.TokenHolder;
 import org.neo4j.storageengine.api.EntityType;
@@ -47,13 +48,14 @@ public class LuceneFulltextIndex extends AbstractLuceneIndex<FulltextIndexReader
     private final EntityType type;
     private final Collection<String> properties;
     private final TokenHolder propertyKeyTokenHolder;
+    private final PartitionedSearch partitionedSearch;
     private final File transactionsFolder;
 
     private final Collection<String> sortProperties;
     private final Map<String,String> sortTypes;
 
     LuceneFulltextIndex( PartitionedIndexStorage storage, IndexPartitionFactory partitionFactory, FulltextIndexDescriptor descriptor,
-            TokenHolder propertyKeyTokenHolder )
+            TokenHolder propertyKeyTokenHolder, PartitionedSearch partitionedSearch )
     {
         super( storage, partitionFactory, descriptor );
         this.analyzer = descriptor.analyzer();
@@ -61,6 +63,7 @@ public class LuceneFulltextIndex extends AbstractLuceneIndex<FulltextIndexReader
         this.type = descriptor.schema().entityType();
         this.properties = descriptor.propertyNames();
         this.propertyKeyTokenHolder = propertyKeyTokenHolder;
+        this.partitionedSearch = partitionedSearch;
         File indexFolder = storage.getIndexFolder();
         transactionsFolder = new File( indexFolder.getParent(), indexFolder.getName() + ".tx" );
 
@@ -132,6 +135,6 @@ public class LuceneFulltextIndex extends AbstractLuceneIndex<FulltextIndexReader
     {
         List<PartitionSearcher> searchers = acquireSearchers( partitions );
         return new PartitionedFulltextIndexReader( searchers, getPropertiesArray(), analyzer, propertyKeyTokenHolder, getSortPropertiesArray(),
-                                                   getSortTypes() );
+                                                   getSortTypes(), partitionedSearch );
     }
 }
@@ -45,7 +45,7 @@ public class NullIndexUpdateSink extends IndexUpdateSink
     }
 
     @Override
-    public void closeUpdater( DatabaseIndex<? extends IndexReader> index, IndexUpdater indexUpdater )
+    public void closeUpdater( DatabaseIndex<? extends IndexReader> index, IndexUpdater indexUpdater, Runnable afterClose )
     {
     }
 
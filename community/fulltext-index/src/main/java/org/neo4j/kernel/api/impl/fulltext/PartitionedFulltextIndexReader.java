@@ -26,13 +26,13 @@ import org.apache.lucene.analysis.Analyzer;
 import org.apache.lucene.queryparser.classic.ParseException;
 
 import java.io.IOException;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
 
 import org.neo4j.io.IOUtils;
 import org.neo4j.kernel.api.impl.index.partition.PartitionSearcher;
+import org.neo4j.kernel.api.impl.index.partition.PartitionedSearch;
 import org.neo4j.kernel.api.impl.schema.reader.IndexReaderCloseException;
 import org.neo4j.kernel.impl.core.TokenHolder;
 import org.neo4j.values.storable.Value;
@@ -47,20 +47,22 @@ class PartitionedFulltextIndexReader extends FulltextIndexReader
 {
 
     private final List<FulltextIndexReader> indexReaders;
+    private final PartitionedSearch partitionedSearch;
 
     PartitionedFulltextIndexReader( List<PartitionSearcher> partitionSearchers, String[] properties, Analyzer analyzer, TokenHolder propertyKeyTokenHolder,
-                                    String[] sortProperties, Map<String,String> sortTypes )
+                                    String[] sortProperties, Map<String,String> sortTypes, PartitionedSearch partitionedSearch )
     {
         this( partitionSearchers.stream()
                                 .map( PartitionSearcherReference::new )
                                 .map( searcher -> new SimpleFulltextIndexReader( searcher, properties, analyzer, propertyKeyTokenHolder, sortProperties,
                                                                                  sortTypes ) )
-                                .collect( Collectors.toList() ) );
+                                .collect( Collectors.toList() ), partitionedSearch );
     }
 
-    private PartitionedFulltextIndexReader( List<FulltextIndexReader> readers )
+    private PartitionedFulltextIndexReader( List<FulltextIndexReader> readers, PartitionedSearch partitionedSearch )
     {
         this.indexReaders = readers;
+        this.partitionedSearch = partitionedSearch;
     }
 
     @Override
@@ -90,22 +92,12 @@ class PartitionedFulltextIndexReader extends FulltextIndexReader
 
     private ScoreEntityIterator partitionedQuery( String query ) throws ParseException
     {
-        List<ScoreEntityIterator> results = new ArrayList<>();
-        for ( FulltextIndexReader indexReader : indexReaders )
-        {
-            results.add( indexReader.query( query ) );
-        }
-        return ScoreEntityIterator.mergeIterators( results );
+        return ScoreEntityIterator.mergeIterators( partitionedSearch.search( indexReaders, reader -> reader.query( query ) ) );
     }
 
     private ScoreEntityIterator partitionedQuery( String query, FulltextQueryConfig queryConfig ) throws ParseException
     {
-        List<ScoreEntityIterator> results = new ArrayList<>();
-        for ( FulltextIndexReader indexReader : indexReaders )
-        {
-            results.add( indexReader.query( query, queryConfig ) );
-        }
-        return ScoreEntityIterator.mergeIterators( results );
+        return ScoreEntityIterator.mergeIterators( partitionedSearch.search( indexReaders, reader -> reader.query( query, queryConfig ) ) );
     }
 
     @Override
@@ -117,11 +109,7 @@ class PartitionedFulltextIndexReader extends FulltextIndexReader
     @Override
     public CountResult queryForCount( String query ) throws ParseException
     {
-        List<CountResult> results = new ArrayList<>();
-        for ( FulltextIndexReader indexReader : indexReaders )
-        {
-            results.add( indexReader.queryForCount( query ) );
-        }
+        List<CountResult> results = partitionedSearch.search( indexReaders, reader -> reader.queryForCount( query ) );
         return new CountResult( results.stream().mapToLong( CountResult::getCount ).sum() );
     }
 }
@@ -25,6 +25,7 @@ package org.neo4j.kernel.api.impl.fulltext;
 import java.util.Iterator;
 import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
 import java.util.Spliterator;
 import java.util.Spliterators;
 import java.util.function.Predicate;
@@ -110,70 +111,79 @@ public class ScoreEntityIterator implements Iterator<ScoreEntityIterator.ScoreEn
         return new ConcatenatingScoreEntityIterator( iterators );
     }
 
+    /**
+     * Merges the heads of the given iterators through a priority queue, so that each returned entry costs a logarithmic, rather than linear,
+     * number of comparisons in the number of iterators. Iterators are only advanced as entries are returned, so results stream through.
+     */
     private static class ConcatenatingScoreEntityIterator extends ScoreEntityIterator
     {
         private final List<? extends ScoreEntityIterator> iterators;
-        private final ScoreEntry[] buffer;
-        private boolean fetched;
-        private ScoreEntry nextHead;
+        private final PriorityQueue<Head> heads;
+        private boolean initialized;
 
         ConcatenatingScoreEntityIterator( List<? extends ScoreEntityIterator> iterators )
         {
             super( null );
             this.iterators = iterators;
-            this.buffer = new ScoreEntry[iterators.size()];
+            this.heads = new PriorityQueue<>( Math.max( 1, iterators.size() ) );
         }
 
         @Override
         public boolean hasNext()
         {
-            if ( !fetched )
+            if ( !initialized )
             {
-                fetch();
+                for ( int i = 0; i < iterators.size(); i++ )
+                {
+                    ScoreEntityIterator iterator = iterators.get( i );
+                    if ( iterator.hasNext() )
+                    {
+                        heads.add( new Head( iterator.next(), i ) );
+                    }
+                }
+                initialized = true;
             }
-            return nextHead != null;
+            return !heads.isEmpty();
         }
 
-        private void fetch()
+        @Override
+        public ScoreEntry next()
         {
-            int candidateHead = -1;
-            for ( int i = 0; i < iterators.size(); i++ )
+            if ( hasNext() )
             {
-                ScoreEntry entry = buffer[i];
-                //Fill buffer if needed.
-                if ( entry == null && iterators.get( i ).hasNext() )
+                Head head = heads.poll();
+                ScoreEntry best = head.entry;
+                ScoreEntityIterator iterator = iterators.get( head.iteratorIndex );
+                if ( iterator.hasNext() )
                 {
-                    entry = iterators.get( i ).next();
-                    buffer[i] = entry;
-                }
-
-                //Check if entry might be candidate for next to return.
-                if ( entry != null && (nextHead == null || entry.score > nextHead.score) )
-                {
-                    nextHead = entry;
-                    candidateHead = i;
+                    head.entry = iterator.next();
+                    heads.add( head );
                 }
+                return best;
             }
-            if ( candidateHead != -1 )
+            else
             {
-                buffer[candidateHead] = null;
+                throw new NoSuchElementException( "The iterator is exhausted" );
             }
-            fetched = true;
         }
 
-        @Override
-        public ScoreEntry next()
+        private static class Head implements Comparable<Head>
         {
-            if ( hasNext() )
+            private final int iteratorIndex;
+            private ScoreEntry entry;
+
+            Head( ScoreEntry entry, int iteratorIndex )
             {
-                fetched = false;
-                ScoreEntry best = nextHead;
-                nextHead = null;
-                return best;
+                this.entry = entry;
+                this.iteratorIndex = iteratorIndex;
             }
-            else
+
+            @Override
+            public int compareTo( Head other )
             {
-                throw new NoSuchElementException( "The iterator is exhausted" );
+                // Highest score first, and on equal scores, the earliest iterator first.
+                int byScore = Float.compare( other.entry.score, entry.score );
+                return byScore != 0 ? byScore : Integer.compare( iteratorIndex, other.iteratorIndex );
             }
         }
     }
@@ -80,19 +80,16 @@ public class TransactionStateLuceneIndexWriter implements LuceneIndexWriter, Clo
         writer.deleteDocuments( query );
     }
 
-    void resetWriterState() throws IOException
+    /**
+     * Open the writer, unless it is already open. The writer, and the documents it has been given, are kept for the lifetime of the transaction
+     * state, so that only entities that changed since the last query need to be indexed again.
+     */
+    void openIfNeeded() throws IOException
     {
-        if ( writer != null )
+        if ( writer == null )
         {
-            // Note that 'rollback' closes the writer.
-            writer.rollback();
+            writer = new IndexWriter( directory, IndexWriterConfigs.transactionState( index.getAnalyzer() ) );
         }
-        openWriter();
-    }
-
-    private void openWriter() throws IOException
-    {
-        writer = new IndexWriter( directory, IndexWriterConfigs.transactionState( index.getAnalyzer() ) );
     }
 
     FulltextIndexReader getNearRealTimeReader() throws IOException
@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) 2018-2020 "Graph Foundation"
+ * Graph Foundation, Inc. [https://graphfoundation.org]
+ *
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of ONgDB.
+ *
+ * ONgDB is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo;
+
+import org.neo4j.graphdb.Direction;
+
+/**
+ * Relationships of a graph looked up by node id, for algorithms working on primitive node and relationship ids
+ * instead of on {@link org.neo4j.graphdb.Node} and {@link org.neo4j.graphdb.Relationship} objects.
+ * Every relationship has a weight, which algorithms not caring about weights ignore.
+ *
+ * @see AdjacencyLoader
+ */
+public interface Adjacency
+{
+    /**
+     * @param nodeId id of the node.
+     * @return whether or not the node is part of this graph.
+     */
+    boolean contains( long nodeId );
+
+    /**
+     * @param direction direction of relationships, seen from their nodes.
+     * @return whether or not relationships in the given direction can be looked up, for {@link Direction#BOTH}
+     * whether or not relationships in both directions can.
+     */
+    boolean canTraverse( Direction direction );
+
+    /**
+     * @param nodeId id of the node.
+     * @param direction direction of the relationships to count, seen from the node.
+     * @return number of relationships of the node in the given direction, or 0 if the node isn't part of this graph.
+     */
+    int degree( long nodeId, Direction direction );
+
+    /**
+     * Visits the relationships of a node in the given direction. For {@link Direction#BOTH} relationships
+     * from the node to itself are visited once.
+     *
+     * @param nodeId id of the node.
+     * @param direction direction of the relationships to visit, seen from the node.
+     * @param visitor receives every relationship of the node.
+     * @return {@code true} if all relationships were visited, {@code false} if the visitor stopped the visit.
+     */
+    boolean forEachRelationship( long nodeId, Direction direction, RelationshipVisitor visitor );
+
+    interface RelationshipVisitor
+    {
+        /**
+         * @param relationshipId id of the relationship.
+         * @param neighbourId id of the node at the other end of the relationship.
+         * @param weight weight of the relationship.
+         * @return {@code true} to continue visiting relationships, {@code false} to stop.
+         */
+        boolean visit( long relationshipId, long neighbourId, double weight );
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2018-2020 "Graph Foundation"
+ * Graph Foundation, Inc. [https://graphfoundation.org]
+ *
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of ONgDB.
+ *
+ * ONgDB is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo;
+
+import org.neo4j.graphdb.Direction;
+
+/**
+ * Loads an in-memory {@link Adjacency} of a part of the committed data of a database, for the {@link Adjacency}
+ * based algorithms of {@link GraphAlgoFactory}. The loaded {@link Adjacency} is a snapshot, changes made to the
+ * graph after it was loaded are not visible in it.
+ * <pre>
+ * Adjacency roads = GraphAlgoFactory.adjacencyLoader( db )
+ *         .withLabels( "City" )
+ *         .withRelationshipTypes( "ROAD" )
+ *         .withWeightProperty( "distance", Double.MAX_VALUE )
+ *         .load();
+ * </pre>
+ *
+ * @see GraphAlgoFactory#adjacencyLoader(org.neo4j.graphdb.GraphDatabaseService)
+ */
+public interface AdjacencyLoader
+{
+    /**
+     * Only include nodes having any of the given labels. By default all nodes are included.
+     *
+     * @param labels names of the labels to include nodes of.
+     * @return this loader.
+     */
+    AdjacencyLoader withLabels( String... labels );
+
+    /**
+     * Only include relationships of any of the given types. By default relationships of all types are included.
+     *
+     * @param relationshipTypes names of the relationship types to include.
+     * @return this loader.
+     */
+    AdjacencyLoader withRelationshipTypes( String... relationshipTypes );
+
+    /**
+     * Use values of the given relationship property as weights, where relationships without the property get
+     * {@code defaultWeight}. Without a weight property all relationships get a weight of 1.
+     *
+     * @param weightProperty name of the relationship property holding the weights.
+     * @param defaultWeight weight of relationships not having the property.
+     * @return this loader.
+     */
+    AdjacencyLoader withWeightProperty( String weightProperty, double defaultWeight );
+
+    /**
+     * Directions of relationships to keep, seen from their start nodes. Loading only one direction halves the
+     * memory needed, but the loaded {@link Adjacency} can then only be traversed in that direction.
+     * Default is {@link Direction#BOTH}.
+     *
+     * @param direction directions to load.
+     * @return this loader.
+     */
+    AdjacencyLoader withDirection( Direction direction );
+
+    /**
+     * Number of threads to load with. Default is the number of available processors.
+     *
+     * @param threads number of threads.
+     * @return this loader.
+     */
+    AdjacencyLoader withThreads( int threads );
+
+    /**
+     * @return the loaded {@link Adjacency}.
+     */
+    Adjacency load();
+}
@@ -23,14 +23,20 @@
 package org.neo4j.graphalgo;
 
 import org.neo4j.graphalgo.impl.path.AStar;
+import org.neo4j.graphalgo.impl.path.AdjacencyAStar;
+import org.neo4j.graphalgo.impl.path.AdjacencyDijkstra;
+import org.neo4j.graphalgo.impl.path.AdjacencyShortestPath;
 import org.neo4j.graphalgo.impl.path.AllPaths;
 import org.neo4j.graphalgo.impl.path.AllSimplePaths;
 import org.neo4j.graphalgo.impl.path.Dijkstra;
 import org.neo4j.graphalgo.impl.path.DijkstraBidirectional;
 import org.neo4j.graphalgo.impl.path.ExactDepthPathFinder;
 import org.neo4j.graphalgo.impl.path.ShortestPath;
+import org.neo4j.graphalgo.impl.projection.GraphProjectionLoader;
 import org.neo4j.graphalgo.impl.util.DoubleEvaluator;
 import org.neo4j.graphalgo.impl.util.PathInterestFactory;
+import org.neo4j.graphdb.Direction;
+import org.neo4j.graphdb.GraphDatabaseService;
 import org.neo4j.graphdb.Node;
 import org.neo4j.graphdb.Path;
 import org.neo4j.graphdb.PathExpander;
@@ -116,6 +122,39 @@ public abstract class GraphAlgoFactory
         return new ShortestPath( maxDepth, expander, maxHitCount );
     }
 
+    /**
+     * Returns an {@link AdjacencyLoader} which loads a part of the committed
+     * data of the given database into an in-memory {@link Adjacency}, for
+     * use with the {@link Adjacency} based algorithms of this factory.
+     *
+     * @param db the database to load from.
+     * @return a loader of an {@link Adjacency}, loading all nodes and
+     * relationships in both directions unless configured otherwise.
+     */
+    public static AdjacencyLoader adjacencyLoader( GraphDatabaseService db )
+    {
+        return new GraphProjectionLoader( db );
+    }
+
+    /**
+     * Returns an algorithm which can find all shortest paths (that is paths
+     * with as short {@link Path#length()} as possible) between two nodes of an
+     * {@link Adjacency}, typically one loaded into memory by an
+     * {@link #adjacencyLoader(GraphDatabaseService) AdjacencyLoader}. These returned paths cannot contain
+     * loops. The search works on node and relationship ids and only looks up
+     * the relationships of the returned paths in the database.
+     *
+     * @param adjacency the {@link Adjacency} providing the relationships of each node.
+     * @param direction the direction to expand relationships in.
+     * @param maxDepth the max {@link Path#length()} returned paths are allowed
+     *            to have. Longer paths than that will not be examined.
+     * @return an algorithm which finds shortest paths between two nodes.
+     */
+    public static PathFinder<Path> shortestPath( Adjacency adjacency, Direction direction, int maxDepth )
+    {
+        return new AdjacencyShortestPath( adjacency, direction, maxDepth );
+    }
+
     /**
      * Returns an algorithm which can find simple all paths of a certain length
      * between two nodes. These returned paths cannot contain loops (i.e. a node
@@ -159,6 +198,26 @@ public abstract class GraphAlgoFactory
         return new AStar( expander, lengthEvaluator, estimateEvaluator );
     }
 
+    /**
+     * Returns an algorithm which can find the cheapest path between two nodes
+     * of an {@link Adjacency} using the A* algorithm, where the cost of each
+     * relationship is its weight in the {@link Adjacency}. The search works on
+     * node and relationship ids and only looks up the relationships of the
+     * returned path in the database.
+     *
+     * @param adjacency the {@link Adjacency} providing the relationships of each node.
+     * @param direction the direction to expand relationships in.
+     * @param estimateEvaluator evaluator that returns an (optimistic)
+     * estimation of the cost to get from a node to the end node.
+     * @return an algorithm which finds the cheapest path between two nodes
+     * using the A* algorithm.
+     */
+    public static PathFinder<WeightedPath> aStar( Adjacency adjacency, Direction direction,
+            NodeIdEstimateEvaluator estimateEvaluator )
+    {
+        return new AdjacencyAStar( adjacency, direction, estimateEvaluator );
+    }
+
     /**
      * Returns a {@link PathFinder} which uses the Dijkstra algorithm to find
      * the cheapest path between two nodes. The definition of "cheap" is the
@@ -188,6 +247,25 @@ public abstract class GraphAlgoFactory
         return new DijkstraBidirectional( expander, costEvaluator );
     }
 
+    /**
+     * Returns a {@link PathFinder} which uses the Dijkstra algorithm to find
+     * the cheapest paths between two nodes of an {@link Adjacency}, where the
+     * cost of each relationship is its weight in the {@link Adjacency}.
+     * The search works on node and relationship ids and only looks up the
+     * relationships of the returned paths in the database.
+     *
+     * See {@link #dijkstra(PathExpander, CostEvaluator)} for documentation.
+     *
+     * @param adjacency the {@link Adjacency} providing the relationships of each node.
+     * @param direction the direction to expand relationships in.
+     * @return an algorithm which finds the cheapest paths between two nodes
+     * using the Dijkstra algorithm.
+     */
+    public static PathFinder<WeightedPath> dijkstra( Adjacency adjacency, Direction direction )
+    {
+        return new AdjacencyDijkstra( adjacency, direction );
+    }
+
     /**
      * See {@link #dijkstra(PathExpander, CostEvaluator)} for documentation.
      *
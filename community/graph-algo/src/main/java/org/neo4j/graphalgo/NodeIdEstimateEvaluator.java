@@ -0,0 +1,39 @@
+/*
+ * Copyright (c) 2018-2020 "Graph Foundation"
+ * Graph Foundation, Inc. [https://graphfoundation.org]
+ *
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of ONgDB.
+ *
+ * ONgDB is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo;
+
+/**
+ * Estimates the cost of the remaining path from one node to another by node ids, like
+ * {@link EstimateEvaluator} does for {@link org.neo4j.graphdb.Node}s, for A* searches
+ * over an {@link Adjacency}. Estimates must never be higher than the actual cost for found paths to be the cheapest.
+ */
+@FunctionalInterface
+public interface NodeIdEstimateEvaluator
+{
+    /**
+     * @param nodeId id of the node to estimate the cost from.
+     * @param goalNodeId id of the node to estimate the cost to.
+     * @return an optimistic estimation of the cost of a path from the first node to the second.
+     */
+    double getCost( long nodeId, long goalNodeId );
+}
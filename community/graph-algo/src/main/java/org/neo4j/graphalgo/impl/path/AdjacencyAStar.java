@@ -0,0 +1,158 @@
+/*
+ * Copyright (c) 2018-2020 "Graph Foundation"
+ * Graph Foundation, Inc. [https://graphfoundation.org]
+ *
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of ONgDB.
+ *
+ * ONgDB is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.impl.path;
+
+import org.eclipse.collections.api.map.primitive.MutableLongDoubleMap;
+import org.eclipse.collections.api.map.primitive.MutableLongLongMap;
+import org.eclipse.collections.impl.list.mutable.primitive.LongArrayList;
+import org.eclipse.collections.impl.map.mutable.primitive.LongDoubleHashMap;
+import org.eclipse.collections.impl.map.mutable.primitive.LongLongHashMap;
+
+import org.neo4j.graphalgo.Adjacency;
+import org.neo4j.graphalgo.NodeIdEstimateEvaluator;
+import org.neo4j.graphalgo.PathFinder;
+import org.neo4j.graphalgo.WeightedPath;
+import org.neo4j.graphalgo.impl.util.DaryLongHeap;
+import org.neo4j.graphalgo.impl.util.PathImpl;
+import org.neo4j.graphalgo.impl.util.WeightedPathImpl;
+import org.neo4j.graphdb.Direction;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.traversal.TraversalMetadata;
+
+import static org.neo4j.helpers.collection.Iterables.option;
+
+/**
+ * Finds the cheapest path between two nodes of an {@link Adjacency}, using the weights of its relationships as
+ * costs, with the A* algorithm on node and relationship ids. Nodes are settled in order of their cost from the start
+ * node plus the {@link NodeIdEstimateEvaluator estimated} cost to the end node, queued in a {@link DaryLongHeap}.
+ * Only the found path is turned into a {@link WeightedPath}, through the database of the start node.
+ * <p>
+ * Weights must not be negative. A node is queued again if a cheaper path to it is found after it was settled,
+ * which only happens if the estimates are inconsistent.
+ */
+public class AdjacencyAStar implements PathFinder<WeightedPath>
+{
+    private final Adjacency adjacency;
+    private final Direction direction;
+    private final NodeIdEstimateEvaluator estimateEvaluator;
+    private Metadata lastMetadata;
+
+    public AdjacencyAStar( Adjacency adjacency, Direction direction, NodeIdEstimateEvaluator estimateEvaluator )
+    {
+        this.adjacency = adjacency;
+        this.direction = direction;
+        this.estimateEvaluator = estimateEvaluator;
+    }
+
+    @Override
+    public WeightedPath findSinglePath( Node start, Node end )
+    {
+        lastMetadata = new Metadata();
+        long startId = start.getId();
+        long endId = end.getId();
+        if ( !adjacency.contains( startId ) || !adjacency.contains( endId ) )
+        {
+            return null;
+        }
+        MutableLongDoubleMap costs = new LongDoubleHashMap();
+        MutableLongLongMap parentNodes = new LongLongHashMap();
+        MutableLongLongMap parentRelationships = new LongLongHashMap();
+        DaryLongHeap heap = new DaryLongHeap();
+        costs.put( startId, 0 );
+        heap.addOrDecrease( startId, estimateEvaluator.getCost( startId, endId ) );
+        boolean found = false;
+        while ( !heap.isEmpty() )
+        {
+            long node = heap.pop();
+            if ( node == endId )
+            {
+                found = true;
+                break;
+            }
+            double cost = costs.get( node );
+            adjacency.forEachRelationship( node, direction, ( relationshipId, neighbourId, weight ) ->
+            {
+                lastMetadata.rels++;
+                double neighbourCost = cost + weight;
+                if ( costs.containsKey( neighbourId ) && neighbourCost >= costs.get( neighbourId ) )
+                {
+                    return true;
+                }
+                costs.put( neighbourId, neighbourCost );
+                parentNodes.put( neighbourId, node );
+                parentRelationships.put( neighbourId, relationshipId );
+                heap.addOrDecrease( neighbourId, neighbourCost + estimateEvaluator.getCost( neighbourId, endId ) );
+                return true;
+            } );
+        }
+        if ( !found )
+        {
+            return null;
+        }
+        lastMetadata.paths++;
+
+        LongArrayList relationships = new LongArrayList();
+        for ( long node = endId; node != startId; node = parentNodes.get( node ) )
+        {
+            relationships.add( parentRelationships.get( node ) );
+        }
+        GraphDatabaseService db = start.getGraphDatabase();
+        PathImpl.Builder builder = new PathImpl.Builder( start );
+        for ( int i = relationships.size() - 1; i >= 0; i-- )
+        {
+            builder = builder.push( db.getRelationshipById( relationships.get( i ) ) );
+        }
+        return new WeightedPathImpl( costs.get( endId ), builder.build() );
+    }
+
+    @Override
+    public Iterable<WeightedPath> findAllPaths( Node start, Node end )
+    {
+        return option( findSinglePath( start, end ) );
+    }
+
+    @Override
+    public TraversalMetadata metadata()
+    {
+        return lastMetadata;
+    }
+
+    private static class Metadata implements TraversalMetadata
+    {
+        private int rels;
+        private int paths;
+
+        @Override
+        public int getNumberOfPathsReturned()
+        {
+            return paths;
+        }
+
+        @Override
+        public int getNumberOfRelationshipsTraversed()
+        {
+            return rels;
+        }
+    }
+}
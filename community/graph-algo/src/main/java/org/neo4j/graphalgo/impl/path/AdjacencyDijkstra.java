@@ -0,0 +1,323 @@
+/*
+ * Copyright (c) 2018-2020 "Graph Foundation"
+ * Graph Foundation, Inc. [https://graphfoundation.org]
+ *
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of ONgDB.
+ *
+ * ONgDB is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.impl.path;
+
+import org.eclipse.collections.api.map.primitive.MutableLongDoubleMap;
+import org.eclipse.collections.api.map.primitive.MutableLongLongMap;
+import org.eclipse.collections.api.map.primitive.MutableLongObjectMap;
+import org.eclipse.collections.api.set.primitive.MutableLongSet;
+import org.eclipse.collections.impl.list.mutable.primitive.LongArrayList;
+import org.eclipse.collections.impl.map.mutable.primitive.LongDoubleHashMap;
+import org.eclipse.collections.impl.map.mutable.primitive.LongLongHashMap;
+import org.eclipse.collections.impl.map.mutable.primitive.LongObjectHashMap;
+import org.eclipse.collections.impl.set.mutable.primitive.LongHashSet;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.neo4j.graphalgo.Adjacency;
+import org.neo4j.graphalgo.PathFinder;
+import org.neo4j.graphalgo.WeightedPath;
+import org.neo4j.graphalgo.impl.util.DaryLongHeap;
+import org.neo4j.graphalgo.impl.util.PathImpl;
+import org.neo4j.graphalgo.impl.util.WeightedPathImpl;
+import org.neo4j.graphdb.Direction;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.traversal.TraversalMetadata;
+
+import static org.neo4j.kernel.impl.util.NoneStrictMath.EPSILON;
+
+/**
+ * Finds cheapest paths between two nodes of an {@link Adjacency}, using the weights of its relationships as costs,
+ * with the Dijkstra algorithm on node and relationship ids. Tentative costs live in primitive maps and the nodes to
+ * settle in a {@link DaryLongHeap}, so no objects are created per visited node or relationship. Only the found paths
+ * are turned into {@link WeightedPath}s, through the database of the start node.
+ * <p>
+ * {@link #findSinglePath(Node, Node)} searches from both ends at once, always expanding the side having the fewest
+ * nodes queued, and stops as soon as the cheapest costs queued on both sides together can't beat the cheapest path
+ * found where the two sides met. When the {@link Adjacency} can't be traversed in the reverse direction, e.g. a
+ * projection loaded with outgoing relationships only, it searches from the start node alone until reaching the end
+ * node at a cost no queued node can beat. {@link #findAllPaths(Node, Node)} searches from the start node only, remembering
+ * every relationship through which each node was reached at its cheapest cost, until the end node is settled.
+ * <p>
+ * Weights must not be negative.
+ */
+public class AdjacencyDijkstra implements PathFinder<WeightedPath>
+{
+    private static final long NO_NODE = -1;
+
+    private final Adjacency adjacency;
+    private final Direction direction;
+    private final double epsilon;
+    private Metadata lastMetadata;
+
+    public AdjacencyDijkstra( Adjacency adjacency, Direction direction )
+    {
+        this( adjacency, direction, EPSILON );
+    }
+
+    /**
+     * @param adjacency the {@link Adjacency} providing the relationships of each node.
+     * @param direction direction of the relationships to follow, seen from the start node.
+     * @param epsilon tolerance within which costs of paths are considered equal by {@link #findAllPaths(Node, Node)}.
+     */
+    public AdjacencyDijkstra( Adjacency adjacency, Direction direction, double epsilon )
+    {
+        this.adjacency = adjacency;
+        this.direction = direction;
+        this.epsilon = epsilon;
+    }
+
+    @Override
+    public WeightedPath findSinglePath( Node start, Node end )
+    {
+        lastMetadata = new Metadata();
+        long startId = start.getId();
+        long endId = end.getId();
+        if ( !adjacency.contains( startId ) || !adjacency.contains( endId ) )
+        {
+            return null;
+        }
+        Side forward = new Side( startId, direction );
+        // Without relationships in the reverse direction the backward side is never expanded, it then only holds the end node
+        // at cost 0 and the condition below stops the search once the end node has been reached as cheap as possible
+        boolean bidirectional = adjacency.canTraverse( direction.reverse() );
+        Side backward = new Side( endId, direction.reverse() );
+        Meeting meeting = new Meeting();
+        if ( startId == endId )
+        {
+            meeting.node = startId;
+            meeting.cost = 0;
+        }
+        while ( !forward.heap.isEmpty() && !backward.heap.isEmpty() &&
+                forward.heap.peekPriority() + backward.heap.peekPriority() < meeting.cost )
+        {
+            if ( !bidirectional || forward.heap.size() <= backward.heap.size() )
+            {
+                expand( forward, backward, meeting );
+            }
+            else
+            {
+                expand( backward, forward, meeting );
+            }
+        }
+        if ( meeting.node == NO_NODE )
+        {
+            return null;
+        }
+        lastMetadata.paths++;
+
+        GraphDatabaseService db = start.getGraphDatabase();
+        LongArrayList forwardRelationships = forward.relationshipsTo( meeting.node );
+        PathImpl.Builder builder = new PathImpl.Builder( start );
+        for ( int i = forwardRelationships.size() - 1; i >= 0; i-- )
+        {
+            builder = builder.push( db.getRelationshipById( forwardRelationships.get( i ) ) );
+        }
+        LongArrayList backwardRelationships = backward.relationshipsTo( meeting.node );
+        for ( int i = 0; i < backwardRelationships.size(); i++ )
+        {
+            builder = builder.push( db.getRelationshipById( backwardRelationships.get( i ) ) );
+        }
+        return new WeightedPathImpl( meeting.cost, builder.build() );
+    }
+
+    private void expand( Side side, Side other, Meeting meeting )
+    {
+        long node = side.heap.pop();
+        side.settled.add( node );
+        double cost = side.costs.get( node );
+        adjacency.forEachRelationship( node, side.direction, ( relationshipId, neighbourId, weight ) ->
+        {
+            lastMetadata.rels++;
+            if ( side.settled.contains( neighbourId ) )
+            {
+                return true;
+            }
+            double neighbourCost = cost + weight;
+            if ( side.heap.addOrDecrease( neighbourId, neighbourCost ) )
+            {
+                side.costs.put( neighbourId, neighbourCost );
+                side.parentNodes.put( neighbourId, node );
+                side.parentRelationships.put( neighbourId, relationshipId );
+                if ( other.costs.containsKey( neighbourId ) && neighbourCost + other.costs.get( neighbourId ) < meeting.cost )
+                {
+                    meeting.node = neighbourId;
+                    meeting.cost = neighbourCost + other.costs.get( neighbourId );
+                }
+            }
+            return true;
+        } );
+    }
+
+    @Override
+    public Iterable<WeightedPath> findAllPaths( Node start, Node end )
+    {
+        lastMetadata = new Metadata();
+        long startId = start.getId();
+        long endId = end.getId();
+        if ( !adjacency.contains( startId ) || !adjacency.contains( endId ) )
+        {
+            return Collections.emptyList();
+        }
+        MutableLongDoubleMap costs = new LongDoubleHashMap();
+        MutableLongSet settled = new LongHashSet();
+        // Pairs of node and relationship ids through which a node was reached at its cheapest cost
+        MutableLongObjectMap<LongArrayList> predecessors = new LongObjectHashMap<>();
+        DaryLongHeap heap = new DaryLongHeap();
+        costs.put( startId, 0 );
+        heap.addOrDecrease( startId, 0 );
+        boolean found = false;
+        while ( !heap.isEmpty() && !found )
+        {
+            long node = heap.pop();
+            settled.add( node );
+            found = node == endId;
+            double cost = costs.get( node );
+            adjacency.forEachRelationship( node, direction, ( relationshipId, neighbourId, weight ) ->
+            {
+                lastMetadata.rels++;
+                if ( node == endId || settled.contains( neighbourId ) )
+                {
+                    return true;
+                }
+                double neighbourCost = cost + weight;
+                LongArrayList neighbourPredecessors = predecessors.get( neighbourId );
+                if ( neighbourPredecessors == null || neighbourCost < costs.get( neighbourId ) - epsilon )
+                {
+                    neighbourPredecessors = new LongArrayList( 2 );
+                    predecessors.put( neighbourId, neighbourPredecessors );
+                    costs.put( neighbourId, neighbourCost );
+                    heap.addOrDecrease( neighbourId, neighbourCost );
+                }
+                else if ( neighbourCost > costs.get( neighbourId ) + epsilon )
+                {
+                    return true;
+                }
+                neighbourPredecessors.add( node );
+                neighbourPredecessors.add( relationshipId );
+                return true;
+            } );
+        }
+        if ( !found )
+        {
+            return Collections.emptyList();
+        }
+        double cost = costs.get( endId );
+        List<WeightedPath> paths = new ArrayList<>();
+        for ( PathImpl.Builder builder : builders( predecessors, start, endId ) )
+        {
+            paths.add( new WeightedPathImpl( cost, builder.build() ) );
+        }
+        lastMetadata.paths += paths.size();
+        return paths;
+    }
+
+    private static List<PathImpl.Builder> builders( MutableLongObjectMap<LongArrayList> predecessors, Node start,
+            long node )
+    {
+        if ( node == start.getId() )
+        {
+            return Collections.singletonList( new PathImpl.Builder( start ) );
+        }
+        GraphDatabaseService db = start.getGraphDatabase();
+        List<PathImpl.Builder> builders = new ArrayList<>();
+        LongArrayList nodePredecessors = predecessors.get( node );
+        for ( int i = 0; i < nodePredecessors.size(); i += 2 )
+        {
+            for ( PathImpl.Builder builder : builders( predecessors, start, nodePredecessors.get( i ) ) )
+            {
+                builders.add( builder.push( db.getRelationshipById( nodePredecessors.get( i + 1 ) ) ) );
+            }
+        }
+        return builders;
+    }
+
+    @Override
+    public TraversalMetadata metadata()
+    {
+        return lastMetadata;
+    }
+
+    /**
+     * State of the search from one of the two ends.
+     */
+    private static class Side
+    {
+        private final long origin;
+        private final Direction direction;
+        private final DaryLongHeap heap = new DaryLongHeap();
+        private final MutableLongDoubleMap costs = new LongDoubleHashMap();
+        private final MutableLongSet settled = new LongHashSet();
+        private final MutableLongLongMap parentNodes = new LongLongHashMap();
+        private final MutableLongLongMap parentRelationships = new LongLongHashMap();
+
+        Side( long origin, Direction direction )
+        {
+            this.origin = origin;
+            this.direction = direction;
+            costs.put( origin, 0 );
+            heap.addOrDecrease( origin, 0 );
+        }
+
+        /**
+         * @return ids of the relationships from {@code node} back to the origin of this side.
+         */
+        LongArrayList relationshipsTo( long node )
+        {
+            LongArrayList relationships = new LongArrayList();
+            while ( node != origin )
+            {
+                relationships.add( parentRelationships.get( node ) );
+                node = parentNodes.get( node );
+            }
+            return relationships;
+        }
+    }
+
+    private static class Meeting
+    {
+        private long node = NO_NODE;
+        private double cost = Double.POSITIVE_INFINITY;
+    }
+
+    private static class Metadata implements TraversalMetadata
+    {
+        private int rels;
+        private int paths;
+
+        @Override
+        public int getNumberOfPathsReturned()
+        {
+            return paths;
+        }
+
+        @Override
+        public int getNumberOfRelationshipsTraversed()
+        {
+            return rels;
+        }
+    }
+}
@@ -0,0 +1,214 @@
+/*
+ * Copyright (c) 2018-2020 "Graph Foundation"
+ * Graph Foundation, Inc. [https://graphfoundation.org]
+ *
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of ONgDB.
+ *
+ * ONgDB is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.impl.path;
+
+import org.eclipse.collections.api.map.primitive.MutableLongObjectMap;
+import org.eclipse.collections.api.set.primitive.MutableLongSet;
+import org.eclipse.collections.impl.list.mutable.primitive.LongArrayList;
+import org.eclipse.collections.impl.map.mutable.primitive.LongObjectHashMap;
+import org.eclipse.collections.impl.set.mutable.primitive.LongHashSet;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.neo4j.graphalgo.Adjacency;
+import org.neo4j.graphalgo.PathFinder;
+import org.neo4j.graphalgo.impl.util.PathImpl;
+import org.neo4j.graphdb.Direction;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Path;
+import org.neo4j.graphdb.traversal.TraversalMetadata;
+
+/**
+ * Finds shortest paths, in number of relationships, between two nodes of an {@link Adjacency} using a breadth
+ * first search on node and relationship ids. Only the found paths are turned into {@link Path}s, through the
+ * database of the start node.
+ * <p>
+ * The search goes level by level from the start node, remembering every node and relationship through which
+ * each node was reached at the level it was first seen, until the end node is reached or {@code maxDepth} levels
+ * have been searched.
+ */
+public class AdjacencyShortestPath implements PathFinder<Path>
+{
+    private final Adjacency adjacency;
+    private final Direction direction;
+    private final int maxDepth;
+    private Metadata lastMetadata;
+
+    public AdjacencyShortestPath( Adjacency adjacency, Direction direction, int maxDepth )
+    {
+        this.adjacency = adjacency;
+        this.direction = direction;
+        this.maxDepth = maxDepth;
+    }
+
+    @Override
+    public Path findSinglePath( Node start, Node end )
+    {
+        Search search = search( start, end );
+        if ( search == null )
+        {
+            return null;
+        }
+        lastMetadata.paths++;
+        List<Long> relationships = new ArrayList<>();
+        for ( long node = end.getId(); node != start.getId(); )
+        {
+            LongArrayList predecessors = search.predecessors.get( node );
+            relationships.add( predecessors.get( 1 ) );
+            node = predecessors.get( 0 );
+        }
+        GraphDatabaseService db = start.getGraphDatabase();
+        PathImpl.Builder builder = new PathImpl.Builder( start );
+        for ( int i = relationships.size() - 1; i >= 0; i-- )
+        {
+            builder = builder.push( db.getRelationshipById( relationships.get( i ) ) );
+        }
+        return builder.build();
+    }
+
+    @Override
+    public Iterable<Path> findAllPaths( Node start, Node end )
+    {
+        Search search = search( start, end );
+        if ( search == null )
+        {
+            return Collections.emptyList();
+        }
+        List<Path> paths = new ArrayList<>();
+        for ( PathImpl.Builder builder : builders( search, start, end.getId() ) )
+        {
+            paths.add( builder.build() );
+        }
+        lastMetadata.paths += paths.size();
+        return paths;
+    }
+
+    @Override
+    public TraversalMetadata metadata()
+    {
+        return lastMetadata;
+    }
+
+    /**
+     * @return the search having reached {@code end}, or {@code null} if there's no path within {@code maxDepth}.
+     */
+    private Search search( Node start, Node end )
+    {
+        lastMetadata = new Metadata();
+        long startId = start.getId();
+        long endId = end.getId();
+        if ( !adjacency.contains( startId ) || !adjacency.contains( endId ) )
+        {
+            return null;
+        }
+        Search search = new Search( endId );
+        search.visited.add( startId );
+        LongArrayList frontier = LongArrayList.newListWith( startId );
+        for ( int depth = 0; depth < maxDepth && !search.found && startId != endId && !frontier.isEmpty(); depth++ )
+        {
+            LongArrayList next = new LongArrayList();
+            for ( int i = 0; i < frontier.size(); i++ )
+            {
+                long node = frontier.get( i );
+                adjacency.forEachRelationship( node, direction, ( relationshipId, neighbourId, weight ) ->
+                {
+                    lastMetadata.rels++;
+                    if ( !search.visited.contains( neighbourId ) )
+                    {
+                        LongArrayList predecessors = search.predecessors.get( neighbourId );
+                        if ( predecessors == null )
+                        {
+                            predecessors = new LongArrayList( 2 );
+                            search.predecessors.put( neighbourId, predecessors );
+                            next.add( neighbourId );
+                        }
+                        predecessors.add( node );
+                        predecessors.add( relationshipId );
+                        search.found |= neighbourId == search.endId;
+                    }
+                    return true;
+                } );
+            }
+            // Nodes first seen at this level may be reached by several nodes of this level, so mark them afterwards
+            search.visited.addAll( next );
+            frontier = next;
+        }
+        return search.found || startId == endId ? search : null;
+    }
+
+    private List<PathImpl.Builder> builders( Search search, Node start, long node )
+    {
+        if ( node == start.getId() )
+        {
+            return Collections.singletonList( new PathImpl.Builder( start ) );
+        }
+        GraphDatabaseService db = start.getGraphDatabase();
+        List<PathImpl.Builder> builders = new ArrayList<>();
+        LongArrayList predecessors = search.predecessors.get( node );
+        for ( int i = 0; i < predecessors.size(); i += 2 )
+        {
+            for ( PathImpl.Builder builder : builders( search, start, predecessors.get( i ) ) )
+            {
+                builders.add( builder.push( db.getRelationshipById( predecessors.get( i + 1 ) ) ) );
+            }
+        }
+        return builders;
+    }
+
+    private static class Search
+    {
+        private final long endId;
+        private final MutableLongSet visited = new LongHashSet();
+        /**
+         * Pairs of node and relationship ids through which a node was reached.
+         */
+        private final MutableLongObjectMap<LongArrayList> predecessors = new LongObjectHashMap<>();
+        private boolean found;
+
+        Search( long endId )
+        {
+            this.endId = endId;
+        }
+    }
+
+    private static class Metadata implements TraversalMetadata
+    {
+        private int rels;
+        private int paths;
+
+        @Override
+        public int getNumberOfPathsReturned()
+        {
+            return paths;
+        }
+
+        @Override
+        public int getNumberOfRelationshipsTraversed()
+        {
+            return rels;
+        }
+    }
+}
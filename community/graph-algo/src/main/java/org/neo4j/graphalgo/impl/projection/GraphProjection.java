@@ -0,0 +1,203 @@
+/*
+ * Copyright (c) 2018-2020 "Graph Foundation"
+ * Graph Foundation, Inc. [https://graphfoundation.org]
+ *
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of ONgDB.
+ *
+ * ONgDB is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.impl.projection;
+
+import java.util.Arrays;
+
+import org.neo4j.graphalgo.Adjacency;
+import org.neo4j.graphdb.Direction;
+
+/**
+ * Immutable in-memory copy of a part of a graph, stored in compressed sparse row form: nodes are numbered densely
+ * in node id order and the relationships of each direction are kept in flat arrays, where the relationships of
+ * a node are found between two offsets. Neighbours are kept as 4 byte node numbers rather than 8 byte node ids.
+ * Relationships are only kept for the directions the projection was
+ * {@link GraphProjectionLoader#withDirection(Direction) loaded} with.
+ * <p>
+ * A projection is a snapshot. Changes made to the graph after it was loaded are not visible in it.
+ *
+ * @see GraphProjectionLoader
+ */
+public class GraphProjection implements Adjacency
+{
+    private final long[] nodeIds;
+    private final Relationships outgoing;
+    private final Relationships incoming;
+    private final double defaultWeight;
+
+    GraphProjection( long[] nodeIds, Relationships outgoing, Relationships incoming, double defaultWeight )
+    {
+        this.nodeIds = nodeIds;
+        this.outgoing = outgoing;
+        this.incoming = incoming;
+        this.defaultWeight = defaultWeight;
+    }
+
+    /**
+     * @return number of nodes in this projection.
+     */
+    public int nodeCount()
+    {
+        return nodeIds.length;
+    }
+
+    /**
+     * @return number of relationships in this projection.
+     */
+    public int relationshipCount()
+    {
+        return outgoing != null ? outgoing.neighbours.length : incoming.neighbours.length;
+    }
+
+    @Override
+    public boolean contains( long nodeId )
+    {
+        return indexOf( nodeId ) >= 0;
+    }
+
+    @Override
+    public boolean canTraverse( Direction direction )
+    {
+        switch ( direction )
+        {
+        case OUTGOING:
+            return outgoing != null;
+        case INCOMING:
+            return incoming != null;
+        default:
+            return outgoing != null && incoming != null;
+        }
+    }
+
+    @Override
+    public int degree( long nodeId, Direction direction )
+    {
+        int node = indexOf( nodeId );
+        if ( node < 0 )
+        {
+            return 0;
+        }
+        switch ( direction )
+        {
+        case OUTGOING:
+            return relationships( Direction.OUTGOING ).degree( node );
+        case INCOMING:
+            return relationships( Direction.INCOMING ).degree( node );
+        default:
+            int degree = relationships( Direction.OUTGOING ).degree( node ) + relationships( Direction.INCOMING ).degree( node );
+            return degree - incoming.loops( node );
+        }
+    }
+
+    @Override
+    public boolean forEachRelationship( long nodeId, Direction direction, RelationshipVisitor visitor )
+    {
+        int node = indexOf( nodeId );
+        if ( node < 0 )
+        {
+            return true;
+        }
+        switch ( direction )
+        {
+        case OUTGOING:
+            return visit( relationships( Direction.OUTGOING ), node, false, visitor );
+        case INCOMING:
+            return visit( relationships( Direction.INCOMING ), node, false, visitor );
+        default:
+            // Loops are in both directions, visit them as outgoing only
+            return visit( relationships( Direction.OUTGOING ), node, false, visitor ) &&
+                   visit( relationships( Direction.INCOMING ), node, true, visitor );
+        }
+    }
+
+    private boolean visit( Relationships relationships, int node, boolean skipLoops, RelationshipVisitor visitor )
+    {
+        for ( int i = relationships.offsets[node], end = relationships.offsets[node + 1]; i < end; i++ )
+        {
+            int neighbour = relationships.neighbours[i];
+            if ( skipLoops && neighbour == node )
+            {
+                continue;
+            }
+            double weight = relationships.weights != null ? relationships.weights[i] : defaultWeight;
+            if ( !visitor.visit( relationships.relationshipIds[i], nodeIds[neighbour], weight ) )
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private Relationships relationships( Direction direction )
+    {
+        Relationships relationships = direction == Direction.OUTGOING ? outgoing : incoming;
+        if ( relationships == null )
+        {
+            throw new IllegalStateException( "Projection was loaded without " + direction.name().toLowerCase() + " relationships" );
+        }
+        return relationships;
+    }
+
+    private int indexOf( long nodeId )
+    {
+        return Arrays.binarySearch( nodeIds, nodeId );
+    }
+
+    /**
+     * Relationships of one direction. The relationships of node number {@code n} are found at the indexes from
+     * {@code offsets[n]}, inclusive, to {@code offsets[n + 1]}, exclusive, of the other arrays.
+     */
+    static class Relationships
+    {
+        private final int[] offsets;
+        private final int[] neighbours;
+        private final long[] relationshipIds;
+        private final double[] weights;
+
+        Relationships( int[] offsets, int[] neighbours, long[] relationshipIds, double[] weights )
+        {
+            this.offsets = offsets;
+            this.neighbours = neighbours;
+            this.relationshipIds = relationshipIds;
+            this.weights = weights;
+        }
+
+        int degree( int node )
+        {
+            return offsets[node + 1] - offsets[node];
+        }
+
+        int loops( int node )
+        {
+            int loops = 0;
+            for ( int i = offsets[node], end = offsets[node + 1]; i < end; i++ )
+            {
+                if ( neighbours[i] == node )
+                {
+                    loops++;
+                }
+            }
+            return loops;
+        }
+    }
+}
@@ -0,0 +1,449 @@
+/*
+ * Copyright (c) 2018-2020 "Graph Foundation"
+ * Graph Foundation, Inc. [https://graphfoundation.org]
+ *
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of ONgDB.
+ *
+ * ONgDB is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.impl.projection;
+
+import org.eclipse.collections.impl.list.mutable.primitive.DoubleArrayList;
+import org.eclipse.collections.impl.list.mutable.primitive.IntArrayList;
+import org.eclipse.collections.impl.list.mutable.primitive.LongArrayList;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.neo4j.graphalgo.AdjacencyLoader;
+import org.neo4j.graphalgo.impl.projection.GraphProjection.Relationships;
+import org.neo4j.graphdb.DependencyResolver;
+import org.neo4j.graphdb.Direction;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.kernel.impl.core.TokenHolder;
+import org.neo4j.kernel.impl.core.TokenHolders;
+import org.neo4j.kernel.impl.store.id.IdGeneratorFactory;
+import org.neo4j.kernel.impl.store.id.IdType;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+import org.neo4j.storageengine.api.StorageEngine;
+import org.neo4j.storageengine.api.StorageNodeCursor;
+import org.neo4j.storageengine.api.StoragePropertyCursor;
+import org.neo4j.storageengine.api.StorageReader;
+import org.neo4j.storageengine.api.StorageRelationshipTraversalCursor;
+import org.neo4j.values.storable.NumberValue;
+import org.neo4j.values.storable.Value;
+
+import static org.neo4j.helpers.NamedThreadFactory.daemon;
+import static org.neo4j.internal.kernel.api.TokenRead.NO_TOKEN;
+
+/**
+ * {@link AdjacencyLoader} loading a {@link GraphProjection} of the committed data of a database, reading nodes,
+ * relationship chains and relationship groups directly from the storage engine using multiple threads.
+ * <p>
+ * Loading happens in two passes. The first pass scans ranges of node ids in parallel and selects the nodes to include.
+ * The second pass reads the relationships of ranges of the selected nodes in parallel, keeping relationships of the
+ * selected types whose both nodes are selected. The ranges are then stitched together into the final arrays.
+ * <pre>
+ * GraphProjection projection = new GraphProjectionLoader( db )
+ *         .withLabels( "City" )
+ *         .withRelationshipTypes( "ROAD" )
+ *         .withWeightProperty( "distance", Double.MAX_VALUE )
+ *         .load();
+ * </pre>
+ */
+public class GraphProjectionLoader implements AdjacencyLoader
+{
+    private static final int NODE_IDS_PER_SCAN_BATCH = 100_000;
+    private static final int NODES_PER_RELATIONSHIP_BATCH = 10_000;
+
+    private final DependencyResolver resolver;
+    private String[] labels = new String[0];
+    private String[] relationshipTypes = new String[0];
+    private String weightProperty;
+    private double defaultWeight = 1.0;
+    private Direction direction = Direction.BOTH;
+    private int threads = Runtime.getRuntime().availableProcessors();
+
+    public GraphProjectionLoader( GraphDatabaseService db )
+    {
+        this.resolver = ((GraphDatabaseAPI) db).getDependencyResolver();
+    }
+
+    @Override
+    public GraphProjectionLoader withLabels( String... labels )
+    {
+        this.labels = labels;
+        return this;
+    }
+
+    @Override
+    public GraphProjectionLoader withRelationshipTypes( String... relationshipTypes )
+    {
+        this.relationshipTypes = relationshipTypes;
+        return this;
+    }
+
+    @Override
+    public GraphProjectionLoader withWeightProperty( String weightProperty, double defaultWeight )
+    {
+        this.weightProperty = weightProperty;
+        this.defaultWeight = defaultWeight;
+        return this;
+    }
+
+    @Override
+    public GraphProjectionLoader withDirection( Direction direction )
+    {
+        this.direction = direction;
+        return this;
+    }
+
+    @Override
+    public GraphProjectionLoader withThreads( int threads )
+    {
+        this.threads = threads;
+        return this;
+    }
+
+    @Override
+    public GraphProjection load()
+    {
+        TokenHolders tokenHolders = resolver.resolveDependency( TokenHolders.class );
+        int[] labelIds = tokenIds( tokenHolders.labelTokens(), labels );
+        int[] typeIds = tokenIds( tokenHolders.relationshipTypeTokens(), relationshipTypes );
+        int weightKey = weightProperty == null ? NO_TOKEN : tokenHolders.propertyKeyTokens().getIdByName( weightProperty );
+        StorageEngine storageEngine = resolver.resolveDependency( StorageEngine.class );
+        long highNodeId = resolver.resolveDependency( IdGeneratorFactory.class ).get( IdType.NODE ).getHighId();
+
+        ExecutorService executor = Executors.newFixedThreadPool( threads, daemon( "GraphProjectionLoader" ) );
+        try
+        {
+            List<Future<long[]>> nodeBatches = new ArrayList<>();
+            for ( long from = 0; from < highNodeId; from += NODE_IDS_PER_SCAN_BATCH )
+            {
+                long to = Math.min( highNodeId, from + NODE_IDS_PER_SCAN_BATCH );
+                nodeBatches.add( executor.submit( new NodeScan( storageEngine, labelIds, from, to ) ) );
+            }
+            long[] nodeIds = concat( nodeBatches );
+
+            List<Future<RelationshipBatch>> relationshipBatches = new ArrayList<>();
+            for ( int from = 0; from < nodeIds.length; from += NODES_PER_RELATIONSHIP_BATCH )
+            {
+                int to = Math.min( nodeIds.length, from + NODES_PER_RELATIONSHIP_BATCH );
+                relationshipBatches.add( executor.submit( new RelationshipScan( storageEngine, nodeIds, from, to, typeIds, weightKey ) ) );
+            }
+            List<RelationshipBatch> batches = new ArrayList<>();
+            for ( Future<RelationshipBatch> batch : relationshipBatches )
+            {
+                batches.add( batch.get() );
+            }
+            Relationships outgoing = direction != Direction.INCOMING ? stitch( batches, nodeIds.length, true ) : null;
+            Relationships incoming = direction != Direction.OUTGOING ? stitch( batches, nodeIds.length, false ) : null;
+            return new GraphProjection( nodeIds, outgoing, incoming, defaultWeight );
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException( "Interrupted while loading graph projection", e );
+        }
+        catch ( ExecutionException e )
+        {
+            if ( e.getCause() instanceof RuntimeException )
+            {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new RuntimeException( "Failed to load graph projection", e.getCause() );
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * @return ids of the given tokens, ignoring tokens not known to the database, or {@code null} if no tokens were given.
+     */
+    private static int[] tokenIds( TokenHolder tokens, String[] names )
+    {
+        if ( names.length == 0 )
+        {
+            return null;
+        }
+        return Arrays.stream( names ).mapToInt( tokens::getIdByName ).filter( id -> id != NO_TOKEN ).toArray();
+    }
+
+    private static boolean contains( int[] ids, int id )
+    {
+        for ( int candidate : ids )
+        {
+            if ( candidate == id )
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static long[] concat( List<Future<long[]>> batches ) throws InterruptedException, ExecutionException
+    {
+        List<long[]> arrays = new ArrayList<>( batches.size() );
+        int length = 0;
+        for ( Future<long[]> batch : batches )
+        {
+            long[] array = batch.get();
+            arrays.add( array );
+            length += array.length;
+        }
+        long[] result = new long[length];
+        int offset = 0;
+        for ( long[] array : arrays )
+        {
+            System.arraycopy( array, 0, result, offset, array.length );
+            offset += array.length;
+        }
+        return result;
+    }
+
+    private Relationships stitch( List<RelationshipBatch> batches, int nodeCount, boolean outgoing )
+    {
+        int[] offsets = new int[nodeCount + 1];
+        long total = 0;
+        int node = 0;
+        for ( RelationshipBatch batch : batches )
+        {
+            IntArrayList degrees = outgoing ? batch.outDegrees : batch.inDegrees;
+            for ( int i = 0; i < degrees.size(); i++ )
+            {
+                offsets[node++] = (int) total;
+                total += degrees.get( i );
+            }
+        }
+        if ( total > Integer.MAX_VALUE - 8 )
+        {
+            throw new IllegalStateException( "Too many relationships to project: " + total );
+        }
+        offsets[nodeCount] = (int) total;
+
+        int[] neighbours = new int[(int) total];
+        long[] relationshipIds = new long[(int) total];
+        double[] weights = batches.isEmpty() || batches.get( 0 ).outgoing.weights == null ? null : new double[(int) total];
+        int offset = 0;
+        for ( RelationshipBatch batch : batches )
+        {
+            RelationshipList list = outgoing ? batch.outgoing : batch.incoming;
+            int size = list.neighbours.size();
+            System.arraycopy( list.neighbours.toArray(), 0, neighbours, offset, size );
+            System.arraycopy( list.relationshipIds.toArray(), 0, relationshipIds, offset, size );
+            if ( weights != null )
+            {
+                System.arraycopy( list.weights.toArray(), 0, weights, offset, size );
+            }
+            offset += size;
+        }
+        return new Relationships( offsets, neighbours, relationshipIds, weights );
+    }
+
+    private static class NodeScan implements Callable<long[]>
+    {
+        private final StorageEngine storageEngine;
+        private final int[] labelIds;
+        private final long fromId;
+        private final long toId;
+
+        NodeScan( StorageEngine storageEngine, int[] labelIds, long fromId, long toId )
+        {
+            this.storageEngine = storageEngine;
+            this.labelIds = labelIds;
+            this.fromId = fromId;
+            this.toId = toId;
+        }
+
+        @Override
+        public long[] call()
+        {
+            LongArrayList nodeIds = new LongArrayList();
+            try ( StorageReader reader = storageEngine.newReader();
+                  StorageNodeCursor nodes = reader.allocateNodeCursor() )
+            {
+                reader.acquire();
+                for ( long nodeId = fromId; nodeId < toId; nodeId++ )
+                {
+                    nodes.single( nodeId );
+                    if ( nodes.next() && hasAnyLabel( nodes ) )
+                    {
+                        nodeIds.add( nodeId );
+                    }
+                }
+            }
+            return nodeIds.toArray();
+        }
+
+        private boolean hasAnyLabel( StorageNodeCursor nodes )
+        {
+            if ( labelIds == null )
+            {
+                return true;
+            }
+            for ( long label : nodes.labels() )
+            {
+                if ( contains( labelIds, (int) label ) )
+                {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    private class RelationshipScan implements Callable<RelationshipBatch>
+    {
+        private final StorageEngine storageEngine;
+        private final long[] nodeIds;
+        private final int from;
+        private final int to;
+        private final int[] typeIds;
+        private final int weightKey;
+
+        RelationshipScan( StorageEngine storageEngine, long[] nodeIds, int from, int to, int[] typeIds, int weightKey )
+        {
+            this.storageEngine = storageEngine;
+            this.nodeIds = nodeIds;
+            this.from = from;
+            this.to = to;
+            this.typeIds = typeIds;
+            this.weightKey = weightKey;
+        }
+
+        @Override
+        public RelationshipBatch call()
+        {
+            RelationshipBatch batch = new RelationshipBatch( weightKey != NO_TOKEN );
+            try ( StorageReader reader = storageEngine.newReader();
+                  StorageNodeCursor nodes = reader.allocateNodeCursor();
+                  StorageRelationshipTraversalCursor relationships = reader.allocateRelationshipTraversalCursor();
+                  StoragePropertyCursor properties = reader.allocatePropertyCursor() )
+            {
+                reader.acquire();
+                for ( int node = from; node < to; node++ )
+                {
+                    long nodeId = nodeIds[node];
+                    int outDegree = 0;
+                    int inDegree = 0;
+                    nodes.single( nodeId );
+                    if ( nodes.next() )
+                    {
+                        // For dense nodes this follows the chains of all relationship groups
+                        relationships.init( nodeId, nodes.allRelationshipsReference() );
+                        while ( relationships.next() )
+                        {
+                            if ( typeIds != null && !contains( typeIds, relationships.type() ) )
+                            {
+                                continue;
+                            }
+                            boolean isOutgoing = relationships.sourceNodeReference() == nodeId;
+                            boolean isIncoming = relationships.targetNodeReference() == nodeId;
+                            int neighbour = Arrays.binarySearch( nodeIds, relationships.neighbourNodeReference() );
+                            if ( neighbour < 0 )
+                            {
+                                continue;
+                            }
+                            double weight = weight( relationships, properties );
+                            if ( isOutgoing && direction != Direction.INCOMING )
+                            {
+                                batch.outgoing.add( neighbour, relationships.entityReference(), weight );
+                                outDegree++;
+                            }
+                            if ( isIncoming && direction != Direction.OUTGOING )
+                            {
+                                batch.incoming.add( neighbour, relationships.entityReference(), weight );
+                                inDegree++;
+                            }
+                        }
+                    }
+                    batch.outDegrees.add( outDegree );
+                    batch.inDegrees.add( inDegree );
+                }
+            }
+            return batch;
+        }
+
+        private double weight( StorageRelationshipTraversalCursor relationship, StoragePropertyCursor properties )
+        {
+            if ( weightKey == NO_TOKEN || !relationship.hasProperties() )
+            {
+                return defaultWeight;
+            }
+            properties.init( relationship.propertiesReference() );
+            while ( properties.next() )
+            {
+                if ( properties.propertyKey() == weightKey )
+                {
+                    Value value = properties.propertyValue();
+                    if ( !(value instanceof NumberValue) )
+                    {
+                        throw new IllegalStateException( "Weight property '" + weightProperty + "' of relationship " +
+                                relationship.entityReference() + " is not a number: " + value );
+                    }
+                    return ((NumberValue) value).doubleValue();
+                }
+            }
+            return defaultWeight;
+        }
+    }
+
+    private static class RelationshipBatch
+    {
+        private final IntArrayList outDegrees = new IntArrayList();
+        private final IntArrayList inDegrees = new IntArrayList();
+        private final RelationshipList outgoing;
+        private final RelationshipList incoming;
+
+        RelationshipBatch( boolean weighted )
+        {
+            this.outgoing = new RelationshipList( weighted );
+            this.incoming = new RelationshipList( weighted );
+        }
+    }
+
+    private static class RelationshipList
+    {
+        private final IntArrayList neighbours = new IntArrayList();
+        private final LongArrayList relationshipIds = new LongArrayList();
+        private final DoubleArrayList weights;
+
+        RelationshipList( boolean weighted )
+        {
+            this.weights = weighted ? new DoubleArrayList() : null;
+        }
+
+        void add( int neighbour, long relationshipId, double weight )
+        {
+            neighbours.add( neighbour );
+            relationshipIds.add( relationshipId );
+            if ( weights != null )
+            {
+                weights.add( weight );
+            }
+        }
+    }
+}
@@ -0,0 +1,199 @@
+/*
+ * Copyright (c) 2018-2020 "Graph Foundation"
+ * Graph Foundation, Inc. [https://graphfoundation.org]
+ *
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of ONgDB.
+ *
+ * ONgDB is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.impl.util;
+
+import org.eclipse.collections.api.map.primitive.MutableLongIntMap;
+import org.eclipse.collections.impl.map.mutable.primitive.LongIntHashMap;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * Min-heap of long ids ordered by double priorities, for searches over node ids. The heap is a d-ary tree laid out
+ * in two parallel arrays, which compared to {@link FibonacciHeap} or {@link PriorityMap} allocates no objects per
+ * entry and is shallower than a binary heap, so fewer levels are touched when priorities are lowered. The position
+ * of every id in the arrays is kept in a primitive map so that the priority of an id in the heap can be lowered.
+ */
+public class DaryLongHeap
+{
+    public static final int DEFAULT_ARITY = 4;
+    private static final int NOT_IN_HEAP = -1;
+
+    private final int arity;
+    private final MutableLongIntMap positions = new LongIntHashMap();
+    private long[] ids;
+    private double[] priorities;
+    private int size;
+
+    public DaryLongHeap()
+    {
+        this( DEFAULT_ARITY, 16 );
+    }
+
+    public DaryLongHeap( int arity, int initialCapacity )
+    {
+        if ( arity < 2 )
+        {
+            throw new IllegalArgumentException( "Arity must be at least 2, was " + arity );
+        }
+        this.arity = arity;
+        this.ids = new long[Math.max( 1, initialCapacity )];
+        this.priorities = new double[ids.length];
+    }
+
+    public boolean isEmpty()
+    {
+        return size == 0;
+    }
+
+    public int size()
+    {
+        return size;
+    }
+
+    public boolean contains( long id )
+    {
+        return positions.containsKey( id );
+    }
+
+    /**
+     * Adds an id to the heap, or lowers its priority if it's already in the heap with a higher priority.
+     *
+     * @param id the id to add.
+     * @param priority the priority of the id, where lower priorities are popped first.
+     * @return {@code true} if the id was added or got its priority lowered, otherwise {@code false}.
+     */
+    public boolean addOrDecrease( long id, double priority )
+    {
+        int position = positions.getIfAbsent( id, NOT_IN_HEAP );
+        if ( position == NOT_IN_HEAP )
+        {
+            if ( size == ids.length )
+            {
+                ids = Arrays.copyOf( ids, size * 2 );
+                priorities = Arrays.copyOf( priorities, size * 2 );
+            }
+            siftUp( size++, id, priority );
+            return true;
+        }
+        if ( priority < priorities[position] )
+        {
+            siftUp( position, id, priority );
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * @return the id with the lowest priority, without removing it.
+     */
+    public long peek()
+    {
+        assertNotEmpty();
+        return ids[0];
+    }
+
+    /**
+     * @return the lowest priority in the heap.
+     */
+    public double peekPriority()
+    {
+        assertNotEmpty();
+        return priorities[0];
+    }
+
+    /**
+     * Removes the id with the lowest priority.
+     *
+     * @return the removed id.
+     */
+    public long pop()
+    {
+        assertNotEmpty();
+        long id = ids[0];
+        positions.remove( id );
+        size--;
+        if ( size > 0 )
+        {
+            siftDown( 0, ids[size], priorities[size] );
+        }
+        return id;
+    }
+
+    private void siftUp( int position, long id, double priority )
+    {
+        while ( position > 0 )
+        {
+            int parent = (position - 1) / arity;
+            if ( priorities[parent] <= priority )
+            {
+                break;
+            }
+            place( position, ids[parent], priorities[parent] );
+            position = parent;
+        }
+        place( position, id, priority );
+    }
+
+    private void siftDown( int position, long id, double priority )
+    {
+        while ( true )
+        {
+            int firstChild = position * arity + 1;
+            if ( firstChild >= size )
+            {
+                break;
+            }
+            int smallest = firstChild;
+            for ( int child = firstChild + 1, end = Math.min( size, firstChild + arity ); child < end; child++ )
+            {
+                if ( priorities[child] < priorities[smallest] )
+                {
+                    smallest = child;
+                }
+            }
+            if ( priorities[smallest] >= priority )
+            {
+                break;
+            }
+            place( position, ids[smallest], priorities[smallest] );
+            position = smallest;
+        }
+        place( position, id, priority );
+    }
+
+    private void place( int position, long id, double priority )
+    {
+        ids[position] = id;
+        priorities[position] = priority;
+        positions.put( id, position );
+    }
+
+    private void assertNotEmpty()
+    {
+        if ( size == 0 )
+        {
+            throw new NoSuchElementException( "Heap is empty" );
+        }
+    }
+}
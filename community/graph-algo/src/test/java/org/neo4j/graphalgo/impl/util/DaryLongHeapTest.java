@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2018-2020 "Graph Foundation"
+ * Graph Foundation, Inc. [https://graphfoundation.org]
+ *
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of ONgDB.
+ *
+ * ONgDB is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.impl.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DaryLongHeapTest
+{
+    @Test
+    void shouldPopInPriorityOrder()
+    {
+        DaryLongHeap heap = new DaryLongHeap();
+        assertTrue( heap.addOrDecrease( 10, 5d ) );
+        assertTrue( heap.addOrDecrease( 11, 4d ) );
+        assertTrue( heap.addOrDecrease( 12, 6d ) );
+        assertFalse( heap.addOrDecrease( 11, 4d ) );
+        assertFalse( heap.addOrDecrease( 10, 7d ) );
+        assertTrue( heap.addOrDecrease( 12, 3d ) );
+
+        assertEquals( 3, heap.size() );
+        assertTrue( heap.contains( 12 ) );
+        assertEquals( 12, heap.peek() );
+        assertEquals( 3d, heap.peekPriority() );
+        assertEquals( 12, heap.pop() );
+        assertFalse( heap.contains( 12 ) );
+        assertEquals( 11, heap.pop() );
+        assertEquals( 10, heap.pop() );
+        assertTrue( heap.isEmpty() );
+        assertThrows( NoSuchElementException.class, heap::pop );
+    }
+
+    @Test
+    void shouldKeepLowestPriorityOfEachIdWhileGrowing()
+    {
+        Random random = new Random( 1 );
+        for ( int arity = 2; arity <= 6; arity++ )
+        {
+            DaryLongHeap heap = new DaryLongHeap( arity, 1 );
+            Map<Long,Double> priorities = new HashMap<>();
+            for ( int i = 0; i < 1_000; i++ )
+            {
+                long id = random.nextInt( 300 );
+                double priority = random.nextDouble();
+                Double existing = priorities.get( id );
+                boolean expected = existing == null || priority < existing;
+                assertEquals( expected, heap.addOrDecrease( id, priority ) );
+                if ( expected )
+                {
+                    priorities.put( id, priority );
+                }
+            }
+
+            assertEquals( priorities.size(), heap.size() );
+            double previous = Double.NEGATIVE_INFINITY;
+            while ( !heap.isEmpty() )
+            {
+                double priority = heap.peekPriority();
+                long id = heap.pop();
+                assertTrue( priority >= previous );
+                assertEquals( priorities.remove( id ), priority );
+                previous = priority;
+            }
+            assertTrue( priorities.isEmpty() );
+        }
+    }
+
+    @Test
+    void shouldNotAcceptArityBelowTwo()
+    {
+        assertThrows( IllegalArgumentException.class, () -> new DaryLongHeap( 1, 10 ) );
+    }
+}
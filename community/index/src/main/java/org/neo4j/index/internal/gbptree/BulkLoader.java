@@ -0,0 +1,230 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * Copyright (c) 2018-2020 "Graph Foundation"
+ * Graph Foundation, Inc. [https://graphfoundation.org]
+ *
+ * This file is part of ONgDB.
+ *
+ * ONgDB is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.index.internal.gbptree;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.neo4j.cursor.RawCursor;
+import org.neo4j.io.pagecache.PageCursor;
+import org.neo4j.io.pagecache.PagedFile;
+
+import static org.neo4j.index.internal.gbptree.TreeNode.Overflow.NO;
+import static org.neo4j.index.internal.gbptree.TreeNode.Type.INTERNAL;
+import static org.neo4j.index.internal.gbptree.TreeNode.Type.LEAF;
+
+/**
+ * Builds a tree bottom-up from entries in sorted order, instead of inserting them one by one from the root.
+ * Leaves are filled from left to right up to a fill factor, without any searching or splitting.
+ * Every time a new node is started on a level the first key of that node, or rather a
+ * {@link Layout#minimalSplitter(Object, Object, Object) minimal splitter}, is appended to the node on the level above,
+ * which in turn is started when that level is created or the previous node on that level has reached the fill factor.
+ * <p>
+ * All nodes are new and of unstable generation. The tree built is not reachable until its root is set
+ * by the caller, which makes it invisible to concurrent readers until fully built.
+ */
+class BulkLoader<KEY,VALUE>
+{
+    private final PagedFile pagedFile;
+    private final IdProvider idProvider;
+    private final TreeNode<KEY,VALUE> bTreeNode;
+    private final Layout<KEY,VALUE> layout;
+    private final double fillFactor;
+    private final long stableGeneration;
+    private final long unstableGeneration;
+
+    /**
+     * Node currently being filled on each level, where leaves are on level 0.
+     */
+    private final List<LevelNode> levels = new ArrayList<>();
+    private final KEY previousKey;
+    private final KEY splitter;
+
+    BulkLoader( PagedFile pagedFile, IdProvider idProvider, TreeNode<KEY,VALUE> bTreeNode, Layout<KEY,VALUE> layout,
+            double fillFactor, long stableGeneration, long unstableGeneration )
+    {
+        if ( fillFactor <= 0 || fillFactor > 1 )
+        {
+            throw new IllegalArgumentException( "Fill factor must be in range (0, 1], but was " + fillFactor );
+        }
+        this.pagedFile = pagedFile;
+        this.idProvider = idProvider;
+        this.bTreeNode = bTreeNode;
+        this.layout = layout;
+        this.fillFactor = fillFactor;
+        this.stableGeneration = stableGeneration;
+        this.unstableGeneration = unstableGeneration;
+        this.previousKey = layout.newKey();
+        this.splitter = layout.newKey();
+    }
+
+    /**
+     * Builds a tree from all entries of the given cursor.
+     *
+     * @param entries entries in strictly ascending key order.
+     * @return id of the root of the built tree.
+     * @throws IOException on page cache error.
+     * @throws IllegalArgumentException if entries are not in strictly ascending key order.
+     */
+    long load( RawCursor<Hit<KEY,VALUE>,IOException> entries ) throws IOException
+    {
+        try
+        {
+            LevelNode leaf = newNode( 0, LEAF );
+            boolean first = true;
+            while ( entries.next() )
+            {
+                Hit<KEY,VALUE> entry = entries.get();
+                KEY key = entry.key();
+                VALUE value = entry.value();
+                bTreeNode.validateKeyValueSize( key, value );
+                if ( !first && layout.compare( previousKey, key ) >= 0 )
+                {
+                    throw new IllegalArgumentException( "Entries must be in strictly ascending key order, but got " +
+                            key + " after " + previousKey );
+                }
+
+                PageCursor cursor = leaf.cursor;
+                if ( bTreeNode.reachedFillFactor( cursor, leaf.keyCount, LEAF, fillFactor ) ||
+                        bTreeNode.leafOverflow( cursor, leaf.keyCount, key, value ) != NO )
+                {
+                    long leftId = leaf.nodeId;
+                    leaf = startNextNode( 0, LEAF );
+                    cursor = leaf.cursor;
+                    layout.minimalSplitter( previousKey, key, splitter );
+                    appendToInternal( 1, splitter, leftId, leaf.nodeId );
+                }
+
+                bTreeNode.insertKeyValueAt( cursor, key, value, leaf.keyCount, leaf.keyCount );
+                TreeNode.setKeyCount( cursor, ++leaf.keyCount );
+                layout.copyKey( key, previousKey );
+                first = false;
+            }
+            return levels.get( levels.size() - 1 ).nodeId;
+        }
+        finally
+        {
+            for ( LevelNode level : levels )
+            {
+                PageCursorUtil.checkOutOfBounds( level.cursor );
+                level.cursor.close();
+            }
+        }
+    }
+
+    /**
+     * Appends {@code key} and {@code rightChild} to the node currently being filled on {@code level},
+     * creating the level if this is the first key for it.
+     *
+     * @param level level to append to, where leaves are on level 0.
+     * @param key splitter between {@code leftChild} and {@code rightChild}.
+     * @param leftChild the node before {@code rightChild} on the level below, only used if level needs to be created.
+     * @param rightChild the node which was just started on the level below.
+     */
+    private void appendToInternal( int level, KEY key, long leftChild, long rightChild ) throws IOException
+    {
+        if ( level == levels.size() )
+        {
+            LevelNode root = newNode( level, INTERNAL );
+            bTreeNode.setChildAt( root.cursor, leftChild, 0, stableGeneration, unstableGeneration );
+        }
+
+        LevelNode node = levels.get( level );
+        if ( bTreeNode.reachedFillFactor( node.cursor, node.keyCount, INTERNAL, fillFactor ) ||
+                bTreeNode.internalOverflow( node.cursor, node.keyCount, key ) != NO )
+        {
+            // Key moves up to the level above and becomes the splitter between current node and next node on this level
+            long leftId = node.nodeId;
+            node = startNextNode( level, INTERNAL );
+            bTreeNode.setChildAt( node.cursor, rightChild, 0, stableGeneration, unstableGeneration );
+            appendToInternal( level + 1, key, leftId, node.nodeId );
+            return;
+        }
+
+        bTreeNode.insertKeyAndRightChildAt( node.cursor, key, rightChild, node.keyCount, node.keyCount,
+                stableGeneration, unstableGeneration );
+        TreeNode.setKeyCount( node.cursor, ++node.keyCount );
+    }
+
+    /**
+     * Creates a new level with a single node in it.
+     */
+    private LevelNode newNode( int level, TreeNode.Type type ) throws IOException
+    {
+        assert level == levels.size();
+        LevelNode node = new LevelNode( pagedFile.io( 0L, PagedFile.PF_SHARED_WRITE_LOCK ) );
+        levels.add( node );
+        initializeNode( node, type );
+        return node;
+    }
+
+    /**
+     * Leaves the node currently being filled on {@code level} and starts filling its new right sibling.
+     */
+    private LevelNode startNextNode( int level, TreeNode.Type type ) throws IOException
+    {
+        LevelNode node = levels.get( level );
+        long leftId = node.nodeId;
+        long rightId = idProvider.acquireNewId( stableGeneration, unstableGeneration );
+        TreeNode.setRightSibling( node.cursor, rightId, stableGeneration, unstableGeneration );
+
+        PageCursorUtil.goTo( node.cursor, "new right sibling in bulk load", rightId );
+        initializeNode( node, rightId, type );
+        TreeNode.setLeftSibling( node.cursor, leftId, stableGeneration, unstableGeneration );
+        return node;
+    }
+
+    private void initializeNode( LevelNode node, TreeNode.Type type ) throws IOException
+    {
+        long nodeId = idProvider.acquireNewId( stableGeneration, unstableGeneration );
+        PageCursorUtil.goTo( node.cursor, "new node in bulk load", nodeId );
+        initializeNode( node, nodeId, type );
+    }
+
+    private void initializeNode( LevelNode node, long nodeId, TreeNode.Type type )
+    {
+        if ( type == LEAF )
+        {
+            bTreeNode.initializeLeaf( node.cursor, stableGeneration, unstableGeneration );
+        }
+        else
+        {
+            bTreeNode.initializeInternal( node.cursor, stableGeneration, unstableGeneration );
+        }
+        node.nodeId = nodeId;
+        node.keyCount = 0;
+    }
+
+    private static class LevelNode
+    {
+        private final PageCursor cursor;
+        private long nodeId;
+        private int keyCount;
+
+        LevelNode( PageCursor cursor )
+        {
+            this.cursor = cursor;
+        }
+    }
+}
@@ -22,6 +22,8 @@
  */
 package org.neo4j.index.internal.gbptree;
 
+import org.eclipse.collections.impl.list.mutable.primitive.LongArrayList;
+
 import java.io.IOException;
 
 import org.neo4j.io.pagecache.PageCursor;
@@ -208,6 +210,33 @@ class FreeListIdProvider implements IdProvider
         return nextLastId();
     }
 
+    /**
+     * Looks at the id which the next call to {@link #acquireNewId(long, long)} would take from the free-list, without acquiring it.
+     *
+     * @param stableGeneration current stable generation.
+     * @return the next id on the free-list if it can be acquired, or {@link FreelistNode#NO_PAGE_ID} if the next acquired id
+     * would instead come from the end of the id space.
+     * @throws IOException on {@link PageCursor} error.
+     */
+    long peekFreeId( long stableGeneration ) throws IOException
+    {
+        if ( readPageId == writePageId && readPos >= writePos )
+        {
+            return FreelistNode.NO_PAGE_ID;
+        }
+        try ( PageCursor cursor = pagedFile.io( readPageId, PagedFile.PF_SHARED_READ_LOCK ) )
+        {
+            goTo( cursor, "free-list read page", readPageId );
+            long pageId;
+            do
+            {
+                pageId = freelistNode.read( cursor, stableGeneration, readPos );
+            }
+            while ( cursor.shouldRetry() );
+            return pageId;
+        }
+    }
+
     private long nextLastId()
     {
         return ++lastId;
@@ -285,6 +314,110 @@ class FreeListIdProvider implements IdProvider
         }
     }
 
+    /**
+     * Rewrites the free-list so that free ids are handed out in ascending order, and lowers {@link #lastId}
+     * past free ids at the end of the id space so that those ids are allocated again before any id after them.
+     * Pages for the rewritten free-list are taken from the lowest free ids.
+     * <p>
+     * Must only be called when all released ids are stable, i.e. right after a checkpoint while writers are blocked.
+     * The current free-list pages are left untouched since the free-list state of the last checkpoint refers to them.
+     * They are instead released in the unstable generation, at the end of the rewritten free-list.
+     *
+     * @param stableGeneration current stable generation.
+     * @param unstableGeneration current unstable generation.
+     * @return number of ids at the end of the id space which are no longer allocated.
+     * @throws IOException on {@link PageCursor} error.
+     */
+    long defragment( long stableGeneration, long unstableGeneration ) throws IOException
+    {
+        LongArrayList freeIds = new LongArrayList();
+        LongArrayList freelistPageIds = new LongArrayList();
+        visitFreelist( new IdProviderVisitor.Adaptor()
+        {
+            @Override
+            public void beginFreelistPage( long pageId )
+            {
+                freelistPageIds.add( pageId );
+            }
+
+            @Override
+            public void freelistEntry( long pageId, long generation, int pos )
+            {
+                freeIds.add( pageId );
+            }
+        } );
+        freeIds.sortThis();
+
+        // Trim free ids at the end of the id space
+        long lastIdBefore = lastId;
+        int freeCount = freeIds.size();
+        while ( freeCount > 0 && freeIds.get( freeCount - 1 ) == lastId )
+        {
+            freeCount--;
+            lastId--;
+        }
+
+        // Figure out how many free-list pages are needed, keeping in mind that ids used for free-list pages
+        // aren't entries themselves and that the last page must have room for at least one more entry
+        int maxEntries = freelistNode.maxEntries();
+        int pageCount = 1;
+        while ( (long) pageCount * maxEntries <= freeCount - Math.min( pageCount, freeCount ) + freelistPageIds.size() )
+        {
+            pageCount++;
+        }
+        long[] pageIds = new long[pageCount];
+        int nextFreeId = 0;
+        for ( int i = 0; i < pageCount; i++ )
+        {
+            pageIds[i] = nextFreeId < freeCount ? freeIds.get( nextFreeId++ ) : nextLastId();
+        }
+
+        try ( PageCursor cursor = pagedFile.io( pageIds[0], PagedFile.PF_SHARED_WRITE_LOCK ) )
+        {
+            int pageIndex = 0;
+            int pos = 0;
+            initializeFreelistPage( cursor, pageIds[pageIndex] );
+            for ( int i = nextFreeId; i < freeCount + freelistPageIds.size(); i++ )
+            {
+                if ( pos == maxEntries )
+                {
+                    FreelistNode.setNext( cursor, pageIds[++pageIndex] );
+                    initializeFreelistPage( cursor, pageIds[pageIndex] );
+                    pos = 0;
+                }
+                if ( i < freeCount )
+                {
+                    freelistNode.write( cursor, stableGeneration, freeIds.get( i ), pos++ );
+                }
+                else
+                {
+                    freelistNode.write( cursor, unstableGeneration, freelistPageIds.get( i - freeCount ), pos++ );
+                }
+            }
+            while ( pageIndex < pageCount - 1 )
+            {
+                // Exactly filled the second to last page, so the last one becomes the empty write page
+                FreelistNode.setNext( cursor, pageIds[++pageIndex] );
+                initializeFreelistPage( cursor, pageIds[pageIndex] );
+                pos = 0;
+            }
+            checkOutOfBounds( cursor );
+
+            readPageId = pageIds[0];
+            readPos = 0;
+            writePageId = pageIds[pageIndex];
+            writePos = pos;
+        }
+        return lastIdBefore - lastId;
+    }
+
+    private static void initializeFreelistPage( PageCursor cursor, long pageId ) throws IOException
+    {
+        goTo( cursor, "free-list", pageId );
+        cursor.zapPage();
+        FreelistNode.initialize( cursor );
+    }
+
     @Override
     public long lastId()
     {
@@ -23,6 +23,7 @@
 package org.neo4j.index.internal.gbptree;
 
 import org.apache.commons.lang3.tuple.Pair;
+import org.eclipse.collections.impl.list.mutable.primitive.LongArrayList;
 
 import java.io.Closeable;
 import java.io.File;
@@ -31,13 +32,17 @@ import java.io.UncheckedIOException;
 import java.nio.ByteBuffer;
 import java.nio.file.NoSuchFileException;
 import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.function.Consumer;
 import java.util.function.LongSupplier;
 import java.util.function.Supplier;
 
 import org.neo4j.cursor.RawCursor;
 import org.neo4j.helpers.Exceptions;
+import org.neo4j.index.internal.gbptree.InternalTreeLogic.LeafChange;
 import org.neo4j.io.pagecache.CursorException;
 import org.neo4j.io.pagecache.IOLimiter;
 import org.neo4j.io.pagecache.PageCache;
@@ -55,6 +60,8 @@ import static org.neo4j.index.internal.gbptree.Header.CARRY_OVER_PREVIOUS_HEADER
 import static org.neo4j.index.internal.gbptree.Header.replace;
 import static org.neo4j.index.internal.gbptree.PageCursorUtil.checkOutOfBounds;
 import static org.neo4j.index.internal.gbptree.PointerChecking.assertNoSuccessor;
+import static org.neo4j.index.internal.gbptree.TreeNode.Type.INTERNAL;
+import static org.neo4j.index.internal.gbptree.TreeNode.Type.LEAF;
 
 /**
  * A generation-aware B+tree (GB+Tree) implementation directly atop a {@link PageCache} with no caching in between.
@@ -80,6 +87,8 @@ import static org.neo4j.index.internal.gbptree.PointerChecking.assertNoSuccessor
  * <p>
  * A single writer w/ multiple concurrent readers is supported. Assuming usage adheres to this
  * constraint neither writer nor readers are blocking. Readers are virtually garbage-free.
+ * Alternatively multiple {@link #parallelWriter() parallel writers} can change the tree concurrently.
+ * They make changes confined to a single leaf concurrently and serialize changes to the tree structure.
  * <p>
  * An reader of GB+Tree is a {@link SeekCursor} that returns result as it finds them.
  * As the cursor move over keys/values, returned results are considered "behind" it
@@ -185,6 +194,21 @@ public class GBPTree<KEY,VALUE> implements Closeable
             public void treeShrink()
             {   // no-op
             }
+
+            @Override
+            public void compactionStarted( long highId )
+            {   // no-op
+            }
+
+            @Override
+            public void compactionProgress( long entriesRewritten )
+            {   // no-op
+            }
+
+            @Override
+            public void compactionCompleted( long highIdBefore, long highIdAfter )
+            {   // no-op
+            }
         }
 
         /**
@@ -244,6 +268,31 @@ public class GBPTree<KEY,VALUE> implements Closeable
          * Report tree shrink, when root becomes empty.
          */
         void treeShrink();
+
+        /**
+         * Called when a {@link GBPTree#compact(IOLimiter, double) compaction} or an {@link GBPTree#onlineCompaction() online compaction}
+         * has started and writers are blocked.
+         *
+         * @param highId highest allocated page id before compaction.
+         */
+        void compactionStarted( long highId );
+
+        /**
+         * Called periodically while entries are rewritten during {@link GBPTree#compact(IOLimiter, double) compaction},
+         * or after each step of an {@link GBPTree#onlineCompaction() online compaction}.
+         *
+         * @param entriesRewritten number of entries rewritten so far, or for online compaction, number of leaves visited so far.
+         */
+        void compactionProgress( long entriesRewritten );
+
+        /**
+         * Called when a {@link GBPTree#compact(IOLimiter, double) compaction} or an {@link GBPTree#onlineCompaction() online compaction}
+         * has completed, but right before {@link GBPTree#writer() writers} are re-enabled.
+         *
+         * @param highIdBefore highest allocated page id before compaction.
+         * @param highIdAfter highest allocated page id after compaction, page ids after this are free.
+         */
+        void compactionCompleted( long highIdBefore, long highIdAfter );
     }
 
     /**
@@ -265,6 +314,16 @@ public class GBPTree<KEY,VALUE> implements Closeable
     {
     };
 
+    /**
+     * Number of latches which {@link ParallelWriter parallel writers} stripe leaf ids over. Must be a power of two.
+     */
+    private static final int LEAF_LATCH_STRIPES = 1 << 10;
+
+    /**
+     * Number of entries rewritten between each {@link Monitor#compactionProgress(long)} during {@link #compact(IOLimiter, double)}.
+     */
+    private static final int COMPACTION_PROGRESS_INTERVAL = 10_000;
+
     /**
      * Paged file in a {@link PageCache} providing the means of storage.
      */
@@ -294,11 +353,41 @@ public class GBPTree<KEY,VALUE> implements Closeable
      */
     private final FreeListIdProvider freeList;
 
+    /**
+     * Creates {@link TreeNode} instances of the format of this tree. Each {@link ParallelWriter} needs its own instance
+     * since tree nodes keep scratch state when writing.
+     */
+    private final TreeNodeSelector.Factory treeNodeFormat;
+
     /**
      * A single instance {@link Writer} because tree only supports single writer.
      */
     private final SingleWriter writer;
 
+    /**
+     * Held in shared mode by {@link ParallelWriter parallel writers} making changes confined to a single leaf,
+     * and in exclusive mode by the parallel writer making a change to the tree structure, e.g. a split.
+     */
+    private final ReentrantReadWriteLock structureLock = new ReentrantReadWriteLock();
+
+    /**
+     * Striped latches keyed by leaf id, held by {@link ParallelWriter parallel writers} while changing a leaf
+     * under shared {@link #structureLock}.
+     */
+    private final Object[] leafLatches = newLeafLatches();
+
+    /**
+     * Incremented for every change to the tree structure made by a {@link ParallelWriter}, so that other
+     * parallel writers know to forget the path down the tree which they remember from previous changes.
+     */
+    private volatile long structureVersion;
+
+    /**
+     * Number of open {@link ParallelWriter parallel writers}. Together they hold the writer lock in {@link #lock},
+     * which the first one to open acquires and the last one to close releases.
+     */
+    private int openParallelWriters;
+
     /**
      * Tells whether or not there have been made changes (using {@link #writer()}) to this tree
      * since last call to {@link #checkpoint(IOLimiter)}. This variable is set when calling {@link #writer()}
@@ -306,6 +395,13 @@ public class GBPTree<KEY,VALUE> implements Closeable
      */
     private volatile boolean changesSinceLastCheckpoint;
 
+    /**
+     * Highest page id referred to by the tree state written in the most recent, and the one before the most recent,
+     * {@link #checkpoint(IOLimiter) checkpoint}. Pages after both of them are unused, see {@link #usedFileSize()}.
+     */
+    private volatile long lastIdAtCheckpoint;
+    private volatile long lastIdAtPreviousCheckpoint;
+
     /**
      * Lock with two individual parts. Writer lock and cleaner lock.
      * <p>
@@ -501,6 +597,7 @@ public class GBPTree<KEY,VALUE> implements Closeable
                 meta.verify( layout );
                 format = TreeNodeSelector.selectByFormat( meta.getFormatIdentifier(), meta.getFormatVersion() );
             }
+            this.treeNodeFormat = format;
             this.bTreeNode = format.create( pageSize, layout );
             this.freeList = new FreeListIdProvider( pagedFile, pageSize, rootId, FreeListIdProvider.NO_MONITOR );
             this.writer = new SingleWriter( new InternalTreeLogic<>( freeList, bTreeNode, layout, monitor ) );
@@ -665,6 +762,9 @@ public class GBPTree<KEY,VALUE> implements Closeable
         int freeListReadPos = state.freeListReadPos();
         freeList.initialize( lastId, freeListWritePageId, freeListReadPageId, freeListWritePos, freeListReadPos );
         clean = state.isClean();
+        lastIdAtCheckpoint = lastId;
+        TreeState otherState = other( states, state );
+        lastIdAtPreviousCheckpoint = otherState.isValid() ? otherState.lastId() : lastId;
     }
 
     /**
@@ -701,6 +801,30 @@ public class GBPTree<KEY,VALUE> implements Closeable
         }
     }
 
+    /**
+     * Use when the {@link Layout} to open an existing index file with depends on whether or not its leaves are prefix compressed,
+     * see {@link Layout#compressKeyPrefixes()}, since that is decided when the tree is created.
+     *
+     * @param pageCache {@link PageCache} to use to map index file
+     * @param indexFile {@link File} containing the actual index
+     * @return whether or not leaves of the tree in {@code indexFile} are prefix compressed.
+     * @throws IOException On page cache error
+     * @throws MetadataMismatchException if meta page is missing (tree not fully initialized)
+     */
+    public static boolean hasCompressedKeyPrefixes( PageCache pageCache, File indexFile ) throws IOException, MetadataMismatchException
+    {
+        try ( PagedFile pagedFile = openExistingIndexFile( pageCache, indexFile ) )
+        {
+            Meta meta = readMeta( null, pagedFile );
+            return meta.getFormatIdentifier() == TreeNodeDynamicSizeCompressed.FORMAT_IDENTIFIER;
+        }
+        catch ( Throwable t )
+        {
+            withMessage( t, t.getMessage() + " | " + format( "GBPTree[file:%s]", indexFile ) );
+            throw t;
+        }
+    }
+
     private static void doReadHeader( Header.Reader headerReader, PageCursor cursor ) throws IOException
     {
         int headerDataLength;
@@ -914,6 +1038,208 @@ public class GBPTree<KEY,VALUE> implements Closeable
                 exceptionDecorator, SeekCursor.DEFAULT_MAX_READ_AHEAD );
     }
 
+    /**
+     * Splits the key range {@code fromInclusive} to {@code toExclusive} into partitions and opens a {@link #seek(Object, Object) seek}
+     * over each one of them. Together the partitions cover the whole range, in ascending order and without overlap,
+     * so that they can be read in parallel, from different threads. Each returned cursor must only be used by one thread at a time.
+     * <p>
+     * Partition boundaries are picked among the keys of the internal nodes on the highest level of the tree with enough keys
+     * in the range. Partitions are therefore of roughly equal size, but the number of partitions may be less than the desired
+     * number of partitions, e.g. if the tree or the range is small.
+     *
+     * @param fromInclusive lower bound of the range to seek (inclusive).
+     * @param toExclusive higher bound of the range to seek (exclusive).
+     * @param desiredNumberOfPartitions maximum number of partitions to split the range into.
+     * @return {@link RawCursor cursors}, one for each partition, in key order.
+     * @throws IOException on error reading from index.
+     * @throws IllegalArgumentException if {@code fromInclusive} is bigger than {@code toExclusive} or if there are less than one desired partitions.
+     */
+    public List<RawCursor<Hit<KEY,VALUE>,IOException>> partitionedSeek( KEY fromInclusive, KEY toExclusive, int desiredNumberOfPartitions )
+            throws IOException
+    {
+        if ( desiredNumberOfPartitions < 1 )
+        {
+            throw new IllegalArgumentException( "Desired number of partitions must be at least 1, but was " + desiredNumberOfPartitions );
+        }
+        if ( layout.compare( fromInclusive, toExclusive ) > 0 )
+        {
+            throw new IllegalArgumentException( "Partitioned seek only supports ascending order, but got " + fromInclusive + " to " + toExclusive );
+        }
+
+        List<KEY> splitters = partitionSplitters( fromInclusive, toExclusive, desiredNumberOfPartitions );
+        List<RawCursor<Hit<KEY,VALUE>,IOException>> partitions = new ArrayList<>( splitters.size() + 1 );
+        try
+        {
+            KEY from = fromInclusive;
+            for ( KEY splitter : splitters )
+            {
+                partitions.add( seek( from, splitter ) );
+                from = splitter;
+            }
+            partitions.add( seek( from, toExclusive ) );
+        }
+        catch ( IOException | RuntimeException e )
+        {
+            for ( RawCursor<Hit<KEY,VALUE>,IOException> partition : partitions )
+            {
+                try
+                {
+                    partition.close();
+                }
+                catch ( IOException closeException )
+                {
+                    e.addSuppressed( closeException );
+                }
+            }
+            throw e;
+        }
+        return partitions;
+    }
+
+    /**
+     * Reads keys from internal nodes, level by level from the root and down, until a level has enough keys within the range.
+     * Keys on each level are read from the node covering {@code fromInclusive} and its right siblings. This is done without
+     * blocking writers and so the keys are merely hints, any inconsistency simply ends the search for more keys.
+     */
+    private List<KEY> partitionSplitters( KEY fromInclusive, KEY toExclusive, int desiredNumberOfPartitions ) throws IOException
+    {
+        List<KEY> splitters = new ArrayList<>();
+        if ( desiredNumberOfPartitions == 1 )
+        {
+            return splitters;
+        }
+
+        long generation = this.generation;
+        long stableGeneration = stableGeneration( generation );
+        long unstableGeneration = unstableGeneration( generation );
+        try ( PageCursor cursor = openRootCursor( PagedFile.PF_SHARED_READ_LOCK ) )
+        {
+            KEY key = layout.newKey();
+            while ( splitters.size() < desiredNumberOfPartitions - 1 )
+            {
+                List<KEY> levelKeys = new ArrayList<>();
+                long childOnNextLevel = TreeNode.NO_NODE_FLAG;
+                boolean firstOnLevel = true;
+                boolean pastRange = false;
+                while ( !pastRange )
+                {
+                    boolean isInternal;
+                    int keyCount;
+                    do
+                    {
+                        isInternal = TreeNode.isInternal( cursor );
+                        keyCount = TreeNode.keyCount( cursor );
+                    }
+                    while ( cursor.shouldRetry() );
+                    if ( !isInternal || !bTreeNode.reasonableKeyCount( keyCount ) )
+                    {
+                        // Reached the leaves, or the tree changed under our feet
+                        return pickSplitters( splitters, desiredNumberOfPartitions );
+                    }
+
+                    for ( int pos = 0; pos < keyCount && !pastRange; pos++ )
+                    {
+                        do
+                        {
+                            bTreeNode.keyAt( cursor, key, pos, INTERNAL );
+                        }
+                        while ( cursor.shouldRetry() );
+                        if ( inconsistentRead( cursor ) )
+                        {
+                            return pickSplitters( splitters, desiredNumberOfPartitions );
+                        }
+
+                        if ( layout.compare( key, fromInclusive ) <= 0 )
+                        {
+                            continue;
+                        }
+                        if ( layout.compare( key, toExclusive ) >= 0 )
+                        {
+                            pastRange = true;
+                        }
+                        else if ( levelKeys.isEmpty() || layout.compare( levelKeys.get( levelKeys.size() - 1 ), key ) < 0 )
+                        {
+                            levelKeys.add( layout.copyKey( key, layout.newKey() ) );
+                        }
+                    }
+
+                    long rightSibling;
+                    do
+                    {
+                        if ( firstOnLevel )
+                        {
+                            // Child covering fromInclusive, i.e. to the left of the first key bigger than fromInclusive
+                            int childPos = 0;
+                            while ( childPos < keyCount && layout.compare( bTreeNode.keyAt( cursor, key, childPos, INTERNAL ), fromInclusive ) <= 0 )
+                            {
+                                childPos++;
+                            }
+                            childOnNextLevel = bTreeNode.childAt( cursor, childPos, stableGeneration, unstableGeneration );
+                        }
+                        rightSibling = TreeNode.rightSibling( cursor, stableGeneration, unstableGeneration );
+                    }
+                    while ( cursor.shouldRetry() );
+                    if ( inconsistentRead( cursor ) )
+                    {
+                        return pickSplitters( splitters, desiredNumberOfPartitions );
+                    }
+                    firstOnLevel = false;
+
+                    if ( !pastRange )
+                    {
+                        if ( !TreeNode.isNode( rightSibling ) || !GenerationSafePointerPair.isSuccess( rightSibling ) )
+                        {
+                            break;
+                        }
+                        TreeNode.goTo( cursor, "right sibling", rightSibling );
+                    }
+                }
+
+                if ( levelKeys.size() > splitters.size() )
+                {
+                    splitters = levelKeys;
+                }
+                if ( !TreeNode.isNode( childOnNextLevel ) || !GenerationSafePointerPair.isSuccess( childOnNextLevel ) )
+                {
+                    break;
+                }
+                TreeNode.goTo( cursor, "child", childOnNextLevel );
+            }
+        }
+        return pickSplitters( splitters, desiredNumberOfPartitions );
+    }
+
+    private static boolean inconsistentRead( PageCursor cursor )
+    {
+        boolean outOfBounds = cursor.checkAndClearBoundsFlag();
+        try
+        {
+            cursor.checkAndClearCursorException();
+            return outOfBounds;
+        }
+        catch ( CursorException e )
+        {
+            return true;
+        }
+    }
+
+    /**
+     * Picks evenly spread splitters so that there are at most {@code desiredNumberOfPartitions} partitions.
+     */
+    private List<KEY> pickSplitters( List<KEY> splitters, int desiredNumberOfPartitions )
+    {
+        if ( splitters.size() < desiredNumberOfPartitions )
+        {
+            return splitters;
+        }
+        List<KEY> picked = new ArrayList<>( desiredNumberOfPartitions - 1 );
+        for ( int i = 1; i < desiredNumberOfPartitions; i++ )
+        {
+            picked.add( splitters.get( (int) ((long) i * splitters.size() / desiredNumberOfPartitions) ) );
+        }
+        return picked;
+    }
+
     /**
      * Checkpoints and flushes any pending changes to storage. After a successful call to this method
      * the data is durable and safe. {@link #writer() Changes} made after this call and until crashing or
@@ -975,25 +1301,7 @@ public class GBPTree<KEY,VALUE> implements Closeable
         try
         {
             assertRecoveryCleanSuccessful();
-            // Flush dirty pages since that last flush above. This should be a very small set of pages
-            // and should be rather fast. In here writers are blocked and we want to minimize this
-            // windows of time as much as possible, that's why there's an initial flush outside this lock.
-            pagedFile.flushAndForce();
-
-            // Increment generation, i.e. stable becomes current unstable and unstable increments by one
-            // and write the tree state (rootId, lastId, generation a.s.o.) to state page.
-            long unstableGeneration = unstableGeneration( generation );
-            generation = Generation.generation( unstableGeneration, unstableGeneration + 1 );
-            writeState( pagedFile, headerWriter );
-
-            // Flush the state page.
-            pagedFile.flushAndForce();
-
-            // Expose this fact.
-            monitor.checkpointCompleted();
-
-            // Clear flag so that until next change there's no need to do another checkpoint.
-            changesSinceLastCheckpoint = false;
+            checkpointWhileWritersBlocked( headerWriter );
         }
         finally
         {
@@ -1003,6 +1311,31 @@ public class GBPTree<KEY,VALUE> implements Closeable
         }
     }
 
+    private void checkpointWhileWritersBlocked( Header.Writer headerWriter ) throws IOException
+    {
+        // Flush dirty pages since that last flush before blocking writers. This should be a very small set of pages
+        // and should be rather fast. In here writers are blocked and we want to minimize this
+        // windows of time as much as possible, that's why there's an initial flush outside the lock.
+        pagedFile.flushAndForce();
+
+        // Increment generation, i.e. stable becomes current unstable and unstable increments by one
+        // and write the tree state (rootId, lastId, generation a.s.o.) to state page.
+        long unstableGeneration = unstableGeneration( generation );
+        generation = Generation.generation( unstableGeneration, unstableGeneration + 1 );
+        writeState( pagedFile, headerWriter );
+        lastIdAtPreviousCheckpoint = lastIdAtCheckpoint;
+        lastIdAtCheckpoint = freeList.lastId();
+
+        // Flush the state page.
+        pagedFile.flushAndForce();
+
+        // Expose this fact.
+        monitor.checkpointCompleted();
+
+        // Clear flag so that until next change there's no need to do another checkpoint.
+        changesSinceLastCheckpoint = false;
+    }
+
     private void assertRecoveryCleanSuccessful() throws IOException
     {
         if ( cleaning != null && cleaning.hasFailed() )
@@ -1113,93 +1446,634 @@ public class GBPTree<KEY,VALUE> implements Closeable
         return writer;
     }
 
-    private void setRoot( long rootId, long rootGeneration )
-    {
-        this.root = new Root( rootId, rootGeneration );
-    }
-
     /**
-     * Bump unstable generation, increasing the gap between stable and unstable generation. All pointers and tree nodes
-     * with generation in this gap are considered to be 'crashed' and will be cleaned up by {@link CleanupJob}
-     * created in {@link #createCleanupJob(RecoveryCleanupWorkCollector, boolean)}.
+     * Builds the contents of this tree bottom-up from entries in sorted order. This is much faster than inserting
+     * the same entries using a {@link #writer()} since leaves and internal nodes are written sequentially,
+     * without searching or splitting. The tree must be empty.
+     * <p>
+     * Excludes writers and checkpoints for the duration of the load. Concurrent readers will see the tree
+     * as empty until the load completes.
+     *
+     * @param entries entries in strictly ascending key order.
+     * @param fillFactor fraction of each node to fill before starting the next, 0 &lt; fillFactor &lt;= 1.
+     * Less than 1 leaves room for future inserts without splitting.
+     * @throws IOException on error accessing the index.
+     * @throws IllegalStateException if the tree isn't empty.
+     * @throws IllegalArgumentException if entries aren't in strictly ascending key order.
      */
-    private void bumpUnstableGeneration()
+    public void bulkLoad( RawCursor<Hit<KEY,VALUE>,IOException> entries, double fillFactor ) throws IOException
     {
-        generation = generation( stableGeneration( generation ), unstableGeneration( generation ) + 1 );
-    }
+        assertNotReadOnly( "Bulk load tree." );
+        // Block here until cleaning has completed, if cleaning was required
+        lock.writerAndCleanerLock();
+        try
+        {
+            assertRecoveryCleanSuccessful();
+            long stableGeneration = stableGeneration( generation );
+            long unstableGeneration = unstableGeneration( generation );
+            long oldRootId = root.id();
+            try ( PageCursor cursor = openRootCursor( PagedFile.PF_SHARED_READ_LOCK ) )
+            {
+                if ( !TreeNode.isLeaf( cursor ) || TreeNode.keyCount( cursor ) != 0 )
+                {
+                    throw new IllegalStateException( "Can only bulk load into an empty tree, " + indexFile + " isn't empty" );
+                }
+            }
 
-    private void forceState() throws IOException
-    {
-        assertNotReadOnly( "Force tree state." );
-        if ( changesSinceLastCheckpoint )
+            changesSinceLastCheckpoint = true;
+            BulkLoader<KEY,VALUE> loader = new BulkLoader<>( pagedFile, freeList, bTreeNode, layout, fillFactor,
+                    stableGeneration, unstableGeneration );
+            long newRootId = loader.load( entries );
+            setRoot( newRootId, unstableGeneration );
+            freeList.releaseId( stableGeneration, unstableGeneration, oldRootId );
+        }
+        catch ( IOException | RuntimeException e )
         {
-            throw new IllegalStateException( "It seems that this method has been called in the wrong state. " +
-                    "It's expected that this is called after opening this tree, but before any changes " +
-                    "have been made" );
+            appendTreeInformation( e );
+            throw e;
+        }
+        finally
+        {
+            lock.writerAndCleanerUnlock();
         }
-
-        writeState( pagedFile, CARRY_OVER_PREVIOUS_HEADER );
-        pagedFile.flushAndForce();
     }
 
     /**
-     * Called on start if tree was not clean.
+     * Compacts this tree by rewriting all its entries, in key order, into tree nodes at the lowest free page ids,
+     * filled to the given fill factor. Underfilled tree nodes, left behind by removals, are thereby merged and
+     * sequential scans end up reading pages in ascending order. The free-list is defragmented so that free page ids
+     * at the end of the file are no longer allocated and all future allocations prefer lower page ids.
+     * The file itself is not truncated, instead it stops growing until the free page ids have been reused.
+     * <p>
+     * Checkpoints the tree, a couple of times, so that the rewritten tree is durable when this method returns.
+     * Progress is reported to the {@link Monitor}.
+     * <p>
+     * This is an offline operation as far as writers are concerned: writers and checkpoints are blocked for the
+     * whole compaction, i.e. for as long as it takes to rewrite every entry of the tree, so it's meant to be run
+     * when nothing writes to the index, e.g. while the database is in maintenance, not as a background job next to
+     * a write load. Concurrent readers are not blocked, they see the old tree until the new tree is in place.
+     * If compaction fails the tree is left as it was, with the page ids acquired for the new tree released.
+     *
+     * @param ioLimiter for controlling I/O usage of the flushes done while compacting.
+     * @param fillFactor fraction of each tree node to fill, 0 &lt; fillFactor &lt;= 1.
+     * Less than 1 leaves room for future inserts without splitting.
+     * @throws IOException on error accessing the index.
+     * @throws IllegalArgumentException if fillFactor is out of range.
      */
-    private CleanupJob createCleanupJob( RecoveryCleanupWorkCollector recoveryCleanupWorkCollector, boolean needsCleaning )
+    public void compact( IOLimiter ioLimiter, double fillFactor ) throws IOException
     {
-        if ( !needsCleaning )
+        assertNotReadOnly( "Compact tree." );
+        if ( fillFactor <= 0 || fillFactor > 1 )
         {
-            return CleanupJob.CLEAN;
+            throw new IllegalArgumentException( "Fill factor must be in range (0, 1], but was " + fillFactor );
         }
-        else
+
+        // Like checkpoint, flush before blocking writers so that flushing within the lock is quick
+        pagedFile.flushAndForce( ioLimiter );
+        lock.writerAndCleanerLock();
+        try
         {
-            lock.cleanerLock();
-            monitor.cleanupRegistered();
+            assertRecoveryCleanSuccessful();
+            long highIdBefore = freeList.lastId();
+            monitor.compactionStarted( highIdBefore );
 
-            long generation = this.generation;
+            // Make all released ids stable so that they can be moved around in the free-list
+            checkpointWhileWritersBlocked( CARRY_OVER_PREVIOUS_HEADER );
+            freeList.defragment( stableGeneration( generation ), unstableGeneration( generation ) );
+
+            // Rewrite the tree, the free-list now hands out the lowest free ids first
             long stableGeneration = stableGeneration( generation );
             long unstableGeneration = unstableGeneration( generation );
-            long highTreeNodeId = freeList.lastId() + 1;
+            LongArrayList oldTreeIds = new LongArrayList();
+            try ( PageCursor cursor = openRootCursor( PagedFile.PF_SHARED_READ_LOCK ) )
+            {
+                new GBPTreeStructure<>( bTreeNode, layout, stableGeneration, unstableGeneration ).visitTree( cursor, null,
+                        new GBPTreeVisitor.Adaptor<KEY,VALUE>()
+                        {
+                            @Override
+                            public void beginNode( long pageId, boolean isLeaf, long generation, int keyCount )
+                            {
+                                oldTreeIds.add( pageId );
+                            }
+                        } );
+            }
+            long newRootId;
+            long entriesRewritten;
+            RecordingIdProvider newTreeIds = new RecordingIdProvider( freeList );
+            try ( LeafEntriesCursor<KEY,VALUE> entries = new LeafEntriesCursor<>( openRootCursor( PagedFile.PF_SHARED_READ_LOCK ),
+                    bTreeNode, layout, stableGeneration, unstableGeneration, COMPACTION_PROGRESS_INTERVAL, monitor::compactionProgress ) )
+            {
+                newRootId = new BulkLoader<>( pagedFile, newTreeIds, bTreeNode, layout, fillFactor, stableGeneration, unstableGeneration )
+                        .load( entries );
+                entriesRewritten = entries.entriesRead();
+            }
+            catch ( IOException | RuntimeException e )
+            {
+                // The new tree isn't referenced by anything, give its pages back so that they aren't lost
+                newTreeIds.releaseAcquired( stableGeneration, unstableGeneration, e );
+                throw e;
+            }
+            changesSinceLastCheckpoint = true;
+            setRoot( newRootId, unstableGeneration );
+            for ( int i = 0; i < oldTreeIds.size(); i++ )
+            {
+                freeList.releaseId( stableGeneration, unstableGeneration, oldTreeIds.get( i ) );
+            }
+            monitor.compactionProgress( entriesRewritten );
 
-            CrashGenerationCleaner crashGenerationCleaner =
-                    new CrashGenerationCleaner( pagedFile, bTreeNode, IdSpace.MIN_TREE_NODE_ID, highTreeNodeId,
-                            stableGeneration, unstableGeneration, monitor );
-            GBPTreeCleanupJob cleanupJob = new GBPTreeCleanupJob( crashGenerationCleaner, lock, monitor, indexFile );
-            recoveryCleanupWorkCollector.add( cleanupJob );
-            return cleanupJob;
-        }
-    }
+            // The old tree must be kept intact until the new tree is checkpointed. After that its ids are free
+            // and those at the end of the id space can be trimmed away. Free-list pages that were current
+            // when defragmenting must be kept intact until the next checkpoint too, and free-list pages allocated
+            // while releasing the old tree may have come from the end of the id space. Therefore a second round.
+            for ( int round = 0; round < 2; round++ )
+            {
+                pagedFile.flushAndForce( ioLimiter );
+                checkpointWhileWritersBlocked( CARRY_OVER_PREVIOUS_HEADER );
+                freeList.defragment( stableGeneration( generation ), unstableGeneration( generation ) );
+            }
+            pagedFile.flushAndForce( ioLimiter );
+            checkpointWhileWritersBlocked( CARRY_OVER_PREVIOUS_HEADER );
 
-    public <VISITOR extends GBPTreeVisitor<KEY,VALUE>> VISITOR visit( VISITOR visitor ) throws IOException
-    {
-        try ( PageCursor cursor = openRootCursor( PagedFile.PF_SHARED_READ_LOCK ) )
+            monitor.compactionCompleted( highIdBefore, freeList.lastId() );
+        }
+        catch ( IOException | RuntimeException e )
         {
-            new GBPTreeStructure<>( bTreeNode, layout, stableGeneration( generation ), unstableGeneration( generation ) )
-                    .visitTree( cursor, writer.cursor, visitor );
-            freeList.visitFreelist( visitor );
+            appendTreeInformation( e );
+            throw e;
+        }
+        finally
+        {
+            lock.writerAndCleanerUnlock();
         }
-        return visitor;
     }
 
-    @SuppressWarnings( "unused" )
-    public void printTree() throws IOException
+    /**
+     * Starts an online compaction of this tree, which merges underfilled leaves left behind by removals and moves tree nodes
+     * away from the end of the file, so that free page ids at the end of the file are no longer allocated.
+     * The work is done in bounded {@link OnlineCompaction#step(int, IOLimiter) steps}, each holding the writer lock only
+     * for as long as it takes to visit a given number of leaves, so that writers can make progress in between steps.
+     * <p>
+     * Page ids which are no longer allocated are not given back to the file system while the tree is open,
+     * instead the file can be truncated to its {@link #usedFileSize() used size} after the tree has been closed.
+     *
+     * @return a new {@link OnlineCompaction}, on which {@link OnlineCompaction#step(int, IOLimiter)} is called until it returns {@code false}.
+     */
+    public OnlineCompaction onlineCompaction()
     {
-        printTree( false, false, false, false, false );
+        assertNotReadOnly( "Compact tree online." );
+        return new OnlineCompaction();
     }
 
-    // Utility method
     /**
-     * Prints the contents of the tree to System.out.
+     * Size, in bytes, of the part of the index file which the tree states of the two most recent checkpoints refer to.
+     * Pages after that, e.g. those no longer allocated after an {@link #onlineCompaction() online compaction}, are unused
+     * and the file can be truncated to this size after this tree has been {@link #close() closed}.
      *
-     * @param printValues whether or not to print values in the leaf nodes.
-     * @param printPosition whether or not to print position for each key.
-     * @param printState whether or not to print the tree state.
-     * @param printHeader whether or not to print header of each tree node
-     * @param printFreelist whether or not to print freelist
-     * @throws IOException on I/O error.
+     * @return size in bytes of the used part of the index file.
      */
-    @SuppressWarnings( "SameParameterValue" )
-    void printTree( boolean printValues, boolean printPosition, boolean printState, boolean printHeader, boolean printFreelist ) throws IOException
+    public long usedFileSize()
+    {
+        return (Math.max( lastIdAtCheckpoint, lastIdAtPreviousCheckpoint ) + 1) * pageSize;
+    }
+
+    /**
+     * Online compaction of the tree, see {@link #onlineCompaction()}. The leaves are visited in key order, a bounded number
+     * of leaves per {@link #step(int, IOLimiter) step}. Underflowing leaves are merged with, or rebalanced against, their siblings
+     * and leaves at page ids which would otherwise stay allocated after the compaction are moved to lower free page ids.
+     * After the last leaf the free-list is defragmented, one checkpoint per step, like in {@link #compact(IOLimiter, double)}.
+     * <p>
+     * Steps must not be called concurrently, but writers and checkpoints may run between steps.
+     */
+    public class OnlineCompaction
+    {
+        private final InternalTreeLogic<KEY,VALUE> treeLogic = new InternalTreeLogic<>( freeList, bTreeNode, layout, monitor );
+        private final StructurePropagation<KEY> structurePropagation = new StructurePropagation<>( layout.newKey(), layout.newKey(), layout.newKey() );
+        private KEY key = layout.newKey();
+        private KEY nextKey = layout.newKey();
+        private boolean started;
+        private boolean leavesDone;
+        private int finishingRounds;
+        private long highIdBefore;
+        private long relocateAbove;
+        private long leavesVisited;
+
+        private OnlineCompaction()
+        {
+        }
+
+        /**
+         * Does the next bounded amount of work of this compaction: starting it, compacting the next {@code maxLeaves} leaves,
+         * or one of the checkpoints which finish it.
+         *
+         * @param maxLeaves maximum number of leaves to visit while holding the writer lock.
+         * @param ioLimiter for controlling I/O usage of the flushes done by checkpoints of this step.
+         * @return {@code true} if there's more work to do, i.e. {@link #step(int, IOLimiter)} should be called again,
+         * otherwise {@code false}.
+         * @throws IOException on error accessing the index.
+         */
+        public boolean step( int maxLeaves, IOLimiter ioLimiter ) throws IOException
+        {
+            if ( maxLeaves <= 0 )
+            {
+                throw new IllegalArgumentException( "Number of leaves per step must be positive, but was " + maxLeaves );
+            }
+            if ( finishingRounds > 2 )
+            {
+                return false;
+            }
+
+            // Like checkpoint, flush before blocking writers so that flushing within the lock is quick
+            if ( !started || leavesDone )
+            {
+                pagedFile.flushAndForce( ioLimiter );
+            }
+            lock.writerAndCleanerLock();
+            try
+            {
+                assertRecoveryCleanSuccessful();
+                if ( !started )
+                {
+                    start();
+                }
+                else if ( !leavesDone )
+                {
+                    compactLeaves( maxLeaves );
+                }
+                else
+                {
+                    finish();
+                }
+                return finishingRounds <= 2;
+            }
+            catch ( IOException | RuntimeException e )
+            {
+                appendTreeInformation( e );
+                throw e;
+            }
+            finally
+            {
+                lock.writerAndCleanerUnlock();
+            }
+        }
+
+        private void start() throws IOException
+        {
+            started = true;
+            highIdBefore = freeList.lastId();
+            monitor.compactionStarted( highIdBefore );
+
+            // Make all released ids stable so that the free-list can hand them out in ascending order
+            checkpointWhileWritersBlocked( CARRY_OVER_PREVIOUS_HEADER );
+            freeList.defragment( stableGeneration( generation ), unstableGeneration( generation ) );
+
+            // Tree nodes at ids after this point will be moved so that the end of the id space becomes free
+            long[] freeIds = new long[1];
+            freeList.visitFreelist( new IdProvider.IdProviderVisitor.Adaptor()
+            {
+                @Override
+                public void freelistEntry( long pageId, long generation, int pos )
+                {
+                    freeIds[0]++;
+                }
+            } );
+            relocateAbove = freeList.lastId() - freeIds[0];
+            leavesDone = !firstKey( key );
+        }
+
+        private void compactLeaves( int maxLeaves ) throws IOException
+        {
+            long stableGeneration = stableGeneration( generation );
+            long unstableGeneration = unstableGeneration( generation );
+            try ( PageCursor cursor = openRootCursor( PagedFile.PF_SHARED_WRITE_LOCK ) )
+            {
+                treeLogic.initialize( cursor );
+                changesSinceLastCheckpoint = true;
+                for ( int i = 0; i < maxLeaves && !leavesDone; i++ )
+                {
+                    // Only move a leaf if it will end up at a lower id, not at the end of the id space
+                    long freeId = freeList.peekFreeId( stableGeneration );
+                    boolean relocate = freeId != FreelistNode.NO_PAGE_ID && freeId <= relocateAbove;
+                    if ( treeLogic.compactLeaf( cursor, structurePropagation, key, relocate ? relocateAbove : Long.MAX_VALUE,
+                            stableGeneration, unstableGeneration ) )
+                    {
+                        handleRootStructureChanges( cursor, structurePropagation, treeLogic, InternalTreeLogic.DEFAULT_SPLIT_RATIO,
+                                stableGeneration, unstableGeneration );
+                    }
+                    leavesVisited++;
+                    if ( treeLogic.firstKeyOfRightSibling( cursor, key, nextKey, stableGeneration, unstableGeneration ) )
+                    {
+                        KEY visited = key;
+                        key = nextKey;
+                        nextKey = visited;
+                    }
+                    else
+                    {
+                        leavesDone = true;
+                    }
+                }
+                checkOutOfBounds( cursor );
+            }
+            monitor.compactionProgress( leavesVisited );
+        }
+
+        private void finish() throws IOException
+        {
+            // Moved and merged leaves are free after the next checkpoint and those at the end of the id space can be trimmed away.
+            // Free-list pages that were current when defragmenting must be kept intact until the checkpoint after that,
+            // therefore a second round and a last checkpoint making the trimmed free-list durable.
+            checkpointWhileWritersBlocked( CARRY_OVER_PREVIOUS_HEADER );
+            if ( finishingRounds < 2 )
+            {
+                freeList.defragment( stableGeneration( generation ), unstableGeneration( generation ) );
+            }
+            else
+            {
+                monitor.compactionCompleted( highIdBefore, freeList.lastId() );
+            }
+            finishingRounds++;
+        }
+    }
+
+    /**
+     * Reads the first key of the tree, i.e. the first key in the left-most leaf. Caller must make sure that
+     * the tree doesn't change while reading.
+     *
+     * @param into {@code KEY} instance to read the first key into.
+     * @return {@code true} if the tree has any key, otherwise {@code false}.
+     * @throws IOException on error accessing the index.
+     */
+    private boolean firstKey( KEY into ) throws IOException
+    {
+        long stableGeneration = stableGeneration( generation );
+        long unstableGeneration = unstableGeneration( generation );
+        try ( PageCursor cursor = openRootCursor( PagedFile.PF_SHARED_READ_LOCK ) )
+        {
+            while ( TreeNode.isInternal( cursor ) )
+            {
+                long child = bTreeNode.childAt( cursor, 0, stableGeneration, unstableGeneration );
+                PointerChecking.checkPointer( child, false );
+                TreeNode.goTo( cursor, "left-most child", child );
+            }
+            if ( TreeNode.keyCount( cursor ) == 0 )
+            {
+                return false;
+            }
+            bTreeNode.keyAt( cursor, into, 0, LEAF );
+            return true;
+        }
+    }
+
+    /**
+     * Use default value for ratioToKeepInLeftOnSplit
+     * @see GBPTree#parallelWriter(double)
+     */
+    public Writer<KEY,VALUE> parallelWriter() throws IOException
+    {
+        return parallelWriter( InternalTreeLogic.DEFAULT_SPLIT_RATIO );
+    }
+
+    /**
+     * Returns a new {@link Writer} able to modify the index, i.e. insert and remove keys/values, concurrently with
+     * other writers returned from this method. Each writer must only be used by one thread at a time.
+     * Changes that fit within a single leaf, which is the vast majority, are made concurrently with changes in other leaves.
+     * Changes to the tree structure, e.g. splits, merges and new versions of tree nodes after a checkpoint,
+     * are made one at a time. After usage the returned writer must be closed, typically by using try-with-resource clause.
+     * Parallel writers and the {@link #writer() single writer} exclude each other, as do parallel writers and checkpoints.
+     *
+     * @param ratioToKeepInLeftOnSplit Decide how much to keep in left node on split, 0=keep nothing, 0.5=split 50-50, 1=keep everything.
+     * @return a new {@link Writer} which can be used concurrently with other parallel writers.
+     * @throws IOException on error accessing the index.
+     */
+    public Writer<KEY,VALUE> parallelWriter( double ratioToKeepInLeftOnSplit ) throws IOException
+    {
+        assertNotReadOnly( "Open parallel tree writer." );
+        ParallelWriter parallelWriter = new ParallelWriter( ratioToKeepInLeftOnSplit );
+        changesSinceLastCheckpoint = true;
+        return parallelWriter;
+    }
+
+    /**
+     * {@link IdProvider} remembering the ids it has acquired, so that they can be released if what they were
+     * acquired for fails half-way.
+     */
+    private static class RecordingIdProvider implements IdProvider
+    {
+        private final IdProvider actual;
+        private final LongArrayList acquired = new LongArrayList();
+
+        RecordingIdProvider( IdProvider actual )
+        {
+            this.actual = actual;
+        }
+
+        @Override
+        public long acquireNewId( long stableGeneration, long unstableGeneration ) throws IOException
+        {
+            long id = actual.acquireNewId( stableGeneration, unstableGeneration );
+            acquired.add( id );
+            return id;
+        }
+
+        @Override
+        public void releaseId( long stableGeneration, long unstableGeneration, long id ) throws IOException
+        {
+            actual.releaseId( stableGeneration, unstableGeneration, id );
+        }
+
+        @Override
+        public void visitFreelist( IdProviderVisitor visitor ) throws IOException
+        {
+            actual.visitFreelist( visitor );
+        }
+
+        @Override
+        public long lastId()
+        {
+            return actual.lastId();
+        }
+
+        void releaseAcquired( long stableGeneration, long unstableGeneration, Throwable cause )
+        {
+            try
+            {
+                for ( int i = 0; i < acquired.size(); i++ )
+                {
+                    actual.releaseId( stableGeneration, unstableGeneration, acquired.get( i ) );
+                }
+            }
+            catch ( IOException | RuntimeException e )
+            {
+                cause.addSuppressed( e );
+            }
+        }
+    }
+
+    private void setRoot( long rootId, long rootGeneration )
+    {
+        this.root = new Root( rootId, rootGeneration );
+    }
+
+    private static Object[] newLeafLatches()
+    {
+        Object[] latches = new Object[LEAF_LATCH_STRIPES];
+        for ( int i = 0; i < latches.length; i++ )
+        {
+            latches[i] = new Object();
+        }
+        return latches;
+    }
+
+    private Object leafLatch( long leafId )
+    {
+        return leafLatches[(int) (leafId & (LEAF_LATCH_STRIPES - 1))];
+    }
+
+    private void openParallelWriter() throws IOException
+    {
+        synchronized ( leafLatches )
+        {
+            if ( openParallelWriters == 0 )
+            {
+                // Block here until cleaning has completed, if cleaning was required
+                lock.writerAndCleanerLock();
+                try
+                {
+                    assertRecoveryCleanSuccessful();
+                }
+                catch ( Throwable e )
+                {
+                    lock.writerAndCleanerUnlock();
+                    throw e;
+                }
+            }
+            openParallelWriters++;
+        }
+    }
+
+    private void closeParallelWriter()
+    {
+        synchronized ( leafLatches )
+        {
+            if ( --openParallelWriters == 0 )
+            {
+                lock.writerAndCleanerUnlock();
+            }
+        }
+    }
+
+    /**
+     * Handles changes to the root which a change in the tree has resulted in, i.e. a root split or a new version of the root.
+     */
+    private void handleRootStructureChanges( PageCursor cursor, StructurePropagation<KEY> structurePropagation,
+            InternalTreeLogic<KEY,VALUE> treeLogic, double ratioToKeepInLeftOnSplit, long stableGeneration, long unstableGeneration )
+            throws IOException
+    {
+        if ( structurePropagation.hasRightKeyInsert )
+        {
+            // New root
+            long newRootId = freeList.acquireNewId( stableGeneration, unstableGeneration );
+            PageCursorUtil.goTo( cursor, "new root", newRootId );
+
+            bTreeNode.initializeInternal( cursor, stableGeneration, unstableGeneration );
+            bTreeNode.setChildAt( cursor, structurePropagation.midChild, 0,
+                    stableGeneration, unstableGeneration );
+            bTreeNode.insertKeyAndRightChildAt( cursor, structurePropagation.rightKey, structurePropagation.rightChild, 0, 0,
+                    stableGeneration, unstableGeneration );
+            TreeNode.setKeyCount( cursor, 1 );
+            setRoot( newRootId, unstableGeneration );
+            treeLogic.initialize( cursor, ratioToKeepInLeftOnSplit );
+            monitor.treeGrowth();
+        }
+        else if ( structurePropagation.hasMidChildUpdate )
+        {
+            setRoot( GenerationSafePointerPair.pointer( structurePropagation.midChild ), unstableGeneration );
+            treeLogic.initialize( cursor, ratioToKeepInLeftOnSplit );
+        }
+        structurePropagation.clear();
+    }
+
+    /**
+     * Bump unstable generation, increasing the gap between stable and unstable generation. All pointers and tree nodes
+     * with generation in this gap are considered to be 'crashed' and will be cleaned up by {@link CleanupJob}
+     * created in {@link #createCleanupJob(RecoveryCleanupWorkCollector, boolean)}.
+     */
+    private void bumpUnstableGeneration()
+    {
+        generation = generation( stableGeneration( generation ), unstableGeneration( generation ) + 1 );
+    }
+
+    private void forceState() throws IOException
+    {
+        assertNotReadOnly( "Force tree state." );
+        if ( changesSinceLastCheckpoint )
+        {
+            throw new IllegalStateException( "It seems that this method has been called in the wrong state. " +
+                    "It's expected that this is called after opening this tree, but before any changes " +
+                    "have been made" );
+        }
+
+        writeState( pagedFile, CARRY_OVER_PREVIOUS_HEADER );
+        pagedFile.flushAndForce();
+    }
+
+    /**
+     * Called on start if tree was not clean.
+     */
+    private CleanupJob createCleanupJob( RecoveryCleanupWorkCollector recoveryCleanupWorkCollector, boolean needsCleaning )
+    {
+        if ( !needsCleaning )
+        {
+            return CleanupJob.CLEAN;
+        }
+        else
+        {
+            lock.cleanerLock();
+            monitor.cleanupRegistered();
+
+            long generation = this.generation;
+            long stableGeneration = stableGeneration( generation );
+            long unstableGeneration = unstableGeneration( generation );
+            long highTreeNodeId = freeList.lastId() + 1;
+
+            CrashGenerationCleaner crashGenerationCleaner =
+                    new CrashGenerationCleaner( pagedFile, bTreeNode, IdSpace.MIN_TREE_NODE_ID, highTreeNodeId,
+                            stableGeneration, unstableGeneration, monitor );
+            GBPTreeCleanupJob cleanupJob = new GBPTreeCleanupJob( crashGenerationCleaner, lock, monitor, indexFile );
+            recoveryCleanupWorkCollector.add( cleanupJob );
+            return cleanupJob;
+        }
+    }
+
+    public <VISITOR extends GBPTreeVisitor<KEY,VALUE>> VISITOR visit( VISITOR visitor ) throws IOException
+    {
+        try ( PageCursor cursor = openRootCursor( PagedFile.PF_SHARED_READ_LOCK ) )
+        {
+            new GBPTreeStructure<>( bTreeNode, layout, stableGeneration( generation ), unstableGeneration( generation ) )
+                    .visitTree( cursor, writer.cursor, visitor );
+            freeList.visitFreelist( visitor );
+        }
+        return visitor;
+    }
+
+    @SuppressWarnings( "unused" )
+    public void printTree() throws IOException
+    {
+        printTree( false, false, false, false, false );
+    }
+
+    // Utility method
+    /**
+     * Prints the contents of the tree to System.out.
+     *
+     * @param printValues whether or not to print values in the leaf nodes.
+     * @param printPosition whether or not to print position for each key.
+     * @param printState whether or not to print the tree state.
+     * @param printHeader whether or not to print header of each tree node
+     * @param printFreelist whether or not to print freelist
+     * @throws IOException on I/O error.
+     */
+    @SuppressWarnings( "SameParameterValue" )
+    void printTree( boolean printValues, boolean printPosition, boolean printState, boolean printHeader, boolean printFreelist ) throws IOException
     {
         PrintingGBPTreeVisitor<KEY,VALUE> printingVisitor = new PrintingGBPTreeVisitor<>( System.out, printValues, printPosition, printState, printHeader,
                 printFreelist );
@@ -1409,13 +2283,6 @@ public class GBPTree<KEY,VALUE> implements Closeable
             checkOutOfBounds( cursor );
         }
 
-        private void setRoot( long rootPointer )
-        {
-            long rootId = GenerationSafePointerPair.pointer( rootPointer );
-            GBPTree.this.setRoot( rootId, unstableGeneration );
-            treeLogic.initialize( cursor, ratioToKeepInLeftOnSplit );
-        }
-
         @Override
         public VALUE remove( KEY key )
         {
@@ -1444,38 +2311,270 @@ public class GBPTree<KEY,VALUE> implements Closeable
 
         private void handleStructureChanges() throws IOException
         {
-            if ( structurePropagation.hasRightKeyInsert )
+            handleRootStructureChanges( cursor, structurePropagation, treeLogic, ratioToKeepInLeftOnSplit,
+                    stableGeneration, unstableGeneration );
+        }
+
+        @Override
+        public void close()
+        {
+            if ( !writerTaken.compareAndSet( true, false ) )
             {
-                // New root
-                long newRootId = freeList.acquireNewId( stableGeneration, unstableGeneration );
-                PageCursorUtil.goTo( cursor, "new root", newRootId );
+                throw new IllegalStateException( "Tried to close writer of " + GBPTree.this +
+                        ", but writer is already closed." );
+            }
+            closeCursor();
+            lock.writerAndCleanerUnlock();
+        }
 
-                bTreeNode.initializeInternal( cursor, stableGeneration, unstableGeneration );
-                bTreeNode.setChildAt( cursor, structurePropagation.midChild, 0,
-                        stableGeneration, unstableGeneration );
-                bTreeNode.insertKeyAndRightChildAt( cursor, structurePropagation.rightKey, structurePropagation.rightChild, 0, 0,
-                        stableGeneration, unstableGeneration );
-                TreeNode.setKeyCount( cursor, 1 );
-                setRoot( newRootId );
-                monitor.treeGrowth();
+        private void closeCursor()
+        {
+            if ( cursor != null )
+            {
+                cursor.close();
+                cursor = null;
+            }
+        }
+    }
+
+    /**
+     * {@link Writer} which can be used concurrently with other {@link ParallelWriter parallel writers}.
+     * A change is first attempted within the leaf where the key belongs, under shared {@link #structureLock}
+     * and the {@link #leafLatch(long) latch} of that leaf. If the change needs the tree structure to change,
+     * e.g. split, merge or creating a successor, it is instead made using the regular {@link InternalTreeLogic}
+     * under exclusive {@link #structureLock}.
+     */
+    private class ParallelWriter implements Writer<KEY,VALUE>
+    {
+        private final InternalTreeLogic<KEY,VALUE> treeLogic;
+        private final StructurePropagation<KEY> structurePropagation;
+        private final double ratioToKeepInLeftOnSplit;
+        private PageCursor cursor;
+        private boolean closed;
+
+        // Writer can't live past a checkpoint because of the mutex with checkpoint,
+        // therefore safe to locally cache these generation fields from the volatile generation in the tree
+        private long stableGeneration;
+        private long unstableGeneration;
+
+        /**
+         * The {@link #structureVersion} which the path down the tree, remembered by {@link #treeLogic}, is valid for.
+         */
+        private long seenStructureVersion = -1;
+
+        ParallelWriter( double ratioToKeepInLeftOnSplit ) throws IOException
+        {
+            this.ratioToKeepInLeftOnSplit = ratioToKeepInLeftOnSplit;
+            this.structurePropagation = new StructurePropagation<>( layout.newKey(), layout.newKey(), layout.newKey() );
+            this.treeLogic = new InternalTreeLogic<>( freeList, treeNodeFormat.create( pageSize, layout ), layout, monitor );
+
+            openParallelWriter();
+            boolean success = false;
+            try
+            {
+                cursor = pagedFile.io( 0L, PagedFile.PF_SHARED_WRITE_LOCK );
+                stableGeneration = stableGeneration( generation );
+                unstableGeneration = unstableGeneration( generation );
+                success = true;
+            }
+            catch ( Throwable e )
+            {
+                appendTreeInformation( e );
+                throw e;
+            }
+            finally
+            {
+                if ( !success )
+                {
+                    closeCursor();
+                    closeParallelWriter();
+                }
+            }
+        }
+
+        @Override
+        public void put( KEY key, VALUE value )
+        {
+            merge( key, value, ValueMergers.overwrite() );
+        }
+
+        @Override
+        public void merge( KEY key, VALUE value, ValueMerger<KEY,VALUE> valueMerger )
+        {
+            try
+            {
+                LeafChange change;
+                structureLock.readLock().lock();
+                try
+                {
+                    moveToLeaf( key );
+                    synchronized ( leafLatch( cursor.getCurrentPageId() ) )
+                    {
+                        change = treeLogic.insertInLeafWithoutStructureChange( cursor, key, value, valueMerger, unstableGeneration );
+                    }
+                }
+                finally
+                {
+                    structureLock.readLock().unlock();
+                }
+
+                if ( change == LeafChange.STRUCTURE_CHANGE_NEEDED )
+                {
+                    lockStructure();
+                    try
+                    {
+                        treeLogic.insert( cursor, structurePropagation, key, value, valueMerger,
+                                stableGeneration, unstableGeneration );
+                        handleRootStructureChanges( cursor, structurePropagation, treeLogic, ratioToKeepInLeftOnSplit,
+                                stableGeneration, unstableGeneration );
+                    }
+                    finally
+                    {
+                        unlockStructure();
+                    }
+                }
+            }
+            catch ( IOException e )
+            {
+                appendTreeInformation( e );
+                throw new UncheckedIOException( e );
+            }
+            catch ( Throwable t )
+            {
+                appendTreeInformation( t );
+                throw t;
+            }
+
+            checkOutOfBounds( cursor );
+        }
+
+        @Override
+        public VALUE remove( KEY key )
+        {
+            VALUE result;
+            try
+            {
+                LeafChange change;
+                VALUE into = layout.newValue();
+                structureLock.readLock().lock();
+                try
+                {
+                    moveToLeaf( key );
+                    synchronized ( leafLatch( cursor.getCurrentPageId() ) )
+                    {
+                        change = treeLogic.removeFromLeafWithoutStructureChange( cursor, key, into, unstableGeneration );
+                    }
+                }
+                finally
+                {
+                    structureLock.readLock().unlock();
+                }
+
+                switch ( change )
+                {
+                case NOT_FOUND:
+                    result = null;
+                    break;
+                case DONE:
+                    result = into;
+                    break;
+                case DONE_UNDERFLOW:
+                    result = into;
+                    lockStructure();
+                    try
+                    {
+                        treeLogic.handleUnderflowInLeaf( cursor, structurePropagation, key, stableGeneration, unstableGeneration );
+                        handleRootStructureChanges( cursor, structurePropagation, treeLogic, ratioToKeepInLeftOnSplit,
+                                stableGeneration, unstableGeneration );
+                    }
+                    finally
+                    {
+                        unlockStructure();
+                    }
+                    break;
+                case STRUCTURE_CHANGE_NEEDED:
+                    lockStructure();
+                    try
+                    {
+                        result = treeLogic.remove( cursor, structurePropagation, key, into, stableGeneration, unstableGeneration );
+                        handleRootStructureChanges( cursor, structurePropagation, treeLogic, ratioToKeepInLeftOnSplit,
+                                stableGeneration, unstableGeneration );
+                    }
+                    finally
+                    {
+                        unlockStructure();
+                    }
+                    break;
+                default:
+                    throw new IllegalStateException( "Unexpected leaf change " + change );
+                }
             }
-            else if ( structurePropagation.hasMidChildUpdate )
+            catch ( IOException e )
             {
-                setRoot( structurePropagation.midChild );
+                appendTreeInformation( e );
+                throw new UncheckedIOException( e );
             }
-            structurePropagation.clear();
+            catch ( Throwable e )
+            {
+                appendTreeInformation( e );
+                throw e;
+            }
+
+            checkOutOfBounds( cursor );
+            return result;
+        }
+
+        /**
+         * Moves {@link #cursor} to the leaf where {@code key} belongs. Must be called with {@link #structureLock} held.
+         * The path remembered from previous changes is only used if no other writer changed the tree structure since.
+         */
+        private void moveToLeaf( KEY key ) throws IOException
+        {
+            if ( seenStructureVersion != structureVersion )
+            {
+                root.goTo( cursor );
+                treeLogic.initialize( cursor, ratioToKeepInLeftOnSplit );
+                seenStructureVersion = structureVersion;
+            }
+            treeLogic.moveToLeaf( cursor, key, stableGeneration, unstableGeneration );
+        }
+
+        private void lockStructure() throws IOException
+        {
+            structureLock.writeLock().lock();
+            try
+            {
+                if ( seenStructureVersion != structureVersion )
+                {
+                    root.goTo( cursor );
+                    treeLogic.initialize( cursor, ratioToKeepInLeftOnSplit );
+                }
+            }
+            catch ( Throwable e )
+            {
+                structureLock.writeLock().unlock();
+                throw e;
+            }
+        }
+
+        private void unlockStructure()
+        {
+            // This writer's remembered path is kept up to date by the structure change it just made, other writers have to start over
+            seenStructureVersion = ++structureVersion;
+            structureLock.writeLock().unlock();
         }
 
         @Override
         public void close()
         {
-            if ( !writerTaken.compareAndSet( true, false ) )
+            if ( closed )
             {
-                throw new IllegalStateException( "Tried to close writer of " + GBPTree.this +
+                throw new IllegalStateException( "Tried to close parallel writer of " + GBPTree.this +
                         ", but writer is already closed." );
             }
+            closed = true;
             closeCursor();
-            lock.writerAndCleanerUnlock();
+            closeParallelWriter();
         }
 
         private void closeCursor()
@@ -89,6 +89,30 @@ class InternalTreeLogic<KEY,VALUE>
 {
     static final double DEFAULT_SPLIT_RATIO = 0.5;
 
+    /**
+     * Outcome of changing a leaf without changing the structure of the tree.
+     */
+    enum LeafChange
+    {
+        /**
+         * The change was made.
+         */
+        DONE,
+        /**
+         * The key was removed, but left the leaf underflowing.
+         */
+        DONE_UNDERFLOW,
+        /**
+         * Nothing was changed because the key to remove doesn't exist.
+         */
+        NOT_FOUND,
+        /**
+         * Nothing was changed because the change requires changing the structure of the tree,
+         * e.g. creating a successor or splitting the leaf.
+         */
+        STRUCTURE_CHANGE_NEEDED
+    }
+
     private final IdProvider idProvider;
     private final TreeNode<KEY,VALUE> bTreeNode;
     private final Layout<KEY,VALUE> layout;
@@ -735,6 +759,259 @@ class InternalTreeLogic<KEY,VALUE>
         return into;
     }
 
+    /**
+     * Moves the cursor to the leaf where {@code key} belongs, without changing anything on the way.
+     *
+     * @param cursor {@link PageCursor} pinned to root of tree (if first change since {@link #initialize(PageCursor)})
+     * or at where last change left it.
+     * @param key key to find leaf for.
+     * @param stableGeneration stable generation, i.e. generations <= this generation are considered stable.
+     * @param unstableGeneration unstable generation, i.e. generation which is under development right now.
+     * @throws IOException on cursor failure
+     */
+    void moveToLeaf( PageCursor cursor, KEY key, long stableGeneration, long unstableGeneration ) throws IOException
+    {
+        assert cursorIsAtExpectedLocation( cursor );
+        moveToCorrectLeaf( cursor, key, stableGeneration, unstableGeneration );
+    }
+
+    /**
+     * Inserts {@code key} and {@code value}, or merges {@code value} into an existing value, in the leaf which the cursor
+     * has been {@link #moveToLeaf(PageCursor, Object, long, long) moved to}, but only if that can be done within
+     * the leaf itself, i.e. the leaf is already of {@code unstableGeneration} and has room for the change.
+     * Caller must make sure no other writer changes this leaf concurrently.
+     *
+     * @param cursor {@link PageCursor} pinned to the leaf where {@code key} belongs.
+     * @param key key to be inserted
+     * @param value value to be associated with key
+     * @param valueMerger {@link ValueMerger} for deciding what to do with existing keys
+     * @param unstableGeneration unstable generation, i.e. generation which is under development right now.
+     * @return {@link LeafChange#DONE} if the change was made, otherwise {@link LeafChange#STRUCTURE_CHANGE_NEEDED},
+     * in which case nothing was changed.
+     */
+    LeafChange insertInLeafWithoutStructureChange( PageCursor cursor, KEY key, VALUE value, ValueMerger<KEY,VALUE> valueMerger,
+            long unstableGeneration )
+    {
+        if ( TreeNode.generation( cursor ) != unstableGeneration )
+        {
+            // A successor would have to be created
+            return LeafChange.STRUCTURE_CHANGE_NEEDED;
+        }
+
+        int keyCount = TreeNode.keyCount( cursor );
+        int search = search( cursor, LEAF, key, readKey, keyCount );
+        int pos = positionOf( search );
+        if ( isHit( search ) )
+        {
+            bTreeNode.valueAt( cursor, readValue, pos );
+            VALUE mergedValue = valueMerger.merge( readKey, key, readValue, value );
+            if ( mergedValue == null || bTreeNode.setValueAt( cursor, mergedValue, pos ) )
+            {
+                return LeafChange.DONE;
+            }
+            // Merged value has a different size and may not fit
+            return LeafChange.STRUCTURE_CHANGE_NEEDED;
+        }
+
+        Overflow overflow = bTreeNode.leafOverflow( cursor, keyCount, key, value );
+        if ( overflow == YES )
+        {
+            return LeafChange.STRUCTURE_CHANGE_NEEDED;
+        }
+        if ( overflow == NO_NEED_DEFRAG )
+        {
+            bTreeNode.defragmentLeaf( cursor );
+        }
+        bTreeNode.insertKeyValueAt( cursor, key, value, pos, keyCount );
+        TreeNode.setKeyCount( cursor, keyCount + 1 );
+        return LeafChange.DONE;
+    }
+
+    /**
+     * Removes {@code key} from the leaf which the cursor has been {@link #moveToLeaf(PageCursor, Object, long, long) moved to},
+     * but only if the leaf is already of {@code unstableGeneration}. Underflow is not handled here, but reported so that
+     * caller can {@link #handleUnderflowInLeaf(PageCursor, StructurePropagation, Object, long, long) handle it} later.
+     * Caller must make sure no other writer changes this leaf concurrently.
+     *
+     * @param cursor {@link PageCursor} pinned to the leaf where {@code key} belongs.
+     * @param key key to be removed
+     * @param into {@code VALUE} instance to write removed value to
+     * @param unstableGeneration unstable generation, i.e. generation which is under development right now.
+     * @return outcome of the removal, where only {@link LeafChange#DONE} and {@link LeafChange#DONE_UNDERFLOW} changed the leaf.
+     */
+    LeafChange removeFromLeafWithoutStructureChange( PageCursor cursor, KEY key, VALUE into, long unstableGeneration )
+    {
+        int keyCount = TreeNode.keyCount( cursor );
+        int search = search( cursor, LEAF, key, readKey, keyCount );
+        if ( !isHit( search ) )
+        {
+            return LeafChange.NOT_FOUND;
+        }
+        if ( TreeNode.generation( cursor ) != unstableGeneration )
+        {
+            // A successor would have to be created
+            return LeafChange.STRUCTURE_CHANGE_NEEDED;
+        }
+
+        keyCount = simplyRemoveFromLeaf( cursor, into, keyCount, positionOf( search ) );
+        return bTreeNode.leafUnderflow( cursor, keyCount ) ? LeafChange.DONE_UNDERFLOW : LeafChange.DONE;
+    }
+
+    /**
+     * Rebalances or merges the leaf where {@code key} belongs with one of its siblings, if the leaf is underflowing.
+     * Used after {@link #removeFromLeafWithoutStructureChange(PageCursor, Object, Object, long)} left a leaf underflowing.
+     * Other changes may have happened to the tree in between and so the underflow is checked again.
+     * <p>
+     * When this method returns, {@code structurePropagation} will be populated with information about
+     * new generation version of root. This needs to be handled by caller.
+     *
+     * @param cursor {@link PageCursor} pinned to root of tree (if first change since {@link #initialize(PageCursor)})
+     * or at where last change left it.
+     * @param structurePropagation {@link StructurePropagation} used to report structure changes between tree levels.
+     * @param key key which was removed.
+     * @param stableGeneration stable generation, i.e. generations <= this generation are considered stable.
+     * @param unstableGeneration unstable generation, i.e. generation which is under development right now.
+     * @throws IOException on cursor failure
+     */
+    void handleUnderflowInLeaf( PageCursor cursor, StructurePropagation<KEY> structurePropagation, KEY key,
+            long stableGeneration, long unstableGeneration ) throws IOException
+    {
+        assert cursorIsAtExpectedLocation( cursor );
+        moveToCorrectLeaf( cursor, key, stableGeneration, unstableGeneration );
+
+        int keyCount = TreeNode.keyCount( cursor );
+        if ( TreeNode.generation( cursor ) != unstableGeneration || !bTreeNode.leafUnderflow( cursor, keyCount ) )
+        {
+            return;
+        }
+
+        underflowInLeaf( cursor, structurePropagation, keyCount, stableGeneration, unstableGeneration );
+        handleStructureChanges( cursor, structurePropagation, stableGeneration, unstableGeneration );
+        if ( currentLevel <= 0 )
+        {
+            tryShrinkTree( cursor, structurePropagation, stableGeneration, unstableGeneration );
+        }
+    }
+
+    /**
+     * Compacts the leaf where {@code key} belongs. An underflowing leaf is merged with, or rebalanced against, one of its siblings,
+     * just like after a removal. A leaf of stable generation at a page id higher than {@code relocateAbove} gets a successor,
+     * which moves it to whatever page id the {@link IdProvider} hands out. Other leaves are left as they are.
+     * Internal nodes on the path to the leaf are moved the same way, from the bottom up.
+     * <p>
+     * When this method returns, {@code structurePropagation} will be populated with information about
+     * new generation version of root. This needs to be handled by caller.
+     *
+     * @param cursor {@link PageCursor} pinned to root of tree (if first change since {@link #initialize(PageCursor)})
+     * or at where last change left it.
+     * @param structurePropagation {@link StructurePropagation} used to report structure changes between tree levels.
+     * @param key key in the leaf to compact.
+     * @param relocateAbove leaves at page ids higher than this are moved, {@link Long#MAX_VALUE} to not move any leaf.
+     * @param stableGeneration stable generation, i.e. generations <= this generation are considered stable.
+     * @param unstableGeneration unstable generation, i.e. generation which is under development right now.
+     * @return {@code true} if the tree was changed, otherwise {@code false}.
+     * @throws IOException on cursor failure
+     */
+    boolean compactLeaf( PageCursor cursor, StructurePropagation<KEY> structurePropagation, KEY key, long relocateAbove,
+            long stableGeneration, long unstableGeneration ) throws IOException
+    {
+        assert cursorIsAtExpectedLocation( cursor );
+        moveToCorrectLeaf( cursor, key, stableGeneration, unstableGeneration );
+
+        int keyCount = TreeNode.keyCount( cursor );
+        // A root leaf has no siblings to merge with
+        boolean underflow = currentLevel > 0 && bTreeNode.leafUnderflow( cursor, keyCount );
+        boolean changed = false;
+        if ( underflow || (cursor.getCurrentPageId() > relocateAbove && TreeNode.generation( cursor ) != unstableGeneration) )
+        {
+            createSuccessorIfNeeded( cursor, structurePropagation, UPDATE_MID_CHILD, stableGeneration, unstableGeneration );
+            if ( underflow )
+            {
+                underflowInLeaf( cursor, structurePropagation, keyCount, stableGeneration, unstableGeneration );
+            }
+            handleStructureChanges( cursor, structurePropagation, stableGeneration, unstableGeneration );
+            if ( currentLevel <= 0 )
+            {
+                tryShrinkTree( cursor, structurePropagation, stableGeneration, unstableGeneration );
+            }
+            changed = true;
+        }
+
+        if ( relocateAbove != Long.MAX_VALUE && !structurePropagation.hasMidChildUpdate && !structurePropagation.hasRightKeyInsert )
+        {
+            changed |= relocateInternalNodesOnPath( cursor, structurePropagation, relocateAbove, stableGeneration, unstableGeneration );
+        }
+        return changed;
+    }
+
+    /**
+     * Gives internal nodes of stable generation at page ids higher than {@code relocateAbove}, on the path from the cursor up to
+     * the root, a successor. Successor of the root is propagated in {@code structurePropagation} to be handled by caller,
+     * which is why the root is last.
+     */
+    private boolean relocateInternalNodesOnPath( PageCursor cursor, StructurePropagation<KEY> structurePropagation, long relocateAbove,
+            long stableGeneration, long unstableGeneration ) throws IOException
+    {
+        boolean changed = false;
+        int level = TreeNode.isLeaf( cursor ) ? currentLevel - 1 : currentLevel;
+        for ( ; level >= 0; level-- )
+        {
+            if ( levels[level].treeNodeId <= relocateAbove )
+            {
+                continue;
+            }
+            while ( currentLevel > level )
+            {
+                popLevel( cursor );
+            }
+            if ( TreeNode.generation( cursor ) == unstableGeneration )
+            {
+                continue;
+            }
+            createSuccessorIfNeeded( cursor, structurePropagation, UPDATE_MID_CHILD, stableGeneration, unstableGeneration );
+            // Updates the child pointer in the parent, which stays where it is, or leaves a new root for caller to handle
+            handleStructureChanges( cursor, structurePropagation, stableGeneration, unstableGeneration );
+            changed = true;
+        }
+        return changed;
+    }
+
+    /**
+     * Reads the first key of the leaf to the right of the leaf where {@code key} belongs, without changing anything.
+     * Used to walk the leaves one by one between changes to the tree.
+     *
+     * @param cursor {@link PageCursor} pinned to root of tree (if first change since {@link #initialize(PageCursor)})
+     * or at where last change left it.
+     * @param key key in the leaf to find the right sibling of.
+     * @param into {@code KEY} instance to read the first key of the right sibling into.
+     * @param stableGeneration stable generation, i.e. generations <= this generation are considered stable.
+     * @param unstableGeneration unstable generation, i.e. generation which is under development right now.
+     * @return {@code true} if there is a right sibling, otherwise {@code false}.
+     * @throws IOException on cursor failure
+     */
+    boolean firstKeyOfRightSibling( PageCursor cursor, KEY key, KEY into, long stableGeneration, long unstableGeneration ) throws IOException
+    {
+        assert cursorIsAtExpectedLocation( cursor );
+        moveToCorrectLeaf( cursor, key, stableGeneration, unstableGeneration );
+
+        long rightSibling = TreeNode.rightSibling( cursor, stableGeneration, unstableGeneration );
+        PointerChecking.checkPointer( rightSibling, true );
+        if ( !TreeNode.isNode( rightSibling ) )
+        {
+            return false;
+        }
+        try ( PageCursor rightSiblingCursor = cursor.openLinkedCursor( GenerationSafePointerPair.pointer( rightSibling ) ) )
+        {
+            rightSiblingCursor.next();
+            if ( TreeNode.keyCount( rightSiblingCursor ) == 0 )
+            {
+                return false;
+            }
+            bTreeNode.keyAt( rightSiblingCursor, into, 0, LEAF );
+            return true;
+        }
+    }
+
     private void handleStructureChanges( PageCursor cursor, StructurePropagation<KEY> structurePropagation,
             long stableGeneration, long unstableGeneration ) throws IOException
     {
@@ -113,6 +113,17 @@ public interface Layout<KEY, VALUE> extends Comparator<KEY>
      */
     boolean fixedSize();
 
+    /**
+     * Indicate if keys in leaves of a tree created with this layout should be prefix compressed. Only applies to
+     * dynamic size layouts and is decided when the tree is created. Compressed leaves fit more keys sharing long
+     * byte prefixes, e.g. strings, at the cost of decoding keys when reading them and a lower max key-value size.
+     * @return true if keys in leaves should be prefix compressed, otherwise false.
+     */
+    default boolean compressKeyPrefixes()
+    {
+        return false;
+    }
+
     /**
      * Find shortest key (best effort) that separate left from right in sort order
      * and initialize into with result.
@@ -0,0 +1,176 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * Copyright (c) 2018-2020 "Graph Foundation"
+ * Graph Foundation, Inc. [https://graphfoundation.org]
+ *
+ * This file is part of ONgDB.
+ *
+ * ONgDB is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.index.internal.gbptree;
+
+import java.io.IOException;
+import java.util.function.LongConsumer;
+
+import org.neo4j.cursor.RawCursor;
+import org.neo4j.io.pagecache.PageCursor;
+
+/**
+ * Reads all entries of a tree in key order by walking the leaf level from the left-most leaf and following
+ * right sibling pointers. Unlike {@link SeekCursor} this cursor doesn't handle concurrent changes to the tree
+ * and so may only be used while writers are blocked.
+ *
+ * @param <KEY> type of keys
+ * @param <VALUE> type of values
+ */
+class LeafEntriesCursor<KEY,VALUE> implements RawCursor<Hit<KEY,VALUE>,IOException>, Hit<KEY,VALUE>
+{
+    private final PageCursor cursor;
+    private final TreeNode<KEY,VALUE> bTreeNode;
+    private final long stableGeneration;
+    private final long unstableGeneration;
+    private final int progressInterval;
+    private final LongConsumer progress;
+    private final KEY key;
+    private final VALUE value;
+    private int keyCount;
+    private int pos;
+    private long entriesRead;
+
+    /**
+     * @param cursor {@link PageCursor} placed at the root of the tree to read.
+     * @param bTreeNode {@link TreeNode} for reading tree nodes.
+     * @param layout {@link Layout} of the tree.
+     * @param stableGeneration current stable generation.
+     * @param unstableGeneration current unstable generation.
+     * @param progressInterval number of entries read between each call to {@code progress}.
+     * @param progress receives total number of entries read so far, every {@code progressInterval} entries.
+     * @throws IOException on page cache error.
+     */
+    LeafEntriesCursor( PageCursor cursor, TreeNode<KEY,VALUE> bTreeNode, Layout<KEY,VALUE> layout,
+            long stableGeneration, long unstableGeneration, int progressInterval, LongConsumer progress ) throws IOException
+    {
+        this.cursor = cursor;
+        this.bTreeNode = bTreeNode;
+        this.stableGeneration = stableGeneration;
+        this.unstableGeneration = unstableGeneration;
+        this.progressInterval = progressInterval;
+        this.progress = progress;
+        this.key = layout.newKey();
+        this.value = layout.newValue();
+        goToLeftmostLeaf();
+    }
+
+    private void goToLeftmostLeaf() throws IOException
+    {
+        boolean isInternal;
+        do
+        {
+            long child = TreeNode.NO_NODE_FLAG;
+            do
+            {
+                isInternal = TreeNode.isInternal( cursor );
+                if ( isInternal )
+                {
+                    child = bTreeNode.childAt( cursor, 0, stableGeneration, unstableGeneration );
+                }
+                else
+                {
+                    keyCount = TreeNode.keyCount( cursor );
+                }
+            }
+            while ( cursor.shouldRetry() );
+            PageCursorUtil.checkOutOfBounds( cursor );
+
+            if ( isInternal )
+            {
+                TreeNode.goTo( cursor, "child", child );
+            }
+        }
+        while ( isInternal );
+    }
+
+    @Override
+    public boolean next() throws IOException
+    {
+        while ( pos >= keyCount )
+        {
+            long rightSibling;
+            do
+            {
+                rightSibling = TreeNode.rightSibling( cursor, stableGeneration, unstableGeneration );
+            }
+            while ( cursor.shouldRetry() );
+            PageCursorUtil.checkOutOfBounds( cursor );
+            if ( !TreeNode.isNode( rightSibling ) )
+            {
+                return false;
+            }
+
+            TreeNode.goTo( cursor, "right sibling", rightSibling );
+            do
+            {
+                keyCount = TreeNode.keyCount( cursor );
+            }
+            while ( cursor.shouldRetry() );
+            pos = 0;
+        }
+
+        do
+        {
+            bTreeNode.keyValueAt( cursor, key, value, pos );
+        }
+        while ( cursor.shouldRetry() );
+        cursor.checkAndClearCursorException();
+        PageCursorUtil.checkOutOfBounds( cursor );
+        pos++;
+
+        if ( ++entriesRead % progressInterval == 0 )
+        {
+            progress.accept( entriesRead );
+        }
+        return true;
+    }
+
+    @Override
+    public Hit<KEY,VALUE> get()
+    {
+        return this;
+    }
+
+    @Override
+    public KEY key()
+    {
+        return key;
+    }
+
+    @Override
+    public VALUE value()
+    {
+        return value;
+    }
+
+    long entriesRead()
+    {
+        return entriesRead;
+    }
+
+    @Override
+    public void close()
+    {
+        cursor.close();
+    }
+}
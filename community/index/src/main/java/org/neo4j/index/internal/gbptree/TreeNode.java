@@ -349,6 +349,14 @@ abstract class TreeNode<KEY,VALUE>
 
     abstract boolean leafUnderflow( PageCursor cursor, int keyCount );
 
+    /**
+     * Has node, which has been filled by appending keys at the end, reached the given fill factor?
+     * A node without keys has never reached the fill factor.
+     * @param fillFactor fraction of the node to fill, 0 &lt; fillFactor &lt;= 1.
+     * @return true if no more keys should be appended to this node, else false.
+     */
+    abstract boolean reachedFillFactor( PageCursor cursor, int keyCount, Type type, double fillFactor );
+
     /**
      * How do we best rebalance left and right leaf?
      * Can we move keys from underflowing left to right so that none of them underflow?
@@ -93,15 +93,15 @@ public class TreeNodeDynamicSize<KEY, VALUE> extends TreeNode<KEY,VALUE>
     static final int HEADER_LENGTH_DYNAMIC = BYTE_POS_DEADSPACE + bytesPageOffset();
 
     private static final int LEAST_NUMBER_OF_ENTRIES_PER_PAGE = 2;
-    private static final int MINIMUM_ENTRY_SIZE_CAP = Long.SIZE;
+    static final int MINIMUM_ENTRY_SIZE_CAP = Long.SIZE;
     private final int keyValueSizeCap;
     private final MutableIntStack deadKeysOffset = new IntArrayStack();
     private final MutableIntStack aliveKeysOffset = new IntArrayStack();
     private final int maxKeyCount = pageSize / (bytesKeyOffset() + SIZE_KEY_SIZE + SIZE_VALUE_SIZE);
     private final int[] oldOffset = new int[maxKeyCount];
     private final int[] newOffset = new int[maxKeyCount];
-    private final int totalSpace;
-    private final int halfSpace;
+    final int totalSpace;
+    final int halfSpace;
     private final KEY tmpKeyLeft;
     private final KEY tmpKeyRight;
 
@@ -368,7 +368,7 @@ public class TreeNodeDynamicSize<KEY, VALUE> extends TreeNode<KEY,VALUE>
     {
         int keySize = layout.keySize( key );
         int valueSize = layout.valueSize( value );
-        if ( keyValueSizeTooLarge( keySize, valueSize ) )
+        if ( keySize + valueSize > keyValueSizeCap() )
         {
             throw new IllegalArgumentException( "Index key-value size it to large. Please see index documentation for limitations." );
         }
@@ -594,6 +594,15 @@ public class TreeNodeDynamicSize<KEY, VALUE> extends TreeNode<KEY,VALUE>
         return availableSpace > halfSpace;
     }
 
+    @Override
+    boolean reachedFillFactor( PageCursor cursor, int keyCount, Type type, double fillFactor )
+    {
+        int allocSpace = getAllocSpace( cursor, keyCount, type );
+        int deadSpace = getDeadSpace( cursor );
+        int usedSpace = totalSpace - allocSpace - deadSpace;
+        return keyCount > 0 && usedSpace >= totalSpace * fillFactor;
+    }
+
     @Override
     int canRebalanceLeaves( PageCursor leftCursor, int leftKeyCount, PageCursor rightCursor, int rightKeyCount )
     {
@@ -1141,7 +1150,7 @@ public class TreeNodeDynamicSize<KEY, VALUE> extends TreeNode<KEY,VALUE>
         return splitPos;
     }
 
-    private int totalActiveSpace( PageCursor cursor, int keyCount, Type type )
+    int totalActiveSpace( PageCursor cursor, int keyCount, Type type )
     {
         int deadSpace = getDeadSpace( cursor );
         int allocSpace = getAllocSpace( cursor, keyCount, type );
@@ -1200,7 +1209,7 @@ public class TreeNodeDynamicSize<KEY, VALUE> extends TreeNode<KEY,VALUE>
         return PageCursorUtil.getUnsignedShort( cursor, BYTE_POS_DEADSPACE );
     }
 
-    private void placeCursorAtActualKey( PageCursor cursor, int pos, Type type )
+    void placeCursorAtActualKey( PageCursor cursor, int pos, Type type )
     {
         // Set cursor to correct place in offset array
         int keyPosOffset = keyPosOffset( pos, type );
@@ -1221,15 +1230,15 @@ public class TreeNodeDynamicSize<KEY, VALUE> extends TreeNode<KEY,VALUE>
         cursor.setOffset( keyOffset );
     }
 
-    private void readUnreliableKeyValueSize( PageCursor cursor, int keySize, int valueSize, long keyValueSize, int pos )
+    void readUnreliableKeyValueSize( PageCursor cursor, int keySize, int valueSize, long keyValueSize, int pos )
     {
         cursor.setCursorException( format( "Read unreliable key, id=%d, keySize=%d, valueSize=%d, keyValueSizeCap=%d, keyHasTombstone=%b, pos=%d",
-                cursor.getCurrentPageId(), keySize, valueSize, keyValueSizeCap(), extractTombstone( keyValueSize ), pos ) );
+                cursor.getCurrentPageId(), keySize, valueSize, keyValueSizeCap, extractTombstone( keyValueSize ), pos ) );
     }
 
-    private boolean keyValueSizeTooLarge( int keySize, int valueSize )
+    boolean keyValueSizeTooLarge( int keySize, int valueSize )
     {
-        return keySize + valueSize > keyValueSizeCap();
+        return keySize + valueSize > keyValueSizeCap;
     }
 
     private int keyPosOffset( int pos, Type type )
@@ -1244,7 +1253,7 @@ public class TreeNodeDynamicSize<KEY, VALUE> extends TreeNode<KEY,VALUE>
         }
     }
 
-    private int keyPosOffsetLeaf( int pos )
+    int keyPosOffsetLeaf( int pos )
     {
         return HEADER_LENGTH_DYNAMIC + pos * bytesKeyOffset();
     }
@@ -1265,7 +1274,7 @@ public class TreeNodeDynamicSize<KEY, VALUE> extends TreeNode<KEY,VALUE>
         return SIZE_PAGE_REFERENCE;
     }
 
-    private static int bytesKeyOffset()
+    static int bytesKeyOffset()
     {
         return SIZE_OFFSET;
     }
@@ -0,0 +1,726 @@
+/*
+ * Copyright (c) 2018-2020 "Graph Foundation"
+ * Graph Foundation, Inc. [https://graphfoundation.org]
+ *
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of ONgDB.
+ *
+ * ONgDB is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.index.internal.gbptree;
+
+import java.nio.BufferUnderflowException;
+import java.util.Arrays;
+import java.util.StringJoiner;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.neo4j.io.pagecache.ByteArrayPageCursor;
+import org.neo4j.io.pagecache.CursorException;
+import org.neo4j.io.pagecache.PageCursor;
+
+import static java.lang.String.format;
+import static org.neo4j.index.internal.gbptree.DynamicSizeUtil.SIZE_TOTAL_OVERHEAD;
+import static org.neo4j.index.internal.gbptree.DynamicSizeUtil.extractKeySize;
+import static org.neo4j.index.internal.gbptree.DynamicSizeUtil.extractValueSize;
+import static org.neo4j.index.internal.gbptree.DynamicSizeUtil.getOverhead;
+import static org.neo4j.index.internal.gbptree.DynamicSizeUtil.putKeyOffset;
+import static org.neo4j.index.internal.gbptree.DynamicSizeUtil.putKeyValueSize;
+import static org.neo4j.index.internal.gbptree.DynamicSizeUtil.putTombstone;
+import static org.neo4j.index.internal.gbptree.DynamicSizeUtil.readKeyValueSize;
+import static org.neo4j.index.internal.gbptree.PageCursorUtil.getUnsignedShort;
+import static org.neo4j.index.internal.gbptree.PageCursorUtil.putUnsignedShort;
+import static org.neo4j.index.internal.gbptree.TreeNode.Type.INTERNAL;
+import static org.neo4j.index.internal.gbptree.TreeNode.Type.LEAF;
+
+/**
+ * {@link TreeNodeDynamicSize} which prefix compresses keys in leaves. Internal nodes are identical to {@link TreeNodeDynamicSize}.
+ * <p>
+ * Every leaf has a base key, stored as the first entry in its key/value heap, i.e. at the very end of the page. Every key
+ * in the leaf is stored as the length of the prefix it shares with the base key, followed by the bytes that differ.
+ * Keys in a leaf often share long prefixes, e.g. strings or composite keys with the same first value, and so will
+ * take up a fraction of the space they would otherwise take.
+ * <pre>
+ * Base key:  [keyValueSize|base key bytes|base key length 2B]  (ends at pageSize, never moved by defragment)
+ * Key/value: [keyValueSize|shared prefix length 1B-2B|suffix bytes|value]
+ * </pre>
+ * Key size of a key/value entry is the size of the stored shared prefix length and suffix. Shared prefix length takes one byte
+ * if < 128, otherwise two bytes with the highest bit of the first byte set.
+ * <p>
+ * The base key of a leaf is chosen when the first key is inserted into an empty leaf and when a leaf is split, then each half
+ * gets its lowest key as base key if that makes it smaller. Entries moved between leaves when rebalancing or merging are
+ * re-encoded against the base key of the receiving leaf. Keys are decoded with the help of layout on every read, which makes
+ * this format trade some CPU for page density.
+ */
+class TreeNodeDynamicSizeCompressed<KEY,VALUE> extends TreeNodeDynamicSize<KEY,VALUE>
+{
+    static final byte FORMAT_IDENTIFIER = 4;
+    static final byte FORMAT_VERSION = 0;
+
+    private static final int SIZE_BASE_KEY_LENGTH = 2;
+    private static final int SIZE_MAX_SHARED_PREFIX_LENGTH = 2;
+    private static final int SHARED_PREFIX_LENGTH_TWO_BYTES_FLAG = 0x80;
+    private static final int LEAST_NUMBER_OF_ENTRIES_PER_PAGE_INCLUDING_BASE_KEY = 3;
+    private static final byte[] NO_BASE_KEY = new byte[0];
+
+    private final int keyValueSizeCap;
+    private final KEY tmpKeyLeft;
+    private final KEY tmpKeyRight;
+
+    // Serialized form of single key or value, used when encoding keys and values that are not yet in a page
+    private final byte[] keyBytes;
+    private final PageCursor keyBytesCursor;
+    private final byte[] valueBytes;
+    private final PageCursor valueBytesCursor;
+
+    // Buffer compressed keys are assembled in when read. A tree shares its node format instance between all concurrent readers,
+    // which is why this buffer is borrowed rather than owned, a reader finding it already taken assembles into a buffer of its own.
+    private final AtomicReference<KeyBuffer> readKeyBuffer;
+
+    // Base key of the leaf entries are read from, respectively the leaf entries are written to
+    private final byte[] sourceBaseKey;
+    private int sourceBaseKeyLength;
+    private final byte[] targetBaseKey;
+    private int targetBaseKeyLength;
+
+    // Decoded entries, used when leaves are rebuilt as part of split, rebalance and merge.
+    // Key bytes of an entry are directly followed by its value bytes.
+    private byte[] entryBytes;
+    private int entryBytesLength;
+    private int[] entryOffset;
+    private int[] entryKeySize;
+    private int[] entryValueSize;
+    private int entryCount;
+
+    TreeNodeDynamicSizeCompressed( int pageSize, Layout<KEY,VALUE> layout )
+    {
+        super( pageSize, layout );
+        keyValueSizeCap = compressedKeyValueSizeCapFromPageSize( pageSize );
+        if ( keyValueSizeCap < MINIMUM_ENTRY_SIZE_CAP )
+        {
+            throw new MetadataMismatchException(
+                    "We need to fit a base key and at least %d key-value entries per page in leaves. To do that a key-value entry can be at most %dB " +
+                            "with current page size of %dB. We require this cap to be at least %dB.",
+                    LEAST_NUMBER_OF_ENTRIES_PER_PAGE_INCLUDING_BASE_KEY - 1, keyValueSizeCap, pageSize, MINIMUM_ENTRY_SIZE_CAP );
+        }
+
+        tmpKeyLeft = layout.newKey();
+        tmpKeyRight = layout.newKey();
+        keyBytes = new byte[keyValueSizeCap];
+        keyBytesCursor = ByteArrayPageCursor.wrap( keyBytes );
+        valueBytes = new byte[keyValueSizeCap];
+        valueBytesCursor = ByteArrayPageCursor.wrap( valueBytes );
+        readKeyBuffer = new AtomicReference<>( new KeyBuffer( keyValueSizeCap ) );
+        sourceBaseKey = new byte[keyValueSizeCap];
+        targetBaseKey = new byte[keyValueSizeCap];
+        entryBytes = new byte[pageSize * 2];
+        entryOffset = new int[totalSpace / SIZE_TOTAL_OVERHEAD + 1];
+        entryKeySize = new int[entryOffset.length];
+        entryValueSize = new int[entryOffset.length];
+    }
+
+    private static int compressedKeyValueSizeCapFromPageSize( int pageSize )
+    {
+        int totalSpace = pageSize - HEADER_LENGTH_DYNAMIC;
+        return (totalSpace - SIZE_TOTAL_OVERHEAD - SIZE_BASE_KEY_LENGTH) / LEAST_NUMBER_OF_ENTRIES_PER_PAGE_INCLUDING_BASE_KEY -
+                SIZE_TOTAL_OVERHEAD - SIZE_MAX_SHARED_PREFIX_LENGTH;
+    }
+
+    @Override
+    void writeAdditionalHeader( PageCursor cursor )
+    {
+        super.writeAdditionalHeader( cursor );
+        if ( isLeaf( cursor ) )
+        {
+            writeBaseKey( cursor, NO_BASE_KEY, 0, 0 );
+        }
+    }
+
+    @Override
+    public int keyValueSizeCap()
+    {
+        return keyValueSizeCap;
+    }
+
+    @Override
+    KEY keyAt( PageCursor cursor, KEY into, int pos, Type type )
+    {
+        if ( type == INTERNAL )
+        {
+            return super.keyAt( cursor, into, pos, type );
+        }
+
+        placeCursorAtActualKey( cursor, pos, LEAF );
+        long keyValueSize = readKeyValueSize( cursor );
+        int keySize = extractKeySize( keyValueSize );
+        int valueSize = extractValueSize( keyValueSize );
+        if ( keyValueSizeTooLarge( keySize, valueSize ) || keySize < 1 || valueSize < 0 )
+        {
+            readUnreliableKeyValueSize( cursor, keySize, valueSize, keyValueSize, pos );
+            return into;
+        }
+        readCompressedKey( cursor, into, keySize );
+        return into;
+    }
+
+    @Override
+    void keyValueAt( PageCursor cursor, KEY intoKey, VALUE intoValue, int pos )
+    {
+        placeCursorAtActualKey( cursor, pos, LEAF );
+        long keyValueSize = readKeyValueSize( cursor );
+        int keySize = extractKeySize( keyValueSize );
+        int valueSize = extractValueSize( keyValueSize );
+        if ( keyValueSizeTooLarge( keySize, valueSize ) || keySize < 1 || valueSize < 0 )
+        {
+            readUnreliableKeyValueSize( cursor, keySize, valueSize, keyValueSize, pos );
+            return;
+        }
+        readCompressedKey( cursor, intoKey, keySize );
+        layout.readValue( cursor, intoValue, valueSize );
+    }
+
+    @Override
+    void insertKeyValueAt( PageCursor cursor, KEY key, VALUE value, int pos, int keyCount )
+    {
+        int keySize = serializeKey( key );
+        if ( keyCount == 0 )
+        {
+            // First key in an empty leaf becomes its base key
+            writeBaseKey( cursor, keyBytes, 0, keySize );
+        }
+        readTargetBaseKey( cursor );
+        int sharedLength = sharedPrefixLength( keyBytes, 0, keySize, targetBaseKey, 0, targetBaseKeyLength );
+        int storedKeySize = storedKeySize( sharedLength, keySize );
+        int valueSize = layout.valueSize( value );
+        int newKeyValueOffset = getAllocOffset( cursor ) - storedKeySize - valueSize - getOverhead( storedKeySize, valueSize );
+
+        // Write key and value
+        cursor.setOffset( newKeyValueOffset );
+        putKeyValueSize( cursor, storedKeySize, valueSize );
+        putSharedPrefixLength( cursor, sharedLength );
+        cursor.putBytes( keyBytes, sharedLength, keySize - sharedLength );
+        layout.writeValue( cursor, value );
+
+        // Update alloc space
+        setAllocOffset( cursor, newKeyValueOffset );
+
+        // Write to offset array
+        insertSlotsAt( cursor, pos, 1, keyCount, keyPosOffsetLeaf( 0 ), bytesKeyOffset() );
+        cursor.setOffset( keyPosOffsetLeaf( pos ) );
+        putKeyOffset( cursor, newKeyValueOffset );
+    }
+
+    @Override
+    Overflow leafOverflow( PageCursor cursor, int currentKeyCount, KEY newKey, VALUE newValue )
+    {
+        if ( currentKeyCount == 0 )
+        {
+            // Inserting into an empty leaf clears it and makes the new key base key, keyValueSizeCap guarantees that it fits
+            return Overflow.NO;
+        }
+
+        // How much space do we have?
+        int deadSpace = getDeadSpace( cursor );
+        int allocSpace = getAllocOffset( cursor ) - keyPosOffsetLeaf( currentKeyCount );
+
+        // How much space do we need?
+        int keySize = serializeKey( newKey );
+        readTargetBaseKey( cursor );
+        int sharedLength = sharedPrefixLength( keyBytes, 0, keySize, targetBaseKey, 0, targetBaseKeyLength );
+        int neededSpace = entrySpace( storedKeySize( sharedLength, keySize ), layout.valueSize( newValue ) );
+
+        // There is your answer!
+        return neededSpace <= allocSpace ? Overflow.NO :
+               neededSpace <= allocSpace + deadSpace ? Overflow.NO_NEED_DEFRAG : Overflow.YES;
+    }
+
+    @Override
+    int canRebalanceLeaves( PageCursor leftCursor, int leftKeyCount, PageCursor rightCursor, int rightKeyCount )
+    {
+        if ( canMergeLeaves( leftCursor, leftKeyCount, rightCursor, rightKeyCount ) )
+        {
+            return -1;
+        }
+        int leftActiveSpace = totalActiveSpace( leftCursor, leftKeyCount, LEAF );
+        int rightActiveSpace = totalActiveSpace( rightCursor, rightKeyCount, LEAF );
+        if ( leftActiveSpace < rightActiveSpace )
+        {
+            // Moving keys to the right will only create more imbalance
+            return 0;
+        }
+
+        // Entries of left leaf, and base key of right leaf, have already been read by canMergeLeaves
+        int prevDelta;
+        int currentDelta = Math.abs( leftActiveSpace - rightActiveSpace );
+        int keysToMove = 0;
+        int lastChunkSizeInLeft;
+        int lastChunkSizeInRight;
+        do
+        {
+            keysToMove++;
+            int entry = leftKeyCount - keysToMove;
+            lastChunkSizeInLeft = entrySpace( entry, sourceBaseKey, 0, sourceBaseKeyLength );
+            lastChunkSizeInRight = entrySpace( entry, targetBaseKey, 0, targetBaseKeyLength );
+            leftActiveSpace -= lastChunkSizeInLeft;
+            rightActiveSpace += lastChunkSizeInRight;
+
+            prevDelta = currentDelta;
+            currentDelta = Math.abs( leftActiveSpace - rightActiveSpace );
+        }
+        while ( currentDelta < prevDelta && keysToMove < leftKeyCount );
+        keysToMove--; // Move back to optimal split
+        leftActiveSpace += lastChunkSizeInLeft;
+        rightActiveSpace -= lastChunkSizeInRight;
+
+        boolean canRebalance = leftActiveSpace > halfSpace && rightActiveSpace > halfSpace && rightActiveSpace <= totalSpace;
+        return canRebalance ? keysToMove : 0;
+    }
+
+    @Override
+    boolean canMergeLeaves( PageCursor leftCursor, int leftKeyCount, PageCursor rightCursor, int rightKeyCount )
+    {
+        clearEntries();
+        readEntries( leftCursor, 0, leftKeyCount );
+        readTargetBaseKey( rightCursor );
+        int neededSpace = 0;
+        for ( int entry = 0; entry < entryCount; entry++ )
+        {
+            neededSpace += entrySpace( entry, targetBaseKey, 0, targetBaseKeyLength );
+        }
+        int rightActiveSpace = totalActiveSpace( rightCursor, rightKeyCount, LEAF );
+        return totalSpace >= rightActiveSpace + neededSpace;
+    }
+
+    @Override
+    void doSplitLeaf( PageCursor leftCursor, int leftKeyCount, PageCursor rightCursor, int insertPos, KEY newKey,
+            VALUE newValue, KEY newSplitter, double ratioToKeepInLeftOnSplit )
+    {
+        // Decode all entries, including the new one, they will be written to both leaves from scratch
+        clearEntries();
+        readEntries( leftCursor, 0, insertPos );
+        addEntry( newKey, newValue );
+        readEntries( leftCursor, insertPos, leftKeyCount );
+        int keyCountAfterInsert = leftKeyCount + 1;
+
+        // Find split position
+        int splitPos = splitPosInLeaf( keyCountAfterInsert, ratioToKeepInLeftOnSplit );
+        layout.minimalSplitter( entryKey( splitPos - 1, tmpKeyLeft ), entryKey( splitPos, tmpKeyRight ), newSplitter );
+
+        writeLeafWithSmallestBaseKey( leftCursor, 0, splitPos );
+        writeLeafWithSmallestBaseKey( rightCursor, splitPos, keyCountAfterInsert );
+    }
+
+    @Override
+    void moveKeyValuesFromLeftToRight( PageCursor leftCursor, int leftKeyCount, PageCursor rightCursor, int rightKeyCount,
+            int fromPosInLeftNode )
+    {
+        // Rewrite right leaf with moved entries first
+        clearEntries();
+        readEntries( leftCursor, fromPosInLeftNode, leftKeyCount );
+        readEntries( rightCursor, 0, rightKeyCount );
+        readTargetBaseKey( rightCursor );
+        writeLeaf( rightCursor, 0, entryCount, targetBaseKey, 0, targetBaseKeyLength );
+
+        // Kill moved entries in left leaf
+        int deadSpace = getDeadSpace( leftCursor );
+        for ( int pos = fromPosInLeftNode; pos < leftKeyCount; pos++ )
+        {
+            placeCursorAtActualKey( leftCursor, pos, LEAF );
+            int keyOffset = leftCursor.getOffset();
+            long keyValueSize = readKeyValueSize( leftCursor );
+            int keySize = extractKeySize( keyValueSize );
+            int valueSize = extractValueSize( keyValueSize );
+            leftCursor.setOffset( keyOffset );
+            putTombstone( leftCursor );
+            deadSpace += getOverhead( keySize, valueSize ) + keySize + valueSize;
+        }
+        setDeadSpace( leftCursor, deadSpace );
+        setKeyCount( leftCursor, fromPosInLeftNode );
+    }
+
+    @Override
+    void copyKeyValuesFromLeftToRight( PageCursor leftCursor, int leftKeyCount, PageCursor rightCursor, int rightKeyCount )
+    {
+        clearEntries();
+        readEntries( leftCursor, 0, leftKeyCount );
+        readEntries( rightCursor, 0, rightKeyCount );
+        readTargetBaseKey( rightCursor );
+        writeLeaf( rightCursor, 0, entryCount, targetBaseKey, 0, targetBaseKeyLength );
+    }
+
+    @Override
+    void printNode( PageCursor cursor, boolean includeValue, boolean includeAllocSpace, long stableGeneration, long unstableGeneration )
+    {
+        if ( isInternal( cursor ) )
+        {
+            super.printNode( cursor, includeValue, includeAllocSpace, stableGeneration, unstableGeneration );
+            return;
+        }
+
+        int keyCount = keyCount( cursor );
+        String header = "{" + cursor.getCurrentPageId() + "} [allocOffset=" + getAllocOffset( cursor ) + " deadSpace=" + getDeadSpace( cursor ) +
+                " baseKeyLength=" + baseKeyLength( cursor ) + "] ";
+        StringJoiner keys = new StringJoiner( " " );
+        KEY readKey = layout.newKey();
+        VALUE readValue = layout.newValue();
+        for ( int pos = 0; pos < keyCount; pos++ )
+        {
+            keyValueAt( cursor, readKey, readValue, pos );
+            keys.add( includeValue ? readKey + "|" + readValue : readKey.toString() );
+        }
+        System.out.println( header + keys );
+    }
+
+    @Override
+    public String toString()
+    {
+        return "TreeNodeDynamicSizeCompressed[pageSize:" + pageSize + ", keyValueSizeCap:" + keyValueSizeCap() + "]";
+    }
+
+    /**
+     * Calculates a position where to split the entries decoded by {@link #doSplitLeaf(PageCursor, int, PageCursor, int, Object, Object, Object, double)}
+     * such that both leaves fit if they keep the base key of the leaf being split, leaving left leaf filled as close to
+     * ratioToKeepInLeftOnSplit as possible.
+     */
+    private int splitPosInLeaf( int keyCountAfterInsert, double ratioToKeepInLeftOnSplit )
+    {
+        int availableSpace = totalSpace - baseKeySpace( sourceBaseKeyLength );
+        int targetLeftSpace = (int) (availableSpace * ratioToKeepInLeftOnSplit);
+        int totalEntrySpace = 0;
+        for ( int entry = 0; entry < keyCountAfterInsert; entry++ )
+        {
+            totalEntrySpace += entrySpace( entry, sourceBaseKey, 0, sourceBaseKeyLength );
+        }
+
+        int splitPos = -1;
+        int bestDelta = Integer.MAX_VALUE;
+        int accumulatedLeftSpace = 0;
+        for ( int pos = 1; pos < keyCountAfterInsert; pos++ )
+        {
+            accumulatedLeftSpace += entrySpace( pos - 1, sourceBaseKey, 0, sourceBaseKeyLength );
+            if ( accumulatedLeftSpace > availableSpace )
+            {
+                break;
+            }
+            int delta = Math.abs( accumulatedLeftSpace - targetLeftSpace );
+            if ( totalEntrySpace - accumulatedLeftSpace <= availableSpace && delta < bestDelta )
+            {
+                splitPos = pos;
+                bestDelta = delta;
+            }
+        }
+        if ( splitPos == -1 )
+        {
+            throw new IllegalStateException(
+                    format( "There's not enough space to insert new key, even when splitting the leaf. Space needed:%d, max space allowed:%d",
+                            totalEntrySpace, availableSpace * 2 ) );
+        }
+        return splitPos;
+    }
+
+    /**
+     * Writes decoded entries [fromEntry, toEntry) to the leaf, with either its lowest key or the base key of the leaf the entries
+     * were read from as base key, whichever gives the smallest total size.
+     */
+    private void writeLeafWithSmallestBaseKey( PageCursor cursor, int fromEntry, int toEntry )
+    {
+        int lowestKeyOffset = entryOffset[fromEntry];
+        int lowestKeySize = entryKeySize[fromEntry];
+        int spaceWithSourceBaseKey = baseKeySpace( sourceBaseKeyLength );
+        int spaceWithLowestKey = baseKeySpace( lowestKeySize );
+        for ( int entry = fromEntry; entry < toEntry; entry++ )
+        {
+            spaceWithSourceBaseKey += entrySpace( entry, sourceBaseKey, 0, sourceBaseKeyLength );
+            spaceWithLowestKey += entrySpace( entry, entryBytes, lowestKeyOffset, lowestKeySize );
+        }
+
+        if ( spaceWithLowestKey <= spaceWithSourceBaseKey )
+        {
+            writeLeaf( cursor, fromEntry, toEntry, entryBytes, lowestKeyOffset, lowestKeySize );
+        }
+        else
+        {
+            writeLeaf( cursor, fromEntry, toEntry, sourceBaseKey, 0, sourceBaseKeyLength );
+        }
+    }
+
+    /**
+     * Clears the leaf and writes decoded entries [fromEntry, toEntry) to it, encoded against the given base key. Sets key count.
+     */
+    private void writeLeaf( PageCursor cursor, int fromEntry, int toEntry, byte[] baseKey, int baseKeyOffset, int baseKeyLength )
+    {
+        writeBaseKey( cursor, baseKey, baseKeyOffset, baseKeyLength );
+        int allocOffset = getAllocOffset( cursor );
+        for ( int entry = fromEntry, pos = 0; entry < toEntry; entry++, pos++ )
+        {
+            int offset = entryOffset[entry];
+            int keySize = entryKeySize[entry];
+            int valueSize = entryValueSize[entry];
+            int sharedLength = sharedPrefixLength( entryBytes, offset, keySize, baseKey, baseKeyOffset, baseKeyLength );
+            int storedKeySize = storedKeySize( sharedLength, keySize );
+
+            allocOffset -= getOverhead( storedKeySize, valueSize ) + storedKeySize + valueSize;
+            cursor.setOffset( allocOffset );
+            putKeyValueSize( cursor, storedKeySize, valueSize );
+            putSharedPrefixLength( cursor, sharedLength );
+            cursor.putBytes( entryBytes, offset + sharedLength, keySize - sharedLength + valueSize );
+
+            cursor.setOffset( keyPosOffsetLeaf( pos ) );
+            putKeyOffset( cursor, allocOffset );
+        }
+        setAllocOffset( cursor, allocOffset );
+        setKeyCount( cursor, toEntry - fromEntry );
+    }
+
+    /**
+     * Overwrites the base key of the leaf, which also clears all key/value entries in it.
+     */
+    private void writeBaseKey( PageCursor cursor, byte[] baseKey, int baseKeyOffset, int baseKeyLength )
+    {
+        int baseKeyEntryOffset = pageSize - baseKeySpace( baseKeyLength );
+        cursor.setOffset( baseKeyEntryOffset );
+        putKeyValueSize( cursor, baseKeyLength, SIZE_BASE_KEY_LENGTH );
+        cursor.putBytes( baseKey, baseKeyOffset, baseKeyLength );
+        putUnsignedShort( cursor, baseKeyLength );
+        setAllocOffset( cursor, baseKeyEntryOffset );
+        setDeadSpace( cursor, 0 );
+    }
+
+    private int baseKeyLength( PageCursor cursor )
+    {
+        return getUnsignedShort( cursor, pageSize - SIZE_BASE_KEY_LENGTH );
+    }
+
+    private int baseKeyOffset( int baseKeyLength )
+    {
+        return pageSize - SIZE_BASE_KEY_LENGTH - baseKeyLength;
+    }
+
+    private static int baseKeySpace( int baseKeyLength )
+    {
+        return getOverhead( baseKeyLength, SIZE_BASE_KEY_LENGTH ) + baseKeyLength + SIZE_BASE_KEY_LENGTH;
+    }
+
+    private void readTargetBaseKey( PageCursor cursor )
+    {
+        targetBaseKeyLength = baseKeyLength( cursor );
+        cursor.setOffset( baseKeyOffset( targetBaseKeyLength ) );
+        cursor.getBytes( targetBaseKey, 0, targetBaseKeyLength );
+    }
+
+    private void readCompressedKey( PageCursor cursor, KEY into, int storedKeySize )
+    {
+        int sharedLength = readSharedPrefixLength( cursor );
+        int suffixLength = storedKeySize - sharedPrefixLengthSize( sharedLength );
+        int baseKeyLength = baseKeyLength( cursor );
+        if ( suffixLength < 0 || sharedLength > baseKeyLength || baseKeyLength > keyValueSizeCap )
+        {
+            cursor.setCursorException( format( "Read unreliable compressed key, id=%d, storedKeySize=%d, sharedPrefixLength=%d, baseKeyLength=%d",
+                    cursor.getCurrentPageId(), storedKeySize, sharedLength, baseKeyLength ) );
+            return;
+        }
+        if ( sharedLength == 0 )
+        {
+            layout.readKey( cursor, into, suffixLength );
+            return;
+        }
+
+        int keySize = sharedLength + suffixLength;
+        if ( keySize > keyValueSizeCap )
+        {
+            cursor.setCursorException( format( "Read unreliable compressed key, id=%d, keySize=%d", cursor.getCurrentPageId(), keySize ) );
+            return;
+        }
+
+        // Assemble key from base key prefix and suffix, then leave cursor after suffix
+        KeyBuffer buffer = readKeyBuffer.getAndSet( null );
+        if ( buffer == null )
+        {
+            buffer = new KeyBuffer( keyValueSizeCap );
+        }
+        try
+        {
+            cursor.getBytes( buffer.bytes, sharedLength, suffixLength );
+            int suffixEnd = cursor.getOffset();
+            cursor.setOffset( baseKeyOffset( baseKeyLength ) );
+            cursor.getBytes( buffer.bytes, 0, sharedLength );
+            cursor.setOffset( suffixEnd );
+            buffer.cursor.setOffset( 0 );
+            layout.readKey( buffer.cursor, into, keySize );
+            buffer.cursor.checkAndClearCursorException();
+        }
+        catch ( CursorException e )
+        {
+            // Buffer is reused so an unreliable read noticed by layout is handed over to the page cursor, which retries it
+            cursor.setCursorException( e.getMessage() );
+        }
+        catch ( IndexOutOfBoundsException | BufferUnderflowException e )
+        {
+            // Can happen with inconsistent data from a concurrent write, the read will be retried
+            cursor.setCursorException( format( "Read unreliable compressed key, id=%d, keySize=%d", cursor.getCurrentPageId(), keySize ) );
+        }
+        finally
+        {
+            readKeyBuffer.lazySet( buffer );
+        }
+    }
+
+    private void clearEntries()
+    {
+        entryCount = 0;
+        entryBytesLength = 0;
+    }
+
+    /**
+     * Decodes entries [fromPos, toPos) from leaf and appends them to decoded entries. Base key of the leaf is kept as source base key.
+     */
+    private void readEntries( PageCursor cursor, int fromPos, int toPos )
+    {
+        sourceBaseKeyLength = baseKeyLength( cursor );
+        cursor.setOffset( baseKeyOffset( sourceBaseKeyLength ) );
+        cursor.getBytes( sourceBaseKey, 0, sourceBaseKeyLength );
+        for ( int pos = fromPos; pos < toPos; pos++ )
+        {
+            placeCursorAtActualKey( cursor, pos, LEAF );
+            long keyValueSize = readKeyValueSize( cursor );
+            int storedKeySize = extractKeySize( keyValueSize );
+            int valueSize = extractValueSize( keyValueSize );
+            int sharedLength = readSharedPrefixLength( cursor );
+            int suffixLength = storedKeySize - sharedPrefixLengthSize( sharedLength );
+
+            int offset = newEntry( sharedLength + suffixLength, valueSize );
+            System.arraycopy( sourceBaseKey, 0, entryBytes, offset, sharedLength );
+            cursor.getBytes( entryBytes, offset + sharedLength, suffixLength + valueSize );
+        }
+    }
+
+    private void addEntry( KEY key, VALUE value )
+    {
+        int keySize = serializeKey( key );
+        int valueSize = layout.valueSize( value );
+        valueBytesCursor.setOffset( 0 );
+        layout.writeValue( valueBytesCursor, value );
+
+        int offset = newEntry( keySize, valueSize );
+        System.arraycopy( keyBytes, 0, entryBytes, offset, keySize );
+        System.arraycopy( valueBytes, 0, entryBytes, offset + keySize, valueSize );
+    }
+
+    private int newEntry( int keySize, int valueSize )
+    {
+        int offset = entryBytesLength;
+        int length = keySize + valueSize;
+        if ( offset + length > entryBytes.length )
+        {
+            entryBytes = Arrays.copyOf( entryBytes, Math.max( entryBytes.length * 2, offset + length ) );
+        }
+        if ( entryCount == entryOffset.length )
+        {
+            entryOffset = Arrays.copyOf( entryOffset, entryCount * 2 );
+            entryKeySize = Arrays.copyOf( entryKeySize, entryCount * 2 );
+            entryValueSize = Arrays.copyOf( entryValueSize, entryCount * 2 );
+        }
+        entryOffset[entryCount] = offset;
+        entryKeySize[entryCount] = keySize;
+        entryValueSize[entryCount] = valueSize;
+        entryCount++;
+        entryBytesLength += length;
+        return offset;
+    }
+
+    private KEY entryKey( int entry, KEY into )
+    {
+        int keySize = entryKeySize[entry];
+        System.arraycopy( entryBytes, entryOffset[entry], keyBytes, 0, keySize );
+        keyBytesCursor.setOffset( 0 );
+        layout.readKey( keyBytesCursor, into, keySize );
+        return into;
+    }
+
+    private int entrySpace( int entry, byte[] baseKey, int baseKeyOffset, int baseKeyLength )
+    {
+        int keySize = entryKeySize[entry];
+        int sharedLength = sharedPrefixLength( entryBytes, entryOffset[entry], keySize, baseKey, baseKeyOffset, baseKeyLength );
+        return entrySpace( storedKeySize( sharedLength, keySize ), entryValueSize[entry] );
+    }
+
+    private static int entrySpace( int storedKeySize, int valueSize )
+    {
+        return bytesKeyOffset() + getOverhead( storedKeySize, valueSize ) + storedKeySize + valueSize;
+    }
+
+    private int serializeKey( KEY key )
+    {
+        keyBytesCursor.setOffset( 0 );
+        layout.writeKey( keyBytesCursor, key );
+        return layout.keySize( key );
+    }
+
+    private static int sharedPrefixLength( byte[] key, int keyOffset, int keyLength, byte[] baseKey, int baseKeyOffset, int baseKeyLength )
+    {
+        int maxLength = Math.min( keyLength, baseKeyLength );
+        int length = 0;
+        while ( length < maxLength && key[keyOffset + length] == baseKey[baseKeyOffset + length] )
+        {
+            length++;
+        }
+        return length;
+    }
+
+    private static int storedKeySize( int sharedLength, int keySize )
+    {
+        return sharedPrefixLengthSize( sharedLength ) + keySize - sharedLength;
+    }
+
+    private static int sharedPrefixLengthSize( int sharedLength )
+    {
+        return sharedLength < SHARED_PREFIX_LENGTH_TWO_BYTES_FLAG ? 1 : SIZE_MAX_SHARED_PREFIX_LENGTH;
+    }
+
+    private static void putSharedPrefixLength( PageCursor cursor, int sharedLength )
+    {
+        if ( sharedLength < SHARED_PREFIX_LENGTH_TWO_BYTES_FLAG )
+        {
+            cursor.putByte( (byte) sharedLength );
+        }
+        else
+        {
+            cursor.putByte( (byte) (SHARED_PREFIX_LENGTH_TWO_BYTES_FLAG | (sharedLength >>> Byte.SIZE)) );
+            cursor.putByte( (byte) sharedLength );
+        }
+    }
+
+    private static int readSharedPrefixLength( PageCursor cursor )
+    {
+        int firstByte = cursor.getByte() & 0xFF;
+        if ( (firstByte & SHARED_PREFIX_LENGTH_TWO_BYTES_FLAG) == 0 )
+        {
+            return firstByte;
+        }
+        return ((firstByte & ~SHARED_PREFIX_LENGTH_TWO_BYTES_FLAG) << Byte.SIZE) | (cursor.getByte() & 0xFF);
+    }
+
+    private static class KeyBuffer
+    {
+        private final byte[] bytes;
+        private final PageCursor cursor;
+
+        KeyBuffer( int size )
+        {
+            bytes = new byte[size];
+            cursor = ByteArrayPageCursor.wrap( bytes );
+        }
+    }
+}
@@ -78,6 +78,30 @@ class TreeNodeSelector
         }
     };
 
+    /**
+     * Creates {@link TreeNodeDynamicSizeCompressed} instances.
+     */
+    static Factory DYNAMIC_COMPRESSED = new Factory()
+    {
+        @Override
+        public <KEY,VALUE> TreeNode<KEY,VALUE> create( int pageSize, Layout<KEY,VALUE> layout )
+        {
+            return new TreeNodeDynamicSizeCompressed<>( pageSize, layout );
+        }
+
+        @Override
+        public byte formatIdentifier()
+        {
+            return TreeNodeDynamicSizeCompressed.FORMAT_IDENTIFIER;
+        }
+
+        @Override
+        public byte formatVersion()
+        {
+            return TreeNodeDynamicSizeCompressed.FORMAT_VERSION;
+        }
+    };
+
     /**
      * Selects a format based on the given {@link Layout}.
      *
@@ -86,8 +110,12 @@ class TreeNodeSelector
      */
     static Factory selectByLayout( Layout<?,?> layout )
     {
-        // For now the selection is done in a simple fashion, by looking at layout.fixedSize().
-        return layout.fixedSize() ? FIXED : DYNAMIC;
+        // For now the selection is done in a simple fashion, by looking at layout.fixedSize() and layout.compressKeyPrefixes().
+        if ( layout.fixedSize() )
+        {
+            return FIXED;
+        }
+        return layout.compressKeyPrefixes() ? DYNAMIC_COMPRESSED : DYNAMIC;
     }
 
     /**
@@ -99,7 +127,7 @@ class TreeNodeSelector
      */
     static Factory selectByFormat( byte formatIdentifier, byte formatVersion )
     {
-        // For now do a simple selection of the two formats we know. Moving forward this can contain
+        // For now do a simple selection of the formats we know. Moving forward this can contain
         // many more identifiers and different versions of each.
         if ( formatIdentifier == TreeNodeFixedSize.FORMAT_IDENTIFIER && formatVersion == TreeNodeFixedSize.FORMAT_VERSION )
         {
@@ -109,6 +137,11 @@ class TreeNodeSelector
         {
             return DYNAMIC;
         }
+        else if ( formatIdentifier == TreeNodeDynamicSizeCompressed.FORMAT_IDENTIFIER &&
+                formatVersion == TreeNodeDynamicSizeCompressed.FORMAT_VERSION )
+        {
+            return DYNAMIC_COMPRESSED;
+        }
         throw new IllegalArgumentException(
                 format( "Unknown format identifier:%d and version:%d combination", formatIdentifier, formatVersion ) );
     }
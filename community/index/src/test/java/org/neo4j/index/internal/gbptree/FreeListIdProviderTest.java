@@ -30,6 +30,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.ThreadLocalRandom;
 
@@ -267,6 +268,67 @@ class FreeListIdProviderTest
         assertTrue( expected.isEmpty() );
     }
 
+    @Test
+    void shouldTrimFreeIdsAtEndWhenDefragmenting() throws Exception
+    {
+        // GIVEN ids BASE_ID + 2 ... BASE_ID + 11, where some of them are released
+        for ( int i = 0; i < 10; i++ )
+        {
+            freelist.acquireNewId( GENERATION_ONE, GENERATION_TWO );
+        }
+        long[] releasedIds = {BASE_ID + 11, BASE_ID + 5, BASE_ID + 9, BASE_ID + 3, BASE_ID + 10};
+        for ( long releasedId : releasedIds )
+        {
+            freelist.releaseId( GENERATION_ONE, GENERATION_TWO, releasedId );
+        }
+
+        // WHEN
+        long trimmed = freelist.defragment( GENERATION_TWO, GENERATION_THREE );
+
+        // THEN ids at the end of the id space are handed out again before growing beyond them
+        assertEquals( 3, trimmed );
+        assertEquals( BASE_ID + 8, freelist.lastId() );
+        // BASE_ID + 3 became the new free-list page
+        assertEquals( BASE_ID + 5, freelist.acquireNewId( GENERATION_TWO, GENERATION_THREE ) );
+        assertEquals( BASE_ID + 9, freelist.acquireNewId( GENERATION_TWO, GENERATION_THREE ) );
+        // and the previous free-list page is free after next checkpoint
+        assertEquals( BASE_ID + 1, freelist.acquireNewId( GENERATION_THREE, GENERATION_FOUR ) );
+    }
+
+    @Test
+    void shouldAcquireIdsInAscendingOrderAfterDefragmenting() throws Exception
+    {
+        // GIVEN ids released in random order, spanning multiple free-list pages
+        List<Long> releasedIds = new ArrayList<>();
+        for ( int i = 0; i < freelist.entriesPerPage() * 5; i++ )
+        {
+            releasedIds.add( freelist.acquireNewId( GENERATION_ONE, GENERATION_TWO ) );
+        }
+        long highestInUse = freelist.acquireNewId( GENERATION_ONE, GENERATION_TWO );
+        Collections.shuffle( releasedIds, random.random() );
+        for ( long releasedId : releasedIds )
+        {
+            freelist.releaseId( GENERATION_ONE, GENERATION_TWO, releasedId );
+        }
+
+        // WHEN
+        freelist.defragment( GENERATION_TWO, GENERATION_THREE );
+
+        // THEN
+        MutableLongSet expected = new LongHashSet();
+        releasedIds.forEach( expected::add );
+        long prevId = -1;
+        long acquiredId;
+        while ( (acquiredId = freelist.acquireNewId( GENERATION_TWO, GENERATION_THREE )) < highestInUse )
+        {
+            assertTrue( acquiredId > prevId );
+            assertTrue( expected.remove( acquiredId ) );
+            prevId = acquiredId;
+        }
+        // all except the few used for the new free-list pages were acquired
+        assertTrue( expected.size() < releasedIds.size() / 2 );
+    }
+
     private void fillPageWithRandomBytes( long releasedId )
     {
         cursor.next( releasedId );
@@ -0,0 +1,267 @@
+/*
+ * Copyright (c) 2018-2020 "Graph Foundation"
+ * Graph Foundation, Inc. [https://graphfoundation.org]
+ *
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of ONgDB.
+ *
+ * ONgDB is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.index.internal.gbptree;
+
+import org.apache.commons.lang3.mutable.MutableLong;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.io.IOException;
+
+import org.neo4j.cursor.RawCursor;
+import org.neo4j.graphdb.config.Configuration;
+import org.neo4j.io.fs.DefaultFileSystemAbstraction;
+import org.neo4j.io.mem.MemoryAllocator;
+import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.io.pagecache.impl.SingleFilePageSwapperFactory;
+import org.neo4j.io.pagecache.impl.muninn.MuninnPageCache;
+import org.neo4j.io.pagecache.tracing.PageCacheTracer;
+import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracerSupplier;
+import org.neo4j.memory.LocalMemoryTracker;
+import org.neo4j.scheduler.ThreadPoolJobScheduler;
+import org.neo4j.test.extension.Inject;
+import org.neo4j.test.extension.TestDirectoryExtension;
+import org.neo4j.test.rule.TestDirectory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.neo4j.io.pagecache.tracing.cursor.context.EmptyVersionContextSupplier.EMPTY;
+
+@ExtendWith( TestDirectoryExtension.class )
+class GBPTreeBulkLoadTest
+{
+    @Inject
+    TestDirectory directory;
+    private PageCache pageCache;
+    private ThreadPoolJobScheduler jobScheduler;
+
+    @BeforeEach
+    void createPageCache()
+    {
+        SingleFilePageSwapperFactory factory = new SingleFilePageSwapperFactory();
+        factory.open( new DefaultFileSystemAbstraction(), Configuration.EMPTY );
+        MemoryAllocator mman = MemoryAllocator.createAllocator( "8 MiB", new LocalMemoryTracker() );
+        jobScheduler = new ThreadPoolJobScheduler();
+        pageCache = new MuninnPageCache( factory, mman, 256, PageCacheTracer.NULL, PageCursorTracerSupplier.NULL, EMPTY, jobScheduler );
+    }
+
+    @AfterEach
+    void tearDownPageCache()
+    {
+        pageCache.close();
+        jobScheduler.close();
+    }
+
+    @Test
+    void shouldBulkLoadFixedSizeEntries() throws IOException
+    {
+        shouldBulkLoad( layout( true ), 1.0 );
+    }
+
+    @Test
+    void shouldBulkLoadDynamicSizeEntries() throws IOException
+    {
+        shouldBulkLoad( layout( false ), 1.0 );
+    }
+
+    @Test
+    void shouldBulkLoadWithLowerFillFactor() throws IOException
+    {
+        shouldBulkLoad( layout( true ), 0.5 );
+        shouldBulkLoad( layout( false ), 0.5 );
+    }
+
+    @Test
+    void shouldBulkLoadNothing() throws IOException
+    {
+        SimpleLongLayout layout = layout( true );
+        try ( GBPTree<MutableLong,MutableLong> tree = new GBPTreeBuilder<>( pageCache, directory.file( "index" ), layout ).build() )
+        {
+            // when
+            tree.bulkLoad( new SequenceCursor( layout, 0, 1 ), 1.0 );
+
+            // then
+            assertEntries( tree, layout, 0, 1 );
+            assertTrue( tree.consistencyCheck() );
+        }
+    }
+
+    @Test
+    void shouldAllowRegularWritesAfterBulkLoad() throws IOException
+    {
+        SimpleLongLayout layout = layout( true );
+        try ( GBPTree<MutableLong,MutableLong> tree = new GBPTreeBuilder<>( pageCache, directory.file( "index" ), layout ).build() )
+        {
+            // given only even keys
+            long count = 50_000;
+            tree.bulkLoad( new SequenceCursor( layout, count, 2 ), 0.8 );
+
+            // when adding all odd keys
+            try ( Writer<MutableLong,MutableLong> writer = tree.writer() )
+            {
+                for ( long key = 1; key < count * 2; key += 2 )
+                {
+                    writer.put( layout.key( key ), layout.value( key ) );
+                }
+            }
+
+            // then
+            assertEntries( tree, layout, count * 2, 1 );
+            assertTrue( tree.consistencyCheck() );
+        }
+    }
+
+    @Test
+    void shouldFailOnEntriesOutOfOrder() throws IOException
+    {
+        SimpleLongLayout layout = layout( true );
+        try ( GBPTree<MutableLong,MutableLong> tree = new GBPTreeBuilder<>( pageCache, directory.file( "index" ), layout ).build() )
+        {
+            assertThrows( IllegalArgumentException.class, () -> tree.bulkLoad( new SequenceCursor( layout, 10, 0 ), 1.0 ) );
+        }
+    }
+
+    @Test
+    void shouldFailOnNonEmptyTree() throws IOException
+    {
+        SimpleLongLayout layout = layout( true );
+        try ( GBPTree<MutableLong,MutableLong> tree = new GBPTreeBuilder<>( pageCache, directory.file( "index" ), layout ).build() )
+        {
+            // given
+            try ( Writer<MutableLong,MutableLong> writer = tree.writer() )
+            {
+                writer.put( layout.key( 0 ), layout.value( 0 ) );
+            }
+
+            // when/then
+            assertThrows( IllegalStateException.class, () -> tree.bulkLoad( new SequenceCursor( layout, 10, 1 ), 1.0 ) );
+        }
+    }
+
+    @Test
+    void shouldFailOnInvalidFillFactor() throws IOException
+    {
+        SimpleLongLayout layout = layout( true );
+        try ( GBPTree<MutableLong,MutableLong> tree = new GBPTreeBuilder<>( pageCache, directory.file( "index" ), layout ).build() )
+        {
+            assertThrows( IllegalArgumentException.class, () -> tree.bulkLoad( new SequenceCursor( layout, 10, 1 ), 0 ) );
+            assertThrows( IllegalArgumentException.class, () -> tree.bulkLoad( new SequenceCursor( layout, 10, 1 ), 1.5 ) );
+        }
+    }
+
+    private void shouldBulkLoad( SimpleLongLayout layout, double fillFactor ) throws IOException
+    {
+        String name = "index-" + (layout.fixedSize() ? "fixed" : "dynamic") + "-" + fillFactor;
+        try ( GBPTree<MutableLong,MutableLong> tree = new GBPTreeBuilder<>( pageCache, directory.file( name ), layout ).build() )
+        {
+            // when
+            long count = 200_000;
+            tree.bulkLoad( new SequenceCursor( layout, count, 1 ), fillFactor );
+
+            // then
+            assertEntries( tree, layout, count, 1 );
+            assertTrue( tree.consistencyCheck() );
+        }
+    }
+
+    private static SimpleLongLayout layout( boolean fixedSize )
+    {
+        return SimpleLongLayout.longLayout()
+                .withFixedSize( fixedSize )
+                .build();
+    }
+
+    private static void assertEntries( GBPTree<MutableLong,MutableLong> tree, SimpleLongLayout layout, long to, long stride ) throws IOException
+    {
+        long expected = 0;
+        try ( RawCursor<Hit<MutableLong,MutableLong>,IOException> seek = tree.seek( layout.key( 0 ), layout.key( Long.MAX_VALUE ) ) )
+        {
+            while ( seek.next() )
+            {
+                Hit<MutableLong,MutableLong> hit = seek.get();
+                assertEquals( expected, hit.key().longValue() );
+                assertEquals( expected, hit.value().longValue() );
+                expected += stride;
+            }
+        }
+        assertEquals( to, expected );
+    }
+
+    /**
+     * Produces {@code count} entries with keys 0, stride, 2 * stride ... where key and value are equal.
+     */
+    private static class SequenceCursor implements RawCursor<Hit<MutableLong,MutableLong>,IOException>, Hit<MutableLong,MutableLong>
+    {
+        private final long count;
+        private final long stride;
+        private final MutableLong key;
+        private final MutableLong value;
+        private long i = -1;
+
+        SequenceCursor( SimpleLongLayout layout, long count, long stride )
+        {
+            this.count = count;
+            this.stride = stride;
+            this.key = layout.newKey();
+            this.value = layout.newValue();
+        }
+
+        @Override
+        public boolean next()
+        {
+            if ( ++i < count )
+            {
+                key.setValue( i * stride );
+                value.setValue( i * stride );
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        public Hit<MutableLong,MutableLong> get()
+        {
+            return this;
+        }
+
+        @Override
+        public MutableLong key()
+        {
+            return key;
+        }
+
+        @Override
+        public MutableLong value()
+        {
+            return value;
+        }
+
+        @Override
+        public void close()
+        {
+        }
+    }
+}
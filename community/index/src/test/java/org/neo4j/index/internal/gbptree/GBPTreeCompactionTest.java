@@ -0,0 +1,487 @@
+/*
+ * Copyright (c) 2018-2020 "Graph Foundation"
+ * Graph Foundation, Inc. [https://graphfoundation.org]
+ *
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of ONgDB.
+ *
+ * ONgDB is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.index.internal.gbptree;
+
+import org.apache.commons.lang3.mutable.MutableLong;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.neo4j.cursor.RawCursor;
+import org.neo4j.graphdb.config.Configuration;
+import org.neo4j.io.fs.DefaultFileSystemAbstraction;
+import org.neo4j.io.mem.MemoryAllocator;
+import org.neo4j.io.pagecache.IOLimiter;
+import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.io.pagecache.impl.SingleFilePageSwapperFactory;
+import org.neo4j.io.pagecache.impl.muninn.MuninnPageCache;
+import org.neo4j.io.pagecache.tracing.PageCacheTracer;
+import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracerSupplier;
+import org.neo4j.memory.LocalMemoryTracker;
+import org.neo4j.scheduler.ThreadPoolJobScheduler;
+import org.neo4j.test.extension.Inject;
+import org.neo4j.test.extension.TestDirectoryExtension;
+import org.neo4j.test.rule.TestDirectory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.neo4j.io.pagecache.tracing.cursor.context.EmptyVersionContextSupplier.EMPTY;
+
+@ExtendWith( TestDirectoryExtension.class )
+class GBPTreeCompactionTest
+{
+    private static final long COUNT = 100_000;
+    private static final long STRIDE = 10;
+
+    @Inject
+    TestDirectory directory;
+    private PageCache pageCache;
+    private ThreadPoolJobScheduler jobScheduler;
+    private final CompactionMonitor monitor = new CompactionMonitor();
+
+    @BeforeEach
+    void createPageCache()
+    {
+        SingleFilePageSwapperFactory factory = new SingleFilePageSwapperFactory();
+        factory.open( new DefaultFileSystemAbstraction(), Configuration.EMPTY );
+        MemoryAllocator mman = MemoryAllocator.createAllocator( "8 MiB", new LocalMemoryTracker() );
+        jobScheduler = new ThreadPoolJobScheduler();
+        pageCache = new MuninnPageCache( factory, mman, 256, PageCacheTracer.NULL, PageCursorTracerSupplier.NULL, EMPTY, jobScheduler );
+    }
+
+    @AfterEach
+    void tearDownPageCache()
+    {
+        pageCache.close();
+        jobScheduler.close();
+    }
+
+    @Test
+    void shouldCompactFixedSizeTreeAfterRemovals() throws IOException
+    {
+        shouldCompactAfterRemovals( layout( true ) );
+    }
+
+    @Test
+    void shouldCompactDynamicSizeTreeAfterRemovals() throws IOException
+    {
+        shouldCompactAfterRemovals( layout( false ) );
+    }
+
+    @Test
+    void shouldReuseTrimmedIdsAfterCompaction() throws IOException
+    {
+        SimpleLongLayout layout = layout( true );
+        try ( GBPTree<MutableLong,MutableLong> tree = new GBPTreeBuilder<>( pageCache, directory.file( "index" ), layout ).with( monitor ).build() )
+        {
+            // given
+            insert( tree, layout, 0, 1 );
+            tree.checkpoint( IOLimiter.UNLIMITED );
+            removeAllButEveryStride( tree, layout );
+            tree.compact( IOLimiter.UNLIMITED, 1.0 );
+            long highIdBeforeFirstCompaction = monitor.highIdBefore;
+
+            // when inserting the removed entries again
+            insert( tree, layout, 0, 1 );
+            tree.checkpoint( IOLimiter.UNLIMITED );
+            tree.compact( IOLimiter.UNLIMITED, 1.0 );
+
+            // then the trimmed ids were allocated instead of growing the file
+            assertTrue( monitor.highIdBefore <= highIdBeforeFirstCompaction );
+            assertEntries( tree, layout, COUNT, 1 );
+            assertTrue( tree.consistencyCheck() );
+        }
+    }
+
+    @Test
+    void shouldKeepCompactedTreeAfterRestart() throws IOException
+    {
+        SimpleLongLayout layout = layout( false );
+        File file = directory.file( "index" );
+        try ( GBPTree<MutableLong,MutableLong> tree = new GBPTreeBuilder<>( pageCache, file, layout ).build() )
+        {
+            insert( tree, layout, 0, 1 );
+            tree.checkpoint( IOLimiter.UNLIMITED );
+            removeAllButEveryStride( tree, layout );
+            tree.compact( IOLimiter.UNLIMITED, 0.8 );
+        }
+
+        try ( GBPTree<MutableLong,MutableLong> tree = new GBPTreeBuilder<>( pageCache, file, layout ).build() )
+        {
+            assertEntries( tree, layout, COUNT, STRIDE );
+            assertTrue( tree.consistencyCheck() );
+
+            // and still accept regular writes
+            insert( tree, layout, 0, 1 );
+            assertEntries( tree, layout, COUNT, 1 );
+            assertTrue( tree.consistencyCheck() );
+        }
+    }
+
+    @Test
+    void shouldCompactEmptyTree() throws IOException
+    {
+        SimpleLongLayout layout = layout( true );
+        try ( GBPTree<MutableLong,MutableLong> tree = new GBPTreeBuilder<>( pageCache, directory.file( "index" ), layout ).with( monitor ).build() )
+        {
+            // when
+            tree.compact( IOLimiter.UNLIMITED, 1.0 );
+
+            // then
+            assertEntries( tree, layout, 0, 1 );
+            assertTrue( tree.consistencyCheck() );
+            assertEquals( 1, monitor.completedCount );
+        }
+    }
+
+    @Test
+    void shouldKeepTreeAndReleaseNewPagesWhenCompactionFails() throws IOException
+    {
+        SimpleLongLayout layout = layout( true );
+        GBPTree.Monitor failingMonitor = new GBPTree.Monitor.Adaptor()
+        {
+            @Override
+            public void compactionProgress( long entriesRewritten )
+            {
+                throw new IllegalStateException( "Simulated failure after rewriting " + entriesRewritten + " entries" );
+            }
+        };
+        try ( GBPTree<MutableLong,MutableLong> tree =
+                new GBPTreeBuilder<>( pageCache, directory.file( "index" ), layout ).with( failingMonitor ).build() )
+        {
+            // given
+            insert( tree, layout, 0, 1 );
+            tree.checkpoint( IOLimiter.UNLIMITED );
+
+            // when
+            assertThrows( IllegalStateException.class, () -> tree.compact( IOLimiter.UNLIMITED, 1.0 ) );
+
+            // then the old tree is intact and no page is left neither in the tree nor free
+            assertEntries( tree, layout, COUNT, 1 );
+            assertTrue( tree.consistencyCheck() );
+
+            // and regular writes still work
+            removeAllButEveryStride( tree, layout );
+            assertEntries( tree, layout, COUNT, STRIDE );
+        }
+    }
+
+    @Test
+    void shouldFailOnInvalidFillFactor() throws IOException
+    {
+        SimpleLongLayout layout = layout( true );
+        try ( GBPTree<MutableLong,MutableLong> tree = new GBPTreeBuilder<>( pageCache, directory.file( "index" ), layout ).build() )
+        {
+            assertThrows( IllegalArgumentException.class, () -> tree.compact( IOLimiter.UNLIMITED, 0 ) );
+            assertThrows( IllegalArgumentException.class, () -> tree.compact( IOLimiter.UNLIMITED, 1.5 ) );
+        }
+    }
+
+    @Test
+    void shouldCompactFixedSizeTreeOnlineAfterRemovals() throws IOException
+    {
+        shouldCompactOnlineAfterRemovals( layout( true ) );
+    }
+
+    @Test
+    void shouldCompactDynamicSizeTreeOnlineAfterRemovals() throws IOException
+    {
+        shouldCompactOnlineAfterRemovals( layout( false ) );
+    }
+
+    @Test
+    void shouldAcceptWritesAndCheckpointsBetweenOnlineCompactionSteps() throws IOException
+    {
+        SimpleLongLayout layout = layout( false );
+        try ( GBPTree<MutableLong,MutableLong> tree = new GBPTreeBuilder<>( pageCache, directory.file( "index" ), layout ).with( monitor ).build() )
+        {
+            // given
+            insert( tree, layout, 0, 1 );
+            tree.checkpoint( IOLimiter.UNLIMITED );
+            removeAllButEveryStride( tree, layout );
+            TreeSet<Long> expected = new TreeSet<>();
+            for ( long key = 0; key < COUNT; key += STRIDE )
+            {
+                expected.add( key );
+            }
+
+            // when writing between the steps, both where the compaction has been and where it's going
+            GBPTree<MutableLong,MutableLong>.OnlineCompaction compaction = tree.onlineCompaction();
+            long step = 0;
+            while ( compaction.step( 5, IOLimiter.UNLIMITED ) )
+            {
+                try ( Writer<MutableLong,MutableLong> writer = tree.writer() )
+                {
+                    long added = (step * 7919) % COUNT;
+                    writer.put( layout.key( added ), layout.value( added ) );
+                    expected.add( added );
+                    long removed = (step * 104729 + 3 * STRIDE) % COUNT;
+                    writer.remove( layout.key( removed ) );
+                    expected.remove( removed );
+                }
+                if ( step % 10 == 0 )
+                {
+                    tree.checkpoint( IOLimiter.UNLIMITED );
+                }
+                step++;
+            }
+
+            // then
+            assertEquals( 1, monitor.completedCount );
+            assertEntries( tree, layout, expected );
+            assertTrue( tree.consistencyCheck() );
+        }
+    }
+
+    @Test
+    void shouldCompactOnlineWhileWritersAreWriting() throws Exception
+    {
+        SimpleLongLayout layout = layout( true );
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try ( GBPTree<MutableLong,MutableLong> tree = new GBPTreeBuilder<>( pageCache, directory.file( "index" ), layout ).with( monitor ).build() )
+        {
+            // given
+            insert( tree, layout, 0, 1 );
+            tree.checkpoint( IOLimiter.UNLIMITED );
+            removeAllButEveryStride( tree, layout );
+
+            // when writing keys above the current ones concurrently with compaction
+            AtomicBoolean end = new AtomicBoolean();
+            Future<Long> writes = executor.submit( () ->
+            {
+                long key = COUNT;
+                while ( !end.get() )
+                {
+                    try ( Writer<MutableLong,MutableLong> writer = tree.writer() )
+                    {
+                        writer.put( layout.key( key ), layout.value( key ) );
+                        key += STRIDE;
+                    }
+                }
+                return key;
+            } );
+            GBPTree<MutableLong,MutableLong>.OnlineCompaction compaction = tree.onlineCompaction();
+            while ( compaction.step( 10, IOLimiter.UNLIMITED ) )
+            {
+                // keep stepping
+            }
+            end.set( true );
+            long writtenTo = writes.get();
+
+            // then
+            assertEquals( 1, monitor.completedCount );
+            assertEntries( tree, layout, writtenTo, STRIDE );
+            assertTrue( tree.consistencyCheck() );
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void shouldTruncateUnusedPagesAfterOnlineCompactionAndClose() throws IOException
+    {
+        SimpleLongLayout layout = layout( true );
+        File file = directory.file( "index" );
+        long usedFileSize;
+        try ( GBPTree<MutableLong,MutableLong> tree = new GBPTreeBuilder<>( pageCache, file, layout ).with( monitor ).build() )
+        {
+            insert( tree, layout, 0, 1 );
+            tree.checkpoint( IOLimiter.UNLIMITED );
+            removeAllButEveryStride( tree, layout );
+            GBPTree<MutableLong,MutableLong>.OnlineCompaction compaction = tree.onlineCompaction();
+            while ( compaction.step( 100, IOLimiter.UNLIMITED ) )
+            {
+                // keep stepping
+            }
+            assertFalse( compaction.step( 100, IOLimiter.UNLIMITED ) );
+            usedFileSize = tree.usedFileSize();
+        }
+
+        // when
+        long fileSizeBefore = directory.getFileSystem().getFileSize( file );
+        directory.getFileSystem().truncate( file, usedFileSize );
+
+        // then
+        assertTrue( usedFileSize < fileSizeBefore / 2, "Expected used size " + usedFileSize + " to be less than half of " + fileSizeBefore );
+        try ( GBPTree<MutableLong,MutableLong> tree = new GBPTreeBuilder<>( pageCache, file, layout ).build() )
+        {
+            assertEntries( tree, layout, COUNT, STRIDE );
+            assertTrue( tree.consistencyCheck() );
+
+            // and the file grows again as needed
+            insert( tree, layout, 0, 1 );
+            tree.checkpoint( IOLimiter.UNLIMITED );
+            assertEntries( tree, layout, COUNT, 1 );
+            assertTrue( tree.consistencyCheck() );
+        }
+    }
+
+    private void shouldCompactOnlineAfterRemovals( SimpleLongLayout layout ) throws IOException
+    {
+        try ( GBPTree<MutableLong,MutableLong> tree = new GBPTreeBuilder<>( pageCache, directory.file( "index" ), layout ).with( monitor ).build() )
+        {
+            // given
+            insert( tree, layout, 0, 1 );
+            tree.checkpoint( IOLimiter.UNLIMITED );
+            removeAllButEveryStride( tree, layout );
+
+            // when
+            GBPTree<MutableLong,MutableLong>.OnlineCompaction compaction = tree.onlineCompaction();
+            int steps = 0;
+            while ( compaction.step( 10, IOLimiter.UNLIMITED ) )
+            {
+                steps++;
+            }
+
+            // then
+            assertTrue( steps > 10, "Expected compaction to be done in many small steps, but was " + steps );
+            assertEntries( tree, layout, COUNT, STRIDE );
+            assertTrue( tree.consistencyCheck() );
+            assertEquals( 1, monitor.completedCount );
+            assertTrue( monitor.highIdAfter < monitor.highIdBefore / 2,
+                    "Expected high id to drop below half of " + monitor.highIdBefore + ", but was " + monitor.highIdAfter );
+        }
+    }
+
+    private void shouldCompactAfterRemovals( SimpleLongLayout layout ) throws IOException
+    {
+        try ( GBPTree<MutableLong,MutableLong> tree = new GBPTreeBuilder<>( pageCache, directory.file( "index" ), layout ).with( monitor ).build() )
+        {
+            // given
+            insert( tree, layout, 0, 1 );
+            tree.checkpoint( IOLimiter.UNLIMITED );
+            removeAllButEveryStride( tree, layout );
+
+            // when
+            tree.compact( IOLimiter.UNLIMITED, 1.0 );
+
+            // then
+            assertEntries( tree, layout, COUNT, STRIDE );
+            assertTrue( tree.consistencyCheck() );
+            assertEquals( 1, monitor.completedCount );
+            assertEquals( COUNT / STRIDE, monitor.entriesRewritten );
+            assertTrue( monitor.highIdAfter < monitor.highIdBefore / 2,
+                    "Expected high id to drop below half of " + monitor.highIdBefore + ", but was " + monitor.highIdAfter );
+        }
+    }
+
+    private static void insert( GBPTree<MutableLong,MutableLong> tree, SimpleLongLayout layout, long from, long stride ) throws IOException
+    {
+        try ( Writer<MutableLong,MutableLong> writer = tree.writer() )
+        {
+            for ( long key = from; key < COUNT; key += stride )
+            {
+                writer.put( layout.key( key ), layout.value( key ) );
+            }
+        }
+    }
+
+    private static void removeAllButEveryStride( GBPTree<MutableLong,MutableLong> tree, SimpleLongLayout layout ) throws IOException
+    {
+        try ( Writer<MutableLong,MutableLong> writer = tree.writer() )
+        {
+            for ( long key = 0; key < COUNT; key++ )
+            {
+                if ( key % STRIDE != 0 )
+                {
+                    writer.remove( layout.key( key ) );
+                }
+            }
+        }
+    }
+
+    private static SimpleLongLayout layout( boolean fixedSize )
+    {
+        return SimpleLongLayout.longLayout()
+                .withFixedSize( fixedSize )
+                .build();
+    }
+
+    private static void assertEntries( GBPTree<MutableLong,MutableLong> tree, SimpleLongLayout layout, long to, long stride ) throws IOException
+    {
+        long expected = 0;
+        try ( RawCursor<Hit<MutableLong,MutableLong>,IOException> seek = tree.seek( layout.key( 0 ), layout.key( Long.MAX_VALUE ) ) )
+        {
+            while ( seek.next() )
+            {
+                Hit<MutableLong,MutableLong> hit = seek.get();
+                assertEquals( expected, hit.key().longValue() );
+                assertEquals( expected, hit.value().longValue() );
+                expected += stride;
+            }
+        }
+        assertEquals( to, expected );
+    }
+
+    private static void assertEntries( GBPTree<MutableLong,MutableLong> tree, SimpleLongLayout layout, TreeSet<Long> expected ) throws IOException
+    {
+        Iterator<Long> expectedKeys = expected.iterator();
+        try ( RawCursor<Hit<MutableLong,MutableLong>,IOException> seek = tree.seek( layout.key( 0 ), layout.key( Long.MAX_VALUE ) ) )
+        {
+            while ( seek.next() )
+            {
+                assertTrue( expectedKeys.hasNext() );
+                long expectedKey = expectedKeys.next();
+                assertEquals( expectedKey, seek.get().key().longValue() );
+                assertEquals( expectedKey, seek.get().value().longValue() );
+            }
+        }
+        assertFalse( expectedKeys.hasNext() );
+    }
+
+    private static class CompactionMonitor extends GBPTree.Monitor.Adaptor
+    {
+        private long highIdBefore;
+        private long highIdAfter;
+        private long entriesRewritten;
+        private int completedCount;
+
+        @Override
+        public void compactionProgress( long entriesRewritten )
+        {
+            this.entriesRewritten = entriesRewritten;
+        }
+
+        @Override
+        public void compactionCompleted( long highIdBefore, long highIdAfter )
+        {
+            this.highIdBefore = highIdBefore;
+            this.highIdAfter = highIdAfter;
+            completedCount++;
+        }
+    }
+}
@@ -0,0 +1,421 @@
+/*
+ * Copyright (c) 2018-2020 "Graph Foundation"
+ * Graph Foundation, Inc. [https://graphfoundation.org]
+ *
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of ONgDB.
+ *
+ * ONgDB is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.index.internal.gbptree;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.neo4j.cursor.RawCursor;
+import org.neo4j.graphdb.config.Configuration;
+import org.neo4j.io.fs.DefaultFileSystemAbstraction;
+import org.neo4j.io.mem.MemoryAllocator;
+import org.neo4j.io.pagecache.IOLimiter;
+import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.io.pagecache.impl.SingleFilePageSwapperFactory;
+import org.neo4j.io.pagecache.impl.muninn.MuninnPageCache;
+import org.neo4j.io.pagecache.tracing.PageCacheTracer;
+import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracerSupplier;
+import org.neo4j.memory.LocalMemoryTracker;
+import org.neo4j.scheduler.ThreadPoolJobScheduler;
+import org.neo4j.test.Race;
+import org.neo4j.test.extension.Inject;
+import org.neo4j.test.extension.TestDirectoryExtension;
+import org.neo4j.test.rule.TestDirectory;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.neo4j.io.pagecache.tracing.cursor.context.EmptyVersionContextSupplier.EMPTY;
+import static org.neo4j.test.Race.throwing;
+
+@ExtendWith( TestDirectoryExtension.class )
+class GBPTreeKeyPrefixCompressionTest
+{
+    private static final String PREFIX = "http://example.org/resource/some/rather/long/common/prefix/";
+
+    @Inject
+    TestDirectory directory;
+    private PageCache pageCache;
+    private ThreadPoolJobScheduler jobScheduler;
+    private final SimpleByteArrayLayout layout = new CompressingLayout( true );
+
+    @BeforeEach
+    void createPageCache()
+    {
+        SingleFilePageSwapperFactory factory = new SingleFilePageSwapperFactory();
+        factory.open( new DefaultFileSystemAbstraction(), Configuration.EMPTY );
+        MemoryAllocator mman = MemoryAllocator.createAllocator( "8 MiB", new LocalMemoryTracker() );
+        jobScheduler = new ThreadPoolJobScheduler();
+        pageCache = new MuninnPageCache( factory, mman, 512, PageCacheTracer.NULL, PageCursorTracerSupplier.NULL, EMPTY, jobScheduler );
+    }
+
+    @AfterEach
+    void tearDownPageCache()
+    {
+        pageCache.close();
+        jobScheduler.close();
+    }
+
+    @Test
+    void shouldSelectCompressedFormatFromLayout()
+    {
+        assertEquals( TreeNodeSelector.DYNAMIC_COMPRESSED, TreeNodeSelector.selectByLayout( layout ) );
+        assertEquals( TreeNodeSelector.DYNAMIC, TreeNodeSelector.selectByLayout( new CompressingLayout( false ) ) );
+        assertEquals( TreeNodeSelector.DYNAMIC_COMPRESSED, TreeNodeSelector.selectByFormat(
+                TreeNodeDynamicSizeCompressed.FORMAT_IDENTIFIER, TreeNodeDynamicSizeCompressed.FORMAT_VERSION ) );
+    }
+
+    @Test
+    void shouldInsertAndRemoveRandomEntries() throws IOException
+    {
+        Random random = new Random();
+        TreeMap<RawBytes,RawBytes> expected = new TreeMap<>( layout );
+        try ( GBPTree<RawBytes,RawBytes> tree = new GBPTreeBuilder<>( pageCache, directory.file( "index" ), layout ).build() )
+        {
+            for ( int round = 0; round < 20; round++ )
+            {
+                try ( Writer<RawBytes,RawBytes> writer = tree.writer() )
+                {
+                    for ( int i = 0; i < 1_000; i++ )
+                    {
+                        RawBytes key = key( random.nextInt( 5_000 ), random );
+                        if ( random.nextInt( 3 ) == 0 && !expected.isEmpty() )
+                        {
+                            // Remove an existing key, which will sooner or later make leaves underflow
+                            RawBytes existing = expected.ceilingKey( key ) != null ? expected.ceilingKey( key ) : expected.firstKey();
+                            assertArrayEquals( expected.remove( existing ).bytes, writer.remove( existing ).bytes );
+                        }
+                        else
+                        {
+                            RawBytes value = value( random );
+                            writer.put( key, value );
+                            expected.put( key, value );
+                        }
+                    }
+                }
+                if ( random.nextBoolean() )
+                {
+                    tree.checkpoint( IOLimiter.UNLIMITED );
+                }
+
+                assertEntries( tree, expected );
+                assertTrue( tree.consistencyCheck() );
+            }
+        }
+    }
+
+    @Test
+    void shouldRemoveAllEntries() throws IOException
+    {
+        TreeMap<RawBytes,RawBytes> expected = new TreeMap<>( layout );
+        Random random = new Random();
+        try ( GBPTree<RawBytes,RawBytes> tree = new GBPTreeBuilder<>( pageCache, directory.file( "index" ), layout ).build() )
+        {
+            try ( Writer<RawBytes,RawBytes> writer = tree.writer() )
+            {
+                for ( int i = 0; i < 5_000; i++ )
+                {
+                    RawBytes key = key( i, random );
+                    RawBytes value = value( random );
+                    writer.put( key, value );
+                    expected.put( key, value );
+                }
+            }
+            tree.checkpoint( IOLimiter.UNLIMITED );
+
+            try ( Writer<RawBytes,RawBytes> writer = tree.writer() )
+            {
+                for ( RawBytes key : expected.keySet() )
+                {
+                    writer.remove( key );
+                }
+            }
+            expected.clear();
+
+            assertEntries( tree, expected );
+            assertTrue( tree.consistencyCheck() );
+        }
+    }
+
+    @Test
+    void shouldUseLessSpaceThanUncompressedFormat() throws IOException
+    {
+        File compressed = directory.file( "compressed" );
+        File uncompressed = directory.file( "uncompressed" );
+        insertSequentialKeys( compressed, layout );
+        insertSequentialKeys( uncompressed, new CompressingLayout( false ) );
+
+        assertTrue( compressed.length() * 2 < uncompressed.length(),
+                "Expected compressed tree of " + compressed.length() + "B to be less than half of uncompressed tree of " + uncompressed.length() + "B" );
+    }
+
+    @Test
+    void shouldReadCompressedTreeAfterReopen() throws IOException
+    {
+        TreeMap<RawBytes,RawBytes> expected = new TreeMap<>( layout );
+        Random random = new Random();
+        File file = directory.file( "index" );
+        try ( GBPTree<RawBytes,RawBytes> tree = new GBPTreeBuilder<>( pageCache, file, layout ).build() )
+        {
+            try ( Writer<RawBytes,RawBytes> writer = tree.writer() )
+            {
+                for ( int i = 0; i < 2_000; i++ )
+                {
+                    RawBytes key = key( i, random );
+                    RawBytes value = value( random );
+                    writer.put( key, value );
+                    expected.put( key, value );
+                }
+            }
+            tree.checkpoint( IOLimiter.UNLIMITED );
+        }
+
+        try ( GBPTree<RawBytes,RawBytes> tree = new GBPTreeBuilder<>( pageCache, file, layout ).build() )
+        {
+            assertEntries( tree, expected );
+            assertTrue( tree.consistencyCheck() );
+        }
+    }
+
+    @Test
+    void shouldBulkLoadCompressedLeaves() throws IOException
+    {
+        TreeMap<RawBytes,RawBytes> expected = new TreeMap<>( layout );
+        Random random = new Random();
+        for ( int i = 0; i < 5_000; i++ )
+        {
+            expected.put( key( i, random ), value( random ) );
+        }
+
+        try ( GBPTree<RawBytes,RawBytes> tree = new GBPTreeBuilder<>( pageCache, directory.file( "index" ), layout ).build() )
+        {
+            tree.bulkLoad( new EntriesCursor( expected ), 1.0 );
+
+            assertEntries( tree, expected );
+            assertTrue( tree.consistencyCheck() );
+        }
+    }
+
+    @Test
+    void shouldSeekConsistentlyWhileWriting() throws Throwable
+    {
+        int keyCount = 10_000;
+        try ( GBPTree<RawBytes,RawBytes> tree = new GBPTreeBuilder<>( pageCache, directory.file( "index" ), layout ).build() )
+        {
+            AtomicBoolean writing = new AtomicBoolean( true );
+            Race race = new Race();
+            race.addContestant( throwing( () ->
+            {
+                Random random = new Random();
+                try ( Writer<RawBytes,RawBytes> writer = tree.writer() )
+                {
+                    for ( int i = 0; i < keyCount; i++ )
+                    {
+                        writer.put( key( i, random ), value( random ) );
+                    }
+                }
+                finally
+                {
+                    writing.set( false );
+                }
+            } ) );
+            race.addContestant( throwing( () ->
+            {
+                while ( writing.get() )
+                {
+                    // Every key seen must be in order and one of the written keys
+                    RawBytes prev = null;
+                    try ( RawCursor<Hit<RawBytes,RawBytes>,IOException> seek = tree.seek( lowest(), highest() ) )
+                    {
+                        while ( seek.next() )
+                        {
+                            RawBytes key = seek.get().key();
+                            assertTrue( new String( key.bytes, StandardCharsets.UTF_8 ).startsWith( PREFIX ) );
+                            assertFalse( prev != null && layout.compare( prev, key ) >= 0 );
+                            prev = layout.copyKey( key, layout.newKey() );
+                        }
+                    }
+                }
+            } ) );
+            race.go();
+        }
+    }
+
+    @Test
+    void shouldReadSameEntriesFromConcurrentReaders() throws Throwable
+    {
+        Random random = new Random();
+        TreeMap<RawBytes,RawBytes> expected = new TreeMap<>( layout );
+        try ( GBPTree<RawBytes,RawBytes> tree = new GBPTreeBuilder<>( pageCache, directory.file( "index" ), layout ).build() )
+        {
+            try ( Writer<RawBytes,RawBytes> writer = tree.writer() )
+            {
+                for ( int i = 0; i < 5_000; i++ )
+                {
+                    RawBytes key = key( i, random );
+                    RawBytes value = value( random );
+                    writer.put( key, value );
+                    expected.put( key, value );
+                }
+            }
+
+            // Readers share the node format of the tree, keys assembled by one reader must never show up in another
+            Race race = new Race();
+            race.addContestants( 4, throwing( () -> assertEntries( tree, expected ) ), 20 );
+            race.go();
+        }
+    }
+
+    private void insertSequentialKeys( File file, SimpleByteArrayLayout layout ) throws IOException
+    {
+        Random random = new Random( 0 );
+        try ( GBPTree<RawBytes,RawBytes> tree = new GBPTreeBuilder<>( pageCache, file, layout ).build() )
+        {
+            try ( Writer<RawBytes,RawBytes> writer = tree.writer() )
+            {
+                for ( int i = 0; i < 10_000; i++ )
+                {
+                    writer.put( key( i, random ), value( random ) );
+                }
+            }
+            tree.checkpoint( IOLimiter.UNLIMITED );
+        }
+    }
+
+    private void assertEntries( GBPTree<RawBytes,RawBytes> tree, TreeMap<RawBytes,RawBytes> expected ) throws IOException
+    {
+        Iterator<Map.Entry<RawBytes,RawBytes>> expectedEntries = expected.entrySet().iterator();
+        try ( RawCursor<Hit<RawBytes,RawBytes>,IOException> seek = tree.seek( lowest(), highest() ) )
+        {
+            while ( seek.next() )
+            {
+                assertTrue( expectedEntries.hasNext() );
+                Map.Entry<RawBytes,RawBytes> entry = expectedEntries.next();
+                assertArrayEquals( entry.getKey().bytes, seek.get().key().bytes );
+                assertArrayEquals( entry.getValue().bytes, seek.get().value().bytes );
+            }
+        }
+        assertFalse( expectedEntries.hasNext() );
+    }
+
+    private RawBytes key( int id, Random random )
+    {
+        // Keys with a long common prefix, then a short part differing between keys and sometimes a random tail
+        String tail = random.nextInt( 4 ) == 0 ? "/" + Integer.toHexString( random.nextInt() ) : "";
+        RawBytes key = layout.newKey();
+        key.bytes = (PREFIX + String.format( "%06d", id ) + tail).getBytes( StandardCharsets.UTF_8 );
+        return key;
+    }
+
+    private RawBytes value( Random random )
+    {
+        RawBytes value = layout.newValue();
+        value.bytes = new byte[random.nextInt( 8 )];
+        random.nextBytes( value.bytes );
+        return value;
+    }
+
+    private RawBytes lowest()
+    {
+        RawBytes key = layout.newKey();
+        key.bytes = new byte[0];
+        return key;
+    }
+
+    private RawBytes highest()
+    {
+        RawBytes key = layout.newKey();
+        key.bytes = new byte[]{Byte.MAX_VALUE};
+        return key;
+    }
+
+    private static class EntriesCursor implements RawCursor<Hit<RawBytes,RawBytes>,IOException>, Hit<RawBytes,RawBytes>
+    {
+        private final Iterator<Map.Entry<RawBytes,RawBytes>> entries;
+        private Map.Entry<RawBytes,RawBytes> current;
+
+        EntriesCursor( TreeMap<RawBytes,RawBytes> entries )
+        {
+            this.entries = entries.entrySet().iterator();
+        }
+
+        @Override
+        public boolean next()
+        {
+            current = entries.hasNext() ? entries.next() : null;
+            return current != null;
+        }
+
+        @Override
+        public Hit<RawBytes,RawBytes> get()
+        {
+            return this;
+        }
+
+        @Override
+        public RawBytes key()
+        {
+            return current.getKey();
+        }
+
+        @Override
+        public RawBytes value()
+        {
+            return current.getValue();
+        }
+
+        @Override
+        public void close()
+        {   // nothing to close
+        }
+    }
+
+    private static class CompressingLayout extends SimpleByteArrayLayout
+    {
+        private final boolean compressKeyPrefixes;
+
+        CompressingLayout( boolean compressKeyPrefixes )
+        {
+            super( false );
+            this.compressKeyPrefixes = compressKeyPrefixes;
+        }
+
+        @Override
+        public boolean compressKeyPrefixes()
+        {
+            return compressKeyPrefixes;
+        }
+    }
+}
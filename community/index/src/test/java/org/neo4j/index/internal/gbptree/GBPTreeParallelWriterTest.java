@@ -0,0 +1,214 @@
+/*
+ * Copyright (c) 2018-2020 "Graph Foundation"
+ * Graph Foundation, Inc. [https://graphfoundation.org]
+ *
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of ONgDB.
+ *
+ * ONgDB is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.index.internal.gbptree;
+
+import org.apache.commons.lang3.mutable.MutableLong;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.io.IOException;
+
+import org.neo4j.cursor.RawCursor;
+import org.neo4j.graphdb.config.Configuration;
+import org.neo4j.io.fs.DefaultFileSystemAbstraction;
+import org.neo4j.io.mem.MemoryAllocator;
+import org.neo4j.io.pagecache.IOLimiter;
+import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.io.pagecache.impl.SingleFilePageSwapperFactory;
+import org.neo4j.io.pagecache.impl.muninn.MuninnPageCache;
+import org.neo4j.io.pagecache.tracing.PageCacheTracer;
+import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracerSupplier;
+import org.neo4j.memory.LocalMemoryTracker;
+import org.neo4j.scheduler.ThreadPoolJobScheduler;
+import org.neo4j.test.Race;
+import org.neo4j.test.extension.Inject;
+import org.neo4j.test.extension.TestDirectoryExtension;
+import org.neo4j.test.rule.TestDirectory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.neo4j.io.pagecache.tracing.cursor.context.EmptyVersionContextSupplier.EMPTY;
+import static org.neo4j.test.Race.throwing;
+
+@ExtendWith( TestDirectoryExtension.class )
+class GBPTreeParallelWriterTest
+{
+    private static final int THREADS = 4;
+    private static final int KEYS_PER_THREAD = 20_000;
+
+    @Inject
+    TestDirectory directory;
+    private PageCache pageCache;
+    private SimpleLongLayout layout;
+    private ThreadPoolJobScheduler jobScheduler;
+
+    @BeforeEach
+    void createPageCache()
+    {
+        SingleFilePageSwapperFactory factory = new SingleFilePageSwapperFactory();
+        factory.open( new DefaultFileSystemAbstraction(), Configuration.EMPTY );
+        MemoryAllocator mman = MemoryAllocator.createAllocator( "8 MiB", new LocalMemoryTracker() );
+        jobScheduler = new ThreadPoolJobScheduler();
+        pageCache = new MuninnPageCache( factory, mman, 256, PageCacheTracer.NULL, PageCursorTracerSupplier.NULL, EMPTY, jobScheduler );
+        layout = SimpleLongLayout.longLayout()
+                .withFixedSize( true )
+                .build();
+    }
+
+    @AfterEach
+    void tearDownPageCache()
+    {
+        pageCache.close();
+        jobScheduler.close();
+    }
+
+    @Test
+    void shouldInsertConcurrentlyFromMultipleParallelWriters() throws Throwable
+    {
+        try ( GBPTree<MutableLong,MutableLong> gbpTree = new GBPTreeBuilder<>( pageCache, directory.file( "index" ), layout ).build() )
+        {
+            // when
+            Race race = new Race();
+            for ( int thread = 0; thread < THREADS; thread++ )
+            {
+                int threadId = thread;
+                race.addContestant( throwing( () ->
+                {
+                    try ( Writer<MutableLong,MutableLong> writer = gbpTree.parallelWriter() )
+                    {
+                        // Interleave keys between threads so that they all write to the same leaves
+                        for ( long i = 0; i < KEYS_PER_THREAD; i++ )
+                        {
+                            long key = i * THREADS + threadId;
+                            writer.put( layout.key( key ), layout.value( key ) );
+                        }
+                    }
+                } ) );
+            }
+            race.go();
+
+            // then
+            assertAllKeys( gbpTree, 0, KEYS_PER_THREAD * THREADS, 1 );
+            assertTrue( gbpTree.consistencyCheck() );
+        }
+    }
+
+    @Test
+    void shouldRemoveConcurrentlyFromMultipleParallelWriters() throws Throwable
+    {
+        try ( GBPTree<MutableLong,MutableLong> gbpTree = new GBPTreeBuilder<>( pageCache, directory.file( "index" ), layout ).build() )
+        {
+            // given
+            long keyCount = KEYS_PER_THREAD * THREADS;
+            try ( Writer<MutableLong,MutableLong> writer = gbpTree.writer() )
+            {
+                for ( long key = 0; key < keyCount; key++ )
+                {
+                    writer.put( layout.key( key ), layout.value( key ) );
+                }
+            }
+            // so that the first removals in each leaf need to create successors
+            gbpTree.checkpoint( IOLimiter.UNLIMITED );
+
+            // when
+            Race race = new Race();
+            for ( int thread = 0; thread < THREADS; thread++ )
+            {
+                int threadId = thread;
+                race.addContestant( throwing( () ->
+                {
+                    try ( Writer<MutableLong,MutableLong> writer = gbpTree.parallelWriter() )
+                    {
+                        // Remove all keys and put back the even ones, leaving only even keys in the tree
+                        for ( long i = 0; i < KEYS_PER_THREAD; i++ )
+                        {
+                            long key = i * THREADS + threadId;
+                            MutableLong removed = writer.remove( layout.key( key ) );
+                            if ( key % 2 == 0 )
+                            {
+                                writer.put( layout.key( key ), layout.value( key ) );
+                            }
+                            assertEquals( key, removed.longValue() );
+                        }
+                    }
+                } ) );
+            }
+            race.go();
+
+            // then
+            assertAllKeys( gbpTree, 0, keyCount, 2 );
+            assertTrue( gbpTree.consistencyCheck() );
+        }
+    }
+
+    @Test
+    void shouldReturnNullWhenRemovingNonExistentKey() throws IOException
+    {
+        try ( GBPTree<MutableLong,MutableLong> gbpTree = new GBPTreeBuilder<>( pageCache, directory.file( "index" ), layout ).build();
+              Writer<MutableLong,MutableLong> writer = gbpTree.parallelWriter() )
+        {
+            // given
+            writer.put( layout.key( 1 ), layout.value( 1 ) );
+
+            // when
+            MutableLong removed = writer.remove( layout.key( 2 ) );
+
+            // then
+            assertNull( removed );
+        }
+    }
+
+    @Test
+    void shouldFailOnClosingParallelWriterTwice() throws IOException
+    {
+        try ( GBPTree<MutableLong,MutableLong> gbpTree = new GBPTreeBuilder<>( pageCache, directory.file( "index" ), layout ).build() )
+        {
+            // given
+            Writer<MutableLong,MutableLong> writer = gbpTree.parallelWriter();
+            writer.close();
+
+            // when/then
+            assertThrows( IllegalStateException.class, writer::close );
+        }
+    }
+
+    private void assertAllKeys( GBPTree<MutableLong,MutableLong> gbpTree, long from, long to, long stride ) throws IOException
+    {
+        long expected = from;
+        try ( RawCursor<Hit<MutableLong,MutableLong>,IOException> seek = gbpTree.seek( layout.key( from ), layout.key( to ) ) )
+        {
+            while ( seek.next() )
+            {
+                Hit<MutableLong,MutableLong> hit = seek.get();
+                assertEquals( expected, hit.key().longValue() );
+                assertEquals( expected, hit.value().longValue() );
+                expected += stride;
+            }
+        }
+        assertEquals( to, expected );
+    }
+}
@@ -0,0 +1,224 @@
+/*
+ * Copyright (c) 2018-2020 "Graph Foundation"
+ * Graph Foundation, Inc. [https://graphfoundation.org]
+ *
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of ONgDB.
+ *
+ * ONgDB is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.index.internal.gbptree;
+
+import org.apache.commons.lang3.mutable.MutableLong;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.neo4j.cursor.RawCursor;
+import org.neo4j.graphdb.config.Configuration;
+import org.neo4j.io.fs.DefaultFileSystemAbstraction;
+import org.neo4j.io.mem.MemoryAllocator;
+import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.io.pagecache.impl.SingleFilePageSwapperFactory;
+import org.neo4j.io.pagecache.impl.muninn.MuninnPageCache;
+import org.neo4j.io.pagecache.tracing.PageCacheTracer;
+import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracerSupplier;
+import org.neo4j.memory.LocalMemoryTracker;
+import org.neo4j.scheduler.ThreadPoolJobScheduler;
+import org.neo4j.test.extension.Inject;
+import org.neo4j.test.extension.TestDirectoryExtension;
+import org.neo4j.test.rule.TestDirectory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.neo4j.io.pagecache.tracing.cursor.context.EmptyVersionContextSupplier.EMPTY;
+
+@ExtendWith( TestDirectoryExtension.class )
+class GBPTreePartitionedSeekTest
+{
+    private static final long COUNT = 100_000;
+
+    @Inject
+    TestDirectory directory;
+    private PageCache pageCache;
+    private ThreadPoolJobScheduler jobScheduler;
+    private final SimpleLongLayout layout = SimpleLongLayout.longLayout().build();
+
+    @BeforeEach
+    void createPageCache()
+    {
+        SingleFilePageSwapperFactory factory = new SingleFilePageSwapperFactory();
+        factory.open( new DefaultFileSystemAbstraction(), Configuration.EMPTY );
+        MemoryAllocator mman = MemoryAllocator.createAllocator( "8 MiB", new LocalMemoryTracker() );
+        jobScheduler = new ThreadPoolJobScheduler();
+        pageCache = new MuninnPageCache( factory, mman, 256, PageCacheTracer.NULL, PageCursorTracerSupplier.NULL, EMPTY, jobScheduler );
+    }
+
+    @AfterEach
+    void tearDownPageCache()
+    {
+        pageCache.close();
+        jobScheduler.close();
+    }
+
+    @Test
+    void shouldSeekSinglePartitionInTreeWithOnlyRoot() throws IOException
+    {
+        try ( GBPTree<MutableLong,MutableLong> tree = new GBPTreeBuilder<>( pageCache, directory.file( "index" ), layout ).build() )
+        {
+            // given
+            insert( tree, 0, 3 );
+
+            // when
+            List<RawCursor<Hit<MutableLong,MutableLong>,IOException>> partitions = tree.partitionedSeek( layout.key( 0 ), layout.key( 3 ), 4 );
+
+            // then
+            assertEquals( 1, partitions.size() );
+            assertEquals( 3, readPartitionsInOrder( partitions, 0 ) );
+        }
+    }
+
+    @Test
+    void shouldSplitWholeRangeIntoDesiredNumberOfPartitions() throws IOException
+    {
+        try ( GBPTree<MutableLong,MutableLong> tree = new GBPTreeBuilder<>( pageCache, directory.file( "index" ), layout ).build() )
+        {
+            // given
+            insert( tree, 0, COUNT );
+
+            for ( int desiredNumberOfPartitions = 1; desiredNumberOfPartitions <= 32; desiredNumberOfPartitions *= 2 )
+            {
+                // when
+                List<RawCursor<Hit<MutableLong,MutableLong>,IOException>> partitions =
+                        tree.partitionedSeek( layout.key( 0 ), layout.key( Long.MAX_VALUE ), desiredNumberOfPartitions );
+
+                // then
+                assertEquals( desiredNumberOfPartitions, partitions.size() );
+                assertEquals( COUNT, readPartitionsInOrder( partitions, 0 ) );
+            }
+        }
+    }
+
+    @Test
+    void shouldSplitSubRangeIntoPartitions() throws IOException
+    {
+        try ( GBPTree<MutableLong,MutableLong> tree = new GBPTreeBuilder<>( pageCache, directory.file( "index" ), layout ).build() )
+        {
+            // given
+            insert( tree, 0, COUNT );
+            long from = COUNT / 3;
+            long to = from + COUNT / 10;
+
+            // when
+            List<RawCursor<Hit<MutableLong,MutableLong>,IOException>> partitions = tree.partitionedSeek( layout.key( from ), layout.key( to ), 8 );
+
+            // then
+            assertTrue( partitions.size() > 1 && partitions.size() <= 8, "Unexpected number of partitions " + partitions.size() );
+            assertEquals( to - from, readPartitionsInOrder( partitions, from ) );
+        }
+    }
+
+    @Test
+    void shouldReadPartitionsInParallel() throws Exception
+    {
+        try ( GBPTree<MutableLong,MutableLong> tree = new GBPTreeBuilder<>( pageCache, directory.file( "index" ), layout ).build() )
+        {
+            // given
+            insert( tree, 0, COUNT );
+            List<RawCursor<Hit<MutableLong,MutableLong>,IOException>> partitions = tree.partitionedSeek( layout.key( 0 ), layout.key( COUNT ), 4 );
+
+            // when
+            AtomicLong sum = new AtomicLong();
+            ExecutorService executor = Executors.newFixedThreadPool( partitions.size() );
+            try
+            {
+                for ( Future<?> future : partitions.stream().map( partition -> executor.submit( () ->
+                {
+                    try ( RawCursor<Hit<MutableLong,MutableLong>,IOException> seeker = partition )
+                    {
+                        while ( seeker.next() )
+                        {
+                            sum.addAndGet( seeker.get().key().longValue() );
+                        }
+                    }
+                    return null;
+                } ) ).toArray( Future[]::new ) )
+                {
+                    future.get();
+                }
+            }
+            finally
+            {
+                executor.shutdown();
+            }
+
+            // then
+            assertEquals( COUNT * (COUNT - 1) / 2, sum.get() );
+        }
+    }
+
+    @Test
+    void shouldFailOnInvalidArguments() throws IOException
+    {
+        try ( GBPTree<MutableLong,MutableLong> tree = new GBPTreeBuilder<>( pageCache, directory.file( "index" ), layout ).build() )
+        {
+            assertThrows( IllegalArgumentException.class, () -> tree.partitionedSeek( layout.key( 0 ), layout.key( 10 ), 0 ) );
+            assertThrows( IllegalArgumentException.class, () -> tree.partitionedSeek( layout.key( 10 ), layout.key( 0 ), 2 ) );
+        }
+    }
+
+    private void insert( GBPTree<MutableLong,MutableLong> tree, long from, long to ) throws IOException
+    {
+        try ( Writer<MutableLong,MutableLong> writer = tree.writer() )
+        {
+            for ( long key = from; key < to; key++ )
+            {
+                writer.put( layout.key( key ), layout.value( key ) );
+            }
+        }
+    }
+
+    /**
+     * Reads all partitions, one after the other, asserting that they together contain consecutive keys starting at {@code from}.
+     *
+     * @return number of entries read.
+     */
+    private static long readPartitionsInOrder( List<RawCursor<Hit<MutableLong,MutableLong>,IOException>> partitions, long from ) throws IOException
+    {
+        long expected = from;
+        for ( RawCursor<Hit<MutableLong,MutableLong>,IOException> partition : partitions )
+        {
+            try ( RawCursor<Hit<MutableLong,MutableLong>,IOException> seeker = partition )
+            {
+                while ( seeker.next() )
+                {
+                    assertEquals( expected, seeker.get().key().longValue() );
+                    expected++;
+                }
+            }
+        }
+        return expected - from;
+    }
+}
@@ -89,6 +89,28 @@ public interface IndexCapability
         return LIMITIATION_NONE;
     }
 
+    /**
+     * Composite indexes can always be queried with exact predicates on all properties. This tells whether or not this index can also be
+     * queried with other predicates on a composite schema, e.g. an exact predicate on the first property followed by a range predicate
+     * on the second, with the results ordered by the index if asked for.
+     *
+     * @return {@code true} if this index supports composite queries of any combination of predicates, {@code false} otherwise.
+     */
+    default boolean supportsGranularCompositeQueries()
+    {
+        return false;
+    }
+
+    /**
+     * Whether this index can find the points closest to a given point, see {@link IndexQuery.NearestNeighboursPredicate}.
+     *
+     * @return {@code true} if this index can be queried for nearest neighbours, {@code false} otherwise.
+     */
+    default boolean supportsNearestNeighbours()
+    {
+        return false;
+    }
+
     default boolean singleWildcard( ValueCategory[] valueCategories )
     {
         return valueCategories.length == 1 && valueCategories[0] == ValueCategory.UNKNOWN;
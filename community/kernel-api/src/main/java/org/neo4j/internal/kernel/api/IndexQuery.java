@@ -184,6 +184,24 @@ public abstract class IndexQuery
         return new StringSuffixPredicate( propertyKeyId, suffix );
     }
 
+    /**
+     * Searches the index for the {@code k} points closest to {@code point}, in the coordinate reference system of {@code point}.
+     * Results are delivered in ascending distance order.
+     *
+     * @param propertyKeyId the property ID to match.
+     * @param point the point to measure distances from.
+     * @param k the maximum number of entries to return.
+     * @return an {@link IndexQuery} instance to be used for querying an index.
+     */
+    public static NearestNeighboursPredicate nearestNeighbours( int propertyKeyId, PointValue point, int k )
+    {
+        if ( k < 1 )
+        {
+            throw new IllegalArgumentException( "Number of nearest neighbours must be positive, but was " + k );
+        }
+        return new NearestNeighboursPredicate( propertyKeyId, point, k );
+    }
+
     public static ValueTuple asValueTuple( IndexQuery.ExactPredicate... query )
     {
         Value[] values = new Value[query.length];
@@ -249,7 +267,8 @@ public abstract class IndexQuery
         range,
         stringPrefix,
         stringSuffix,
-        stringContains
+        stringContains,
+        nearestNeighbours
     }
 
     public static final class ExistsPredicate extends IndexQuery
@@ -611,4 +630,54 @@ public abstract class IndexQuery
             return suffix;
         }
     }
+
+    public static final class NearestNeighboursPredicate extends IndexQuery
+    {
+        private final PointValue point;
+        private final int k;
+
+        NearestNeighboursPredicate( int propertyKeyId, PointValue point, int k )
+        {
+            super( propertyKeyId );
+            this.point = point;
+            this.k = k;
+        }
+
+        @Override
+        public IndexQueryType type()
+        {
+            return IndexQueryType.nearestNeighbours;
+        }
+
+        /**
+         * Whether or not a point is among the nearest neighbours depends on all other indexed points,
+         * so a single value can only be checked for being comparable to the query point.
+         */
+        @Override
+        public boolean acceptsValue( Value value )
+        {
+            return value instanceof PointValue && ((PointValue) value).getCoordinateReferenceSystem().equals( crs() );
+        }
+
+        @Override
+        public ValueGroup valueGroup()
+        {
+            return ValueGroup.GEOMETRY;
+        }
+
+        public PointValue point()
+        {
+            return point;
+        }
+
+        public int k()
+        {
+            return k;
+        }
+
+        public CoordinateReferenceSystem crs()
+        {
+            return point.getCoordinateReferenceSystem();
+        }
+    }
 }
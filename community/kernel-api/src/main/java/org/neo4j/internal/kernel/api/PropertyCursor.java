@@ -22,11 +22,13 @@
  */
 package org.neo4j.internal.kernel.api;
 
+import java.util.Arrays;
 import java.util.regex.Pattern;
 
 import org.neo4j.values.storable.Value;
 import org.neo4j.values.storable.ValueGroup;
 import org.neo4j.values.storable.ValueWriter;
+import org.neo4j.values.storable.Values;
 
 /**
  * Cursor for scanning the properties of a node or relationship.
@@ -41,6 +43,35 @@ public interface PropertyCursor extends Cursor
 
     <E extends Exception> void writeTo( ValueWriter<E> target );
 
+    /**
+     * Reads the values of the given property keys in a single pass over the properties this cursor was initialized with,
+     * such that {@code values[i]} receives the value of {@code propertyKeys[i]}, or {@link Values#NO_VALUE} if there's
+     * no such property. Values of properties not asked for are not decoded. The cursor is exhausted after this call.
+     *
+     * @param propertyKeys property keys to read values for.
+     * @param values array to read values into, at least as long as {@code propertyKeys}.
+     * @return the number of the given property keys that had a value.
+     */
+    default int readProperties( int[] propertyKeys, Value[] values )
+    {
+        Arrays.fill( values, 0, propertyKeys.length, Values.NO_VALUE );
+        int found = 0;
+        while ( found < propertyKeys.length && next() )
+        {
+            int propertyKey = propertyKey();
+            for ( int i = 0; i < propertyKeys.length; i++ )
+            {
+                if ( propertyKeys[i] == propertyKey && values[i] == Values.NO_VALUE )
+                {
+                    values[i] = propertyValue();
+                    found++;
+                    break;
+                }
+            }
+        }
+        return found;
+    }
+
     // typed accessor methods
 
     boolean booleanValue();
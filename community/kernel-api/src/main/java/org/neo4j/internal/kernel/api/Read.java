@@ -90,6 +90,19 @@ public interface Read
      */
     void nodeIndexScan( IndexReference index, NodeValueIndexCursor cursor, IndexOrder indexOrder, boolean needsValues ) throws KernelException;
 
+    /**
+     * Scan all values in an index, split into partitions which can be scanned in parallel, each from its own thread and cursor.
+     * Values are in no particular order. Changes made in this transaction are not visible in the partitions,
+     * which is why this scan is only supported in transactions without changes.
+     *
+     * @param index {@link IndexReference} referencing index to query.
+     * @param desiredNumberOfPartitions the desired number of partitions to split the scan into, the actual number may differ.
+     * @param needsValues if the index should fetch property values together with node ids for index queries
+     * @return {@link Scan} handing out one partition at a time.
+     * @throws IllegalStateException if this transaction has changes.
+     */
+    Scan<NodeValueIndexCursor> nodeIndexScan( IndexReference index, int desiredNumberOfPartitions, boolean needsValues ) throws KernelException;
+
     void nodeLabelScan( int label, NodeLabelIndexCursor cursor );
 
     /**
@@ -30,5 +30,12 @@ package org.neo4j.internal.kernel.api;
  */
 public interface Scan<Cursor extends org.neo4j.internal.kernel.api.Cursor>
 {
-    void initialize( Cursor cursor );
+    /**
+     * Initializes the given cursor with the next part of this scan which hasn't yet been handed out.
+     *
+     * @param cursor cursor to initialize.
+     * @return {@code true} if the cursor was initialized with a part of this scan, or {@code false}
+     * if all parts of this scan have already been handed out.
+     */
+    boolean initialize( Cursor cursor );
 }
@@ -51,4 +51,40 @@ public interface StoragePropertyCursor extends StorageCursor
      * @return value of the property this cursor currently is placed at.
      */
     Value propertyValue();
+
+    /**
+     * Reads values of the given property keys into {@code values}, starting from the current position of this cursor, such that
+     * {@code values[i]} receives the value of {@code propertyKeys[i]}. Only slots in {@code values} which are {@code null} are filled,
+     * which lets the caller pre-fill slots that it has resolved by other means. Values of properties not asked for are never decoded
+     * and reading stops as soon as all slots have been filled. Slots of property keys which couldn't be found are left as {@code null}.
+     * This cursor should not be advanced further after this call, only re-initialized.
+     *
+     * @param propertyKeys property keys to read values for.
+     * @param values array to read values into, at least as long as {@code propertyKeys}.
+     */
+    default void readProperties( int[] propertyKeys, Value[] values )
+    {
+        int remaining = 0;
+        for ( int i = 0; i < propertyKeys.length; i++ )
+        {
+            if ( values[i] == null )
+            {
+                remaining++;
+            }
+        }
+
+        while ( remaining > 0 && next() )
+        {
+            int propertyKey = propertyKey();
+            for ( int i = 0; i < propertyKeys.length; i++ )
+            {
+                if ( propertyKeys[i] == propertyKey && values[i] == null )
+                {
+                    values[i] = propertyValue();
+                    remaining--;
+                    break;
+                }
+            }
+        }
+    }
 }
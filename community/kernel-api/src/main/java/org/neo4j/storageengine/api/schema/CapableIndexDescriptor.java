@@ -59,6 +59,18 @@ public class CapableIndexDescriptor extends StoreIndexDescriptor
         return indexCapability.limitations();
     }
 
+    @Override
+    public boolean supportsGranularCompositeQueries()
+    {
+        return indexCapability.supportsGranularCompositeQueries();
+    }
+
+    @Override
+    public boolean supportsNearestNeighbours()
+    {
+        return indexCapability.supportsNearestNeighbours();
+    }
+
     @Override
     public boolean isFulltextIndex()
     {
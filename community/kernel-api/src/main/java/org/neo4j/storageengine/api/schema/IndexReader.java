@@ -64,6 +64,21 @@ public interface IndexReader extends Resource
     void query( IndexProgressor.NodeValueClient client, IndexOrder indexOrder, boolean needsValues, IndexQuery... query )
             throws IndexNotApplicableKernelException;
 
+    /**
+     * Queries the index for the given {@link IndexQuery} predicates, splitting the result into partitions which can be
+     * read in parallel, from different threads. By default the result isn't split, i.e. there's a single partition.
+     *
+     * @param desiredNumberOfPartitions the desired number of partitions to split the result into, the actual number may differ.
+     * @param needsValues if the index should fetch property values together with node ids for index queries.
+     * @param query the query to serve.
+     * @return {@link PartitionedValueSeek} handing out the partitions.
+     */
+    default PartitionedValueSeek partitionedQuery( int desiredNumberOfPartitions, boolean needsValues, IndexQuery... query )
+            throws IndexNotApplicableKernelException
+    {
+        return PartitionedValueSeek.singlePartition( this, needsValues, query );
+    }
+
     /**
      * @param predicates query to determine whether or not index has full value precision for.
      * @return whether or not this reader will only return 100% matching results from {@link #query(IndexQuery...)}.
@@ -72,6 +87,21 @@ public interface IndexReader extends Resource
      */
     boolean hasFullValuePrecision( IndexQuery... predicates );
 
+    /**
+     * Like {@link #hasFullValuePrecision(IndexQuery...)}, but for the query served by
+     * {@link #query(IndexProgressor.NodeValueClient, IndexOrder, boolean, IndexQuery...)} with the given order and need
+     * for values, since those may decide how the index serves the query.
+     *
+     * @param indexOrder the order the query will be served in.
+     * @param needsValues whether or not the query will fetch property values together with node ids.
+     * @param predicates query to determine whether or not index has full value precision for.
+     * @return whether or not this reader will only return 100% matching results for the query.
+     */
+    default boolean hasFullValuePrecision( IndexOrder indexOrder, boolean needsValues, IndexQuery... predicates )
+    {
+        return hasFullValuePrecision( predicates );
+    }
+
     /**
      * Initializes {@code client} to be able to progress through all distinct values in this index. {@link IndexProgressor.NodeValueClient}
      * is used because it has a perfect method signature, even if the {@code reference} argument will instead be used
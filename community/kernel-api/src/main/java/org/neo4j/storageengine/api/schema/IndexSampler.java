@@ -23,6 +23,7 @@
 package org.neo4j.storageengine.api.schema;
 
 import java.io.Closeable;
+import java.util.function.LongConsumer;
 
 import org.neo4j.internal.kernel.api.exceptions.schema.IndexNotFoundKernelException;
 
@@ -41,6 +42,19 @@ public interface IndexSampler extends Closeable
      */
     IndexSample sampleIndex() throws IndexNotFoundKernelException;
 
+    /**
+     * Sample this index (on the current thread), like {@link #sampleIndex()}, additionally reporting a 64-bit hash
+     * of the values of each distinct entry seen.
+     *
+     * @param distinctValueHashes receives the hash of each distinct value.
+     * @return the index sampling result, or {@code null} if this sampler can not report distinct values.
+     * @throws IndexNotFoundKernelException if the index is dropped while sampling
+     */
+    default IndexSample sampleIndex( LongConsumer distinctValueHashes ) throws IndexNotFoundKernelException
+    {
+        return null;
+    }
+
     @Override
     default void close()
     {   // no-op
@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2018-2020 "Graph Foundation"
+ * Graph Foundation, Inc. [https://graphfoundation.org]
+ *
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of ONgDB.
+ *
+ * ONgDB is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.storageengine.api.schema;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.neo4j.internal.kernel.api.IndexOrder;
+import org.neo4j.internal.kernel.api.IndexQuery;
+import org.neo4j.internal.kernel.api.exceptions.schema.IndexNotApplicableKernelException;
+
+/**
+ * Result of an index query split into partitions, which can be read in parallel from different threads.
+ * Partitions are handed out one at a time, each to one {@link IndexProgressor.NodeValueClient}.
+ * Results are in no particular order across partitions.
+ */
+public interface PartitionedValueSeek
+{
+    /**
+     * @return the number of partitions the query was split into, which may differ from the desired number of partitions.
+     */
+    int getNumberOfPartitions();
+
+    /**
+     * Initializes {@code client} with the next partition which hasn't yet been handed out. Safe to call concurrently.
+     *
+     * @param client the client which will control the progression through the results of the partition.
+     * @return {@code true} if the client was initialized with a partition, {@code false} if all partitions have been handed out.
+     */
+    boolean reservePartition( IndexProgressor.NodeValueClient client );
+
+    /**
+     * A single partition containing all results of the query, for index readers which cannot split queries.
+     *
+     * @param reader the {@link IndexReader} to query.
+     * @param needsValues if the index should fetch property values together with node ids.
+     * @param query the query to serve.
+     * @return a {@link PartitionedValueSeek} with one partition.
+     */
+    static PartitionedValueSeek singlePartition( IndexReader reader, boolean needsValues, IndexQuery... query )
+    {
+        AtomicBoolean reserved = new AtomicBoolean();
+        return new PartitionedValueSeek()
+        {
+            @Override
+            public int getNumberOfPartitions()
+            {
+                return 1;
+            }
+
+            @Override
+            public boolean reservePartition( IndexProgressor.NodeValueClient client )
+            {
+                if ( !reserved.compareAndSet( false, true ) )
+                {
+                    return false;
+                }
+                try
+                {
+                    reader.query( client, IndexOrder.NONE, needsValues, query );
+                }
+                catch ( IndexNotApplicableKernelException e )
+                {
+                    throw new IllegalStateException( "Index query not applicable to partition", e );
+                }
+                return true;
+            }
+        };
+    }
+}
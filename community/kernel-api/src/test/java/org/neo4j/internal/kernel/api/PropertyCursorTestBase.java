@@ -269,6 +269,41 @@ public abstract class PropertyCursorTestBase<G extends KernelAPIReadTestSupport>
         }
     }
 
+    @Test
+    public void shouldReadProjectedNodeProperties()
+    {
+        // given
+        int[] propertyKeys = {token.propertyKey( "doubleProp" ), token.propertyKey( "byteProp" ), token.propertyKey( "shortStringProp" )};
+        try ( NodeCursor node = cursors.allocateNodeCursor(); PropertyCursor props = cursors.allocatePropertyCursor() )
+        {
+            // when
+            read.singleNode( allProps, node );
+            assertTrue( "node by reference", node.next() );
+            node.properties( props );
+            Value[] values = new Value[propertyKeys.length];
+            int found = props.readProperties( propertyKeys, values );
+
+            // then
+            assertEquals( 3, found );
+            assertEquals( Values.of( 13.0 ), values[0] );
+            assertEquals( Values.of( (byte) 13 ), values[1] );
+            assertEquals( Values.of( "hello" ), values[2] );
+            assertFalse( "exhausted", props.next() );
+
+            // when
+            read.singleNode( byteProp, node );
+            assertTrue( "node by reference", node.next() );
+            node.properties( props );
+            found = props.readProperties( propertyKeys, values );
+
+            // then
+            assertEquals( 1, found );
+            assertEquals( Values.NO_VALUE, values[0] );
+            assertEquals( Values.of( (byte) 13 ), values[1] );
+            assertEquals( Values.NO_VALUE, values[2] );
+        }
+    }
+
     private void assertAccessSingleProperty( long nodeId, Object expectedValue, ValueGroup expectedValueType )
     {
         // given
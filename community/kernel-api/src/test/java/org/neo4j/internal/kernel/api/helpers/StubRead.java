@@ -64,6 +64,12 @@ public class StubRead implements Read
         throw new UnsupportedOperationException();
     }
 
+    @Override
+    public Scan<NodeValueIndexCursor> nodeIndexScan( IndexReference index, int desiredNumberOfPartitions, boolean needsValues )
+    {
+        throw new UnsupportedOperationException();
+    }
+
     @Override
     public void nodeLabelScan( int label, NodeLabelIndexCursor cursor )
     {
@@ -632,6 +632,13 @@ public class GraphDatabaseSettings implements LoadableConfig
     public static final Setting<Integer> index_sampling_update_percentage =
             buildSetting( "dbms.index_sampling.update_percentage", INTEGER, "5" ).constraint( min( 0 ) ).build();
 
+    @Internal
+    @Description( "Keep index samples up to date from the updates applied to online indexes, instead of scanning " +
+            "the whole index every time it needs to be sampled. Every index update is then hashed into an in-memory " +
+            "sketch of the distinct values of the index." )
+    public static final Setting<Boolean> index_sampling_incremental_enabled =
+            setting( "unsupported.dbms.index_sampling.incremental_enabled", BOOLEAN, TRUE );
+
     // Lucene settings
     @Description( "The maximum number of open Lucene index searchers." )
     public static final Setting<Integer> lucene_searcher_cache_size = buildSetting( "dbms.index_searcher_cache_size",INTEGER,
@@ -732,6 +739,13 @@ public class GraphDatabaseSettings implements LoadableConfig
     public static final Setting<Long> logical_log_rotation_threshold =
             buildSetting( "dbms.tx_log.rotation.size", BYTES, "250M" ).constraint( min( ByteUnit.mebiBytes( 1 ) ) ).build();
 
+    @Description( "Transactions with more commands than this are appended to the logical log in chunks of this " +
+            "many commands, so that they don't have to be serialized in one go. `0` disables chunked appends. " +
+            "Logs containing chunked transactions can not be read by versions older than 3.6." )
+    @Internal
+    public static final Setting<Integer> tx_log_chunk_size =
+            buildSetting( "unsupported.dbms.tx_log.chunk_size", INTEGER, "0" ).constraint( min( 0 ) ).build();
+
     @Description( "If `true`, Neo4j will abort recovery if any errors are encountered in the logical log. Setting " +
             "this to `false` will allow Neo4j to restore as much as possible from the corrupted log files and ignore " +
             "the rest, but, the integrity of the database might be compromised." )
@@ -1083,6 +1097,23 @@ public class GraphDatabaseSettings implements LoadableConfig
     public static final Setting<Boolean> archive_failed_index = setting(
             "unsupported.dbms.index.archive_failed", BOOLEAN, FALSE );
 
+    @Description( "Interval between online compactions of native btree indexes, which merge underfilled leaves left behind by removals " +
+            "and stop allocating pages at the end of index files, so that index files can be truncated when closed. " +
+            "Zero disables compaction." )
+    @Internal
+    public static final Setting<Duration> index_compaction_interval = setting(
+            "unsupported.dbms.index.compaction_interval", DURATION, "0s" );
+
+    @Description( "Time to pause between the steps of an online index compaction, letting index updates make progress in between." )
+    @Internal
+    public static final Setting<Duration> index_compaction_step_interval = buildSetting(
+            "unsupported.dbms.index.compaction_step_interval", DURATION, "100ms" ).constraint( min( Duration.ofMillis( 1 ) ) ).build();
+
+    @Description( "Maximum number of index leaves visited by one step of an online index compaction, i.e. while index updates are blocked." )
+    @Internal
+    public static final Setting<Integer> index_compaction_step_size = buildSetting(
+            "unsupported.dbms.index.compaction_step_size", INTEGER, "1000" ).constraint( range( 1, Integer.MAX_VALUE ) ).build();
+
     // Needed to validate config, accessed via reflection
     @SuppressWarnings( "unused" )
     public static final BoltConnectorValidator boltValidator = new BoltConnectorValidator();
@@ -135,6 +135,16 @@ public abstract class IndexProvider extends LifecycleAdapter
             public void recoveryCleanupFailed( File indexFile, IndexDescriptor indexDescriptor, Throwable throwable )
             {   // no-op
             }
+
+            @Override
+            public void compactionCompleted( File indexFile, IndexDescriptor indexDescriptor, long highIdBefore, long highIdAfter )
+            {   // no-op
+            }
+
+            @Override
+            public void compactionFailed( File indexFile, IndexDescriptor indexDescriptor, Throwable throwable )
+            {   // no-op
+            }
         }
 
         void failedToOpenIndex( StoreIndexDescriptor schemaIndexDescriptor, String action, Exception cause );
@@ -149,6 +159,10 @@ public abstract class IndexProvider extends LifecycleAdapter
         void recoveryCleanupClosed( File indexFile, IndexDescriptor indexDescriptor );
 
         void recoveryCleanupFailed( File indexFile, IndexDescriptor indexDescriptor, Throwable throwable );
+
+        void compactionCompleted( File indexFile, IndexDescriptor indexDescriptor, long highIdBefore, long highIdAfter );
+
+        void compactionFailed( File indexFile, IndexDescriptor indexDescriptor, Throwable throwable );
     }
 
     public static final IndexProvider EMPTY =
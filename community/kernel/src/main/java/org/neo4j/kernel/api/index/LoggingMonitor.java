@@ -85,6 +85,19 @@ public class LoggingMonitor implements IndexProvider.Monitor
                 indexDescription( indexFile, indexDescriptor ), ExceptionUtils.getStackTrace( throwable ) ) );
     }
 
+    @Override
+    public void compactionCompleted( File indexFile, IndexDescriptor indexDescriptor, long highIdBefore, long highIdAfter )
+    {
+        log.info( String.format( "Schema index compaction completed: %s, highest page id before: %d, after: %d",
+                indexDescription( indexFile, indexDescriptor ), highIdBefore, highIdAfter ) );
+    }
+
+    @Override
+    public void compactionFailed( File indexFile, IndexDescriptor indexDescriptor, Throwable throwable )
+    {
+        log.warn( "Schema index compaction failed: " + indexDescription( indexFile, indexDescriptor ), throwable );
+    }
+
     private String indexDescription( File indexFile, IndexDescriptor indexDescriptor )
     {
         return "descriptor=" + indexDescriptor.toString() + ", indexFile=" + indexFile.getAbsolutePath();
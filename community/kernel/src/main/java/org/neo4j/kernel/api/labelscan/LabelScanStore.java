@@ -131,6 +131,18 @@ public interface LabelScanStore extends Lifecycle, ConsistencyCheckable
      */
     LabelScanWriter newWriter();
 
+    /**
+     * Acquire a writer for updating the store, which can be used concurrently with other writers acquired from this method,
+     * each by its own thread. Such writers must only be given updates for disjoint sets of nodes.
+     * Stores not supporting concurrent writers return writers which exclude each other.
+     *
+     * @return {@link LabelScanWriter} which can modify the {@link LabelScanStore} concurrently with other parallel writers.
+     */
+    default LabelScanWriter newParallelWriter()
+    {
+        return newWriter();
+    }
+
     /**
      * Forces all changes to disk. Called at certain points from within Neo4j for example when
      * rotating the logical log. After completion of this call there cannot be any essential state that
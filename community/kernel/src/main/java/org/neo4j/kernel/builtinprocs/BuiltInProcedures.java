@@ -43,6 +43,7 @@ import org.neo4j.graphdb.RelationshipType;
 import org.neo4j.graphdb.index.Index;
 import org.neo4j.graphdb.index.IndexManager;
 import org.neo4j.graphdb.index.RelationshipIndex;
+import org.neo4j.graphdb.spatial.Point;
 import org.neo4j.helpers.collection.Iterators;
 import org.neo4j.helpers.collection.MapUtil;
 import org.neo4j.helpers.collection.PrefetchingResourceIterator;
@@ -72,6 +73,7 @@ import org.neo4j.procedure.Name;
 import org.neo4j.procedure.Procedure;
 import org.neo4j.storageengine.api.EntityType;
 import org.neo4j.storageengine.api.schema.PopulationProgress;
+import org.neo4j.values.storable.Values;
 
 import static org.neo4j.helpers.collection.Iterators.asList;
 import static org.neo4j.procedure.Mode.READ;
@@ -229,6 +231,18 @@ public class BuiltInProcedures
         }
     }
 
+    @Description( "Find the nodes with the points closest to a point, closest first, using a native index on a point property " +
+            "(for example: CALL db.index.nearestNeighbours(\":Place(location)\", point({x: 1.0, y: 2.0}), 10))." )
+    @Procedure( name = "db.index.nearestNeighbours", mode = READ )
+    public Stream<WeightedNodeResult> nearestNeighbours( @Name( "index" ) String index, @Name( "point" ) Point point, @Name( "k" ) long k )
+            throws ProcedureException
+    {
+        try ( IndexProcedures indexProcedures = indexProcedures() )
+        {
+            return indexProcedures.nearestNeighbours( index, Values.point( point ), k, graphDatabaseAPI::getNodeById );
+        }
+    }
+
     @Procedure( name = "db.schema.nodeTypeProperties", mode = Mode.READ )
     @Description( "Show the derived property schema of the nodes in tabular form." )
     public Stream<NodePropertySchemaInfoResult> nodePropertySchema()
@@ -22,17 +22,25 @@
  */
 package org.neo4j.kernel.builtinprocs;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.function.LongFunction;
 import java.util.stream.Stream;
 
 import org.neo4j.function.Predicates;
+import org.neo4j.graphdb.Node;
+import org.neo4j.internal.kernel.api.IndexOrder;
+import org.neo4j.internal.kernel.api.IndexQuery;
 import org.neo4j.internal.kernel.api.IndexReference;
 import org.neo4j.internal.kernel.api.InternalIndexState;
+import org.neo4j.internal.kernel.api.NodeValueIndexCursor;
 import org.neo4j.internal.kernel.api.SchemaWrite;
 import org.neo4j.internal.kernel.api.TokenRead;
 import org.neo4j.internal.kernel.api.exceptions.InvalidTransactionTypeKernelException;
+import org.neo4j.internal.kernel.api.exceptions.KernelException;
 import org.neo4j.internal.kernel.api.exceptions.ProcedureException;
 import org.neo4j.internal.kernel.api.exceptions.schema.IllegalTokenNameException;
 import org.neo4j.internal.kernel.api.exceptions.schema.IndexNotFoundKernelException;
@@ -46,6 +54,8 @@ import org.neo4j.kernel.api.schema.SchemaDescriptorFactory;
 import org.neo4j.kernel.impl.api.index.IndexPopulationFailure;
 import org.neo4j.kernel.impl.api.index.IndexingService;
 import org.neo4j.kernel.impl.api.index.sampling.IndexSamplingMode;
+import org.neo4j.values.storable.CRSCalculator;
+import org.neo4j.values.storable.PointValue;
 
 public class IndexProcedures implements AutoCloseable
 {
@@ -92,6 +102,41 @@ public class IndexProcedures implements AutoCloseable
         indexingService.triggerIndexSampling( IndexSamplingMode.TRIGGER_REBUILD_UPDATED );
     }
 
+    public Stream<BuiltInProcedures.WeightedNodeResult> nearestNeighbours( String indexSpecification, PointValue point, long k,
+            LongFunction<Node> nodeById ) throws ProcedureException
+    {
+        if ( k < 1 || k > Integer.MAX_VALUE )
+        {
+            throw new ProcedureException( Status.Procedure.ProcedureCallFailed,
+                    "Number of nearest neighbours must be between 1 and %d, but was %d", Integer.MAX_VALUE, k );
+        }
+        IndexSpecifier specifier = IndexSpecifier.byPattern( indexSpecification );
+        IndexReference index = getIndex( specifier );
+        if ( index.properties().length != 1 )
+        {
+            throw new ProcedureException( Status.Procedure.ProcedureCallFailed,
+                    "Nearest neighbours can only be found in single property indexes, but %s has %d properties", specifier, index.properties().length );
+        }
+
+        // At most k neighbours, so collected before the statement of this procedure call is closed
+        CRSCalculator calculator = point.getCoordinateReferenceSystem().getCalculator();
+        List<BuiltInProcedures.WeightedNodeResult> neighbours = new ArrayList<>();
+        try ( NodeValueIndexCursor cursor = ktx.cursors().allocateNodeValueIndexCursor() )
+        {
+            ktx.dataRead().nodeIndexSeek( index, cursor, IndexOrder.NONE, true, IndexQuery.nearestNeighbours( index.properties()[0], point, (int) k ) );
+            while ( cursor.next() )
+            {
+                double distance = calculator.distance( point, (PointValue) cursor.propertyValue( 0 ) );
+                neighbours.add( new BuiltInProcedures.WeightedNodeResult( nodeById.apply( cursor.nodeReference() ), distance ) );
+            }
+        }
+        catch ( KernelException e )
+        {
+            throw new ProcedureException( e.status(), e, e.getMessage() );
+        }
+        return neighbours.stream();
+    }
+
     public Stream<BuiltInProcedures.SchemaIndexInfo> createIndex( String indexSpecification, String providerName ) throws ProcedureException
     {
         return createIndex( indexSpecification, providerName, "index created",
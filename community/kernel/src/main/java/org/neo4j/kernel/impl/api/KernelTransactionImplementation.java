@@ -183,6 +183,10 @@ public class KernelTransactionImplementation implements KernelTransaction, TxSta
     private long transactionId;
     private long commitTime;
     private volatile int reuseCount;
+    /**
+     * Slot of this transaction instance in {@link KernelTransactionSlots}, assigned by {@link KernelTransactions}.
+     */
+    private int registrySlot = KernelTransactionSlots.NO_SLOT;
     private volatile Map<String,Object> userMetaData;
     private final Operations operations;
 
@@ -283,6 +287,16 @@ public class KernelTransactionImplementation implements KernelTransaction, TxSta
         return reuseCount;
     }
 
+    int registrySlot()
+    {
+        return registrySlot;
+    }
+
+    void registrySlot( int slot )
+    {
+        this.registrySlot = slot;
+    }
+
     @Override
     public long startTime()
     {
@@ -1174,6 +1188,16 @@ public class KernelTransactionImplementation implements KernelTransaction, TxSta
             return transaction.collectionsFactory.getMemoryTracker().usedDirectMemory();
         }
 
+        /**
+         * Returns highest amount of direct memory that has been allocated by current transaction at the same time.
+         *
+         * @return peak amount of direct memory allocated by the transaction in bytes.
+         */
+        long peakDirectAllocatedBytes()
+        {
+            return transaction.collectionsFactory.getMemoryTracker().peakMemoryUsage();
+        }
+
         /**
          * Return CPU time used by current transaction in milliseconds
          * @return the current CPU time used by the transaction, in milliseconds.
@@ -0,0 +1,222 @@
+/*
+ * Copyright (c) 2018-2020 "Graph Foundation"
+ * Graph Foundation, Inc. [https://graphfoundation.org]
+ *
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of ONgDB.
+ *
+ * ONgDB is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.api;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+import static java.lang.Long.min;
+
+/**
+ * Fixed capacity registry of {@link KernelTransactionImplementation} instances.
+ * <p>
+ * Every transaction instance is assigned a slot when it's created and keeps it for its whole lifetime, i.e. across
+ * all the times it's taken from and returned to the transaction pool. Registering a slot requires a scan, but that
+ * only happens when brand-new transaction instances are created. Opening and closing a transaction only writes to its
+ * own slot, which makes both O(1), allocation free and free from contention with other transactions.
+ * <p>
+ * Each slot has a sequence number which is incremented both when the transaction in it is opened and closed, which
+ * makes the sequence number odd while open. Monitoring threads can take a cheap snapshot of open transactions by
+ * recording slots and their sequence numbers and later know that a transaction has closed by its sequence number
+ * having changed, regardless of whether or not the instance has been reused for another transaction since.
+ * Transactions which started before a given transaction id can be waited for even more cheaply, by comparing it to
+ * {@link #oldestActiveTransactionStartId()}.
+ * <p>
+ * Sequence numbers and start transaction ids are spread out so that slots of different transactions don't share
+ * cache lines.
+ */
+class KernelTransactionSlots
+{
+    static final int NO_SLOT = -1;
+    static final int DEFAULT_CAPACITY = 1024;
+    static final long NO_ACTIVE_TRANSACTION = Long.MAX_VALUE;
+
+    // 8 longs is 64 bytes, i.e. one cache line
+    private static final int STRIDE = 8;
+
+    private final int capacity;
+    private final AtomicReferenceArray<KernelTransactionImplementation> transactions;
+    private final AtomicLongArray sequences;
+    private final AtomicLongArray startTransactionIds;
+
+    KernelTransactionSlots( int capacity )
+    {
+        this.capacity = capacity;
+        this.transactions = new AtomicReferenceArray<>( capacity );
+        this.sequences = new AtomicLongArray( capacity * STRIDE );
+        this.startTransactionIds = new AtomicLongArray( capacity * STRIDE );
+    }
+
+    /**
+     * Assigns a free slot to a newly created transaction instance.
+     *
+     * @param tx transaction to register.
+     * @return the slot of the transaction, or {@link #NO_SLOT} if all slots are occupied.
+     */
+    int register( KernelTransactionImplementation tx )
+    {
+        for ( int slot = 0; slot < capacity; slot++ )
+        {
+            if ( transactions.get( slot ) == null && transactions.compareAndSet( slot, null, tx ) )
+            {
+                return slot;
+            }
+        }
+        return NO_SLOT;
+    }
+
+    /**
+     * Frees the slot of a disposed transaction instance, making it available for new instances.
+     *
+     * @param slot slot previously returned from {@link #register(KernelTransactionImplementation)}.
+     */
+    void unregister( int slot )
+    {
+        if ( isOpen( sequences.get( slot * STRIDE ) ) )
+        {
+            // Disposed without being closed, e.g. on shutdown, let snapshots see it as closed
+            sequences.incrementAndGet( slot * STRIDE );
+        }
+        transactions.set( slot, null );
+    }
+
+    /**
+     * Marks the transaction in the given slot as open.
+     *
+     * @param slot slot of the transaction.
+     * @param startTransactionId last committed transaction id when the transaction started.
+     */
+    void opened( int slot, long startTransactionId )
+    {
+        startTransactionIds.set( slot * STRIDE, startTransactionId );
+        sequences.incrementAndGet( slot * STRIDE );
+    }
+
+    /**
+     * Marks the transaction in the given slot as closed.
+     *
+     * @param slot slot of the transaction.
+     */
+    void closed( int slot )
+    {
+        sequences.incrementAndGet( slot * STRIDE );
+    }
+
+    /**
+     * @param slot slot to get the sequence number for.
+     * @return current sequence number of the given slot.
+     */
+    long sequence( int slot )
+    {
+        return sequences.get( slot * STRIDE );
+    }
+
+    /**
+     * @param slot slot to get the start transaction id for.
+     * @return last committed transaction id when the transaction in the given slot was last opened. Only meaningful
+     * if the sequence number of the slot is the same before and after reading it.
+     */
+    long startTransactionId( int slot )
+    {
+        return startTransactionIds.get( slot * STRIDE );
+    }
+
+    static boolean isOpen( long sequence )
+    {
+        return (sequence & 1) == 1;
+    }
+
+    int capacity()
+    {
+        return capacity;
+    }
+
+    /**
+     * @param slot slot to get the transaction for.
+     * @return the transaction instance registered in the given slot, or {@code null} if none.
+     */
+    KernelTransactionImplementation transaction( int slot )
+    {
+        return transactions.get( slot );
+    }
+
+    /**
+     * Visits all registered transaction instances, open as well as idle ones.
+     *
+     * @param visitor receives the registered transactions.
+     */
+    void forEachTransaction( Consumer<KernelTransactionImplementation> visitor )
+    {
+        for ( int slot = 0; slot < capacity; slot++ )
+        {
+            KernelTransactionImplementation tx = transactions.get( slot );
+            if ( tx != null )
+            {
+                visitor.accept( tx );
+            }
+        }
+    }
+
+    /**
+     * @param predicate predicate to test registered transaction instances with.
+     * @return whether or not any registered transaction instance matches the given predicate.
+     */
+    boolean anyTransaction( Predicate<KernelTransactionImplementation> predicate )
+    {
+        for ( int slot = 0; slot < capacity; slot++ )
+        {
+            KernelTransactionImplementation tx = transactions.get( slot );
+            if ( tx != null && predicate.test( tx ) )
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return the lowest last committed transaction id seen by any of the currently open transactions when they
+     * started, or {@link #NO_ACTIVE_TRANSACTION} if there are no open transactions.
+     */
+    long oldestActiveTransactionStartId()
+    {
+        long oldest = NO_ACTIVE_TRANSACTION;
+        for ( int slot = 0; slot < capacity; slot++ )
+        {
+            int index = slot * STRIDE;
+            long sequence = sequences.get( index );
+            if ( isOpen( sequence ) )
+            {
+                long startTransactionId = startTransactionIds.get( index );
+                // Only trust the start transaction id if it belongs to the same opening of the slot
+                if ( sequences.get( index ) == sequence )
+                {
+                    oldest = min( oldest, startTransactionId );
+                }
+            }
+        }
+        return oldest;
+    }
+}
@@ -22,15 +22,18 @@
  */
 package org.neo4j.kernel.impl.api;
 
+import java.util.HashSet;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
 import java.util.function.Supplier;
 
 import org.neo4j.collection.pool.LinkedQueuePool;
 import org.neo4j.collection.pool.MarshlandPool;
+import org.neo4j.collection.pool.Pool;
 import org.neo4j.function.Factory;
 import org.neo4j.graphdb.DatabaseShutdownException;
 import org.neo4j.graphdb.TransactionFailureException;
@@ -68,8 +71,9 @@ import org.neo4j.resources.HeapAllocation;
 import org.neo4j.storageengine.api.StorageEngine;
 import org.neo4j.time.SystemNanoClock;
 
+import static java.lang.Long.min;
 import static java.util.Collections.newSetFromMap;
-import static java.util.stream.Collectors.toSet;
+import static org.neo4j.kernel.impl.api.KernelTransactionSlots.NO_SLOT;
 
 /**
  * Central source of transactions in the database.
@@ -113,24 +117,30 @@ public class KernelTransactions extends LifecycleAdapter implements Supplier<Ker
     private final SchemaState schemaState;
 
     /**
-     * Used to enumerate all transactions in the system, active and idle ones.
+     * Used to enumerate all transactions in the system, active and idle ones, and to tell which of them are open.
      * <p>
-     * This data structure is *only* updated when brand-new transactions are created, or when transactions are disposed
-     * of. During normal operation (where all transactions come from and are returned to the pool), this will be left
-     * in peace, working solely as a collection of references to all transaction objects (idle and active) in the
-     * database.
+     * Slots are *only* assigned when brand-new transactions are created, or freed when transactions are disposed
+     * of. During normal operation (where all transactions come from and are returned to the pool), opening and closing
+     * a transaction only bumps the sequence number of its own slot.
      * <p>
      * As such, it provides a good mechanism for listing all transactions without requiring synchronization when
      * starting and committing transactions.
      */
-    private final Set<KernelTransactionImplementation> allTransactions = newSetFromMap( new ConcurrentHashMap<>() );
+    private final KernelTransactionSlots transactionSlots = new KernelTransactionSlots( KernelTransactionSlots.DEFAULT_CAPACITY );
+
+    /**
+     * Transactions created while all {@link #transactionSlots} were occupied.
+     */
+    private final Set<KernelTransactionImplementation> overflowTransactions = newSetFromMap( new ConcurrentHashMap<>() );
 
     // This is the factory that actually builds brand-new instances.
-    private final Factory<KernelTransactionImplementation> factory = new KernelTransactionImplementationFactory( allTransactions );
+    private final Factory<KernelTransactionImplementation> factory = new KernelTransactionImplementationFactory();
     // Global pool of transactions, wrapped by the thread-local marshland pool and so is not used directly.
-    private final GlobalKernelTransactionPool globalTxPool = new GlobalKernelTransactionPool( allTransactions, factory );
+    private final GlobalKernelTransactionPool globalTxPool = new GlobalKernelTransactionPool( transactionSlots, overflowTransactions, factory );
     // Pool of unused transactions.
     private final MarshlandPool<KernelTransactionImplementation> localTxPool = new MarshlandPool<>( globalTxPool );
+    // Pool given to the transactions, marks them as closed in their slot when released.
+    private final Pool<KernelTransactionImplementation> transactionPool = new SlotReleasingTransactionPool();
     private final ConstraintSemantics constraintSemantics;
 
     /**
@@ -200,6 +210,11 @@ public class KernelTransactions extends LifecycleAdapter implements Supplier<Ker
                 StatementLocks statementLocks = statementLocksFactory.newInstance();
                 tx.initialize( lastCommittedTransaction.transactionId(), lastCommittedTransaction.commitTimestamp(),
                         statementLocks, type, securityContext, timeout, userTransactionIdCounter.incrementAndGet() );
+                int slot = tx.registrySlot();
+                if ( slot != NO_SLOT )
+                {
+                    transactionSlots.opened( slot, lastCommittedTransaction.transactionId() );
+                }
                 return tx;
             }
             finally
@@ -222,11 +237,38 @@ public class KernelTransactions extends LifecycleAdapter implements Supplier<Ker
      */
     public Set<KernelTransactionHandle> activeTransactions()
     {
-        return allTransactions
-            .stream()
-            .map( this::createHandle )
-            .filter( KernelTransactionHandle::isOpen )
-            .collect( toSet() );
+        Set<KernelTransactionHandle> handles = new HashSet<>();
+        forEachTransaction( tx ->
+        {
+            KernelTransactionHandle handle = createHandle( tx );
+            if ( handle.isOpen() )
+            {
+                handles.add( handle );
+            }
+        } );
+        return handles;
+    }
+
+    /**
+     * Tells the oldest point in the transaction history that any open transaction may still be looking at.
+     * Cheap enough to be called frequently, it doesn't allocate and it doesn't synchronize with transactions.
+     * Snapshots from {@link #get()} use the same tracking to tell when transactions that started before them have
+     * closed.
+     *
+     * @return the lowest last committed transaction id that any of the currently open transactions saw when they
+     * started, or {@link Long#MAX_VALUE} if there are no open transactions.
+     */
+    public long oldestActiveTransactionStartId()
+    {
+        long oldest = transactionSlots.oldestActiveTransactionStartId();
+        for ( KernelTransactionImplementation tx : overflowTransactions )
+        {
+            if ( tx.isOpen() )
+            {
+                oldest = min( oldest, tx.lastTransactionIdWhenStarted() );
+            }
+        }
+        return oldest;
     }
 
     /**
@@ -250,12 +292,19 @@ public class KernelTransactions extends LifecycleAdapter implements Supplier<Ker
         // we mark all transactions for termination since we want to make sure these transactions
         // won't be reused, ever. Each transaction has, among other things, a Locks.Client and we
         // certainly want to keep that from being reused from this point.
-        allTransactions.forEach( tx -> tx.markForTermination( Status.General.DatabaseUnavailable ) );
+        forEachTransaction( tx -> tx.markForTermination( Status.General.DatabaseUnavailable ) );
     }
 
     public boolean haveClosingTransaction()
     {
-        return allTransactions.stream().anyMatch( KernelTransactionImplementation::isClosing );
+        return transactionSlots.anyTransaction( KernelTransactionImplementation::isClosing ) ||
+               overflowTransactions.stream().anyMatch( KernelTransactionImplementation::isClosing );
+    }
+
+    private void forEachTransaction( Consumer<KernelTransactionImplementation> visitor )
+    {
+        transactionSlots.forEachTransaction( visitor );
+        overflowTransactions.forEach( visitor );
     }
 
     @Override
@@ -281,7 +330,20 @@ public class KernelTransactions extends LifecycleAdapter implements Supplier<Ker
     @Override
     public KernelTransactionsSnapshot get()
     {
-        return new KernelTransactionsSnapshot( activeTransactions(), clock.millis() );
+        // Read before looking at the transactions, so that all transactions which started before the snapshot have
+        // seen this transaction id or an earlier one
+        long lastCommittedTransactionId = transactionIdStore.getLastCommittedTransaction().transactionId();
+        Set<KernelTransactionHandle> openOverflowTransactions = new HashSet<>();
+        for ( KernelTransactionImplementation tx : overflowTransactions )
+        {
+            KernelTransactionHandle handle = createHandle( tx );
+            if ( handle.isOpen() )
+            {
+                openOverflowTransactions.add( handle );
+            }
+        }
+        return new KernelTransactionsSnapshot( transactionSlots, lastCommittedTransactionId, openOverflowTransactions,
+                clock.millis() );
     }
 
     /**
@@ -354,45 +416,80 @@ public class KernelTransactions extends LifecycleAdapter implements Supplier<Ker
 
     private class KernelTransactionImplementationFactory implements Factory<KernelTransactionImplementation>
     {
-        private final Set<KernelTransactionImplementation> transactions;
-
-        KernelTransactionImplementationFactory( Set<KernelTransactionImplementation> transactions )
-        {
-            this.transactions = transactions;
-        }
-
         @Override
         public KernelTransactionImplementation newInstance()
         {
             KernelTransactionImplementation tx =
                     new KernelTransactionImplementation( config, statementOperations, schemaWriteGuard, hooks,
                             constraintIndexCreator, procedures, transactionHeaderInformationFactory,
-                            transactionCommitProcess, transactionMonitor, auxTxStateManager, localTxPool,
+                            transactionCommitProcess, transactionMonitor, auxTxStateManager, transactionPool,
                             clock, cpuClockRef, heapAllocationRef, tracers.transactionTracer, tracers.lockTracer,
                             tracers.pageCursorTracerSupplier, storageEngine, accessCapability,
                             autoIndexing,
                             explicitIndexStore, versionContextSupplier, collectionsFactorySupplier, constraintSemantics,
                             schemaState, indexingService, tokenHolders, dataSourceDependencies );
-            this.transactions.add( tx );
+            int slot = transactionSlots.register( tx );
+            tx.registrySlot( slot );
+            if ( slot == NO_SLOT )
+            {
+                overflowTransactions.add( tx );
+            }
             return tx;
         }
     }
 
+    private class SlotReleasingTransactionPool implements Pool<KernelTransactionImplementation>
+    {
+        @Override
+        public KernelTransactionImplementation acquire()
+        {
+            return localTxPool.acquire();
+        }
+
+        @Override
+        public void release( KernelTransactionImplementation tx )
+        {
+            int slot = tx.registrySlot();
+            if ( slot != NO_SLOT )
+            {
+                transactionSlots.closed( slot );
+            }
+            localTxPool.release( tx );
+        }
+
+        @Override
+        public void close()
+        {
+            localTxPool.close();
+        }
+    }
+
     private static class GlobalKernelTransactionPool extends LinkedQueuePool<KernelTransactionImplementation>
     {
-        private final Set<KernelTransactionImplementation> transactions;
+        private final KernelTransactionSlots transactionSlots;
+        private final Set<KernelTransactionImplementation> overflowTransactions;
 
-        GlobalKernelTransactionPool( Set<KernelTransactionImplementation> transactions,
+        GlobalKernelTransactionPool( KernelTransactionSlots transactionSlots, Set<KernelTransactionImplementation> overflowTransactions,
                 Factory<KernelTransactionImplementation> factory )
         {
             super( 8, factory );
-            this.transactions = transactions;
+            this.transactionSlots = transactionSlots;
+            this.overflowTransactions = overflowTransactions;
         }
 
         @Override
         protected void dispose( KernelTransactionImplementation tx )
         {
-            transactions.remove( tx );
+            int slot = tx.registrySlot();
+            if ( slot != NO_SLOT )
+            {
+                transactionSlots.unregister( slot );
+                tx.registrySlot( NO_SLOT );
+            }
+            else
+            {
+                overflowTransactions.remove( tx );
+            }
             tx.dispose();
             super.dispose( tx );
         }
@@ -22,6 +22,7 @@
  */
 package org.neo4j.kernel.impl.api;
 
+import java.util.Arrays;
 import java.util.Set;
 
 import org.neo4j.kernel.api.KernelTransactionHandle;
@@ -30,18 +31,37 @@ import org.neo4j.kernel.api.KernelTransactionHandle;
  * An instance of this class can get a snapshot of all currently running transactions and be able to tell
  * later if all transactions which were running when it was constructed have closed.
  * <p>
- * Creating a snapshot creates a list and one additional book keeping object per open transaction.
+ * Creating a snapshot creates a list and one additional book keeping object per open transaction, except for
+ * transactions tracked in {@link KernelTransactionSlots}. Those are told apart by the last committed transaction id
+ * they saw when they started: any of them that started before the last committed transaction at the time of the
+ * snapshot is covered by {@link KernelTransactionSlots#oldestActiveTransactionStartId()}, so only the slots and
+ * sequence numbers of transactions that started on exactly that last committed transaction need to be recorded.
  * No thread doing normal transaction work should create snapshots, only threads that monitor transactions.
  */
 public class KernelTransactionsSnapshot
 {
+    private static final int[] NO_SLOTS = new int[0];
+    private static final long[] NO_SEQUENCES = new long[0];
+
     private Tx relevantTransactions;
     private final long snapshotTime;
+    private final KernelTransactionSlots slots;
+    private final long lastCommittedTransactionId;
+    private int[] relevantSlots = NO_SLOTS;
+    private long[] relevantSequences = NO_SEQUENCES;
+    private int relevantSlotCount;
+    private int closedSlotCount;
 
     public KernelTransactionsSnapshot( Set<KernelTransactionHandle> allTransactions, long snapshotTime )
+    {
+        this( null, 0, allTransactions, snapshotTime );
+    }
+
+    KernelTransactionsSnapshot( KernelTransactionSlots slots, long lastCommittedTransactionId,
+            Set<KernelTransactionHandle> otherTransactions, long snapshotTime )
     {
         Tx head = null;
-        for ( KernelTransactionHandle tx : allTransactions )
+        for ( KernelTransactionHandle tx : otherTransactions )
         {
             if ( tx.isOpen() )
             {
@@ -59,10 +79,57 @@ public class KernelTransactionsSnapshot
         }
         relevantTransactions = head;
         this.snapshotTime = snapshotTime;
+        this.slots = slots;
+        this.lastCommittedTransactionId = lastCommittedTransactionId;
+        if ( slots != null )
+        {
+            recordOpenSlots( slots );
+        }
+    }
+
+    private void recordOpenSlots( KernelTransactionSlots slots )
+    {
+        for ( int slot = 0; slot < slots.capacity(); slot++ )
+        {
+            long sequence = slots.sequence( slot );
+            if ( KernelTransactionSlots.isOpen( sequence ) &&
+                 slots.startTransactionId( slot ) >= lastCommittedTransactionId && slots.sequence( slot ) == sequence )
+            {
+                // Started on the last committed transaction, which transactions starting after this snapshot may
+                // do as well, so it can't be told apart from those by its start transaction id alone
+                if ( relevantSlotCount == relevantSlots.length )
+                {
+                    int newLength = Math.max( 8, relevantSlotCount * 2 );
+                    relevantSlots = Arrays.copyOf( relevantSlots, newLength );
+                    relevantSequences = Arrays.copyOf( relevantSequences, newLength );
+                }
+                relevantSlots[relevantSlotCount] = slot;
+                relevantSequences[relevantSlotCount] = sequence;
+                relevantSlotCount++;
+            }
+        }
     }
 
     public boolean allClosed()
     {
+        if ( slots != null && slots.oldestActiveTransactionStartId() < lastCommittedTransactionId )
+        {
+            // A transaction which started before this snapshot was taken is still open
+            return false;
+        }
+
+        while ( closedSlotCount < relevantSlotCount )
+        {
+            if ( slots.sequence( relevantSlots[closedSlotCount] ) == relevantSequences[closedSlotCount] )
+            {
+                // The transaction in this slot hasn't closed yet
+                return false;
+            }
+
+            // Any change of sequence number means that this transaction has been closed, don't check it the next time
+            closedSlotCount++;
+        }
+
         while ( relevantTransactions != null )
         {
             if ( !relevantTransactions.haveClosed() )
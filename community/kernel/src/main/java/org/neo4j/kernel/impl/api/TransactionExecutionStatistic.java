@@ -32,6 +32,7 @@ public class TransactionExecutionStatistic
 
     private final Long heapAllocatedBytes;
     private final Long directAllocatedBytes;
+    private final Long peakDirectAllocatedBytes;
     private final Long cpuTimeMillis;
     private final long waitTimeMillis;
     private final long elapsedTimeMillis;
@@ -43,6 +44,7 @@ public class TransactionExecutionStatistic
     {
         heapAllocatedBytes = null;
         directAllocatedBytes = null;
+        peakDirectAllocatedBytes = null;
         cpuTimeMillis = null;
         waitTimeMillis = -1;
         elapsedTimeMillis = -1;
@@ -59,6 +61,7 @@ public class TransactionExecutionStatistic
         this.waitTimeMillis = NANOSECONDS.toMillis( statistics.getWaitingTimeNanos( nowNanos ) );
         this.heapAllocatedBytes = nullIfNegative( statistics.heapAllocatedBytes() );
         this.directAllocatedBytes = nullIfNegative( statistics.directAllocatedBytes() );
+        this.peakDirectAllocatedBytes = nullIfNegative( statistics.peakDirectAllocatedBytes() );
         this.cpuTimeMillis = nullIfNegative( statistics.cpuTimeMillis() );
         this.pageFaults = statistics.totalTransactionPageCacheFaults();
         this.pageHits = statistics.totalTransactionPageCacheHits();
@@ -76,6 +79,11 @@ public class TransactionExecutionStatistic
         return directAllocatedBytes;
     }
 
+    public Long getPeakDirectAllocatedBytes()
+    {
+        return peakDirectAllocatedBytes;
+    }
+
     public Long getCpuTimeMillis()
     {
         return cpuTimeMillis;
@@ -33,13 +33,16 @@ import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.BooleanSupplier;
+import java.util.function.IntPredicate;
 
 import org.neo4j.function.Predicates;
 import org.neo4j.helpers.Exceptions;
+import org.neo4j.helpers.collection.Visitor;
 import org.neo4j.kernel.api.exceptions.index.IndexPopulationFailedKernelException;
 import org.neo4j.kernel.api.index.IndexEntryUpdate;
 import org.neo4j.kernel.impl.api.SchemaState;
 import org.neo4j.logging.LogProvider;
+import org.neo4j.scheduler.JobScheduler;
 import org.neo4j.storageengine.api.EntityType;
 import org.neo4j.util.FeatureToggles;
 
@@ -65,17 +68,22 @@ public class BatchingMultipleIndexPopulator extends MultipleIndexPopulator
     static final String TASK_QUEUE_SIZE_NAME = "task_queue_size";
     static final String AWAIT_TIMEOUT_MINUTES_NAME = "await_timeout_minutes";
     public static final String MAXIMUM_NUMBER_OF_WORKERS_NAME = "population_workers_maximum";
+    public static final String NUMBER_OF_SCAN_THREADS_NAME = "population_scan_threads";
 
     private static final String EOL = System.lineSeparator();
     private static final String FLUSH_THREAD_NAME_PREFIX = "Index Population Flush Thread";
 
-    // Maximum number of workers processing batches of updates from the scan. It is capped because there's only a single
-    // thread generating updates and it generally cannot saturate all the workers anyway.
+    // Maximum number of workers processing batches of updates from the scan. It is capped because updates are handed over
+    // from the scan one at a time and that generally cannot saturate all the workers anyway.
     private final int MAXIMUM_NUMBER_OF_WORKERS = FeatureToggles.getInteger( getClass(), MAXIMUM_NUMBER_OF_WORKERS_NAME,
             min( 8, Runtime.getRuntime().availableProcessors() - 1 ) );
     private final int TASK_QUEUE_SIZE = FeatureToggles.getInteger( getClass(), TASK_QUEUE_SIZE_NAME,
             getNumberOfPopulationWorkers() * 2 );
     private final int AWAIT_TIMEOUT_MINUTES = FeatureToggles.getInteger( getClass(), AWAIT_TIMEOUT_MINUTES_NAME, 30 );
+    // Number of threads scanning the node store. Reading nodes and their properties is what the single scan thread mostly spends
+    // its time on, so with more scan threads the workers above have a chance of actually being saturated.
+    private final int numberOfScanThreads;
+    private final JobScheduler scheduler;
 
     private final AtomicLong activeTasks = new AtomicLong();
     private final ExecutorService executor;
@@ -86,16 +94,20 @@ public class BatchingMultipleIndexPopulator extends MultipleIndexPopulator
      * @param logProvider the log provider
      * @param type entity type to populate
      * @param schemaState the schema state
+     * @param scheduler the job scheduler to run the store scan threads on
      */
     BatchingMultipleIndexPopulator( IndexStoreView storeView, LogProvider logProvider, EntityType type,
-                                    SchemaState schemaState )
+                                    SchemaState schemaState, JobScheduler scheduler )
     {
         super( storeView, logProvider, type, schemaState );
         this.executor = createThreadPool();
+        this.scheduler = scheduler;
+        this.numberOfScanThreads = FeatureToggles.getInteger( getClass(), NUMBER_OF_SCAN_THREADS_NAME,
+                Runtime.getRuntime().availableProcessors() );
     }
 
     /**
-     * Creates a new multi-threaded populator with the specified thread pool.
+     * Creates a new multi-threaded populator with the specified thread pool. The store is scanned by a single thread.
      * <p>
      * <b>NOTE:</b> for testing only.
      *
@@ -109,6 +121,8 @@ public class BatchingMultipleIndexPopulator extends MultipleIndexPopulator
     {
         super( storeView, logProvider, EntityType.NODE, schemaState );
         this.executor = executor;
+        this.scheduler = null;
+        this.numberOfScanThreads = 1;
     }
 
     @Override
@@ -118,6 +132,17 @@ public class BatchingMultipleIndexPopulator extends MultipleIndexPopulator
         return new BatchingStoreScan<>( storeScan );
     }
 
+    @Override
+    StoreScan<IndexPopulationFailedKernelException> visitNodes( int[] labelIds, IntPredicate propertyKeyIdFilter,
+            Visitor<EntityUpdates,IndexPopulationFailedKernelException> visitor )
+    {
+        if ( numberOfScanThreads > 1 )
+        {
+            return storeView.visitNodesInParallel( labelIds, propertyKeyIdFilter, visitor, numberOfScanThreads, scheduler );
+        }
+        return super.visitNodes( labelIds, propertyKeyIdFilter, visitor );
+    }
+
     @Override
     protected void flushAll()
     {
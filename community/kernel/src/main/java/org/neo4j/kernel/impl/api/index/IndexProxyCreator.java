@@ -28,6 +28,7 @@ import org.neo4j.internal.kernel.api.TokenNameLookup;
 import org.neo4j.kernel.api.index.IndexAccessor;
 import org.neo4j.kernel.api.index.IndexPopulator;
 import org.neo4j.kernel.api.index.IndexProvider;
+import org.neo4j.kernel.impl.api.index.sampling.IncrementalIndexSampling;
 import org.neo4j.kernel.impl.api.index.sampling.IndexSamplingConfig;
 import org.neo4j.kernel.impl.index.schema.ByteBufferFactory;
 import org.neo4j.logging.LogProvider;
@@ -47,18 +48,30 @@ class IndexProxyCreator
     private final IndexProviderMap providerMap;
     private final TokenNameLookup tokenNameLookup;
     private final LogProvider logProvider;
+    private final IncrementalIndexSampling incrementalSampling;
 
     IndexProxyCreator( IndexSamplingConfig samplingConfig,
             IndexStoreView storeView,
             IndexProviderMap providerMap,
             TokenNameLookup tokenNameLookup,
             LogProvider logProvider )
+    {
+        this( samplingConfig, storeView, providerMap, tokenNameLookup, logProvider, new IncrementalIndexSampling() );
+    }
+
+    IndexProxyCreator( IndexSamplingConfig samplingConfig,
+            IndexStoreView storeView,
+            IndexProviderMap providerMap,
+            TokenNameLookup tokenNameLookup,
+            LogProvider logProvider,
+            IncrementalIndexSampling incrementalSampling )
     {
         this.samplingConfig = samplingConfig;
         this.storeView = storeView;
         this.providerMap = providerMap;
         this.tokenNameLookup = tokenNameLookup;
         this.logProvider = logProvider;
+        this.incrementalSampling = incrementalSampling;
     }
 
     IndexProxy createPopulatingIndexProxy( final StoreIndexDescriptor descriptor, final boolean flipToTentative, final IndexingService.Monitor monitor,
@@ -87,7 +100,8 @@ class IndexProxyCreator
         {
             monitor.populationCompleteOn( descriptor );
             IndexAccessor accessor = onlineAccessorFromProvider( descriptor, samplingConfig );
-            OnlineIndexProxy onlineProxy = new OnlineIndexProxy( capableIndexDescriptor, accessor, storeView, true );
+            OnlineIndexProxy onlineProxy = new OnlineIndexProxy( capableIndexDescriptor, accessor, storeView, true,
+                    incrementalSampling.newStatistics( descriptor.getId() ) );
             if ( flipToTentative )
             {
                 return new TentativeConstraintIndexProxy( flipper, onlineProxy );
@@ -112,7 +126,8 @@ class IndexProxyCreator
             IndexAccessor onlineAccessor = onlineAccessorFromProvider( descriptor, samplingConfig );
             CapableIndexDescriptor capableIndexDescriptor = providerMap.withCapabilities( descriptor );
             IndexProxy proxy;
-            proxy = new OnlineIndexProxy( capableIndexDescriptor, onlineAccessor, storeView, false );
+            proxy = new OnlineIndexProxy( capableIndexDescriptor, onlineAccessor, storeView, false,
+                    incrementalSampling.newStatistics( descriptor.getId() ) );
             proxy = new ContractCheckingIndexProxy( proxy, true );
             return proxy;
         }
@@ -31,6 +31,7 @@ import org.neo4j.kernel.api.index.IndexEntryUpdate;
 import org.neo4j.storageengine.api.NodePropertyAccessor;
 import org.neo4j.kernel.api.labelscan.NodeLabelUpdate;
 import org.neo4j.register.Register.DoubleLongRegister;
+import org.neo4j.scheduler.JobScheduler;
 import org.neo4j.storageengine.api.EntityType;
 import org.neo4j.storageengine.api.schema.PopulationProgress;
 import org.neo4j.util.VisibleForTesting;
@@ -59,6 +60,26 @@ public interface IndexStoreView extends NodePropertyAccessor, PropertyLoader
             Visitor<NodeLabelUpdate, FAILURE> labelUpdateVisitor,
             boolean forceStoreScan );
 
+    /**
+     * Like {@link #visitNodes(int[], IntPredicate, Visitor, Visitor, boolean)}, but the returned scan may use up to
+     * {@code numberOfThreads} threads to read the nodes. Updates are still handed to the visitor one at a time, although
+     * not in node id order. Store views not able to scan in parallel will do a regular scan.
+     *
+     * @param labelIds array of label ids to generate updates for. Empty array means all.
+     * @param propertyKeyIdFilter property key ids to generate updates for.
+     * @param propertyUpdateVisitor visitor which will see all generated {@link EntityUpdates}.
+     * @param numberOfThreads maximum number of threads to scan with.
+     * @param scheduler {@link JobScheduler} to run the scan threads on.
+     * @return a {@link StoreScan} to start and to stop the scan.
+     */
+    default <FAILURE extends Exception> StoreScan<FAILURE> visitNodesInParallel(
+            int[] labelIds, IntPredicate propertyKeyIdFilter,
+            Visitor<EntityUpdates, FAILURE> propertyUpdateVisitor,
+            int numberOfThreads, JobScheduler scheduler )
+    {
+        return visitNodes( labelIds, propertyKeyIdFilter, propertyUpdateVisitor, null, false );
+    }
+
     /**
      * Retrieve all relationships in the database which has any of the the given relationship types AND
      * one or more of the given property key ids.
@@ -26,6 +26,7 @@ import org.neo4j.graphdb.factory.GraphDatabaseSettings;
 import org.neo4j.kernel.configuration.Config;
 import org.neo4j.kernel.impl.api.SchemaState;
 import org.neo4j.logging.LogProvider;
+import org.neo4j.scheduler.JobScheduler;
 import org.neo4j.storageengine.api.EntityType;
 
 /**
@@ -41,7 +42,7 @@ public abstract class MultiPopulatorFactory
     }
 
     public abstract MultipleIndexPopulator create( IndexStoreView storeView, LogProvider logProvider,
-                                                   EntityType type, SchemaState schemaState );
+                                                   EntityType type, SchemaState schemaState, JobScheduler scheduler );
 
     public static MultiPopulatorFactory forConfig( Config config )
     {
@@ -53,7 +54,7 @@ public abstract class MultiPopulatorFactory
     {
         @Override
         public MultipleIndexPopulator create( IndexStoreView storeView, LogProvider logProvider,
-                                              EntityType type, SchemaState schemaState )
+                                              EntityType type, SchemaState schemaState, JobScheduler scheduler )
         {
             return new MultipleIndexPopulator( storeView, logProvider, type, schemaState );
         }
@@ -63,9 +64,9 @@ public abstract class MultiPopulatorFactory
     {
         @Override
         public MultipleIndexPopulator create( IndexStoreView storeView, LogProvider logProvider,
-                                              EntityType type, SchemaState schemaState )
+                                              EntityType type, SchemaState schemaState, JobScheduler scheduler )
         {
-            return new BatchingMultipleIndexPopulator( storeView, logProvider, type, schemaState );
+            return new BatchingMultipleIndexPopulator( storeView, logProvider, type, schemaState, scheduler );
         }
     }
 }
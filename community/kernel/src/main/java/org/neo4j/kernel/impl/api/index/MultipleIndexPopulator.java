@@ -59,7 +59,6 @@ import org.neo4j.storageengine.api.schema.PopulationProgress;
 import org.neo4j.util.FeatureToggles;
 
 import static java.lang.String.format;
-import static org.eclipse.collections.impl.utility.ArrayIterate.contains;
 import static org.neo4j.kernel.impl.api.index.IndexPopulationFailure.failure;
 
 /**
@@ -72,7 +71,7 @@ import static org.neo4j.kernel.impl.api.index.IndexPopulationFailure.failure;
  * and generate updates that are fed into the {@link IndexPopulator populators}. Only a single call to this
  * method should be made during the life time of a {@link MultipleIndexPopulator} and should be called by the
  * same thread instantiating this instance.</li>
- * <li>{@link #queueUpdate(IndexEntryUpdate)} which queues updates which will be read by the thread currently executing
+ * <li>{@link #queueUpdate(IndexEntryUpdate)} which queues updates which will be read by the store scan started by
  * {@link #indexAllEntities()} and incorporated into that data stream. Calls to this method may come from any number
  * of concurrent threads.</li>
  * </ul>
@@ -105,7 +104,7 @@ public class MultipleIndexPopulator implements IndexPopulator
     // Failed populations are removed from this list while iterating over it.
     final List<IndexPopulation> populations = new CopyOnWriteArrayList<>();
 
-    private final IndexStoreView storeView;
+    final IndexStoreView storeView;
     private final LogProvider logProvider;
     protected final Log log;
     private final EntityType type;
@@ -167,8 +166,7 @@ public class MultipleIndexPopulator implements IndexPopulator
     StoreScan<IndexPopulationFailedKernelException> indexAllEntities()
     {
         int[] entityTokenIds = entityTokenIds();
-        int[] propertyKeyIds = propertyKeyIds();
-        IntPredicate propertyKeyIdFilter = propertyKeyId -> contains( propertyKeyIds, propertyKeyId );
+        IntPredicate propertyKeyIdFilter = new PropertyKeyIdFilter( propertyKeyIds() );
 
         if ( type == EntityType.RELATIONSHIP )
         {
@@ -176,7 +174,7 @@ public class MultipleIndexPopulator implements IndexPopulator
         }
         else
         {
-            storeScan = storeView.visitNodes( entityTokenIds, propertyKeyIdFilter, new EntityPopulationVisitor(), null, false );
+            storeScan = visitNodes( entityTokenIds, propertyKeyIdFilter, new EntityPopulationVisitor() );
         }
         storeScan.setPhaseTracker( phaseTracker );
         return new DelegatingStoreScan<IndexPopulationFailedKernelException>( storeScan )
@@ -190,6 +188,20 @@ public class MultipleIndexPopulator implements IndexPopulator
         };
     }
 
+    /**
+     * Creates the scan over all nodes which feeds updates to the populators.
+     *
+     * @param labelIds label ids to generate updates for.
+     * @param propertyKeyIdFilter property key ids to generate updates for.
+     * @param visitor visitor feeding the populators.
+     * @return the {@link StoreScan} over all nodes.
+     */
+    StoreScan<IndexPopulationFailedKernelException> visitNodes( int[] labelIds, IntPredicate propertyKeyIdFilter,
+            Visitor<EntityUpdates,IndexPopulationFailedKernelException> visitor )
+    {
+        return storeView.visitNodes( labelIds, propertyKeyIdFilter, visitor, null, false );
+    }
+
     /**
      * Queues an update to be fed into the index populators. These updates come from changes being made
      * to storage while a concurrent scan is happening to keep populators up to date with all latest changes.
@@ -33,6 +33,7 @@ import org.neo4j.io.pagecache.IOLimiter;
 import org.neo4j.kernel.api.exceptions.index.IndexEntryConflictException;
 import org.neo4j.kernel.api.index.IndexAccessor;
 import org.neo4j.kernel.api.index.IndexUpdater;
+import org.neo4j.kernel.impl.api.index.sampling.IncrementalIndexStatistics;
 import org.neo4j.kernel.impl.api.index.updater.UpdateCountingIndexUpdater;
 import org.neo4j.storageengine.api.NodePropertyAccessor;
 import org.neo4j.storageengine.api.schema.CapableIndexDescriptor;
@@ -47,6 +48,7 @@ public class OnlineIndexProxy implements IndexProxy
     final IndexAccessor accessor;
     private final IndexStoreView storeView;
     private final IndexCountsRemover indexCountsRemover;
+    private final IncrementalIndexStatistics statistics;
     private boolean started;
 
     // About this flag: there are two online "modes", you might say...
@@ -76,6 +78,12 @@ public class OnlineIndexProxy implements IndexProxy
     private final boolean forcedIdempotentMode;
 
     OnlineIndexProxy( CapableIndexDescriptor capableIndexDescriptor, IndexAccessor accessor, IndexStoreView storeView, boolean forcedIdempotentMode )
+    {
+        this( capableIndexDescriptor, accessor, storeView, forcedIdempotentMode, null );
+    }
+
+    OnlineIndexProxy( CapableIndexDescriptor capableIndexDescriptor, IndexAccessor accessor, IndexStoreView storeView, boolean forcedIdempotentMode,
+            IncrementalIndexStatistics statistics )
     {
         assert accessor != null;
         this.indexId = capableIndexDescriptor.getId();
@@ -83,6 +91,7 @@ public class OnlineIndexProxy implements IndexProxy
         this.accessor = accessor;
         this.storeView = storeView;
         this.forcedIdempotentMode = forcedIdempotentMode;
+        this.statistics = statistics;
         this.indexCountsRemover = new IndexCountsRemover( storeView, indexId );
     }
 
@@ -116,7 +125,7 @@ public class OnlineIndexProxy implements IndexProxy
 
     private IndexUpdater updateCountingUpdater( final IndexUpdater indexUpdater )
     {
-        return new UpdateCountingIndexUpdater( storeView, indexId, indexUpdater );
+        return new UpdateCountingIndexUpdater( storeView, indexId, indexUpdater, statistics );
     }
 
     @Override
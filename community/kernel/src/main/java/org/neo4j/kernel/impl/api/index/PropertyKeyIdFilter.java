@@ -0,0 +1,52 @@
+/*
+ * Copyright (c) 2018-2020 "Graph Foundation"
+ * Graph Foundation, Inc. [https://graphfoundation.org]
+ *
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of ONgDB.
+ *
+ * ONgDB is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.api.index;
+
+import java.util.function.IntPredicate;
+
+import static org.eclipse.collections.impl.utility.ArrayIterate.contains;
+
+/**
+ * Accepts a fixed set of property key ids. Store scans which are given this filter can read exactly these
+ * property keys from each entity in one pass, instead of testing each property that the entity has.
+ */
+public class PropertyKeyIdFilter implements IntPredicate
+{
+    private final int[] propertyKeyIds;
+
+    public PropertyKeyIdFilter( int[] propertyKeyIds )
+    {
+        this.propertyKeyIds = propertyKeyIds;
+    }
+
+    public int[] propertyKeyIds()
+    {
+        return propertyKeyIds;
+    }
+
+    @Override
+    public boolean test( int propertyKeyId )
+    {
+        return contains( propertyKeyIds, propertyKeyId );
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) 2018-2020 "Graph Foundation"
+ * Graph Foundation, Inc. [https://graphfoundation.org]
+ *
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of ONgDB.
+ *
+ * ONgDB is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.api.index.sampling;
+
+/**
+ * HyperLogLog sketch estimating the number of distinct 64-bit hashes {@link #add(long) added} to it,
+ * using one byte register per bucket. Hashes are expected to be well distributed, e.g. XXH64.
+ * <p>
+ * Instances are not thread safe.
+ */
+public class HyperLogLog
+{
+    static final int DEFAULT_PRECISION = 14;
+
+    private final int precision;
+    private final byte[] registers;
+
+    public HyperLogLog()
+    {
+        this( DEFAULT_PRECISION );
+    }
+
+    HyperLogLog( int precision )
+    {
+        if ( precision < 4 || precision > 18 )
+        {
+            throw new IllegalArgumentException( "Precision must be between 4 and 18, was " + precision );
+        }
+        this.precision = precision;
+        this.registers = new byte[1 << precision];
+    }
+
+    public void add( long hash )
+    {
+        int bucket = (int) (hash >>> (Long.SIZE - precision));
+        // Guard bit so that the rank never exceeds the number of remaining bits
+        long remaining = (hash << precision) | (1L << (precision - 1));
+        byte rank = (byte) (Long.numberOfLeadingZeros( remaining ) + 1);
+        if ( rank > registers[bucket] )
+        {
+            registers[bucket] = rank;
+        }
+    }
+
+    /**
+     * Merges the registers of {@code other} into this sketch, after which this sketch estimates the
+     * number of distinct hashes added to either of them.
+     *
+     * @param other sketch of the same precision.
+     * @return this sketch.
+     */
+    public HyperLogLog merge( HyperLogLog other )
+    {
+        if ( other.precision != precision )
+        {
+            throw new IllegalArgumentException( "Can not merge sketch of precision " + other.precision + " into " + precision );
+        }
+        for ( int i = 0; i < registers.length; i++ )
+        {
+            if ( other.registers[i] > registers[i] )
+            {
+                registers[i] = other.registers[i];
+            }
+        }
+        return this;
+    }
+
+    public long estimate()
+    {
+        int buckets = registers.length;
+        double sum = 0;
+        int emptyBuckets = 0;
+        for ( byte register : registers )
+        {
+            sum += 1.0 / (1L << register);
+            if ( register == 0 )
+            {
+                emptyBuckets++;
+            }
+        }
+        double alpha = 0.7213 / (1 + 1.079 / buckets);
+        double estimate = alpha * buckets * buckets / sum;
+        if ( estimate <= 2.5 * buckets && emptyBuckets > 0 )
+        {
+            // Small range correction, linear counting is more accurate while there are empty buckets
+            estimate = buckets * Math.log( (double) buckets / emptyBuckets );
+        }
+        return Math.round( estimate );
+    }
+}
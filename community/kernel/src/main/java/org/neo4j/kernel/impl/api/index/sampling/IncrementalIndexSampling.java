@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2018-2020 "Graph Foundation"
+ * Graph Foundation, Inc. [https://graphfoundation.org]
+ *
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of ONgDB.
+ *
+ * ONgDB is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.api.index.sampling;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.LongPredicate;
+
+/**
+ * The {@link IncrementalIndexStatistics} of all online indexes, shared between the index proxies feeding them
+ * with updates and the sampling controller publishing and re-seeding them.
+ */
+public class IncrementalIndexSampling
+{
+    private final Map<Long,IncrementalIndexStatistics> statistics = new HashMap<>();
+    private final boolean enabled;
+
+    public IncrementalIndexSampling()
+    {
+        this( true );
+    }
+
+    /**
+     * @param enabled whether or not to track statistics at all. When disabled no statistics are handed out, so index
+     * updates aren't hashed and every index is sampled by scanning it, as decided by the update ratio.
+     */
+    public IncrementalIndexSampling( boolean enabled )
+    {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Registers new, unseeded, statistics for the given index, replacing any existing statistics for it.
+     * The sketches only live in memory, so after a restart they are seeded again by a full sampling.
+     *
+     * @return the new statistics, or {@code null} if incremental sampling is disabled.
+     */
+    public synchronized IncrementalIndexStatistics newStatistics( long indexId )
+    {
+        if ( !enabled )
+        {
+            return null;
+        }
+        IncrementalIndexStatistics indexStatistics = new IncrementalIndexStatistics();
+        statistics.put( indexId, indexStatistics );
+        return indexStatistics;
+    }
+
+    /**
+     * @return statistics for the given index, or {@code null} if the index isn't tracked.
+     */
+    public synchronized IncrementalIndexStatistics statistics( long indexId )
+    {
+        return statistics.get( indexId );
+    }
+
+    synchronized void requireFullSampling( long indexId )
+    {
+        IncrementalIndexStatistics indexStatistics = statistics.get( indexId );
+        if ( indexStatistics != null )
+        {
+            indexStatistics.requireFullSampling();
+        }
+    }
+
+    synchronized void retain( LongPredicate indexIds )
+    {
+        statistics.keySet().removeIf( indexId -> !indexIds.test( indexId ) );
+    }
+}
@@ -0,0 +1,191 @@
+/*
+ * Copyright (c) 2018-2020 "Graph Foundation"
+ * Graph Foundation, Inc. [https://graphfoundation.org]
+ *
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of ONgDB.
+ *
+ * ONgDB is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.api.index.sampling;
+
+import org.neo4j.hashing.HashFunction;
+import org.neo4j.storageengine.api.schema.IndexSample;
+import org.neo4j.values.storable.Value;
+
+/**
+ * Statistics of a single online index, kept up to date from the updates applied to it so that the index
+ * sample can be refreshed without scanning the whole index.
+ * <p>
+ * Distinct values are estimated by a {@link HyperLogLog} sketch, which is seeded by a full sampling of the index.
+ * The sketch can not forget values, so removed and changed entries are only counted and once they exceed the
+ * update ratio a full sampling is needed again to bring the estimate back in line.
+ * <p>
+ * Nothing here is persisted. Statistics start out unseeded after a restart and are seeded again by the first
+ * full sampling of the index.
+ */
+public class IncrementalIndexStatistics
+{
+    private static final HashFunction HASH_FUNCTION = HashFunction.incrementalXXH64();
+    private static final long SEED = 1;
+
+    private HyperLogLog sketch;
+    private HyperLogLog pendingSketch;
+    private long size;
+    private long removals;
+    private long pendingRemovals;
+    private boolean fullSamplingRequired;
+    private volatile boolean unsupported;
+
+    /**
+     * @param values the values of an index entry.
+     * @return the hash used for {@code values} in the distinct value sketches.
+     */
+    public static long hash( Value[] values )
+    {
+        long hash = HASH_FUNCTION.initialise( SEED );
+        for ( Value value : values )
+        {
+            hash = value.updateHash( HASH_FUNCTION, hash );
+        }
+        return HASH_FUNCTION.finalise( hash );
+    }
+
+    public void include( Value[] values )
+    {
+        if ( unsupported )
+        {
+            return;
+        }
+        // The hash only depends on the values, so there's no need to hold the lock while computing it
+        long hash = hash( values );
+        synchronized ( this )
+        {
+            if ( sketch != null )
+            {
+                sketch.add( hash );
+                size++;
+            }
+            if ( pendingSketch != null )
+            {
+                pendingSketch.add( hash );
+            }
+        }
+    }
+
+    public synchronized void exclude()
+    {
+        if ( unsupported )
+        {
+            return;
+        }
+        if ( sketch != null )
+        {
+            size = Math.max( 0, size - 1 );
+            removals++;
+        }
+        if ( pendingSketch != null )
+        {
+            pendingRemovals++;
+        }
+    }
+
+    /**
+     * Marks the start of a full sampling of the index. Updates applied until the sampling
+     * {@link #completeSampling(HyperLogLog, long) completes} are kept on the side, since the sampling may or may
+     * not see them.
+     *
+     * @return a new sketch for the sampling to add the hashes of all distinct values it sees to.
+     */
+    public synchronized HyperLogLog startSampling()
+    {
+        pendingSketch = new HyperLogLog();
+        pendingRemovals = 0;
+        return new HyperLogLog();
+    }
+
+    public synchronized void completeSampling( HyperLogLog sampledSketch, long indexSize )
+    {
+        if ( pendingSketch == null )
+        {
+            // Sampling was aborted concurrently
+            return;
+        }
+        sketch = sampledSketch.merge( pendingSketch );
+        size = indexSize;
+        removals = pendingRemovals;
+        pendingSketch = null;
+        fullSamplingRequired = false;
+    }
+
+    public synchronized void abortSampling()
+    {
+        pendingSketch = null;
+    }
+
+    /**
+     * Marks the index as not able to report its distinct values when sampled, so that these statistics can never be
+     * seeded. Updates are ignored from then on.
+     */
+    public synchronized void markUnsupported()
+    {
+        unsupported = true;
+        sketch = null;
+        pendingSketch = null;
+    }
+
+    public boolean isSupported()
+    {
+        return !unsupported;
+    }
+
+    public synchronized boolean isSeeded()
+    {
+        return sketch != null;
+    }
+
+    /**
+     * Makes the next sampling of the index a full sampling, regardless of how far the sketch has drifted,
+     * e.g. when a resampling of the index has been explicitly asked for.
+     */
+    public synchronized void requireFullSampling()
+    {
+        fullSamplingRequired = true;
+    }
+
+    /**
+     * @param updateRatio ratio of removed entries to index size, as in {@link IndexSamplingConfig#updateRatio()}.
+     * @return whether or not the sketch has drifted too far, was never seeded or a full sampling has been explicitly
+     * required, so that a full sampling is needed.
+     */
+    public synchronized boolean needsFullSampling( double updateRatio )
+    {
+        return sketch == null || fullSamplingRequired || removals > Math.round( updateRatio * size );
+    }
+
+    /**
+     * @return the current estimate as an index sample, or {@code null} if this sketch is not yet seeded.
+     */
+    public synchronized IndexSample currentSample()
+    {
+        if ( sketch == null )
+        {
+            return null;
+        }
+        long uniqueValues = Math.min( sketch.estimate(), size );
+        return new IndexSample( size, uniqueValues, size );
+    }
+}
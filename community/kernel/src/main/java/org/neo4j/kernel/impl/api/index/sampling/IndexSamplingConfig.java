@@ -30,19 +30,28 @@ public class IndexSamplingConfig
     private final int sampleSizeLimit;
     private final double updateRatio;
     private final boolean backgroundSampling;
+    private final boolean incrementalSampling;
 
     public IndexSamplingConfig( Config config )
     {
         this( config.get( GraphDatabaseSettings.index_sample_size_limit ),
                           config.get( GraphDatabaseSettings.index_sampling_update_percentage ) / 100.0d,
-                          config.get( GraphDatabaseSettings.index_background_sampling_enabled ) );
+                          config.get( GraphDatabaseSettings.index_background_sampling_enabled ),
+                          config.get( GraphDatabaseSettings.index_sampling_incremental_enabled ) );
     }
 
     public IndexSamplingConfig( int sampleSizeLimit, double updateRatio, boolean backgroundSampling )
+    {
+        this( sampleSizeLimit, updateRatio, backgroundSampling, true );
+    }
+
+    public IndexSamplingConfig( int sampleSizeLimit, double updateRatio, boolean backgroundSampling,
+            boolean incrementalSampling )
     {
         this.sampleSizeLimit = sampleSizeLimit;
         this.updateRatio = updateRatio;
         this.backgroundSampling = backgroundSampling;
+        this.incrementalSampling = incrementalSampling;
     }
 
     public int sampleSizeLimit()
@@ -65,6 +74,11 @@ public class IndexSamplingConfig
         return backgroundSampling;
     }
 
+    public boolean incrementalSampling()
+    {
+        return incrementalSampling;
+    }
+
     @Override
     public boolean equals( Object o )
     {
@@ -81,6 +95,7 @@ public class IndexSamplingConfig
         IndexSamplingConfig that = (IndexSamplingConfig) o;
 
         return backgroundSampling == that.backgroundSampling &&
+               incrementalSampling == that.incrementalSampling &&
                sampleSizeLimit == that.sampleSizeLimit &&
                Double.compare( that.updateRatio, updateRatio ) == 0;
     }
@@ -92,6 +107,7 @@ public class IndexSamplingConfig
         long temp = Double.doubleToLongBits( updateRatio );
         result = 31 * result + (int) (temp ^ (temp >>> 32));
         result = 31 * result + (backgroundSampling ? 1 : 0);
+        result = 31 * result + (incrementalSampling ? 1 : 0);
         return result;
     }
 }
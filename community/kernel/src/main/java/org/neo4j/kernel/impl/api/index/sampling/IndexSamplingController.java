@@ -58,6 +58,7 @@ public class IndexSamplingController
     private final boolean backgroundSampling;
     private final Lock samplingLock = new ReentrantLock();
     private final Log log;
+    private final IncrementalIndexSampling incrementalSampling;
     static final String LOG_RECOVER_INDEX_SAMPLES_NAME = "log_recover_index_samples";
     static final String ASYNC_RECOVER_INDEX_SAMPLES_NAME = "async_recover_index_samples";
     static final String ASYNC_RECOVER_INDEX_SAMPLES_WAIT_NAME = "async_recover_index_samples_wait";
@@ -76,6 +77,20 @@ public class IndexSamplingController
                              JobScheduler scheduler,
                              RecoveryCondition indexRecoveryCondition,
                              LogProvider logProvider )
+    {
+        this( config, jobFactory, jobQueue, jobTracker, indexMapSnapshotProvider, scheduler, indexRecoveryCondition, logProvider,
+                new IncrementalIndexSampling() );
+    }
+
+    IndexSamplingController( IndexSamplingConfig config,
+                             IndexSamplingJobFactory jobFactory,
+                             IndexSamplingJobQueue<Long> jobQueue,
+                             IndexSamplingJobTracker jobTracker,
+                             IndexMapSnapshotProvider indexMapSnapshotProvider,
+                             JobScheduler scheduler,
+                             RecoveryCondition indexRecoveryCondition,
+                             LogProvider logProvider,
+                             IncrementalIndexSampling incrementalSampling )
     {
         this.backgroundSampling = config.backgroundSampling();
         this.jobFactory = jobFactory;
@@ -85,6 +100,7 @@ public class IndexSamplingController
         this.scheduler = scheduler;
         this.indexRecoveryCondition = indexRecoveryCondition;
         this.log = logProvider.getLog( getClass() );
+        this.incrementalSampling = incrementalSampling;
         this.logRecoverIndexSamples = FeatureToggles.flag( IndexSamplingController.class, LOG_RECOVER_INDEX_SAMPLES_NAME, false );
         this.asyncRecoverIndexSamples = FeatureToggles.flag( IndexSamplingController.class, ASYNC_RECOVER_INDEX_SAMPLES_NAME, false );
         this.asyncRecoverIndexSamplesWait =
@@ -94,6 +110,17 @@ public class IndexSamplingController
     public void sampleIndexes( IndexSamplingMode mode )
     {
         IndexMap indexMap = indexMapSnapshotProvider.indexMapSnapshot();
+        // Forget statistics of indexes that have been dropped since last time
+        incrementalSampling.retain( indexId -> indexMap.getIndexProxy( indexId ) != null );
+        if ( !mode.sampleOnlyIfUpdated )
+        {
+            // A forced sampling should scan the indexes, not just publish their incrementally maintained estimates
+            LongIterator indexIds = indexMap.indexIds();
+            while ( indexIds.hasNext() )
+            {
+                incrementalSampling.requireFullSampling( indexIds.next() );
+            }
+        }
         jobQueue.addAll( !mode.sampleOnlyIfUpdated, PrimitiveLongCollections.toIterator( indexMap.indexIds() ) );
         scheduleSampling( mode, indexMap );
     }
@@ -101,6 +128,10 @@ public class IndexSamplingController
     public void sampleIndex( long indexId, IndexSamplingMode mode )
     {
         IndexMap indexMap = indexMapSnapshotProvider.indexMapSnapshot();
+        if ( !mode.sampleOnlyIfUpdated )
+        {
+            incrementalSampling.requireFullSampling( indexId );
+        }
         jobQueue.add( !mode.sampleOnlyIfUpdated, indexId );
         scheduleSampling( mode, indexMap );
     }
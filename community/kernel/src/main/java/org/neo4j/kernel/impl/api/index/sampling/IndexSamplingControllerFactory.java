@@ -42,22 +42,31 @@ public class IndexSamplingControllerFactory
     private final JobScheduler scheduler;
     private final TokenNameLookup tokenNameLookup;
     private final LogProvider logProvider;
+    private final IncrementalIndexSampling incrementalSampling;
 
     public IndexSamplingControllerFactory( IndexSamplingConfig config, IndexStoreView storeView,
                                            JobScheduler scheduler, TokenNameLookup tokenNameLookup,
                                            LogProvider logProvider )
+    {
+        this( config, storeView, scheduler, tokenNameLookup, logProvider, new IncrementalIndexSampling() );
+    }
+
+    public IndexSamplingControllerFactory( IndexSamplingConfig config, IndexStoreView storeView,
+                                           JobScheduler scheduler, TokenNameLookup tokenNameLookup,
+                                           LogProvider logProvider, IncrementalIndexSampling incrementalSampling )
     {
         this.config = config;
         this.storeView = storeView;
         this.scheduler = scheduler;
         this.tokenNameLookup = tokenNameLookup;
         this.logProvider = logProvider;
+        this.incrementalSampling = incrementalSampling;
     }
 
     public IndexSamplingController create( IndexMapSnapshotProvider snapshotProvider )
     {
-        OnlineIndexSamplingJobFactory jobFactory =
-                new OnlineIndexSamplingJobFactory( storeView, tokenNameLookup, logProvider );
+        OnlineIndexSamplingJobFactory jobFactory = new OnlineIndexSamplingJobFactory(
+                storeView, tokenNameLookup, logProvider, incrementalSampling, config.updateRatio() );
         Predicate<Long> samplingUpdatePredicate = createSamplingPredicate();
         IndexSamplingJobQueue<Long> jobQueue = new IndexSamplingJobQueue<>( samplingUpdatePredicate );
         IndexSamplingJobTracker jobTracker = new IndexSamplingJobTracker( config, scheduler );
@@ -65,7 +74,7 @@ public class IndexSamplingControllerFactory
                 indexRecoveryCondition = createIndexRecoveryCondition( logProvider, tokenNameLookup );
         return new IndexSamplingController(
                 config, jobFactory, jobQueue, jobTracker, snapshotProvider, scheduler, indexRecoveryCondition,
-                logProvider );
+                logProvider, incrementalSampling );
     }
 
     private Predicate<Long> createSamplingPredicate()
@@ -80,6 +89,13 @@ public class IndexSamplingControllerFactory
                 storeView.indexUpdatesAndSize( indexId, output );
                 long updates = output.readFirst();
                 long size = output.readSecond();
+                IncrementalIndexStatistics statistics = incrementalSampling.statistics( indexId );
+                if ( statistics != null && statistics.isSupported() )
+                {
+                    // The sampling job either publishes the estimate kept up to date from the updates, or seeds the
+                    // statistics by a full sampling, which is also what rebuilds them after a restart
+                    return updates > 0 || statistics.needsFullSampling( config.updateRatio() );
+                }
                 long threshold = Math.round( config.updateRatio() * size );
                 return updates > threshold;
             }
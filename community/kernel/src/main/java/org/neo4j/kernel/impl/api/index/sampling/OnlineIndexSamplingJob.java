@@ -42,15 +42,25 @@ class OnlineIndexSamplingJob implements IndexSamplingJob
     private final IndexStoreView storeView;
     private final Log log;
     private final String indexUserDescription;
+    private final IncrementalIndexStatistics statistics;
+    private final double updateRatio;
 
     OnlineIndexSamplingJob( long indexId, IndexProxy indexProxy, IndexStoreView storeView, String indexUserDescription,
             LogProvider logProvider )
+    {
+        this( indexId, indexProxy, storeView, indexUserDescription, logProvider, null, 0 );
+    }
+
+    OnlineIndexSamplingJob( long indexId, IndexProxy indexProxy, IndexStoreView storeView, String indexUserDescription,
+            LogProvider logProvider, IncrementalIndexStatistics statistics, double updateRatio )
     {
         this.indexId = indexId;
         this.indexProxy = indexProxy;
         this.storeView = storeView;
         this.log = logProvider.getLog( getClass() );
         this.indexUserDescription = indexUserDescription;
+        this.statistics = statistics;
+        this.updateRatio = updateRatio;
     }
 
     @Override
@@ -62,6 +72,12 @@ class OnlineIndexSamplingJob implements IndexSamplingJob
     @Override
     public void run()
     {
+        if ( statistics != null && !statistics.needsFullSampling( updateRatio ) )
+        {
+            publishIncrementalSample();
+            return;
+        }
+
         try ( DurationLogger durationLogger = new DurationLogger( log, "Sampling index " + indexUserDescription ) )
         {
             try
@@ -69,13 +85,28 @@ class OnlineIndexSamplingJob implements IndexSamplingJob
                 try ( IndexReader reader = indexProxy.newReader();
                       IndexSampler sampler = reader.createSampler() )
                 {
-                    IndexSample sample = sampler.sampleIndex();
+                    HyperLogLog sketch = statistics != null && statistics.isSupported() ? statistics.startSampling() : null;
+                    IndexSample sample = sketch != null ? sampler.sampleIndex( sketch::add ) : null;
+                    if ( sample == null )
+                    {
+                        // This index can't report its distinct values, so it can't be sampled incrementally
+                        sketch = null;
+                        if ( statistics != null )
+                        {
+                            statistics.markUnsupported();
+                        }
+                        sample = sampler.sampleIndex();
+                    }
 
                     // check again if the index is online before saving the counts in the store
                     if ( indexProxy.getState() == ONLINE )
                     {
                         storeView.replaceIndexCounts( indexId, sample.uniqueValues(), sample.sampleSize(),
                                 sample.indexSize() );
+                        if ( sketch != null )
+                        {
+                            statistics.completeSampling( sketch, sample.indexSize() );
+                        }
                         durationLogger.markAsFinished();
                         log.debug(
                                 format( "Sampled index %s with %d unique values in sample of avg size %d taken from " +
@@ -85,16 +116,40 @@ class OnlineIndexSamplingJob implements IndexSamplingJob
                     }
                     else
                     {
+                        abortIncrementalSampling();
                         durationLogger.markAsAborted( "Index no longer ONLINE" );
                     }
                 }
             }
             catch ( IndexNotFoundKernelException e )
             {
+                abortIncrementalSampling();
                 durationLogger.markAsAborted(
                         "Attempted to sample missing/already deleted index " + indexUserDescription );
             }
         }
     }
 
+    /**
+     * The statistics of this index are kept up to date from its updates, so instead of scanning the whole index
+     * just publish their current estimate.
+     */
+    private void publishIncrementalSample()
+    {
+        IndexSample sample = statistics.currentSample();
+        if ( sample != null && indexProxy.getState() == ONLINE )
+        {
+            storeView.replaceIndexCounts( indexId, sample.uniqueValues(), sample.sampleSize(), sample.indexSize() );
+            log.debug( format( "Published incrementally maintained sample of index %s with %d unique values in index " +
+                            "containing %d entries", indexUserDescription, sample.uniqueValues(), sample.indexSize() ) );
+        }
+    }
+
+    private void abortIncrementalSampling()
+    {
+        if ( statistics != null )
+        {
+            statistics.abortSampling();
+        }
+    }
 }
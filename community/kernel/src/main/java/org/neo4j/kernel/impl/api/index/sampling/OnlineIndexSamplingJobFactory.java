@@ -32,18 +32,29 @@ public class OnlineIndexSamplingJobFactory implements IndexSamplingJobFactory
     private final IndexStoreView storeView;
     private final LogProvider logProvider;
     private final TokenNameLookup nameLookup;
+    private final IncrementalIndexSampling incrementalSampling;
+    private final double updateRatio;
 
     public OnlineIndexSamplingJobFactory( IndexStoreView storeView, TokenNameLookup nameLookup, LogProvider logProvider )
+    {
+        this( storeView, nameLookup, logProvider, new IncrementalIndexSampling( false ), 0 );
+    }
+
+    public OnlineIndexSamplingJobFactory( IndexStoreView storeView, TokenNameLookup nameLookup, LogProvider logProvider,
+            IncrementalIndexSampling incrementalSampling, double updateRatio )
     {
         this.storeView = storeView;
         this.logProvider = logProvider;
         this.nameLookup = nameLookup;
+        this.incrementalSampling = incrementalSampling;
+        this.updateRatio = updateRatio;
     }
 
     @Override
     public IndexSamplingJob create( long indexId, IndexProxy indexProxy )
     {
         final String indexUserDescription = indexProxy.getDescriptor().userDescription( nameLookup );
-        return new OnlineIndexSamplingJob( indexId, indexProxy, storeView, indexUserDescription, logProvider );
+        return new OnlineIndexSamplingJob( indexId, indexProxy, storeView, indexUserDescription, logProvider,
+                incrementalSampling.statistics( indexId ), updateRatio );
     }
 }
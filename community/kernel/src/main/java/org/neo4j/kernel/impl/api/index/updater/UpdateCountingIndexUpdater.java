@@ -26,19 +26,28 @@ import org.neo4j.kernel.api.exceptions.index.IndexEntryConflictException;
 import org.neo4j.kernel.api.index.IndexEntryUpdate;
 import org.neo4j.kernel.api.index.IndexUpdater;
 import org.neo4j.kernel.impl.api.index.IndexStoreView;
+import org.neo4j.kernel.impl.api.index.sampling.IncrementalIndexStatistics;
 
 public class UpdateCountingIndexUpdater implements IndexUpdater
 {
     private final IndexStoreView storeView;
     private final long indexId;
     private final IndexUpdater delegate;
+    private final IncrementalIndexStatistics statistics;
     private long updates;
 
     public UpdateCountingIndexUpdater( IndexStoreView storeView, long indexId, IndexUpdater delegate )
+    {
+        this( storeView, indexId, delegate, null );
+    }
+
+    public UpdateCountingIndexUpdater( IndexStoreView storeView, long indexId, IndexUpdater delegate,
+            IncrementalIndexStatistics statistics )
     {
         this.storeView = storeView;
         this.indexId = indexId;
         this.delegate = delegate;
+        this.statistics = statistics;
     }
 
     @Override
@@ -46,6 +55,29 @@ public class UpdateCountingIndexUpdater implements IndexUpdater
     {
         delegate.process( update );
         updates++;
+        if ( statistics != null )
+        {
+            updateStatistics( update );
+        }
+    }
+
+    private void updateStatistics( IndexEntryUpdate<?> update )
+    {
+        switch ( update.updateMode() )
+        {
+        case ADDED:
+            statistics.include( update.values() );
+            break;
+        case CHANGED:
+            statistics.exclude();
+            statistics.include( update.values() );
+            break;
+        case REMOVED:
+            statistics.exclude();
+            break;
+        default:
+            throw new IllegalArgumentException( "Unknown update mode " + update.updateMode() );
+        }
     }
 
     @Override
@@ -151,7 +151,7 @@ class NodeStateImpl extends PropertyContainerStateImpl implements NodeState
     {
         if ( !hasAddedRelationships() )
         {
-            relationshipsAdded = new RelationshipChangesForNode( DiffStrategy.ADD );
+            relationshipsAdded = new RelationshipChangesForNode( DiffStrategy.ADD, collectionsFactory );
         }
         relationshipsAdded.addRelationship( relId, typeId, direction );
     }
@@ -169,7 +169,7 @@ class NodeStateImpl extends PropertyContainerStateImpl implements NodeState
         }
         if ( !hasRemovedRelationships() )
         {
-            relationshipsRemoved = new RelationshipChangesForNode( DiffStrategy.REMOVE );
+            relationshipsRemoved = new RelationshipChangesForNode( DiffStrategy.REMOVE, collectionsFactory );
         }
         relationshipsRemoved.addRelationship( relId, typeId, direction );
     }
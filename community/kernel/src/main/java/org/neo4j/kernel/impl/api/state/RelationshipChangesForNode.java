@@ -29,18 +29,22 @@ import org.eclipse.collections.api.set.primitive.LongSet;
 import org.eclipse.collections.api.set.primitive.MutableLongSet;
 import org.eclipse.collections.impl.iterator.ImmutableEmptyLongIterator;
 import org.eclipse.collections.impl.map.mutable.primitive.IntObjectHashMap;
-import org.eclipse.collections.impl.set.mutable.primitive.LongHashSet;
+
+import java.util.ArrayList;
+import java.util.List;
 
 import org.neo4j.collection.PrimitiveLongCollections;
+import org.neo4j.kernel.impl.util.collection.CollectionsFactory;
 import org.neo4j.storageengine.api.RelationshipDirection;
 
-import static java.lang.Math.toIntExact;
-
 /**
  * Maintains relationships that have been added for a specific node.
  * <p/>
  * This class is not a trustworthy source of information unless you are careful - it does not, for instance, remove
  * rels if they are added and then removed in the same tx. It trusts wrapping data structures for that filtering.
+ * <p/>
+ * The per type sets of relationship ids are created by the {@link CollectionsFactory} of the owning transaction,
+ * so that they are kept off-heap when the transaction state is configured to be off-heap.
  */
 public class RelationshipChangesForNode
 {
@@ -71,20 +75,22 @@ public class RelationshipChangesForNode
     }
 
     private final DiffStrategy diffStrategy;
+    private final CollectionsFactory collectionsFactory;
 
     private MutableIntObjectMap<MutableLongSet> outgoing;
     private MutableIntObjectMap<MutableLongSet> incoming;
     private MutableIntObjectMap<MutableLongSet> loops;
 
-    public RelationshipChangesForNode( DiffStrategy diffStrategy )
+    public RelationshipChangesForNode( DiffStrategy diffStrategy, CollectionsFactory collectionsFactory )
     {
         this.diffStrategy = diffStrategy;
+        this.collectionsFactory = collectionsFactory;
     }
 
     public void addRelationship( long relId, int typeId, RelationshipDirection direction )
     {
         final MutableIntObjectMap<MutableLongSet> relTypeToRelsMap = getTypeToRelMapForDirection( direction );
-        final MutableLongSet rels = relTypeToRelsMap.getIfAbsentPut( typeId, LongHashSet::new );
+        final MutableLongSet rels = relTypeToRelsMap.getIfAbsentPut( typeId, collectionsFactory::newLongSet );
 
         rels.add( relId );
     }
@@ -93,15 +99,9 @@ public class RelationshipChangesForNode
     {
         final MutableIntObjectMap<MutableLongSet> relTypeToRelsMap = getTypeToRelMapForDirection( direction );
         final MutableLongSet rels = relTypeToRelsMap.get( typeId );
-        if ( rels != null && rels.remove( relId ) )
-        {
-            if ( rels.isEmpty() )
-            {
-                relTypeToRelsMap.remove( typeId );
-            }
-            return true;
-        }
-        return false;
+        // Empty sets are kept around, they are released together with the rest of the transaction state
+        // and will likely be reused if relationships of this type are added again
+        return rels != null && rels.remove( relId );
     }
 
     public int augmentDegree( RelationshipDirection direction, int degree, int typeId )
@@ -109,28 +109,27 @@ public class RelationshipChangesForNode
         switch ( direction )
         {
         case INCOMING:
-            if ( incoming != null && incoming.containsKey( typeId ) )
-            {
-                return diffStrategy.augmentDegree( degree, incoming.get( typeId ).size() );
-            }
-            break;
+            return augmentDegree( incoming, degree, typeId );
         case OUTGOING:
-            if ( outgoing != null && outgoing.containsKey( typeId ) )
-            {
-                return diffStrategy.augmentDegree( degree, outgoing.get( typeId ).size() );
-            }
-            break;
+            return augmentDegree( outgoing, degree, typeId );
         case LOOP:
-            if ( loops != null && loops.containsKey( typeId ) )
-            {
-                return diffStrategy.augmentDegree( degree, loops.get( typeId ).size() );
-            }
-            break;
+            return augmentDegree( loops, degree, typeId );
 
         default:
             throw new IllegalArgumentException( "Unknown direction: " + direction );
         }
+    }
 
+    private int augmentDegree( IntObjectMap<MutableLongSet> map, int degree, int typeId )
+    {
+        if ( map != null )
+        {
+            final LongSet rels = map.get( typeId );
+            if ( rels != null )
+            {
+                return diffStrategy.augmentDegree( degree, rels.size() );
+            }
+        }
         return degree;
     }
 
@@ -199,10 +198,11 @@ public class RelationshipChangesForNode
 
     public LongIterator getRelationships()
     {
-        return PrimitiveLongCollections.concat(
-                primitiveIds( incoming ),
-                primitiveIds( outgoing ),
-                primitiveIds( loops ) );
+        final List<LongIterator> iterators = new ArrayList<>();
+        addPrimitiveIds( incoming, iterators );
+        addPrimitiveIds( outgoing, iterators );
+        addPrimitiveIds( loops, iterators );
+        return PrimitiveLongCollections.concat( iterators );
     }
 
     public LongIterator getRelationships( RelationshipDirection direction, int type )
@@ -220,17 +220,22 @@ public class RelationshipChangesForNode
         }
     }
 
-    private static LongIterator primitiveIds( IntObjectMap<MutableLongSet> map )
+    /**
+     * A relationship is only ever recorded for one type and one direction of a node, so the sets are disjoint and
+     * can be iterated one after the other without first copying them into a single set.
+     */
+    private static void addPrimitiveIds( IntObjectMap<MutableLongSet> map, List<LongIterator> iterators )
     {
-        if ( map == null )
+        if ( map != null )
         {
-            return ImmutableEmptyLongIterator.INSTANCE;
+            map.forEachValue( rels ->
+            {
+                if ( !rels.isEmpty() )
+                {
+                    iterators.add( rels.freeze().longIterator() );
+                }
+            } );
         }
-
-        final int size = toIntExact( map.sumOfInt( LongSet::size ) );
-        final MutableLongSet ids = new LongHashSet( size );
-        map.values().forEach( ids::addAll );
-        return ids.longIterator();
     }
 
     private static LongIterator primitiveIdsByType( IntObjectMap<MutableLongSet> map, int type )
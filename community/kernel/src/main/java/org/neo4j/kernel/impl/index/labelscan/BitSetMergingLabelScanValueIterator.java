@@ -0,0 +1,325 @@
+/*
+ * Copyright (c) 2018-2020 "Graph Foundation"
+ * Graph Foundation, Inc. [https://graphfoundation.org]
+ *
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of ONgDB.
+ *
+ * ONgDB is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.index.labelscan;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Collection;
+import java.util.NoSuchElementException;
+
+import org.neo4j.collection.PrimitiveLongResourceIterator;
+import org.neo4j.cursor.RawCursor;
+import org.neo4j.index.internal.gbptree.Hit;
+import org.neo4j.util.FeatureToggles;
+
+import static org.neo4j.kernel.impl.index.labelscan.LabelScanValue.RANGE_SIZE;
+import static org.neo4j.kernel.impl.index.labelscan.NativeLabelScanWriter.rangeOf;
+import static org.neo4j.storageengine.api.schema.LabelScanReader.NO_ID;
+
+/**
+ * {@link PrimitiveLongResourceIterator} combining the label scan entries of multiple labels one {@link LabelScanValue} range
+ * at a time, rather than merging node ids one by one.
+ * <p>
+ * For an intersection, i.e. {@code MATCH (n:A:B)}, the cursors of all labels are aligned on the same node id range and
+ * their bit sets are AND:ed together in one operation. A label lagging behind the range some other label is at skips
+ * forward to that range, by stepping its cursor if the range is close or by re-seeking the tree from that range otherwise,
+ * so that ranges absent in any of the labels are never expanded into node ids. For a union the bit sets of all labels
+ * having the lowest current range are OR:ed together, which also removes duplicates without comparing node ids.
+ * <p>
+ * Cursors are opened lazily, positioned at the first range that could possibly be part of the result, and are registered
+ * in, and removed from, the provided collection of open cursors so that {@link NativeLabelScanReader} can close
+ * any left open.
+ */
+class BitSetMergingLabelScanValueIterator implements PrimitiveLongResourceIterator
+{
+    /**
+     * Number of ranges a lagging cursor steps through before re-seeking the tree from the target range instead.
+     */
+    private static final int RESEEK_THRESHOLD = FeatureToggles.getInteger( BitSetMergingLabelScanValueIterator.class, "reseekThreshold", 64 );
+
+    /**
+     * Opens a cursor over the entries of a label, starting at the given range.
+     */
+    interface Seeker
+    {
+        RawCursor<Hit<LabelScanKey,LabelScanValue>,IOException> seek( int labelId, long fromRange ) throws IOException;
+    }
+
+    private final LabelCursor[] labels;
+    private final boolean intersection;
+    private final Seeker seeker;
+    private final Collection<RawCursor<Hit<LabelScanKey,LabelScanValue>,IOException>> openCursors;
+    private long startId;
+    private long nextRange;
+    private boolean exhausted;
+    private long baseNodeId;
+    private long bits;
+    private boolean hasNextDecided;
+    private boolean hasNext;
+    private long next;
+
+    /**
+     * @param labelIds labels to combine.
+     * @param intersection {@code true} for nodes having all of the labels, {@code false} for nodes having any of them.
+     * @param fromId entity to start from (exclusive), or {@link org.neo4j.storageengine.api.schema.LabelScanReader#NO_ID}.
+     * @param seeker opens cursors for individual labels.
+     * @param openCursors collection to register opened cursors in and remove them from when closed.
+     */
+    BitSetMergingLabelScanValueIterator( int[] labelIds, boolean intersection, long fromId, Seeker seeker,
+            Collection<RawCursor<Hit<LabelScanKey,LabelScanValue>,IOException>> openCursors )
+    {
+        this.labels = new LabelCursor[labelIds.length];
+        for ( int i = 0; i < labelIds.length; i++ )
+        {
+            labels[i] = new LabelCursor( labelIds[i] );
+        }
+        this.intersection = intersection;
+        this.startId = fromId;
+        this.nextRange = fromId == NO_ID ? 0 : rangeOf( fromId );
+        this.seeker = seeker;
+        this.openCursors = openCursors;
+        this.exhausted = labelIds.length == 0;
+    }
+
+    @Override
+    public boolean hasNext()
+    {
+        if ( !hasNextDecided )
+        {
+            hasNext = fetchNext();
+            hasNextDecided = true;
+        }
+        return hasNext;
+    }
+
+    @Override
+    public long next()
+    {
+        if ( !hasNext() )
+        {
+            throw new NoSuchElementException( "No more elements in " + this );
+        }
+        hasNextDecided = false;
+        return next;
+    }
+
+    private boolean fetchNext()
+    {
+        while ( bits == 0 )
+        {
+            if ( exhausted || !(intersection ? nextIntersection() : nextUnion()) )
+            {
+                close();
+                return false;
+            }
+        }
+        int delta = Long.numberOfTrailingZeros( bits );
+        bits &= bits - 1;
+        next = baseNodeId + delta;
+        return true;
+    }
+
+    /**
+     * Aligns all label cursors on the same range and AND:s their bit sets together into {@link #bits}.
+     *
+     * @return {@code false} if any of the labels has no more ranges, otherwise {@code true}, even if the resulting bit set is empty.
+     */
+    private boolean nextIntersection()
+    {
+        long target = nextRange;
+        boolean aligned;
+        do
+        {
+            aligned = true;
+            for ( LabelCursor label : labels )
+            {
+                if ( !label.advanceTo( target ) )
+                {
+                    return false;
+                }
+                if ( label.range > target )
+                {
+                    // This label has no entry for the target range, so neither has the intersection. Chase this range instead.
+                    target = label.range;
+                    aligned = false;
+                }
+            }
+        }
+        while ( !aligned );
+
+        long word = -1;
+        for ( LabelCursor label : labels )
+        {
+            word &= label.bits;
+        }
+        setCurrent( target, word );
+        return true;
+    }
+
+    /**
+     * OR:s together the bit sets of all label cursors positioned at the lowest range into {@link #bits}.
+     *
+     * @return {@code false} if all of the labels are out of ranges, otherwise {@code true}.
+     */
+    private boolean nextUnion()
+    {
+        long target = nextRange;
+        long lowest = Long.MAX_VALUE;
+        for ( LabelCursor label : labels )
+        {
+            if ( label.advanceTo( target ) )
+            {
+                lowest = Math.min( lowest, label.range );
+            }
+        }
+        if ( lowest == Long.MAX_VALUE )
+        {
+            return false;
+        }
+
+        long word = 0;
+        for ( LabelCursor label : labels )
+        {
+            if ( !label.exhausted && label.range == lowest )
+            {
+                word |= label.bits;
+            }
+        }
+        setCurrent( lowest, word );
+        return true;
+    }
+
+    private void setCurrent( long range, long word )
+    {
+        nextRange = range + 1;
+        baseNodeId = range * RANGE_SIZE;
+        bits = word;
+        // The first range may contain ids before the requested fromId, trim them off
+        if ( startId != NO_ID && rangeOf( startId ) == range )
+        {
+            long relativeStartId = startId % RANGE_SIZE;
+            long mask = relativeStartId == RANGE_SIZE - 1 ? -1 : (1L << (relativeStartId + 1)) - 1;
+            bits &= ~mask;
+        }
+        startId = NO_ID;
+    }
+
+    @Override
+    public void close()
+    {
+        exhausted = true;
+        bits = 0;
+        for ( LabelCursor label : labels )
+        {
+            label.close();
+        }
+    }
+
+    /**
+     * Cursor over the ranges of a single label, keeping a copy of the range and bit set it's currently positioned at.
+     */
+    private class LabelCursor
+    {
+        private final int labelId;
+        private RawCursor<Hit<LabelScanKey,LabelScanValue>,IOException> cursor;
+        private long range = -1;
+        private long bits;
+        private boolean exhausted;
+
+        LabelCursor( int labelId )
+        {
+            this.labelId = labelId;
+        }
+
+        /**
+         * Positions this cursor at the first range equal to or greater than {@code target}.
+         *
+         * @return {@code true} if there was such a range, otherwise {@code false}.
+         */
+        boolean advanceTo( long target )
+        {
+            if ( exhausted )
+            {
+                return false;
+            }
+            try
+            {
+                if ( cursor == null )
+                {
+                    seek( target );
+                }
+                int steps = 0;
+                while ( range < target )
+                {
+                    if ( steps++ == RESEEK_THRESHOLD )
+                    {
+                        close();
+                        exhausted = false;
+                        seek( target );
+                        steps = 0;
+                    }
+                    if ( !cursor.next() )
+                    {
+                        close();
+                        return false;
+                    }
+                    Hit<LabelScanKey,LabelScanValue> hit = cursor.get();
+                    range = hit.key().idRange;
+                    bits = hit.value().bits;
+                }
+                return true;
+            }
+            catch ( IOException e )
+            {
+                throw new UncheckedIOException( e );
+            }
+        }
+
+        private void seek( long fromRange ) throws IOException
+        {
+            cursor = seeker.seek( labelId, fromRange );
+            openCursors.add( cursor );
+        }
+
+        void close()
+        {
+            exhausted = true;
+            if ( cursor != null )
+            {
+                try
+                {
+                    cursor.close();
+                }
+                catch ( IOException e )
+                {
+                    throw new UncheckedIOException( e );
+                }
+                finally
+                {
+                    openCursors.remove( cursor );
+                    cursor = null;
+                }
+            }
+        }
+    }
+}
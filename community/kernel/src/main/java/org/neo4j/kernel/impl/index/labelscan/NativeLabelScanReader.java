@@ -26,9 +26,7 @@ import org.eclipse.collections.api.iterator.LongIterator;
 
 import java.io.IOException;
 import java.io.UncheckedIOException;
-import java.util.ArrayList;
 import java.util.HashSet;
-import java.util.List;
 import java.util.Set;
 
 import org.neo4j.collection.PrimitiveLongResourceIterator;
@@ -104,15 +102,13 @@ class NativeLabelScanReader implements LabelScanReader
     @Override
     public PrimitiveLongResourceIterator nodesWithAnyOfLabels( long fromId, int... labelIds )
     {
-        List<PrimitiveLongResourceIterator> iterators = iteratorsForLabels( fromId, labelIds );
-        return new CompositeLabelScanValueIterator( iterators, false );
+        return new BitSetMergingLabelScanValueIterator( labelIds, false, fromId, this::seekerForRange, openCursors );
     }
 
     @Override
     public PrimitiveLongResourceIterator nodesWithAllLabels( int... labelIds )
     {
-        List<PrimitiveLongResourceIterator> iterators = iteratorsForLabels( NO_ID, labelIds );
-        return new CompositeLabelScanValueIterator( iterators, true );
+        return new BitSetMergingLabelScanValueIterator( labelIds, true, NO_ID, this::seekerForRange, openCursors );
     }
 
     @Override
@@ -132,28 +128,14 @@ class NativeLabelScanReader implements LabelScanReader
         client.scan( new LabelScanValueIndexProgressor( cursor, openCursors, client ), false, labelId );
     }
 
-    private List<PrimitiveLongResourceIterator> iteratorsForLabels( long fromId, int[] labelIds )
+    private RawCursor<Hit<LabelScanKey,LabelScanValue>,IOException> seekerForLabel( long startId, int labelId ) throws IOException
     {
-        List<PrimitiveLongResourceIterator> iterators = new ArrayList<>();
-        try
-        {
-            for ( int labelId : labelIds )
-            {
-                RawCursor<Hit<LabelScanKey,LabelScanValue>,IOException> cursor = seekerForLabel( fromId, labelId );
-                openCursors.add( cursor );
-                iterators.add( new LabelScanValueIterator( cursor, openCursors, fromId ) );
-            }
-        }
-        catch ( IOException e )
-        {
-            throw new UncheckedIOException( e );
-        }
-        return iterators;
+        return seekerForRange( labelId, rangeOf( startId ) );
     }
 
-    private RawCursor<Hit<LabelScanKey,LabelScanValue>,IOException> seekerForLabel( long startId, int labelId ) throws IOException
+    private RawCursor<Hit<LabelScanKey,LabelScanValue>,IOException> seekerForRange( int labelId, long fromRange ) throws IOException
     {
-        LabelScanKey from = new LabelScanKey( labelId, rangeOf( startId ) );
+        LabelScanKey from = new LabelScanKey( labelId, fromRange );
         LabelScanKey to = new LabelScanKey( labelId, Long.MAX_VALUE );
         return index.seek( from, to );
     }
@@ -257,6 +257,35 @@ public class NativeLabelScanStore implements LabelScanStore
         }
     }
 
+    /**
+     * Returns a new {@link NativeLabelScanWriter} backed by a {@link GBPTree#parallelWriter() parallel tree writer}.
+     * When the {@link LabelScanWriteMonitor} is enabled the single writer is returned instead, since its write log
+     * is written by one thread at a time.
+     *
+     * @return {@link LabelScanWriter} which can be used concurrently with other parallel writers.
+     */
+    @Override
+    public LabelScanWriter newParallelWriter()
+    {
+        if ( readOnly )
+        {
+            throw new UnsupportedOperationException( "Can't create index writer in read only mode." );
+        }
+        if ( writeMonitor != NativeLabelScanWriter.EMPTY )
+        {
+            return newWriter();
+        }
+
+        try
+        {
+            return new NativeLabelScanWriter( 1_000, writeMonitor ).initialize( index.parallelWriter() );
+        }
+        catch ( IOException e )
+        {
+            throw new UncheckedIOException( e );
+        }
+    }
+
     /**
      * Forces all changes to {@link PageCache} and creates a checkpoint so that the {@link LabelScanStore}
      * is recoverable from this point, given that the same transactions which will be applied after this point
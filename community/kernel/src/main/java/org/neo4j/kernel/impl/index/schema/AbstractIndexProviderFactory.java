@@ -37,6 +37,7 @@ import org.neo4j.kernel.impl.spi.KernelContext;
 import org.neo4j.kernel.monitoring.Monitors;
 import org.neo4j.logging.Log;
 import org.neo4j.logging.internal.LogService;
+import org.neo4j.scheduler.JobScheduler;
 
 public abstract class AbstractIndexProviderFactory<DEPENDENCIES extends AbstractIndexProviderFactory.Dependencies> extends KernelExtensionFactory<DEPENDENCIES>
 {
@@ -58,7 +59,8 @@ public abstract class AbstractIndexProviderFactory<DEPENDENCIES extends Abstract
         Config config = dependencies.getConfig();
         OperationalMode operationalMode = context.databaseInfo().operationalMode;
         RecoveryCleanupWorkCollector recoveryCleanupWorkCollector = dependencies.recoveryCleanupWorkCollector();
-        return internalCreate( pageCache, databaseDir, fs, monitor, config, operationalMode, recoveryCleanupWorkCollector );
+        JobScheduler jobScheduler = dependencies.jobScheduler();
+        return internalCreate( pageCache, databaseDir, fs, monitor, config, operationalMode, recoveryCleanupWorkCollector, monitors, jobScheduler );
     }
 
     protected abstract Class loggingClass();
@@ -67,7 +69,7 @@ public abstract class AbstractIndexProviderFactory<DEPENDENCIES extends Abstract
 
     protected abstract IndexProvider internalCreate( PageCache pageCache, File storeDir, FileSystemAbstraction fs,
             IndexProvider.Monitor monitor, Config config, OperationalMode operationalMode,
-            RecoveryCleanupWorkCollector recoveryCleanupWorkCollector );
+            RecoveryCleanupWorkCollector recoveryCleanupWorkCollector, Monitors monitors, JobScheduler jobScheduler );
 
     public interface Dependencies
     {
@@ -82,5 +84,7 @@ public abstract class AbstractIndexProviderFactory<DEPENDENCIES extends Abstract
         Config getConfig();
 
         RecoveryCleanupWorkCollector recoveryCleanupWorkCollector();
+
+        JobScheduler jobScheduler();
     }
 }
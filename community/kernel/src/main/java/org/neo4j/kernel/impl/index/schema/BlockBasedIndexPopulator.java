@@ -87,6 +87,10 @@ import static org.neo4j.util.concurrent.Runnables.runAll;
 public abstract class BlockBasedIndexPopulator<KEY extends NativeIndexKey<KEY>,VALUE extends NativeIndexValue> extends NativeIndexPopulator<KEY,VALUE>
 {
     public static final String BLOCK_SIZE_NAME = "blockSize";
+    /**
+     * How full to make each tree node when building the tree from the sorted scan updates.
+     */
+    private static final double BULK_LOAD_FILL_FACTOR = FeatureToggles.getDouble( BlockBasedIndexPopulator.class, "bulkLoadFillFactor", 1.0 );
 
     private final IndexDirectoryStructure directoryStructure;
     private final IndexDropAction dropAction;
@@ -408,7 +412,7 @@ public abstract class BlockBasedIndexPopulator<KEY extends NativeIndexKey<KEY>,V
     }
 
     private void writeScanUpdatesToTree( RecordingConflictDetector<KEY,VALUE> recordingConflictDetector, Allocator allocator, int bufferSize )
-            throws IOException, IndexEntryConflictException
+            throws IOException
     {
         try ( MergingBlockEntryReader<KEY,VALUE> allEntries = new MergingBlockEntryReader<>( layout ) )
         {
@@ -431,15 +435,8 @@ public abstract class BlockBasedIndexPopulator<KEY extends NativeIndexKey<KEY>,V
                 }
             }
 
-            int asMuchAsPossibleToTheLeft = 1;
-            try ( Writer<KEY,VALUE> writer = tree.writer( asMuchAsPossibleToTheLeft ) )
-            {
-                while ( allEntries.next() && !cancellation.cancelled() )
-                {
-                    writeToTree( writer, recordingConflictDetector, allEntries.key(), allEntries.value() );
-                    numberOfAppliedScanUpdates++;
-                }
-            }
+            // The tree is still empty at this point, external updates are applied after this
+            tree.bulkLoad( new ScanUpdatesCursor( allEntries, recordingConflictDetector ), BULK_LOAD_FILL_FACTOR );
         }
     }
 
@@ -670,6 +667,74 @@ public abstract class BlockBasedIndexPopulator<KEY extends NativeIndexKey<KEY>,V
         }
     }
 
+    /**
+     * Hands out the merged and sorted scan updates to {@link org.neo4j.index.internal.gbptree.GBPTree#bulkLoad(RawCursor, double)}.
+     * Entries come out of the block storage ordered by value and then entity id and so any conflicting entries
+     * are adjacent to each other. Such conflicts are recorded in the same way as if the entries were merged into the tree
+     * using a {@link Writer}, to later be verified if this index is unique.
+     */
+    private class ScanUpdatesCursor implements RawCursor<Hit<KEY,VALUE>,IOException>, Hit<KEY,VALUE>
+    {
+        private final BlockEntryCursor<KEY,VALUE> allEntries;
+        private final RecordingConflictDetector<KEY,VALUE> recordingConflictDetector;
+        private final KEY previousKey = layout.newKey();
+        private boolean hasPrevious;
+
+        ScanUpdatesCursor( BlockEntryCursor<KEY,VALUE> allEntries, RecordingConflictDetector<KEY,VALUE> recordingConflictDetector )
+        {
+            this.allEntries = allEntries;
+            this.recordingConflictDetector = recordingConflictDetector;
+        }
+
+        @Override
+        public boolean next() throws IOException
+        {
+            if ( cancellation.cancelled() || !allEntries.next() )
+            {
+                return false;
+            }
+
+            KEY key = allEntries.key();
+            if ( descriptor.isUnique() && hasPrevious && layout.compareValue( previousKey, key ) == 0 )
+            {
+                recordingConflictDetector.merge( previousKey, key, null, allEntries.value() );
+                if ( recordingConflictDetector.wasConflicting() )
+                {
+                    KEY copy = layout.newKey();
+                    layout.copyKey( key, copy );
+                    recordingConflictDetector.recordConflict( copy );
+                }
+            }
+            layout.copyKey( key, previousKey );
+            hasPrevious = true;
+            numberOfAppliedScanUpdates++;
+            return true;
+        }
+
+        @Override
+        public Hit<KEY,VALUE> get()
+        {
+            return this;
+        }
+
+        @Override
+        public KEY key()
+        {
+            return allEntries.key();
+        }
+
+        @Override
+        public VALUE value()
+        {
+            return allEntries.value();
+        }
+
+        @Override
+        public void close()
+        {   // allEntries is closed by the caller
+        }
+    }
+
     private static class RecordingConflictDetector<KEY extends NativeIndexKey<KEY>, VALUE extends NativeIndexValue>
             extends ConflictDetectingValueMerger<KEY,VALUE,KEY>
     {
@@ -704,5 +769,21 @@ public abstract class BlockBasedIndexPopulator<KEY extends NativeIndexKey<KEY>,V
         {
             key.setCompareId( true );
         }
+
+        /**
+         * Records {@code conflictingKey} after a merge which saw a conflict. Unlike {@link #reportConflict(Object)} this
+         * doesn't declare any exception since conflicts are only recorded here, to be verified later.
+         */
+        void recordConflict( KEY conflictingKey )
+        {
+            try
+            {
+                reportConflict( conflictingKey );
+            }
+            catch ( IndexEntryConflictException e )
+            {
+                throw new IllegalStateException( "Recording a conflict is not expected to fail", e );
+            }
+        }
     }
 }
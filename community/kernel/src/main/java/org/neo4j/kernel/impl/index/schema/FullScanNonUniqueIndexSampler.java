@@ -24,12 +24,15 @@ package org.neo4j.kernel.impl.index.schema;
 
 import java.io.IOException;
 import java.io.UncheckedIOException;
+import java.util.function.LongConsumer;
 
 import org.neo4j.cursor.RawCursor;
 import org.neo4j.index.internal.gbptree.GBPTree;
 import org.neo4j.index.internal.gbptree.Hit;
+import org.neo4j.kernel.impl.api.index.sampling.IncrementalIndexStatistics;
 import org.neo4j.kernel.impl.api.index.sampling.NonUniqueIndexSampler;
 import org.neo4j.storageengine.api.schema.IndexSample;
+import org.neo4j.storageengine.api.schema.IndexSampler;
 
 /**
  * {@link NonUniqueIndexSampler} which performs a full scans of a {@link GBPTree} in {@link #result()}.
@@ -38,7 +41,7 @@ import org.neo4j.storageengine.api.schema.IndexSample;
  * @param <VALUE> type of values in tree.
  */
 class FullScanNonUniqueIndexSampler<KEY extends NativeIndexKey<KEY>, VALUE extends NativeIndexValue>
-        extends NonUniqueIndexSampler.Adapter
+        extends NonUniqueIndexSampler.Adapter implements IndexSampler
 {
     private final GBPTree<KEY,VALUE> gbpTree;
     private final IndexLayout<KEY,VALUE> layout;
@@ -49,8 +52,25 @@ class FullScanNonUniqueIndexSampler<KEY extends NativeIndexKey<KEY>, VALUE exten
         this.layout = layout;
     }
 
+    @Override
+    public IndexSample sampleIndex()
+    {
+        return result();
+    }
+
+    @Override
+    public IndexSample sampleIndex( LongConsumer distinctValueHashes )
+    {
+        return scan( distinctValueHashes );
+    }
+
     @Override
     public IndexSample result()
+    {
+        return scan( null );
+    }
+
+    private IndexSample scan( LongConsumer distinctValueHashes )
     {
         KEY lowest = layout.newKey();
         lowest.initialize( Long.MIN_VALUE );
@@ -70,6 +90,7 @@ class FullScanNonUniqueIndexSampler<KEY extends NativeIndexKey<KEY>, VALUE exten
                 prev = layout.copyKey( seek.get().key(), prev );
                 sampledValues++;
                 uniqueValues++;
+                reportDistinct( prev, distinctValueHashes );
 
                 // Then do the rest
                 while ( seek.next() )
@@ -79,6 +100,7 @@ class FullScanNonUniqueIndexSampler<KEY extends NativeIndexKey<KEY>, VALUE exten
                     {
                         uniqueValues++;
                         layout.copyKey( hit.key(), prev );
+                        reportDistinct( prev, distinctValueHashes );
                     }
                     // else this is a duplicate of the previous one
                     sampledValues++;
@@ -92,6 +114,14 @@ class FullScanNonUniqueIndexSampler<KEY extends NativeIndexKey<KEY>, VALUE exten
         }
     }
 
+    private void reportDistinct( KEY key, LongConsumer distinctValueHashes )
+    {
+        if ( distinctValueHashes != null )
+        {
+            distinctValueHashes.accept( IncrementalIndexStatistics.hash( key.asValues() ) );
+        }
+    }
+
     @Override
     public IndexSample result( int numDocs )
     {
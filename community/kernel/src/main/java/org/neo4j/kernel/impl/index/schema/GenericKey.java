@@ -377,6 +377,39 @@ public class GenericKey extends NativeIndexKey<GenericKey>
         return true;
     }
 
+    /**
+     * Like {@link #put(PageCursor)}, but with the entity id after the value. Keys with equal leading values then share a byte prefix,
+     * which is what prefix compressed tree leaves make use of.
+     */
+    void putValueFirst( PageCursor cursor )
+    {
+        putInternal( cursor );
+        cursor.putLong( getEntityId() );
+    }
+
+    /**
+     * Reads a key written by {@link #putValueFirst(PageCursor)}.
+     */
+    boolean getValueFirst( PageCursor cursor, int size )
+    {
+        if ( size < ENTITY_ID_SIZE )
+        {
+            initializeToDummyValue();
+            cursor.setCursorException( format( "Failed to read " + getClass().getSimpleName() +
+                    " due to keySize < ENTITY_ID_SIZE, more precisely %d", size ) );
+            return false;
+        }
+
+        initialize( 0 );
+        if ( !getInternal( cursor, size - ENTITY_ID_SIZE ) )
+        {
+            initializeToDummyValue();
+            return false;
+        }
+        setEntityId( cursor.getLong() );
+        return true;
+    }
+
     boolean getInternal( PageCursor cursor, int size )
     {
         if ( size <= TYPE_ID_SIZE )
@@ -29,12 +29,20 @@ class GenericLayout extends IndexLayout<GenericKey,NativeIndexValue>
 {
     private final int numberOfSlots;
     private final IndexSpecificSpaceFillingCurveSettingsCache spatialSettings;
+    private final boolean compressKeyPrefixes;
 
     GenericLayout( int numberOfSlots, IndexSpecificSpaceFillingCurveSettingsCache spatialSettings )
     {
-        super( "NSIL", 0, 5 );
+        this( numberOfSlots, spatialSettings, false );
+    }
+
+    GenericLayout( int numberOfSlots, IndexSpecificSpaceFillingCurveSettingsCache spatialSettings, boolean compressKeyPrefixes )
+    {
+        // Key bytes are ordered differently when compressing, so that is a layout of its own
+        super( compressKeyPrefixes ? "NSIP" : "NSIL", 0, 5 );
         this.numberOfSlots = numberOfSlots;
         this.spatialSettings = spatialSettings;
+        this.compressKeyPrefixes = compressKeyPrefixes;
     }
 
     @Override
@@ -63,13 +71,27 @@ class GenericLayout extends IndexLayout<GenericKey,NativeIndexValue>
     @Override
     public void writeKey( PageCursor cursor, GenericKey key )
     {
-        key.put( cursor );
+        if ( compressKeyPrefixes )
+        {
+            key.putValueFirst( cursor );
+        }
+        else
+        {
+            key.put( cursor );
+        }
     }
 
     @Override
     public void readKey( PageCursor cursor, GenericKey into, int keySize )
     {
-        into.get( cursor, keySize );
+        if ( compressKeyPrefixes )
+        {
+            into.getValueFirst( cursor, keySize );
+        }
+        else
+        {
+            into.get( cursor, keySize );
+        }
     }
 
     @Override
@@ -78,6 +100,12 @@ class GenericLayout extends IndexLayout<GenericKey,NativeIndexValue>
         return false;
     }
 
+    @Override
+    public boolean compressKeyPrefixes()
+    {
+        return compressKeyPrefixes;
+    }
+
     @Override
     public void minimalSplitter( GenericKey left, GenericKey right, GenericKey into )
     {
@@ -23,16 +23,24 @@
 package org.neo4j.kernel.impl.index.schema;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.HashMap;
 import java.util.Map;
 
 import org.neo4j.gis.spatial.index.curves.SpaceFillingCurveConfiguration;
+import org.neo4j.gis.spatial.index.curves.SpaceFillingCurveMonitor;
+import org.neo4j.graphdb.ResourceIterator;
 import org.neo4j.index.internal.gbptree.GBPTree;
 import org.neo4j.index.internal.gbptree.RecoveryCleanupWorkCollector;
+import org.neo4j.index.internal.gbptree.Writer;
+import org.neo4j.io.IOUtils;
 import org.neo4j.io.fs.FileSystemAbstraction;
 import org.neo4j.io.pagecache.IOLimiter;
 import org.neo4j.io.pagecache.PageCache;
 import org.neo4j.kernel.api.index.IndexProvider;
+import org.neo4j.kernel.impl.annotations.ReporterFactory;
+import org.neo4j.kernel.impl.api.index.IndexUpdateMode;
 import org.neo4j.kernel.impl.index.schema.config.IndexSpecificSpaceFillingCurveSettingsCache;
 import org.neo4j.kernel.impl.index.schema.config.SpaceFillingCurveSettingsWriter;
 import org.neo4j.kernel.impl.util.Validator;
@@ -40,32 +48,87 @@ import org.neo4j.storageengine.api.schema.IndexReader;
 import org.neo4j.storageengine.api.schema.StoreIndexDescriptor;
 import org.neo4j.values.storable.Value;
 
+import static org.neo4j.helpers.collection.Iterators.asResourceIterator;
+import static org.neo4j.helpers.collection.Iterators.iterator;
+
 class GenericNativeIndexAccessor extends NativeIndexAccessor<GenericKey,NativeIndexValue>
 {
     private final IndexSpecificSpaceFillingCurveSettingsCache spaceFillingCurveSettings;
     private final SpaceFillingCurveConfiguration configuration;
+    private final SpatialDataDistribution dataDistribution;
+    private final SpaceFillingCurveMonitor spatialMonitor;
     private final IndexDropAction dropAction;
+    private final TrigramIndex trigramIndex;
+    private final TrigramIndexUpdater trigramUpdater;
     private Validator<Value[]> validator;
 
     GenericNativeIndexAccessor( PageCache pageCache, FileSystemAbstraction fs, File storeFile, IndexLayout<GenericKey,NativeIndexValue> layout,
             RecoveryCleanupWorkCollector recoveryCleanupWorkCollector, IndexProvider.Monitor monitor, StoreIndexDescriptor descriptor,
             IndexSpecificSpaceFillingCurveSettingsCache spaceFillingCurveSettings, SpaceFillingCurveConfiguration configuration, IndexDropAction dropAction,
             boolean readOnly )
+    {
+        this( pageCache, fs, storeFile, layout, recoveryCleanupWorkCollector, monitor, descriptor, spaceFillingCurveSettings, configuration,
+                SpatialDataDistribution.disabled( configuration ), GenericNativeIndexProvider.NO_SPATIAL_MONITOR, dropAction, readOnly );
+    }
+
+    GenericNativeIndexAccessor( PageCache pageCache, FileSystemAbstraction fs, File storeFile, IndexLayout<GenericKey,NativeIndexValue> layout,
+            RecoveryCleanupWorkCollector recoveryCleanupWorkCollector, IndexProvider.Monitor monitor, StoreIndexDescriptor descriptor,
+            IndexSpecificSpaceFillingCurveSettingsCache spaceFillingCurveSettings, SpaceFillingCurveConfiguration configuration,
+            SpatialDataDistribution dataDistribution, SpaceFillingCurveMonitor spatialMonitor, IndexDropAction dropAction, boolean readOnly )
     {
         super( pageCache, fs, storeFile, layout, monitor, descriptor, new SpaceFillingCurveSettingsWriter( spaceFillingCurveSettings ), readOnly );
         this.spaceFillingCurveSettings = spaceFillingCurveSettings;
         this.configuration = configuration;
+        this.dataDistribution = dataDistribution;
+        this.spatialMonitor = spatialMonitor;
         this.dropAction = dropAction;
         instantiateTree( recoveryCleanupWorkCollector, headerWriter );
+        if ( descriptor.properties().length == 1 && TrigramIndex.exists( fs, storeFile ) )
+        {
+            trigramIndex = new TrigramIndex( pageCache, fs, storeFile, readOnly );
+            trigramIndex.instantiateTree( recoveryCleanupWorkCollector );
+            trigramUpdater = new TrigramIndexUpdater( layout.newKey(), layout.newValue() );
+        }
+        else
+        {
+            trigramIndex = null;
+            trigramUpdater = null;
+        }
     }
 
     @Override
     public void drop()
     {
+        if ( trigramIndex != null )
+        {
+            trigramIndex.drop();
+        }
         super.drop();
         dropAction.drop( descriptor.getId(), false );
     }
 
+    @Override
+    public NativeIndexUpdater<GenericKey,NativeIndexValue> newUpdater( IndexUpdateMode mode )
+    {
+        if ( trigramIndex == null )
+        {
+            return super.newUpdater( mode );
+        }
+
+        assertOpen();
+        Writer<GenericKey,NativeIndexValue> writer = null;
+        try
+        {
+            writer = tree.writer();
+            return trigramUpdater.initialize( writer, trigramIndex.writer() );
+        }
+        catch ( IOException e )
+        {
+            IOUtils.closeAllSilently( writer );
+            throw new UncheckedIOException( e );
+        }
+    }
+
     @Override
     protected void afterTreeInstantiation( GBPTree<GenericKey,NativeIndexValue> tree )
     {
@@ -76,7 +139,8 @@ class GenericNativeIndexAccessor extends NativeIndexAccessor<GenericKey,NativeIn
     public IndexReader newReader()
     {
         assertOpen();
-        return new GenericNativeIndexReader( tree, layout, descriptor, spaceFillingCurveSettings, configuration );
+        return new GenericNativeIndexReader( tree, layout, descriptor, spaceFillingCurveSettings, configuration, dataDistribution, spatialMonitor,
+                trigramIndex );
     }
 
     @Override
@@ -90,6 +154,39 @@ class GenericNativeIndexAccessor extends NativeIndexAccessor<GenericKey,NativeIn
     {
         // This accessor needs to use the header writer here because coordinate reference systems may have changed since last checkpoint.
         tree.checkpoint( ioLimiter, headerWriter );
+        if ( trigramIndex != null )
+        {
+            trigramIndex.checkpoint( ioLimiter );
+        }
+    }
+
+    @Override
+    public void close()
+    {
+        if ( trigramIndex != null )
+        {
+            trigramIndex.close();
+        }
+        super.close();
+    }
+
+    @Override
+    public boolean isDirty()
+    {
+        return super.isDirty() || (trigramIndex != null && trigramIndex.wasDirtyOnStartup());
+    }
+
+    @Override
+    public ResourceIterator<File> snapshotFiles()
+    {
+        return trigramIndex == null ? super.snapshotFiles() : asResourceIterator( iterator( storeFile, trigramIndex.file() ) );
+    }
+
+    @Override
+    public boolean consistencyCheck( ReporterFactory reporterFactory )
+    {
+        boolean consistent = super.consistencyCheck( reporterFactory );
+        return trigramIndex == null ? consistent : consistent & trigramIndex.consistencyCheck( reporterFactory );
     }
 
     @Override
@@ -29,6 +29,7 @@ import java.util.HashMap;
 import java.util.Map;
 
 import org.neo4j.gis.spatial.index.curves.SpaceFillingCurveConfiguration;
+import org.neo4j.gis.spatial.index.curves.SpaceFillingCurveMonitor;
 import org.neo4j.graphdb.factory.GraphDatabaseSettings;
 import org.neo4j.index.internal.gbptree.GBPTree;
 import org.neo4j.index.internal.gbptree.RecoveryCleanupWorkCollector;
@@ -47,6 +48,7 @@ import org.neo4j.kernel.impl.index.schema.config.ConfiguredSpaceFillingCurveSett
 import org.neo4j.kernel.impl.index.schema.config.IndexSpecificSpaceFillingCurveSettingsCache;
 import org.neo4j.kernel.impl.index.schema.config.SpaceFillingCurveSettings;
 import org.neo4j.kernel.impl.index.schema.config.SpaceFillingCurveSettingsReader;
+import org.neo4j.kernel.impl.index.schema.config.SpatialIndexSettings;
 import org.neo4j.storageengine.api.schema.StoreIndexDescriptor;
 import org.neo4j.util.FeatureToggles;
 import org.neo4j.values.storable.CoordinateReferenceSystem;
@@ -112,8 +114,37 @@ public class GenericNativeIndexProvider extends NativeIndexProvider<GenericKey,N
     public static final IndexProviderDescriptor DESCRIPTOR = new IndexProviderDescriptor( KEY, NATIVE_BTREE10.providerVersion() );
     public static final IndexCapability CAPABILITY = new GenericIndexCapability();
     public static final String BLOCK_BASED_POPULATION_NAME = "blockBasedPopulation";
+    public static final String TRIGRAM_INDEX_NAME = "trigramIndex";
+    public static final String COMPRESS_KEY_PREFIXES_NAME = "compressKeyPrefixes";
+    static final SpaceFillingCurveMonitor NO_SPATIAL_MONITOR = new SpaceFillingCurveMonitor()
+    {
+        @Override
+        public void addRangeAtDepth( int depth )
+        {   // no-op
+        }
+
+        @Override
+        public void registerSearchArea( long size )
+        {   // no-op
+        }
+
+        @Override
+        public void addToCoveredArea( long size )
+        {   // no-op
+        }
+    };
     // todo turn OFF by default before releasing next patch. For now ON by default to test it.
     private final boolean blockBasedPopulation = FeatureToggles.flag( GenericNativeIndexPopulator.class, BLOCK_BASED_POPULATION_NAME, false );
+    /**
+     * Whether or not newly populated single-property indexes get a {@link TrigramIndex} next to them, turning CONTAINS and ENDS WITH
+     * queries into seeks. Indexes keep trigrams, or the lack thereof, from the time they were populated.
+     */
+    private final boolean trigramIndex = FeatureToggles.flag( GenericNativeIndexProvider.class, TRIGRAM_INDEX_NAME, false );
+    /**
+     * Whether or not newly created indexes get prefix compressed leaves, fitting more keys per leaf when keys share leading values,
+     * e.g. the first values of a composite index or duplicate values. Existing indexes keep the leaf format they were created with.
+     */
+    private final boolean compressKeyPrefixes = FeatureToggles.flag( GenericNativeIndexProvider.class, COMPRESS_KEY_PREFIXES_NAME, false );
 
     /**
      * Cache of all setting for various specific CRS's found in the config at instantiation of this provider.
@@ -125,18 +156,42 @@ public class GenericNativeIndexProvider extends NativeIndexProvider<GenericKey,N
      * A space filling curve configuration used when reading spatial index values.
      */
     private final SpaceFillingCurveConfiguration configuration;
+    /**
+     * Expected number of points outside of the search envelope allowed per curve range of a geometry range query, or zero to not
+     * split curve ranges by the sampled distribution of points.
+     */
+    private final int falsePositiveBudget;
+    private final SpaceFillingCurveMonitor spatialMonitor;
     private final boolean archiveFailedIndex;
     private final IndexDropAction dropAction;
+    private final NativeIndexCompactionScheduler compactionScheduler;
 
     GenericNativeIndexProvider( IndexDirectoryStructure.Factory directoryStructureFactory, PageCache pageCache, FileSystemAbstraction fs, Monitor monitor,
             RecoveryCleanupWorkCollector recoveryCleanupWorkCollector, boolean readOnly, Config config )
+    {
+        this( directoryStructureFactory, pageCache, fs, monitor, recoveryCleanupWorkCollector, readOnly, config, NO_SPATIAL_MONITOR );
+    }
+
+    GenericNativeIndexProvider( IndexDirectoryStructure.Factory directoryStructureFactory, PageCache pageCache, FileSystemAbstraction fs, Monitor monitor,
+            RecoveryCleanupWorkCollector recoveryCleanupWorkCollector, boolean readOnly, Config config, SpaceFillingCurveMonitor spatialMonitor )
+    {
+        this( directoryStructureFactory, pageCache, fs, monitor, recoveryCleanupWorkCollector, readOnly, config, spatialMonitor,
+                NativeIndexCompactionScheduler.DISABLED );
+    }
+
+    GenericNativeIndexProvider( IndexDirectoryStructure.Factory directoryStructureFactory, PageCache pageCache, FileSystemAbstraction fs, Monitor monitor,
+            RecoveryCleanupWorkCollector recoveryCleanupWorkCollector, boolean readOnly, Config config, SpaceFillingCurveMonitor spatialMonitor,
+            NativeIndexCompactionScheduler compactionScheduler )
     {
         super( DESCRIPTOR, directoryStructureFactory, pageCache, fs, monitor, recoveryCleanupWorkCollector, readOnly );
 
         this.configuredSettings = new ConfiguredSpaceFillingCurveSettingsCache( config );
         this.configuration = getConfiguredSpaceFillingCurveConfiguration( config );
+        this.falsePositiveBudget = config.get( SpatialIndexSettings.space_filling_curve_false_positive_budget );
+        this.spatialMonitor = spatialMonitor;
         this.archiveFailedIndex = config.get( GraphDatabaseSettings.archive_failed_index );
         this.dropAction = new FileSystemIndexDropAction( fs, directoryStructure() );
+        this.compactionScheduler = compactionScheduler;
     }
 
     @Override
@@ -146,12 +201,14 @@ public class GenericNativeIndexProvider extends NativeIndexProvider<GenericKey,N
         {
             int numberOfSlots = descriptor.properties().length;
             Map<CoordinateReferenceSystem,SpaceFillingCurveSettings> settings = new HashMap<>();
+            boolean compress = compressKeyPrefixes;
             if ( storeFile != null && fs.fileExists( storeFile ) )
             {
                 // The index file exists and is sane so use it to read header information from.
                 GBPTree.readHeader( pageCache, storeFile, new NativeIndexHeaderReader( new SpaceFillingCurveSettingsReader( settings ) ) );
+                compress = GBPTree.hasCompressedKeyPrefixes( pageCache, storeFile );
             }
-            return new GenericLayout( numberOfSlots, new IndexSpecificSpaceFillingCurveSettingsCache( configuredSettings, settings ) );
+            return new GenericLayout( numberOfSlots, new IndexSpecificSpaceFillingCurveSettingsCache( configuredSettings, settings ), compress );
         }
         catch ( IOException e )
         {
@@ -162,21 +219,36 @@ public class GenericNativeIndexProvider extends NativeIndexProvider<GenericKey,N
     @Override
     protected IndexPopulator newIndexPopulator( File storeFile, GenericLayout layout, StoreIndexDescriptor descriptor, ByteBufferFactory bufferFactory )
     {
+        IndexPopulator populator;
         if ( blockBasedPopulation )
         {
-            return new GenericBlockBasedIndexPopulator( pageCache, fs, storeFile, layout, monitor, descriptor, layout.getSpaceFillingCurveSettings(),
+            populator = new GenericBlockBasedIndexPopulator( pageCache, fs, storeFile, layout, monitor, descriptor, layout.getSpaceFillingCurveSettings(),
                     directoryStructure(), configuration, dropAction, archiveFailedIndex, bufferFactory );
         }
-        return new WorkSyncedNativeIndexPopulator<>(
-                new GenericNativeIndexPopulator( pageCache, fs, storeFile, layout, monitor, descriptor, layout.getSpaceFillingCurveSettings(),
-                        directoryStructure(), configuration, dropAction, archiveFailedIndex ) );
+        else
+        {
+            populator = new WorkSyncedNativeIndexPopulator<>(
+                    new GenericNativeIndexPopulator( pageCache, fs, storeFile, layout, monitor, descriptor, layout.getSpaceFillingCurveSettings(),
+                            directoryStructure(), configuration, dropAction, archiveFailedIndex ) );
+        }
+        if ( trigramIndex && descriptor.properties().length == 1 )
+        {
+            populator = new TrigramIndexPopulator( populator, new TrigramIndex( pageCache, fs, storeFile, false ) );
+        }
+        return populator;
     }
 
     @Override
     protected IndexAccessor newIndexAccessor( File storeFile, GenericLayout layout, StoreIndexDescriptor descriptor, boolean readOnly )
     {
-        return new GenericNativeIndexAccessor( pageCache, fs, storeFile, layout, recoveryCleanupWorkCollector, monitor, descriptor,
-                layout.getSpaceFillingCurveSettings(), configuration, dropAction, readOnly );
+        GenericNativeIndexAccessor accessor = new GenericNativeIndexAccessor( pageCache, fs, storeFile, layout, recoveryCleanupWorkCollector, monitor,
+                descriptor, layout.getSpaceFillingCurveSettings(), configuration, new SpatialDataDistribution( configuration, falsePositiveBudget ),
+                spatialMonitor, dropAction, readOnly );
+        if ( !readOnly )
+        {
+            accessor.scheduleCompaction( compactionScheduler );
+        }
+        return accessor;
     }
 
     @Override
@@ -205,6 +277,18 @@ public class GenericNativeIndexProvider extends NativeIndexProvider<GenericKey,N
             return IndexValueCapability.YES;
         }
 
+        @Override
+        public boolean supportsGranularCompositeQueries()
+        {
+            return true;
+        }
+
+        @Override
+        public boolean supportsNearestNeighbours()
+        {
+            return true;
+        }
+
         @Override
         public boolean isFulltextIndex()
         {
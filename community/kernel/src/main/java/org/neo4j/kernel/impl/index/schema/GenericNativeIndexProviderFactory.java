@@ -24,6 +24,7 @@ package org.neo4j.kernel.impl.index.schema;
 
 import java.io.File;
 
+import org.neo4j.gis.spatial.index.curves.SpaceFillingCurveMonitor;
 import org.neo4j.graphdb.factory.GraphDatabaseSettings;
 import org.neo4j.helpers.Service;
 import org.neo4j.index.internal.gbptree.RecoveryCleanupWorkCollector;
@@ -34,6 +35,8 @@ import org.neo4j.kernel.api.index.IndexProvider;
 import org.neo4j.kernel.configuration.Config;
 import org.neo4j.kernel.extension.KernelExtensionFactory;
 import org.neo4j.kernel.impl.factory.OperationalMode;
+import org.neo4j.kernel.monitoring.Monitors;
+import org.neo4j.scheduler.JobScheduler;
 
 import static org.neo4j.kernel.api.index.IndexDirectoryStructure.directoriesByProvider;
 
@@ -59,17 +62,34 @@ public class GenericNativeIndexProviderFactory extends AbstractIndexProviderFact
 
     @Override
     protected GenericNativeIndexProvider internalCreate( PageCache pageCache, File storeDir, FileSystemAbstraction fs, IndexProvider.Monitor monitor,
-            Config config, OperationalMode operationalMode, RecoveryCleanupWorkCollector recoveryCleanupWorkCollector )
+            Config config, OperationalMode operationalMode, RecoveryCleanupWorkCollector recoveryCleanupWorkCollector, Monitors monitors,
+            JobScheduler jobScheduler )
     {
-        return create( pageCache, storeDir, fs, monitor, config, operationalMode, recoveryCleanupWorkCollector );
+        return create( pageCache, storeDir, fs, monitor, config, operationalMode, recoveryCleanupWorkCollector,
+                monitors.newMonitor( SpaceFillingCurveMonitor.class, descriptorString() ), new NativeIndexCompactionScheduler( jobScheduler, config ) );
     }
 
     public static GenericNativeIndexProvider create( PageCache pageCache, File storeDir, FileSystemAbstraction fs, IndexProvider.Monitor monitor, Config config,
             OperationalMode mode, RecoveryCleanupWorkCollector recoveryCleanupWorkCollector )
+    {
+        return create( pageCache, storeDir, fs, monitor, config, mode, recoveryCleanupWorkCollector, GenericNativeIndexProvider.NO_SPATIAL_MONITOR );
+    }
+
+    public static GenericNativeIndexProvider create( PageCache pageCache, File storeDir, FileSystemAbstraction fs, IndexProvider.Monitor monitor, Config config,
+            OperationalMode mode, RecoveryCleanupWorkCollector recoveryCleanupWorkCollector, SpaceFillingCurveMonitor spatialMonitor )
+    {
+        return create( pageCache, storeDir, fs, monitor, config, mode, recoveryCleanupWorkCollector, spatialMonitor,
+                NativeIndexCompactionScheduler.DISABLED );
+    }
+
+    private static GenericNativeIndexProvider create( PageCache pageCache, File storeDir, FileSystemAbstraction fs, IndexProvider.Monitor monitor,
+            Config config, OperationalMode mode, RecoveryCleanupWorkCollector recoveryCleanupWorkCollector, SpaceFillingCurveMonitor spatialMonitor,
+            NativeIndexCompactionScheduler compactionScheduler )
     {
         IndexDirectoryStructure.Factory directoryStructure = directoriesByProvider( storeDir );
         boolean readOnly = config.get( GraphDatabaseSettings.read_only ) && (OperationalMode.single == mode);
-        return new GenericNativeIndexProvider( directoryStructure, pageCache, fs, monitor, recoveryCleanupWorkCollector, readOnly, config );
+        return new GenericNativeIndexProvider( directoryStructure, pageCache, fs, monitor, recoveryCleanupWorkCollector, readOnly, config, spatialMonitor,
+                compactionScheduler );
     }
 
     public interface Dependencies extends AbstractIndexProviderFactory.Dependencies
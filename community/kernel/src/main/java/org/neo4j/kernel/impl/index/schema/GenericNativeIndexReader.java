@@ -22,20 +22,35 @@
  */
 package org.neo4j.kernel.impl.index.schema;
 
+import java.io.IOException;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongConsumer;
 
+import org.neo4j.cursor.RawCursor;
 import org.neo4j.gis.spatial.index.curves.SpaceFillingCurve;
 import org.neo4j.gis.spatial.index.curves.SpaceFillingCurveConfiguration;
+import org.neo4j.gis.spatial.index.curves.SpaceFillingCurveMonitor;
 import org.neo4j.index.internal.gbptree.GBPTree;
+import org.neo4j.index.internal.gbptree.Hit;
 import org.neo4j.internal.kernel.api.IndexOrder;
 import org.neo4j.internal.kernel.api.IndexQuery;
 import org.neo4j.internal.kernel.api.IndexQuery.ExactPredicate;
+import org.neo4j.internal.kernel.api.IndexQuery.NearestNeighboursPredicate;
 import org.neo4j.internal.kernel.api.IndexQuery.RangePredicate;
+import org.neo4j.internal.kernel.api.IndexQuery.StringContainsPredicate;
 import org.neo4j.internal.kernel.api.IndexQuery.StringPrefixPredicate;
+import org.neo4j.internal.kernel.api.IndexQuery.StringSuffixPredicate;
+import org.neo4j.internal.kernel.api.exceptions.schema.IndexNotFoundKernelException;
+import org.neo4j.io.IOUtils;
 import org.neo4j.kernel.impl.api.schema.BridgingIndexProgressor;
 import org.neo4j.kernel.impl.index.schema.config.IndexSpecificSpaceFillingCurveSettingsCache;
 import org.neo4j.storageengine.api.schema.IndexDescriptor;
 import org.neo4j.storageengine.api.schema.IndexProgressor;
+import org.neo4j.storageengine.api.schema.IndexSample;
+import org.neo4j.storageengine.api.schema.IndexSampler;
+import org.neo4j.storageengine.api.schema.PartitionedValueSeek;
 import org.neo4j.values.storable.CoordinateReferenceSystem;
 import org.neo4j.values.storable.Value;
 import org.neo4j.values.storable.ValueGroup;
@@ -49,22 +64,69 @@ class GenericNativeIndexReader extends NativeIndexReader<GenericKey,NativeIndexV
 {
     private final IndexSpecificSpaceFillingCurveSettingsCache spaceFillingCurveSettings;
     private final SpaceFillingCurveConfiguration configuration;
+    private final SpatialDataDistribution dataDistribution;
+    private final SpaceFillingCurveMonitor spatialMonitor;
+    private final TrigramIndex trigramIndex;
+    private final Set<RawCursor<Hit<TrigramKey,NativeIndexValue>,IOException>> openTrigramSeekers;
 
     GenericNativeIndexReader( GBPTree<GenericKey,NativeIndexValue> tree, IndexLayout<GenericKey,NativeIndexValue> layout,
             IndexDescriptor descriptor, IndexSpecificSpaceFillingCurveSettingsCache spaceFillingCurveSettings,
             SpaceFillingCurveConfiguration configuration )
+    {
+        this( tree, layout, descriptor, spaceFillingCurveSettings, configuration, SpatialDataDistribution.disabled( configuration ),
+                GenericNativeIndexProvider.NO_SPATIAL_MONITOR, null );
+    }
+
+    /**
+     * @param dataDistribution {@link SpatialDataDistribution} of this index, deciding how geometry ranges are split into curve ranges.
+     * @param spatialMonitor told how many curve ranges geometry range queries are split into and how many points they filter out.
+     * @param trigramIndex {@link TrigramIndex} of this index, or {@code null} if it has no trigrams.
+     */
+    GenericNativeIndexReader( GBPTree<GenericKey,NativeIndexValue> tree, IndexLayout<GenericKey,NativeIndexValue> layout,
+            IndexDescriptor descriptor, IndexSpecificSpaceFillingCurveSettingsCache spaceFillingCurveSettings,
+            SpaceFillingCurveConfiguration configuration, SpatialDataDistribution dataDistribution, SpaceFillingCurveMonitor spatialMonitor,
+            TrigramIndex trigramIndex )
     {
         super( tree, layout, descriptor );
         this.spaceFillingCurveSettings = spaceFillingCurveSettings;
         this.configuration = configuration;
+        this.dataDistribution = dataDistribution;
+        this.spatialMonitor = spatialMonitor;
+        this.trigramIndex = trigramIndex;
+        this.openTrigramSeekers = ConcurrentHashMap.newKeySet();
+    }
+
+    @Override
+    public void close()
+    {
+        super.close();
+        IOUtils.closeAllUnchecked( openTrigramSeekers );
+        openTrigramSeekers.clear();
     }
 
     @Override
     public boolean hasFullValuePrecision( IndexQuery... predicates )
     {
+        // Without knowing how the query is served, assume it's served like the query methods without order and values do
+        return hasFullValuePrecision( IndexOrder.NONE, false, predicates );
+    }
+
+    @Override
+    public boolean hasFullValuePrecision( IndexOrder indexOrder, boolean needsValues, IndexQuery... predicates )
+    {
+        if ( trigramsForQuery( indexOrder, needsValues, predicates ) != null )
+        {
+            // Entities found using trigrams have all trigrams of the searched string, but not necessarily in sequence
+            return false;
+        }
         for ( IndexQuery predicate : predicates )
         {
             ValueGroup valueGroup = predicate.valueGroup();
+            if ( isGeometryRangeQuery( predicate ) )
+            {
+                // Points found in the curve ranges of a geometry range are filtered on the coordinates in the keys, see getIndexProgressor
+                continue;
+            }
             if ( valueGroup == ValueGroup.GEOMETRY_ARRAY || valueGroup == ValueGroup.GEOMETRY )
             {
                 return false;
@@ -73,6 +135,43 @@ class GenericNativeIndexReader extends NativeIndexReader<GenericKey,NativeIndexV
         return true;
     }
 
+    @Override
+    public IndexSampler createSampler()
+    {
+        IndexSampler sampler = super.createSampler();
+        if ( !dataDistribution.isEnabled() || descriptor.schema().getPropertyIds().length != 1 )
+        {
+            return sampler;
+        }
+        return new IndexSampler()
+        {
+            @Override
+            public IndexSample sampleIndex() throws IndexNotFoundKernelException
+            {
+                IndexSample sample = sampler.sampleIndex();
+                dataDistribution.sample( tree, layout, spaceFillingCurveSettings );
+                return sample;
+            }
+
+            @Override
+            public IndexSample sampleIndex( LongConsumer distinctValueHashes ) throws IndexNotFoundKernelException
+            {
+                IndexSample sample = sampler.sampleIndex( distinctValueHashes );
+                if ( sample != null )
+                {
+                    dataDistribution.sample( tree, layout, spaceFillingCurveSettings );
+                }
+                return sample;
+            }
+
+            @Override
+            public void close()
+            {
+                sampler.close();
+            }
+        };
+    }
+
     @Override
     void validateQuery( IndexOrder indexOrder, IndexQuery[] predicates )
     {
@@ -82,6 +181,20 @@ class GenericNativeIndexReader extends NativeIndexReader<GenericKey,NativeIndexV
     @Override
     public void query( IndexProgressor.NodeValueClient client, IndexOrder indexOrder, boolean needsValues, IndexQuery... query )
     {
+        long[] trigrams = trigramsForQuery( indexOrder, needsValues, query );
+        if ( trigrams != null )
+        {
+            validateQuery( indexOrder, query );
+            client.initialize( descriptor, trigramIndex.query( client, trigrams, openTrigramSeekers ), query, indexOrder, needsValues );
+            return;
+        }
+
+        if ( query.length == 1 && query[0] instanceof NearestNeighboursPredicate )
+        {
+            nearestNeighboursQuery( client, indexOrder, needsValues, (NearestNeighboursPredicate) query[0] );
+            return;
+        }
+
         IndexQuery.GeometryRangePredicate geometryRangePredicate = getGeometryRangePredicateIfAny( query );
         if ( geometryRangePredicate != null )
         {
@@ -96,7 +209,8 @@ class GenericNativeIndexReader extends NativeIndexReader<GenericKey,NativeIndexV
                 double[] to = geometryRangePredicate.to() == null ? null : geometryRangePredicate.to().coordinate();
                 CoordinateReferenceSystem crs = geometryRangePredicate.crs();
                 SpaceFillingCurve curve = spaceFillingCurveSettings.forCrs( crs, false );
-                List<SpaceFillingCurve.LongRange> ranges = curve.getTilesIntersectingEnvelope( from, to, configuration );
+                List<SpaceFillingCurve.LongRange> ranges = curve.getTilesIntersectingEnvelope( from, to, dataDistribution.configurationFor( crs ) );
+                spatialMonitor.registerRanges( ranges.size() );
                 for ( SpaceFillingCurve.LongRange range : ranges )
                 {
                     // Here's a sub-query that we'll have to do for this geometry range. Build this query from all predicates
@@ -120,6 +234,32 @@ class GenericNativeIndexReader extends NativeIndexReader<GenericKey,NativeIndexV
         }
     }
 
+    private void nearestNeighboursQuery( IndexProgressor.NodeValueClient client, IndexOrder indexOrder, boolean needsValues,
+            NearestNeighboursPredicate predicate )
+    {
+        if ( indexOrder != IndexOrder.NONE )
+        {
+            throw new UnsupportedOperationException( "Nearest neighbours are returned in order of distance, not in index order " + indexOrder );
+        }
+        SpaceFillingCurve curve = spaceFillingCurveSettings.forCrs( predicate.crs(), false );
+        List<NearestNeighboursSeek.Neighbour> neighbours = new NearestNeighboursSeek( tree, layout, curve, configuration, predicate ).search();
+        client.initialize( descriptor, new NearestNeighboursSeek.NeighbourProgressor( client, neighbours ), new IndexQuery[]{predicate},
+                indexOrder, needsValues );
+    }
+
+    @Override
+    public PartitionedValueSeek partitionedQuery( int desiredNumberOfPartitions, boolean needsValues, IndexQuery... query )
+    {
+        if ( getGeometryRangePredicateIfAny( query ) != null || query.length == 1 && query[0] instanceof NearestNeighboursPredicate )
+        {
+            // Geometry range queries are already split into multiple sub-queries, not worth splitting further.
+            // Nearest neighbours depend on all points of the index, so can not be found partition by partition.
+            validateQuery( IndexOrder.NONE, query );
+            return PartitionedValueSeek.singlePartition( this, needsValues, query );
+        }
+        return super.partitionedQuery( desiredNumberOfPartitions, needsValues, query );
+    }
+
     /**
      * Initializes {@code treeKeyFrom} and {@code treeKeyTo} from the {@link IndexQuery query}.
      * Geometry range queries makes an otherwise straight-forward key construction complex in that a geometry range internally is performed
@@ -141,9 +281,17 @@ class GenericNativeIndexReader extends NativeIndexReader<GenericKey,NativeIndexV
             IndexQuery[] query, CoordinateReferenceSystem crs, SpaceFillingCurve.LongRange range )
     {
         boolean needsFiltering = false;
+        boolean seekNarrowedByRange = false;
         for ( int i = 0; i < query.length; i++ )
         {
             IndexQuery predicate = query[i];
+            if ( seekNarrowedByRange && predicate.type() != IndexQuery.IndexQueryType.exists )
+            {
+                // Keys are ordered by the first property first, so once a property is seeked by a range the
+                // predicates on the properties after it can not narrow down the seek and have to be filtered
+                needsFiltering = true;
+            }
+            seekNarrowedByRange |= predicate.type() != IndexQuery.IndexQueryType.exact;
             switch ( predicate.type() )
             {
             case exists:
@@ -164,6 +312,8 @@ class GenericNativeIndexReader extends NativeIndexReader<GenericKey,NativeIndexV
                     // Inclusion.LOW / HIGH respectively and filter out points later on.
                     treeKeyFrom.stateSlot( i ).writePointDerived( crs, range.min, LOW );
                     treeKeyTo.stateSlot( i ).writePointDerived( crs, range.max + 1, HIGH );
+                    // Points in the curve range may be outside of the searched envelope
+                    needsFiltering = true;
                 }
                 else
                 {
@@ -234,6 +384,47 @@ class GenericNativeIndexReader extends NativeIndexReader<GenericKey,NativeIndexV
         return rangePredicate.toInclusive() ? HIGH : LOW;
     }
 
+    /**
+     * CONTAINS and ENDS WITH queries are answered by intersecting posting lists in the {@link TrigramIndex}, if there is one,
+     * as long as the searched string is long enough to have trigrams. Those entities come without values and in no particular order,
+     * so queries needing either are answered by scanning this index instead.
+     *
+     * @return the trigrams to seek for this query, or {@code null} if the trigram index can not be used for it.
+     */
+    private long[] trigramsForQuery( IndexOrder indexOrder, boolean needsValues, IndexQuery[] query )
+    {
+        if ( trigramIndex == null || query.length != 1 || indexOrder != IndexOrder.NONE || needsValues )
+        {
+            return null;
+        }
+
+        long[] trigrams;
+        if ( query[0] instanceof StringContainsPredicate )
+        {
+            trigrams = Trigrams.contains( ((StringContainsPredicate) query[0]).contains().stringValue() );
+        }
+        else if ( query[0] instanceof StringSuffixPredicate )
+        {
+            trigrams = Trigrams.suffix( ((StringSuffixPredicate) query[0]).suffix().stringValue() );
+        }
+        else
+        {
+            return null;
+        }
+        return trigrams.length > 0 ? trigrams : null;
+    }
+
+    @Override
+    IndexProgressor getIndexProgressor( RawCursor<Hit<GenericKey,NativeIndexValue>,IOException> seeker, IndexProgressor.NodeValueClient client,
+            boolean needFilter, IndexQuery[] query )
+    {
+        if ( needFilter && getGeometryRangePredicateIfAny( query ) != null )
+        {
+            return new GeometryFilteringProgressor( seeker, client, query );
+        }
+        return super.getIndexProgressor( seeker, client, needFilter, query );
+    }
+
     private IndexQuery.GeometryRangePredicate getGeometryRangePredicateIfAny( IndexQuery[] predicates )
     {
         for ( IndexQuery predicate : predicates )
@@ -251,4 +442,39 @@ class GenericNativeIndexReader extends NativeIndexReader<GenericKey,NativeIndexV
         return predicate instanceof IndexQuery.GeometryRangePredicate;
     }
 
+    /**
+     * Filters out the points found in a curve range of a geometry range query which are not within the searched envelope,
+     * telling the {@link SpaceFillingCurveMonitor} how many there were.
+     */
+    private class GeometryFilteringProgressor extends FilteringNativeHitIndexProgressor<GenericKey,NativeIndexValue>
+    {
+        private long falsePositives;
+
+        GeometryFilteringProgressor( RawCursor<Hit<GenericKey,NativeIndexValue>,IOException> seeker, NodeValueClient client, IndexQuery[] query )
+        {
+            super( seeker, client, openSeekers, query );
+        }
+
+        @Override
+        protected boolean acceptValue( Value[] values )
+        {
+            boolean accepted = super.acceptValue( values );
+            if ( !accepted )
+            {
+                falsePositives++;
+            }
+            return accepted;
+        }
+
+        @Override
+        public void close()
+        {
+            super.close();
+            if ( falsePositives > 0 )
+            {
+                spatialMonitor.registerFalsePositives( falsePositives );
+                falsePositives = 0;
+            }
+        }
+    }
 }
@@ -71,6 +71,16 @@ class GeometryType extends Type
         return toIntExact( state.long3 );
     }
 
+    static CoordinateReferenceSystem crs( GenericKey state )
+    {
+        return CoordinateReferenceSystem.get( (int) state.long1, (int) state.long2 );
+    }
+
+    static long derivedValue( GenericKey state )
+    {
+        return state.long0;
+    }
+
     @Override
     void copyValue( GenericKey to, GenericKey from )
     {
@@ -88,8 +98,7 @@ class GeometryType extends Type
     Value asValue( GenericKey state )
     {
         assertHasCoordinates( state );
-        CoordinateReferenceSystem crs = CoordinateReferenceSystem.get( (int) state.long1, (int) state.long2 );
-        return asValue( state, crs, 0 );
+        return asValue( state, crs( state ), 0 );
     }
 
     static PointValue asValue( GenericKey state, CoordinateReferenceSystem crs, int offset )
@@ -47,7 +47,7 @@ abstract class NativeIndex<KEY extends NativeIndexKey<KEY>, VALUE extends Native
     final IndexLayout<KEY,VALUE> layout;
     final FileSystemAbstraction fileSystem;
     final StoreIndexDescriptor descriptor;
-    private final IndexProvider.Monitor monitor;
+    final IndexProvider.Monitor monitor;
     private final boolean readOnly;
 
     protected GBPTree<KEY,VALUE> tree;
@@ -156,5 +156,11 @@ abstract class NativeIndex<KEY extends NativeIndexKey<KEY>, VALUE extends Native
         {
             monitor.recoveryCleanupFailed( storeFile, descriptor, throwable );
         }
+
+        @Override
+        public void compactionCompleted( long highIdBefore, long highIdAfter )
+        {
+            monitor.compactionCompleted( storeFile, descriptor, highIdBefore, highIdAfter );
+        }
     }
 }
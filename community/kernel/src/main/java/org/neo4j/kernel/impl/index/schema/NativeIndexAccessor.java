@@ -25,14 +25,17 @@ package org.neo4j.kernel.impl.index.schema;
 import java.io.File;
 import java.io.IOException;
 import java.io.UncheckedIOException;
+import java.util.Optional;
 import java.util.function.Consumer;
 
 import org.neo4j.graphdb.ResourceIterator;
 import org.neo4j.helpers.collection.BoundedIterable;
+import org.neo4j.index.internal.gbptree.GBPTree;
 import org.neo4j.io.fs.FileSystemAbstraction;
 import org.neo4j.io.pagecache.IOLimiter;
 import org.neo4j.io.pagecache.PageCache;
 import org.neo4j.io.pagecache.PageCursor;
+import org.neo4j.io.pagecache.PagedFile;
 import org.neo4j.kernel.api.exceptions.index.IndexEntryConflictException;
 import org.neo4j.kernel.api.index.IndexAccessor;
 import org.neo4j.kernel.api.index.IndexProvider;
@@ -50,6 +53,7 @@ public abstract class NativeIndexAccessor<KEY extends NativeIndexKey<KEY>, VALUE
 {
     private final NativeIndexUpdater<KEY,VALUE> singleUpdater;
     final NativeIndexHeaderWriter headerWriter;
+    private NativeIndexCompactionScheduler.CompactionJob compaction;
 
     NativeIndexAccessor( PageCache pageCache, FileSystemAbstraction fs, File storeFile, IndexLayout<KEY,VALUE> layout,
             IndexProvider.Monitor monitor, StoreIndexDescriptor descriptor, Consumer<PageCursor> additionalHeaderWriter, boolean readOnly )
@@ -59,9 +63,22 @@ public abstract class NativeIndexAccessor<KEY extends NativeIndexKey<KEY>, VALUE
         headerWriter = new NativeIndexHeaderWriter( BYTE_ONLINE, additionalHeaderWriter );
     }
 
+    /**
+     * Compacts the tree of this index in the background, as scheduled by the given scheduler, until this accessor is closed or dropped.
+     * When closed after a compaction the index file is truncated to the part of it still in use.
+     *
+     * @param scheduler {@link NativeIndexCompactionScheduler} to schedule compaction with.
+     */
+    void scheduleCompaction( NativeIndexCompactionScheduler scheduler )
+    {
+        assertOpen();
+        compaction = scheduler.schedule( tree, cause -> monitor.compactionFailed( storeFile, descriptor, cause ) );
+    }
+
     @Override
     public void drop()
     {
+        stopCompaction();
         closeTree();
         try
         {
@@ -102,7 +119,47 @@ public abstract class NativeIndexAccessor<KEY extends NativeIndexKey<KEY>, VALUE
     @Override
     public void close()
     {
+        boolean compacted = stopCompaction();
+        GBPTree<KEY,VALUE> closedTree = tree;
         closeTree();
+        if ( compacted && closedTree != null )
+        {
+            truncateUnusedPages( closedTree.usedFileSize() );
+        }
+    }
+
+    private boolean stopCompaction()
+    {
+        if ( compaction == null )
+        {
+            return false;
+        }
+        compaction.close();
+        boolean compacted = compaction.hasCompleted();
+        compaction = null;
+        return compacted;
+    }
+
+    private void truncateUnusedPages( long usedFileSize )
+    {
+        try
+        {
+            Optional<PagedFile> mapping = pageCache.getExistingMapping( storeFile );
+            if ( mapping.isPresent() )
+            {
+                // Someone else still has the file mapped, its pages may be flushed after truncation
+                mapping.get().close();
+                return;
+            }
+            if ( fileSystem.getFileSize( storeFile ) > usedFileSize )
+            {
+                fileSystem.truncate( storeFile, usedFileSize );
+            }
+        }
+        catch ( IOException e )
+        {
+            throw new UncheckedIOException( e );
+        }
     }
 
     @Override
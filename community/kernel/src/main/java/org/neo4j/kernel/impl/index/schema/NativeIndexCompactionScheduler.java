@@ -0,0 +1,174 @@
+/*
+ * Copyright (c) 2018-2020 "Graph Foundation"
+ * Graph Foundation, Inc. [https://graphfoundation.org]
+ *
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of ONgDB.
+ *
+ * ONgDB is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.index.schema;
+
+import java.time.Duration;
+
+import org.neo4j.graphdb.factory.GraphDatabaseSettings;
+import org.neo4j.index.internal.gbptree.GBPTree;
+import org.neo4j.io.pagecache.IOLimiter;
+import org.neo4j.kernel.configuration.Config;
+import org.neo4j.scheduler.Group;
+import org.neo4j.scheduler.JobHandle;
+import org.neo4j.scheduler.JobScheduler;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * Compacts the {@link GBPTree trees} of online native indexes in the background, using {@link GBPTree#onlineCompaction()}.
+ * A compaction is started every {@link GraphDatabaseSettings#index_compaction_interval compaction interval} and done in steps of
+ * {@link GraphDatabaseSettings#index_compaction_step_size} leaves, with {@link GraphDatabaseSettings#index_compaction_step_interval}
+ * between steps so that index updates, which are blocked during a step, make progress in between.
+ */
+class NativeIndexCompactionScheduler
+{
+    static final NativeIndexCompactionScheduler DISABLED = new NativeIndexCompactionScheduler( null, Duration.ZERO, Duration.ZERO, 1 );
+
+    private final JobScheduler jobScheduler;
+    private final long intervalMillis;
+    private final long stepIntervalMillis;
+    private final int stepSize;
+
+    NativeIndexCompactionScheduler( JobScheduler jobScheduler, Config config )
+    {
+        this( jobScheduler, config.get( GraphDatabaseSettings.index_compaction_interval ),
+                config.get( GraphDatabaseSettings.index_compaction_step_interval ), config.get( GraphDatabaseSettings.index_compaction_step_size ) );
+    }
+
+    NativeIndexCompactionScheduler( JobScheduler jobScheduler, Duration interval, Duration stepInterval, int stepSize )
+    {
+        this.jobScheduler = jobScheduler;
+        this.intervalMillis = interval.toMillis();
+        this.stepIntervalMillis = stepInterval.toMillis();
+        this.stepSize = stepSize;
+    }
+
+    /**
+     * Schedules recurring compaction of the given tree, unless compaction is disabled.
+     *
+     * @param tree the tree to compact.
+     * @param failureHandler notified if a compaction fails. The next compaction is started as scheduled anyway.
+     * @return the scheduled {@link CompactionJob}, which must be {@link CompactionJob#close() closed} before the tree is closed,
+     * or {@code null} if compaction is disabled.
+     */
+    CompactionJob schedule( GBPTree<?,?> tree, FailureHandler failureHandler )
+    {
+        if ( jobScheduler == null || intervalMillis <= 0 )
+        {
+            return null;
+        }
+        CompactionJob job = new CompactionJob( tree, failureHandler, System.currentTimeMillis() + intervalMillis );
+        job.handle = jobScheduler.scheduleRecurring( Group.INDEX_COMPACTION, job, stepIntervalMillis, stepIntervalMillis, MILLISECONDS );
+        return job;
+    }
+
+    interface FailureHandler
+    {
+        void compactionFailed( Throwable cause );
+    }
+
+    /**
+     * Recurring job doing one step of the current compaction of a tree each time it runs, or starting a new compaction
+     * if it's time to.
+     */
+    class CompactionJob implements Runnable, AutoCloseable
+    {
+        private final GBPTree<?,?> tree;
+        private final FailureHandler failureHandler;
+        private volatile JobHandle handle;
+        private GBPTree<?,?>.OnlineCompaction compaction;
+        private long nextCompactionMillis;
+        private boolean stopped;
+        private volatile boolean completedAny;
+
+        CompactionJob( GBPTree<?,?> tree, FailureHandler failureHandler, long firstCompactionMillis )
+        {
+            this.tree = tree;
+            this.failureHandler = failureHandler;
+            this.nextCompactionMillis = firstCompactionMillis;
+        }
+
+        @Override
+        public synchronized void run()
+        {
+            if ( stopped )
+            {
+                return;
+            }
+            try
+            {
+                if ( compaction == null )
+                {
+                    if ( System.currentTimeMillis() < nextCompactionMillis )
+                    {
+                        return;
+                    }
+                    compaction = tree.onlineCompaction();
+                }
+                if ( !compaction.step( stepSize, IOLimiter.UNLIMITED ) )
+                {
+                    completedAny = true;
+                    scheduleNext();
+                }
+            }
+            catch ( Throwable t )
+            {
+                scheduleNext();
+                failureHandler.compactionFailed( t );
+            }
+        }
+
+        private void scheduleNext()
+        {
+            compaction = null;
+            nextCompactionMillis = System.currentTimeMillis() + intervalMillis;
+        }
+
+        /**
+         * @return whether or not any compaction has completed, i.e. whether or not the tree may have stopped allocating
+         * pages at the end of its file.
+         */
+        boolean hasCompleted()
+        {
+            return completedAny;
+        }
+
+        /**
+         * Stops compacting the tree, waiting for a currently running step to complete. A compaction stopped half-way leaves
+         * the tree consistent, just not fully compacted.
+         */
+        @Override
+        public void close()
+        {
+            JobHandle handle = this.handle;
+            if ( handle != null )
+            {
+                handle.cancel( false );
+            }
+            synchronized ( this )
+            {
+                stopped = true;
+            }
+        }
+    }
+}
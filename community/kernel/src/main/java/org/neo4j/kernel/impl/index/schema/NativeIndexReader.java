@@ -24,8 +24,10 @@ package org.neo4j.kernel.impl.index.schema;
 
 import java.io.IOException;
 import java.io.UncheckedIOException;
-import java.util.HashSet;
+import java.util.Collections;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.neo4j.collection.PrimitiveLongResourceIterator;
 import org.neo4j.cursor.RawCursor;
@@ -39,6 +41,7 @@ import org.neo4j.storageengine.api.schema.IndexDescriptor;
 import org.neo4j.storageengine.api.schema.IndexProgressor;
 import org.neo4j.storageengine.api.schema.IndexReader;
 import org.neo4j.storageengine.api.schema.IndexSampler;
+import org.neo4j.storageengine.api.schema.PartitionedValueSeek;
 import org.neo4j.values.storable.Value;
 
 import static org.neo4j.kernel.impl.index.schema.NativeIndexKey.Inclusion.NEUTRAL;
@@ -56,7 +59,8 @@ abstract class NativeIndexReader<KEY extends NativeIndexKey<KEY>, VALUE extends
         this.tree = tree;
         this.layout = layout;
         this.descriptor = descriptor;
-        this.openSeekers = new HashSet<>();
+        // Seekers of a partitioned query may be closed concurrently from different threads
+        this.openSeekers = ConcurrentHashMap.newKeySet();
     }
 
     @Override
@@ -75,8 +79,7 @@ abstract class NativeIndexReader<KEY extends NativeIndexKey<KEY>, VALUE extends
         // non-unique sampler which scans the index and counts (potentially duplicates, of which there will
         // be none in a unique index).
 
-        FullScanNonUniqueIndexSampler<KEY,VALUE> sampler = new FullScanNonUniqueIndexSampler<>( tree, layout );
-        return sampler::result;
+        return new FullScanNonUniqueIndexSampler<>( tree, layout );
     }
 
     @Override
@@ -131,6 +134,30 @@ abstract class NativeIndexReader<KEY extends NativeIndexKey<KEY>, VALUE extends
         startSeekForInitializedRange( cursor, treeKeyFrom, treeKeyTo, predicates, indexOrder, needFilter, needsValues );
     }
 
+    @Override
+    public PartitionedValueSeek partitionedQuery( int desiredNumberOfPartitions, boolean needsValues, IndexQuery... predicates )
+    {
+        validateQuery( IndexOrder.NONE, predicates );
+
+        KEY treeKeyFrom = layout.newKey();
+        KEY treeKeyTo = layout.newKey();
+        initializeFromToKeys( treeKeyFrom, treeKeyTo );
+
+        boolean needFilter = initializeRangeForQuery( treeKeyFrom, treeKeyTo, predicates );
+        try
+        {
+            List<RawCursor<Hit<KEY,VALUE>,IOException>> partitions = isEmptyRange( treeKeyFrom, treeKeyTo )
+                                                                     ? Collections.emptyList()
+                                                                     : tree.partitionedSeek( treeKeyFrom, treeKeyTo, desiredNumberOfPartitions );
+            openSeekers.addAll( partitions );
+            return new NativePartitionedValueSeek<>( descriptor, partitions, openSeekers, needFilter, needsValues, predicates );
+        }
+        catch ( IOException e )
+        {
+            throw new UncheckedIOException( e );
+        }
+    }
+
     void initializeFromToKeys( KEY treeKeyFrom, KEY treeKeyTo )
     {
         treeKeyFrom.initialize( Long.MIN_VALUE );
@@ -201,7 +228,7 @@ abstract class NativeIndexReader<KEY extends NativeIndexKey<KEY>, VALUE extends
         return seeker;
     }
 
-    private IndexProgressor getIndexProgressor( RawCursor<Hit<KEY,VALUE>,IOException> seeker, IndexProgressor.NodeValueClient client, boolean needFilter,
+    IndexProgressor getIndexProgressor( RawCursor<Hit<KEY,VALUE>,IOException> seeker, IndexProgressor.NodeValueClient client, boolean needFilter,
             IndexQuery[] query )
     {
         return needFilter ? new FilteringNativeHitIndexProgressor<>( seeker, client, openSeekers, query )
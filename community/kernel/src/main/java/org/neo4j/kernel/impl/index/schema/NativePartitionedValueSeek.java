@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2018-2020 "Graph Foundation"
+ * Graph Foundation, Inc. [https://graphfoundation.org]
+ *
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of ONgDB.
+ *
+ * ONgDB is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.index.schema;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import org.neo4j.cursor.RawCursor;
+import org.neo4j.index.internal.gbptree.Hit;
+import org.neo4j.internal.kernel.api.IndexOrder;
+import org.neo4j.internal.kernel.api.IndexQuery;
+import org.neo4j.storageengine.api.schema.IndexDescriptor;
+import org.neo4j.storageengine.api.schema.IndexProgressor;
+import org.neo4j.storageengine.api.schema.PartitionedValueSeek;
+
+/**
+ * Hands out seekers over partitions of a key range in a {@link org.neo4j.index.internal.gbptree.GBPTree}, one at a time,
+ * each to its own {@link IndexProgressor.NodeValueClient}.
+ */
+class NativePartitionedValueSeek<KEY extends NativeIndexKey<KEY>, VALUE extends NativeIndexValue> implements PartitionedValueSeek
+{
+    private final IndexDescriptor descriptor;
+    private final int numberOfPartitions;
+    private final Queue<RawCursor<Hit<KEY,VALUE>,IOException>> partitions;
+    private final Collection<RawCursor<Hit<KEY,VALUE>,IOException>> toRemoveFromOnClose;
+    private final boolean needFilter;
+    private final boolean needsValues;
+    private final IndexQuery[] query;
+
+    NativePartitionedValueSeek( IndexDescriptor descriptor, List<RawCursor<Hit<KEY,VALUE>,IOException>> partitions,
+            Collection<RawCursor<Hit<KEY,VALUE>,IOException>> toRemoveFromOnClose, boolean needFilter, boolean needsValues, IndexQuery[] query )
+    {
+        this.descriptor = descriptor;
+        this.numberOfPartitions = partitions.size();
+        this.partitions = new ConcurrentLinkedQueue<>( partitions );
+        this.toRemoveFromOnClose = toRemoveFromOnClose;
+        this.needFilter = needFilter;
+        this.needsValues = needsValues;
+        this.query = query;
+    }
+
+    @Override
+    public int getNumberOfPartitions()
+    {
+        return numberOfPartitions;
+    }
+
+    @Override
+    public boolean reservePartition( IndexProgressor.NodeValueClient client )
+    {
+        RawCursor<Hit<KEY,VALUE>,IOException> seeker = partitions.poll();
+        if ( seeker == null )
+        {
+            return false;
+        }
+        IndexProgressor progressor = needFilter ? new FilteringNativeHitIndexProgressor<>( seeker, client, toRemoveFromOnClose, query )
+                                                : new NativeHitIndexProgressor<>( seeker, client, toRemoveFromOnClose );
+        client.initialize( descriptor, progressor, query, IndexOrder.NONE, needsValues );
+        return true;
+    }
+}
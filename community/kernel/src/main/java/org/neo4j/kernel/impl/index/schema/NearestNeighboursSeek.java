@@ -0,0 +1,250 @@
+/*
+ * Copyright (c) 2018-2020 "Graph Foundation"
+ * Graph Foundation, Inc. [https://graphfoundation.org]
+ *
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of ONgDB.
+ *
+ * ONgDB is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.index.schema;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+import org.neo4j.cursor.RawCursor;
+import org.neo4j.gis.spatial.index.Envelope;
+import org.neo4j.gis.spatial.index.curves.SpaceFillingCurve;
+import org.neo4j.gis.spatial.index.curves.SpaceFillingCurveConfiguration;
+import org.neo4j.helpers.collection.Pair;
+import org.neo4j.index.internal.gbptree.GBPTree;
+import org.neo4j.index.internal.gbptree.Hit;
+import org.neo4j.internal.kernel.api.IndexQuery.NearestNeighboursPredicate;
+import org.neo4j.storageengine.api.schema.IndexProgressor;
+import org.neo4j.values.storable.CRSCalculator;
+import org.neo4j.values.storable.CoordinateReferenceSystem;
+import org.neo4j.values.storable.PointValue;
+import org.neo4j.values.storable.Value;
+
+import static org.neo4j.kernel.impl.index.schema.NativeIndexKey.Inclusion.HIGH;
+import static org.neo4j.kernel.impl.index.schema.NativeIndexKey.Inclusion.LOW;
+
+/**
+ * Finds the k points closest to a point in a single-property native index, by seeking the {@link SpaceFillingCurve} ranges of
+ * envelopes around that point instead of scanning and sorting all points of its {@link CoordinateReferenceSystem}.
+ * <p>
+ * The search is done in two steps. First an envelope around the point, starting at the size of a tile half way down the curve,
+ * is doubled until it holds at least k points. The k-th closest of those is at distance {@code d}, so no point outside of the
+ * {@link CRSCalculator#boundingBox(PointValue, double) bounding boxes} of distance {@code d} can be among the k closest, and the
+ * ranges of those boxes are seeked for the final result. Along the way only the k closest points seen are kept, in a bounded heap.
+ */
+class NearestNeighboursSeek
+{
+    private static final Comparator<Neighbour> CLOSEST_FIRST =
+            Comparator.comparingDouble( ( Neighbour neighbour ) -> neighbour.distance ).thenComparingLong( neighbour -> neighbour.entityId );
+
+    private final GBPTree<GenericKey,NativeIndexValue> tree;
+    private final IndexLayout<GenericKey,NativeIndexValue> layout;
+    private final SpaceFillingCurve curve;
+    private final SpaceFillingCurveConfiguration configuration;
+    private final NearestNeighboursPredicate predicate;
+    private final CoordinateReferenceSystem crs;
+    private final CRSCalculator calculator;
+
+    NearestNeighboursSeek( GBPTree<GenericKey,NativeIndexValue> tree, IndexLayout<GenericKey,NativeIndexValue> layout, SpaceFillingCurve curve,
+            SpaceFillingCurveConfiguration configuration, NearestNeighboursPredicate predicate )
+    {
+        this.tree = tree;
+        this.layout = layout;
+        this.curve = curve;
+        this.configuration = configuration;
+        this.predicate = predicate;
+        this.crs = predicate.crs();
+        this.calculator = crs.getCalculator();
+    }
+
+    /**
+     * @return the k closest points, closest first. Points at the same distance are ordered by entity id.
+     */
+    List<Neighbour> search()
+    {
+        Envelope extent = curve.getRange();
+        double[] coordinate = predicate.point().coordinate();
+        double[] halfWidths = new double[extent.getDimension()];
+        for ( int dim = 0; dim < halfWidths.length; dim++ )
+        {
+            halfWidths[dim] = curve.getTileWidth( dim, curve.getMaxLevel() / 2 );
+        }
+
+        PriorityQueue<Neighbour> closest;
+        boolean coversExtent;
+        do
+        {
+            double[] from = new double[halfWidths.length];
+            double[] to = new double[halfWidths.length];
+            coversExtent = true;
+            for ( int dim = 0; dim < halfWidths.length; dim++ )
+            {
+                from[dim] = clamp( coordinate[dim] - halfWidths[dim], extent, dim );
+                to[dim] = clamp( coordinate[dim] + halfWidths[dim], extent, dim );
+                coversExtent &= from[dim] <= extent.getMin( dim ) && to[dim] >= extent.getMax( dim );
+                halfWidths[dim] *= 2;
+            }
+            closest = seek( curve.getTilesIntersectingEnvelope( from, to, configuration ) );
+        }
+        while ( closest.size() < predicate.k() && !coversExtent );
+
+        if ( !coversExtent )
+        {
+            // Points closer than the k-th point seen so far can be anywhere within its distance, not only in the seeked envelope
+            List<SpaceFillingCurve.LongRange> ranges = new ArrayList<>();
+            for ( Pair<PointValue,PointValue> box : calculator.boundingBox( predicate.point(), closest.peek().distance ) )
+            {
+                double[] from = box.first().coordinate();
+                double[] to = box.other().coordinate();
+                for ( int dim = 0; dim < from.length; dim++ )
+                {
+                    from[dim] = clamp( from[dim], extent, dim );
+                    to[dim] = clamp( to[dim], extent, dim );
+                }
+                ranges.addAll( curve.getTilesIntersectingEnvelope( from, to, configuration ) );
+            }
+            closest = seek( mergeOverlapping( ranges ) );
+        }
+
+        List<Neighbour> result = new ArrayList<>( closest );
+        result.sort( CLOSEST_FIRST );
+        return result;
+    }
+
+    private PriorityQueue<Neighbour> seek( List<SpaceFillingCurve.LongRange> ranges )
+    {
+        PriorityQueue<Neighbour> closest = new PriorityQueue<>( predicate.k() + 1, CLOSEST_FIRST.reversed() );
+        GenericKey treeKeyFrom = layout.newKey();
+        GenericKey treeKeyTo = layout.newKey();
+        for ( SpaceFillingCurve.LongRange range : ranges )
+        {
+            treeKeyFrom.initialize( Long.MIN_VALUE );
+            treeKeyTo.initialize( Long.MAX_VALUE );
+            treeKeyFrom.writePointDerived( crs, range.min, LOW );
+            treeKeyTo.writePointDerived( crs, range.max + 1, HIGH );
+            try ( RawCursor<Hit<GenericKey,NativeIndexValue>,IOException> seeker = tree.seek( treeKeyFrom, treeKeyTo ) )
+            {
+                while ( seeker.next() )
+                {
+                    GenericKey key = seeker.get().key();
+                    Value value = key.asValue();
+                    if ( predicate.acceptsValue( value ) )
+                    {
+                        PointValue point = (PointValue) value;
+                        closest.add( new Neighbour( key.getEntityId(), point, calculator.distance( predicate.point(), point ) ) );
+                        if ( closest.size() > predicate.k() )
+                        {
+                            closest.poll();
+                        }
+                    }
+                }
+            }
+            catch ( IOException e )
+            {
+                throw new UncheckedIOException( e );
+            }
+        }
+        return closest;
+    }
+
+    /**
+     * The bounding boxes of a distance can share tiles, e.g. at the poles or around the date line, which must only be seeked once
+     * to not see the same entity twice. Merges into the given ranges.
+     */
+    private static List<SpaceFillingCurve.LongRange> mergeOverlapping( List<SpaceFillingCurve.LongRange> ranges )
+    {
+        ranges.sort( Comparator.comparingLong( range -> range.min ) );
+        List<SpaceFillingCurve.LongRange> merged = new ArrayList<>();
+        for ( SpaceFillingCurve.LongRange range : ranges )
+        {
+            SpaceFillingCurve.LongRange last = merged.isEmpty() ? null : merged.get( merged.size() - 1 );
+            if ( last != null && range.min <= last.max )
+            {
+                last.max = Math.max( last.max, range.max );
+            }
+            else
+            {
+                merged.add( range );
+            }
+        }
+        return merged;
+    }
+
+    private static double clamp( double value, Envelope extent, int dim )
+    {
+        return Math.min( Math.max( value, extent.getMin( dim ) ), extent.getMax( dim ) );
+    }
+
+    static class Neighbour
+    {
+        final long entityId;
+        final PointValue point;
+        final double distance;
+
+        Neighbour( long entityId, PointValue point, double distance )
+        {
+            this.entityId = entityId;
+            this.point = point;
+            this.distance = distance;
+        }
+    }
+
+    /**
+     * Hands the found points to the client, closest first.
+     */
+    static class NeighbourProgressor implements IndexProgressor
+    {
+        private final NodeValueClient client;
+        private final List<Neighbour> neighbours;
+        private int position;
+
+        NeighbourProgressor( NodeValueClient client, List<Neighbour> neighbours )
+        {
+            this.client = client;
+            this.neighbours = neighbours;
+        }
+
+        @Override
+        public boolean next()
+        {
+            while ( position < neighbours.size() )
+            {
+                Neighbour neighbour = neighbours.get( position++ );
+                if ( client.acceptNode( neighbour.entityId, new Value[]{neighbour.point} ) )
+                {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public void close()
+        {
+            position = neighbours.size();
+        }
+    }
+}
@@ -68,6 +68,7 @@ public class SchemaLayouts implements LayoutBootstrapper
                 ( indexFile, pageCache, meta, targetLayout ) -> new DateLayout(),
                 ( indexFile, pageCache, meta, targetLayout ) -> new LocalDateTimeLayout(),
                 ( indexFile, pageCache, meta, targetLayout ) -> new StringLayout(),
+                ( indexFile, pageCache, meta, targetLayout ) -> new StringLayout( true ),
                 ( indexFile, pageCache, meta, targetLayout ) -> new NumberLayoutUnique(),
                 ( indexFile, pageCache, meta, targetLayout ) -> new NumberLayoutNonUnique(),
                 genericLayout(),
@@ -135,7 +136,8 @@ public class SchemaLayouts implements LayoutBootstrapper
                 GBPTree.readHeader( pageCache, indexFile, new NativeIndexHeaderReader( new SpaceFillingCurveSettingsReader( settings ) ) );
                 final ConfiguredSpaceFillingCurveSettingsCache configuredSettings =
                         new ConfiguredSpaceFillingCurveSettingsCache( Config.defaults() );
-                return new GenericLayout( numberOfSlots, new IndexSpecificSpaceFillingCurveSettingsCache( configuredSettings, settings ) );
+                return new GenericLayout( numberOfSlots, new IndexSpecificSpaceFillingCurveSettingsCache( configuredSettings, settings ),
+                        GBPTree.hasCompressedKeyPrefixes( pageCache, indexFile ) );
             }
             return null;
         };
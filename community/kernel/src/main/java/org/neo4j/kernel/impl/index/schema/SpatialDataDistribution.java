@@ -0,0 +1,114 @@
+/*
+ * Copyright (c) 2018-2020 "Graph Foundation"
+ * Graph Foundation, Inc. [https://graphfoundation.org]
+ *
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of ONgDB.
+ *
+ * ONgDB is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.index.schema;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.neo4j.cursor.RawCursor;
+import org.neo4j.gis.spatial.index.curves.DataDistributionConfiguration;
+import org.neo4j.gis.spatial.index.curves.SpaceFillingCurveConfiguration;
+import org.neo4j.index.internal.gbptree.GBPTree;
+import org.neo4j.index.internal.gbptree.Hit;
+import org.neo4j.kernel.impl.index.schema.config.IndexSpecificSpaceFillingCurveSettingsCache;
+import org.neo4j.kernel.impl.index.schema.config.SpatialIndexSettings;
+import org.neo4j.values.storable.CoordinateReferenceSystem;
+import org.neo4j.values.storable.ValueGroup;
+
+/**
+ * How the points in a single-property native index are distributed over the space filling curve of each coordinate reference system,
+ * for mapping geometry range queries to curve ranges with a {@link DataDistributionConfiguration}. The distribution is taken when
+ * the index is sampled. Until then, for coordinate reference systems not seen when sampling, and when turned off by a zero
+ * {@link SpatialIndexSettings#space_filling_curve_false_positive_budget}, the configured {@link SpaceFillingCurveConfiguration} is used.
+ */
+class SpatialDataDistribution
+{
+    private final SpaceFillingCurveConfiguration configuration;
+    private final int falsePositiveBudget;
+    private volatile Map<CoordinateReferenceSystem,SpaceFillingCurveConfiguration> sampledConfigurations = Collections.emptyMap();
+
+    SpatialDataDistribution( SpaceFillingCurveConfiguration configuration, int falsePositiveBudget )
+    {
+        this.configuration = configuration;
+        this.falsePositiveBudget = falsePositiveBudget;
+    }
+
+    static SpatialDataDistribution disabled( SpaceFillingCurveConfiguration configuration )
+    {
+        return new SpatialDataDistribution( configuration, 0 );
+    }
+
+    boolean isEnabled()
+    {
+        return falsePositiveBudget > 0;
+    }
+
+    SpaceFillingCurveConfiguration configurationFor( CoordinateReferenceSystem crs )
+    {
+        return sampledConfigurations.getOrDefault( crs, configuration );
+    }
+
+    /**
+     * Scans the points in the index, which are ordered by coordinate reference system, and replaces the distribution with what was found.
+     */
+    void sample( GBPTree<GenericKey,NativeIndexValue> tree, IndexLayout<GenericKey,NativeIndexValue> layout,
+            IndexSpecificSpaceFillingCurveSettingsCache spaceFillingCurveSettings )
+    {
+        GenericKey lowest = layout.newKey();
+        lowest.initialize( Long.MIN_VALUE );
+        lowest.initValueAsLowest( 0, ValueGroup.GEOMETRY );
+        GenericKey highest = layout.newKey();
+        highest.initialize( Long.MAX_VALUE );
+        highest.initValueAsHighest( 0, ValueGroup.GEOMETRY );
+
+        Map<CoordinateReferenceSystem,DataDistributionConfiguration.Histogram> histograms = new HashMap<>();
+        try ( RawCursor<Hit<GenericKey,NativeIndexValue>,IOException> seeker = tree.seek( lowest, highest ) )
+        {
+            CoordinateReferenceSystem crs = null;
+            DataDistributionConfiguration.Histogram histogram = null;
+            while ( seeker.next() )
+            {
+                GenericKey key = seeker.get().key();
+                CoordinateReferenceSystem keyCrs = GeometryType.crs( key );
+                if ( keyCrs != crs )
+                {
+                    crs = keyCrs;
+                    histogram = new DataDistributionConfiguration.Histogram( spaceFillingCurveSettings.forCrs( crs, false ) );
+                    histograms.put( crs, histogram );
+                }
+                histogram.add( GeometryType.derivedValue( key ) );
+            }
+        }
+        catch ( IOException e )
+        {
+            throw new UncheckedIOException( e );
+        }
+
+        Map<CoordinateReferenceSystem,SpaceFillingCurveConfiguration> configurations = new HashMap<>();
+        histograms.forEach( ( crs, histogram ) -> configurations.put( crs, new DataDistributionConfiguration( configuration, histogram, falsePositiveBudget ) ) );
+        sampledConfigurations = configurations;
+    }
+}
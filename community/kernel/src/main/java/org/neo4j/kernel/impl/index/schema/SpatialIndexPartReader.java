@@ -41,6 +41,7 @@ import org.neo4j.kernel.impl.api.schema.BridgingIndexProgressor;
 import org.neo4j.storageengine.api.NodePropertyAccessor;
 import org.neo4j.storageengine.api.schema.IndexDescriptor;
 import org.neo4j.storageengine.api.schema.IndexProgressor;
+import org.neo4j.storageengine.api.schema.PartitionedValueSeek;
 import org.neo4j.values.storable.Value;
 import org.neo4j.values.storable.ValueGroup;
 
@@ -112,6 +113,13 @@ public class SpatialIndexPartReader<VALUE extends NativeIndexValue> extends Nati
         }
     }
 
+    @Override
+    public PartitionedValueSeek partitionedQuery( int desiredNumberOfPartitions, boolean needsValues, IndexQuery... predicates )
+    {
+        // Spatial queries are made up of multiple ranges along the space filling curve, not worth splitting further
+        return PartitionedValueSeek.singlePartition( this, needsValues, predicates );
+    }
+
     @Override
     public void distinctValues( IndexProgressor.NodeValueClient client, NodePropertyAccessor propertyAccessor, boolean needsValues )
     {
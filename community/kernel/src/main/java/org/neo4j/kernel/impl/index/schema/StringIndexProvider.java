@@ -23,6 +23,8 @@
 package org.neo4j.kernel.impl.index.schema;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 
 import org.neo4j.index.internal.gbptree.GBPTree;
 import org.neo4j.index.internal.gbptree.RecoveryCleanupWorkCollector;
@@ -37,6 +39,7 @@ import org.neo4j.kernel.api.index.IndexAccessor;
 import org.neo4j.kernel.api.index.IndexDirectoryStructure;
 import org.neo4j.kernel.api.index.IndexPopulator;
 import org.neo4j.storageengine.api.schema.StoreIndexDescriptor;
+import org.neo4j.util.FeatureToggles;
 import org.neo4j.values.storable.ValueCategory;
 
 /**
@@ -47,6 +50,13 @@ public class StringIndexProvider extends NativeIndexProvider<StringIndexKey,Nati
     public static final String KEY = "string";
     static final IndexCapability CAPABILITY = new StringIndexCapability();
     private static final IndexProviderDescriptor STRING_PROVIDER_DESCRIPTOR = new IndexProviderDescriptor( KEY, "1.0" );
+    public static final String COMPRESS_KEY_PREFIXES_NAME = "compressKeyPrefixes";
+
+    /**
+     * Whether or not newly created indexes get prefix compressed leaves, fitting more keys per leaf when strings share prefixes.
+     * Existing indexes keep the leaf format they were created with.
+     */
+    private final boolean compressKeyPrefixes = FeatureToggles.flag( StringIndexProvider.class, COMPRESS_KEY_PREFIXES_NAME, false );
 
     public StringIndexProvider( PageCache pageCache, FileSystemAbstraction fs,
             IndexDirectoryStructure.Factory directoryStructure, Monitor monitor, RecoveryCleanupWorkCollector recoveryCleanupWorkCollector,
@@ -58,7 +68,16 @@ public class StringIndexProvider extends NativeIndexProvider<StringIndexKey,Nati
     @Override
     StringLayout layout( StoreIndexDescriptor descriptor, File storeFile )
     {
-        return new StringLayout();
+        try
+        {
+            boolean compress = storeFile != null && fs.fileExists( storeFile ) ? GBPTree.hasCompressedKeyPrefixes( pageCache, storeFile )
+                                                                                : compressKeyPrefixes;
+            return new StringLayout( compress );
+        }
+        catch ( IOException e )
+        {
+            throw new UncheckedIOException( e );
+        }
     }
 
     @Override
@@ -36,9 +36,21 @@ class StringLayout extends IndexLayout<StringIndexKey,NativeIndexValue>
 {
     private static final int NO_ENTITY_ID = -1;
 
+    private final boolean compressKeyPrefixes;
+
     StringLayout()
     {
-        super( "USI", 0, 1 );
+        this( false );
+    }
+
+    /**
+     * @param compressKeyPrefixes whether or not to prefix compress leaf keys. Compressed keys are written with the entity id after
+     * the string bytes instead of before them, so that strings sharing a prefix share a key prefix too.
+     */
+    StringLayout( boolean compressKeyPrefixes )
+    {
+        super( compressKeyPrefixes ? "USIP" : "USI", 0, 1 );
+        this.compressKeyPrefixes = compressKeyPrefixes;
     }
 
     @Override
@@ -63,8 +75,16 @@ class StringLayout extends IndexLayout<StringIndexKey,NativeIndexValue>
     @Override
     public void writeKey( PageCursor cursor, StringIndexKey key )
     {
-        cursor.putLong( key.getEntityId() );
-        cursor.putBytes( key.bytes, 0, key.bytesLength );
+        if ( compressKeyPrefixes )
+        {
+            cursor.putBytes( key.bytes, 0, key.bytesLength );
+            cursor.putLong( key.getEntityId() );
+        }
+        else
+        {
+            cursor.putLong( key.getEntityId() );
+            cursor.putBytes( key.bytes, 0, key.bytesLength );
+        }
     }
 
     @Override
@@ -77,10 +97,19 @@ class StringLayout extends IndexLayout<StringIndexKey,NativeIndexValue>
             cursor.setCursorException( format( "Reading string index key with an unexpected keySize:%d", keySize ) );
             return;
         }
-        into.setEntityId( cursor.getLong() );
         int bytesLength = keySize - ENTITY_ID_SIZE;
-        into.setBytesLength( bytesLength );
-        cursor.getBytes( into.bytes, 0, bytesLength );
+        if ( compressKeyPrefixes )
+        {
+            into.setBytesLength( bytesLength );
+            cursor.getBytes( into.bytes, 0, bytesLength );
+            into.setEntityId( cursor.getLong() );
+        }
+        else
+        {
+            into.setEntityId( cursor.getLong() );
+            into.setBytesLength( bytesLength );
+            cursor.getBytes( into.bytes, 0, bytesLength );
+        }
     }
 
     @Override
@@ -89,6 +118,12 @@ class StringLayout extends IndexLayout<StringIndexKey,NativeIndexValue>
         return false;
     }
 
+    @Override
+    public boolean compressKeyPrefixes()
+    {
+        return compressKeyPrefixes;
+    }
+
     @Override
     public void minimalSplitter( StringIndexKey left, StringIndexKey right, StringIndexKey into )
     {
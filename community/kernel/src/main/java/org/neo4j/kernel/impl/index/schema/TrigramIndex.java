@@ -0,0 +1,261 @@
+/*
+ * Copyright (c) 2018-2020 "Graph Foundation"
+ * Graph Foundation, Inc. [https://graphfoundation.org]
+ *
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of ONgDB.
+ *
+ * ONgDB is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.index.schema;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.NoSuchFileException;
+import java.util.Arrays;
+import java.util.Collection;
+
+import org.neo4j.cursor.RawCursor;
+import org.neo4j.index.internal.gbptree.GBPTree;
+import org.neo4j.index.internal.gbptree.GBPTreeConsistencyCheckVisitor;
+import org.neo4j.index.internal.gbptree.Hit;
+import org.neo4j.index.internal.gbptree.RecoveryCleanupWorkCollector;
+import org.neo4j.index.internal.gbptree.Writer;
+import org.neo4j.internal.kernel.api.IndexQuery;
+import org.neo4j.io.IOUtils;
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.pagecache.IOLimiter;
+import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.kernel.api.index.IndexEntryUpdate;
+import org.neo4j.kernel.impl.annotations.ReporterFactory;
+import org.neo4j.storageengine.api.schema.IndexProgressor;
+import org.neo4j.storageengine.api.schema.IndexReader;
+
+import static org.neo4j.index.internal.gbptree.GBPTree.NO_HEADER_READER;
+import static org.neo4j.index.internal.gbptree.GBPTree.NO_HEADER_WRITER;
+import static org.neo4j.index.internal.gbptree.GBPTree.NO_MONITOR;
+
+/**
+ * Posting lists of the {@link Trigrams trigrams} of the strings in a single-property native schema index, kept in a {@link GBPTree}
+ * in a file next to the index file. Without it CONTAINS and ENDS WITH queries have to scan and filter all strings in the index,
+ * with it they only seek the posting lists of the trigrams of the searched string and intersect them.
+ * <p>
+ * An entity found this way has all the trigrams of the searched string in its indexed string, but not necessarily in the same
+ * sequence, so the results must be filtered by the caller, as told by {@link IndexReader#hasFullValuePrecision(IndexQuery...)}.
+ * <p>
+ * Only indexes that got trigrams when populated have the file, and only those keep trigrams up to date.
+ */
+class TrigramIndex implements ConsistencyCheckable
+{
+    private static final String FILE_SUFFIX = ".trigrams";
+    private static final long[] NO_TRIGRAMS = new long[0];
+
+    private final PageCache pageCache;
+    private final FileSystemAbstraction fs;
+    private final File file;
+    private final TrigramLayout layout = new TrigramLayout();
+    private final boolean readOnly;
+    private GBPTree<TrigramKey,NativeIndexValue> tree;
+
+    TrigramIndex( PageCache pageCache, FileSystemAbstraction fs, File storeFile, boolean readOnly )
+    {
+        this.pageCache = pageCache;
+        this.fs = fs;
+        this.file = trigramFile( storeFile );
+        this.readOnly = readOnly;
+    }
+
+    static File trigramFile( File storeFile )
+    {
+        return new File( storeFile.getParentFile(), storeFile.getName() + FILE_SUFFIX );
+    }
+
+    /**
+     * @param fs {@link FileSystemAbstraction} the index lives in.
+     * @param storeFile file of the native index.
+     * @return whether or not the native index in {@code storeFile} has trigrams.
+     */
+    static boolean exists( FileSystemAbstraction fs, File storeFile )
+    {
+        return fs.fileExists( trigramFile( storeFile ) );
+    }
+
+    /**
+     * Creates a new empty tree, deleting any previously existing trigrams.
+     */
+    void create()
+    {
+        try
+        {
+            fs.mkdirs( file.getParentFile() );
+        }
+        catch ( IOException e )
+        {
+            throw new UncheckedIOException( e );
+        }
+        deleteFileIfPresent();
+        instantiateTree( RecoveryCleanupWorkCollector.immediate() );
+    }
+
+    void instantiateTree( RecoveryCleanupWorkCollector recoveryCleanupWorkCollector )
+    {
+        tree = new GBPTree<>( pageCache, file, layout, 0, NO_MONITOR, NO_HEADER_READER, NO_HEADER_WRITER, recoveryCleanupWorkCollector, readOnly );
+    }
+
+    File file()
+    {
+        return file;
+    }
+
+    Writer<TrigramKey,NativeIndexValue> writer() throws IOException
+    {
+        return tree.writer();
+    }
+
+    Writer<TrigramKey,NativeIndexValue> parallelWriter() throws IOException
+    {
+        return tree.parallelWriter();
+    }
+
+    /**
+     * Seeks the posting lists of all {@code trigrams} and hands out the entities present in all of them to {@code client}.
+     *
+     * @param client {@link IndexProgressor.NodeValueClient} to accept the found entities.
+     * @param trigrams distinct trigrams which must all be present.
+     * @param openSeekers seekers which should be closed when the reader is, the seekers opened here are added to it.
+     * @return {@link IndexProgressor} for the intersection of the posting lists.
+     */
+    IndexProgressor query( IndexProgressor.NodeValueClient client, long[] trigrams,
+            Collection<RawCursor<Hit<TrigramKey,NativeIndexValue>,IOException>> openSeekers )
+    {
+        @SuppressWarnings( "unchecked" )
+        RawCursor<Hit<TrigramKey,NativeIndexValue>,IOException>[] postingLists = new RawCursor[trigrams.length];
+        try
+        {
+            for ( int i = 0; i < trigrams.length; i++ )
+            {
+                postingLists[i] = tree.seek( layout.newKey().set( trigrams[i], Long.MIN_VALUE ), layout.newKey().set( trigrams[i], Long.MAX_VALUE ) );
+                openSeekers.add( postingLists[i] );
+            }
+        }
+        catch ( IOException e )
+        {
+            IOUtils.closeAllSilently( postingLists );
+            throw new UncheckedIOException( e );
+        }
+        return new TrigramIndexProgressor( postingLists, client, openSeekers );
+    }
+
+    void checkpoint( IOLimiter ioLimiter )
+    {
+        tree.checkpoint( ioLimiter );
+    }
+
+    boolean wasDirtyOnStartup()
+    {
+        return tree.wasDirtyOnStartup();
+    }
+
+    void close()
+    {
+        IOUtils.closeAllUnchecked( tree );
+        tree = null;
+    }
+
+    void drop()
+    {
+        close();
+        deleteFileIfPresent();
+    }
+
+    @Override
+    public boolean consistencyCheck( ReporterFactory reporterFactory )
+    {
+        try
+        {
+            return tree.consistencyCheck( reporterFactory.getClass( GBPTreeConsistencyCheckVisitor.class ) );
+        }
+        catch ( IOException e )
+        {
+            throw new UncheckedIOException( e );
+        }
+    }
+
+    /**
+     * Applies the trigram changes of an {@link IndexEntryUpdate} of a single-property index. For changed strings only the trigrams
+     * that differ between the before and after value are touched.
+     */
+    static void processUpdate( TrigramKey key, IndexEntryUpdate<?> update, Writer<TrigramKey,NativeIndexValue> writer )
+    {
+        long entityId = update.getEntityId();
+        switch ( update.updateMode() )
+        {
+        case ADDED:
+            putAllExcept( key, entityId, Trigrams.indexed( update.values()[0] ), NO_TRIGRAMS, writer );
+            break;
+        case CHANGED:
+            long[] before = Trigrams.indexed( update.beforeValues()[0] );
+            long[] after = Trigrams.indexed( update.values()[0] );
+            removeAllExcept( key, entityId, before, after, writer );
+            putAllExcept( key, entityId, after, before, writer );
+            break;
+        case REMOVED:
+            removeAllExcept( key, entityId, Trigrams.indexed( update.values()[0] ), NO_TRIGRAMS, writer );
+            break;
+        default:
+            throw new IllegalArgumentException();
+        }
+    }
+
+    private static void putAllExcept( TrigramKey key, long entityId, long[] trigrams, long[] except, Writer<TrigramKey,NativeIndexValue> writer )
+    {
+        for ( long trigram : trigrams )
+        {
+            if ( Arrays.binarySearch( except, trigram ) < 0 )
+            {
+                writer.put( key.set( trigram, entityId ), NativeIndexValue.INSTANCE );
+            }
+        }
+    }
+
+    private static void removeAllExcept( TrigramKey key, long entityId, long[] trigrams, long[] except, Writer<TrigramKey,NativeIndexValue> writer )
+    {
+        for ( long trigram : trigrams )
+        {
+            if ( Arrays.binarySearch( except, trigram ) < 0 )
+            {
+                writer.remove( key.set( trigram, entityId ) );
+            }
+        }
+    }
+
+    private void deleteFileIfPresent()
+    {
+        try
+        {
+            fs.deleteFileOrThrow( file );
+        }
+        catch ( NoSuchFileException e )
+        {
+            // File does not exist, we don't need to delete
+        }
+        catch ( IOException e )
+        {
+            throw new UncheckedIOException( e );
+        }
+    }
+}
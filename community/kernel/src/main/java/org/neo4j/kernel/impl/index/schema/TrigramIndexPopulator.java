@@ -0,0 +1,213 @@
+/*
+ * Copyright (c) 2018-2020 "Graph Foundation"
+ * Graph Foundation, Inc. [https://graphfoundation.org]
+ *
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of ONgDB.
+ *
+ * ONgDB is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.index.schema;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Collection;
+import java.util.Map;
+
+import org.neo4j.index.internal.gbptree.Writer;
+import org.neo4j.io.IOUtils;
+import org.neo4j.io.pagecache.IOLimiter;
+import org.neo4j.kernel.api.exceptions.index.IndexEntryConflictException;
+import org.neo4j.kernel.api.index.IndexEntryUpdate;
+import org.neo4j.kernel.api.index.IndexPopulator;
+import org.neo4j.kernel.api.index.IndexUpdater;
+import org.neo4j.kernel.impl.annotations.ReporterFactory;
+import org.neo4j.kernel.impl.api.index.PhaseTracker;
+import org.neo4j.storageengine.api.NodePropertyAccessor;
+import org.neo4j.storageengine.api.schema.IndexSample;
+import org.neo4j.storageengine.api.schema.PopulationProgress;
+import org.neo4j.values.storable.Value;
+
+/**
+ * Takes an {@link IndexPopulator} of a single-property native index and populates a {@link TrigramIndex} for it alongside,
+ * from the same updates. Trigrams are written using parallel writers, so this populator can be called from multiple threads
+ * whenever the wrapped populator can.
+ */
+class TrigramIndexPopulator implements IndexPopulator, ConsistencyCheckable
+{
+    private final IndexPopulator actual;
+    private final TrigramIndex trigramIndex;
+
+    TrigramIndexPopulator( IndexPopulator actual, TrigramIndex trigramIndex )
+    {
+        this.actual = actual;
+        this.trigramIndex = trigramIndex;
+    }
+
+    @Override
+    public void create()
+    {
+        // The actual populator may clear the whole index directory when creating, so trigrams are created afterwards
+        actual.create();
+        trigramIndex.create();
+    }
+
+    @Override
+    public void drop()
+    {
+        trigramIndex.drop();
+        actual.drop();
+    }
+
+    @Override
+    public void add( Collection<? extends IndexEntryUpdate<?>> updates ) throws IndexEntryConflictException
+    {
+        actual.add( updates );
+        try ( Writer<TrigramKey,NativeIndexValue> writer = trigramIndex.parallelWriter() )
+        {
+            TrigramKey key = new TrigramKey();
+            for ( IndexEntryUpdate<?> update : updates )
+            {
+                TrigramIndex.processUpdate( key, update, writer );
+            }
+        }
+        catch ( IOException e )
+        {
+            throw new UncheckedIOException( e );
+        }
+    }
+
+    @Override
+    public void verifyDeferredConstraints( NodePropertyAccessor nodePropertyAccessor ) throws IndexEntryConflictException
+    {
+        actual.verifyDeferredConstraints( nodePropertyAccessor );
+    }
+
+    @Override
+    public IndexUpdater newPopulatingUpdater( NodePropertyAccessor accessor )
+    {
+        return new TrigramPopulatingUpdater( actual.newPopulatingUpdater( accessor ) );
+    }
+
+    @Override
+    public void scanCompleted( PhaseTracker phaseTracker ) throws IndexEntryConflictException
+    {
+        actual.scanCompleted( phaseTracker );
+    }
+
+    @Override
+    public void close( boolean populationCompletedSuccessfully )
+    {
+        try
+        {
+            if ( populationCompletedSuccessfully )
+            {
+                // Trigrams are made durable before the actual index gets marked as online
+                trigramIndex.checkpoint( IOLimiter.UNLIMITED );
+                trigramIndex.close();
+            }
+            else
+            {
+                // Whatever happens to the actual index next, it will be populated again before going online
+                trigramIndex.drop();
+            }
+        }
+        finally
+        {
+            actual.close( populationCompletedSuccessfully );
+        }
+    }
+
+    @Override
+    public void markAsFailed( String failure )
+    {
+        actual.markAsFailed( failure );
+    }
+
+    @Override
+    public void includeSample( IndexEntryUpdate<?> update )
+    {
+        actual.includeSample( update );
+    }
+
+    @Override
+    public IndexSample sampleResult()
+    {
+        return actual.sampleResult();
+    }
+
+    @Override
+    public PopulationProgress progress( PopulationProgress scanProgress )
+    {
+        return actual.progress( scanProgress );
+    }
+
+    @Override
+    public Map<String,Value> indexConfig()
+    {
+        return actual.indexConfig();
+    }
+
+    @Override
+    public boolean consistencyCheck( ReporterFactory reporterFactory )
+    {
+        boolean actualConsistent = !(actual instanceof ConsistencyCheckable) || ((ConsistencyCheckable) actual).consistencyCheck( reporterFactory );
+        return actualConsistent & trigramIndex.consistencyCheck( reporterFactory );
+    }
+
+    private class TrigramPopulatingUpdater implements IndexUpdater
+    {
+        private final IndexUpdater actualUpdater;
+        private final TrigramKey key = new TrigramKey();
+        private Writer<TrigramKey,NativeIndexValue> writer;
+
+        TrigramPopulatingUpdater( IndexUpdater actualUpdater )
+        {
+            this.actualUpdater = actualUpdater;
+        }
+
+        @Override
+        public void process( IndexEntryUpdate<?> update ) throws IndexEntryConflictException
+        {
+            try
+            {
+                if ( writer == null )
+                {
+                    writer = trigramIndex.parallelWriter();
+                }
+            }
+            catch ( IOException e )
+            {
+                throw new UncheckedIOException( e );
+            }
+            TrigramIndex.processUpdate( key, update, writer );
+            actualUpdater.process( update );
+        }
+
+        @Override
+        public void close() throws IndexEntryConflictException
+        {
+            try
+            {
+                actualUpdater.close();
+            }
+            finally
+            {
+                IOUtils.closeAllUnchecked( writer );
+            }
+        }
+    }
+}
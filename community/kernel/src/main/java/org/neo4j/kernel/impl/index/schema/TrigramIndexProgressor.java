@@ -0,0 +1,143 @@
+/*
+ * Copyright (c) 2018-2020 "Graph Foundation"
+ * Graph Foundation, Inc. [https://graphfoundation.org]
+ *
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of ONgDB.
+ *
+ * ONgDB is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.index.schema;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.Collection;
+
+import org.neo4j.cursor.RawCursor;
+import org.neo4j.index.internal.gbptree.Hit;
+import org.neo4j.storageengine.api.schema.IndexProgressor;
+
+/**
+ * Intersects the posting lists of a number of trigrams, handing out each entity present in all of them. Entity ids in each posting list
+ * are ascending, so the posting lists are advanced in turn towards the highest entity id seen so far until all of them agree on it.
+ * Entities are handed out without values since the posting lists have none.
+ */
+class TrigramIndexProgressor implements IndexProgressor
+{
+    private final RawCursor<Hit<TrigramKey,NativeIndexValue>,IOException>[] postingLists;
+    private final long[] heads;
+    private final NodeValueClient client;
+    private final Collection<RawCursor<Hit<TrigramKey,NativeIndexValue>,IOException>> toRemoveFromOnClose;
+    private long lastMatch = -1;
+    private boolean exhausted;
+    private boolean closed;
+
+    TrigramIndexProgressor( RawCursor<Hit<TrigramKey,NativeIndexValue>,IOException>[] postingLists, NodeValueClient client,
+            Collection<RawCursor<Hit<TrigramKey,NativeIndexValue>,IOException>> toRemoveFromOnClose )
+    {
+        this.postingLists = postingLists;
+        this.heads = new long[postingLists.length];
+        Arrays.fill( heads, -1 );
+        this.client = client;
+        this.toRemoveFromOnClose = toRemoveFromOnClose;
+    }
+
+    @Override
+    public boolean next()
+    {
+        try
+        {
+            while ( nextMatch() )
+            {
+                if ( client.acceptNode( lastMatch, null ) )
+                {
+                    return true;
+                }
+            }
+            return false;
+        }
+        catch ( IOException e )
+        {
+            throw new UncheckedIOException( e );
+        }
+    }
+
+    private boolean nextMatch() throws IOException
+    {
+        if ( exhausted )
+        {
+            return false;
+        }
+
+        long target = lastMatch + 1;
+        int agreeing = 0;
+        for ( int i = 0; agreeing < postingLists.length; i = (i + 1) % postingLists.length )
+        {
+            if ( !advanceTo( i, target ) )
+            {
+                exhausted = true;
+                return false;
+            }
+            if ( heads[i] == target )
+            {
+                agreeing++;
+            }
+            else
+            {
+                target = heads[i];
+                agreeing = 1;
+            }
+        }
+        lastMatch = target;
+        return true;
+    }
+
+    private boolean advanceTo( int postingList, long target ) throws IOException
+    {
+        RawCursor<Hit<TrigramKey,NativeIndexValue>,IOException> seeker = postingLists[postingList];
+        while ( heads[postingList] < target )
+        {
+            if ( !seeker.next() )
+            {
+                return false;
+            }
+            heads[postingList] = seeker.get().key().entityId;
+        }
+        return true;
+    }
+
+    @Override
+    public void close()
+    {
+        if ( !closed )
+        {
+            closed = true;
+            try
+            {
+                for ( RawCursor<Hit<TrigramKey,NativeIndexValue>,IOException> seeker : postingLists )
+                {
+                    seeker.close();
+                    toRemoveFromOnClose.remove( seeker );
+                }
+            }
+            catch ( IOException e )
+            {
+                throw new UncheckedIOException( e );
+            }
+        }
+    }
+}
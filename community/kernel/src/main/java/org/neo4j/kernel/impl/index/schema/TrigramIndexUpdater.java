@@ -0,0 +1,75 @@
+/*
+ * Copyright (c) 2018-2020 "Graph Foundation"
+ * Graph Foundation, Inc. [https://graphfoundation.org]
+ *
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of ONgDB.
+ *
+ * ONgDB is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.index.schema;
+
+import org.neo4j.index.internal.gbptree.Writer;
+import org.neo4j.io.IOUtils;
+import org.neo4j.kernel.api.exceptions.index.IndexEntryConflictException;
+import org.neo4j.kernel.api.index.IndexEntryUpdate;
+
+/**
+ * {@link NativeIndexUpdater} for an online native index with trigrams, also applying each update to the {@link TrigramIndex}.
+ */
+class TrigramIndexUpdater extends NativeIndexUpdater<GenericKey,NativeIndexValue>
+{
+    private final TrigramKey trigramKey = new TrigramKey();
+    private Writer<TrigramKey,NativeIndexValue> trigramWriter;
+
+    TrigramIndexUpdater( GenericKey treeKey, NativeIndexValue treeValue )
+    {
+        super( treeKey, treeValue );
+    }
+
+    TrigramIndexUpdater initialize( Writer<GenericKey,NativeIndexValue> writer, Writer<TrigramKey,NativeIndexValue> trigramWriter )
+    {
+        initialize( writer );
+        this.trigramWriter = trigramWriter;
+        return this;
+    }
+
+    @Override
+    public void process( IndexEntryUpdate<?> update ) throws IndexEntryConflictException
+    {
+        if ( trigramWriter == null )
+        {
+            throw new IllegalStateException( "Updater has been closed" );
+        }
+        // Trigrams first since a conflict in the native index leaves its entry in place too
+        TrigramIndex.processUpdate( trigramKey, update, trigramWriter );
+        super.process( update );
+    }
+
+    @Override
+    public void close()
+    {
+        try
+        {
+            super.close();
+        }
+        finally
+        {
+            IOUtils.closeAllUnchecked( trigramWriter );
+            trigramWriter = null;
+        }
+    }
+}
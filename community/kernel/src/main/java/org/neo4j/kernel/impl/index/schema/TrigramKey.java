@@ -0,0 +1,53 @@
+/*
+ * Copyright (c) 2018-2020 "Graph Foundation"
+ * Graph Foundation, Inc. [https://graphfoundation.org]
+ *
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of ONgDB.
+ *
+ * ONgDB is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.index.schema;
+
+/**
+ * Keys in {@link TrigramLayout}, each key consists of a {@code trigram}, as extracted by {@link Trigrams}, and the {@code entityId}
+ * of an entity having an indexed string containing that trigram. All keys of one trigram together make up its posting list.
+ */
+class TrigramKey
+{
+    long trigram;
+    long entityId;
+
+    /**
+     * Sets this key.
+     *
+     * @param trigram trigram for this key.
+     * @param entityId entity id for this key.
+     * @return this key instance, for convenience.
+     */
+    final TrigramKey set( long trigram, long entityId )
+    {
+        this.trigram = trigram;
+        this.entityId = entityId;
+        return this;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "[trigram:" + trigram + ",entityId:" + entityId + "]";
+    }
+}
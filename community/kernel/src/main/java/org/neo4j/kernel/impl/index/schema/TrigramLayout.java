@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 2018-2020 "Graph Foundation"
+ * Graph Foundation, Inc. [https://graphfoundation.org]
+ *
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of ONgDB.
+ *
+ * ONgDB is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.index.schema;
+
+import org.neo4j.index.internal.gbptree.GBPTree;
+import org.neo4j.index.internal.gbptree.Layout;
+import org.neo4j.io.pagecache.PageCursor;
+
+/**
+ * {@link Layout} for the {@link GBPTree} used by {@link TrigramIndex}. Keys are ordered by {@code trigram} then {@code entityId},
+ * so the posting list of each trigram is a consecutive range of keys with ascending entity ids. There are no values.
+ */
+class TrigramLayout extends Layout.Adapter<TrigramKey,NativeIndexValue>
+{
+    private static final String IDENTIFIER_NAME = "TGL";
+    private static final int KEY_SIZE = Long.BYTES/*trigram*/ + Long.BYTES/*entityId*/;
+
+    @Override
+    public int compare( TrigramKey o1, TrigramKey o2 )
+    {
+        int trigramComparison = Long.compare( o1.trigram, o2.trigram );
+        return trigramComparison != 0 ? trigramComparison : Long.compare( o1.entityId, o2.entityId );
+    }
+
+    @Override
+    public TrigramKey newKey()
+    {
+        return new TrigramKey();
+    }
+
+    @Override
+    public TrigramKey copyKey( TrigramKey key, TrigramKey into )
+    {
+        return into.set( key.trigram, key.entityId );
+    }
+
+    @Override
+    public NativeIndexValue newValue()
+    {
+        return NativeIndexValue.INSTANCE;
+    }
+
+    @Override
+    public int keySize( TrigramKey key )
+    {
+        return KEY_SIZE;
+    }
+
+    @Override
+    public int valueSize( NativeIndexValue value )
+    {
+        return NativeIndexValue.SIZE;
+    }
+
+    @Override
+    public void writeKey( PageCursor cursor, TrigramKey key )
+    {
+        cursor.putLong( key.trigram );
+        cursor.putLong( key.entityId );
+    }
+
+    @Override
+    public void writeValue( PageCursor cursor, NativeIndexValue value )
+    {
+        // nothing to write
+    }
+
+    @Override
+    public void readKey( PageCursor cursor, TrigramKey into, int keySize )
+    {
+        into.trigram = cursor.getLong();
+        into.entityId = cursor.getLong();
+    }
+
+    @Override
+    public void readValue( PageCursor cursor, NativeIndexValue into, int valueSize )
+    {
+        // nothing to read
+    }
+
+    @Override
+    public boolean fixedSize()
+    {
+        return true;
+    }
+
+    @Override
+    public long identifier()
+    {
+        return Layout.namedIdentifier( IDENTIFIER_NAME, KEY_SIZE );
+    }
+
+    @Override
+    public int majorVersion()
+    {
+        return 0;
+    }
+
+    @Override
+    public int minorVersion()
+    {
+        return 1;
+    }
+}
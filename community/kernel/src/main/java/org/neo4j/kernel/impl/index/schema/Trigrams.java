@@ -0,0 +1,126 @@
+/*
+ * Copyright (c) 2018-2020 "Graph Foundation"
+ * Graph Foundation, Inc. [https://graphfoundation.org]
+ *
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of ONgDB.
+ *
+ * ONgDB is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.index.schema;
+
+import java.util.Arrays;
+
+import org.neo4j.values.storable.TextValue;
+import org.neo4j.values.storable.Value;
+import org.neo4j.values.storable.ValueGroup;
+
+/**
+ * Extracts trigrams, i.e. every sequence of three consecutive code points, from strings. A trigram is packed into a single {@code long}
+ * with 21 bits per code point, which is enough to fit any unicode code point as well as the {@link #END end marker}.
+ * <p>
+ * Indexed strings get the {@link #END end marker} appended before extracting trigrams, such that a suffix of two or more code points
+ * can be looked up using trigrams too. Strings get no trigrams at all if they are too short to produce any.
+ */
+final class Trigrams
+{
+    /**
+     * Code point used to mark the end of an indexed string. It is one above the highest unicode code point and so can never clash with
+     * a code point of the string itself.
+     */
+    static final int END = Character.MAX_CODE_POINT + 1;
+
+    private static final int BITS_PER_CODE_POINT = 21;
+    private static final long[] NO_TRIGRAMS = new long[0];
+
+    private Trigrams()
+    {
+    }
+
+    /**
+     * @param value the indexed value.
+     * @return the distinct trigrams of the value, in ascending order, or no trigrams if the value isn't a string.
+     */
+    static long[] indexed( Value value )
+    {
+        if ( value.valueGroup() != ValueGroup.TEXT )
+        {
+            return NO_TRIGRAMS;
+        }
+        return trigrams( ((TextValue) value).stringValue(), true );
+    }
+
+    /**
+     * @param substring the string to look for anywhere in indexed strings.
+     * @return the distinct trigrams that any string containing {@code substring} has, or no trigrams if {@code substring} has
+     * fewer than three code points.
+     */
+    static long[] contains( String substring )
+    {
+        return trigrams( substring, false );
+    }
+
+    /**
+     * @param suffix the string to look for at the end of indexed strings.
+     * @return the distinct trigrams that any string ending with {@code suffix} has, or no trigrams if {@code suffix} has
+     * fewer than two code points.
+     */
+    static long[] suffix( String suffix )
+    {
+        return trigrams( suffix, true );
+    }
+
+    static long trigram( int first, int second, int third )
+    {
+        return ((long) first << (2 * BITS_PER_CODE_POINT)) | ((long) second << BITS_PER_CODE_POINT) | third;
+    }
+
+    private static long[] trigrams( String string, boolean withEnd )
+    {
+        int[] codePoints = string.codePoints().toArray();
+        int length = withEnd ? codePoints.length + 1 : codePoints.length;
+        if ( length < 3 )
+        {
+            return NO_TRIGRAMS;
+        }
+        if ( withEnd )
+        {
+            codePoints = Arrays.copyOf( codePoints, length );
+            codePoints[length - 1] = END;
+        }
+
+        long[] trigrams = new long[length - 2];
+        for ( int i = 0; i < trigrams.length; i++ )
+        {
+            trigrams[i] = trigram( codePoints[i], codePoints[i + 1], codePoints[i + 2] );
+        }
+        return distinct( trigrams );
+    }
+
+    private static long[] distinct( long[] trigrams )
+    {
+        Arrays.sort( trigrams );
+        int count = 0;
+        for ( int i = 0; i < trigrams.length; i++ )
+        {
+            if ( i == 0 || trigrams[i] != trigrams[i - 1] )
+            {
+                trigrams[count++] = trigrams[i];
+            }
+        }
+        return count == trigrams.length ? trigrams : Arrays.copyOf( trigrams, count );
+    }
+}
@@ -81,6 +81,16 @@ public class SpatialIndexSettings implements LoadableConfig
     public static final Setting<Double> space_filling_curve_bottom_threshold = setting(
             "unsupported.dbms.index.spatial.curve.bottom_threshold", DOUBLE, "0" );
 
+    @Description( "When searching the spatial index we need to convert a 2D range in the quad tree into a set of 1D ranges on the " +
+            "underlying 1D space filling curve index. Instead of processing the quad tree to a depth based only on the size of the search area, " +
+            "the depth can be chosen per tile based on how many points the index holds in that tile, as found when the index is sampled. " +
+            "Tiles are then split until the expected number of points in them that are outside of the search area, false positives to be " +
+            "filtered out, is below this number. This gives few ranges over sparse areas and small ranges over dense areas. " +
+            "Setting this value to zero turns off this feature." )
+    @Internal
+    public static final Setting<Integer> space_filling_curve_false_positive_budget = setting(
+            "unsupported.dbms.index.spatial.curve.false_positive_budget", INTEGER, "0" );
+
     @Description( "The maximum number of bits to use for levels in the quad tree representing the spatial index. When creating the spatial index, we " +
             "simulate a quad tree using a 2D (or 3D) to 1D mapping function. This requires that the extents of the index and the depth " +
             "of the tree be defined in advance, so ensure the 2D to 1D mapping is deterministic and repeatable. This setting will define " +
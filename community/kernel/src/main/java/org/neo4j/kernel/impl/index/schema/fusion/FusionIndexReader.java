@@ -22,7 +22,9 @@
  */
 package org.neo4j.kernel.impl.index.schema.fusion;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 
 import org.neo4j.collection.PrimitiveLongResourceIterator;
 import org.neo4j.graphdb.Resource;
@@ -36,6 +38,7 @@ import org.neo4j.storageengine.api.schema.IndexDescriptor;
 import org.neo4j.storageengine.api.schema.IndexProgressor;
 import org.neo4j.storageengine.api.schema.IndexReader;
 import org.neo4j.storageengine.api.schema.IndexSampler;
+import org.neo4j.storageengine.api.schema.PartitionedValueSeek;
 import org.neo4j.values.storable.Value;
 
 import static java.lang.String.format;
@@ -119,6 +122,73 @@ class FusionIndexReader extends FusionIndexBase<IndexReader> implements IndexRea
         }
     }
 
+    @Override
+    public PartitionedValueSeek partitionedQuery( int desiredNumberOfPartitions, boolean needsValues, IndexQuery... predicates )
+            throws IndexNotApplicableKernelException
+    {
+        IndexSlot slot = slotSelector.selectSlot( predicates, IndexQuery::valueGroup );
+        if ( slot != null )
+        {
+            return instanceSelector.select( slot ).partitionedQuery( desiredNumberOfPartitions, needsValues, predicates );
+        }
+
+        // Each part holds different values so the partitions of all parts can simply be handed out one part after the other
+        List<PartitionedValueSeek> parts = new ArrayList<>();
+        try
+        {
+            instanceSelector.forAll( reader ->
+            {
+                try
+                {
+                    parts.add( reader.partitionedQuery( desiredNumberOfPartitions, needsValues, predicates ) );
+                }
+                catch ( IndexNotApplicableKernelException e )
+                {
+                    throw new InnerException( e );
+                }
+            } );
+        }
+        catch ( InnerException e )
+        {
+            throw e.getCause();
+        }
+        return new FusionPartitionedValueSeek( parts );
+    }
+
+    private static final class FusionPartitionedValueSeek implements PartitionedValueSeek
+    {
+        private final List<PartitionedValueSeek> parts;
+
+        private FusionPartitionedValueSeek( List<PartitionedValueSeek> parts )
+        {
+            this.parts = parts;
+        }
+
+        @Override
+        public int getNumberOfPartitions()
+        {
+            int numberOfPartitions = 0;
+            for ( PartitionedValueSeek part : parts )
+            {
+                numberOfPartitions += part.getNumberOfPartitions();
+            }
+            return numberOfPartitions;
+        }
+
+        @Override
+        public boolean reservePartition( IndexProgressor.NodeValueClient client )
+        {
+            for ( PartitionedValueSeek part : parts )
+            {
+                if ( part.reservePartition( client ) )
+                {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
     private static final class InnerException extends RuntimeException
     {
         private InnerException( IndexNotApplicableKernelException e )
@@ -143,11 +213,17 @@ class FusionIndexReader extends FusionIndexBase<IndexReader> implements IndexRea
 
     @Override
     public boolean hasFullValuePrecision( IndexQuery... predicates )
+    {
+        return hasFullValuePrecision( IndexOrder.NONE, false, predicates );
+    }
+
+    @Override
+    public boolean hasFullValuePrecision( IndexOrder indexOrder, boolean needsValues, IndexQuery... predicates )
     {
         IndexSlot slot = slotSelector.selectSlot( predicates, IndexQuery::valueGroup );
         if ( slot != null )
         {
-            return instanceSelector.select( slot ).hasFullValuePrecision( predicates );
+            return instanceSelector.select( slot ).hasFullValuePrecision( indexOrder, needsValues, predicates );
         }
         else
         {
@@ -24,6 +24,7 @@ package org.neo4j.kernel.impl.index.schema.fusion;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.LongConsumer;
 
 import org.neo4j.helpers.Exceptions;
 import org.neo4j.internal.kernel.api.exceptions.schema.IndexNotFoundKernelException;
@@ -66,6 +67,38 @@ public class FusionIndexSampler implements IndexSampler
         return combineSamples( samples );
     }
 
+    @Override
+    public IndexSample sampleIndex( LongConsumer distinctValueHashes ) throws IndexNotFoundKernelException
+    {
+        // Values in different parts are never equal, so the distinct values of all parts can be reported as one
+        List<IndexSample> samples = new ArrayList<>();
+        Exception exception = null;
+        boolean allReported = true;
+        for ( IndexSampler sampler : samplers )
+        {
+            try
+            {
+                IndexSample sample = sampler.sampleIndex( distinctValueHashes );
+                if ( sample == null )
+                {
+                    allReported = false;
+                    break;
+                }
+                samples.add( sample );
+            }
+            catch ( IndexNotFoundKernelException | RuntimeException e )
+            {
+                exception = Exceptions.chain( exception, e );
+            }
+        }
+        if ( exception != null )
+        {
+            Exceptions.throwIfUnchecked( exception );
+            throw (IndexNotFoundKernelException)exception;
+        }
+        return allReported ? combineSamples( samples ) : null;
+    }
+
     public static IndexSample combineSamples( Iterable<IndexSample> samples )
     {
         long indexSize = 0;
@@ -23,12 +23,17 @@
 package org.neo4j.kernel.impl.newapi;
 
 import org.eclipse.collections.api.iterator.LongIterator;
+import org.eclipse.collections.api.list.ListIterable;
+import org.eclipse.collections.api.list.MutableList;
 import org.eclipse.collections.api.set.primitive.LongSet;
+import org.eclipse.collections.impl.factory.Lists;
+import org.eclipse.collections.impl.factory.primitive.LongLists;
 import org.eclipse.collections.impl.factory.primitive.LongSets;
 import org.eclipse.collections.impl.iterator.ImmutableEmptyLongIterator;
 
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.Iterator;
 
 import org.neo4j.graphdb.Resource;
@@ -42,15 +47,19 @@ import org.neo4j.kernel.impl.newapi.TxStateIndexChanges.AddedWithValuesAndRemove
 import org.neo4j.storageengine.api.schema.IndexDescriptor;
 import org.neo4j.storageengine.api.schema.IndexProgressor;
 import org.neo4j.storageengine.api.schema.IndexProgressor.NodeValueClient;
+import org.neo4j.values.storable.CRSCalculator;
+import org.neo4j.values.storable.PointValue;
 import org.neo4j.values.storable.Value;
 
 import static java.util.Arrays.stream;
 import static org.neo4j.collection.PrimitiveLongCollections.mergeToSet;
+import static org.neo4j.kernel.impl.newapi.TxStateIndexChanges.indexUpdatesForCompositeQuery;
 import static org.neo4j.kernel.impl.newapi.TxStateIndexChanges.indexUpdatesForRangeSeek;
 import static org.neo4j.kernel.impl.newapi.TxStateIndexChanges.indexUpdatesForRangeSeekByPrefix;
 import static org.neo4j.kernel.impl.newapi.TxStateIndexChanges.indexUpdatesForScan;
 import static org.neo4j.kernel.impl.newapi.TxStateIndexChanges.indexUpdatesForSeek;
 import static org.neo4j.kernel.impl.newapi.TxStateIndexChanges.indexUpdatesForSuffixOrContains;
+import static org.neo4j.kernel.impl.newapi.TxStateIndexChanges.indexUpdatesWithValuesForCompositeQuery;
 import static org.neo4j.kernel.impl.newapi.TxStateIndexChanges.indexUpdatesWithValuesForRangeSeek;
 import static org.neo4j.kernel.impl.newapi.TxStateIndexChanges.indexUpdatesWithValuesForRangeSeekByPrefix;
 import static org.neo4j.kernel.impl.newapi.TxStateIndexChanges.indexUpdatesWithValuesForScan;
@@ -94,7 +103,13 @@ final class DefaultNodeValueIndexCursor extends IndexCursor<IndexProgressor>
         this.needsValues = needsValues;
         this.query = query;
 
-        if ( read.hasTxStateWithChanges() && query.length > 0 )
+        if ( read.hasTxStateWithChanges() && query.length > 1 && !isExactSeek( query ) )
+        {
+            // A composite query with non-exact predicates, e.g. an exact predicate followed by a range
+            setNeedsValuesIfRequiresOrder();
+            compositeQuery( descriptor, query );
+        }
+        else if ( read.hasTxStateWithChanges() && query.length > 0 )
         {
             IndexQuery firstPredicate = query[0];
             switch ( firstPredicate.type() )
@@ -128,6 +143,11 @@ final class DefaultNodeValueIndexCursor extends IndexCursor<IndexProgressor>
                 suffixOrContainsQuery( descriptor, firstPredicate );
                 break;
 
+            case nearestNeighbours:
+                assert query.length == 1;
+                nearestNeighboursQuery( descriptor, (IndexQuery.NearestNeighboursPredicate) firstPredicate );
+                break;
+
             default:
                 throw new UnsupportedOperationException( "Query not supported: " + Arrays.toString( query ) );
             }
@@ -387,6 +407,63 @@ final class DefaultNodeValueIndexCursor extends IndexCursor<IndexProgressor>
         }
     }
 
+    /**
+     * Neighbours from the index and neighbours added in this transaction are merged by distance, eagerly, as there are at most
+     * {@code k} of them plus the number of neighbours removed in this transaction, which {@link Read} asks the index for in addition.
+     */
+    private void nearestNeighboursQuery( IndexDescriptor descriptor, IndexQuery.NearestNeighboursPredicate predicate )
+    {
+        TransactionState txState = read.txState();
+        AddedWithValuesAndRemoved changes = indexUpdatesWithValuesForScan( txState, descriptor, IndexOrder.NONE );
+        removed = removed( txState, changes.getRemoved() );
+
+        MutableList<NodeWithPropertyValues> neighbours = Lists.mutable.empty();
+        for ( NodeWithPropertyValues added : changes.getAdded() )
+        {
+            if ( predicate.acceptsValue( added.getValues()[0] ) )
+            {
+                neighbours.add( added );
+            }
+        }
+        while ( innerNext() )
+        {
+            neighbours.add( new NodeWithPropertyValues( node, values ) );
+        }
+        node = NO_ID;
+        values = null;
+
+        CRSCalculator calculator = predicate.crs().getCalculator();
+        neighbours.sortThis( Comparator.comparingDouble( ( NodeWithPropertyValues neighbour ) ->
+                calculator.distance( predicate.point(), (PointValue) neighbour.getValues()[0] ) ).thenComparingLong( NodeWithPropertyValues::getNodeId ) );
+        ListIterable<NodeWithPropertyValues> closest = neighbours.take( predicate.k() );
+        if ( needsValues )
+        {
+            addedWithValues = closest.iterator();
+        }
+        else
+        {
+            added = closest.collectLong( NodeWithPropertyValues::getNodeId, LongLists.mutable.empty() ).longIterator();
+        }
+    }
+
+    private void compositeQuery( IndexDescriptor descriptor, IndexQuery[] query )
+    {
+        TransactionState txState = read.txState();
+
+        if ( needsValues )
+        {
+            AddedWithValuesAndRemoved changes = indexUpdatesWithValuesForCompositeQuery( txState, descriptor, query, indexOrder );
+            addedWithValues = changes.getAdded().iterator();
+            removed = removed( txState, changes.getRemoved() );
+        }
+        else
+        {
+            AddedAndRemoved changes = indexUpdatesForCompositeQuery( txState, descriptor, query, indexOrder );
+            added = changes.getAdded().longIterator();
+            removed = removed( txState, changes.getRemoved() );
+        }
+    }
+
     private void seekQuery( IndexDescriptor descriptor, IndexQuery[] query )
     {
         IndexQuery.ExactPredicate[] exactPreds = assertOnlyExactPredicates( query );
@@ -402,6 +479,18 @@ final class DefaultNodeValueIndexCursor extends IndexCursor<IndexProgressor>
         return mergeToSet( txState.addedAndRemovedNodes().getRemoved(), removedFromIndex );
     }
 
+    private static boolean isExactSeek( IndexQuery[] predicates )
+    {
+        for ( IndexQuery predicate : predicates )
+        {
+            if ( predicate.type() != IndexQuery.IndexQueryType.exact )
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
     private static IndexQuery.ExactPredicate[] assertOnlyExactPredicates( IndexQuery[] predicates )
     {
         IndexQuery.ExactPredicate[] exactPredicates;
@@ -35,6 +35,7 @@ import org.neo4j.values.storable.ValueGroup;
 import org.neo4j.values.storable.ValueWriter;
 
 import static org.neo4j.kernel.impl.store.record.AbstractBaseRecord.NO_ID;
+import static org.neo4j.values.storable.Values.NO_VALUE;
 
 public class DefaultPropertyCursor implements PropertyCursor
 {
@@ -194,6 +195,43 @@ public class DefaultPropertyCursor implements PropertyCursor
         return value;
     }
 
+    @Override
+    public int readProperties( int[] propertyKeys, Value[] values )
+    {
+        // Resolve what we can without touching the store, i.e. denied property keys and transaction state
+        for ( int i = 0; i < propertyKeys.length; i++ )
+        {
+            int propertyKey = propertyKeys[i];
+            if ( !allowed( propertyKey ) )
+            {
+                values[i] = NO_VALUE;
+            }
+            else
+            {
+                values[i] = propertiesState != null ? propertiesState.propertyValue( propertyKey ) : null;
+            }
+        }
+
+        storeCursor.readProperties( propertyKeys, values );
+        txStateChangedProperties = null;
+        txStateValue = null;
+        assertOpen.assertOpen();
+
+        int found = 0;
+        for ( int i = 0; i < propertyKeys.length; i++ )
+        {
+            if ( values[i] == null )
+            {
+                values[i] = NO_VALUE;
+            }
+            else if ( values[i] != NO_VALUE )
+            {
+                found++;
+            }
+        }
+        return found;
+    }
+
     @Override
     public <E extends Exception> void writeTo( ValueWriter<E> target )
     {
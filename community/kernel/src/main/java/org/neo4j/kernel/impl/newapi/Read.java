@@ -54,9 +54,11 @@ import org.neo4j.kernel.impl.locking.Locks;
 import org.neo4j.kernel.impl.locking.ResourceTypes;
 import org.neo4j.storageengine.api.lock.LockTracer;
 import org.neo4j.storageengine.api.lock.ResourceType;
+import org.neo4j.storageengine.api.schema.IndexDescriptor;
 import org.neo4j.storageengine.api.schema.IndexProgressor;
 import org.neo4j.storageengine.api.schema.IndexReader;
 import org.neo4j.storageengine.api.schema.LabelScanReader;
+import org.neo4j.storageengine.api.schema.PartitionedValueSeek;
 import org.neo4j.values.storable.Value;
 import org.neo4j.values.storable.ValueGroup;
 import org.neo4j.values.storable.Values;
@@ -98,10 +100,52 @@ abstract class Read implements TxStateHolder,
         DefaultNodeValueIndexCursor cursorImpl = (DefaultNodeValueIndexCursor) cursor;
         IndexReader reader = indexReader( index, false );
         cursorImpl.setRead( this );
-        IndexProgressor.NodeValueClient withFullPrecision = injectFullValuePrecision( cursorImpl, query, reader );
+        IndexProgressor.NodeValueClient withFullPrecision = injectFullValuePrecision( cursorImpl, indexOrder, needsValues, query, reader );
+        if ( hasTxStateWithChanges() && query.length == 1 && query[0] instanceof IndexQuery.NearestNeighboursPredicate )
+        {
+            nearestNeighboursWithTxState( reader, withFullPrecision, (IndexDescriptor) index, indexOrder, needsValues,
+                    (IndexQuery.NearestNeighboursPredicate) query[0] );
+            return;
+        }
         reader.query( withFullPrecision, indexOrder, needsValues, query );
     }
 
+    /**
+     * The cursor leaves out neighbours which were removed from the index in this transaction, so the index is asked for as many
+     * more neighbours as there are such removals. The cursor is still handed the original query, to know how many neighbours to return.
+     */
+    private void nearestNeighboursWithTxState( IndexReader reader, IndexProgressor.NodeValueClient client, IndexDescriptor index,
+            IndexOrder indexOrder, boolean needsValues, IndexQuery.NearestNeighboursPredicate predicate ) throws IndexNotApplicableKernelException
+    {
+        TransactionState txState = txState();
+        long removals = txState.addedAndRemovedNodes().getRemoved().size() +
+                TxStateIndexChanges.indexUpdatesForScan( txState, index, IndexOrder.NONE ).getRemoved().size();
+        int k = (int) Math.min( Integer.MAX_VALUE, predicate.k() + removals );
+        IndexQuery[] originalQuery = {predicate};
+        IndexProgressor.NodeValueClient withOriginalQuery = new IndexProgressor.NodeValueClient()
+        {
+            @Override
+            public void initialize( IndexDescriptor descriptor, IndexProgressor progressor, IndexQuery[] query, IndexOrder indexOrder,
+                    boolean needsValues )
+            {
+                client.initialize( descriptor, progressor, originalQuery, indexOrder, needsValues );
+            }
+
+            @Override
+            public boolean acceptNode( long reference, Value... values )
+            {
+                return client.acceptNode( reference, values );
+            }
+
+            @Override
+            public boolean needsValues()
+            {
+                return client.needsValues();
+            }
+        };
+        reader.query( withOriginalQuery, indexOrder, needsValues, IndexQuery.nearestNeighbours( predicate.propertyKeyId(), predicate.point(), k ) );
+    }
+
     @Override
     public void nodeIndexDistinctValues( IndexReference index, NodeValueIndexCursor cursor, boolean needsValues ) throws IndexNotFoundKernelException
     {
@@ -116,10 +160,10 @@ abstract class Read implements TxStateHolder,
     }
 
     private IndexProgressor.NodeValueClient injectFullValuePrecision( IndexProgressor.NodeValueClient cursor,
-            IndexQuery[] query, IndexReader reader )
+            IndexOrder indexOrder, boolean needsValues, IndexQuery[] query, IndexReader reader )
     {
         IndexProgressor.NodeValueClient target = cursor;
-        if ( !reader.hasFullValuePrecision( query ) )
+        if ( !reader.hasFullValuePrecision( indexOrder, needsValues, query ) )
         {
             IndexQuery[] filters = new IndexQuery[query.length];
             int count = 0;
@@ -130,7 +174,7 @@ abstract class Read implements TxStateHolder,
                 {
                 case range:
                     ValueGroup valueGroup = q.valueGroup();
-                    if ( ( valueGroup == NUMBER || valueGroup == GEOMETRY) && !reader.hasFullValuePrecision( q ) )
+                    if ( ( valueGroup == NUMBER || valueGroup == GEOMETRY) && !reader.hasFullValuePrecision( indexOrder, needsValues, q ) )
                     {
                         filters[i] = q;
                         count++;
@@ -140,13 +184,21 @@ abstract class Read implements TxStateHolder,
                     Value value = ((IndexQuery.ExactPredicate) q).value();
                     if ( value.valueGroup() == ValueGroup.NUMBER || Values.isArrayValue( value ) || value.valueGroup() == ValueGroup.GEOMETRY )
                     {
-                        if ( !reader.hasFullValuePrecision( q ) )
+                        if ( !reader.hasFullValuePrecision( indexOrder, needsValues, q ) )
                         {
                             filters[i] = q;
                             count++;
                         }
                     }
                     break;
+                case stringContains:
+                case stringSuffix:
+                    if ( !reader.hasFullValuePrecision( indexOrder, needsValues, q ) )
+                    {
+                        filters[i] = q;
+                        count++;
+                    }
+                    break;
                 default:
                     break;
                 }
@@ -182,8 +234,8 @@ abstract class Read implements TxStateHolder,
             IndexQuery.ExactPredicate... query ) throws IndexNotApplicableKernelException
     {
         cursor.setRead( this );
-        IndexProgressor.NodeValueClient target = injectFullValuePrecision( cursor, query, indexReader );
         // we never need values for exact predicates
+        IndexProgressor.NodeValueClient target = injectFullValuePrecision( cursor, IndexOrder.NONE, false, query, indexReader );
         indexReader.query( target, IndexOrder.NONE, false, query );
     }
 
@@ -208,6 +260,32 @@ abstract class Read implements TxStateHolder,
         indexReader( index, false ).query( cursorImpl, indexOrder, needsValues, IndexQuery.exists( firstProperty ) );
     }
 
+    @Override
+    public final Scan<NodeValueIndexCursor> nodeIndexScan( IndexReference index, int desiredNumberOfPartitions, boolean needsValues )
+            throws KernelException
+    {
+        ktx.assertOpen();
+        if ( hasTxStateWithChanges() )
+        {
+            throw new IllegalStateException( "Transaction contains changes, partitioned index scans are only supported in transactions without changes" );
+        }
+        if ( hasForbiddenProperties( index ) )
+        {
+            return cursor -> false;
+        }
+
+        // for a scan, we simply query for existence of the first property, which covers all entries in an index
+        int firstProperty = index.properties()[0];
+        PartitionedValueSeek seek = indexReader( index, false ).partitionedQuery( desiredNumberOfPartitions, needsValues,
+                IndexQuery.exists( firstProperty ) );
+        return cursor ->
+        {
+            DefaultNodeValueIndexCursor cursorImpl = (DefaultNodeValueIndexCursor) cursor;
+            cursorImpl.setRead( this );
+            return seek.reservePartition( cursorImpl );
+        };
+    }
+
     private boolean hasForbiddenProperties( IndexReference index )
     {
         AccessMode mode = ktx.securityContext().mode();
@@ -38,7 +38,6 @@ import org.neo4j.kernel.impl.store.record.PropertyRecord;
 import org.neo4j.kernel.impl.store.record.RecordLoad;
 import org.neo4j.kernel.impl.util.Bits;
 import org.neo4j.storageengine.api.StoragePropertyCursor;
-import org.neo4j.string.UTF8;
 import org.neo4j.values.storable.ArrayValue;
 import org.neo4j.values.storable.BooleanValue;
 import org.neo4j.values.storable.ByteValue;
@@ -206,6 +205,16 @@ class RecordPropertyCursor extends PropertyRecord implements StoragePropertyCurs
         return readValue();
     }
 
+    @Override
+    public void readProperties( int[] propertyKeys, Value[] values )
+    {
+        StoragePropertyCursor.super.readProperties( propertyKeys, values );
+
+        // Everything asked for has been read, so don't load any more records of this chain
+        next = NO_ID;
+        block = Integer.MAX_VALUE;
+    }
+
     private Value readValue()
     {
         PropertyType type = type();
@@ -408,7 +417,7 @@ class RecordPropertyCursor extends PropertyRecord implements StoragePropertyCurs
     {
         ByteBuffer buffer = cursor.buffer = read.loadString( reference, cursor.buffer, page );
         buffer.flip();
-        return Values.stringValue( UTF8.decode( buffer.array(), 0, buffer.limit() ) );
+        return Values.stringValue( read.stringCompression().decode( buffer.array(), 0, buffer.limit() ) );
     }
 
     private ArrayValue array( RecordPropertyCursor cursor, long reference, PageCursor page )
@@ -44,7 +44,6 @@ import org.neo4j.io.pagecache.PageCache;
 import org.neo4j.io.pagecache.tracing.cursor.context.VersionContextSupplier;
 import org.neo4j.kernel.api.exceptions.TransactionApplyKernelException;
 import org.neo4j.kernel.api.labelscan.LabelScanStore;
-import org.neo4j.kernel.api.labelscan.LabelScanWriter;
 import org.neo4j.kernel.api.labelscan.LoggingMonitor;
 import org.neo4j.kernel.api.txstate.TransactionCountingStateVisitor;
 import org.neo4j.kernel.configuration.Config;
@@ -89,6 +88,7 @@ import org.neo4j.kernel.impl.transaction.command.HighIdBatchTransactionApplier;
 import org.neo4j.kernel.impl.transaction.command.IndexActivator;
 import org.neo4j.kernel.impl.transaction.command.IndexBatchTransactionApplier;
 import org.neo4j.kernel.impl.transaction.command.IndexUpdatesWork;
+import org.neo4j.kernel.impl.transaction.command.LabelScanWriterSupplier;
 import org.neo4j.kernel.impl.transaction.command.LabelUpdateWork;
 import org.neo4j.kernel.impl.transaction.command.NeoStoreBatchTransactionApplier;
 import org.neo4j.kernel.impl.transaction.state.IntegrityValidator;
@@ -140,7 +140,7 @@ public class RecordStorageEngine implements StorageEngine, Lifecycle
     private final ConstraintSemantics constraintSemantics;
     private final IdOrderingQueue explicitIndexTransactionOrdering;
     private final LockService lockService;
-    private final WorkSync<Supplier<LabelScanWriter>,LabelUpdateWork> labelScanStoreSync;
+    private final WorkSync<LabelScanWriterSupplier,LabelUpdateWork> labelScanStoreSync;
     private final CommandReaderFactory commandReaderFactory;
     private final WorkSync<IndexingUpdateService,IndexUpdatesWork> indexUpdatesSync;
     private final IndexStoreView indexStoreView;
@@ -212,7 +212,8 @@ public class RecordStorageEngine implements StorageEngine, Lifecycle
 
             explicitIndexApplierLookup = new ExplicitIndexApplierLookup.Direct( explicitIndexProvider );
 
-            labelScanStoreSync = new WorkSync<>( labelScanStore::newWriter );
+            labelScanStoreSync = new WorkSync<>(
+                    LabelScanWriterSupplier.parallel( labelScanStore, scheduler, monitors.newMonitor( LabelUpdateWork.Monitor.class ) ) );
 
             commandReaderFactory = new RecordStorageCommandReaderFactory();
             indexUpdatesSync = new WorkSync<>( indexingService );
@@ -0,0 +1,209 @@
+/*
+ * Copyright (c) 2018-2020 "Graph Foundation"
+ * Graph Foundation, Inc. [https://graphfoundation.org]
+ *
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of ONgDB.
+ *
+ * ONgDB is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.store;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import org.neo4j.string.UTF8;
+
+/**
+ * Encoding of string property values stored in the {@link DynamicStringStore}.
+ * <p>
+ * {@link #NONE} stores the UTF-8 bytes as is, which is what all but the
+ * {@link org.neo4j.kernel.impl.store.format.Capability#COMPRESSED_DYNAMIC_STRINGS compressed} record formats do.
+ * {@link #DEFLATE} prefixes every value with a one byte header, followed by either the UTF-8 bytes as is or, for values
+ * long enough to benefit from it, the UTF-8 bytes deflated using a preset dictionary shared by all values.
+ * The dictionary holds fragments common in JSON-like text, which lets even values of a couple of hundred bytes compress well.
+ * The dictionary is part of the store format and must never change.
+ */
+public abstract class DynamicStringCompression
+{
+    public static final DynamicStringCompression NONE = new DynamicStringCompression()
+    {
+        @Override
+        public byte[] encode( String string )
+        {
+            return UTF8.encode( string );
+        }
+
+        @Override
+        public String decode( byte[] data, int offset, int length )
+        {
+            return UTF8.decode( data, offset, length );
+        }
+    };
+
+    public static final DynamicStringCompression DEFLATE = new Deflate();
+
+    /**
+     * @param string value to encode.
+     * @return the bytes to store in dynamic records for the given string.
+     */
+    public abstract byte[] encode( String string );
+
+    /**
+     * @param data bytes read from the dynamic records of a string value.
+     * @param offset offset into {@code data} where the value starts.
+     * @param length number of bytes of the value.
+     * @return the decoded string.
+     */
+    public abstract String decode( byte[] data, int offset, int length );
+
+    public String decode( byte[] data )
+    {
+        return decode( data, 0, data.length );
+    }
+
+    private static class Deflate extends DynamicStringCompression
+    {
+        private static final byte RAW = 0;
+        private static final byte DEFLATED = 1;
+        private static final int HEADER_SIZE = 1;
+        private static final int DEFLATED_HEADER_SIZE = HEADER_SIZE + Integer.BYTES;
+        /**
+         * Values shorter than this are not worth the cost of deflating.
+         */
+        private static final int MIN_DEFLATE_LENGTH = 64;
+        private static final byte[] DICTIONARY = (
+                "http://https://www..com.org/index.html" +
+                "<div></div><p></p><span></span>" +
+                " the and of to in is that for with on as are this be by from " +
+                "\"id\":\"type\":\"name\":\"value\":\"description\":\"title\":\"date\":\"time\":\"created\":\"updated\":" +
+                "\"url\":\"email\":\"status\":\"data\":\"items\":\"text\":" +
+                "\":\"\",\"\":[{\"\":{\"\"},{\"}]}\":true,\":false,\":null,\":0,\":1,\":[]").getBytes( StandardCharsets.UTF_8 );
+
+        @Override
+        public byte[] encode( String string )
+        {
+            byte[] utf8 = UTF8.encode( string );
+            if ( utf8.length >= MIN_DEFLATE_LENGTH )
+            {
+                byte[] deflated = deflate( utf8 );
+                if ( deflated != null )
+                {
+                    return deflated;
+                }
+            }
+            byte[] raw = new byte[HEADER_SIZE + utf8.length];
+            raw[0] = RAW;
+            System.arraycopy( utf8, 0, raw, HEADER_SIZE, utf8.length );
+            return raw;
+        }
+
+        /**
+         * @return the deflated value including its header, or {@code null} if deflating didn't make it smaller.
+         */
+        private static byte[] deflate( byte[] utf8 )
+        {
+            Deflater deflater = new Deflater( Deflater.DEFAULT_COMPRESSION, true );
+            try
+            {
+                deflater.setDictionary( DICTIONARY );
+                deflater.setInput( utf8 );
+                deflater.finish();
+                // Anything not fitting in the size of the raw value isn't worth storing deflated anyway
+                byte[] target = new byte[utf8.length];
+                int length = DEFLATED_HEADER_SIZE;
+                while ( !deflater.finished() && length < target.length )
+                {
+                    length += deflater.deflate( target, length, target.length - length );
+                }
+                if ( !deflater.finished() )
+                {
+                    return null;
+                }
+                target[0] = DEFLATED;
+                putInt( target, HEADER_SIZE, utf8.length );
+                return Arrays.copyOf( target, length );
+            }
+            finally
+            {
+                deflater.end();
+            }
+        }
+
+        @Override
+        public String decode( byte[] data, int offset, int length )
+        {
+            if ( length == 0 )
+            {
+                // Can't happen for values written by this encoding, but be lenient
+                return "";
+            }
+            byte header = data[offset];
+            if ( header == RAW )
+            {
+                return UTF8.decode( data, offset + HEADER_SIZE, length - HEADER_SIZE );
+            }
+            if ( header != DEFLATED )
+            {
+                throw new UnderlyingStorageException( "Unknown compression header " + header + " of dynamic string value" );
+            }
+            byte[] utf8 = new byte[getInt( data, offset + HEADER_SIZE )];
+            Inflater inflater = new Inflater( true );
+            try
+            {
+                inflater.setDictionary( DICTIONARY );
+                inflater.setInput( data, offset + DEFLATED_HEADER_SIZE, length - DEFLATED_HEADER_SIZE );
+                int inflated = 0;
+                while ( inflated < utf8.length )
+                {
+                    int bytes = inflater.inflate( utf8, inflated, utf8.length - inflated );
+                    if ( bytes == 0 && (inflater.finished() || inflater.needsInput()) )
+                    {
+                        throw new UnderlyingStorageException( "Deflated dynamic string value ended after " + inflated + " of " +
+                                utf8.length + " bytes" );
+                    }
+                    inflated += bytes;
+                }
+                return UTF8.decode( utf8 );
+            }
+            catch ( DataFormatException e )
+            {
+                throw new UnderlyingStorageException( e );
+            }
+            finally
+            {
+                inflater.end();
+            }
+        }
+
+        private static void putInt( byte[] target, int offset, int value )
+        {
+            target[offset] = (byte) (value >>> 24);
+            target[offset + 1] = (byte) (value >>> 16);
+            target[offset + 2] = (byte) (value >>> 8);
+            target[offset + 3] = (byte) value;
+        }
+
+        private static int getInt( byte[] source, int offset )
+        {
+            return ((source[offset] & 0xFF) << 24) | ((source[offset + 1] & 0xFF) << 16) |
+                    ((source[offset + 2] & 0xFF) << 8) | (source[offset + 3] & 0xFF);
+        }
+    }
+}
@@ -158,6 +158,11 @@ public class PropertyStore extends CommonAbstractStore<PropertyRecord,NoStoreHea
     // capabilities) has ceased, the variable can be removed.
     private final boolean allowStorePointsAndTemporal;
 
+    /**
+     * Encoding of string values in the {@link #stringStore}, which depends on the record format.
+     */
+    private final DynamicStringCompression stringCompression;
+
     public PropertyStore(
             File file,
             File idFile,
@@ -178,6 +183,8 @@ public class PropertyStore extends CommonAbstractStore<PropertyRecord,NoStoreHea
         this.arrayStore = arrayPropertyStore;
         allowStorePointsAndTemporal =
                 recordFormats.hasCapability( Capability.POINT_PROPERTIES ) && recordFormats.hasCapability( Capability.TEMPORAL_PROPERTIES );
+        stringCompression = recordFormats.hasCapability( Capability.COMPRESSED_DYNAMIC_STRINGS )
+                            ? DynamicStringCompression.DEFLATE : DynamicStringCompression.NONE;
     }
 
     @Override
@@ -309,11 +316,17 @@ public class PropertyStore extends CommonAbstractStore<PropertyRecord,NoStoreHea
 
     public void encodeValue( PropertyBlock block, int keyId, Value value )
     {
-        encodeValue( block, keyId, value, stringStore, arrayStore, allowStorePointsAndTemporal );
+        encodeValue( block, keyId, value, stringStore, arrayStore, allowStorePointsAndTemporal, stringCompression );
     }
 
     public static void encodeValue( PropertyBlock block, int keyId, Value value, DynamicRecordAllocator stringAllocator, DynamicRecordAllocator arrayAllocator,
             boolean allowStorePointsAndTemporal )
+    {
+        encodeValue( block, keyId, value, stringAllocator, arrayAllocator, allowStorePointsAndTemporal, DynamicStringCompression.NONE );
+    }
+
+    public static void encodeValue( PropertyBlock block, int keyId, Value value, DynamicRecordAllocator stringAllocator, DynamicRecordAllocator arrayAllocator,
+            boolean allowStorePointsAndTemporal, DynamicStringCompression stringCompression )
     {
         if ( value instanceof ArrayValue )
         {
@@ -337,7 +350,7 @@ public class PropertyStore extends CommonAbstractStore<PropertyRecord,NoStoreHea
         }
         else
         {
-            value.writeTo( new PropertyBlockValueWriter( block, keyId, stringAllocator, allowStorePointsAndTemporal ) );
+            value.writeTo( new PropertyBlockValueWriter( block, keyId, stringAllocator, allowStorePointsAndTemporal, stringCompression ) );
         }
     }
 
@@ -409,12 +422,15 @@ public class PropertyStore extends CommonAbstractStore<PropertyRecord,NoStoreHea
         private final int keyId;
         private final DynamicRecordAllocator stringAllocator;
         private final boolean allowStorePointsAndTemporal;
-        PropertyBlockValueWriter( PropertyBlock block, int keyId, DynamicRecordAllocator stringAllocator, boolean allowStorePointsAndTemporal )
+        private final DynamicStringCompression stringCompression;
+        PropertyBlockValueWriter( PropertyBlock block, int keyId, DynamicRecordAllocator stringAllocator, boolean allowStorePointsAndTemporal,
+                DynamicStringCompression stringCompression )
         {
             this.block = block;
             this.keyId = keyId;
             this.stringAllocator = stringAllocator;
             this.allowStorePointsAndTemporal = allowStorePointsAndTemporal;
+            this.stringCompression = stringCompression;
         }
 
         @Override
@@ -488,7 +504,7 @@ public class PropertyStore extends CommonAbstractStore<PropertyRecord,NoStoreHea
             }
 
             // Fall back to dynamic string store
-            byte[] encodedString = encodeString( value );
+            byte[] encodedString = stringCompression.encode( value );
             List<DynamicRecord> valueRecords = new ArrayList<>();
             allocateStringRecords( valueRecords, encodedString, stringAllocator );
             setSingleBlockValue( block, keyId, PropertyType.STRING, Iterables.first( valueRecords ).getId() );
@@ -659,7 +675,7 @@ public class PropertyStore extends CommonAbstractStore<PropertyRecord,NoStoreHea
     {
         Pair<byte[], byte[]> source = stringStore.readFullByteArray( dynamicRecords, PropertyType.STRING );
         // A string doesn't have a header in the data array
-        return decodeString( source.other() );
+        return stringCompression.decode( source.other() );
     }
 
     Value getArrayFor( PropertyBlock propertyBlock )
@@ -704,6 +720,14 @@ public class PropertyStore extends CommonAbstractStore<PropertyRecord,NoStoreHea
         return allowStorePointsAndTemporal;
     }
 
+    /**
+     * @return the encoding of string values in the dynamic string store of this property store.
+     */
+    public DynamicStringCompression stringCompression()
+    {
+        return stringCompression;
+    }
+
     /**
      * @return a calculator of property value sizes. The returned instance is designed to be used multiple times by a single thread only.
      */
@@ -70,6 +70,11 @@ public enum Capability
      */
     SECONDARY_RECORD_UNITS( CapabilityType.FORMAT ),
 
+    /**
+     * String property values in the dynamic string store are compressed, see {@link org.neo4j.kernel.impl.store.DynamicStringCompression}
+     */
+    COMPRESSED_DYNAMIC_STRINGS( CapabilityType.FORMAT, CapabilityType.STORE ),
+
     /**
      * Lucene Index supports sorting
      */
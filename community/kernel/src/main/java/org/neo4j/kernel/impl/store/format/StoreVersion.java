@@ -33,6 +33,8 @@ public enum StoreVersion
     STANDARD_V3_4( "v0.A.9", "3.4.0" ),
     STANDARD_V3_6( "v0.A.10", "3.6.0" ),
 
+    STANDARD_COMPRESSED_V3_6( "v0.C.10", "3.6.0" ),
+
     HIGH_LIMIT_V3_0_0( "vE.H.0", "3.0.0" ),
     HIGH_LIMIT_V3_0_6( "vE.H.0b", "3.0.6" ),
     HIGH_LIMIT_V3_1_0( "vE.H.2", "3.1.0" ),
@@ -0,0 +1,37 @@
+/*
+ * Copyright (c) 2002-2020 Graph Foundation, Inc.[https://graphfoundation.org]
+ *
+ * This file is part of ONgDB.
+ *
+ * ONgDB is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.store.format.standard;
+
+import org.neo4j.helpers.Service;
+import org.neo4j.kernel.impl.store.format.RecordFormats;
+
+@Service.Implementation( RecordFormats.Factory.class )
+public class StandardCompressedFactory extends RecordFormats.Factory
+{
+    public StandardCompressedFactory()
+    {
+        super( StandardCompressedV3_6.NAME, StandardCompressedV3_6.STORE_VERSION );
+    }
+
+    @Override
+    public RecordFormats newInstance()
+    {
+        return StandardCompressedV3_6.RECORD_FORMATS;
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2018-2020 "Graph Foundation"
+ * Graph Foundation, Inc. [https://graphfoundation.org]
+ *
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of ONgDB.
+ *
+ * ONgDB is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.command;
+
+import org.neo4j.kernel.api.labelscan.LabelScanStore;
+import org.neo4j.kernel.api.labelscan.LabelScanWriter;
+import org.neo4j.scheduler.Group;
+import org.neo4j.scheduler.JobHandle;
+import org.neo4j.scheduler.JobScheduler;
+
+/**
+ * Supplies {@link LabelScanWriter writers} to {@link LabelUpdateWork}. Suppliers which can apply large batches of label updates
+ * using multiple {@link LabelScanStore#newParallelWriter() parallel writers} also say so here, and where to run them.
+ * By default all updates are applied by the applying thread, using a single writer.
+ */
+@FunctionalInterface
+public interface LabelScanWriterSupplier
+{
+    /**
+     * @return a writer for applying updates by the applying thread alone.
+     */
+    LabelScanWriter newWriter();
+
+    /**
+     * @return a writer for applying one of several partitions of updates, concurrently with writers for the other partitions.
+     */
+    default LabelScanWriter newParallelWriter()
+    {
+        return newWriter();
+    }
+
+    /**
+     * @return whether or not large batches of updates may be partitioned and applied concurrently,
+     * using {@link #newParallelWriter()} and {@link #schedule(Runnable)}.
+     */
+    default boolean supportsParallelApply()
+    {
+        return false;
+    }
+
+    /**
+     * Schedules the application of a partition of updates. Only called if {@link #supportsParallelApply()}.
+     *
+     * @param partition applies a partition of updates.
+     * @return handle to await the application of the partition.
+     */
+    default JobHandle schedule( Runnable partition )
+    {
+        throw new UnsupportedOperationException( "Parallel apply not supported" );
+    }
+
+    default LabelUpdateWork.Monitor monitor()
+    {
+        return LabelUpdateWork.NO_MONITOR;
+    }
+
+    /**
+     * Supplies writers of the given {@link LabelScanStore}, applying large batches of updates in parallel
+     * on threads of the given {@link JobScheduler}, which owns their life cycle.
+     */
+    static LabelScanWriterSupplier parallel( LabelScanStore labelScanStore, JobScheduler scheduler, LabelUpdateWork.Monitor monitor )
+    {
+        return new LabelScanWriterSupplier()
+        {
+            @Override
+            public LabelScanWriter newWriter()
+            {
+                return labelScanStore.newWriter();
+            }
+
+            @Override
+            public LabelScanWriter newParallelWriter()
+            {
+                return labelScanStore.newParallelWriter();
+            }
+
+            @Override
+            public boolean supportsParallelApply()
+            {
+                return true;
+            }
+
+            @Override
+            public JobHandle schedule( Runnable partition )
+            {
+                return scheduler.schedule( Group.LABEL_SCAN_UPDATING, partition );
+            }
+
+            @Override
+            public LabelUpdateWork.Monitor monitor()
+            {
+                return monitor;
+            }
+        };
+    }
+}
@@ -22,18 +22,58 @@
  */
 package org.neo4j.kernel.impl.transaction.command;
 
+import java.util.ArrayList;
 import java.util.List;
-import java.util.function.Supplier;
+import java.util.concurrent.ExecutionException;
 
+import org.neo4j.helpers.Exceptions;
 import org.neo4j.kernel.api.labelscan.LabelScanWriter;
 import org.neo4j.kernel.api.labelscan.NodeLabelUpdate;
 import org.neo4j.kernel.impl.store.UnderlyingStorageException;
+import org.neo4j.scheduler.JobHandle;
+import org.neo4j.util.FeatureToggles;
 import org.neo4j.util.concurrent.Work;
 
 import static org.neo4j.kernel.api.labelscan.NodeLabelUpdate.SORT_BY_NODE_ID;
 
-public class LabelUpdateWork implements Work<Supplier<LabelScanWriter>,LabelUpdateWork>
+/**
+ * Applies the label updates of a batch of transactions to the label scan store.
+ * <p>
+ * Updates are applied in node id order. Given a {@link LabelScanWriterSupplier#supportsParallelApply() supplier supporting it},
+ * batches of at least {@code parallel.minUpdatesPerPartition} updates per worker are partitioned into node id ranges, at most
+ * {@code parallel.workers} of them, which are applied concurrently, each using its own
+ * {@link LabelScanWriterSupplier#newParallelWriter() parallel writer}. The applying thread applies the first partition itself,
+ * and awaits all other partitions before returning, even if applying any of them fails.
+ * All updates of any given node end up in the same partition, so they are still applied in transaction order.
+ */
+public class LabelUpdateWork implements Work<LabelScanWriterSupplier,LabelUpdateWork>
 {
+    private static final int WORKERS =
+            FeatureToggles.getInteger( LabelUpdateWork.class, "parallel.workers", Runtime.getRuntime().availableProcessors() );
+    private static final int MIN_UPDATES_PER_PARTITION =
+            FeatureToggles.getInteger( LabelUpdateWork.class, "parallel.minUpdatesPerPartition", 5_000 );
+
+    /**
+     * Monitors the application of label updates in the transaction apply phase.
+     */
+    public interface Monitor
+    {
+        /**
+         * Called after a batch of label updates has been applied.
+         *
+         * @param updates number of applied {@link NodeLabelUpdate updates}.
+         * @param partitions number of partitions the updates were applied in, {@code 1} if applied by the applying thread alone.
+         * @param durationNanos time it took to sort and apply the updates.
+         */
+        default void labelUpdatesApplied( int updates, int partitions, long durationNanos )
+        {   // empty
+        }
+    }
+
+    static final Monitor NO_MONITOR = new Monitor()
+    {
+    };
+
     private final List<NodeLabelUpdate> labelUpdates;
 
     public LabelUpdateWork( List<NodeLabelUpdate> labelUpdates )
@@ -49,12 +89,121 @@ public class LabelUpdateWork implements Work<Supplier<LabelScanWriter>,LabelUpda
     }
 
     @Override
-    public void apply( Supplier<LabelScanWriter> labelScanStore )
+    public void apply( LabelScanWriterSupplier writers )
     {
+        long startTime = System.nanoTime();
         labelUpdates.sort( SORT_BY_NODE_ID );
-        try ( LabelScanWriter writer = labelScanStore.get() )
+        int partitions = writers.supportsParallelApply()
+                         ? Math.min( WORKERS, labelUpdates.size() / Math.max( 1, MIN_UPDATES_PER_PARTITION ) )
+                         : 1;
+        if ( partitions > 1 )
+        {
+            applyInParallel( writers, partitionBoundaries( partitions ) );
+        }
+        else
+        {
+            partitions = 1;
+            apply( writers.newWriter(), labelUpdates );
+        }
+        writers.monitor().labelUpdatesApplied( labelUpdates.size(), partitions, System.nanoTime() - startTime );
+    }
+
+    /**
+     * Splits the sorted updates into roughly equally sized partitions, never letting updates for the same node end up in different ones.
+     *
+     * @return {@code partitions + 1} boundaries, where partition {@code i} is {@code [boundaries[i], boundaries[i + 1])}.
+     * Partitions may be empty.
+     */
+    private int[] partitionBoundaries( int partitions )
+    {
+        int size = labelUpdates.size();
+        int[] boundaries = new int[partitions + 1];
+        for ( int i = 1; i < partitions; i++ )
+        {
+            int boundary = Math.max( boundaries[i - 1], (int) ((long) size * i / partitions) );
+            while ( boundary > 0 && boundary < size &&
+                    labelUpdates.get( boundary ).getNodeId() == labelUpdates.get( boundary - 1 ).getNodeId() )
+            {
+                boundary++;
+            }
+            boundaries[i] = boundary;
+        }
+        boundaries[partitions] = size;
+        return boundaries;
+    }
+
+    private void applyInParallel( LabelScanWriterSupplier writers, int[] boundaries )
+    {
+        List<JobHandle> handles = new ArrayList<>( boundaries.length - 2 );
+        Throwable failure = null;
+        try
+        {
+            for ( int i = 1; i < boundaries.length - 1; i++ )
+            {
+                List<NodeLabelUpdate> partition = labelUpdates.subList( boundaries[i], boundaries[i + 1] );
+                if ( !partition.isEmpty() )
+                {
+                    handles.add( writers.schedule( () -> apply( writers.newParallelWriter(), partition ) ) );
+                }
+            }
+            apply( writers.newParallelWriter(), labelUpdates.subList( boundaries[0], boundaries[1] ) );
+        }
+        catch ( Throwable t )
+        {
+            failure = t;
+        }
+
+        // Every scheduled partition is awaited, also when failing, so that no parallel writer is left open once the apply phase is over
+        boolean interrupted = false;
+        for ( JobHandle handle : handles )
+        {
+            while ( true )
+            {
+                try
+                {
+                    handle.waitTermination();
+                    break;
+                }
+                catch ( InterruptedException e )
+                {
+                    interrupted = true;
+                }
+                catch ( ExecutionException e )
+                {
+                    failure = Exceptions.chain( failure, e.getCause() );
+                    break;
+                }
+                catch ( Throwable t )
+                {
+                    failure = Exceptions.chain( failure, t );
+                    break;
+                }
+            }
+        }
+        if ( interrupted )
+        {
+            Thread.currentThread().interrupt();
+        }
+
+        if ( failure != null )
+        {
+            if ( failure instanceof RuntimeException )
+            {
+                throw (RuntimeException) failure;
+            }
+            if ( failure instanceof Error )
+            {
+                throw (Error) failure;
+            }
+            throw new UnderlyingStorageException( failure );
+        }
+    }
+
+    private static void apply( LabelScanWriter labelScanWriter, List<NodeLabelUpdate> updates )
+    {
+        try ( LabelScanWriter writer = labelScanWriter )
         {
-            for ( NodeLabelUpdate update : labelUpdates )
+            for ( NodeLabelUpdate update : updates )
             {
                 writer.write( update );
             }
@@ -25,6 +25,9 @@ package org.neo4j.kernel.impl.transaction.log;
 import java.io.Flushable;
 import java.io.IOException;
 import java.nio.channels.ClosedChannelException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.locks.Lock;
@@ -46,6 +49,7 @@ import org.neo4j.kernel.impl.transaction.tracing.SerializeTransactionEvent;
 import org.neo4j.kernel.impl.util.IdOrderingQueue;
 import org.neo4j.kernel.internal.DatabaseHealth;
 import org.neo4j.kernel.lifecycle.LifecycleAdapter;
+import org.neo4j.storageengine.api.StorageCommand;
 
 import static org.neo4j.kernel.impl.api.TransactionToApply.TRANSACTION_ID_NOT_SPECIFIED;
 import static org.neo4j.kernel.impl.transaction.log.entry.LogEntryStart.checksum;
@@ -70,6 +74,8 @@ public class BatchingTransactionAppender extends LifecycleAdapter implements Tra
     private final LogPositionMarker positionMarker = new LogPositionMarker();
     private final DatabaseHealth databaseHealth;
     private final Lock forceLock = new ReentrantLock();
+    private final int chunkSize;
+    private final ChunkedTransactions chunkedTransactions;
 
     private FlushablePositionAwareChannel writer;
     private TransactionLogWriter transactionLogWriter;
@@ -79,6 +85,22 @@ public class BatchingTransactionAppender extends LifecycleAdapter implements Tra
             TransactionMetadataCache transactionMetadataCache, TransactionIdStore transactionIdStore,
             IdOrderingQueue explicitIndexTransactionOrdering, DatabaseHealth databaseHealth )
     {
+        this( logFiles, logRotation, transactionMetadataCache, transactionIdStore, explicitIndexTransactionOrdering,
+                databaseHealth, 0, new ChunkedTransactions() );
+    }
+
+    /**
+     * @param chunkSize transactions with more commands than this are appended in chunks of this many commands,
+     * {@code 0} appends all transactions in one go.
+     * @param chunkedTransactions keeps track of the transactions appended in chunks, for log pruning.
+     */
+    public BatchingTransactionAppender( LogFiles logFiles, LogRotation logRotation,
+            TransactionMetadataCache transactionMetadataCache, TransactionIdStore transactionIdStore,
+            IdOrderingQueue explicitIndexTransactionOrdering, DatabaseHealth databaseHealth, int chunkSize,
+            ChunkedTransactions chunkedTransactions )
+    {
+        this.chunkSize = chunkSize;
+        this.chunkedTransactions = chunkedTransactions;
         this.logFile = logFiles.getLogFile();
         this.logRotation = logRotation;
         this.transactionIdStore = transactionIdStore;
@@ -100,6 +122,9 @@ public class BatchingTransactionAppender extends LifecycleAdapter implements Tra
     {
         // Assigned base tx id just to make compiler happy
         long lastTransactionId = TransactionIdStore.BASE_TX_ID;
+        // Large transactions append all but their last chunk up front, each chunk under its own logFile monitor,
+        // so that other transactions get to append in between
+        List<ChunkedAppend> chunkedAppends = appendLeadingChunks( batch );
         // Synchronized with logFile to get absolute control over concurrent rotations happening
         synchronized ( logFile )
         {
@@ -109,6 +134,7 @@ public class BatchingTransactionAppender extends LifecycleAdapter implements Tra
             {
                 // Append all transactions in this batch to the log under the same logFile monitor
                 TransactionToApply tx = batch;
+                int index = 0;
                 while ( tx != null )
                 {
                     long transactionId = transactionIdStore.nextCommittingTransactionId();
@@ -119,7 +145,9 @@ public class BatchingTransactionAppender extends LifecycleAdapter implements Tra
                     // really recover from and would point to a bug somewhere.
                     matchAgainstExpectedTransactionIdIfAny( transactionId, tx );
 
-                    TransactionCommitment commitment = appendToLog( tx.transactionRepresentation(), transactionId );
+                    ChunkedAppend chunked = chunkedAppends == null ? null : chunkedAppends.get( index++ );
+                    TransactionCommitment commitment =
+                            appendToLog( tx.transactionRepresentation(), transactionId, chunked );
                     tx.commitment( commitment, transactionId );
                     tx.logPosition( commitment.logPosition() );
                     tx = tx.next();
@@ -181,6 +209,7 @@ public class BatchingTransactionAppender extends LifecycleAdapter implements Tra
             try
             {
                 transactionLogWriter.checkPoint( logPosition );
+                chunkedTransactions.checkPointed( logPosition );
             }
             catch ( Throwable cause )
             {
@@ -195,8 +224,8 @@ public class BatchingTransactionAppender extends LifecycleAdapter implements Tra
      * @return A TransactionCommitment instance with metadata about the committed transaction, such as whether or not
      * this transaction contains any explicit index changes.
      */
-    private TransactionCommitment appendToLog( TransactionRepresentation transaction, long transactionId )
-            throws IOException
+    private TransactionCommitment appendToLog( TransactionRepresentation transaction, long transactionId,
+            ChunkedAppend chunked ) throws IOException
     {
         // Reset command writer so that we, after we've written the transaction, can ask it whether or
         // not any explicit index command was written. If so then there's additional ordering to care about below.
@@ -211,8 +240,19 @@ public class BatchingTransactionAppender extends LifecycleAdapter implements Tra
         try
         {
             LogPosition logPositionBeforeCommit = writer.getCurrentPosition( positionMarker ).newPosition();
-            transactionLogWriter.append( transaction, transactionId );
+            if ( chunked == null )
+            {
+                transactionLogWriter.append( transaction, transactionId );
+            }
+            else
+            {
+                transactionLogWriter.append( transaction, chunked.lastChunkCommands, chunked.lastChunk, transactionId );
+            }
             LogPosition logPositionAfterCommit = writer.getCurrentPosition( positionMarker ).newPosition();
+            if ( chunked != null )
+            {
+                chunked.pin.committed( logPositionAfterCommit );
+            }
 
             long transactionChecksum =
                     checksum( transaction.additionalHeader(), transaction.getMasterId(), transaction.getAuthorId() );
@@ -237,6 +277,122 @@ public class BatchingTransactionAppender extends LifecycleAdapter implements Tra
         }
     }
 
+    /**
+     * @return for each transaction in the batch, the chunks it appended ahead of its commit, or {@code null} for
+     * transactions small enough to be appended in one go. {@code null} if chunked appends are disabled.
+     */
+    private List<ChunkedAppend> appendLeadingChunks( TransactionToApply batch ) throws IOException
+    {
+        if ( chunkSize == 0 )
+        {
+            return null;
+        }
+
+        List<ChunkedAppend> chunkedAppends = new ArrayList<>();
+        try
+        {
+            for ( TransactionToApply tx = batch; tx != null; tx = tx.next() )
+            {
+                chunkedAppends.add( appendLeadingChunks( tx.transactionRepresentation() ) );
+            }
+        }
+        catch ( IOException | RuntimeException e )
+        {
+            for ( ChunkedAppend chunked : chunkedAppends )
+            {
+                if ( chunked != null )
+                {
+                    rollback( chunked, e );
+                }
+            }
+            throw e;
+        }
+        return chunkedAppends;
+    }
+
+    private ChunkedAppend appendLeadingChunks( TransactionRepresentation transaction ) throws IOException
+    {
+        Iterator<StorageCommand> commands = transaction.iterator();
+        List<StorageCommand> chunk = new ArrayList<>( chunkSize );
+        ChunkedAppend chunked = null;
+        try
+        {
+            while ( commands.hasNext() )
+            {
+                if ( chunk.size() == chunkSize )
+                {
+                    // There are more commands to come, so this chunk isn't the last one
+                    chunked = appendChunk( chunked, chunk, transaction.getTimeCommitted() );
+                    chunk = new ArrayList<>( chunkSize );
+                }
+                chunk.add( commands.next() );
+            }
+        }
+        catch ( RuntimeException e )
+        {
+            // The command stream failed, the chunks in the log are intact but will never be committed
+            if ( chunked != null )
+            {
+                rollback( chunked, e );
+            }
+            throw e;
+        }
+
+        if ( chunked != null )
+        {
+            chunked.lastChunkCommands = chunk;
+        }
+        return chunked;
+    }
+
+    private ChunkedAppend appendChunk( ChunkedAppend chunked, List<StorageCommand> commands, long timeWritten )
+            throws IOException
+    {
+        // Synchronized with logFile to get absolute control over concurrent rotations happening
+        synchronized ( logFile )
+        {
+            databaseHealth.assertHealthy( IOException.class );
+            try
+            {
+                LogPosition chunkPosition = writer.getCurrentPosition( positionMarker ).newPosition();
+                if ( chunked == null )
+                {
+                    transactionLogWriter.appendChunk( commands, LogPosition.UNSPECIFIED, timeWritten );
+                    chunked = new ChunkedAppend( chunkedTransactions.chunkAppended( chunkPosition ) );
+                }
+                else
+                {
+                    transactionLogWriter.appendChunk( commands, chunked.lastChunk, timeWritten );
+                }
+                chunked.lastChunk = chunkPosition;
+                return chunked;
+            }
+            catch ( final Throwable panic )
+            {
+                databaseHealth.panic( panic );
+                throw panic;
+            }
+        }
+    }
+
+    private void rollback( ChunkedAppend chunked, Throwable cause )
+    {
+        synchronized ( logFile )
+        {
+            try
+            {
+                databaseHealth.assertHealthy( IOException.class );
+                transactionLogWriter.rollback( chunked.lastChunk, System.currentTimeMillis() );
+            }
+            catch ( Throwable panic )
+            {
+                databaseHealth.panic( panic );
+                cause.addSuppressed( panic );
+            }
+        }
+        chunked.pin.release();
+    }
+
     /**
      * Called by the appender that just appended a transaction to the log.
      *
@@ -361,4 +517,16 @@ public class BatchingTransactionAppender extends LifecycleAdapter implements Tra
             // we emptied into the channel, and thus it is already flushed by that thread.
         }
     }
+
+    private static class ChunkedAppend
+    {
+        private final ChunkedTransactions.Pin pin;
+        private LogPosition lastChunk;
+        private List<StorageCommand> lastChunkCommands;
+
+        ChunkedAppend( ChunkedTransactions.Pin pin )
+        {
+            this.pin = pin;
+        }
+    }
 }
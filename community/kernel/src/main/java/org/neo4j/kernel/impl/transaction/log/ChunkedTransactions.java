@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2018-2020 "Graph Foundation"
+ * Graph Foundation, Inc. [https://graphfoundation.org]
+ *
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of ONgDB.
+ *
+ * ONgDB is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.log;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.neo4j.kernel.impl.transaction.log.entry.LogEntryChunk;
+
+/**
+ * Keeps track of transactions that have appended {@link LogEntryChunk chunks} to the log, so that log pruning
+ * doesn't delete a chunk that recovery would need to read back. A transaction is tracked from its first chunk
+ * until a check point covers its commit, or until it is rolled back.
+ */
+public class ChunkedTransactions
+{
+    private final Set<Pin> pins = ConcurrentHashMap.newKeySet();
+
+    /**
+     * @param firstChunk position of the first chunk that a transaction appended.
+     * @return the {@link Pin} keeping the log file containing {@code firstChunk} from being pruned.
+     */
+    public Pin chunkAppended( LogPosition firstChunk )
+    {
+        Pin pin = new Pin( firstChunk.getLogVersion() );
+        pins.add( pin );
+        return pin;
+    }
+
+    /**
+     * Releases the pins of all transactions that committed at or before {@code checkPointedPosition}, since
+     * recovery will never have to read those back again.
+     */
+    public void checkPointed( LogPosition checkPointedPosition )
+    {
+        pins.removeIf( pin ->
+        {
+            LogPosition committedAt = pin.committedAt;
+            return committedAt != null && committedAt.compareTo( checkPointedPosition ) <= 0;
+        } );
+    }
+
+    /**
+     * @return the lowest log version that still contains chunks which recovery might need, or
+     * {@link Long#MAX_VALUE} if there are none.
+     */
+    public long lowestLogVersion()
+    {
+        long lowest = Long.MAX_VALUE;
+        for ( Pin pin : pins )
+        {
+            lowest = Math.min( lowest, pin.logVersion );
+        }
+        return lowest;
+    }
+
+    public class Pin
+    {
+        private final long logVersion;
+        private volatile LogPosition committedAt;
+
+        private Pin( long logVersion )
+        {
+            this.logVersion = logVersion;
+        }
+
+        /**
+         * @param commitPosition position after the commit entry of the transaction.
+         */
+        public void committed( LogPosition commitPosition )
+        {
+            committedAt = commitPosition;
+        }
+
+        /**
+         * Called when the chunks have been rolled back, they will never be read again.
+         */
+        public void release()
+        {
+            pins.remove( this );
+        }
+    }
+}
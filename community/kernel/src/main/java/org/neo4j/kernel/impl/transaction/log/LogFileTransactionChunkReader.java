@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) 2018-2020 "Graph Foundation"
+ * Graph Foundation, Inc. [https://graphfoundation.org]
+ *
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of ONgDB.
+ *
+ * ONgDB is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.log;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.List;
+
+import org.neo4j.kernel.impl.transaction.log.entry.LogEntry;
+import org.neo4j.kernel.impl.transaction.log.entry.LogEntryChunk;
+import org.neo4j.kernel.impl.transaction.log.entry.LogEntryCommand;
+import org.neo4j.kernel.impl.transaction.log.entry.LogEntryReader;
+import org.neo4j.kernel.impl.transaction.log.files.LogFile;
+import org.neo4j.storageengine.api.StorageCommand;
+
+import static org.neo4j.kernel.impl.transaction.log.LogVersionBridge.NO_MORE_CHANNELS;
+
+/**
+ * Reads chunks from a {@link LogFile}, following the pointer each chunk has to the chunk before it.
+ */
+public class LogFileTransactionChunkReader implements TransactionChunkReader
+{
+    private final LogFile logFile;
+    private final LogEntryReader<ReadableClosablePositionAwareChannel> logEntryReader;
+
+    public LogFileTransactionChunkReader( LogFile logFile,
+            LogEntryReader<ReadableClosablePositionAwareChannel> logEntryReader )
+    {
+        this.logFile = logFile;
+        this.logEntryReader = logEntryReader;
+    }
+
+    @Override
+    public void read( LogPosition lastChunk, long transactionId, Collection<StorageCommand> commands )
+            throws IOException
+    {
+        // Chunks are found from the last one and backwards, collect them so that they can be added in append order
+        Deque<List<StorageCommand>> chunks = new ArrayDeque<>();
+        LogPosition position = lastChunk;
+        while ( position != LogPosition.UNSPECIFIED )
+        {
+            List<StorageCommand> chunk = new ArrayList<>();
+            position = readChunk( position, transactionId, chunk );
+            chunks.push( chunk );
+        }
+
+        for ( List<StorageCommand> chunk : chunks )
+        {
+            commands.addAll( chunk );
+        }
+    }
+
+    /**
+     * @return position of the chunk before the one read.
+     */
+    private LogPosition readChunk( LogPosition position, long transactionId, List<StorageCommand> commands )
+            throws IOException
+    {
+        // A chunk is appended in one go and so never spans log versions
+        try ( LogEntryCursor cursor =
+                      new LogEntryCursor( logEntryReader, logFile.getReader( position, NO_MORE_CHANNELS ) ) )
+        {
+            if ( !cursor.next() || !(cursor.get() instanceof LogEntryChunk) )
+            {
+                throw new IOException( "Expected a chunk of transaction " + transactionId + " at " + position +
+                        ", but found " + cursor.get() );
+            }
+            LogEntryChunk chunk = cursor.get().as();
+            while ( cursor.next() )
+            {
+                LogEntry entry = cursor.get();
+                if ( !(entry instanceof LogEntryCommand) )
+                {
+                    break;
+                }
+                commands.add( entry.<LogEntryCommand>as().getCommand() );
+            }
+            return chunk.getPreviousChunk();
+        }
+        catch ( FileNotFoundException e )
+        {
+            throw new NoSuchTransactionException( transactionId,
+                    "Its chunk at " + position + " is in a log file that has been pruned", e );
+        }
+    }
+}
@@ -55,6 +55,7 @@ public class PhysicalLogicalTransactionStore implements LogicalTransactionStore
     private final LogFile logFile;
     private final TransactionMetadataCache transactionMetadataCache;
     private final LogEntryReader<ReadableClosablePositionAwareChannel> logEntryReader;
+    private final TransactionChunkReader chunkReader;
     private final Monitors monitors;
     private final boolean failOnCorruptedLogFiles;
     private LogFiles logFiles;
@@ -68,6 +69,7 @@ public class PhysicalLogicalTransactionStore implements LogicalTransactionStore
         this.logFile = logFiles.getLogFile();
         this.transactionMetadataCache = transactionMetadataCache;
         this.logEntryReader = logEntryReader;
+        this.chunkReader = new LogFileTransactionChunkReader( logFile, logEntryReader );
         this.monitors = monitors;
         this.failOnCorruptedLogFiles = failOnCorruptedLogFiles;
     }
@@ -75,7 +77,8 @@ public class PhysicalLogicalTransactionStore implements LogicalTransactionStore
     @Override
     public TransactionCursor getTransactions( LogPosition position ) throws IOException
     {
-        return new PhysicalTransactionCursor<>( logFile.getReader( position ), new VersionAwareLogEntryReader<>() );
+        return new PhysicalTransactionCursor<>( logFile.getReader( position ), new VersionAwareLogEntryReader<>(),
+                chunkReader );
     }
 
     @Override
@@ -99,7 +102,7 @@ public class PhysicalLogicalTransactionStore implements LogicalTransactionStore
             {
                 // we're good
                 ReadableLogChannel channel = logFile.getReader( transactionMetadata.getStartPosition() );
-                return new PhysicalTransactionCursor<>( channel, logEntryReader );
+                return new PhysicalTransactionCursor<>( channel, logEntryReader, chunkReader );
             }
 
             // ask logFiles about the version it may be in
@@ -111,7 +114,7 @@ public class PhysicalLogicalTransactionStore implements LogicalTransactionStore
                     new TransactionPositionLocator( transactionIdToStartFrom, logEntryReader );
             logFile.accept( transactionPositionLocator, headerVisitor.getLogPosition() );
             LogPosition position = transactionPositionLocator.getAndCacheFoundLogPosition( transactionMetadataCache );
-            return new PhysicalTransactionCursor<>( logFile.getReader( position ), logEntryReader );
+            return new PhysicalTransactionCursor<>( logFile.getReader( position ), logEntryReader, chunkReader );
         }
         catch ( FileNotFoundException e )
         {
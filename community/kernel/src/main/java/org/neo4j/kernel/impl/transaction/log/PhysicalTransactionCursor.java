@@ -29,9 +29,11 @@ import java.util.List;
 import org.neo4j.kernel.impl.transaction.CommittedTransactionRepresentation;
 import org.neo4j.kernel.impl.transaction.log.entry.CheckPoint;
 import org.neo4j.kernel.impl.transaction.log.entry.LogEntry;
+import org.neo4j.kernel.impl.transaction.log.entry.LogEntryChunk;
 import org.neo4j.kernel.impl.transaction.log.entry.LogEntryCommand;
 import org.neo4j.kernel.impl.transaction.log.entry.LogEntryCommit;
 import org.neo4j.kernel.impl.transaction.log.entry.LogEntryReader;
+import org.neo4j.kernel.impl.transaction.log.entry.LogEntryRollback;
 import org.neo4j.kernel.impl.transaction.log.entry.LogEntryStart;
 import org.neo4j.storageengine.api.StorageCommand;
 
@@ -40,13 +42,24 @@ public class PhysicalTransactionCursor<T extends ReadableClosablePositionAwareCh
 {
     private final T channel;
     private final LogEntryCursor logEntryCursor;
+    private final TransactionChunkReader chunkReader;
     private final LogPositionMarker lastGoodPositionMarker = new LogPositionMarker();
 
     private CommittedTransactionRepresentation current;
 
     public PhysicalTransactionCursor( T channel, LogEntryReader<T> entryReader ) throws IOException
+    {
+        this( channel, entryReader, TransactionChunkReader.NO_CHUNKS );
+    }
+
+    /**
+     * @param chunkReader reads the chunks that transactions appended in chunks have appended ahead of their commit.
+     */
+    public PhysicalTransactionCursor( T channel, LogEntryReader<T> entryReader, TransactionChunkReader chunkReader )
+            throws IOException
     {
         this.channel = channel;
+        this.chunkReader = chunkReader;
         channel.getCurrentPosition( lastGoodPositionMarker );
         this.logEntryCursor =
                 new LogEntryCursor( (LogEntryReader<ReadableClosablePositionAwareChannel>) entryReader, channel );
@@ -80,9 +93,18 @@ public class PhysicalTransactionCursor<T extends ReadableClosablePositionAwareCh
                 continue;
             }
 
+            if ( entry instanceof LogEntryChunk || entry instanceof LogEntryCommand ||
+                 entry instanceof LogEntryRollback )
+            {
+                // A chunk, or its commands, of a transaction that commits further ahead or not at all.
+                // Chunks are read as part of the commit of their transaction
+                continue;
+            }
+
             assert entry instanceof LogEntryStart : "Expected Start entry, read " + entry + " instead";
             LogEntryStart startEntry = entry.as();
             LogEntryCommit commitEntry;
+            LogPosition previousChunk = null;
 
             List<StorageCommand> entries = new ArrayList<>();
             while ( true )
@@ -98,11 +120,25 @@ public class PhysicalTransactionCursor<T extends ReadableClosablePositionAwareCh
                     commitEntry = entry.as();
                     break;
                 }
+                if ( entry instanceof LogEntryChunk )
+                {
+                    // The last chunk of a transaction appended in chunks
+                    previousChunk = entry.<LogEntryChunk>as().getPreviousChunk();
+                    continue;
+                }
 
                 LogEntryCommand command = entry.as();
                 entries.add( command.getCommand() );
             }
 
+            if ( previousChunk != null && previousChunk != LogPosition.UNSPECIFIED )
+            {
+                List<StorageCommand> commands = new ArrayList<>();
+                chunkReader.read( previousChunk, commitEntry.getTxId(), commands );
+                commands.addAll( entries );
+                entries = commands;
+            }
+
             PhysicalTransactionRepresentation transaction = new PhysicalTransactionRepresentation( entries );
             transaction.setHeader( startEntry.getAdditionalHeader(), startEntry.getMasterId(),
                     startEntry.getLocalId(), startEntry.getTimeWritten(),
@@ -0,0 +1,53 @@
+/*
+ * Copyright (c) 2018-2020 "Graph Foundation"
+ * Graph Foundation, Inc. [https://graphfoundation.org]
+ *
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of ONgDB.
+ *
+ * ONgDB is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.log;
+
+import java.io.IOException;
+import java.util.Collection;
+
+import org.neo4j.kernel.impl.transaction.log.entry.LogEntryChunk;
+import org.neo4j.storageengine.api.StorageCommand;
+
+/**
+ * Reads back the {@link LogEntryChunk chunks} that a transaction appended ahead of its commit.
+ */
+public interface TransactionChunkReader
+{
+    /**
+     * For channels that only carry whole transactions, like transactions streamed between instances.
+     */
+    TransactionChunkReader NO_CHUNKS = ( lastChunk, transactionId, commands ) ->
+    {
+        throw new IOException( "Transaction " + transactionId + " was appended in chunks, which can't be read " +
+                "without access to the log files, the last chunk is at " + lastChunk );
+    };
+
+    /**
+     * @param lastChunk position of the last chunk that the transaction appended ahead of its commit.
+     * @param transactionId id the transaction committed as.
+     * @param commands receives the commands of all chunks up to and including the one at {@code lastChunk},
+     * in the order they were appended.
+     * @throws IOException on I/O error, or {@link NoSuchTransactionException} if a chunk is no longer available.
+     */
+    void read( LogPosition lastChunk, long transactionId, Collection<StorageCommand> commands ) throws IOException;
+}
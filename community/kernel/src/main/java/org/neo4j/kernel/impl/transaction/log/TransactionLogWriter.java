@@ -23,9 +23,12 @@
 package org.neo4j.kernel.impl.transaction.log;
 
 import java.io.IOException;
+import java.util.Collection;
 
 import org.neo4j.kernel.impl.transaction.TransactionRepresentation;
+import org.neo4j.kernel.impl.transaction.log.entry.LogEntryChunk;
 import org.neo4j.kernel.impl.transaction.log.entry.LogEntryWriter;
+import org.neo4j.storageengine.api.StorageCommand;
 
 public class TransactionLogWriter
 {
@@ -49,6 +52,36 @@ public class TransactionLogWriter
         writer.writeCommitEntry( transactionId, transaction.getTimeCommitted() );
     }
 
+    /**
+     * Appends a {@link LogEntryChunk chunk} of the commands of a transaction ahead of its commit.
+     */
+    public void appendChunk( Collection<StorageCommand> commands, LogPosition previousChunk, long timeWritten )
+            throws IOException
+    {
+        writer.writeChunkEntry( timeWritten, previousChunk );
+        writer.serialize( commands );
+    }
+
+    /**
+     * Appends the last chunk of a transaction that has appended its other chunks already, committing all of them.
+     */
+    public void append( TransactionRepresentation transaction, Collection<StorageCommand> lastChunkCommands,
+            LogPosition previousChunk, long transactionId ) throws IOException
+    {
+        writer.writeStartEntry( transaction.getMasterId(), transaction.getAuthorId(),
+                transaction.getTimeStarted(), transaction.getLatestCommittedTxWhenStarted(),
+                transaction.additionalHeader() );
+
+        appendChunk( lastChunkCommands, previousChunk, transaction.getTimeCommitted() );
+
+        writer.writeCommitEntry( transactionId, transaction.getTimeCommitted() );
+    }
+
+    public void rollback( LogPosition lastChunk, long timeWritten ) throws IOException
+    {
+        writer.writeRollbackEntry( timeWritten, lastChunk );
+    }
+
     public void checkPoint( LogPosition logPosition ) throws IOException
     {
         writer.writeCheckPointEntry( logPosition );
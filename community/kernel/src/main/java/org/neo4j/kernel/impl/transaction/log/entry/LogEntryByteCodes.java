@@ -34,4 +34,6 @@ public class LogEntryByteCodes
     public static final byte COMMAND = (byte) 3;
     public static final byte TX_COMMIT = (byte) 5;
     public static final byte CHECK_POINT = (byte) 7;
+    public static final byte TX_CHUNK = (byte) 9;
+    public static final byte TX_ROLLBACK = (byte) 11;
 }
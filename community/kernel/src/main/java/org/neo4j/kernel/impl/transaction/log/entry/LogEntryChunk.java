@@ -0,0 +1,127 @@
+/*
+ * Copyright (c) 2018-2020 "Graph Foundation"
+ * Graph Foundation, Inc. [https://graphfoundation.org]
+ *
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of ONgDB.
+ *
+ * ONgDB is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.log.entry;
+
+import java.util.TimeZone;
+
+import org.neo4j.helpers.Format;
+import org.neo4j.kernel.impl.transaction.log.LogPosition;
+
+import static org.neo4j.kernel.impl.transaction.log.entry.LogEntryByteCodes.TX_CHUNK;
+import static org.neo4j.kernel.impl.transaction.log.entry.LogEntryVersion.V3_6;
+
+/**
+ * Header of a chunk of commands belonging to a transaction that is appended to the log in chunks. The commands of the
+ * chunk follow this entry. All chunks but the last are appended on their own, ahead of the commit and possibly
+ * interleaved with other transactions. The last chunk is appended between the {@link LogEntryStart start} and the
+ * {@link LogEntryCommit commit} of the transaction, which is what commits all the chunks as one transaction.
+ * <p>
+ * Each chunk points back to the chunk appended before it, so that readers can collect all commands of the transaction
+ * once they have read its commit. Chunks that no commit points back to, because the transaction was
+ * {@link LogEntryRollback rolled back} or never finished, are skipped by readers.
+ */
+public class LogEntryChunk extends AbstractLogEntry
+{
+    private final long timeWritten;
+    private final LogPosition previousChunk;
+    private final LogPosition startPosition;
+
+    public LogEntryChunk( long timeWritten, LogPosition previousChunk, LogPosition startPosition )
+    {
+        this( V3_6, timeWritten, previousChunk, startPosition );
+    }
+
+    public LogEntryChunk( LogEntryVersion version, long timeWritten, LogPosition previousChunk,
+            LogPosition startPosition )
+    {
+        super( version, TX_CHUNK );
+        this.timeWritten = timeWritten;
+        this.previousChunk = previousChunk;
+        this.startPosition = startPosition;
+    }
+
+    public long getTimeWritten()
+    {
+        return timeWritten;
+    }
+
+    /**
+     * @return position of the chunk appended before this one, or {@link LogPosition#UNSPECIFIED} if this is the
+     * first chunk of its transaction.
+     */
+    public LogPosition getPreviousChunk()
+    {
+        return previousChunk;
+    }
+
+    public LogPosition getStartPosition()
+    {
+        return startPosition;
+    }
+
+    @Override
+    public String toString()
+    {
+        return toString( Format.DEFAULT_TIME_ZONE );
+    }
+
+    @Override
+    public String toString( TimeZone timeZone )
+    {
+        return "Chunk[time=" + timestamp( timeWritten, timeZone ) + ",previousChunk=" + previousChunk +
+                ",position=" + startPosition + "]";
+    }
+
+    @Override
+    @SuppressWarnings( "unchecked" )
+    public <T extends LogEntry> T as()
+    {
+        return (T) this;
+    }
+
+    @Override
+    public boolean equals( Object o )
+    {
+        if ( this == o )
+        {
+            return true;
+        }
+        if ( o == null || getClass() != o.getClass() )
+        {
+            return false;
+        }
+
+        LogEntryChunk chunk = (LogEntryChunk) o;
+        return timeWritten == chunk.timeWritten && previousChunk.equals( chunk.previousChunk ) &&
+               startPosition.equals( chunk.startPosition );
+    }
+
+    @Override
+    public int hashCode()
+    {
+        int result = (int) (timeWritten ^ (timeWritten >>> 32));
+        result = 31 * result + previousChunk.hashCode();
+        result = 31 * result + startPosition.hashCode();
+        return result;
+    }
+}
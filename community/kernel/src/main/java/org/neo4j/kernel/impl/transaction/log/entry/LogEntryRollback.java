@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2018-2020 "Graph Foundation"
+ * Graph Foundation, Inc. [https://graphfoundation.org]
+ *
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of ONgDB.
+ *
+ * ONgDB is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.log.entry;
+
+import java.util.TimeZone;
+
+import org.neo4j.helpers.Format;
+import org.neo4j.kernel.impl.transaction.log.LogPosition;
+
+import static org.neo4j.kernel.impl.transaction.log.entry.LogEntryByteCodes.TX_ROLLBACK;
+import static org.neo4j.kernel.impl.transaction.log.entry.LogEntryVersion.V3_6;
+
+/**
+ * Marks the {@link LogEntryChunk chunks} of a transaction as rolled back, such that no commit will ever point back
+ * to them. Readers skip rolled back chunks just like chunks of transactions that never finished.
+ */
+public class LogEntryRollback extends AbstractLogEntry
+{
+    private final long timeWritten;
+    private final LogPosition lastChunk;
+
+    public LogEntryRollback( long timeWritten, LogPosition lastChunk )
+    {
+        this( V3_6, timeWritten, lastChunk );
+    }
+
+    public LogEntryRollback( LogEntryVersion version, long timeWritten, LogPosition lastChunk )
+    {
+        super( version, TX_ROLLBACK );
+        this.timeWritten = timeWritten;
+        this.lastChunk = lastChunk;
+    }
+
+    public long getTimeWritten()
+    {
+        return timeWritten;
+    }
+
+    /**
+     * @return position of the last chunk that the rolled back transaction appended.
+     */
+    public LogPosition getLastChunk()
+    {
+        return lastChunk;
+    }
+
+    @Override
+    public String toString()
+    {
+        return toString( Format.DEFAULT_TIME_ZONE );
+    }
+
+    @Override
+    public String toString( TimeZone timeZone )
+    {
+        return "Rollback[time=" + timestamp( timeWritten, timeZone ) + ",lastChunk=" + lastChunk + "]";
+    }
+
+    @Override
+    @SuppressWarnings( "unchecked" )
+    public <T extends LogEntry> T as()
+    {
+        return (T) this;
+    }
+
+    @Override
+    public boolean equals( Object o )
+    {
+        if ( this == o )
+        {
+            return true;
+        }
+        if ( o == null || getClass() != o.getClass() )
+        {
+            return false;
+        }
+
+        LogEntryRollback rollback = (LogEntryRollback) o;
+        return timeWritten == rollback.timeWritten && lastChunk.equals( rollback.lastChunk );
+    }
+
+    @Override
+    public int hashCode()
+    {
+        int result = (int) (timeWritten ^ (timeWritten >>> 32));
+        result = 31 * result + lastChunk.hashCode();
+        return result;
+    }
+}
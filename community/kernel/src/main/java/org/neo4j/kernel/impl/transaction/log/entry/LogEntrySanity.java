@@ -56,6 +56,14 @@ class LogEntrySanity
         {
             return commitEntryMakesSense( (LogEntryCommit) entry );
         }
+        else if ( entry instanceof LogEntryChunk )
+        {
+            return timeMakesSense( ((LogEntryChunk) entry).getTimeWritten() );
+        }
+        else if ( entry instanceof LogEntryRollback )
+        {
+            return timeMakesSense( ((LogEntryRollback) entry).getTimeWritten() );
+        }
         return true;
     }
 
@@ -33,12 +33,18 @@ import org.neo4j.storageengine.api.StorageCommand;
 import org.neo4j.storageengine.api.WritableChannel;
 
 import static org.neo4j.kernel.impl.transaction.log.entry.LogEntryByteCodes.CHECK_POINT;
+import static org.neo4j.kernel.impl.transaction.log.entry.LogEntryByteCodes.TX_CHUNK;
 import static org.neo4j.kernel.impl.transaction.log.entry.LogEntryByteCodes.TX_COMMIT;
+import static org.neo4j.kernel.impl.transaction.log.entry.LogEntryByteCodes.TX_ROLLBACK;
 import static org.neo4j.kernel.impl.transaction.log.entry.LogEntryByteCodes.TX_START;
 import static org.neo4j.kernel.impl.transaction.log.entry.LogEntryVersion.CURRENT;
+import static org.neo4j.kernel.impl.transaction.log.entry.LogEntryVersion.V3_6;
 
 public class LogEntryWriter
 {
+    // Log version written in place of the position of the chunk before the first chunk of a transaction
+    static final long NO_CHUNK = -1;
+
     protected final WritableChannel channel;
     private final Visitor<StorageCommand,IOException> serializer;
 
@@ -54,7 +60,13 @@ public class LogEntryWriter
 
     protected static void writeLogEntryHeader( byte type, WritableChannel channel ) throws IOException
     {
-        channel.put( CURRENT.byteCode() ).put( type );
+        writeLogEntryHeader( type, CURRENT, channel );
+    }
+
+    private static void writeLogEntryHeader( byte type, LogEntryVersion version, WritableChannel channel )
+            throws IOException
+    {
+        channel.put( version.byteCode() ).put( type );
     }
 
     public void writeStartEntry( LogEntryStart entry ) throws IOException
@@ -102,6 +114,39 @@ public class LogEntryWriter
         }
     }
 
+    /**
+     * Writes the header of a {@link LogEntryChunk chunk}, to be followed by the commands of the chunk.
+     *
+     * @param timeWritten time the chunk is written.
+     * @param previousChunk position of the chunk written before this one by the same transaction,
+     * or {@link LogPosition#UNSPECIFIED} if this is its first chunk.
+     */
+    public void writeChunkEntry( long timeWritten, LogPosition previousChunk ) throws IOException
+    {
+        writeLogEntryHeader( TX_CHUNK, V3_6, channel );
+        channel.putLong( timeWritten );
+        writeChunkPosition( previousChunk );
+    }
+
+    public void writeRollbackEntry( long timeWritten, LogPosition lastChunk ) throws IOException
+    {
+        writeLogEntryHeader( TX_ROLLBACK, V3_6, channel );
+        channel.putLong( timeWritten );
+        writeChunkPosition( lastChunk );
+    }
+
+    private void writeChunkPosition( LogPosition position ) throws IOException
+    {
+        if ( position == LogPosition.UNSPECIFIED )
+        {
+            channel.putLong( NO_CHUNK ).putLong( NO_CHUNK );
+        }
+        else
+        {
+            channel.putLong( position.getLogVersion() ).putLong( position.getByteOffset() );
+        }
+    }
+
     public void writeCheckPointEntry( LogPosition logPosition ) throws IOException
     {
         writeLogEntryHeader( CHECK_POINT, channel );
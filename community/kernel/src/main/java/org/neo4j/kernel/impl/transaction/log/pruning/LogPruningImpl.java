@@ -31,6 +31,7 @@ import java.util.function.LongConsumer;
 import org.neo4j.graphdb.factory.GraphDatabaseSettings;
 import org.neo4j.io.fs.FileSystemAbstraction;
 import org.neo4j.kernel.configuration.Config;
+import org.neo4j.kernel.impl.transaction.log.ChunkedTransactions;
 import org.neo4j.kernel.impl.transaction.log.files.LogFiles;
 import org.neo4j.logging.Log;
 import org.neo4j.logging.LogProvider;
@@ -46,6 +47,7 @@ public class LogPruningImpl implements LogPruning
     private final Log msgLog;
     private final LogPruneStrategyFactory strategyFactory;
     private final Clock clock;
+    private final ChunkedTransactions chunkedTransactions;
     private volatile LogPruneStrategy pruneStrategy;
 
     public LogPruningImpl( FileSystemAbstraction fs,
@@ -54,12 +56,24 @@ public class LogPruningImpl implements LogPruning
                            LogPruneStrategyFactory strategyFactory,
                            Clock clock,
                            Config config )
+    {
+        this( fs, logFiles, logProvider, strategyFactory, clock, config, new ChunkedTransactions() );
+    }
+
+    public LogPruningImpl( FileSystemAbstraction fs,
+                           LogFiles logFiles,
+                           LogProvider logProvider,
+                           LogPruneStrategyFactory strategyFactory,
+                           Clock clock,
+                           Config config,
+                           ChunkedTransactions chunkedTransactions )
     {
         this.fs = fs;
         this.logFiles = logFiles;
         this.msgLog = logProvider.getLog( getClass() );
         this.strategyFactory = strategyFactory;
         this.clock = clock;
+        this.chunkedTransactions = chunkedTransactions;
         this.pruneStrategy = strategyFactory.strategyFromConfigValue( fs, logFiles, clock, config.get( GraphDatabaseSettings.keep_logical_logs ) );
 
         // Register listener for updates
@@ -124,7 +138,9 @@ public class LogPruningImpl implements LogPruning
             try
             {
                 CountingDeleter deleter = new CountingDeleter( logFiles, fs, upToVersion );
-                pruneStrategy.findLogVersionsToDelete( upToVersion ).forEachOrdered( deleter );
+                // Keep log files with chunks of transactions that recovery might still need to read back
+                long prunableUpToVersion = Math.min( upToVersion, chunkedTransactions.lowestLogVersion() );
+                pruneStrategy.findLogVersionsToDelete( prunableUpToVersion ).forEachOrdered( deleter );
                 msgLog.info( deleter.describeResult() );
             }
             finally
@@ -26,11 +26,13 @@ import java.io.IOException;
 
 import org.neo4j.function.ThrowingFunction;
 import org.neo4j.kernel.impl.transaction.CommittedTransactionRepresentation;
+import org.neo4j.kernel.impl.transaction.log.LogFileTransactionChunkReader;
 import org.neo4j.kernel.impl.transaction.log.LogPosition;
 import org.neo4j.kernel.impl.transaction.log.PhysicalTransactionCursor;
 import org.neo4j.kernel.impl.transaction.log.ReadAheadLogChannel;
 import org.neo4j.kernel.impl.transaction.log.ReadableClosablePositionAwareChannel;
 import org.neo4j.kernel.impl.transaction.log.ReadableLogChannel;
+import org.neo4j.kernel.impl.transaction.log.TransactionChunkReader;
 import org.neo4j.kernel.impl.transaction.log.TransactionCursor;
 import org.neo4j.kernel.impl.transaction.log.entry.LogEntryReader;
 import org.neo4j.kernel.impl.transaction.log.entry.VersionAwareLogEntryReader;
@@ -78,6 +80,7 @@ public class ReversedMultiFileTransactionCursor implements TransactionCursor
     {
         long highestVersion = logFiles.getHighestLogVersion();
         LogEntryReader<ReadableClosablePositionAwareChannel> logEntryReader = new VersionAwareLogEntryReader<>();
+        TransactionChunkReader chunkReader = new LogFileTransactionChunkReader( logFile, logEntryReader );
         ThrowingFunction<LogPosition,TransactionCursor,IOException> factory = position ->
         {
             ReadableLogChannel channel = logFile.getReader( position, NO_MORE_CHANNELS );
@@ -86,11 +89,11 @@ public class ReversedMultiFileTransactionCursor implements TransactionCursor
                 // This is a channel which can be positioned explicitly and is the typical case for such channels
                 // Let's take advantage of this fact and use a bit smarter reverse implementation
                 return new ReversedSingleFileTransactionCursor( (ReadAheadLogChannel) channel, logEntryReader,
-                        failOnCorruptedLogFiles, monitor );
+                        chunkReader, failOnCorruptedLogFiles, monitor );
             }
 
             // Fall back to simply eagerly reading each single log file and reversing in memory
-            return eagerlyReverse( new PhysicalTransactionCursor<>( channel, logEntryReader ) );
+            return eagerlyReverse( new PhysicalTransactionCursor<>( channel, logEntryReader, chunkReader ) );
         };
         return new ReversedMultiFileTransactionCursor( factory, highestVersion, backToPosition );
     }
@@ -34,6 +34,7 @@ import org.neo4j.kernel.impl.transaction.log.PhysicalTransactionCursor;
 import org.neo4j.kernel.impl.transaction.log.ReadAheadChannel;
 import org.neo4j.kernel.impl.transaction.log.ReadAheadLogChannel;
 import org.neo4j.kernel.impl.transaction.log.ReadableClosablePositionAwareChannel;
+import org.neo4j.kernel.impl.transaction.log.TransactionChunkReader;
 import org.neo4j.kernel.impl.transaction.log.TransactionCursor;
 import org.neo4j.kernel.impl.transaction.log.entry.LogEntryReader;
 import org.neo4j.kernel.impl.transaction.log.entry.UnsupportedLogVersionException;
@@ -85,13 +86,20 @@ public class ReversedSingleFileTransactionCursor implements TransactionCursor
     ReversedSingleFileTransactionCursor( ReadAheadLogChannel channel,
             LogEntryReader<ReadableClosablePositionAwareChannel> logEntryReader, boolean failOnCorruptedLogFiles,
             ReversedTransactionCursorMonitor monitor ) throws IOException
+    {
+        this( channel, logEntryReader, TransactionChunkReader.NO_CHUNKS, failOnCorruptedLogFiles, monitor );
+    }
+
+    ReversedSingleFileTransactionCursor( ReadAheadLogChannel channel,
+            LogEntryReader<ReadableClosablePositionAwareChannel> logEntryReader, TransactionChunkReader chunkReader,
+            boolean failOnCorruptedLogFiles, ReversedTransactionCursorMonitor monitor ) throws IOException
     {
         this.channel = channel;
         this.failOnCorruptedLogFiles = failOnCorruptedLogFiles;
         this.monitor = monitor;
         // There's an assumption here: that the underlying channel can move in between calls and that the
         // transaction cursor will just happily read from the new position.
-        this.transactionCursor = new PhysicalTransactionCursor<>( channel, logEntryReader );
+        this.transactionCursor = new PhysicalTransactionCursor<>( channel, logEntryReader, chunkReader );
         this.offsets = sketchOutTransactionStartOffsets();
     }
 
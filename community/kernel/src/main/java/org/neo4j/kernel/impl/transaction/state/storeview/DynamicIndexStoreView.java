@@ -37,9 +37,12 @@ import org.neo4j.kernel.impl.api.index.StoreScan;
 import org.neo4j.kernel.impl.locking.LockService;
 import org.neo4j.kernel.impl.storageengine.impl.recordstorage.RecordStorageReader;
 import org.neo4j.kernel.impl.store.NeoStores;
+import org.neo4j.kernel.impl.store.counts.CountsTracker;
 import org.neo4j.logging.Log;
 import org.neo4j.logging.LogProvider;
 import org.neo4j.register.Register;
+import org.neo4j.register.Registers;
+import org.neo4j.scheduler.JobScheduler;
 import org.neo4j.storageengine.api.EntityType;
 import org.neo4j.util.FeatureToggles;
 import org.neo4j.values.storable.Value;
@@ -84,6 +87,17 @@ public class DynamicIndexStoreView implements IndexStoreView
                 propertyUpdatesVisitor, labelIds, propertyKeyIdFilter );
     }
 
+    @Override
+    public <FAILURE extends Exception> StoreScan<FAILURE> visitNodesInParallel( int[] labelIds, IntPredicate propertyKeyIdFilter,
+            Visitor<EntityUpdates,FAILURE> propertyUpdateVisitor, int numberOfThreads, JobScheduler scheduler )
+    {
+        if ( !USE_LABEL_INDEX_FOR_SCHEMA_INDEX_POPULATION || useAllNodeStoreScan( labelIds ) || !fewLabeledNodes( labelIds, numberOfThreads ) )
+        {
+            return neoStoreIndexStoreView.visitNodesInParallel( labelIds, propertyKeyIdFilter, propertyUpdateVisitor, numberOfThreads, scheduler );
+        }
+        return visitNodes( labelIds, propertyKeyIdFilter, propertyUpdateVisitor, null, false );
+    }
+
     @Override
     public <FAILURE extends Exception> StoreScan<FAILURE> visitRelationships( int[] relationshipTypeIds, IntPredicate propertyKeyIdFilter,
             Visitor<EntityUpdates,FAILURE> propertyUpdateVisitor )
@@ -134,6 +148,21 @@ public class DynamicIndexStoreView implements IndexStoreView
         }
     }
 
+    /**
+     * A single thread visiting only the labeled nodes, found using the label scan store, beats multiple threads reading
+     * the whole node store as long as the labeled nodes are few enough.
+     */
+    private boolean fewLabeledNodes( int[] labelIds, int numberOfThreads )
+    {
+        CountsTracker counts = neoStores.getCounts();
+        long labeledNodes = 0;
+        for ( int labelId : labelIds )
+        {
+            labeledNodes += counts.nodeCount( labelId, Registers.newDoubleLongRegister() ).readSecond();
+        }
+        return labeledNodes * numberOfThreads < neoStores.getNodeStore().getHighId();
+    }
+
     private boolean isEmptyLabelScanStore() throws Exception
     {
         return labelScanStore.isEmpty();
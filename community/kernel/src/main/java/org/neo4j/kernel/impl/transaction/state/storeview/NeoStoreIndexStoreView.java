@@ -46,6 +46,7 @@ import org.neo4j.kernel.impl.store.record.PropertyBlock;
 import org.neo4j.kernel.impl.store.record.PropertyRecord;
 import org.neo4j.kernel.impl.store.record.Record;
 import org.neo4j.register.Register.DoubleLongRegister;
+import org.neo4j.scheduler.JobScheduler;
 import org.neo4j.storageengine.api.EntityType;
 import org.neo4j.values.storable.Value;
 import org.neo4j.values.storable.Values;
@@ -117,6 +118,19 @@ public class NeoStoreIndexStoreView implements IndexStoreView
                 propertyUpdatesVisitor, labelIds, propertyKeyIdFilter );
     }
 
+    @Override
+    public <FAILURE extends Exception> StoreScan<FAILURE> visitNodesInParallel( int[] labelIds, IntPredicate propertyKeyIdFilter,
+            Visitor<EntityUpdates,FAILURE> propertyUpdatesVisitor, int numberOfThreads, JobScheduler scheduler )
+    {
+        if ( numberOfThreads <= 1 )
+        {
+            return visitNodes( labelIds, propertyKeyIdFilter, propertyUpdatesVisitor, null, false );
+        }
+        return new ParallelNodeStoreScan<>( () -> new RecordStorageReader( neoStores ), locks, propertyUpdatesVisitor, labelIds,
+                propertyKeyIdFilter, numberOfThreads, nodeStore.getRecordsPerPage(), nodeStore::getHighestPossibleIdInUse,
+                scheduler );
+    }
+
     @Override
     public <FAILURE extends Exception> StoreScan<FAILURE> visitRelationships( final int[] relationshipTypeIds, IntPredicate propertyKeyIdFilter,
             final Visitor<EntityUpdates,FAILURE> propertyUpdatesVisitor )
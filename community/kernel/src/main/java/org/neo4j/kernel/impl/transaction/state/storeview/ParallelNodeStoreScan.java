@@ -0,0 +1,324 @@
+/*
+ * Copyright (c) 2018-2020 "Graph Foundation"
+ * Graph Foundation, Inc. [https://graphfoundation.org]
+ *
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of ONgDB.
+ *
+ * ONgDB is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.state.storeview;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntPredicate;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+import org.neo4j.helpers.collection.Visitor;
+import org.neo4j.kernel.api.index.IndexEntryUpdate;
+import org.neo4j.kernel.impl.api.index.EntityUpdates;
+import org.neo4j.kernel.impl.api.index.MultipleIndexPopulator;
+import org.neo4j.kernel.impl.api.index.PhaseTracker;
+import org.neo4j.kernel.impl.api.index.StoreScan;
+import org.neo4j.kernel.impl.locking.Lock;
+import org.neo4j.kernel.impl.locking.LockService;
+import org.neo4j.scheduler.Group;
+import org.neo4j.scheduler.JobHandle;
+import org.neo4j.scheduler.JobScheduler;
+import org.neo4j.storageengine.api.StorageNodeCursor;
+import org.neo4j.storageengine.api.StorageReader;
+import org.neo4j.storageengine.api.schema.PopulationProgress;
+
+/**
+ * {@link StoreScan} over all nodes which lets multiple threads scan the node store concurrently. The node store is split up into
+ * page aligned chunks which the threads claim one at a time, in ascending order, until the whole store has been scanned.
+ * <p>
+ * The threads are jobs in the {@link Group#INDEX_POPULATION} group of the given {@link JobScheduler}.
+ * Each thread reads nodes and their properties using its own {@link StorageReader}. Only handing the produced {@link EntityUpdates}
+ * to the visitor is serialized, since the visitor may apply queued external updates in between and expects to see one update at a time.
+ *
+ * @param <FAILURE> type of exception thrown on failure
+ */
+public class ParallelNodeStoreScan<FAILURE extends Exception> implements StoreScan<FAILURE>
+{
+    static final int PAGES_PER_CHUNK = 64;
+
+    private final JobScheduler scheduler;
+    private final LockService locks;
+    private final Visitor<EntityUpdates,FAILURE> propertyUpdatesVisitor;
+    private final LongSupplier highestPossibleIdInUse;
+    private final long chunkSize;
+    private final long totalCount;
+    private final List<Worker> workers;
+    private final AtomicLong nextChunkStart = new AtomicLong();
+    private final LongAdder count = new LongAdder();
+    private final Object visitLock = new Object();
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+    // Starts out true so that a stop requested before the scan is run isn't lost
+    private volatile boolean continueScanning = true;
+    private PhaseTracker phaseTracker = PhaseTracker.nullInstance;
+
+    public ParallelNodeStoreScan( Supplier<StorageReader> storageReaders, LockService locks, Visitor<EntityUpdates,FAILURE> propertyUpdatesVisitor,
+            int[] labelIds, IntPredicate propertyKeyIdFilter, int numberOfThreads, int recordsPerPage, LongSupplier highestPossibleIdInUse,
+            JobScheduler scheduler )
+    {
+        this.scheduler = scheduler;
+        this.locks = locks;
+        this.propertyUpdatesVisitor = propertyUpdatesVisitor;
+        this.highestPossibleIdInUse = highestPossibleIdInUse;
+        this.chunkSize = (long) recordsPerPage * PAGES_PER_CHUNK;
+        this.workers = new ArrayList<>( numberOfThreads );
+        long nodeCount = 0;
+        for ( int i = 0; i < numberOfThreads; i++ )
+        {
+            StorageReader storageReader = storageReaders.get();
+            if ( i == 0 )
+            {
+                nodeCount = storageReader.nodesGetCount();
+            }
+            workers.add( new Worker( storageReader, labelIds, propertyKeyIdFilter ) );
+        }
+        this.totalCount = nodeCount;
+    }
+
+    @Override
+    public void run() throws FAILURE
+    {
+        List<JobHandle> handles = new ArrayList<>( workers.size() );
+        try
+        {
+            for ( Worker worker : workers )
+            {
+                handles.add( scheduler.schedule( Group.INDEX_POPULATION, worker ) );
+            }
+        }
+        catch ( RuntimeException e )
+        {
+            // Workers already scheduled will close their readers themselves when they see the stop
+            stop();
+            failed( e );
+            workers.subList( handles.size(), workers.size() ).forEach( worker -> worker.scan.close() );
+        }
+        awaitWorkers( handles );
+    }
+
+    @SuppressWarnings( "unchecked" )
+    private void awaitWorkers( List<JobHandle> handles ) throws FAILURE
+    {
+        boolean interrupted = false;
+        for ( JobHandle handle : handles )
+        {
+            boolean terminated = false;
+            while ( !terminated )
+            {
+                try
+                {
+                    handle.waitTermination();
+                    terminated = true;
+                }
+                catch ( InterruptedException e )
+                {
+                    // Wait for the workers anyway, they use storage readers which must be closed before the scan returns
+                    interrupted = true;
+                    stop();
+                }
+                catch ( ExecutionException e )
+                {
+                    // Workers catch their own failures, so this is not expected, but don't lose it if it happens anyway
+                    failed( e.getCause() );
+                    terminated = true;
+                }
+            }
+        }
+        if ( interrupted )
+        {
+            Thread.currentThread().interrupt();
+            failed( new InterruptedException() );
+        }
+
+        Throwable failure = this.failure.get();
+        if ( failure instanceof RuntimeException )
+        {
+            throw (RuntimeException) failure;
+        }
+        if ( failure instanceof Error )
+        {
+            throw (Error) failure;
+        }
+        if ( failure instanceof InterruptedException )
+        {
+            throw new RuntimeException( "Interrupted while scanning node store", failure );
+        }
+        if ( failure != null )
+        {
+            // The workers only throw the checked exception the visitor may throw
+            throw (FAILURE) failure;
+        }
+    }
+
+    private void failed( Throwable cause )
+    {
+        if ( !failure.compareAndSet( null, cause ) )
+        {
+            failure.get().addSuppressed( cause );
+        }
+    }
+
+    /**
+     * With multiple threads scanning there's no single position that the scan has reached, so instead of looking at
+     * {@code currentlyIndexedNodeId} this scan decides for itself whether or not the node of the external update has been scanned already.
+     * The only exception is {@link Long#MAX_VALUE} which is passed in after the whole scan has completed.
+     */
+    @Override
+    public void acceptUpdate( MultipleIndexPopulator.MultipleIndexUpdater updater, IndexEntryUpdate<?> update, long currentlyIndexedNodeId )
+    {
+        if ( currentlyIndexedNodeId == Long.MAX_VALUE || mayHaveBeenScanned( update.getEntityId() ) )
+        {
+            updater.process( update );
+        }
+    }
+
+    /**
+     * An external update may only be skipped if it's certain that the scan will read the node later on, and will then see the change
+     * behind the update. Applying an update for a node that the scan also reads is harmless, so whenever in doubt this method says yes.
+     *
+     * @param nodeId id of the node which the external update is for.
+     * @return {@code false} if no scan thread has reached the given node yet, otherwise {@code true}.
+     */
+    private boolean mayHaveBeenScanned( long nodeId )
+    {
+        if ( nodeId >= nextChunkStart.get() )
+        {
+            // The chunk of this node hasn't been claimed yet and so will be scanned later. Workers only stop claiming chunks
+            // when claiming a chunk beyond the highest id in use, and this node is in use already
+            return false;
+        }
+
+        long chunk = nodeId / chunkSize;
+        for ( Worker worker : workers )
+        {
+            long current = worker.current;
+            if ( current >= 0 && current / chunkSize == chunk )
+            {
+                // This is the worker scanning the chunk of this node. The worker publishes the id of each node before locking it
+                return current >= nodeId;
+            }
+        }
+        // Either the chunk has been scanned completely, or it has just been claimed by a worker which hasn't started on it yet
+        return true;
+    }
+
+    /**
+     * Stops all workers, also those in the middle of a chunk or waiting to hand over an update. Updates produced after this call
+     * are not handed to the visitor.
+     */
+    @Override
+    public void stop()
+    {
+        continueScanning = false;
+    }
+
+    @Override
+    public PopulationProgress getProgress()
+    {
+        if ( totalCount > 0 )
+        {
+            return PopulationProgress.single( count.sum(), totalCount );
+        }
+
+        // nothing to do 100% completed
+        return PopulationProgress.DONE;
+    }
+
+    @Override
+    public void setPhaseTracker( PhaseTracker phaseTracker )
+    {
+        this.phaseTracker = phaseTracker;
+    }
+
+    private boolean visit( EntityUpdates updates ) throws FAILURE
+    {
+        synchronized ( visitLock )
+        {
+            if ( !continueScanning )
+            {
+                // Stopped while waiting for another worker to hand over its update
+                return false;
+            }
+            phaseTracker.enterPhase( PhaseTracker.Phase.SCAN );
+            return propertyUpdatesVisitor.visit( updates );
+        }
+    }
+
+    private class Worker implements Runnable
+    {
+        private final StoreViewNodeStoreScan<FAILURE> scan;
+        // Id of the node this worker is currently reading, published before that node is locked
+        private volatile long current = -1;
+
+        Worker( StorageReader storageReader, int[] labelIds, IntPredicate propertyKeyIdFilter )
+        {
+            this.scan = new StoreViewNodeStoreScan<>( storageReader, locks, null, ParallelNodeStoreScan.this::visit, labelIds, propertyKeyIdFilter );
+        }
+
+        @Override
+        public void run()
+        {
+            try
+            {
+                long start = nextChunkStart.getAndAdd( chunkSize );
+                while ( continueScanning && start <= highestPossibleIdInUse.getAsLong() )
+                {
+                    scanChunk( start, start + chunkSize );
+                    start = nextChunkStart.getAndAdd( chunkSize );
+                }
+            }
+            catch ( Throwable t )
+            {
+                // Let the other workers know that there's no point in continuing
+                stop();
+                failed( t );
+            }
+            finally
+            {
+                scan.close();
+            }
+        }
+
+        private void scanChunk( long start, long end ) throws FAILURE
+        {
+            StorageNodeCursor cursor = scan.entityCursor;
+            for ( long id = start; id < end && continueScanning; id++ )
+            {
+                current = id;
+                try ( Lock ignored = locks.acquireNodeLock( id, LockService.LockType.READ_LOCK ) )
+                {
+                    cursor.single( id );
+                    if ( cursor.next() )
+                    {
+                        count.increment();
+                        scan.process( cursor );
+                    }
+                }
+            }
+        }
+    }
+}
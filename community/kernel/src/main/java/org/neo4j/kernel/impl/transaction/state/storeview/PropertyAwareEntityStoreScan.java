@@ -24,6 +24,7 @@ package org.neo4j.kernel.impl.transaction.state.storeview;
 
 import org.apache.commons.lang3.ArrayUtils;
 
+import java.util.Arrays;
 import java.util.function.IntPredicate;
 import java.util.function.LongFunction;
 
@@ -32,6 +33,7 @@ import org.neo4j.kernel.api.index.IndexEntryUpdate;
 import org.neo4j.kernel.impl.api.index.EntityUpdates;
 import org.neo4j.kernel.impl.api.index.MultipleIndexPopulator;
 import org.neo4j.kernel.impl.api.index.PhaseTracker;
+import org.neo4j.kernel.impl.api.index.PropertyKeyIdFilter;
 import org.neo4j.kernel.impl.api.index.StoreScan;
 import org.neo4j.kernel.impl.locking.Lock;
 import org.neo4j.storageengine.api.StorageEntityScanCursor;
@@ -45,10 +47,13 @@ public abstract class PropertyAwareEntityStoreScan<CURSOR extends StorageEntityS
     final CURSOR entityCursor;
     private final StoragePropertyCursor propertyCursor;
     private final StorageReader storageReader;
-    private volatile boolean continueScanning;
+    // Starts out true so that a stop requested before the scan is run isn't lost
+    private volatile boolean continueScanning = true;
     private long count;
     private long totalCount;
     private final IntPredicate propertyKeyIdFilter;
+    private final int[] projectedPropertyKeyIds;
+    private final Value[] projectedValues;
     private final LongFunction<Lock> lockFunction;
     private PhaseTracker phaseTracker;
 
@@ -59,6 +64,17 @@ public abstract class PropertyAwareEntityStoreScan<CURSOR extends StorageEntityS
         this.entityCursor = allocateCursor( storageReader );
         this.propertyCursor = storageReader.allocatePropertyCursor();
         this.propertyKeyIdFilter = propertyKeyIdFilter;
+        if ( propertyKeyIdFilter instanceof PropertyKeyIdFilter )
+        {
+            // The exact set of interesting property keys is known, so those can be read from each entity in one pass
+            this.projectedPropertyKeyIds = ((PropertyKeyIdFilter) propertyKeyIdFilter).propertyKeyIds();
+            this.projectedValues = new Value[projectedPropertyKeyIds.length];
+        }
+        else
+        {
+            this.projectedPropertyKeyIds = null;
+            this.projectedValues = null;
+        }
         this.lockFunction = lockFunction;
         this.totalCount = totalEntityCount;
         this.phaseTracker = PhaseTracker.nullInstance;
@@ -84,8 +100,13 @@ public abstract class PropertyAwareEntityStoreScan<CURSOR extends StorageEntityS
         {
             return false;
         }
-        boolean hasRelevantProperty = false;
         propertyCursor.init( cursor.propertiesReference() );
+        if ( projectedPropertyKeyIds != null )
+        {
+            return readProjectedProperties( updates );
+        }
+
+        boolean hasRelevantProperty = false;
         while ( propertyCursor.next() )
         {
             int propertyKeyId = propertyCursor.propertyKey();
@@ -103,13 +124,28 @@ public abstract class PropertyAwareEntityStoreScan<CURSOR extends StorageEntityS
         return hasRelevantProperty;
     }
 
+    private boolean readProjectedProperties( EntityUpdates.Builder updates )
+    {
+        Arrays.fill( projectedValues, null );
+        propertyCursor.readProperties( projectedPropertyKeyIds, projectedValues );
+        boolean hasRelevantProperty = false;
+        for ( int i = 0; i < projectedPropertyKeyIds.length; i++ )
+        {
+            if ( projectedValues[i] != null )
+            {
+                updates.added( projectedPropertyKeyIds[i], projectedValues[i] );
+                hasRelevantProperty = true;
+            }
+        }
+        return hasRelevantProperty;
+    }
+
     @Override
     public void run() throws FAILURE
     {
         entityCursor.scan();
         try ( EntityIdIterator entityIdIterator = getEntityIdIterator() )
         {
-            continueScanning = true;
             while ( continueScanning && entityIdIterator.hasNext() )
             {
                 phaseTracker.enterPhase( PhaseTracker.Phase.SCAN );
@@ -126,10 +162,15 @@ public abstract class PropertyAwareEntityStoreScan<CURSOR extends StorageEntityS
         }
         finally
         {
-            IOUtils.closeAllUnchecked( propertyCursor, entityCursor, storageReader );
+            close();
         }
     }
 
+    void close()
+    {
+        IOUtils.closeAllUnchecked( propertyCursor, entityCursor, storageReader );
+    }
+
     @Override
     public void acceptUpdate( MultipleIndexPopulator.MultipleIndexUpdater updater, IndexEntryUpdate<?> update,
             long currentlyIndexedNodeId )
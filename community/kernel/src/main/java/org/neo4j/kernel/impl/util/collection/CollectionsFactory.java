@@ -42,6 +42,10 @@ public interface CollectionsFactory
 
     MutableLongObjectMap<Value> newValuesMap();
 
+    /**
+     * @return tracker of the memory used by collections created by this factory, its peak memory usage is
+     * reset on {@link #release()}.
+     */
     MemoryTracker getMemoryTracker();
 
     /**
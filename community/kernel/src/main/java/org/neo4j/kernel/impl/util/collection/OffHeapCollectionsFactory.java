@@ -34,13 +34,12 @@ import org.neo4j.kernel.impl.api.state.ValuesContainer;
 import org.neo4j.kernel.impl.api.state.ValuesMap;
 import org.neo4j.kernel.impl.util.diffsets.MutableLongDiffSetsImpl;
 import org.neo4j.memory.LocalMemoryTracker;
-import org.neo4j.memory.MemoryAllocationTracker;
 import org.neo4j.memory.MemoryTracker;
 import org.neo4j.values.storable.Value;
 
 public class OffHeapCollectionsFactory implements CollectionsFactory
 {
-    private final MemoryAllocationTracker memoryTracker = new LocalMemoryTracker();
+    private final LocalMemoryTracker memoryTracker = new LocalMemoryTracker();
     private final MemoryAllocator allocator;
 
     private final Collection<Resource> resources = new ArrayList<>();
@@ -93,5 +92,6 @@ public class OffHeapCollectionsFactory implements CollectionsFactory
             valuesContainer.close();
             valuesContainer = null;
         }
+        memoryTracker.resetPeakMemoryUsage();
     }
 }
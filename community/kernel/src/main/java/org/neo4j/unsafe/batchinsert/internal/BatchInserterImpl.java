@@ -310,7 +310,8 @@ public class BatchInserterImpl implements BatchInserter, IndexConfigStoreProvide
         Dependencies deps = new Dependencies();
         Monitors monitors = new Monitors();
 //<<<<<<< HEAD
-        deps.satisfyDependencies( fileSystem, config, logService, storeIndexStoreView, pageCache, monitors, RecoveryCleanupWorkCollector.immediate() );
+        deps.satisfyDependencies( fileSystem, config, logService, storeIndexStoreView, pageCache, monitors, jobScheduler,
+                RecoveryCleanupWorkCollector.immediate() );
 
         DatabaseKernelExtensions extensions = life.add( new DatabaseKernelExtensions(
                 new SimpleKernelContext( databaseDirectory, DatabaseInfo.TOOL, deps ),
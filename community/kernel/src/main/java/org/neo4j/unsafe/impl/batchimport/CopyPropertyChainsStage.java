@@ -0,0 +1,59 @@
+/*
+ * Copyright (c) 2018-2020 "Graph Foundation"
+ * Graph Foundation, Inc. [https://graphfoundation.org]
+ *
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of ONgDB.
+ *
+ * ONgDB is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.unsafe.impl.batchimport;
+
+import org.neo4j.kernel.impl.store.PropertyStore;
+import org.neo4j.kernel.impl.store.RecordStore;
+import org.neo4j.kernel.impl.store.record.PrimitiveRecord;
+import org.neo4j.unsafe.impl.batchimport.staging.BatchFeedStep;
+import org.neo4j.unsafe.impl.batchimport.staging.ReadRecordsStep;
+import org.neo4j.unsafe.impl.batchimport.staging.Stage;
+import org.neo4j.unsafe.impl.batchimport.store.StorePrepareIdSequence;
+
+import static org.neo4j.unsafe.impl.batchimport.RecordIdIterator.allIn;
+
+/**
+ * Copies property chains of all owners in an owner store, e.g. nodes or relationships, to another property store
+ * in owner id order, as part of {@link PropertyStoreDefragmenter defragmenting the property store}. Steps:
+ *
+ * <ol>
+ * <li>{@link ReadRecordsStep} reads owner records in id order from the source owner store.</li>
+ * <li>{@link CopyPropertyChainsStep} copies the property chain of each owner and points the owner to the copy.</li>
+ * <li>{@link UpdateRecordsStep} writes the updated owner records to the target owner store, leaving the source
+ * owner store untouched.</li>
+ * </ol>
+ */
+public class CopyPropertyChainsStage<RECORD extends PrimitiveRecord> extends Stage
+{
+    public static final String NAME = "Copy properties";
+
+    public CopyPropertyChainsStage( Configuration config, RecordStore<RECORD> fromOwnerStore, RecordStore<RECORD> toOwnerStore,
+            PropertyStore fromStore, PropertyStore toStore )
+    {
+        super( NAME, null, config, 0 );
+        add( new BatchFeedStep( control(), config, allIn( fromOwnerStore, config ), fromOwnerStore.getRecordSize() ) );
+        add( new ReadRecordsStep<>( control(), config, true, fromOwnerStore ) );
+        add( new CopyPropertyChainsStep<RECORD>( control(), config, fromStore, toStore ) );
+        add( new UpdateRecordsStep<>( control(), config, toOwnerStore, new StorePrepareIdSequence() ) );
+    }
+}
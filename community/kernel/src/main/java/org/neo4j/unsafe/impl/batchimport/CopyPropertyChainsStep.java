@@ -0,0 +1,61 @@
+/*
+ * Copyright (c) 2018-2020 "Graph Foundation"
+ * Graph Foundation, Inc. [https://graphfoundation.org]
+ *
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of ONgDB.
+ *
+ * ONgDB is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.unsafe.impl.batchimport;
+
+import org.neo4j.kernel.impl.store.PropertyStore;
+import org.neo4j.kernel.impl.store.record.PrimitiveRecord;
+import org.neo4j.unsafe.impl.batchimport.staging.BatchSender;
+import org.neo4j.unsafe.impl.batchimport.staging.ProcessorStep;
+import org.neo4j.unsafe.impl.batchimport.staging.StageControl;
+
+/**
+ * Copies the property chains of a batch of owner records, using a {@link PropertyChainCopier}, and points the owners
+ * to their copied chains. Runs single-threaded so that chains end up in the target store in owner id order.
+ */
+public class CopyPropertyChainsStep<RECORD extends PrimitiveRecord> extends ProcessorStep<RECORD[]>
+{
+    private final PropertyChainCopier copier;
+
+    CopyPropertyChainsStep( StageControl control, Configuration config, PropertyStore fromStore, PropertyStore toStore )
+    {
+        super( control, "COPY", config, 1 );
+        this.copier = new PropertyChainCopier( fromStore, toStore );
+    }
+
+    @Override
+    protected void process( RECORD[] batch, BatchSender sender )
+    {
+        for ( RECORD owner : batch )
+        {
+            owner.setNextProp( copier.copy( owner.getNextProp() ) );
+        }
+        sender.send( batch );
+    }
+
+    @Override
+    public void close() throws Exception
+    {
+        copier.close();
+        super.close();
+    }
+}
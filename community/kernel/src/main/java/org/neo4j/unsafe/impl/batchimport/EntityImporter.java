@@ -126,7 +126,7 @@ abstract class EntityImporter extends InputEntityVisitor.Adapter
     private void encodeProperty( PropertyBlock block, int key, Object value )
     {
         PropertyStore.encodeValue( block, key, ValueUtils.asValue( value ), dynamicStringRecordAllocator, dynamicArrayRecordAllocator,
-                propertyStore.allowStorePointsAndTemporal() );
+                propertyStore.allowStorePointsAndTemporal(), propertyStore.stringCompression() );
     }
 
     protected long createAndWritePropertyChain()
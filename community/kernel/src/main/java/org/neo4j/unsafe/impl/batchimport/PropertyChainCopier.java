@@ -0,0 +1,140 @@
+/*
+ * Copyright (c) 2018-2020 "Graph Foundation"
+ * Graph Foundation, Inc. [https://graphfoundation.org]
+ *
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of ONgDB.
+ *
+ * ONgDB is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.unsafe.impl.batchimport;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.neo4j.io.pagecache.PageCursor;
+import org.neo4j.kernel.impl.store.PropertyStore;
+import org.neo4j.kernel.impl.store.PropertyType;
+import org.neo4j.kernel.impl.store.RecordStore;
+import org.neo4j.kernel.impl.store.record.DynamicRecord;
+import org.neo4j.kernel.impl.store.record.PropertyBlock;
+import org.neo4j.kernel.impl.store.record.PropertyRecord;
+import org.neo4j.kernel.impl.store.record.Record;
+
+import static org.neo4j.kernel.impl.store.record.RecordLoad.NORMAL;
+
+/**
+ * Copies property record chains, including their dynamic string and array records, from one {@link PropertyStore}
+ * to another. Ids in the target store are allocated in the order chains are copied, so copying chains in owner order
+ * lays out the records of each owner next to each other, and next to those of the owner copied before it.
+ * This class is not thread safe.
+ */
+class PropertyChainCopier implements AutoCloseable
+{
+    private final PropertyStore fromStore;
+    private final PropertyStore toStore;
+    private final PageCursor fromCursor;
+
+    PropertyChainCopier( PropertyStore fromStore, PropertyStore toStore )
+    {
+        this.fromStore = fromStore;
+        this.toStore = toStore;
+        this.fromCursor = fromStore.openPageCursorForReading( 0 );
+    }
+
+    /**
+     * @param firstPropertyId id of the first property record of the chain to copy, in the source store.
+     * @return id of the first property record of the copied chain, in the target store.
+     */
+    long copy( long firstPropertyId )
+    {
+        if ( Record.NO_NEXT_PROPERTY.is( firstPropertyId ) )
+        {
+            return firstPropertyId;
+        }
+
+        long firstCopiedId = Record.NO_NEXT_PROPERTY.intValue();
+        PropertyRecord previous = null;
+        long fromId = firstPropertyId;
+        while ( !Record.NO_NEXT_PROPERTY.is( fromId ) )
+        {
+            PropertyRecord record = fromStore.newRecord();
+            fromStore.getRecordByCursor( fromId, record, NORMAL, fromCursor );
+            fromStore.ensureHeavy( record );
+            fromId = record.getNextProp();
+
+            record.setId( toStore.nextId() );
+            for ( PropertyBlock block : record )
+            {
+                copyValueRecords( block );
+            }
+
+            if ( previous == null )
+            {
+                firstCopiedId = record.getId();
+                record.setPrevProp( Record.NO_PREVIOUS_PROPERTY.intValue() );
+            }
+            else
+            {
+                previous.setNextProp( record.getId() );
+                record.setPrevProp( previous.getId() );
+                write( previous );
+            }
+            previous = record;
+        }
+        previous.setNextProp( Record.NO_NEXT_PROPERTY.intValue() );
+        write( previous );
+        return firstCopiedId;
+    }
+
+    private void write( PropertyRecord record )
+    {
+        toStore.prepareForCommit( record );
+        toStore.updateRecord( record );
+    }
+
+    private void copyValueRecords( PropertyBlock block )
+    {
+        if ( block.isLight() )
+        {
+            return;
+        }
+
+        // Changing the block value clears its value records, so hold on to them while doing that
+        List<DynamicRecord> valueRecords = new ArrayList<>( block.getValueRecords() );
+        RecordStore<DynamicRecord> dynamicStore = block.getType() == PropertyType.STRING ? toStore.getStringStore() : toStore.getArrayStore();
+        DynamicRecord previous = null;
+        for ( DynamicRecord valueRecord : valueRecords )
+        {
+            valueRecord.setId( dynamicStore.nextId() );
+            valueRecord.setNextBlock( Record.NO_NEXT_BLOCK.intValue() );
+            valueRecord.setCreated();
+            if ( previous != null )
+            {
+                previous.setNextBlock( valueRecord.getId() );
+            }
+            previous = valueRecord;
+        }
+        PropertyStore.setSingleBlockValue( block, block.getKeyIndexId(), block.getType(), valueRecords.get( 0 ).getId() );
+        block.setValueRecords( valueRecords );
+    }
+
+    @Override
+    public void close()
+    {
+        fromCursor.close();
+    }
+}
@@ -0,0 +1,190 @@
+/*
+ * Copyright (c) 2018-2020 "Graph Foundation"
+ * Graph Foundation, Inc. [https://graphfoundation.org]
+ *
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of ONgDB.
+ *
+ * ONgDB is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.unsafe.impl.batchimport;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import org.neo4j.graphdb.factory.GraphDatabaseSettings;
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.fs.StoreChannel;
+import org.neo4j.io.layout.DatabaseFile;
+import org.neo4j.io.layout.DatabaseLayout;
+import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.io.pagecache.tracing.cursor.context.EmptyVersionContextSupplier;
+import org.neo4j.kernel.configuration.Config;
+import org.neo4j.kernel.configuration.Settings;
+import org.neo4j.kernel.impl.store.NeoStores;
+import org.neo4j.kernel.impl.store.PropertyStore;
+import org.neo4j.kernel.impl.store.RecordStore;
+import org.neo4j.kernel.impl.store.StoreFactory;
+import org.neo4j.kernel.impl.store.StoreType;
+import org.neo4j.kernel.impl.store.id.DefaultIdGeneratorFactory;
+import org.neo4j.kernel.impl.store.id.ReadOnlyIdGeneratorFactory;
+import org.neo4j.kernel.impl.store.record.PrimitiveRecord;
+import org.neo4j.kernel.impl.storemigration.ExistingTargetStrategy;
+import org.neo4j.kernel.impl.storemigration.FileOperation;
+import org.neo4j.logging.LogProvider;
+import org.neo4j.unsafe.impl.batchimport.staging.ExecutionMonitor;
+import org.neo4j.unsafe.impl.batchimport.staging.Stage;
+
+import static org.neo4j.stream.Streams.ofOptional;
+import static org.neo4j.unsafe.impl.batchimport.Configuration.withBatchSize;
+import static org.neo4j.unsafe.impl.batchimport.staging.ExecutionSupervisors.superviseExecution;
+
+/**
+ * Defragments the property store by copying all property chains into an empty property store, owner by owner,
+ * first graph properties, then nodes and then relationships, each in id order. Property records and dynamic string
+ * and array records of any given owner end up next to each other, and near those of owners with nearby ids,
+ * which means that reading the properties of an entity touches few pages, instead of one or more per record.
+ * <p>
+ * Like store migration, {@link #defragment(DatabaseLayout)} works on copies in a separate directory and leaves the
+ * database untouched until the copy is complete: the metadata, node and relationship stores are copied there,
+ * their records pointed to the copied property chains, and only then are the copied files moved over the files
+ * of the database. A failure while copying leaves the database as it was. A failure while moving files is resumed
+ * by running the defragmentation again, which then only moves the remaining files.
+ * This runs offline, i.e. nothing else may be using the database meanwhile.
+ */
+public class PropertyStoreDefragmenter
+{
+    static final String DEFRAGMENT_DIRECTORY = "property-defragment";
+    static final String COPY_COMPLETED_FILE = "copy-completed";
+    private static final Set<DatabaseFile> OWNER_FILES =
+            EnumSet.of( DatabaseFile.METADATA_STORE, DatabaseFile.NODE_STORE, DatabaseFile.RELATIONSHIP_STORE );
+    private static final Set<DatabaseFile> DEFRAGMENTED_FILES = EnumSet.of( DatabaseFile.METADATA_STORE, DatabaseFile.NODE_STORE,
+            DatabaseFile.RELATIONSHIP_STORE, DatabaseFile.PROPERTY_STORE, DatabaseFile.PROPERTY_STRING_STORE, DatabaseFile.PROPERTY_ARRAY_STORE );
+
+    private final FileSystemAbstraction fs;
+    private final PageCache pageCache;
+    private final Config dbConfig;
+    private final LogProvider logProvider;
+    private final Configuration config;
+    private final ExecutionMonitor executionMonitor;
+
+    public PropertyStoreDefragmenter( FileSystemAbstraction fs, PageCache pageCache, Config dbConfig, LogProvider logProvider,
+            Configuration config, ExecutionMonitor executionMonitor )
+    {
+        this.fs = fs;
+        this.pageCache = pageCache;
+        this.dbConfig = dbConfig;
+        this.logProvider = logProvider;
+        this.config = config;
+        this.executionMonitor = executionMonitor;
+    }
+
+    /**
+     * Defragments the property store of the database in the given layout, which must not be in use and must not
+     * need recovery.
+     *
+     * @param databaseLayout layout of the database to defragment.
+     * @throws IOException on failure copying or moving store files.
+     */
+    public void defragment( DatabaseLayout databaseLayout ) throws IOException
+    {
+        DatabaseLayout copyLayout = DatabaseLayout.of( databaseLayout.file( DEFRAGMENT_DIRECTORY ) );
+        File copyCompleted = copyLayout.file( COPY_COMPLETED_FILE );
+        if ( !fs.fileExists( copyCompleted ) )
+        {
+            // Anything here is left from a failed copy, which never touched the database, so start over
+            fs.deleteRecursively( copyLayout.databaseDirectory() );
+            fs.mkdirs( copyLayout.databaseDirectory() );
+            copy( databaseLayout, copyLayout );
+            try ( StoreChannel channel = fs.create( copyCompleted ) )
+            {
+                channel.force( true );
+            }
+        }
+        // From here on the copy is complete, so moving files is safe to resume after a failure
+        fileOperation( FileOperation.MOVE, copyLayout, databaseLayout, DEFRAGMENTED_FILES );
+        fs.deleteRecursively( copyLayout.databaseDirectory() );
+    }
+
+    private void copy( DatabaseLayout databaseLayout, DatabaseLayout copyLayout ) throws IOException
+    {
+        fileOperation( FileOperation.COPY, databaseLayout, copyLayout, OWNER_FILES );
+        Config readOnlyConfig = Config.builder().withSettings( dbConfig.getRaw() ).withSetting( GraphDatabaseSettings.read_only, Settings.TRUE ).build();
+        StoreFactory fromFactory = new StoreFactory( databaseLayout, readOnlyConfig, new ReadOnlyIdGeneratorFactory( fs ), pageCache, fs,
+                logProvider, EmptyVersionContextSupplier.EMPTY );
+        StoreFactory toFactory = new StoreFactory( copyLayout, dbConfig, new DefaultIdGeneratorFactory( fs ), pageCache, fs,
+                logProvider, EmptyVersionContextSupplier.EMPTY );
+        try ( NeoStores fromStores = fromFactory.openNeoStores( StoreType.META_DATA, StoreType.NODE, StoreType.RELATIONSHIP, StoreType.PROPERTY );
+              NeoStores toStores = toFactory.openNeoStores( true, StoreType.META_DATA, StoreType.NODE, StoreType.RELATIONSHIP, StoreType.PROPERTY ) )
+        {
+            run( fromStores, toStores );
+        }
+    }
+
+    /**
+     * Copies all property chains of the property store of {@code fromStores} into the empty property store of
+     * {@code toStores}, and writes the graph property, node and relationship records of {@code fromStores},
+     * pointed to their copied chains, to the corresponding stores of {@code toStores}. {@code fromStores}
+     * is only read from.
+     *
+     * @param fromStores stores with the property store to defragment, and the stores owning its property chains.
+     * @param toStores stores to write copied property chains and owners into, with an empty property store.
+     */
+    public void run( NeoStores fromStores, NeoStores toStores )
+    {
+        PropertyStore fromStore = fromStores.getPropertyStore();
+        PropertyStore toStore = toStores.getPropertyStore();
+        try ( PropertyChainCopier copier = new PropertyChainCopier( fromStore, toStore ) )
+        {
+            toStores.getMetaDataStore().setGraphNextProp( copier.copy( fromStores.getMetaDataStore().getGraphNextProp() ) );
+        }
+
+        copyOwners( fromStores.getNodeStore(), toStores.getNodeStore(), fromStore, toStore );
+        copyOwners( fromStores.getRelationshipStore(), toStores.getRelationshipStore(), fromStore, toStore );
+    }
+
+    private <RECORD extends PrimitiveRecord> void copyOwners( RecordStore<RECORD> fromOwnerStore, RecordStore<RECORD> toOwnerStore,
+            PropertyStore fromStore, PropertyStore toStore )
+    {
+        toOwnerStore.setHighestPossibleIdInUse(
+                Math.max( toOwnerStore.getHighestPossibleIdInUse(), fromOwnerStore.getHighestPossibleIdInUse() ) );
+        executeStage( new CopyPropertyChainsStage<>( withBatchSize( config, fromOwnerStore.getRecordsPerPage() ),
+                fromOwnerStore, toOwnerStore, fromStore, toStore ) );
+    }
+
+    private void fileOperation( FileOperation operation, DatabaseLayout fromLayout, DatabaseLayout toLayout, Set<DatabaseFile> databaseFiles )
+            throws IOException
+    {
+        for ( DatabaseFile databaseFile : databaseFiles )
+        {
+            File[] files = Stream.concat( fromLayout.file( databaseFile ), ofOptional( fromLayout.idFile( databaseFile ) ) ).toArray( File[]::new );
+            for ( File file : files )
+            {
+                // Skipping missing files makes moving resumable, files moved before a failure are simply not there anymore
+                operation.perform( fs, file.getName(), fromLayout.databaseDirectory(), true, toLayout.databaseDirectory(),
+                        ExistingTargetStrategy.OVERWRITE );
+            }
+        }
+    }
+
+    private void executeStage( Stage stage )
+    {
+        superviseExecution( executionMonitor, stage );
+    }
+}
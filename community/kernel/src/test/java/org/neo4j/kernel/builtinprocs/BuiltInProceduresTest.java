@@ -39,6 +39,7 @@ import org.neo4j.graphdb.DependencyResolver;
 import org.neo4j.graphdb.Node;
 import org.neo4j.graphdb.Path;
 import org.neo4j.graphdb.Relationship;
+import org.neo4j.graphdb.spatial.Point;
 import org.neo4j.helpers.collection.Iterators;
 import org.neo4j.helpers.collection.MapUtil;
 import org.neo4j.internal.kernel.api.IndexReference;
@@ -86,6 +87,7 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.neo4j.internal.kernel.api.procs.Neo4jTypes.NTNode;
 import static org.neo4j.internal.kernel.api.procs.Neo4jTypes.NTPath;
+import static org.neo4j.internal.kernel.api.procs.Neo4jTypes.NTPoint;
 import static org.neo4j.internal.kernel.api.procs.Neo4jTypes.NTRelationship;
 import static org.neo4j.kernel.api.index.IndexProvider.EMPTY;
 import static org.neo4j.kernel.api.proc.Context.KERNEL_TRANSACTION;
@@ -133,6 +135,7 @@ public class BuiltInProceduresTest
         procs.registerType( Node.class, NTNode );
         procs.registerType( Relationship.class, NTRelationship );
         procs.registerType( Path.class, NTPath );
+        procs.registerType( Point.class, NTPoint );
 
         new SpecialBuiltInProcedures( "1.3.37", Edition.enterprise.toString() ).accept( procs );
         procs.registerProcedure( BuiltInProcedures.class );
@@ -309,6 +312,10 @@ public class BuiltInProceduresTest
                         "Schedule resampling of an index (for example: CALL db.resampleIndex(\":Person(name)\")).", "READ" ),
                 record( "db.resampleOutdatedIndexes", "db.resampleOutdatedIndexes() :: VOID",
                         "Schedule resampling of all outdated indexes.", "READ" ),
+                record( "db.index.nearestNeighbours",
+                        "db.index.nearestNeighbours(index :: STRING?, point :: POINT?, k :: INTEGER?) :: (node :: NODE?, weight :: FLOAT?)",
+                        "Find the nodes with the points closest to a point, closest first, using a native index on a point property " +
+                                "(for example: CALL db.index.nearestNeighbours(\":Place(location)\", point({x: 1.0, y: 2.0}), 10)).", "READ" ),
                 record( "db.schema",
                         "db.schema() :: (nodes :: LIST? OF NODE?, relationships :: LIST? OF RELATIONSHIP?)",
                         "Show the schema of the data.", "READ" ),
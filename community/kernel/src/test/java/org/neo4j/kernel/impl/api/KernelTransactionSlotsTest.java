@@ -0,0 +1,167 @@
+/*
+ * Copyright (c) 2018-2020 "Graph Foundation"
+ * Graph Foundation, Inc. [https://graphfoundation.org]
+ *
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of ONgDB.
+ *
+ * ONgDB is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.api;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.util.Collections.emptySet;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.neo4j.kernel.impl.api.KernelTransactionSlots.NO_ACTIVE_TRANSACTION;
+import static org.neo4j.kernel.impl.api.KernelTransactionSlots.NO_SLOT;
+
+public class KernelTransactionSlotsTest
+{
+    private final KernelTransactionSlots slots = new KernelTransactionSlots( 4 );
+
+    @Test
+    public void shouldRegisterTransactionsUntilFull()
+    {
+        // GIVEN
+        List<Integer> registered = new ArrayList<>();
+        for ( int i = 0; i < slots.capacity(); i++ )
+        {
+            KernelTransactionImplementation tx = mock( KernelTransactionImplementation.class );
+            int slot = slots.register( tx );
+            assertNotEquals( NO_SLOT, slot );
+            assertSame( tx, slots.transaction( slot ) );
+            registered.add( slot );
+        }
+
+        // WHEN
+        int overflow = slots.register( mock( KernelTransactionImplementation.class ) );
+
+        // THEN
+        assertEquals( NO_SLOT, overflow );
+
+        // WHEN
+        int freed = registered.get( 2 );
+        slots.unregister( freed );
+
+        // THEN
+        assertNull( slots.transaction( freed ) );
+        assertEquals( freed, slots.register( mock( KernelTransactionImplementation.class ) ) );
+    }
+
+    @Test
+    public void shouldChangeSequenceOnOpenAndClose()
+    {
+        // GIVEN
+        int slot = slots.register( mock( KernelTransactionImplementation.class ) );
+        long idleSequence = slots.sequence( slot );
+        assertFalse( KernelTransactionSlots.isOpen( idleSequence ) );
+
+        // WHEN
+        slots.opened( slot, 10 );
+
+        // THEN
+        long openSequence = slots.sequence( slot );
+        assertTrue( KernelTransactionSlots.isOpen( openSequence ) );
+
+        // WHEN
+        slots.closed( slot );
+        slots.opened( slot, 11 );
+
+        // THEN the same instance opened again is distinguishable from the first opening
+        assertTrue( KernelTransactionSlots.isOpen( slots.sequence( slot ) ) );
+        assertNotEquals( openSequence, slots.sequence( slot ) );
+    }
+
+    @Test
+    public void shouldTrackOldestActiveTransactionStartId()
+    {
+        // GIVEN
+        int first = slots.register( mock( KernelTransactionImplementation.class ) );
+        int second = slots.register( mock( KernelTransactionImplementation.class ) );
+        int third = slots.register( mock( KernelTransactionImplementation.class ) );
+        assertEquals( NO_ACTIVE_TRANSACTION, slots.oldestActiveTransactionStartId() );
+
+        // WHEN
+        slots.opened( first, 15 );
+        slots.opened( second, 12 );
+        slots.opened( third, 20 );
+
+        // THEN
+        assertEquals( 12, slots.oldestActiveTransactionStartId() );
+
+        // WHEN
+        slots.closed( second );
+
+        // THEN
+        assertEquals( 15, slots.oldestActiveTransactionStartId() );
+
+        // WHEN
+        slots.closed( first );
+        slots.closed( third );
+
+        // THEN
+        assertEquals( NO_ACTIVE_TRANSACTION, slots.oldestActiveTransactionStartId() );
+    }
+
+    @Test
+    public void snapshotShouldSeeReusedSlotAsClosed()
+    {
+        // GIVEN
+        int slot = slots.register( mock( KernelTransactionImplementation.class ) );
+        slots.opened( slot, 1 );
+        KernelTransactionsSnapshot snapshot = new KernelTransactionsSnapshot( slots, 1, emptySet(), 0 );
+        assertFalse( snapshot.allClosed() );
+
+        // WHEN
+        slots.closed( slot );
+        slots.opened( slot, 2 );
+
+        // THEN
+        assertTrue( snapshot.allClosed() );
+    }
+
+    @Test
+    public void snapshotShouldWaitForTransactionsStartedBeforeLastCommittedTransaction()
+    {
+        // GIVEN
+        int older = slots.register( mock( KernelTransactionImplementation.class ) );
+        int newer = slots.register( mock( KernelTransactionImplementation.class ) );
+        slots.opened( older, 3 );
+        KernelTransactionsSnapshot snapshot = new KernelTransactionsSnapshot( slots, 5, emptySet(), 0 );
+
+        // WHEN a transaction starting after the snapshot is open
+        slots.opened( newer, 5 );
+
+        // THEN
+        assertFalse( snapshot.allClosed() );
+
+        // WHEN
+        slots.closed( older );
+
+        // THEN
+        assertTrue( snapshot.allClosed() );
+    }
+}
@@ -242,6 +242,26 @@ public class KernelTransactionsTest
         assertTrue( snapshot.allClosed() );
     }
 
+    @Test
+    public void shouldTrackOldestActiveTransactionStartId() throws Throwable
+    {
+        // GIVEN
+        KernelTransactions transactions = newKernelTransactions();
+        assertEquals( Long.MAX_VALUE, transactions.oldestActiveTransactionStartId() );
+
+        // WHEN
+        KernelTransaction a = getKernelTransaction( transactions );
+
+        // THEN
+        assertEquals( 0, transactions.oldestActiveTransactionStartId() );
+
+        // WHEN
+        a.close();
+
+        // THEN
+        assertEquals( Long.MAX_VALUE, transactions.oldestActiveTransactionStartId() );
+    }
+
     @Test
     public void shouldBeAbleToSnapshotDuringHeavyLoad() throws Throwable
     {
@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2018-2020 "Graph Foundation"
+ * Graph Foundation, Inc. [https://graphfoundation.org]
+ *
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of ONgDB.
+ *
+ * ONgDB is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.api.index.sampling;
+
+import org.junit.Test;
+
+import org.neo4j.hashing.HashFunction;
+
+import static org.junit.Assert.assertEquals;
+
+public class HyperLogLogTest
+{
+    private final HashFunction hashFunction = HashFunction.incrementalXXH64();
+
+    @Test
+    public void shouldEstimateNothing()
+    {
+        assertEquals( 0, new HyperLogLog().estimate() );
+    }
+
+    @Test
+    public void shouldEstimateSmallCardinalitiesClosely()
+    {
+        // given
+        HyperLogLog sketch = new HyperLogLog();
+
+        // when
+        addDistinct( sketch, 0, 100 );
+
+        // then
+        assertEquals( 100, sketch.estimate(), 2 );
+    }
+
+    @Test
+    public void shouldNotCountDuplicates()
+    {
+        // given
+        HyperLogLog sketch = new HyperLogLog();
+
+        // when
+        for ( int i = 0; i < 10; i++ )
+        {
+            addDistinct( sketch, 0, 1_000 );
+        }
+
+        // then
+        assertEquals( 1_000, sketch.estimate(), 20 );
+    }
+
+    @Test
+    public void shouldEstimateLargeCardinalitiesWithinFewPercent()
+    {
+        // given
+        HyperLogLog sketch = new HyperLogLog();
+
+        // when
+        addDistinct( sketch, 0, 1_000_000 );
+
+        // then
+        assertEquals( 1_000_000, sketch.estimate(), 30_000 );
+    }
+
+    @Test
+    public void shouldEstimateUnionOfMergedSketches()
+    {
+        // given
+        HyperLogLog first = new HyperLogLog();
+        HyperLogLog second = new HyperLogLog();
+        addDistinct( first, 0, 60_000 );
+        addDistinct( second, 40_000, 100_000 );
+
+        // when
+        first.merge( second );
+
+        // then
+        assertEquals( 100_000, first.estimate(), 3_000 );
+    }
+
+    @Test( expected = IllegalArgumentException.class )
+    public void shouldNotMergeSketchesOfDifferentPrecision()
+    {
+        new HyperLogLog( 12 ).merge( new HyperLogLog( 14 ) );
+    }
+
+    private void addDistinct( HyperLogLog sketch, long from, long to )
+    {
+        for ( long i = from; i < to; i++ )
+        {
+            sketch.add( hashFunction.hashSingleValue( i ) );
+        }
+    }
+}
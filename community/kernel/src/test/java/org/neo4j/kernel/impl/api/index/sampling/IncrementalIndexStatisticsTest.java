@@ -0,0 +1,141 @@
+/*
+ * Copyright (c) 2018-2020 "Graph Foundation"
+ * Graph Foundation, Inc. [https://graphfoundation.org]
+ *
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of ONgDB.
+ *
+ * ONgDB is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.api.index.sampling;
+
+import org.junit.Test;
+
+import org.neo4j.storageengine.api.schema.IndexSample;
+import org.neo4j.values.storable.Value;
+import org.neo4j.values.storable.Values;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class IncrementalIndexStatisticsTest
+{
+    private final IncrementalIndexStatistics statistics = new IncrementalIndexStatistics();
+
+    @Test
+    public void shouldNeedFullSamplingUntilSeeded()
+    {
+        // when
+        statistics.include( values( "a" ) );
+
+        // then
+        assertFalse( statistics.isSeeded() );
+        assertTrue( statistics.needsFullSampling( 0.1 ) );
+        assertNull( statistics.currentSample() );
+    }
+
+    @Test
+    public void shouldEstimateDistinctValuesFromSampleAndUpdates()
+    {
+        // given
+        HyperLogLog sampled = statistics.startSampling();
+        for ( int i = 0; i < 100; i++ )
+        {
+            sampled.add( IncrementalIndexStatistics.hash( values( i % 10 ) ) );
+        }
+        statistics.completeSampling( sampled, 100 );
+
+        // when
+        for ( int i = 10; i < 20; i++ )
+        {
+            statistics.include( values( i ) );
+        }
+        statistics.include( values( 0 ) );
+
+        // then
+        IndexSample sample = statistics.currentSample();
+        assertEquals( 111, sample.indexSize() );
+        assertEquals( 20, sample.uniqueValues() );
+        assertEquals( 111, sample.sampleSize() );
+        assertFalse( statistics.needsFullSampling( 0.1 ) );
+    }
+
+    @Test
+    public void shouldIncludeUpdatesAppliedWhileSampling()
+    {
+        // given
+        HyperLogLog sampled = statistics.startSampling();
+        sampled.add( IncrementalIndexStatistics.hash( values( "a" ) ) );
+
+        // when
+        statistics.include( values( "b" ) );
+        statistics.completeSampling( sampled, 2 );
+
+        // then
+        assertEquals( 2, statistics.currentSample().uniqueValues() );
+    }
+
+    @Test
+    public void shouldNeedFullSamplingWhenRemovalsExceedUpdateRatio()
+    {
+        // given
+        HyperLogLog sampled = statistics.startSampling();
+        for ( int i = 0; i < 100; i++ )
+        {
+            sampled.add( IncrementalIndexStatistics.hash( values( i ) ) );
+        }
+        statistics.completeSampling( sampled, 100 );
+
+        // when
+        for ( int i = 0; i < 9; i++ )
+        {
+            statistics.exclude();
+        }
+
+        // then
+        assertFalse( statistics.needsFullSampling( 0.1 ) );
+        statistics.exclude();
+        assertTrue( statistics.needsFullSampling( 0.1 ) );
+    }
+
+    @Test
+    public void shouldStayUnseededWhenSamplingIsAborted()
+    {
+        // given
+        HyperLogLog sampled = statistics.startSampling();
+
+        // when
+        statistics.abortSampling();
+        statistics.completeSampling( sampled, 0 );
+
+        // then
+        assertFalse( statistics.isSeeded() );
+    }
+
+    @Test
+    public void shouldHashSingleValuesLikeTheValueItself()
+    {
+        Value value = Values.stringValue( "a" );
+        assertEquals( value.hashCode64(), IncrementalIndexStatistics.hash( new Value[]{value} ) );
+    }
+
+    private static Value[] values( Object value )
+    {
+        return new Value[]{Values.of( value )};
+    }
+}
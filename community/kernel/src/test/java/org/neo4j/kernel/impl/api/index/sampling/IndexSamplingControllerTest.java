@@ -27,22 +27,36 @@ import org.junit.Test;
 
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongConsumer;
 
 import org.neo4j.function.Predicates;
+import org.neo4j.internal.kernel.api.exceptions.schema.IndexNotFoundKernelException;
 import org.neo4j.kernel.impl.api.index.IndexMap;
 import org.neo4j.kernel.impl.api.index.IndexMapSnapshotProvider;
 import org.neo4j.kernel.impl.api.index.IndexProxy;
+import org.neo4j.kernel.impl.api.index.IndexStoreView;
 import org.neo4j.logging.AssertableLogProvider;
 import org.neo4j.logging.LogProvider;
+import org.neo4j.register.Register.DoubleLongRegister;
+import org.neo4j.scheduler.Group;
 import org.neo4j.scheduler.JobHandle;
 import org.neo4j.scheduler.JobScheduler;
 import org.neo4j.storageengine.api.schema.CapableIndexDescriptor;
+import org.neo4j.storageengine.api.schema.IndexReader;
+import org.neo4j.storageengine.api.schema.IndexSample;
+import org.neo4j.storageengine.api.schema.IndexSampler;
 import org.neo4j.storageengine.api.schema.StoreIndexDescriptor;
 import org.neo4j.test.DoubleLatch;
 import org.neo4j.util.FeatureToggles;
+import org.neo4j.values.storable.Value;
+import org.neo4j.values.storable.Values;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
@@ -52,9 +66,11 @@ import static org.mockito.Mockito.when;
 import static org.neo4j.internal.kernel.api.InternalIndexState.FAILED;
 import static org.neo4j.internal.kernel.api.InternalIndexState.ONLINE;
 import static org.neo4j.internal.kernel.api.InternalIndexState.POPULATING;
+import static org.neo4j.internal.kernel.api.schema.SchemaUtil.idTokenNameLookup;
 import static org.neo4j.kernel.api.schema.SchemaDescriptorFactory.forLabel;
 import static org.neo4j.kernel.impl.api.index.TestIndexProviderDescriptor.PROVIDER_DESCRIPTOR;
 import static org.neo4j.kernel.impl.api.index.sampling.IndexSamplingMode.BACKGROUND_REBUILD_UPDATED;
+import static org.neo4j.kernel.impl.api.index.sampling.IndexSamplingMode.TRIGGER_REBUILD_ALL;
 import static org.neo4j.kernel.impl.api.index.sampling.IndexSamplingMode.TRIGGER_REBUILD_UPDATED;
 import static org.neo4j.storageengine.api.schema.IndexDescriptorFactory.forSchema;
 
@@ -499,6 +515,151 @@ public class IndexSamplingControllerTest
         }
     }
 
+    @Test
+    public void shouldPublishIncrementalEstimateInsteadOfScanningSeededIndex() throws Exception
+    {
+        // given
+        IncrementalIndexSampling incrementalSampling = new IncrementalIndexSampling();
+        seed( incrementalSampling.newStatistics( indexId ), 100, 10 );
+        IndexStoreView storeView = storeViewWithUpdatesAndSize( 5, 100 );
+        IndexSamplingController controller = newIncrementalSamplingController( storeView, incrementalSampling, 0.1 );
+        when( indexProxy.getState() ).thenReturn( ONLINE );
+
+        // when
+        controller.sampleIndexes( BACKGROUND_REBUILD_UPDATED );
+
+        // then
+        verify( storeView ).replaceIndexCounts( indexId, 10, 100, 100 );
+        verify( indexProxy, never() ).newReader();
+    }
+
+    @Test
+    public void shouldScanSeededIndexWhenSamplingIsForced() throws Exception
+    {
+        // given
+        IncrementalIndexSampling incrementalSampling = new IncrementalIndexSampling();
+        IncrementalIndexStatistics statistics = incrementalSampling.newStatistics( indexId );
+        seed( statistics, 100, 10 );
+        IndexStoreView storeView = storeViewWithUpdatesAndSize( 0, 100 );
+        IndexSamplingController controller = newIncrementalSamplingController( storeView, incrementalSampling, 0.1 );
+        when( indexProxy.getState() ).thenReturn( ONLINE );
+        IndexSampler sampler = samplerOf( indexProxy );
+        when( sampler.sampleIndex( any( LongConsumer.class ) ) ).thenReturn( new IndexSample( 120, 12, 120 ) );
+
+        // when
+        controller.sampleIndexes( TRIGGER_REBUILD_ALL );
+
+        // then
+        verify( sampler ).sampleIndex( any( LongConsumer.class ) );
+        verify( storeView ).replaceIndexCounts( indexId, 12, 120, 120 );
+        assertFalse( statistics.needsFullSampling( 0.1 ) );
+    }
+
+    @Test
+    public void shouldSeedUnseededStatisticsByFullSamplingEvenWithoutUpdates() throws Exception
+    {
+        // given statistics that aren't seeded yet, like after a restart
+        IncrementalIndexSampling incrementalSampling = new IncrementalIndexSampling();
+        IncrementalIndexStatistics statistics = incrementalSampling.newStatistics( indexId );
+        IndexStoreView storeView = storeViewWithUpdatesAndSize( 0, 100 );
+        IndexSamplingController controller = newIncrementalSamplingController( storeView, incrementalSampling, 0.1 );
+        when( indexProxy.getState() ).thenReturn( ONLINE );
+        IndexSampler sampler = samplerOf( indexProxy );
+        when( sampler.sampleIndex( any( LongConsumer.class ) ) ).thenReturn( new IndexSample( 100, 10, 100 ) );
+
+        // when
+        controller.sampleIndexes( BACKGROUND_REBUILD_UPDATED );
+
+        // then
+        verify( storeView ).replaceIndexCounts( indexId, 10, 100, 100 );
+        assertTrue( statistics.isSeeded() );
+    }
+
+    @Test
+    public void shouldFallBackToUpdateRatioForIndexesNotSupportingIncrementalSampling() throws Exception
+    {
+        // given
+        IncrementalIndexSampling incrementalSampling = new IncrementalIndexSampling();
+        IncrementalIndexStatistics statistics = incrementalSampling.newStatistics( indexId );
+        IndexStoreView storeView = storeViewWithUpdatesAndSize( 0, 100 );
+        IndexSamplingController controller = newIncrementalSamplingController( storeView, incrementalSampling, 0.1 );
+        when( indexProxy.getState() ).thenReturn( ONLINE );
+        IndexSampler sampler = samplerOf( indexProxy );
+        when( sampler.sampleIndex() ).thenReturn( new IndexSample( 100, 10, 100 ) );
+        controller.sampleIndexes( BACKGROUND_REBUILD_UPDATED );
+        assertFalse( statistics.isSupported() );
+
+        // when
+        controller.sampleIndexes( BACKGROUND_REBUILD_UPDATED );
+
+        // then only the first round sampled the index, since there are too few updates
+        verify( indexProxy, times( 1 ) ).newReader();
+    }
+
+    @Test
+    public void shouldNotTrackStatisticsWhenIncrementalSamplingIsDisabled() throws Exception
+    {
+        // given
+        IncrementalIndexSampling incrementalSampling = new IncrementalIndexSampling( false );
+        assertNull( incrementalSampling.newStatistics( indexId ) );
+        IndexStoreView storeView = storeViewWithUpdatesAndSize( 5, 100 );
+        IndexSamplingController controller = newIncrementalSamplingController( storeView, incrementalSampling, 0.1 );
+        when( indexProxy.getState() ).thenReturn( ONLINE );
+
+        // when
+        controller.sampleIndexes( BACKGROUND_REBUILD_UPDATED );
+
+        // then
+        verify( indexProxy, never() ).newReader();
+        verify( storeView, never() ).replaceIndexCounts( anyLong(), anyLong(), anyLong(), anyLong() );
+    }
+
+    private IndexSamplingController newIncrementalSamplingController( IndexStoreView storeView,
+            IncrementalIndexSampling incrementalSampling, double updateRatio )
+    {
+        // Run the sampling jobs right away, on the calling thread
+        JobScheduler scheduler = mock( JobScheduler.class );
+        when( scheduler.schedule( any( Group.class ), any( Runnable.class ) ) ).thenAnswer( invocation ->
+        {
+            invocation.<Runnable>getArgument( 1 ).run();
+            return JobHandle.nullInstance;
+        } );
+        IndexSamplingConfig config = new IndexSamplingConfig( 1000, updateRatio, true );
+        return new IndexSamplingControllerFactory( config, storeView, scheduler, idTokenNameLookup, logProvider, incrementalSampling )
+                .create( snapshotProvider );
+    }
+
+    private static IndexStoreView storeViewWithUpdatesAndSize( long updates, long size )
+    {
+        IndexStoreView storeView = mock( IndexStoreView.class );
+        when( storeView.indexUpdatesAndSize( anyLong(), any( DoubleLongRegister.class ) ) ).thenAnswer( invocation ->
+        {
+            DoubleLongRegister output = invocation.getArgument( 1 );
+            output.write( updates, size );
+            return output;
+        } );
+        return storeView;
+    }
+
+    private static IndexSampler samplerOf( IndexProxy indexProxy ) throws IndexNotFoundKernelException
+    {
+        IndexReader reader = mock( IndexReader.class );
+        IndexSampler sampler = mock( IndexSampler.class );
+        when( indexProxy.newReader() ).thenReturn( reader );
+        when( reader.createSampler() ).thenReturn( sampler );
+        return sampler;
+    }
+
+    private static void seed( IncrementalIndexStatistics statistics, int size, int distinctValues )
+    {
+        HyperLogLog sketch = statistics.startSampling();
+        for ( int i = 0; i < size; i++ )
+        {
+            sketch.add( IncrementalIndexStatistics.hash( new Value[]{Values.intValue( i % distinctValues )} ) );
+        }
+        statistics.completeSampling( sketch, size );
+    }
+
     private IndexSamplingController.RecoveryCondition always( boolean ans )
     {
         return new Always( ans );
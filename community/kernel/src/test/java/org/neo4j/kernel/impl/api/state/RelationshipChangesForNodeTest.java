@@ -24,25 +24,40 @@ package org.neo4j.kernel.impl.api.state;
 
 import org.eclipse.collections.api.iterator.LongIterator;
 import org.hamcrest.Matcher;
+import org.junit.AfterClass;
 import org.junit.Test;
 
 import org.neo4j.collection.PrimitiveLongCollections;
+import org.neo4j.kernel.impl.util.collection.CachingOffHeapBlockAllocator;
+import org.neo4j.kernel.impl.util.collection.CollectionsFactory;
+import org.neo4j.kernel.impl.util.collection.OffHeapCollectionsFactory;
+import org.neo4j.kernel.impl.util.collection.OnHeapCollectionsFactory;
 import org.neo4j.storageengine.api.RelationshipDirection;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 import static org.neo4j.storageengine.api.RelationshipDirection.INCOMING;
 import static org.neo4j.storageengine.api.RelationshipDirection.LOOP;
 import static org.neo4j.storageengine.api.RelationshipDirection.OUTGOING;
 
 public class RelationshipChangesForNodeTest
 {
+    private static final CachingOffHeapBlockAllocator BLOCK_ALLOCATOR = new CachingOffHeapBlockAllocator();
+
+    @AfterClass
+    public static void afterAll()
+    {
+        BLOCK_ALLOCATOR.release();
+    }
 
     @Test
     public void shouldGetRelationships()
     {
         RelationshipChangesForNode changes = new RelationshipChangesForNode(
-                RelationshipChangesForNode.DiffStrategy.ADD );
+                RelationshipChangesForNode.DiffStrategy.ADD, OnHeapCollectionsFactory.INSTANCE );
 
         final int TYPE = 2;
 
@@ -61,7 +76,7 @@ public class RelationshipChangesForNodeTest
     public void shouldGetRelationshipsByTypeAndDirection()
     {
         RelationshipChangesForNode changes = new RelationshipChangesForNode(
-                RelationshipChangesForNode.DiffStrategy.ADD );
+                RelationshipChangesForNode.DiffStrategy.ADD, OnHeapCollectionsFactory.INSTANCE );
 
         final int TYPE = 2;
         final int DECOY_TYPE = 666;
@@ -90,6 +105,30 @@ public class RelationshipChangesForNodeTest
         assertThat( PrimitiveLongCollections.asArray( rawLoops ), ids( 4, 5, 6 ) );
     }
 
+    @Test
+    public void shouldKeepRelationshipsOffHeapAndReleaseThem()
+    {
+        CollectionsFactory collectionsFactory = new OffHeapCollectionsFactory( BLOCK_ALLOCATOR );
+        RelationshipChangesForNode changes = new RelationshipChangesForNode(
+                RelationshipChangesForNode.DiffStrategy.ADD, collectionsFactory );
+
+        final int TYPE = 2;
+
+        changes.addRelationship( 1, TYPE, INCOMING );
+        changes.addRelationship( 2, TYPE, OUTGOING );
+        changes.addRelationship( 3, TYPE, LOOP );
+        assertTrue( collectionsFactory.getMemoryTracker().usedDirectMemory() > 0 );
+
+        assertTrue( changes.removeRelationship( 2, TYPE, OUTGOING ) );
+        assertFalse( changes.removeRelationship( 2, TYPE, OUTGOING ) );
+        assertEquals( 10, changes.augmentDegree( OUTGOING, 10, TYPE ) );
+        assertEquals( 11, changes.augmentDegree( INCOMING, 10, TYPE ) );
+        assertThat( PrimitiveLongCollections.asArray( changes.getRelationships() ), ids( 1, 3 ) );
+
+        collectionsFactory.release();
+        assertEquals( 0, collectionsFactory.getMemoryTracker().usedDirectMemory() );
+    }
+
     private Matcher<long[]> ids( long... ids )
     {
         return equalTo( ids );
@@ -0,0 +1,256 @@
+/*
+ * Copyright (c) 2018-2020 "Graph Foundation"
+ * Graph Foundation, Inc. [https://graphfoundation.org]
+ *
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of ONgDB.
+ *
+ * ONgDB is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.index.labelscan;
+
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import org.neo4j.collection.PrimitiveLongCollections;
+import org.neo4j.collection.PrimitiveLongResourceIterator;
+import org.neo4j.cursor.RawCursor;
+import org.neo4j.index.internal.gbptree.Hit;
+import org.neo4j.test.rule.RandomRule;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.neo4j.kernel.impl.index.labelscan.LabelScanValue.RANGE_SIZE;
+import static org.neo4j.storageengine.api.schema.LabelScanReader.NO_ID;
+
+public class BitSetMergingLabelScanValueIteratorTest
+{
+    @Rule
+    public final RandomRule random = new RandomRule();
+
+    private final Map<Integer,TreeMap<Long,Long>> store = new HashMap<>();
+    private final Set<RawCursor<Hit<LabelScanKey,LabelScanValue>,IOException>> openCursors = new HashSet<>();
+    private int seeks;
+
+    @Test
+    public void shouldIntersectLabelsRangeByRange()
+    {
+        // given
+        add( 0, 1, 2, 3, 64, 130, 200 );
+        add( 1, 2, 3, 65, 130, 131, 201 );
+
+        // when
+        long[] result = asArray( 0, true, NO_ID, 1 );
+
+        // then
+        assertArrayEquals( new long[]{2, 3, 130}, result );
+        assertTrue( openCursors.isEmpty() );
+    }
+
+    @Test
+    public void shouldUnionLabelsRangeByRangeWithoutDuplicates()
+    {
+        // given
+        add( 0, 1, 2, 200 );
+        add( 1, 2, 3, 65 );
+        add( 2, 3, 1000 );
+
+        // when
+        long[] result = asArray( 0, false, NO_ID, 1, 2 );
+
+        // then
+        assertArrayEquals( new long[]{1, 2, 3, 65, 200, 1000}, result );
+        assertTrue( openCursors.isEmpty() );
+    }
+
+    @Test
+    public void shouldStartUnionAfterFromId()
+    {
+        // given
+        add( 0, 1, 2, 70, 75 );
+        add( 1, 3, 72, 300 );
+
+        // when
+        long[] result = asArray( 0, false, 72, 1 );
+
+        // then
+        assertArrayEquals( new long[]{75, 300}, result );
+    }
+
+    @Test
+    public void shouldFindNothingForNoLabelsOrMissingLabel()
+    {
+        // given
+        add( 0, 1, 2, 3 );
+
+        // then
+        assertEquals( 0, asArray( new int[0], true, NO_ID ).length );
+        assertEquals( 0, asArray( new int[0], false, NO_ID ).length );
+        assertEquals( 0, asArray( 0, true, NO_ID, 1 ).length );
+        assertTrue( openCursors.isEmpty() );
+    }
+
+    @Test
+    public void shouldReseekInsteadOfScanningOverRangesAbsentInOtherLabel()
+    {
+        // given a dense label and a label only present far into the dense one
+        long[] dense = new long[10_000];
+        for ( int i = 0; i < dense.length; i++ )
+        {
+            dense[i] = i * RANGE_SIZE;
+        }
+        add( 0, dense );
+        add( 1, 5_000 * RANGE_SIZE, 9_000 * RANGE_SIZE + 1 );
+
+        // when
+        long[] result = asArray( 0, true, NO_ID, 1 );
+
+        // then
+        assertArrayEquals( new long[]{5_000 * RANGE_SIZE}, result );
+        assertTrue( "Expected few seeks, but was " + seeks, seeks <= 4 );
+    }
+
+    @Test
+    public void shouldMatchNaiveIntersectionAndUnionOfRandomLabels()
+    {
+        for ( int round = 0; round < 20; round++ )
+        {
+            // given
+            store.clear();
+            int labelCount = random.nextInt( 1, 4 );
+            int[] labelIds = new int[labelCount];
+            Set<Long> union = new TreeSet<>();
+            Set<Long> intersection = null;
+            for ( int label = 0; label < labelCount; label++ )
+            {
+                labelIds[label] = label;
+                Set<Long> nodes = new TreeSet<>();
+                int count = random.nextInt( 1000 );
+                double density = random.nextDouble();
+                for ( int i = 0; i < count; i++ )
+                {
+                    nodes.add( (long) random.nextInt( (int) (100 + 100_000 * density) ) );
+                }
+                add( label, nodes.stream().mapToLong( Long::longValue ).toArray() );
+                union.addAll( nodes );
+                if ( intersection == null )
+                {
+                    intersection = new TreeSet<>( nodes );
+                }
+                else
+                {
+                    intersection.retainAll( nodes );
+                }
+            }
+
+            // then
+            assertArrayEquals( intersection.stream().mapToLong( Long::longValue ).toArray(), asArray( labelIds, true, NO_ID ) );
+            assertArrayEquals( union.stream().mapToLong( Long::longValue ).toArray(), asArray( labelIds, false, NO_ID ) );
+            assertTrue( openCursors.isEmpty() );
+        }
+    }
+
+    @Test
+    public void shouldCloseCursorsWhenClosedBeforeExhausted()
+    {
+        // given
+        add( 0, 1, 2, 3 );
+        add( 1, 1, 2, 3 );
+        PrimitiveLongResourceIterator iterator = iterator( new int[]{0, 1}, true, NO_ID );
+        assertTrue( iterator.hasNext() );
+        assertFalse( openCursors.isEmpty() );
+
+        // when
+        iterator.close();
+
+        // then
+        assertTrue( openCursors.isEmpty() );
+    }
+
+    private long[] asArray( int firstLabelId, boolean intersection, long fromId, int... otherLabelIds )
+    {
+        int[] labelIds = new int[otherLabelIds.length + 1];
+        labelIds[0] = firstLabelId;
+        System.arraycopy( otherLabelIds, 0, labelIds, 1, otherLabelIds.length );
+        return asArray( labelIds, intersection, fromId );
+    }
+
+    private long[] asArray( int[] labelIds, boolean intersection, long fromId )
+    {
+        return PrimitiveLongCollections.asArray( iterator( labelIds, intersection, fromId ) );
+    }
+
+    private PrimitiveLongResourceIterator iterator( int[] labelIds, boolean intersection, long fromId )
+    {
+        return new BitSetMergingLabelScanValueIterator( labelIds, intersection, fromId, this::seek, openCursors );
+    }
+
+    private void add( int labelId, long... nodeIds )
+    {
+        TreeMap<Long,Long> ranges = store.computeIfAbsent( labelId, id -> new TreeMap<>() );
+        for ( long nodeId : nodeIds )
+        {
+            ranges.merge( nodeId / RANGE_SIZE, 1L << (nodeId % RANGE_SIZE), ( a, b ) -> a | b );
+        }
+    }
+
+    private RawCursor<Hit<LabelScanKey,LabelScanValue>,IOException> seek( int labelId, long fromRange )
+    {
+        seeks++;
+        TreeMap<Long,Long> ranges = store.getOrDefault( labelId, new TreeMap<>() );
+        Iterator<Map.Entry<Long,Long>> entries = ranges.tailMap( fromRange, true ).entrySet().iterator();
+        return new RawCursor<Hit<LabelScanKey,LabelScanValue>,IOException>()
+        {
+            private Hit<LabelScanKey,LabelScanValue> current;
+
+            @Override
+            public boolean next()
+            {
+                if ( !entries.hasNext() )
+                {
+                    return false;
+                }
+                Map.Entry<Long,Long> entry = entries.next();
+                LabelScanValue value = new LabelScanValue();
+                value.bits = entry.getValue();
+                current = new MutableHit<>( new LabelScanKey( labelId, entry.getKey() ), value );
+                return true;
+            }
+
+            @Override
+            public Hit<LabelScanKey,LabelScanValue> get()
+            {
+                return current;
+            }
+
+            @Override
+            public void close()
+            {
+            }
+        };
+    }
+}
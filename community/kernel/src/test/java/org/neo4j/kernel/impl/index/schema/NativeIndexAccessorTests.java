@@ -61,6 +61,7 @@ import org.neo4j.storageengine.api.schema.IndexProgressor;
 import org.neo4j.storageengine.api.schema.IndexReader;
 import org.neo4j.storageengine.api.schema.IndexSample;
 import org.neo4j.storageengine.api.schema.IndexSampler;
+import org.neo4j.storageengine.api.schema.PartitionedValueSeek;
 import org.neo4j.storageengine.api.schema.SimpleNodeValueClient;
 import org.neo4j.values.storable.CoordinateReferenceSystem;
 import org.neo4j.values.storable.PointValue;
@@ -317,6 +318,33 @@ public abstract class NativeIndexAccessorTests<KEY extends NativeIndexKey<KEY>,
         assertEntityIdHits( extractEntityIds( updates, alwaysTrue() ), result );
     }
 
+    @Test
+    public void shouldReturnAllEntriesForExistsPredicateInPartitions() throws Exception
+    {
+        // given
+        IndexEntryUpdate<IndexDescriptor>[] updates = someUpdatesSingleType();
+        processAll( updates );
+
+        // when
+        IndexReader reader = accessor.newReader();
+        PartitionedValueSeek seek = reader.partitionedQuery( 4, false, IndexQuery.exists( 0 ) );
+        List<Long> result = new ArrayList<>();
+        SimpleNodeValueClient client = new SimpleNodeValueClient();
+        int reservedPartitions = 0;
+        while ( seek.reservePartition( client ) )
+        {
+            reservedPartitions++;
+            while ( client.next() )
+            {
+                result.add( client.reference );
+            }
+        }
+
+        // then
+        assertEquals( seek.getNumberOfPartitions(), reservedPartitions );
+        assertEntityIdHits( extractEntityIds( updates, alwaysTrue() ), result );
+    }
+
     @Test
     public void shouldReturnNoEntriesForExistsPredicateForEmptyIndex() throws Exception
     {
@@ -0,0 +1,160 @@
+/*
+ * Copyright (c) 2018-2020 "Graph Foundation"
+ * Graph Foundation, Inc. [https://graphfoundation.org]
+ *
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of ONgDB.
+ *
+ * ONgDB is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.index.schema;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import org.neo4j.index.internal.gbptree.GBPTree;
+import org.neo4j.io.pagecache.IOLimiter;
+import org.neo4j.scheduler.Group;
+import org.neo4j.scheduler.JobHandle;
+import org.neo4j.scheduler.JobScheduler;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+class NativeIndexCompactionSchedulerTest
+{
+    private final JobScheduler jobScheduler = mock( JobScheduler.class );
+    private final JobHandle jobHandle = mock( JobHandle.class );
+    private final GBPTree<Object,Object> tree = mock( GBPTree.class );
+    private final GBPTree<Object,Object>.OnlineCompaction compaction = mock( GBPTree.OnlineCompaction.class );
+    private final NativeIndexCompactionScheduler.FailureHandler failureHandler = mock( NativeIndexCompactionScheduler.FailureHandler.class );
+
+    @Test
+    void shouldNotScheduleWhenDisabled()
+    {
+        NativeIndexCompactionScheduler scheduler = new NativeIndexCompactionScheduler( jobScheduler, Duration.ZERO, Duration.ofMillis( 10 ), 100 );
+
+        assertNull( scheduler.schedule( tree, failureHandler ) );
+        assertNull( NativeIndexCompactionScheduler.DISABLED.schedule( tree, failureHandler ) );
+        verifyNoMoreInteractions( jobScheduler );
+    }
+
+    @Test
+    void shouldStepCompactionUntilCompletedAndStopOnClose() throws IOException
+    {
+        // given
+        when( tree.onlineCompaction() ).thenReturn( compaction );
+        when( compaction.step( 100, IOLimiter.UNLIMITED ) ).thenReturn( true, true, false );
+        Runnable job = schedule( Duration.ofMillis( 1 ) );
+        sleepPastInterval();
+
+        // when
+        job.run();
+        job.run();
+        job.run();
+
+        // then
+        verify( tree, times( 1 ) ).onlineCompaction();
+        verify( compaction, times( 3 ) ).step( 100, IOLimiter.UNLIMITED );
+        NativeIndexCompactionScheduler.CompactionJob compactionJob = (NativeIndexCompactionScheduler.CompactionJob) job;
+        assertTrue( compactionJob.hasCompleted() );
+
+        // and when
+        compactionJob.close();
+        sleepPastInterval();
+        job.run();
+
+        // then
+        verify( jobHandle ).cancel( false );
+        verify( tree, times( 1 ) ).onlineCompaction();
+    }
+
+    @Test
+    void shouldNotStartCompactionBeforeInterval() throws IOException
+    {
+        // given
+        Runnable job = schedule( Duration.ofHours( 1 ) );
+
+        // when
+        job.run();
+
+        // then
+        verify( tree, never() ).onlineCompaction();
+        assertFalse( ((NativeIndexCompactionScheduler.CompactionJob) job).hasCompleted() );
+    }
+
+    @Test
+    void shouldReportFailureAndStartOverOnNextCompaction() throws IOException
+    {
+        // given
+        IOException failure = new IOException( "test" );
+        when( tree.onlineCompaction() ).thenReturn( compaction );
+        when( compaction.step( 100, IOLimiter.UNLIMITED ) ).thenThrow( failure ).thenReturn( false );
+        Runnable job = schedule( Duration.ofMillis( 1 ) );
+        sleepPastInterval();
+
+        // when
+        job.run();
+        sleepPastInterval();
+        job.run();
+
+        // then
+        verify( failureHandler ).compactionFailed( failure );
+        verify( tree, times( 2 ) ).onlineCompaction();
+        assertTrue( ((NativeIndexCompactionScheduler.CompactionJob) job).hasCompleted() );
+    }
+
+    private Runnable schedule( Duration interval )
+    {
+        when( jobScheduler.scheduleRecurring( eq( Group.INDEX_COMPACTION ), any( Runnable.class ), anyLong(), anyLong(), eq( TimeUnit.MILLISECONDS ) ) )
+                .thenReturn( jobHandle );
+        NativeIndexCompactionScheduler scheduler = new NativeIndexCompactionScheduler( jobScheduler, interval, Duration.ofMillis( 10 ), 100 );
+        NativeIndexCompactionScheduler.CompactionJob compactionJob = scheduler.schedule( tree, failureHandler );
+
+        ArgumentCaptor<Runnable> job = ArgumentCaptor.forClass( Runnable.class );
+        verify( jobScheduler ).scheduleRecurring( eq( Group.INDEX_COMPACTION ), job.capture(), eq( 10L ), eq( 10L ), eq( TimeUnit.MILLISECONDS ) );
+        assertSame( compactionJob, job.getValue() );
+        return job.getValue();
+    }
+
+    private static void sleepPastInterval()
+    {
+        try
+        {
+            Thread.sleep( 5 );
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+            throw new AssertionError( e );
+        }
+    }
+}
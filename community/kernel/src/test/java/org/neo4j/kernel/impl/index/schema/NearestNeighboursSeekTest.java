@@ -0,0 +1,225 @@
+/*
+ * Copyright (c) 2018-2020 "Graph Foundation"
+ * Graph Foundation, Inc. [https://graphfoundation.org]
+ *
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of ONgDB.
+ *
+ * ONgDB is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.index.schema;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.RuleChain;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.neo4j.gis.spatial.index.curves.StandardConfiguration;
+import org.neo4j.index.internal.gbptree.RecoveryCleanupWorkCollector;
+import org.neo4j.internal.kernel.api.IndexOrder;
+import org.neo4j.internal.kernel.api.IndexQuery;
+import org.neo4j.io.fs.DefaultFileSystemAbstraction;
+import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.kernel.api.index.IndexDirectoryStructure;
+import org.neo4j.kernel.api.index.IndexEntryUpdate;
+import org.neo4j.kernel.api.index.IndexPopulator;
+import org.neo4j.kernel.api.schema.index.TestIndexDescriptorFactory;
+import org.neo4j.kernel.configuration.Config;
+import org.neo4j.kernel.impl.api.index.PhaseTracker;
+import org.neo4j.kernel.impl.index.schema.config.ConfiguredSpaceFillingCurveSettingsCache;
+import org.neo4j.kernel.impl.index.schema.config.IndexSpecificSpaceFillingCurveSettingsCache;
+import org.neo4j.storageengine.api.schema.IndexReader;
+import org.neo4j.storageengine.api.schema.SimpleNodeValueClient;
+import org.neo4j.storageengine.api.schema.StoreIndexDescriptor;
+import org.neo4j.test.rule.PageCacheRule;
+import org.neo4j.test.rule.RandomRule;
+import org.neo4j.test.rule.TestDirectory;
+import org.neo4j.test.rule.fs.DefaultFileSystemRule;
+import org.neo4j.values.storable.CoordinateReferenceSystem;
+import org.neo4j.values.storable.PointValue;
+import org.neo4j.values.storable.Value;
+import org.neo4j.values.storable.Values;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.rules.RuleChain.outerRule;
+import static org.neo4j.kernel.api.index.IndexProvider.Monitor.EMPTY;
+import static org.neo4j.test.rule.PageCacheRule.config;
+import static org.neo4j.values.storable.CoordinateReferenceSystem.Cartesian;
+import static org.neo4j.values.storable.CoordinateReferenceSystem.WGS84;
+
+public class NearestNeighboursSeekTest
+{
+    private static final IndexSpecificSpaceFillingCurveSettingsCache indexSettings =
+            new IndexSpecificSpaceFillingCurveSettingsCache( new ConfiguredSpaceFillingCurveSettingsCache( Config.defaults() ), new HashMap<>() );
+
+    private final DefaultFileSystemRule fs = new DefaultFileSystemRule();
+    private final TestDirectory directory = TestDirectory.testDirectory( getClass(), fs.get() );
+    private final PageCacheRule pageCacheRule = new PageCacheRule( config().withAccessChecks( true ) );
+    private final RandomRule random = new RandomRule();
+    @Rule
+    public final RuleChain rules = outerRule( fs ).around( directory ).around( pageCacheRule ).around( random );
+
+    private PageCache pageCache;
+    private File file;
+    private GenericLayout layout;
+    private StoreIndexDescriptor descriptor;
+    private IndexDirectoryStructure structure;
+    private IndexDropAction dropAction;
+    private NativeIndexAccessor accessor;
+
+    @Before
+    public void setup()
+    {
+        DefaultFileSystemAbstraction fs = this.fs.get();
+        pageCache = pageCacheRule.getPageCache( fs );
+        file = directory.file( "index" );
+        layout = new GenericLayout( 1, indexSettings );
+        descriptor = TestIndexDescriptorFactory.forLabel( 1, 1 ).withId( 1 );
+        structure = IndexDirectoryStructure.directoriesByProvider( directory.storeDir() ).forProvider( GenericNativeIndexProvider.DESCRIPTOR );
+        dropAction = new FileSystemIndexDropAction( fs, structure );
+    }
+
+    @After
+    public void tearDown()
+    {
+        if ( accessor != null )
+        {
+            accessor.close();
+        }
+    }
+
+    @Test
+    public void shouldFindNearestCartesianPointsClosestFirst() throws Exception
+    {
+        // given
+        List<PointValue> points = new ArrayList<>();
+        for ( int i = 0; i < 1_000; i++ )
+        {
+            points.add( Values.pointValue( Cartesian, random.nextDouble() * 2_000 - 1_000, random.nextDouble() * 2_000 - 1_000 ) );
+        }
+        populate( points );
+
+        for ( int round = 0; round < 20; round++ )
+        {
+            // when
+            PointValue point = Values.pointValue( Cartesian, random.nextDouble() * 2_400 - 1_200, random.nextDouble() * 2_400 - 1_200 );
+            int k = random.intBetween( 1, 50 );
+
+            // then
+            assertEquals( bruteForce( points, point, k ), query( point, k ) );
+        }
+    }
+
+    @Test
+    public void shouldFindNearestGeographicPointsAcrossDateLine() throws Exception
+    {
+        // given
+        List<PointValue> points = new ArrayList<>();
+        for ( int i = 0; i < 200; i++ )
+        {
+            double longitude = random.nextDouble() * 2 - 1 + (random.nextBoolean() ? 179 : -179);
+            points.add( Values.pointValue( WGS84, longitude, random.nextDouble() * 2 - 1 ) );
+        }
+        populate( points );
+
+        // when
+        PointValue point = Values.pointValue( WGS84, 179.99, 0 );
+        List<Long> nearest = query( point, 100 );
+
+        // then
+        assertEquals( bruteForce( points, point, 100 ), nearest );
+    }
+
+    @Test
+    public void shouldOnlyFindPointsOfSameCoordinateReferenceSystem() throws Exception
+    {
+        // given
+        List<Value> values = new ArrayList<>();
+        values.add( Values.pointValue( Cartesian, 1, 1 ) );
+        values.add( Values.pointValue( WGS84, 1, 1 ) );
+        values.add( Values.pointValue( Cartesian, 3, 3 ) );
+        values.add( Values.intValue( 1 ) );
+        values.add( Values.pointValue( Cartesian, 2, 2 ) );
+        populateValues( values );
+
+        // when
+        List<Long> nearest = query( Values.pointValue( Cartesian, 0, 0 ), 10 );
+
+        // then
+        assertEquals( Arrays.asList( 0L, 4L, 2L ), nearest );
+    }
+
+    private List<Long> bruteForce( List<PointValue> points, PointValue point, int k )
+    {
+        CoordinateReferenceSystem crs = point.getCoordinateReferenceSystem();
+        List<Long> ids = new ArrayList<>();
+        for ( long id = 0; id < points.size(); id++ )
+        {
+            ids.add( id );
+        }
+        return ids.stream()
+                .sorted( Comparator.comparingDouble( ( Long id ) -> crs.getCalculator().distance( point, points.get( id.intValue() ) ) )
+                        .thenComparingLong( id -> id ) )
+                .limit( k )
+                .collect( Collectors.toList() );
+    }
+
+    private void populate( List<PointValue> points ) throws Exception
+    {
+        populateValues( new ArrayList<>( points ) );
+    }
+
+    private void populateValues( List<Value> values ) throws Exception
+    {
+        List<IndexEntryUpdate<?>> updates = new ArrayList<>();
+        for ( int id = 0; id < values.size(); id++ )
+        {
+            updates.add( IndexEntryUpdate.add( id, descriptor, values.get( id ) ) );
+        }
+        IndexPopulator populator = new WorkSyncedNativeIndexPopulator<>( new GenericNativeIndexPopulator( pageCache, fs.get(), file, layout, EMPTY,
+                descriptor, indexSettings, structure, new StandardConfiguration(), dropAction, false ) );
+        populator.create();
+        populator.add( updates );
+        populator.scanCompleted( PhaseTracker.nullInstance );
+        populator.close( true );
+        accessor = new GenericNativeIndexAccessor( pageCache, fs.get(), file, layout, RecoveryCleanupWorkCollector.ignore(), EMPTY, descriptor,
+                indexSettings, new StandardConfiguration(), dropAction, false );
+    }
+
+    private List<Long> query( PointValue point, int k ) throws Exception
+    {
+        try ( IndexReader reader = accessor.newReader() )
+        {
+            SimpleNodeValueClient client = new SimpleNodeValueClient();
+            reader.query( client, IndexOrder.NONE, true, IndexQuery.nearestNeighbours( 1, point, k ) );
+            List<Long> result = new ArrayList<>();
+            while ( client.next() )
+            {
+                result.add( client.reference );
+            }
+            return result;
+        }
+    }
+}
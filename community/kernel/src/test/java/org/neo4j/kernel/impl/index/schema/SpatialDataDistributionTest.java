@@ -0,0 +1,235 @@
+/*
+ * Copyright (c) 2018-2020 "Graph Foundation"
+ * Graph Foundation, Inc. [https://graphfoundation.org]
+ *
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of ONgDB.
+ *
+ * ONgDB is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.index.schema;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.RuleChain;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.neo4j.gis.spatial.index.curves.DataDistributionConfiguration;
+import org.neo4j.gis.spatial.index.curves.SpaceFillingCurveMonitor;
+import org.neo4j.gis.spatial.index.curves.StandardConfiguration;
+import org.neo4j.index.internal.gbptree.RecoveryCleanupWorkCollector;
+import org.neo4j.internal.kernel.api.IndexOrder;
+import org.neo4j.internal.kernel.api.IndexQuery;
+import org.neo4j.io.fs.DefaultFileSystemAbstraction;
+import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.kernel.api.index.IndexDirectoryStructure;
+import org.neo4j.kernel.api.index.IndexEntryUpdate;
+import org.neo4j.kernel.api.index.IndexPopulator;
+import org.neo4j.kernel.api.schema.index.TestIndexDescriptorFactory;
+import org.neo4j.kernel.configuration.Config;
+import org.neo4j.kernel.impl.api.index.PhaseTracker;
+import org.neo4j.kernel.impl.index.schema.config.ConfiguredSpaceFillingCurveSettingsCache;
+import org.neo4j.kernel.impl.index.schema.config.IndexSpecificSpaceFillingCurveSettingsCache;
+import org.neo4j.storageengine.api.schema.IndexReader;
+import org.neo4j.storageengine.api.schema.IndexSampler;
+import org.neo4j.storageengine.api.schema.SimpleNodeValueClient;
+import org.neo4j.storageengine.api.schema.StoreIndexDescriptor;
+import org.neo4j.test.rule.PageCacheRule;
+import org.neo4j.test.rule.RandomRule;
+import org.neo4j.test.rule.TestDirectory;
+import org.neo4j.test.rule.fs.DefaultFileSystemRule;
+import org.neo4j.values.storable.PointValue;
+import org.neo4j.values.storable.Values;
+
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.junit.rules.RuleChain.outerRule;
+import static org.neo4j.kernel.api.index.IndexProvider.Monitor.EMPTY;
+import static org.neo4j.test.rule.PageCacheRule.config;
+import static org.neo4j.values.storable.CoordinateReferenceSystem.Cartesian;
+import static org.neo4j.values.storable.CoordinateReferenceSystem.WGS84;
+
+public class SpatialDataDistributionTest
+{
+    private static final IndexSpecificSpaceFillingCurveSettingsCache indexSettings =
+            new IndexSpecificSpaceFillingCurveSettingsCache( new ConfiguredSpaceFillingCurveSettingsCache( Config.defaults() ), new HashMap<>() );
+
+    private final DefaultFileSystemRule fs = new DefaultFileSystemRule();
+    private final TestDirectory directory = TestDirectory.testDirectory( getClass(), fs.get() );
+    private final PageCacheRule pageCacheRule = new PageCacheRule( config().withAccessChecks( true ) );
+    private final RandomRule random = new RandomRule();
+    @Rule
+    public final RuleChain rules = outerRule( fs ).around( directory ).around( pageCacheRule ).around( random );
+
+    private final StandardConfiguration configuration = new StandardConfiguration();
+    private final SpatialDataDistribution dataDistribution = new SpatialDataDistribution( configuration, 16 );
+    private final CountingMonitor monitor = new CountingMonitor();
+    private final List<PointValue> points = new ArrayList<>();
+    private PageCache pageCache;
+    private File file;
+    private GenericLayout layout;
+    private StoreIndexDescriptor descriptor;
+    private IndexDirectoryStructure structure;
+    private IndexDropAction dropAction;
+    private NativeIndexAccessor accessor;
+
+    @Before
+    public void setup()
+    {
+        DefaultFileSystemAbstraction fs = this.fs.get();
+        pageCache = pageCacheRule.getPageCache( fs );
+        file = directory.file( "index" );
+        layout = new GenericLayout( 1, indexSettings );
+        descriptor = TestIndexDescriptorFactory.forLabel( 1, 1 ).withId( 1 );
+        structure = IndexDirectoryStructure.directoriesByProvider( directory.storeDir() ).forProvider( GenericNativeIndexProvider.DESCRIPTOR );
+        dropAction = new FileSystemIndexDropAction( fs, structure );
+    }
+
+    @After
+    public void tearDown()
+    {
+        if ( accessor != null )
+        {
+            accessor.close();
+        }
+    }
+
+    @Test
+    public void shouldUseConfiguredConfigurationUntilSampled() throws Exception
+    {
+        // given
+        populateCity();
+
+        // then
+        assertSame( configuration, dataDistribution.configurationFor( Cartesian ) );
+
+        // when
+        try ( IndexReader reader = accessor.newReader();
+              IndexSampler sampler = reader.createSampler() )
+        {
+            sampler.sampleIndex();
+        }
+
+        // then
+        assertThat( dataDistribution.configurationFor( Cartesian ), instanceOf( DataDistributionConfiguration.class ) );
+        assertSame( configuration, dataDistribution.configurationFor( WGS84 ) );
+    }
+
+    @Test
+    public void shouldFindPointsInEnvelopeAndReportFilteredFalsePositives() throws Exception
+    {
+        // given
+        populateCity();
+        try ( IndexReader reader = accessor.newReader();
+              IndexSampler sampler = reader.createSampler() )
+        {
+            sampler.sampleIndex();
+        }
+        PointValue from = Values.pointValue( Cartesian, 999, 999 );
+        PointValue to = Values.pointValue( Cartesian, 1000, 1001 );
+
+        // when
+        Set<Long> found = new TreeSet<>();
+        try ( IndexReader reader = accessor.newReader() )
+        {
+            IndexQuery range = IndexQuery.range( 1, from, true, to, true );
+            assertTrue( reader.hasFullValuePrecision( range ) );
+            SimpleNodeValueClient client = new SimpleNodeValueClient();
+            reader.query( client, IndexOrder.NONE, false, range );
+            while ( client.next() )
+            {
+                found.add( client.reference );
+            }
+        }
+
+        // then
+        Set<Long> expected = new TreeSet<>();
+        for ( int id = 0; id < points.size(); id++ )
+        {
+            if ( points.get( id ).withinRange( from, true, to, true ) )
+            {
+                expected.add( (long) id );
+            }
+        }
+        assertEquals( expected, found );
+        assertThat( monitor.ranges, greaterThan( 0L ) );
+        assertThat( monitor.falsePositives, greaterThan( 0L ) );
+    }
+
+    private void populateCity() throws Exception
+    {
+        List<IndexEntryUpdate<?>> updates = new ArrayList<>();
+        for ( int id = 0; id < 5_000; id++ )
+        {
+            PointValue point = Values.pointValue( Cartesian, 1000 + random.nextGaussian(), 1000 + random.nextGaussian() );
+            points.add( point );
+            updates.add( IndexEntryUpdate.add( id, descriptor, point ) );
+        }
+        IndexPopulator populator = new WorkSyncedNativeIndexPopulator<>( new GenericNativeIndexPopulator( pageCache, fs.get(), file, layout, EMPTY,
+                descriptor, indexSettings, structure, configuration, dropAction, false ) );
+        populator.create();
+        populator.add( updates );
+        populator.scanCompleted( PhaseTracker.nullInstance );
+        populator.close( true );
+        accessor = new GenericNativeIndexAccessor( pageCache, fs.get(), file, layout, RecoveryCleanupWorkCollector.ignore(), EMPTY, descriptor,
+                indexSettings, configuration, dataDistribution, monitor, dropAction, false );
+    }
+
+    private static class CountingMonitor implements SpaceFillingCurveMonitor
+    {
+        private long ranges;
+        private long falsePositives;
+
+        @Override
+        public void addRangeAtDepth( int depth )
+        {
+        }
+
+        @Override
+        public void registerSearchArea( long size )
+        {
+        }
+
+        @Override
+        public void addToCoveredArea( long size )
+        {
+        }
+
+        @Override
+        public void registerRanges( int ranges )
+        {
+            this.ranges += ranges;
+        }
+
+        @Override
+        public void registerFalsePositives( long falsePositives )
+        {
+            this.falsePositives += falsePositives;
+        }
+    }
+}
@@ -0,0 +1,280 @@
+/*
+ * Copyright (c) 2018-2020 "Graph Foundation"
+ * Graph Foundation, Inc. [https://graphfoundation.org]
+ *
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of ONgDB.
+ *
+ * ONgDB is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.index.schema;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.RuleChain;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+
+import org.neo4j.gis.spatial.index.curves.StandardConfiguration;
+import org.neo4j.index.internal.gbptree.RecoveryCleanupWorkCollector;
+import org.neo4j.internal.kernel.api.IndexOrder;
+import org.neo4j.internal.kernel.api.IndexQuery;
+import org.neo4j.io.fs.DefaultFileSystemAbstraction;
+import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.kernel.api.index.IndexDirectoryStructure;
+import org.neo4j.kernel.api.index.IndexEntryUpdate;
+import org.neo4j.kernel.api.index.IndexPopulator;
+import org.neo4j.kernel.api.schema.index.TestIndexDescriptorFactory;
+import org.neo4j.kernel.configuration.Config;
+import org.neo4j.kernel.impl.api.index.IndexUpdateMode;
+import org.neo4j.kernel.impl.api.index.PhaseTracker;
+import org.neo4j.kernel.impl.index.schema.config.ConfiguredSpaceFillingCurveSettingsCache;
+import org.neo4j.kernel.impl.index.schema.config.IndexSpecificSpaceFillingCurveSettingsCache;
+import org.neo4j.storageengine.api.schema.IndexReader;
+import org.neo4j.storageengine.api.schema.SimpleNodeValueClient;
+import org.neo4j.storageengine.api.schema.StoreIndexDescriptor;
+import org.neo4j.test.rule.PageCacheRule;
+import org.neo4j.test.rule.TestDirectory;
+import org.neo4j.test.rule.fs.DefaultFileSystemRule;
+import org.neo4j.values.storable.Values;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.rules.RuleChain.outerRule;
+import static org.neo4j.kernel.api.index.IndexProvider.Monitor.EMPTY;
+import static org.neo4j.test.rule.PageCacheRule.config;
+
+public class TrigramIndexTest
+{
+    private static final IndexSpecificSpaceFillingCurveSettingsCache indexSettings =
+            new IndexSpecificSpaceFillingCurveSettingsCache( new ConfiguredSpaceFillingCurveSettingsCache( Config.defaults() ), new HashMap<>() );
+
+    private final DefaultFileSystemRule fs = new DefaultFileSystemRule();
+    private final TestDirectory directory = TestDirectory.testDirectory( getClass(), fs.get() );
+    private final PageCacheRule pageCacheRule = new PageCacheRule( config().withAccessChecks( true ) );
+    @Rule
+    public final RuleChain rules = outerRule( fs ).around( directory ).around( pageCacheRule );
+
+    private PageCache pageCache;
+    private File file;
+    private GenericLayout layout;
+    private StoreIndexDescriptor descriptor;
+    private IndexDirectoryStructure structure;
+    private IndexDropAction dropAction;
+    private NativeIndexAccessor accessor;
+
+    @Before
+    public void setup()
+    {
+        DefaultFileSystemAbstraction fs = this.fs.get();
+        pageCache = pageCacheRule.getPageCache( fs );
+        file = directory.file( "index" );
+        layout = new GenericLayout( 1, indexSettings );
+        descriptor = TestIndexDescriptorFactory.forLabel( 1, 1 ).withId( 1 );
+        structure = IndexDirectoryStructure.directoriesByProvider( directory.storeDir() ).forProvider( GenericNativeIndexProvider.DESCRIPTOR );
+        dropAction = new FileSystemIndexDropAction( fs, structure );
+    }
+
+    @After
+    public void tearDown()
+    {
+        if ( accessor != null )
+        {
+            accessor.close();
+        }
+    }
+
+    @Test
+    public void shouldFindStringsContainingSubstring() throws Exception
+    {
+        // given
+        populateWithTrigrams( strings() );
+
+        // when/then
+        assertEquals( Arrays.asList( 1L, 2L ), query( IndexQuery.stringContains( 1, Values.stringValue( "llo" ) ) ) );
+        assertEquals( Arrays.asList( 2L, 3L ), query( IndexQuery.stringContains( 1, Values.stringValue( "low" ) ) ) );
+        assertEquals( Arrays.asList( 1L, 4L ), query( IndexQuery.stringContains( 1, Values.stringValue( "world" ) ) ) );
+        assertEquals( Collections.emptyList(), query( IndexQuery.stringContains( 1, Values.stringValue( "xyz" ) ) ) );
+    }
+
+    @Test
+    public void shouldFindStringsEndingWithSuffix() throws Exception
+    {
+        // given
+        populateWithTrigrams( strings() );
+
+        // when/then
+        assertEquals( Arrays.asList( 1L, 4L ), query( IndexQuery.stringSuffix( 1, Values.stringValue( "ld" ) ) ) );
+        assertEquals( Arrays.asList( 2L, 3L ), query( IndexQuery.stringSuffix( 1, Values.stringValue( "ow" ) ) ) );
+        assertEquals( Collections.singletonList( 5L ), query( IndexQuery.stringSuffix( 1, Values.stringValue( "owl" ) ) ) );
+    }
+
+    @Test
+    public void shouldScanForSubstringsTooShortForTrigrams() throws Exception
+    {
+        // given
+        populateWithTrigrams( strings() );
+
+        // when/then
+        assertEquals( Arrays.asList( 1L, 2L, 3L ), query( IndexQuery.stringContains( 1, Values.stringValue( "lo" ) ) ) );
+        assertEquals( Arrays.asList( 2L, 3L ), query( IndexQuery.stringSuffix( 1, Values.stringValue( "w" ) ) ) );
+    }
+
+    @Test
+    public void shouldTellThatEntitiesFoundUsingTrigramsNeedFiltering() throws Exception
+    {
+        // given "abcd" isn't in there, but all of its trigrams are
+        populateWithTrigrams( Collections.singletonList( IndexEntryUpdate.add( 1, descriptor, Values.stringValue( "abcXbcd" ) ) ) );
+        IndexQuery contains = IndexQuery.stringContains( 1, Values.stringValue( "abcd" ) );
+
+        // when/then
+        assertEquals( Collections.singletonList( 1L ), query( contains ) );
+        try ( IndexReader reader = accessor.newReader() )
+        {
+            assertFalse( reader.hasFullValuePrecision( contains ) );
+            assertTrue( reader.hasFullValuePrecision( IndexQuery.stringPrefix( 1, Values.stringValue( "abc" ) ) ) );
+        }
+    }
+
+    @Test
+    public void shouldTellThatEntitiesFoundScanningInsteadOfUsingTrigramsNeedNoFiltering() throws Exception
+    {
+        // given
+        populateWithTrigrams( strings() );
+        IndexQuery contains = IndexQuery.stringContains( 1, Values.stringValue( "llo" ) );
+        IndexQuery suffix = IndexQuery.stringSuffix( 1, Values.stringValue( "low" ) );
+
+        // when/then ordered queries and queries needing values scan the index, like substrings too short for trigrams
+        try ( IndexReader reader = accessor.newReader() )
+        {
+            assertFalse( reader.hasFullValuePrecision( IndexOrder.NONE, false, contains ) );
+            assertFalse( reader.hasFullValuePrecision( IndexOrder.NONE, false, suffix ) );
+            assertTrue( reader.hasFullValuePrecision( IndexOrder.NONE, true, contains ) );
+            assertTrue( reader.hasFullValuePrecision( IndexOrder.ASCENDING, false, contains ) );
+            assertTrue( reader.hasFullValuePrecision( IndexOrder.DESCENDING, true, suffix ) );
+            assertTrue( reader.hasFullValuePrecision( IndexQuery.stringContains( 1, Values.stringValue( "lo" ) ) ) );
+        }
+    }
+
+    @Test
+    public void shouldKeepTrigramsUpToDateWithUpdates() throws Exception
+    {
+        // given
+        populateWithTrigrams( strings() );
+
+        // when
+        try ( NativeIndexUpdater updater = accessor.newUpdater( IndexUpdateMode.ONLINE ) )
+        {
+            updater.process( IndexEntryUpdate.change( 1, descriptor, Values.stringValue( "hello world" ), Values.stringValue( "goodbye world" ) ) );
+            updater.process( IndexEntryUpdate.remove( 2, descriptor, Values.stringValue( "yellow" ) ) );
+            updater.process( IndexEntryUpdate.add( 6, descriptor, Values.stringValue( "mellow" ) ) );
+        }
+
+        // then
+        assertEquals( Collections.singletonList( 6L ), query( IndexQuery.stringContains( 1, Values.stringValue( "llo" ) ) ) );
+        assertEquals( Arrays.asList( 1L, 4L ), query( IndexQuery.stringContains( 1, Values.stringValue( "world" ) ) ) );
+        assertEquals( Collections.singletonList( 1L ), query( IndexQuery.stringContains( 1, Values.stringValue( "bye" ) ) ) );
+    }
+
+    @Test
+    public void shouldNotUseTrigramsForIndexPopulatedWithout() throws Exception
+    {
+        // given
+        IndexPopulator populator = newPopulator();
+        populate( populator, strings() );
+
+        // when/then
+        try ( IndexReader reader = accessor.newReader() )
+        {
+            assertTrue( reader.hasFullValuePrecision( IndexQuery.stringContains( 1, Values.stringValue( "llo" ) ) ) );
+        }
+        assertFalse( TrigramIndex.exists( fs.get(), file ) );
+    }
+
+    @Test
+    public void shouldNotKeepTrigramsOfFailedPopulation() throws Exception
+    {
+        // given
+        IndexPopulator populator = new TrigramIndexPopulator( newPopulator(), new TrigramIndex( pageCache, fs.get(), file, false ) );
+        populator.create();
+        populator.add( strings() );
+
+        // when
+        populator.markAsFailed( "failed" );
+        populator.close( false );
+
+        // then
+        assertFalse( TrigramIndex.exists( fs.get(), file ) );
+    }
+
+    private List<IndexEntryUpdate<?>> strings()
+    {
+        List<IndexEntryUpdate<?>> updates = new ArrayList<>();
+        updates.add( IndexEntryUpdate.add( 1, descriptor, Values.stringValue( "hello world" ) ) );
+        updates.add( IndexEntryUpdate.add( 2, descriptor, Values.stringValue( "yellow" ) ) );
+        updates.add( IndexEntryUpdate.add( 3, descriptor, Values.stringValue( "low" ) ) );
+        updates.add( IndexEntryUpdate.add( 4, descriptor, Values.stringValue( "world" ) ) );
+        updates.add( IndexEntryUpdate.add( 5, descriptor, Values.stringValue( "owl" ) ) );
+        updates.add( IndexEntryUpdate.add( 7, descriptor, Values.intValue( 7 ) ) );
+        return updates;
+    }
+
+    private void populateWithTrigrams( List<IndexEntryUpdate<?>> updates ) throws Exception
+    {
+        populate( new TrigramIndexPopulator( newPopulator(), new TrigramIndex( pageCache, fs.get(), file, false ) ), updates );
+        assertTrue( TrigramIndex.exists( fs.get(), file ) );
+    }
+
+    private IndexPopulator newPopulator()
+    {
+        return new WorkSyncedNativeIndexPopulator<>( new GenericNativeIndexPopulator( pageCache, fs.get(), file, layout, EMPTY, descriptor, indexSettings,
+                structure, new StandardConfiguration(), dropAction, false ) );
+    }
+
+    private void populate( IndexPopulator populator, List<IndexEntryUpdate<?>> updates ) throws Exception
+    {
+        populator.create();
+        populator.add( updates );
+        populator.scanCompleted( PhaseTracker.nullInstance );
+        populator.close( true );
+        accessor = new GenericNativeIndexAccessor( pageCache, fs.get(), file, layout, RecoveryCleanupWorkCollector.ignore(), EMPTY, descriptor,
+                indexSettings, new StandardConfiguration(), dropAction, false );
+    }
+
+    private List<Long> query( IndexQuery predicate ) throws Exception
+    {
+        try ( IndexReader reader = accessor.newReader() )
+        {
+            SimpleNodeValueClient client = new SimpleNodeValueClient();
+            reader.query( client, IndexOrder.NONE, false, predicate );
+            List<Long> result = new ArrayList<>();
+            while ( client.next() )
+            {
+                result.add( client.reference );
+            }
+            Collections.sort( result );
+            return result;
+        }
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2018-2020 "Graph Foundation"
+ * Graph Foundation, Inc. [https://graphfoundation.org]
+ *
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of ONgDB.
+ *
+ * ONgDB is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.index.schema;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import org.neo4j.values.storable.Values;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.neo4j.kernel.impl.index.schema.Trigrams.END;
+import static org.neo4j.kernel.impl.index.schema.Trigrams.trigram;
+
+class TrigramsTest
+{
+    @Test
+    void shouldExtractDistinctTrigramsOfIndexedStringsIncludingEnd()
+    {
+        long[] trigrams = Trigrams.indexed( Values.stringValue( "abab" ) );
+
+        assertArrayEquals( sorted( trigram( 'a', 'b', 'a' ), trigram( 'b', 'a', 'b' ), trigram( 'a', 'b', END ) ), trigrams );
+    }
+
+    @Test
+    void shouldHaveNoTrigramsForTooShortStrings()
+    {
+        assertEquals( 0, Trigrams.indexed( Values.stringValue( "a" ) ).length );
+        assertEquals( 0, Trigrams.contains( "ab" ).length );
+        assertEquals( 0, Trigrams.suffix( "b" ).length );
+    }
+
+    @Test
+    void shouldHaveNoTrigramsForNonStrings()
+    {
+        assertEquals( 0, Trigrams.indexed( Values.intValue( 123 ) ).length );
+        assertEquals( 0, Trigrams.indexed( Values.stringArray( "abc" ) ).length );
+    }
+
+    @Test
+    void shouldNotIncludeEndForContains()
+    {
+        assertArrayEquals( new long[]{trigram( 'a', 'b', 'c' )}, Trigrams.contains( "abc" ) );
+    }
+
+    @Test
+    void shouldIncludeEndForSuffix()
+    {
+        assertArrayEquals( new long[]{trigram( 'b', 'c', END )}, Trigrams.suffix( "bc" ) );
+        assertArrayEquals( sorted( trigram( 'a', 'b', 'c' ), trigram( 'b', 'c', END ) ), Trigrams.suffix( "abc" ) );
+    }
+
+    @Test
+    void shouldExtractTrigramsOfCodePoints()
+    {
+        String string = new String( Character.toChars( 0x1F600 ) ) + "ab";
+
+        assertArrayEquals( new long[]{trigram( 0x1F600, 'a', 'b' )}, Trigrams.contains( string ) );
+    }
+
+    private static long[] sorted( long... trigrams )
+    {
+        Arrays.sort( trigrams );
+        return trigrams;
+    }
+}
@@ -64,11 +64,13 @@ import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.doReturn;
+import static org.neo4j.kernel.impl.newapi.TxStateIndexChanges.indexUpdatesForCompositeQuery;
 import static org.neo4j.kernel.impl.newapi.TxStateIndexChanges.indexUpdatesForRangeSeek;
 import static org.neo4j.kernel.impl.newapi.TxStateIndexChanges.indexUpdatesForRangeSeekByPrefix;
 import static org.neo4j.kernel.impl.newapi.TxStateIndexChanges.indexUpdatesForScan;
 import static org.neo4j.kernel.impl.newapi.TxStateIndexChanges.indexUpdatesForSeek;
 import static org.neo4j.kernel.impl.newapi.TxStateIndexChanges.indexUpdatesForSuffixOrContains;
+import static org.neo4j.kernel.impl.newapi.TxStateIndexChanges.indexUpdatesWithValuesForCompositeQuery;
 import static org.neo4j.kernel.impl.newapi.TxStateIndexChanges.indexUpdatesWithValuesForRangeSeek;
 import static org.neo4j.kernel.impl.newapi.TxStateIndexChanges.indexUpdatesWithValuesForRangeSeekByPrefix;
 import static org.neo4j.kernel.impl.newapi.TxStateIndexChanges.indexUpdatesWithValuesForScan;
@@ -670,6 +672,69 @@ class TxStateIndexChangesTest
             assertContains( indexUpdatesForSeek( state, compositeIndex, ValueTuple.of( 40.1, 40.2 ) ).getAdded(), 14L );
         }
 
+        @Test
+        void shouldComputeIndexUpdatesForExactAndRangeQuery()
+        {
+            assertExactAndRangeQueryWithOrder( IndexOrder.NONE );
+        }
+
+        @Test
+        void shouldComputeIndexUpdatesForExactAndRangeQueryWithAscendingOrder()
+        {
+            assertExactAndRangeQueryWithOrder( IndexOrder.ASCENDING );
+        }
+
+        @Test
+        void shouldComputeIndexUpdatesForExactAndRangeQueryWithDescendingOrder()
+        {
+            assertExactAndRangeQueryWithOrder( IndexOrder.DESCENDING );
+        }
+
+        private void assertExactAndRangeQueryWithOrder( IndexOrder indexOrder )
+        {
+            // GIVEN
+            ReadableTransactionState state = new TxStateBuilder()
+                    .withAdded( 40L, "joe", 5 )
+                    .withAdded( 41L, "joe", 20 )
+                    .withAdded( 42L, "jane", 20 )
+                    .withAdded( 43L, "joe", 12 )
+                    .withAdded( 44L, "joe", "20" )
+                    .withRemoved( 45L, "joe", 15 )
+                    .withRemoved( 46L, "jane", 15 )
+                    .build();
+            IndexQuery[] query = {IndexQuery.exact( 1, "joe" ), IndexQuery.range( 2, 10, true, 30, false )};
+
+            // WHEN
+            AddedAndRemoved changes = indexUpdatesForCompositeQuery( state, compositeIndex, query, indexOrder );
+            AddedWithValuesAndRemoved changesWithValues = indexUpdatesWithValuesForCompositeQuery( state, compositeIndex, query, indexOrder );
+
+            // THEN
+            NodeWithPropertyValues[] expected = {nodeWithPropertyValues( 43L, "joe", 12 ), nodeWithPropertyValues( 41L, "joe", 20 )};
+            assertContains( indexOrder, changes, changesWithValues, expected );
+            assertContains( changes.getRemoved(), 45L );
+            assertContains( changesWithValues.getRemoved(), 45L );
+        }
+
+        @Test
+        void shouldComputeIndexUpdatesForExactAndPrefixQuery()
+        {
+            // GIVEN
+            ReadableTransactionState state = new TxStateBuilder()
+                    .withAdded( 40L, 1, "football" )
+                    .withAdded( 41L, 1, "foo" )
+                    .withAdded( 42L, 2, "foo" )
+                    .withAdded( 43L, 1, "bar" )
+                    .build();
+            IndexQuery[] query = {IndexQuery.exact( 1, 1 ), IndexQuery.stringPrefix( 2, stringValue( "foo" ) )};
+
+            // WHEN
+            AddedAndRemoved changes = indexUpdatesForCompositeQuery( state, compositeIndex, query, IndexOrder.ASCENDING );
+            AddedWithValuesAndRemoved changesWithValues = indexUpdatesWithValuesForCompositeQuery( state, compositeIndex, query, IndexOrder.ASCENDING );
+
+            // THEN
+            assertContains( IndexOrder.ASCENDING, changes, changesWithValues,
+                    new NodeWithPropertyValues[]{nodeWithPropertyValues( 41L, 1, "foo" ), nodeWithPropertyValues( 40L, 1, "football" )} );
+        }
     }
 
     private void assertContains( IndexOrder indexOrder,
@@ -45,8 +45,12 @@ import org.neo4j.test.rule.RandomRule;
 import org.neo4j.unsafe.batchinsert.internal.DirectRecordAccessSet;
 import org.neo4j.values.storable.RandomValues;
 import org.neo4j.values.storable.Value;
+import org.neo4j.values.storable.Values;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.neo4j.helpers.collection.Iterators.iterator;
 
@@ -108,6 +112,47 @@ public class RecordPropertyCursorTest
         assertPropertyChain( valuesB, firstPropertyIdB, cursor );
     }
 
+    @Test
+    public void shouldReadProjectedProperties()
+    {
+        // given
+        Value[] values = createValues( 2 );
+        long firstPropertyId = storeValuesAsPropertyChain( creator, owner, values );
+        int missingKey = values.length;
+        int[] propertyKeys = {values.length - 1, missingKey, 0};
+
+        // when
+        RecordPropertyCursor cursor = createCursor();
+        cursor.init( firstPropertyId );
+        Value[] projected = new Value[propertyKeys.length];
+        cursor.readProperties( propertyKeys, projected );
+
+        // then
+        assertEquals( values[values.length - 1], projected[0] );
+        assertNull( projected[1] );
+        assertEquals( values[0], projected[2] );
+        assertFalse( cursor.next() );
+    }
+
+    @Test
+    public void shouldOnlyFillEmptySlotsWhenReadingProjectedProperties()
+    {
+        // given
+        Value[] values = createValues();
+        long firstPropertyId = storeValuesAsPropertyChain( creator, owner, values );
+        Value preFilled = Values.stringValue( "pre-filled" );
+
+        // when
+        RecordPropertyCursor cursor = createCursor();
+        cursor.init( firstPropertyId );
+        Value[] projected = {preFilled, null};
+        cursor.readProperties( new int[]{0, 0}, projected );
+
+        // then
+        assertSame( preFilled, projected[0] );
+        assertEquals( values[0], projected[1] );
+    }
+
     @Test
     public void closeShouldBeIdempotent()
     {
@@ -140,7 +185,12 @@ public class RecordPropertyCursorTest
 
     private Value[] createValues()
     {
-        int numberOfProperties = random.nextInt( 1, 20 );
+        return createValues( 1 );
+    }
+
+    private Value[] createValues( int minNumberOfProperties )
+    {
+        int numberOfProperties = random.nextInt( minNumberOfProperties, 20 );
         Value[] values = new Value[numberOfProperties];
         for ( int key = 0; key < numberOfProperties; key++ )
         {
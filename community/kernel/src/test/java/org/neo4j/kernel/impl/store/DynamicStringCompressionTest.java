@@ -0,0 +1,126 @@
+/*
+ * Copyright (c) 2018-2020 "Graph Foundation"
+ * Graph Foundation, Inc. [https://graphfoundation.org]
+ *
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of ONgDB.
+ *
+ * ONgDB is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.store;
+
+import org.junit.Rule;
+import org.junit.Test;
+
+import org.neo4j.string.UTF8;
+import org.neo4j.test.rule.RandomRule;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.neo4j.kernel.impl.store.DynamicStringCompression.DEFLATE;
+import static org.neo4j.kernel.impl.store.DynamicStringCompression.NONE;
+
+public class DynamicStringCompressionTest
+{
+    @Rule
+    public final RandomRule random = new RandomRule();
+
+    @Test
+    public void noneShouldStorePlainUtf8()
+    {
+        String value = "{\"name\":\"Ĝüñter\",\"description\":\"some text\"}";
+
+        byte[] encoded = NONE.encode( value );
+
+        assertArrayEquals( UTF8.encode( value ), encoded );
+        assertEquals( value, NONE.decode( encoded ) );
+    }
+
+    @Test
+    public void deflateShouldRoundTripShortValues()
+    {
+        assertRoundTrip( "" );
+        assertRoundTrip( "a" );
+        assertRoundTrip( "short value" );
+    }
+
+    @Test
+    public void deflateShouldRoundTripDecodingFromOffset()
+    {
+        String value = jsonDocument( 10 );
+        byte[] encoded = DEFLATE.encode( value );
+        byte[] padded = new byte[encoded.length + 20];
+        System.arraycopy( encoded, 0, padded, 7, encoded.length );
+
+        assertEquals( value, DEFLATE.decode( padded, 7, encoded.length ) );
+    }
+
+    @Test
+    public void deflateShouldShrinkJsonLikeValues()
+    {
+        String value = jsonDocument( 20 );
+
+        byte[] encoded = DEFLATE.encode( value );
+
+        assertTrue( encoded.length * 2 < UTF8.encode( value ).length );
+        assertEquals( value, DEFLATE.decode( encoded ) );
+    }
+
+    @Test
+    public void deflateShouldNotGrowIncompressibleValuesMoreThanHeader()
+    {
+        for ( int i = 0; i < 100; i++ )
+        {
+            String value = random.nextAlphaNumericString( 64, 500 );
+
+            byte[] encoded = DEFLATE.encode( value );
+
+            assertTrue( encoded.length <= UTF8.encode( value ).length + 1 );
+            assertEquals( value, DEFLATE.decode( encoded ) );
+        }
+    }
+
+    @Test
+    public void deflateShouldRoundTripRandomStrings()
+    {
+        for ( int i = 0; i < 1_000; i++ )
+        {
+            assertRoundTrip( random.nextString() );
+        }
+    }
+
+    private static void assertRoundTrip( String value )
+    {
+        assertEquals( value, DEFLATE.decode( DEFLATE.encode( value ) ) );
+    }
+
+    private static String jsonDocument( int items )
+    {
+        StringBuilder json = new StringBuilder( "{\"items\":[" );
+        for ( int i = 0; i < items; i++ )
+        {
+            if ( i > 0 )
+            {
+                json.append( ',' );
+            }
+            json.append( "{\"id\":" ).append( i )
+                .append( ",\"name\":\"item " ).append( i )
+                .append( "\",\"type\":\"thing\",\"status\":\"active\",\"created\":\"2019-01-01\"}" );
+        }
+        return json.append( "]}" ).toString();
+    }
+}
@@ -26,6 +26,8 @@ import org.junit.Before;
 import org.junit.Test;
 
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collection;
 
 import org.neo4j.kernel.impl.store.record.NodeRecord;
 import org.neo4j.kernel.impl.transaction.command.Command;
@@ -33,17 +35,24 @@ import org.neo4j.kernel.impl.transaction.log.LogPosition;
 import org.neo4j.kernel.impl.transaction.log.PhysicalTransactionCursor;
 import org.neo4j.kernel.impl.transaction.log.PhysicalTransactionRepresentation;
 import org.neo4j.kernel.impl.transaction.log.ReadableLogChannel;
+import org.neo4j.kernel.impl.transaction.log.TransactionChunkReader;
 import org.neo4j.kernel.impl.transaction.log.entry.CheckPoint;
 import org.neo4j.kernel.impl.transaction.log.entry.LogEntry;
+import org.neo4j.kernel.impl.transaction.log.entry.LogEntryChunk;
 import org.neo4j.kernel.impl.transaction.log.entry.LogEntryCommand;
 import org.neo4j.kernel.impl.transaction.log.entry.LogEntryCommit;
 import org.neo4j.kernel.impl.transaction.log.entry.LogEntryReader;
+import org.neo4j.kernel.impl.transaction.log.entry.LogEntryRollback;
 import org.neo4j.kernel.impl.transaction.log.entry.LogEntryStart;
+import org.neo4j.storageengine.api.StorageCommand;
 
 import static java.util.Collections.singletonList;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.RETURNS_MOCKS;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
@@ -61,12 +70,21 @@ public class PhysicalTransactionCursorTest
     private static final LogEntryCommit A_COMMIT_ENTRY = new LogEntryCommit( 42, 0 );
     private static final LogEntryCommand A_COMMAND_ENTRY = new LogEntryCommand(
             new Command.NodeCommand( new NodeRecord( 42 ), new NodeRecord( 42 ) ) );
+    private static final LogPosition A_CHUNK_POSITION = new LogPosition( 0, 16 );
+    private static final LogEntryChunk A_FIRST_CHUNK_ENTRY =
+            new LogEntryChunk( 0, LogPosition.UNSPECIFIED, LogPosition.UNSPECIFIED );
+    private static final LogEntryChunk A_LAST_CHUNK_ENTRY =
+            new LogEntryChunk( 0, A_CHUNK_POSITION, LogPosition.UNSPECIFIED );
+    private static final LogEntryRollback A_ROLLBACK_ENTRY = new LogEntryRollback( 0, A_CHUNK_POSITION );
+    private static final LogEntryCommand ANOTHER_COMMAND_ENTRY = new LogEntryCommand(
+            new Command.NodeCommand( new NodeRecord( 43 ), new NodeRecord( 43 ) ) );
+    private final TransactionChunkReader chunkReader = mock( TransactionChunkReader.class );
     private PhysicalTransactionCursor<ReadableLogChannel> cursor;
 
     @Before
     public void setup() throws IOException
     {
-        cursor = new PhysicalTransactionCursor<>( channel, entryReader );
+        cursor = new PhysicalTransactionCursor<>( channel, entryReader, chunkReader );
     }
 
     @Test
@@ -145,4 +163,50 @@ public class PhysicalTransactionCursorTest
                 cursor.get()
         );
     }
+
+    @Test
+    public void shouldSkipChunksAheadOfTheirCommitAndRolledBackChunks() throws IOException
+    {
+        // given
+        when( entryReader.readLogEntry( channel ) ).thenReturn(
+                A_FIRST_CHUNK_ENTRY, ANOTHER_COMMAND_ENTRY, A_ROLLBACK_ENTRY,
+                A_START_ENTRY, A_COMMAND_ENTRY, A_COMMIT_ENTRY );
+
+        // when
+        cursor.next();
+
+        // then
+        PhysicalTransactionRepresentation txRepresentation =
+                new PhysicalTransactionRepresentation( singletonList( A_COMMAND_ENTRY.getCommand() ) );
+        assertEquals(
+                new CommittedTransactionRepresentation( A_START_ENTRY, txRepresentation, A_COMMIT_ENTRY ),
+                cursor.get()
+        );
+    }
+
+    @Test
+    public void shouldAssembleTransactionAppendedInChunks() throws IOException
+    {
+        // given
+        when( entryReader.readLogEntry( channel ) ).thenReturn(
+                A_FIRST_CHUNK_ENTRY, ANOTHER_COMMAND_ENTRY,
+                A_START_ENTRY, A_LAST_CHUNK_ENTRY, A_COMMAND_ENTRY, A_COMMIT_ENTRY );
+        doAnswer( invocation ->
+        {
+            Collection<StorageCommand> commands = invocation.getArgument( 2 );
+            commands.add( ANOTHER_COMMAND_ENTRY.getCommand() );
+            return null;
+        } ).when( chunkReader ).read( eq( A_CHUNK_POSITION ), eq( A_COMMIT_ENTRY.getTxId() ), any() );
+
+        // when
+        cursor.next();
+
+        // then
+        PhysicalTransactionRepresentation txRepresentation = new PhysicalTransactionRepresentation(
+                Arrays.asList( ANOTHER_COMMAND_ENTRY.getCommand(), A_COMMAND_ENTRY.getCommand() ) );
+        assertEquals(
+                new CommittedTransactionRepresentation( A_START_ENTRY, txRepresentation, A_COMMIT_ENTRY ),
+                cursor.get()
+        );
+    }
 }
@@ -28,7 +28,6 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
-import java.util.function.Supplier;
 
 import org.neo4j.helpers.collection.Iterables;
 import org.neo4j.internal.kernel.api.schema.IndexProviderDescriptor;
@@ -72,7 +71,7 @@ public class IndexBatchTransactionApplierTest
         IndexingService indexing = mock( IndexingService.class );
         when( indexing.convertToIndexUpdates( any(), eq( EntityType.NODE ) ) ).thenAnswer( o -> Iterables.empty() );
         LabelScanWriter writer = new OrderVerifyingLabelScanWriter( 10, 15, 20 );
-        WorkSync<Supplier<LabelScanWriter>,LabelUpdateWork> labelScanSync =
+        WorkSync<LabelScanWriterSupplier,LabelUpdateWork> labelScanSync =
                 spy( new WorkSync<>( singletonProvider( writer ) ) );
         WorkSync<IndexingUpdateService,IndexUpdatesWork> indexUpdatesSync = new WorkSync<>( indexing );
         TransactionToApply tx = mock( TransactionToApply.class );
@@ -98,7 +97,7 @@ public class IndexBatchTransactionApplierTest
         // given
         IndexingService indexing = mock( IndexingService.class );
         LabelScanWriter writer = new OrderVerifyingLabelScanWriter( 10, 15, 20 );
-        WorkSync<Supplier<LabelScanWriter>,LabelUpdateWork> labelScanSync =
+        WorkSync<LabelScanWriterSupplier,LabelUpdateWork> labelScanSync =
                 spy( new WorkSync<>( singletonProvider( writer ) ) );
         WorkSync<IndexingUpdateService,IndexUpdatesWork> indexUpdatesSync = new WorkSync<>( indexing );
         PropertyStore propertyStore = mock( PropertyStore.class );
@@ -152,7 +151,7 @@ public class IndexBatchTransactionApplierTest
         return records;
     }
 
-    private Supplier<LabelScanWriter> singletonProvider( final LabelScanWriter writer )
+    private LabelScanWriterSupplier singletonProvider( final LabelScanWriter writer )
     {
         return () -> writer;
     }
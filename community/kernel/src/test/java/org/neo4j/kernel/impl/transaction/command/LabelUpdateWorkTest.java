@@ -0,0 +1,234 @@
+/*
+ * Copyright (c) 2018-2020 "Graph Foundation"
+ * Graph Foundation, Inc. [https://graphfoundation.org]
+ *
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of ONgDB.
+ *
+ * ONgDB is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.command;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.neo4j.kernel.api.labelscan.LabelScanStore;
+import org.neo4j.kernel.api.labelscan.LabelScanWriter;
+import org.neo4j.kernel.api.labelscan.NodeLabelUpdate;
+import org.neo4j.kernel.impl.store.UnderlyingStorageException;
+import org.neo4j.scheduler.JobScheduler;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.junit.Assume.assumeTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.neo4j.kernel.api.labelscan.NodeLabelUpdate.labelChanges;
+import static org.neo4j.kernel.impl.scheduler.JobSchedulerFactory.createInitialisedScheduler;
+
+public class LabelUpdateWorkTest
+{
+    private static final long[] NO_LABELS = new long[0];
+
+    private final JobScheduler scheduler = createInitialisedScheduler();
+
+    @After
+    public void shutdownScheduler() throws Throwable
+    {
+        scheduler.shutdown();
+    }
+
+    @Test
+    public void shouldApplyAllUpdatesOnceKeepingUpdatesOfSameNodeTogetherAndInOrder()
+    {
+        // given
+        List<RecordingWriter> writers = Collections.synchronizedList( new ArrayList<>() );
+        LabelScanStore store = mock( LabelScanStore.class );
+        when( store.newWriter() ).thenAnswer( invocation -> newWriter( writers ) );
+        when( store.newParallelWriter() ).thenAnswer( invocation -> newWriter( writers ) );
+        AtomicInteger reportedUpdates = new AtomicInteger();
+        AtomicInteger reportedPartitions = new AtomicInteger();
+        LabelUpdateWork.Monitor monitor = new LabelUpdateWork.Monitor()
+        {
+            @Override
+            public void labelUpdatesApplied( int updates, int partitions, long durationNanos )
+            {
+                reportedUpdates.set( updates );
+                reportedPartitions.set( partitions );
+            }
+        };
+
+        // when updates for the same nodes come from different transactions, out of node id order
+        List<NodeLabelUpdate> updates = new ArrayList<>();
+        int nodes = 50_000;
+        for ( long txId = 1; txId <= 2; txId++ )
+        {
+            for ( long nodeId = nodes - 1; nodeId >= 0; nodeId -= 3 )
+            {
+                updates.add( labelChanges( nodeId, NO_LABELS, new long[]{txId}, txId ) );
+            }
+        }
+        int updateCount = updates.size();
+        new LabelUpdateWork( updates ).apply( LabelScanWriterSupplier.parallel( store, scheduler, monitor ) );
+
+        // then
+        Map<Long,RecordingWriter> writerOfNode = new HashMap<>();
+        int written = 0;
+        for ( RecordingWriter writer : writers )
+        {
+            assertTrue( writer.closed );
+            long previousNodeId = -1;
+            long previousTxId = 0;
+            for ( NodeLabelUpdate update : writer.updates )
+            {
+                written++;
+                RecordingWriter existing = writerOfNode.putIfAbsent( update.getNodeId(), writer );
+                assertTrue( "Updates of node " + update.getNodeId() + " split over writers", existing == null || existing == writer );
+                assertTrue( update.getNodeId() >= previousNodeId );
+                if ( update.getNodeId() == previousNodeId )
+                {
+                    assertTrue( "Updates of node " + update.getNodeId() + " out of transaction order", update.getTxId() > previousTxId );
+                }
+                previousNodeId = update.getNodeId();
+                previousTxId = update.getTxId();
+            }
+        }
+        assertEquals( updateCount, written );
+        assertEquals( updateCount, reportedUpdates.get() );
+        assertEquals( writers.size(), reportedPartitions.get() );
+        assertTrue( reportedPartitions.get() <= Runtime.getRuntime().availableProcessors() );
+    }
+
+    @Test
+    public void shouldApplyUsingSingleWriterFromPlainSupplier()
+    {
+        // given
+        List<RecordingWriter> writers = new ArrayList<>();
+        List<NodeLabelUpdate> updates = new ArrayList<>();
+        for ( long nodeId = 20_000; nodeId >= 0; nodeId-- )
+        {
+            updates.add( labelChanges( nodeId, NO_LABELS, new long[]{1} ) );
+        }
+
+        // when
+        new LabelUpdateWork( updates ).apply( () -> newWriter( writers ) );
+
+        // then
+        assertEquals( 1, writers.size() );
+        assertEquals( 20_001, writers.get( 0 ).updates.size() );
+        assertEquals( 0, writers.get( 0 ).updates.get( 0 ).getNodeId() );
+    }
+
+    @Test
+    public void shouldAwaitAllPartitionsAndCloseAllWritersWhenApplyingAPartitionFails()
+    {
+        assumeTrue( Runtime.getRuntime().availableProcessors() > 1 );
+
+        // given a writer failing on the first node, which is in the partition applied by the applying thread
+        List<RecordingWriter> writers = Collections.synchronizedList( new ArrayList<>() );
+        LabelScanStore store = mock( LabelScanStore.class );
+        when( store.newParallelWriter() ).thenAnswer( invocation ->
+        {
+            RecordingWriter writer = new SlowlyClosingWriter();
+            writers.add( writer );
+            return writer;
+        } );
+        List<NodeLabelUpdate> updates = new ArrayList<>();
+        for ( long nodeId = 0; nodeId < 100_000; nodeId++ )
+        {
+            updates.add( labelChanges( nodeId, NO_LABELS, new long[]{1} ) );
+        }
+
+        // when
+        try
+        {
+            new LabelUpdateWork( updates ).apply( LabelScanWriterSupplier.parallel( store, scheduler, LabelUpdateWork.NO_MONITOR ) );
+            fail( "Should have failed" );
+        }
+        catch ( UnderlyingStorageException e )
+        {
+            assertEquals( "Failing on node 0", e.getCause().getMessage() );
+        }
+
+        // then no partition is left being applied after the failure
+        assertTrue( writers.size() > 1 );
+        for ( RecordingWriter writer : writers )
+        {
+            assertTrue( writer.closed );
+        }
+    }
+
+    private static LabelScanWriter newWriter( List<RecordingWriter> writers )
+    {
+        RecordingWriter writer = new RecordingWriter();
+        writers.add( writer );
+        return writer;
+    }
+
+    private static class RecordingWriter implements LabelScanWriter
+    {
+        final List<NodeLabelUpdate> updates = new ArrayList<>();
+        volatile boolean closed;
+
+        @Override
+        public void write( NodeLabelUpdate update ) throws IOException
+        {
+            updates.add( update );
+        }
+
+        @Override
+        public void close() throws IOException
+        {
+            closed = true;
+        }
+    }
+
+    private static class SlowlyClosingWriter extends RecordingWriter
+    {
+        @Override
+        public void write( NodeLabelUpdate update ) throws IOException
+        {
+            if ( update.getNodeId() == 0 )
+            {
+                throw new IOException( "Failing on node " + update.getNodeId() );
+            }
+            super.write( update );
+        }
+
+        @Override
+        public void close() throws IOException
+        {
+            try
+            {
+                Thread.sleep( 100 );
+            }
+            catch ( InterruptedException e )
+            {
+                throw new IOException( e );
+            }
+            super.close();
+        }
+    }
+}
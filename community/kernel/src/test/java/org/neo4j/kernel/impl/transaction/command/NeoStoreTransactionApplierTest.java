@@ -111,8 +111,8 @@ public class NeoStoreTransactionApplierTest
     private final DynamicRecord one = DynamicRecord.dynamicRecord( 1, true );
     private final DynamicRecord two = DynamicRecord.dynamicRecord( 2, true );
     private final DynamicRecord three = DynamicRecord.dynamicRecord( 3, true );
-    private final WorkSync<Supplier<LabelScanWriter>,LabelUpdateWork>
-            labelScanStoreSynchronizer = new WorkSync<>( labelScanStore );
+    private final WorkSync<LabelScanWriterSupplier,LabelUpdateWork>
+            labelScanStoreSynchronizer = new WorkSync<>( labelScanStore::get );
     private final TransactionToApply transactionToApply = mock( TransactionToApply.class );
     private final WorkSync<IndexingUpdateService,IndexUpdatesWork> indexUpdatesSync = new WorkSync<>( indexingService );
     private final IndexActivator indexActivator = new IndexActivator( indexingService );
@@ -31,6 +31,8 @@ import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.neo4j.kernel.impl.api.TransactionToApply;
@@ -63,6 +65,7 @@ import org.neo4j.test.rule.fs.DefaultFileSystemRule;
 
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import static org.mockito.ArgumentMatchers.any;
@@ -366,6 +369,136 @@ public class PhysicalLogicalTransactionStoreTest
 
     }
 
+    @Test
+    public void shouldReadTransactionsAppendedInChunks() throws Exception
+    {
+        // GIVEN
+        TransactionIdStore transactionIdStore = new SimpleTransactionIdStore();
+        TransactionMetadataCache positionCache = new TransactionMetadataCache();
+        LifeSupport life = new LifeSupport();
+        final LogFiles logFiles = LogFilesBuilder.builder( dir.databaseLayout(), fileSystemRule.get() )
+                .withTransactionIdStore( transactionIdStore )
+                .withLogVersionRepository( mock( LogVersionRepository.class ) ).build();
+        life.add( logFiles );
+        TransactionAppender appender = life.add( new BatchingTransactionAppender( logFiles, NO_ROTATION,
+                positionCache, transactionIdStore, BYPASS, DATABASE_HEALTH, 2, new ChunkedTransactions() ) );
+        life.start();
+        try
+        {
+            // WHEN
+            appender.append( new TransactionToApply( transaction( createNodeCommands( 0, 5 ) ) ), LogAppendEvent.NULL );
+            appender.append( new TransactionToApply( transaction( createNodeCommands( 5, 1 ) ) ), LogAppendEvent.NULL );
+            positionCache.clear();
+            final LogicalTransactionStore store = new PhysicalLogicalTransactionStore( logFiles, positionCache,
+                    new VersionAwareLogEntryReader<>(), monitors, true );
+
+            // THEN
+            try ( TransactionCursor cursor = store.getTransactions( TransactionIdStore.BASE_TX_ID + 1 ) )
+            {
+                assertTrue( cursor.next() );
+                assertEquals( createNodeCommands( 0, 5 ), commandsOf( cursor.get() ) );
+                assertTrue( cursor.next() );
+                assertEquals( createNodeCommands( 5, 1 ), commandsOf( cursor.get() ) );
+                assertFalse( cursor.next() );
+            }
+            try ( TransactionCursor cursor = store.getTransactions( TransactionIdStore.BASE_TX_ID + 1 ) )
+            {
+                // and a transaction appended in chunks can be found by its id, like any other
+                assertTrue( cursor.next() );
+                assertEquals( TransactionIdStore.BASE_TX_ID + 1, cursor.get().getCommitEntry().getTxId() );
+            }
+            try ( TransactionCursor cursor = store.getTransactionsInReverseOrder( LogPosition.start( 0 ) ) )
+            {
+                assertTrue( cursor.next() );
+                assertEquals( createNodeCommands( 5, 1 ), commandsOf( cursor.get() ) );
+                assertTrue( cursor.next() );
+                assertEquals( createNodeCommands( 0, 5 ), commandsOf( cursor.get() ) );
+                assertFalse( cursor.next() );
+            }
+        }
+        finally
+        {
+            life.shutdown();
+        }
+    }
+
+    @Test
+    public void shouldSkipChunksOfTransactionsThatFailedToAppend() throws Exception
+    {
+        // GIVEN
+        TransactionIdStore transactionIdStore = new SimpleTransactionIdStore();
+        TransactionMetadataCache positionCache = new TransactionMetadataCache();
+        LifeSupport life = new LifeSupport();
+        final LogFiles logFiles = LogFilesBuilder.builder( dir.databaseLayout(), fileSystemRule.get() )
+                .withTransactionIdStore( transactionIdStore )
+                .withLogVersionRepository( mock( LogVersionRepository.class ) ).build();
+        life.add( logFiles );
+        ChunkedTransactions chunkedTransactions = new ChunkedTransactions();
+        TransactionAppender appender = life.add( new BatchingTransactionAppender( logFiles, NO_ROTATION,
+                positionCache, transactionIdStore, BYPASS, DATABASE_HEALTH, 2, chunkedTransactions ) );
+        life.start();
+        try
+        {
+            // WHEN
+            PhysicalTransactionRepresentation failing = new PhysicalTransactionRepresentation(
+                    createNodeCommands( 0, 5 ) )
+            {
+                @Override
+                public Iterator<StorageCommand> iterator()
+                {
+                    Iterator<StorageCommand> commands = super.iterator();
+                    return new Iterator<StorageCommand>()
+                    {
+                        private int served;
+
+                        @Override
+                        public boolean hasNext()
+                        {
+                            return commands.hasNext();
+                        }
+
+                        @Override
+                        public StorageCommand next()
+                        {
+                            if ( served++ == 3 )
+                            {
+                                throw new IllegalStateException( "Failed to produce command" );
+                            }
+                            return commands.next();
+                        }
+                    };
+                }
+            };
+            failing.setHeader( new byte[0], 0, 0, 0, 0, 0, -1 );
+            try
+            {
+                appender.append( new TransactionToApply( failing ), LogAppendEvent.NULL );
+                fail( "Should have failed" );
+            }
+            catch ( IllegalStateException e )
+            {
+                // THEN the chunk it appended is rolled back and no longer keeps its log file from being pruned
+                assertEquals( Long.MAX_VALUE, chunkedTransactions.lowestLogVersion() );
+            }
+            appender.append( new TransactionToApply( transaction( createNodeCommands( 5, 1 ) ) ), LogAppendEvent.NULL );
+            final LogicalTransactionStore store = new PhysicalLogicalTransactionStore( logFiles, positionCache,
+                    new VersionAwareLogEntryReader<>(), monitors, true );
+
+            // THEN only the transaction that committed is read back
+            try ( TransactionCursor cursor = store.getTransactions( LogPosition.start( 0 ) ) )
+            {
+                assertTrue( cursor.next() );
+                assertEquals( TransactionIdStore.BASE_TX_ID + 1, cursor.get().getCommitEntry().getTxId() );
+                assertEquals( createNodeCommands( 5, 1 ), commandsOf( cursor.get() ) );
+                assertFalse( cursor.next() );
+            }
+        }
+        finally
+        {
+            life.shutdown();
+        }
+    }
+
     private void addATransactionAndRewind( LifeSupport life, LogFiles logFiles,
                                            TransactionMetadataCache positionCache,
                                            TransactionIdStore transactionIdStore,
@@ -393,6 +526,32 @@ public class PhysicalLogicalTransactionStoreTest
         return commands;
     }
 
+    private PhysicalTransactionRepresentation transaction( List<StorageCommand> commands )
+    {
+        PhysicalTransactionRepresentation transaction = new PhysicalTransactionRepresentation( commands );
+        transaction.setHeader( new byte[0], 0, 0, 0, 0, 0, -1 );
+        return transaction;
+    }
+
+    private List<StorageCommand> createNodeCommands( long firstId, int count )
+    {
+        List<StorageCommand> commands = new ArrayList<>();
+        for ( long id = firstId; id < firstId + count; id++ )
+        {
+            NodeRecord after = new NodeRecord( id );
+            after.setInUse( true );
+            commands.add( new Command.NodeCommand( new NodeRecord( id ), after ) );
+        }
+        return commands;
+    }
+
+    private List<StorageCommand> commandsOf( CommittedTransactionRepresentation tx )
+    {
+        List<StorageCommand> commands = new ArrayList<>();
+        tx.getTransactionRepresentation().forEach( commands::add );
+        return commands;
+    }
+
     private void verifyTransaction( TransactionIdStore transactionIdStore, TransactionMetadataCache positionCache,
             byte[] additionalHeader, int masterId, int authorId, long timeStarted, long latestCommittedTxWhenStarted,
             long timeCommitted, LogicalTransactionStore store ) throws IOException
@@ -32,6 +32,8 @@ import java.util.stream.LongStream;
 
 import org.neo4j.io.fs.FileSystemAbstraction;
 import org.neo4j.kernel.configuration.Config;
+import org.neo4j.kernel.impl.transaction.log.ChunkedTransactions;
+import org.neo4j.kernel.impl.transaction.log.LogPosition;
 import org.neo4j.kernel.impl.transaction.log.files.LogFiles;
 import org.neo4j.logging.LogProvider;
 import org.neo4j.logging.NullLogProvider;
@@ -82,6 +84,32 @@ public class LogPruningTest
         verifyNoMoreInteractions( fs );
     }
 
+    @Test
+    public void mustKeepLogFilesWithChunksOfTransactionsNotYetCheckPointed()
+    {
+        when( factory.strategyFromConfigValue( eq( fs ), eq( logFiles ), eq( clock ), anyString() ) )
+                .thenReturn( upTo -> LongStream.range( 3, upTo ) );
+        ChunkedTransactions chunkedTransactions = new ChunkedTransactions();
+        ChunkedTransactions.Pin pin = chunkedTransactions.chunkAppended( new LogPosition( 4, 100 ) );
+        pin.committed( new LogPosition( 5, 200 ) );
+        LogPruning pruning = new LogPruningImpl( fs, logFiles, logProvider, factory, clock, config,
+                chunkedTransactions );
+
+        // A check point before the commit doesn't release the chunks
+        chunkedTransactions.checkPointed( new LogPosition( 5, 100 ) );
+        pruning.pruneLogs( 5 );
+        InOrder order = inOrder( fs );
+        order.verify( fs ).deleteFile( new File( "3" ) );
+        verifyNoMoreInteractions( fs );
+
+        // A check point after the commit does
+        chunkedTransactions.checkPointed( new LogPosition( 5, 200 ) );
+        pruning.pruneLogs( 5 );
+        order.verify( fs ).deleteFile( new File( "3" ) );
+        order.verify( fs ).deleteFile( new File( "4" ) );
+        verifyNoMoreInteractions( fs );
+    }
+
     @Test
     public void mustHaveLogFilesToPruneIfStrategyFindsFiles()
     {
@@ -53,6 +53,7 @@ import org.neo4j.kernel.impl.transaction.command.CommandHandlerContract;
 import org.neo4j.kernel.impl.transaction.command.IndexActivator;
 import org.neo4j.kernel.impl.transaction.command.IndexBatchTransactionApplier;
 import org.neo4j.kernel.impl.transaction.command.IndexUpdatesWork;
+import org.neo4j.kernel.impl.transaction.command.LabelScanWriterSupplier;
 import org.neo4j.kernel.impl.transaction.command.LabelUpdateWork;
 import org.neo4j.kernel.impl.transaction.command.NeoStoreBatchTransactionApplier;
 import org.neo4j.kernel.impl.transaction.command.PhysicalLogCommandReaderV3_0_2;
@@ -86,8 +87,8 @@ public class SchemaRuleCommandTest
     private final Supplier<LabelScanWriter> labelScanStore = mock( Supplier.class );
     private final NeoStoreBatchTransactionApplier storeApplier = new NeoStoreBatchTransactionApplier( neoStores,
             mock( CacheAccessBackDoor.class ), LockService.NO_LOCK_SERVICE );
-    private final WorkSync<Supplier<LabelScanWriter>,LabelUpdateWork> labelScanStoreSynchronizer =
-            new WorkSync<>( labelScanStore );
+    private final WorkSync<LabelScanWriterSupplier,LabelUpdateWork> labelScanStoreSynchronizer =
+            new WorkSync<>( labelScanStore::get );
     private final WorkSync<IndexingUpdateService,IndexUpdatesWork> indexUpdatesSync = new WorkSync<>( indexes );
     private final PropertyStore propertyStore = mock( PropertyStore.class );
     private final IndexBatchTransactionApplier indexApplier =
@@ -186,6 +186,12 @@ public class QueryResultComparingIndexReader implements IndexReader
         return actual.hasFullValuePrecision( predicates );
     }
 
+    @Override
+    public boolean hasFullValuePrecision( IndexOrder indexOrder, boolean needsValues, IndexQuery... predicates )
+    {
+        return actual.hasFullValuePrecision( indexOrder, needsValues, predicates );
+    }
+
     @Override
     public void close()
     {
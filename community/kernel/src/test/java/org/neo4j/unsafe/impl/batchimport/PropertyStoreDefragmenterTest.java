@@ -0,0 +1,260 @@
+/*
+ * Copyright (c) 2018-2020 "Graph Foundation"
+ * Graph Foundation, Inc. [https://graphfoundation.org]
+ *
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of ONgDB.
+ *
+ * ONgDB is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.unsafe.impl.batchimport;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.neo4j.graphdb.mockfs.DelegatingFileSystemAbstraction;
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.layout.DatabaseLayout;
+import org.neo4j.io.pagecache.tracing.cursor.context.EmptyVersionContextSupplier;
+import org.neo4j.kernel.configuration.Config;
+import org.neo4j.kernel.impl.storageengine.impl.recordstorage.PropertyCreator;
+import org.neo4j.kernel.impl.storageengine.impl.recordstorage.PropertyTraverser;
+import org.neo4j.kernel.impl.store.NeoStores;
+import org.neo4j.kernel.impl.store.NodeStore;
+import org.neo4j.kernel.impl.store.PropertyStore;
+import org.neo4j.kernel.impl.store.StoreFactory;
+import org.neo4j.kernel.impl.store.id.DefaultIdGeneratorFactory;
+import org.neo4j.kernel.impl.store.record.NodeRecord;
+import org.neo4j.kernel.impl.store.record.PropertyBlock;
+import org.neo4j.kernel.impl.store.record.PropertyRecord;
+import org.neo4j.kernel.impl.store.record.Record;
+import org.neo4j.logging.NullLogProvider;
+import org.neo4j.test.rule.PageCacheAndDependenciesRule;
+import org.neo4j.test.rule.RandomRule;
+import org.neo4j.unsafe.batchinsert.internal.DirectRecordAccessSet;
+import org.neo4j.unsafe.impl.batchimport.staging.ExecutionMonitors;
+import org.neo4j.values.storable.Value;
+import org.neo4j.values.storable.Values;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.neo4j.kernel.impl.store.record.RecordLoad.NORMAL;
+
+public class PropertyStoreDefragmenterTest
+{
+    @Rule
+    public final PageCacheAndDependenciesRule storage = new PageCacheAndDependenciesRule();
+    @Rule
+    public final RandomRule random = new RandomRule();
+
+    private final int nodeCount = 100;
+    private final List<Value[]> nodeValues = new ArrayList<>();
+    private DatabaseLayout fromLayout;
+    private NeoStores fromStores;
+
+    @Before
+    public void setup()
+    {
+        fromLayout = storage.directory().databaseLayout( "from" );
+        fromStores = openNeoStores( fromLayout );
+        createNodesInReverseOrder();
+    }
+
+    @After
+    public void closeStores()
+    {
+        if ( fromStores != null )
+        {
+            fromStores.close();
+        }
+    }
+
+    @Test
+    public void shouldLayOutPropertyChainsInNodeOrder()
+    {
+        // GIVEN
+        NodeStore fromNodeStore = fromStores.getNodeStore();
+        long[] fromNextProps = new long[nodeCount];
+        for ( int i = 0; i < nodeCount; i++ )
+        {
+            fromNextProps[i] = fromNodeStore.getRecord( i, fromNodeStore.newRecord(), NORMAL ).getNextProp();
+        }
+
+        // WHEN
+        try ( NeoStores toStores = openNeoStores( storage.directory().databaseLayout( "to" ) ) )
+        {
+            defragmenter( storage.fileSystem() ).run( fromStores, toStores );
+
+            // THEN
+            assertPropertiesLaidOutInNodeOrder( toStores );
+        }
+        // and the source stores are left as they were
+        for ( int i = 0; i < nodeCount; i++ )
+        {
+            assertEquals( fromNextProps[i], fromNodeStore.getRecord( i, fromNodeStore.newRecord(), NORMAL ).getNextProp() );
+        }
+    }
+
+    @Test
+    public void shouldReplaceStoreFilesOfDatabaseWhenCopyCompleted() throws Exception
+    {
+        // GIVEN
+        fromStores.close();
+        fromStores = null;
+
+        // WHEN
+        defragmenter( storage.fileSystem() ).defragment( fromLayout );
+
+        // THEN
+        assertFalse( storage.fileSystem().fileExists( fromLayout.file( PropertyStoreDefragmenter.DEFRAGMENT_DIRECTORY ) ) );
+        try ( NeoStores stores = openNeoStores( fromLayout ) )
+        {
+            assertPropertiesLaidOutInNodeOrder( stores );
+        }
+    }
+
+    @Test
+    public void shouldResumeMovingFilesAfterFailure() throws Exception
+    {
+        // GIVEN
+        fromStores.close();
+        fromStores = null;
+        FileSystemAbstraction failingFs = new DelegatingFileSystemAbstraction( storage.fileSystem() )
+        {
+            @Override
+            public void moveToDirectory( File file, File toDirectory ) throws IOException
+            {
+                if ( file.getName().equals( fromLayout.propertyStore().getName() ) )
+                {
+                    throw new IOException( "Simulated failure moving " + file );
+                }
+                super.moveToDirectory( file, toDirectory );
+            }
+        };
+        try
+        {
+            defragmenter( failingFs ).defragment( fromLayout );
+            fail( "Should have failed" );
+        }
+        catch ( IOException e )
+        {
+            // expected
+        }
+        assertTrue( storage.fileSystem().fileExists( fromLayout.file( PropertyStoreDefragmenter.DEFRAGMENT_DIRECTORY ) ) );
+
+        // WHEN
+        defragmenter( storage.fileSystem() ).defragment( fromLayout );
+
+        // THEN
+        assertFalse( storage.fileSystem().fileExists( fromLayout.file( PropertyStoreDefragmenter.DEFRAGMENT_DIRECTORY ) ) );
+        try ( NeoStores stores = openNeoStores( fromLayout ) )
+        {
+            assertPropertiesLaidOutInNodeOrder( stores );
+        }
+    }
+
+    private void createNodesInReverseOrder()
+    {
+        NodeStore nodeStore = fromStores.getNodeStore();
+        for ( int i = 0; i < nodeCount; i++ )
+        {
+            nodeValues.add( randomValues() );
+        }
+        PropertyCreator creator = new PropertyCreator( fromStores.getPropertyStore(), new PropertyTraverser() );
+        for ( int i = nodeCount - 1; i >= 0; i-- )
+        {
+            NodeRecord node = nodeStore.newRecord();
+            node.setId( i );
+            long firstProperty = createPropertyChain( creator, node, nodeValues.get( i ) );
+            node.initialize( true, firstProperty, false, Record.NO_NEXT_RELATIONSHIP.intValue(), Record.NO_LABELS_FIELD.intValue() );
+            nodeStore.updateRecord( node );
+        }
+        nodeStore.setHighestPossibleIdInUse( nodeCount - 1 );
+    }
+
+    private void assertPropertiesLaidOutInNodeOrder( NeoStores stores )
+    {
+        // Property records are sequential in node order and values are intact
+        NodeStore nodeStore = stores.getNodeStore();
+        PropertyStore propertyStore = stores.getPropertyStore();
+        long expectedPropertyId = propertyStore.getNumberOfReservedLowIds();
+        for ( int i = 0; i < nodeCount; i++ )
+        {
+            NodeRecord node = nodeStore.getRecord( i, nodeStore.newRecord(), NORMAL );
+            List<Value> values = new ArrayList<>();
+            for ( PropertyRecord record : propertyStore.getPropertyRecordChain( node.getNextProp() ) )
+            {
+                assertEquals( expectedPropertyId++, record.getId() );
+                for ( PropertyBlock block : record )
+                {
+                    propertyStore.ensureHeavy( block );
+                    values.add( propertyStore.getValue( block ) );
+                }
+            }
+            assertEquals( nodeValues.get( i ).length, values.size() );
+            for ( int key = 0; key < values.size(); key++ )
+            {
+                assertEquals( nodeValues.get( i )[key], values.get( key ) );
+            }
+        }
+        assertEquals( expectedPropertyId, propertyStore.getHighId() );
+    }
+
+    private PropertyStoreDefragmenter defragmenter( FileSystemAbstraction fs )
+    {
+        return new PropertyStoreDefragmenter( fs, storage.pageCache(), Config.defaults(), NullLogProvider.getInstance(),
+                Configuration.DEFAULT, ExecutionMonitors.invisible() );
+    }
+
+    private Value[] randomValues()
+    {
+        Value[] values = new Value[random.nextInt( 1, 10 )];
+        for ( int key = 0; key < values.length; key++ )
+        {
+            // Mix in some long strings to get dynamic records as well
+            values[key] = random.nextBoolean() ? Values.stringValue( random.nextAlphaNumericString( 50, 200 ) ) : random.nextValue();
+        }
+        return values;
+    }
+
+    private long createPropertyChain( PropertyCreator creator, NodeRecord owner, Value[] values )
+    {
+        List<PropertyBlock> blocks = new ArrayList<>();
+        for ( int key = 0; key < values.length; key++ )
+        {
+            blocks.add( creator.encodePropertyValue( key, values[key] ) );
+        }
+        DirectRecordAccessSet access = new DirectRecordAccessSet( fromStores );
+        long firstPropertyId = creator.createPropertyChain( owner, blocks.iterator(), access.getPropertyRecords() );
+        access.close();
+        return firstPropertyId;
+    }
+
+    private NeoStores openNeoStores( DatabaseLayout databaseLayout )
+    {
+        return new StoreFactory( databaseLayout, Config.defaults(), new DefaultIdGeneratorFactory( storage.fileSystem() ), storage.pageCache(),
+                storage.fileSystem(), NullLogProvider.getInstance(), EmptyVersionContextSupplier.EMPTY ).openAllNeoStores( true );
+    }
+}
@@ -80,6 +80,19 @@ public final class IndexWriterConfigs
     }
 
     public static IndexWriterConfig standard( Analyzer analyzer )
+    {
+        return standard( analyzer, MERGE_POLICY_MERGE_FACTOR, LogByteSizeMergePolicy.DEFAULT_MAX_MERGE_MB );
+    }
+
+    /**
+     * Standard configuration with a custom merge policy, to bound the background merge work triggered while writing.
+     *
+     * @param analyzer the analyzer to use.
+     * @param mergeFactor how many similarly sized segments are merged together.
+     * @param maxMergeMB segments larger than this are not merged during normal writing.
+     * @return the index writer configuration.
+     */
+    public static IndexWriterConfig standard( Analyzer analyzer, int mergeFactor, double maxMergeMB )
     {
         IndexWriterConfig writerConfig = new IndexWriterConfig( analyzer );
 
@@ -105,7 +118,8 @@ public final class IndexWriterConfigs
         LogByteSizeMergePolicy mergePolicy = new LogByteSizeMergePolicy();
         mergePolicy.setNoCFSRatio( MERGE_POLICY_NO_CFS_RATIO );
         mergePolicy.setMinMergeMB( MERGE_POLICY_MIN_MERGE_MB );
-        mergePolicy.setMergeFactor( MERGE_POLICY_MERGE_FACTOR );
+        mergePolicy.setMergeFactor( mergeFactor );
+        mergePolicy.setMaxMergeMB( maxMergeMB );
         writerConfig.setMergePolicy( mergePolicy );
 
         return writerConfig;
@@ -28,6 +28,7 @@ import java.util.Objects;
 import org.neo4j.graphdb.config.Setting;
 import org.neo4j.graphdb.factory.GraphDatabaseSettings;
 import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.kernel.api.impl.index.partition.PartitionedSearch;
 import org.neo4j.kernel.api.impl.index.storage.DirectoryFactory;
 import org.neo4j.kernel.api.impl.index.storage.PartitionedIndexStorage;
 import org.neo4j.kernel.configuration.Config;
@@ -43,6 +44,7 @@ public abstract class AbstractLuceneIndexBuilder<T extends AbstractLuceneIndexBu
     protected LuceneIndexStorageBuilder storageBuilder = LuceneIndexStorageBuilder.create();
     private final Config config;
     private OperationalMode operationalMode = OperationalMode.single;
+    protected PartitionedSearch partitionedSearch = PartitionedSearch.SEQUENTIAL;
 
     public AbstractLuceneIndexBuilder( Config config )
     {
@@ -108,6 +110,17 @@ public abstract class AbstractLuceneIndexBuilder<T extends AbstractLuceneIndexBu
         return (T) this;
     }
 
+    /**
+     * Specify how partitions of the index are searched, by default one after the other by the searching thread
+     * @param partitionedSearch partitioned search of the index provider
+     * @return index builder
+     */
+    public T withPartitionedSearch( PartitionedSearch partitionedSearch )
+    {
+        this.partitionedSearch = partitionedSearch;
+        return (T) this;
+    }
+
     /**
      * Check if index should be read only
      * @return true if index should be read only
@@ -0,0 +1,202 @@
+/*
+ * Copyright (c) 2018-2020 "Graph Foundation"
+ * Graph Foundation, Inc. [https://graphfoundation.org]
+ *
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of ONgDB.
+ *
+ * ONgDB is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.api.impl.index.partition;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.neo4j.scheduler.Group;
+import org.neo4j.scheduler.JobScheduler;
+
+/**
+ * Fans a search out over the partitions of a partitioned Lucene index.
+ * <p>
+ * An instance is owned by an index provider and shared by all the indexes of that provider. All partitions but the first are searched
+ * by jobs in the {@link Group#LUCENE_INDEX_SEARCH} group of the database {@link JobScheduler}, while the calling thread searches the
+ * first partition itself. At most {@code parallelism} such jobs run at the same time. Partitions for which no job can be started
+ * right away are searched by the calling thread too, so the amount of concurrency is bounded for the whole provider, no matter how many
+ * queries run at the same time. Results are returned in partition order.
+ * <p>
+ * {@link #SEQUENTIAL} searches partitions one after the other by the calling thread, for indexes used outside of a database.
+ */
+public final class PartitionedSearch
+{
+    /**
+     * Searches partitions one after the other by the calling thread.
+     */
+    public static final PartitionedSearch SEQUENTIAL = new PartitionedSearch( null, 0 );
+
+    private final Executor executor;
+    private final AtomicInteger availableJobs;
+
+    /**
+     * @param scheduler scheduler to search partitions on.
+     * @param parallelism maximum number of partitions searched by scheduled jobs at the same time.
+     */
+    public PartitionedSearch( JobScheduler scheduler, int parallelism )
+    {
+        this.executor = scheduler == null ? null : scheduler.executor( Group.LUCENE_INDEX_SEARCH );
+        this.availableJobs = new AtomicInteger( scheduler == null ? 0 : parallelism );
+    }
+
+    /**
+     * Search a single partition.
+     *
+     * @param <T> the type of partition, or partition reader.
+     * @param <R> the type of search result.
+     * @param <E> the type of exception the search can throw.
+     */
+    @FunctionalInterface
+    public interface PartitionSearch<T,R,E extends Exception>
+    {
+        R search( T partition ) throws E;
+    }
+
+    /**
+     * Search all the given partitions, in parallel if possible.
+     *
+     * @param partitions the partitions, or partition readers, to search.
+     * @param search the search to apply to every partition.
+     * @return the search results, in the order of the given partitions.
+     * @throws E if searching any of the partitions failed.
+     */
+    public <T,R,E extends Exception> List<R> search( List<T> partitions, PartitionSearch<T,R,E> search ) throws E
+    {
+        List<R> results = new ArrayList<>( partitions.size() );
+        if ( partitions.size() < 2 || availableJobs.get() <= 0 )
+        {
+            for ( T partition : partitions )
+            {
+                results.add( search.search( partition ) );
+            }
+            return results;
+        }
+
+        // A null future means that the partition is searched by the calling thread
+        List<Future<R>> futures = new ArrayList<>( partitions.size() - 1 );
+        for ( int i = 1; i < partitions.size(); i++ )
+        {
+            T partition = partitions.get( i );
+            futures.add( trySchedule( () -> search.search( partition ) ) );
+        }
+        try
+        {
+            results.add( search.search( partitions.get( 0 ) ) );
+            for ( int i = 0; i < futures.size(); i++ )
+            {
+                Future<R> future = futures.get( i );
+                results.add( future == null ? search.search( partitions.get( i + 1 ) ) : await( future ) );
+            }
+            return results;
+        }
+        finally
+        {
+            // Don't leave searches of remaining partitions running when one of them failed.
+            for ( Future<R> future : futures )
+            {
+                if ( future != null )
+                {
+                    future.cancel( false );
+                }
+            }
+        }
+    }
+
+    private <R> Future<R> trySchedule( Callable<R> search )
+    {
+        if ( !tryAcquireJob() )
+        {
+            return null;
+        }
+        FutureTask<R> task = new FutureTask<R>( search )
+        {
+            @Override
+            protected void done()
+            {
+                // Called both when completed and when cancelled before running
+                availableJobs.incrementAndGet();
+            }
+        };
+        try
+        {
+            executor.execute( task );
+            return task;
+        }
+        catch ( RejectedExecutionException e )
+        {
+            // E.g. the scheduler shutting down, fall back to searching in the calling thread
+            availableJobs.incrementAndGet();
+            return null;
+        }
+    }
+
+    private boolean tryAcquireJob()
+    {
+        int available;
+        do
+        {
+            available = availableJobs.get();
+            if ( available <= 0 )
+            {
+                return false;
+            }
+        }
+        while ( !availableJobs.compareAndSet( available, available - 1 ) );
+        return true;
+    }
+
+    @SuppressWarnings( "unchecked" )
+    private static <R,E extends Exception> R await( Future<R> future ) throws E
+    {
+        try
+        {
+            return future.get();
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException( "Interrupted while searching index partitions", e );
+        }
+        catch ( ExecutionException e )
+        {
+            Throwable cause = e.getCause();
+            if ( cause instanceof RuntimeException )
+            {
+                throw (RuntimeException) cause;
+            }
+            if ( cause instanceof Error )
+            {
+                throw (Error) cause;
+            }
+            // Only the partition search itself can throw checked exceptions, and those are of type E.
+            throw (E) cause;
+        }
+    }
+}
@@ -26,6 +26,7 @@ import org.neo4j.graphdb.factory.GraphDatabaseSettings;
 import org.neo4j.index.internal.gbptree.RecoveryCleanupWorkCollector;
 import org.neo4j.io.fs.FileSystemAbstraction;
 import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.kernel.api.impl.index.partition.PartitionedSearch;
 import org.neo4j.kernel.api.impl.index.storage.DirectoryFactory;
 import org.neo4j.kernel.api.index.IndexDirectoryStructure;
 import org.neo4j.kernel.api.index.IndexProvider;
@@ -35,6 +36,7 @@ import org.neo4j.kernel.impl.index.schema.NumberIndexProvider;
 import org.neo4j.kernel.impl.index.schema.SpatialIndexProvider;
 import org.neo4j.kernel.impl.index.schema.StringIndexProvider;
 import org.neo4j.kernel.impl.index.schema.TemporalIndexProvider;
+import org.neo4j.scheduler.JobScheduler;
 
 import static org.neo4j.kernel.api.impl.index.storage.DirectoryFactory.directoryFactory;
 
@@ -70,10 +72,15 @@ class IndexProviderFactoryUtil
     }
 
     static LuceneIndexProvider luceneProvider( FileSystemAbstraction fs, IndexDirectoryStructure.Factory directoryStructure, IndexProvider.Monitor monitor,
-            Config config, OperationalMode operationalMode )
+            Config config, OperationalMode operationalMode, PartitionedSearch partitionedSearch )
     {
         boolean ephemeral = config.get( GraphDatabaseSettings.ephemeral );
         DirectoryFactory directoryFactory = directoryFactory( ephemeral );
-        return new LuceneIndexProvider( fs, directoryFactory, directoryStructure, monitor, config, operationalMode );
+        return new LuceneIndexProvider( fs, directoryFactory, directoryStructure, monitor, config, operationalMode, partitionedSearch );
+    }
+
+    static PartitionedSearch partitionedSearch( JobScheduler jobScheduler )
+    {
+        return new PartitionedSearch( jobScheduler, Runtime.getRuntime().availableProcessors() );
     }
 }
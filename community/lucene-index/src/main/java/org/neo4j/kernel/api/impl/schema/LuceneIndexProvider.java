@@ -30,6 +30,7 @@ import org.neo4j.internal.kernel.api.InternalIndexState;
 import org.neo4j.io.fs.FileSystemAbstraction;
 import org.neo4j.io.pagecache.PageCache;
 import org.neo4j.kernel.api.impl.index.IndexWriterConfigs;
+import org.neo4j.kernel.api.impl.index.partition.PartitionedSearch;
 import org.neo4j.kernel.api.impl.index.storage.DirectoryFactory;
 import org.neo4j.kernel.api.impl.index.storage.IndexStorageFactory;
 import org.neo4j.kernel.api.impl.index.storage.PartitionedIndexStorage;
@@ -57,10 +58,18 @@ public class LuceneIndexProvider extends IndexProvider
     private final OperationalMode operationalMode;
     private final FileSystemAbstraction fileSystem;
     private final Monitor monitor;
+    private final PartitionedSearch partitionedSearch;
 
     public LuceneIndexProvider( FileSystemAbstraction fileSystem, DirectoryFactory directoryFactory,
                                 IndexDirectoryStructure.Factory directoryStructureFactory, Monitor monitor, Config config,
                                 OperationalMode operationalMode )
+    {
+        this( fileSystem, directoryFactory, directoryStructureFactory, monitor, config, operationalMode, PartitionedSearch.SEQUENTIAL );
+    }
+
+    public LuceneIndexProvider( FileSystemAbstraction fileSystem, DirectoryFactory directoryFactory,
+                                IndexDirectoryStructure.Factory directoryStructureFactory, Monitor monitor, Config config,
+                                OperationalMode operationalMode, PartitionedSearch partitionedSearch )
     {
         super( LuceneIndexProviderFactory.PROVIDER_DESCRIPTOR, directoryStructureFactory );
         this.monitor = monitor;
@@ -68,6 +77,7 @@ public class LuceneIndexProvider extends IndexProvider
         this.fileSystem = fileSystem;
         this.config = config;
         this.operationalMode = operationalMode;
+        this.partitionedSearch = partitionedSearch;
     }
 
     public static IndexDirectoryStructure.Factory defaultDirectoryStructure( File storeDir )
@@ -114,6 +124,7 @@ public class LuceneIndexProvider extends IndexProvider
                                             .withOperationalMode( operationalMode )
                                             .withSamplingConfig( samplingConfig )
                                             .withIndexStorage( getIndexStorage( descriptor.getId() ) )
+                                            .withPartitionedSearch( partitionedSearch )
                                             .build();
         luceneIndex.open();
         return new LuceneIndexAccessor( luceneIndex, descriptor );
@@ -32,6 +32,7 @@ import org.neo4j.kernel.api.impl.index.AbstractLuceneIndex;
 import org.neo4j.kernel.api.impl.index.partition.AbstractIndexPartition;
 import org.neo4j.kernel.api.impl.index.partition.IndexPartitionFactory;
 import org.neo4j.kernel.api.impl.index.partition.PartitionSearcher;
+import org.neo4j.kernel.api.impl.index.partition.PartitionedSearch;
 import org.neo4j.kernel.api.impl.index.storage.PartitionedIndexStorage;
 import org.neo4j.kernel.api.impl.schema.reader.PartitionedIndexReader;
 import org.neo4j.kernel.api.impl.schema.reader.SimpleIndexReader;
@@ -51,14 +52,16 @@ class LuceneSchemaIndex extends AbstractLuceneIndex<IndexReader>
 {
 
     private final IndexSamplingConfig samplingConfig;
+    private final PartitionedSearch partitionedSearch;
 
     private final TaskCoordinator taskCoordinator = new TaskCoordinator( 10, TimeUnit.MILLISECONDS );
 
     LuceneSchemaIndex( PartitionedIndexStorage indexStorage, IndexDescriptor descriptor,
-            IndexSamplingConfig samplingConfig, IndexPartitionFactory partitionFactory )
+            IndexSamplingConfig samplingConfig, IndexPartitionFactory partitionFactory, PartitionedSearch partitionedSearch )
     {
         super( indexStorage, partitionFactory, descriptor );
         this.samplingConfig = samplingConfig;
+        this.partitionedSearch = partitionedSearch;
     }
 
     /**
@@ -147,7 +150,7 @@ class LuceneSchemaIndex extends AbstractLuceneIndex<IndexReader>
     protected PartitionedIndexReader createPartitionedReader( List<AbstractIndexPartition> partitions ) throws IOException
     {
         List<PartitionSearcher> searchers = acquireSearchers( partitions );
-        return new PartitionedIndexReader( searchers, descriptor, samplingConfig, taskCoordinator );
+        return new PartitionedIndexReader( searchers, descriptor, samplingConfig, taskCoordinator, partitionedSearch );
     }
 
 }
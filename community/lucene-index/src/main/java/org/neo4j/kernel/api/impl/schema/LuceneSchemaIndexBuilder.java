@@ -101,13 +101,13 @@ public class LuceneSchemaIndexBuilder extends AbstractLuceneIndexBuilder<LuceneS
         if ( isReadOnly() )
         {
             return new ReadOnlyDatabaseSchemaIndex( storageBuilder.build(), descriptor, samplingConfig,
-                    new ReadOnlyIndexPartitionFactory() );
+                    new ReadOnlyIndexPartitionFactory(), partitionedSearch );
         }
         else
         {
             PartitionedIndexStorage storage = storageBuilder.build();
             return new WritableDatabaseSchemaIndex( storage, descriptor, samplingConfig,
-                    new WritableIndexPartitionFactory( writerConfigFactory ) );
+                    new WritableIndexPartitionFactory( writerConfigFactory ), partitionedSearch );
         }
     }
 }
@@ -27,6 +27,7 @@ import java.util.List;
 
 import org.neo4j.kernel.api.exceptions.index.IndexEntryConflictException;
 import org.neo4j.kernel.api.impl.index.WritableAbstractDatabaseIndex;
+import org.neo4j.kernel.api.impl.index.partition.PartitionedSearch;
 import org.neo4j.kernel.api.impl.index.partition.WritableIndexPartitionFactory;
 import org.neo4j.kernel.api.impl.index.storage.PartitionedIndexStorage;
 import org.neo4j.storageengine.api.NodePropertyAccessor;
@@ -42,9 +43,10 @@ public class WritableDatabaseSchemaIndex extends WritableAbstractDatabaseIndex<L
 {
 
     public WritableDatabaseSchemaIndex( PartitionedIndexStorage storage, IndexDescriptor descriptor,
-            IndexSamplingConfig samplingConfig, WritableIndexPartitionFactory writableIndexPartitionFactory )
+            IndexSamplingConfig samplingConfig, WritableIndexPartitionFactory writableIndexPartitionFactory,
+            PartitionedSearch partitionedSearch )
     {
-        super( new LuceneSchemaIndex( storage, descriptor, samplingConfig, writableIndexPartitionFactory ) );
+        super( new LuceneSchemaIndex( storage, descriptor, samplingConfig, writableIndexPartitionFactory, partitionedSearch ) );
     }
 
     /**
@@ -24,7 +24,6 @@ package org.neo4j.kernel.api.impl.schema.reader;
 
 import java.io.IOException;
 import java.util.List;
-import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import org.neo4j.collection.PrimitiveLongResourceCollections;
@@ -35,6 +34,7 @@ import org.neo4j.internal.kernel.api.IndexQuery;
 import org.neo4j.internal.kernel.api.exceptions.schema.IndexNotApplicableKernelException;
 import org.neo4j.io.IOUtils;
 import org.neo4j.kernel.api.impl.index.partition.PartitionSearcher;
+import org.neo4j.kernel.api.impl.index.partition.PartitionedSearch;
 import org.neo4j.kernel.api.impl.index.sampler.AggregatingIndexSampler;
 import org.neo4j.kernel.impl.api.index.sampling.IndexSamplingConfig;
 import org.neo4j.kernel.impl.api.schema.BridgingIndexProgressor;
@@ -42,7 +42,6 @@ import org.neo4j.storageengine.api.NodePropertyAccessor;
 import org.neo4j.storageengine.api.schema.AbstractIndexReader;
 import org.neo4j.storageengine.api.schema.IndexDescriptor;
 import org.neo4j.storageengine.api.schema.IndexProgressor;
-import org.neo4j.storageengine.api.schema.IndexReader;
 import org.neo4j.storageengine.api.schema.IndexSampler;
 import org.neo4j.values.storable.Value;
 
@@ -55,61 +54,44 @@ import org.neo4j.values.storable.Value;
 public class PartitionedIndexReader extends AbstractIndexReader
 {
     private final List<SimpleIndexReader> indexReaders;
+    private final PartitionedSearch partitionedSearch;
 
     public PartitionedIndexReader( List<PartitionSearcher> partitionSearchers,
             IndexDescriptor descriptor,
             IndexSamplingConfig samplingConfig,
-            TaskCoordinator taskCoordinator )
+            TaskCoordinator taskCoordinator,
+            PartitionedSearch partitionedSearch )
     {
         this( descriptor, partitionSearchers.stream()
                 .map( partitionSearcher -> new SimpleIndexReader( partitionSearcher, descriptor,
                         samplingConfig, taskCoordinator ) )
-                .collect( Collectors.toList() ) );
+                .collect( Collectors.toList() ), partitionedSearch );
     }
 
-    PartitionedIndexReader( IndexDescriptor descriptor, List<SimpleIndexReader> readers )
+    PartitionedIndexReader( IndexDescriptor descriptor, List<SimpleIndexReader> readers, PartitionedSearch partitionedSearch )
     {
         super( descriptor );
         this.indexReaders = readers;
+        this.partitionedSearch = partitionedSearch;
     }
 
     @Override
     public PrimitiveLongResourceIterator query( IndexQuery... predicates ) throws IndexNotApplicableKernelException
     {
-        try
-        {
-            return partitionedOperation( reader -> innerQuery( reader, predicates ) );
-        }
-        catch ( InnerException e )
-        {
-            throw e.getCause();
-        }
+        return PrimitiveLongResourceCollections.concat( partitionedSearch.search( indexReaders, reader -> reader.query( predicates ) ) );
     }
 
     @Override
     public void query( IndexProgressor.NodeValueClient client, IndexOrder indexOrder, boolean needsValues, IndexQuery... query )
             throws IndexNotApplicableKernelException
     {
-        try
-        {
-            BridgingIndexProgressor bridgingIndexProgressor = new BridgingIndexProgressor( client, descriptor.schema().getPropertyIds() );
-            indexReaders.parallelStream().forEach( reader ->
-            {
-                try
-                {
-                    reader.query( bridgingIndexProgressor, indexOrder, needsValues, query );
-                }
-                catch ( IndexNotApplicableKernelException e )
-                {
-                    throw new InnerException( e );
-                }
-            } );
-            client.initialize( descriptor, bridgingIndexProgressor, query, indexOrder, needsValues );
-        }
-        catch ( InnerException e )
+        BridgingIndexProgressor bridgingIndexProgressor = new BridgingIndexProgressor( client, descriptor.schema().getPropertyIds() );
+        partitionedSearch.search( indexReaders, reader ->
         {
-            throw e.getCause();
-        }
+            reader.query( bridgingIndexProgressor, indexOrder, needsValues, query );
+            return null;
+        } );
+        client.initialize( descriptor, bridgingIndexProgressor, query, indexOrder, needsValues );
     }
 
     @Override
@@ -122,34 +104,12 @@ public class PartitionedIndexReader extends AbstractIndexReader
     public void distinctValues( IndexProgressor.NodeValueClient client, NodePropertyAccessor propertyAccessor, boolean needsValues )
     {
         BridgingIndexProgressor bridgingIndexProgressor = new BridgingIndexProgressor( client, descriptor.schema().getPropertyIds() );
-        indexReaders.parallelStream().forEach( reader -> reader.distinctValues( bridgingIndexProgressor, propertyAccessor, needsValues ) );
-        client.initialize( descriptor, bridgingIndexProgressor, new IndexQuery[0], IndexOrder.NONE, needsValues );
-    }
-
-    private PrimitiveLongResourceIterator innerQuery( IndexReader reader, IndexQuery[] predicates )
-    {
-        try
+        partitionedSearch.search( indexReaders, reader ->
         {
-            return reader.query( predicates );
-        }
-        catch ( IndexNotApplicableKernelException e )
-        {
-            throw new InnerException( e );
-        }
-    }
-
-    private static final class InnerException extends RuntimeException
-    {
-        private InnerException( IndexNotApplicableKernelException e )
-        {
-            super( e );
-        }
-
-        @Override
-        public synchronized IndexNotApplicableKernelException getCause()
-        {
-            return (IndexNotApplicableKernelException) super.getCause();
-        }
+            reader.distinctValues( bridgingIndexProgressor, propertyAccessor, needsValues );
+            return null;
+        } );
+        client.initialize( descriptor, bridgingIndexProgressor, new IndexQuery[0], IndexOrder.NONE, needsValues );
     }
 
     @Override
@@ -181,12 +141,4 @@ public class PartitionedIndexReader extends AbstractIndexReader
             throw new IndexReaderCloseException( e );
         }
     }
-
-    private PrimitiveLongResourceIterator partitionedOperation(
-            Function<SimpleIndexReader,PrimitiveLongResourceIterator> readerFunction )
-    {
-        return PrimitiveLongResourceCollections.concat( indexReaders.parallelStream()
-                .map( readerFunction )
-                .collect( Collectors.toList() ) );
-    }
 }
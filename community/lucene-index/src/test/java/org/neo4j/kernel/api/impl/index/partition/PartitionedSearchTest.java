@@ -0,0 +1,161 @@
+/*
+ * Copyright (c) 2018-2020 "Graph Foundation"
+ * Graph Foundation, Inc. [https://graphfoundation.org]
+ *
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of ONgDB.
+ *
+ * ONgDB is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.api.impl.index.partition;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.neo4j.scheduler.JobScheduler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.neo4j.kernel.impl.scheduler.JobSchedulerFactory.createInitialisedScheduler;
+
+class PartitionedSearchTest
+{
+    private final JobScheduler scheduler = createInitialisedScheduler();
+    private final PartitionedSearch partitionedSearch = new PartitionedSearch( scheduler, 4 );
+
+    @AfterEach
+    void tearDown() throws Throwable
+    {
+        scheduler.shutdown();
+    }
+
+    @Test
+    void mustReturnResultsInPartitionOrder() throws Exception
+    {
+        List<Integer> partitions = IntStream.range( 0, 50 ).boxed().collect( Collectors.toList() );
+
+        List<String> results = partitionedSearch.search( partitions, partition -> "result-" + partition );
+
+        assertEquals( partitions.stream().map( partition -> "result-" + partition ).collect( Collectors.toList() ), results );
+    }
+
+    @Test
+    void mustSearchEveryPartitionOnce() throws Exception
+    {
+        List<Integer> partitions = IntStream.range( 0, 20 ).boxed().collect( Collectors.toList() );
+        List<Integer> searched = Collections.synchronizedList( new ArrayList<>() );
+
+        partitionedSearch.search( partitions, partition -> searched.add( partition ) );
+
+        assertEquals( partitions, searched.stream().sorted().collect( Collectors.toList() ) );
+    }
+
+    @Test
+    void mustHandleNoAndSinglePartitions() throws Exception
+    {
+        assertEquals( Collections.emptyList(), partitionedSearch.search( Collections.<Integer>emptyList(), partition -> partition ) );
+        assertEquals( Collections.singletonList( 2 ), partitionedSearch.search( Collections.singletonList( 1 ), partition -> partition * 2 ) );
+    }
+
+    @Test
+    void mustPropagateCheckedExceptionFromAnyPartition()
+    {
+        for ( int failing = 0; failing < 3; failing++ )
+        {
+            int failingPartition = failing;
+            IOException exception = assertThrows( IOException.class, () -> partitionedSearch.search( Arrays.asList( 0, 1, 2 ), partition ->
+            {
+                if ( partition == failingPartition )
+                {
+                    throw new IOException( "partition " + partition );
+                }
+                return partition;
+            } ) );
+            assertEquals( "partition " + failing, exception.getMessage() );
+        }
+    }
+
+    @Test
+    void mustPropagateRuntimeExceptionFromAnyPartition()
+    {
+        IllegalStateException exception = assertThrows( IllegalStateException.class, () -> partitionedSearch.search( Arrays.asList( 0, 1, 2 ), partition ->
+        {
+            if ( partition == 2 )
+            {
+                throw new IllegalStateException( "partition " + partition );
+            }
+            return partition;
+        } ) );
+        assertEquals( "partition 2", exception.getMessage() );
+    }
+
+    @Test
+    void mustSearchPartitionsThatCannotBeScheduledInCallingThread() throws Exception
+    {
+        PartitionedSearch singleJob = new PartitionedSearch( scheduler, 1 );
+        Map<Integer,Thread> searchingThreads = new ConcurrentHashMap<>();
+
+        CountDownLatch firstPartitionSearched = new CountDownLatch( 1 );
+
+        singleJob.search( Arrays.asList( 0, 1, 2 ), partition ->
+        {
+            if ( partition == 0 )
+            {
+                firstPartitionSearched.countDown();
+            }
+            else if ( partition == 1 )
+            {
+                // Hold on to the only job until all partitions have been handed out
+                firstPartitionSearched.await();
+            }
+            return searchingThreads.put( partition, Thread.currentThread() );
+        } );
+
+        assertEquals( Thread.currentThread(), searchingThreads.get( 0 ) );
+        assertNotEquals( Thread.currentThread(), searchingThreads.get( 1 ) );
+        assertEquals( Thread.currentThread(), searchingThreads.get( 2 ) );
+    }
+
+    @Test
+    void mustSearchInCallingThreadWhenSequential() throws Exception
+    {
+        Map<Integer,Thread> searchingThreads = new ConcurrentHashMap<>();
+
+        List<Integer> results = PartitionedSearch.SEQUENTIAL.search( Arrays.asList( 0, 1, 2 ), partition ->
+        {
+            searchingThreads.put( partition, Thread.currentThread() );
+            return partition;
+        } );
+
+        assertEquals( Arrays.asList( 0, 1, 2 ), results );
+        for ( int partition = 0; partition < 3; partition++ )
+        {
+            assertEquals( Thread.currentThread(), searchingThreads.get( partition ) );
+        }
+    }
+}
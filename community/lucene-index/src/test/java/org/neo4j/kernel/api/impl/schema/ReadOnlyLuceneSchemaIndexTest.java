@@ -30,6 +30,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import java.io.IOException;
 
 import org.neo4j.io.fs.DefaultFileSystemAbstraction;
+import org.neo4j.kernel.api.impl.index.partition.PartitionedSearch;
 import org.neo4j.kernel.api.impl.index.partition.ReadOnlyIndexPartitionFactory;
 import org.neo4j.kernel.api.impl.index.storage.DirectoryFactory;
 import org.neo4j.kernel.api.impl.index.storage.PartitionedIndexStorage;
@@ -61,7 +62,7 @@ class ReadOnlyLuceneSchemaIndexTest
         Config config = Config.defaults();
         IndexSamplingConfig samplingConfig = new IndexSamplingConfig( config );
         luceneSchemaIndex = new ReadOnlyDatabaseSchemaIndex( indexStorage, TestIndexDescriptorFactory.forLabel( 0, 0 ), samplingConfig,
-                new ReadOnlyIndexPartitionFactory() );
+                new ReadOnlyIndexPartitionFactory(), PartitionedSearch.SEQUENTIAL );
     }
 
     @AfterEach
@@ -38,6 +38,7 @@ import org.neo4j.helpers.TaskCoordinator;
 import org.neo4j.internal.kernel.api.IndexQuery;
 import org.neo4j.internal.kernel.api.exceptions.schema.IndexNotFoundKernelException;
 import org.neo4j.kernel.api.impl.index.partition.PartitionSearcher;
+import org.neo4j.kernel.api.impl.index.partition.PartitionedSearch;
 import org.neo4j.kernel.api.schema.index.TestIndexDescriptorFactory;
 import org.neo4j.kernel.impl.api.index.sampling.IndexSamplingConfig;
 import org.neo4j.storageengine.api.schema.IndexDescriptor;
@@ -188,7 +189,7 @@ public class PartitionedIndexReaderTest
 
     private PartitionedIndexReader createPartitionedReaderFromReaders()
     {
-        return new PartitionedIndexReader( schemaIndexDescriptor, getPartitionReaders() );
+        return new PartitionedIndexReader( schemaIndexDescriptor, getPartitionReaders(), PartitionedSearch.SEQUENTIAL );
     }
 
     private List<SimpleIndexReader> getPartitionReaders()
@@ -198,7 +199,8 @@ public class PartitionedIndexReaderTest
 
     private PartitionedIndexReader createPartitionedReader()
     {
-        return new PartitionedIndexReader( getPartitionSearchers(), schemaIndexDescriptor, samplingConfig, taskCoordinator );
+        return new PartitionedIndexReader( getPartitionSearchers(), schemaIndexDescriptor, samplingConfig, taskCoordinator,
+                PartitionedSearch.SEQUENTIAL );
     }
 
     private List<PartitionSearcher> getPartitionSearchers()
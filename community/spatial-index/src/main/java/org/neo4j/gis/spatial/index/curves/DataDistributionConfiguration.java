@@ -0,0 +1,156 @@
+/*
+ * Copyright (c) 2018-2020 "Graph Foundation"
+ * Graph Foundation, Inc. [https://graphfoundation.org]
+ *
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of ONgDB.
+ *
+ * ONgDB is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.gis.spatial.index.curves;
+
+import org.neo4j.gis.spatial.index.Envelope;
+
+/**
+ * A configuration that splits each tile by how many indexed values it holds, as told by a {@link Histogram} of those values on the curve.
+ * <p>
+ * A tile holding few values is returned as one range, even if it only partly overlaps the search envelope, since filtering out
+ * the values outside of the envelope costs less than seeking more ranges. A tile holding many values is split further, beyond
+ * the depth the delegate would stop at if need be, until the expected number of values outside of the envelope is within
+ * the false positive budget. With skewed data, like points clustered in cities, this avoids both many tiny ranges over
+ * empty areas and huge ranges over dense ones. Tiles are split at most {@code extraLevels} levels deeper than the delegate
+ * would go, every level deeper at most doubles the number of ranges along each edge of the envelope, which keeps the number
+ * of ranges within a constant factor of what the delegate produces no matter how dense the data is.
+ * <p>
+ * The histogram is a snapshot. Values added after it was taken are still found, they only make the estimates less accurate.
+ */
+public class DataDistributionConfiguration implements SpaceFillingCurveConfiguration
+{
+    public static final int DEFAULT_EXTRA_LEVELS = 2;
+
+    private final SpaceFillingCurveConfiguration delegate;
+    private final Histogram histogram;
+    private final long[] cumulativeCounts;
+    private final double falsePositiveBudget;
+    private final int extraLevels;
+
+    public DataDistributionConfiguration( SpaceFillingCurveConfiguration delegate, Histogram histogram, int falsePositiveBudget )
+    {
+        this( delegate, histogram, falsePositiveBudget, DEFAULT_EXTRA_LEVELS );
+    }
+
+    public DataDistributionConfiguration( SpaceFillingCurveConfiguration delegate, Histogram histogram, int falsePositiveBudget, int extraLevels )
+    {
+        this.delegate = delegate;
+        this.histogram = histogram;
+        this.falsePositiveBudget = falsePositiveBudget;
+        this.extraLevels = extraLevels;
+        this.cumulativeCounts = new long[histogram.counts.length + 1];
+        for ( int i = 0; i < histogram.counts.length; i++ )
+        {
+            cumulativeCounts[i + 1] = cumulativeCounts[i] + histogram.counts[i];
+        }
+    }
+
+    @Override
+    public boolean stopAtThisDepth( double overlap, int depth, int maxDepth )
+    {
+        return delegate.stopAtThisDepth( overlap, depth, maxDepth );
+    }
+
+    @Override
+    public boolean stopAtThisDepth( double overlap, int depth, int maxDepth, long tileMin, long tileMax )
+    {
+        return overlap >= 0.99 || depth >= maxDepth + extraLevels || estimatedValues( tileMin, tileMax ) * (1 - overlap) <= falsePositiveBudget;
+    }
+
+    @Override
+    public int maxDepth( Envelope referenceEnvelope, Envelope range, int nbrDim, int maxLevel )
+    {
+        return delegate.maxDepth( referenceEnvelope, range, nbrDim, maxLevel );
+    }
+
+    @Override
+    public int initialRangesListCapacity()
+    {
+        return delegate.initialRangesListCapacity();
+    }
+
+    /**
+     * @return the estimated number of values between {@code min} and {@code max}, inclusive. Values are assumed to be evenly
+     * distributed within each bucket of the histogram.
+     */
+    double estimatedValues( long min, long max )
+    {
+        long[] counts = histogram.counts;
+        double bucketWidth = histogram.bucketWidth();
+        int first = histogram.bucket( min );
+        int last = histogram.bucket( max );
+        if ( first == last )
+        {
+            return counts[first] * ((max - min + 1) / bucketWidth);
+        }
+        double estimate = cumulativeCounts[last + 1] - cumulativeCounts[first];
+        estimate -= counts[first] * ((min - histogram.bucketMin( first )) / bucketWidth);
+        estimate -= counts[last] * ((histogram.bucketMin( last + 1 ) - 1 - max) / bucketWidth);
+        return estimate;
+    }
+
+    @Override
+    public String toString()
+    {
+        return getClass().getSimpleName() + "(" + delegate + "," + falsePositiveBudget + "," + extraLevels + ")";
+    }
+
+    /**
+     * Number of values in each tile of a space filling curve at a level deep enough to tell dense areas from sparse ones,
+     * but shallow enough to be kept in memory, {@value #MAX_BUCKET_BITS} bits of the curve values at most.
+     */
+    public static class Histogram
+    {
+        private static final int MAX_BUCKET_BITS = 16;
+
+        private final int shift;
+        private final long[] counts;
+
+        public Histogram( SpaceFillingCurve curve )
+        {
+            int level = Math.min( curve.getMaxLevel(), MAX_BUCKET_BITS / curve.getDimension() );
+            this.shift = curve.getDimension() * (curve.getMaxLevel() - level);
+            this.counts = new long[1 << (curve.getDimension() * level)];
+        }
+
+        public void add( long derivedValue )
+        {
+            counts[bucket( derivedValue )]++;
+        }
+
+        private int bucket( long derivedValue )
+        {
+            return (int) (derivedValue >>> shift);
+        }
+
+        private long bucketMin( int bucket )
+        {
+            return (long) bucket << shift;
+        }
+
+        private double bucketWidth()
+        {
+            return 1L << shift;
+        }
+    }
+}
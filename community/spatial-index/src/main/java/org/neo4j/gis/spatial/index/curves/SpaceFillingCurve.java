@@ -107,6 +107,11 @@ public abstract class SpaceFillingCurve
         this.quadFactor = (int) Math.pow( 2, nbrDim );
     }
 
+    public int getDimension()
+    {
+        return nbrDim;
+    }
+
     public int getMaxLevel()
     {
         return maxLevel;
@@ -302,6 +307,10 @@ public abstract class SpaceFillingCurve
 
         addTilesIntersectingEnvelopeAt( config, monitor, 0, config.maxDepth( referenceEnvelope, this.range, nbrDim, maxLevel ), search,
                 wholeExtent, rootCurve(), 0, this.getValueWidth(), results );
+        if ( monitor != null )
+        {
+            monitor.registerRanges( results.size() );
+        }
         return results;
     }
 
@@ -333,7 +342,7 @@ public abstract class SpaceFillingCurve
         else if ( search.intersects( currentExtent ) )
         {
             double overlap = search.fractionOf( currentExtent );
-            if ( config.stopAtThisDepth( overlap, depth, maxDepth ) )
+            if ( config.stopAtThisDepth( overlap, depth, maxDepth, left, right - 1 ) )
             {
                 // Note that LongRange upper bound is inclusive, hence the '-1' in several places
                 LongRange current = (results.size() > 0) ? results.get( results.size() - 1 ) : null;
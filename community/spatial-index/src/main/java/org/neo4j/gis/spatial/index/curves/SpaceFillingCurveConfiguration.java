@@ -43,6 +43,24 @@ public interface SpaceFillingCurveConfiguration
      */
     boolean stopAtThisDepth( double overlap, int depth, int maxDepth );
 
+    /**
+     * Decides whether to stop at this depth or recurse deeper, knowing which values on the curve the current tile covers.
+     * Configurations that know how the indexed values are distributed over the curve can use this to split each tile by
+     * how many values it holds, by default this is the same as {@link #stopAtThisDepth(double, int, int)}.
+     *
+     * @param overlap the overlap between search space and the current extent
+     * @param depth the current recursion depth
+     * @param maxDepth the maximum depth that was calculated to recurse to,
+     * @param tileMin the lowest value on the curve in the current extent
+     * @param tileMax the highest value on the curve in the current extent, inclusive
+     * @return if the algorithm should recurse deeper, returns {@code false}; if the algorithm
+     * should stop at this depth, returns {@code true}
+     */
+    default boolean stopAtThisDepth( double overlap, int depth, int maxDepth, long tileMin, long tileMax )
+    {
+        return stopAtThisDepth( overlap, depth, maxDepth );
+    }
+
     /**
      * Decide how deep to recurse at max.
      *
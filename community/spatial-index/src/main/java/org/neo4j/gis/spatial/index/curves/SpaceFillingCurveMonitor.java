@@ -42,4 +42,18 @@ public interface SpaceFillingCurveMonitor
      * by adding a range.
      */
     void addToCoveredArea( long size );
+
+    /**
+     * Tell the monitor how many ranges a search envelope was mapped to.
+     */
+    default void registerRanges( int ranges )
+    {   // no-op
+    }
+
+    /**
+     * Tell the monitor how many values found in the ranges of a search were filtered out for not being within the search envelope.
+     */
+    default void registerFalsePositives( long falsePositives )
+    {   // no-op
+    }
 }
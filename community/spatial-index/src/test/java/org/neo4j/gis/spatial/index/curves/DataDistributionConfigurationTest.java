@@ -0,0 +1,153 @@
+/*
+ * Copyright (c) 2018-2020 "Graph Foundation"
+ * Graph Foundation, Inc. [https://graphfoundation.org]
+ *
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of ONgDB.
+ *
+ * ONgDB is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.gis.spatial.index.curves;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.neo4j.gis.spatial.index.Envelope;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class DataDistributionConfigurationTest
+{
+    private final HilbertSpaceFillingCurve2D curve = new HilbertSpaceFillingCurve2D( new Envelope( -100, 100, -100, 100 ) );
+    private final SpaceFillingCurveConfiguration standard = new StandardConfiguration();
+    private final List<double[]> points = new ArrayList<>();
+    private DataDistributionConfiguration adaptive;
+
+    @BeforeEach
+    void setUp()
+    {
+        // A dense city around (50,50) and a sparse countryside
+        Random random = new Random( 1 );
+        for ( int i = 0; i < 10_000; i++ )
+        {
+            points.add( new double[]{50 + random.nextGaussian() * 2, 50 + random.nextGaussian() * 2} );
+        }
+        for ( int i = 0; i < 100; i++ )
+        {
+            points.add( new double[]{random.nextDouble() * 200 - 100, random.nextDouble() * 200 - 100} );
+        }
+        DataDistributionConfiguration.Histogram histogram = new DataDistributionConfiguration.Histogram( curve );
+        for ( double[] point : points )
+        {
+            histogram.add( curve.derivedValueFor( point ) );
+        }
+        adaptive = new DataDistributionConfiguration( standard, histogram, 16 );
+    }
+
+    @Test
+    void shouldEstimateNumberOfValuesOnCurve()
+    {
+        assertThat( adaptive.estimatedValues( 0, curve.getValueWidth() - 1 ), closeTo( points.size(), 0.001 ) );
+        long quarter = curve.getValueWidth() / 4;
+        double estimatedInQuarters = 0;
+        for ( int i = 0; i < 4; i++ )
+        {
+            estimatedInQuarters += adaptive.estimatedValues( i * quarter, (i + 1) * quarter - 1 );
+        }
+        assertThat( estimatedInQuarters, closeTo( points.size(), 0.001 ) );
+    }
+
+    @Test
+    void shouldFindSameValuesWithFewerFalsePositivesInDenseAreas()
+    {
+        assertFewerFalsePositives( new double[]{45, 45}, new double[]{50, 50} );
+        assertFewerFalsePositives( new double[]{49, -100}, new double[]{51, 100} );
+        assertFewerFalsePositives( new double[]{-90, -90}, new double[]{40, 40} );
+    }
+
+    @Test
+    void shouldUseFewerRangesInSparseAreas()
+    {
+        double[] from = {-90, -90};
+        double[] to = {-89.9, 40};
+        List<SpaceFillingCurve.LongRange> standardRanges = curve.getTilesIntersectingEnvelope( from, to, standard );
+        List<SpaceFillingCurve.LongRange> adaptiveRanges = curve.getTilesIntersectingEnvelope( from, to, adaptive );
+
+        assertThat( adaptiveRanges.size(), lessThan( standardRanges.size() ) );
+        assertEquals( found( from, to, standardRanges )[0], found( from, to, adaptiveRanges )[0] );
+    }
+
+    @Test
+    void shouldSplitDenseTilesAtMostExtraLevelsDeeperThanDelegate()
+    {
+        // Without a false positive budget every tile holding values would otherwise be split down to the finest level of the curve
+        double[] from = {49, 49};
+        double[] to = {51.3, 51.7};
+        DataDistributionConfiguration.Histogram histogram = new DataDistributionConfiguration.Histogram( curve );
+        for ( double[] point : points )
+        {
+            histogram.add( curve.derivedValueFor( point ) );
+        }
+        DataDistributionConfiguration unbudgeted = new DataDistributionConfiguration( standard, histogram, 0 );
+        SpaceFillingCurveConfiguration deepest = new StandardConfiguration( StandardConfiguration.DEFAULT_EXTRA_LEVELS +
+                DataDistributionConfiguration.DEFAULT_EXTRA_LEVELS );
+
+        List<SpaceFillingCurve.LongRange> adaptiveRanges = curve.getTilesIntersectingEnvelope( from, to, unbudgeted );
+        List<SpaceFillingCurve.LongRange> deepestRanges = curve.getTilesIntersectingEnvelope( from, to, deepest );
+
+        assertThat( adaptiveRanges.size(), lessThanOrEqualTo( deepestRanges.size() ) );
+        assertEquals( found( from, to, deepestRanges )[0], found( from, to, adaptiveRanges )[0] );
+    }
+
+    private void assertFewerFalsePositives( double[] from, double[] to )
+    {
+        int[] standardFound = found( from, to, curve.getTilesIntersectingEnvelope( from, to, standard ) );
+        int[] adaptiveFound = found( from, to, curve.getTilesIntersectingEnvelope( from, to, adaptive ) );
+
+        assertEquals( standardFound[0], adaptiveFound[0] );
+        assertThat( adaptiveFound[1], lessThan( standardFound[1] ) );
+    }
+
+    /**
+     * @return number of points within the envelope and number of points outside of it, found in the ranges.
+     */
+    private int[] found( double[] from, double[] to, List<SpaceFillingCurve.LongRange> ranges )
+    {
+        int[] found = new int[2];
+        for ( double[] point : points )
+        {
+            long derivedValue = curve.derivedValueFor( point );
+            for ( SpaceFillingCurve.LongRange range : ranges )
+            {
+                if ( derivedValue >= range.min && derivedValue <= range.max )
+                {
+                    boolean within = point[0] >= from[0] && point[0] <= to[0] && point[1] >= from[1] && point[1] <= to[1];
+                    found[within ? 0 : 1]++;
+                    break;
+                }
+            }
+        }
+        return found;
+    }
+}
@@ -24,7 +24,10 @@ import java.time.OffsetTime
 import java.time.ZoneOffset
 
 import org.neo4j.cypher.ExecutionEngineFunSuite
+import org.neo4j.cypher.internal.runtime.planDescription.InternalPlanDescription.Arguments.Runtime
+import org.neo4j.graphdb
 import org.neo4j.graphdb.Node
+import org.neo4j.graphdb.impl.notification.NotificationCode.RUNTIME_UNSUPPORTED
 import org.neo4j.internal.cypher.acceptance.comparisonsupport.ComparePlansWithAssertion
 import org.neo4j.internal.cypher.acceptance.comparisonsupport.Configs
 import org.neo4j.internal.cypher.acceptance.comparisonsupport.CypherComparisonSupport
@@ -327,22 +330,139 @@ class CompositeIndexAcceptanceTest extends ExecutionEngineFunSuite with CypherCo
     executeWith(Configs.All - Configs.Version3_1 - Configs.Version2_3, "CREATE INDEX ON :Person(firstname, lastname)")
   }
 
-  test("should not use range queries against a composite index") {
+  test("should use range queries on the last property against a composite index") {
     // Given
     graph.createIndex("X", "p1", "p2")
     val n = createLabeledNode(Map("p1" -> 1, "p2" -> 1), "X")
+    createLabeledNode(Map("p1" -> 2, "p2" -> 1), "X")
+    createLabeledNode(Map("p1" -> 1, "p2" -> 0), "X")
 
     // When
     val result = executeWith(Configs.InterpretedAndSlotted, "match (n:X) where n.p1 = 1 AND n.p2 > 0 return n;",
       planComparisonStrategy = ComparePlansWithAssertion((plan) => {
         //THEN
-        plan shouldNot includeSomewhere.aPlan("NodeIndexSeek").containingArgument(":X(p1,p2)")
-      }))
+        plan should includeSomewhere.aPlan("NodeIndexSeekByRange").containingArgument(":X(p1,p2)")
+      }, compositeRangeSeekNotSupported))
 
     // Then
     result.toComparableResult should equal(Seq(Map("n" -> n)))
   }
 
+  for (cypherToken <- Seq("ASC", "DESC")) {
+
+    def orderOf[T](ascending: Seq[T]): Seq[T] = if (cypherToken == "DESC") ascending.reverse else ascending
+
+    test(s"$cypherToken: should solve ORDER BY ... LIMIT on the last property with a composite range seek") {
+      // Given
+      createUsers()
+
+      // When
+      val result = executeWith(Configs.InterpretedAndSlotted,
+        s"MATCH (n:User) WHERE n.name = 'joe' AND n.age > 10 RETURN n.age ORDER BY n.age $cypherToken LIMIT 3",
+        planComparisonStrategy = ComparePlansWithAssertion((plan) => {
+          //THEN
+          plan should includeSomewhere.aPlan("NodeIndexSeekByRange").containingArgument(":User(name,age)")
+          plan shouldNot includeSomewhere.aPlan("Sort")
+          plan shouldNot includeSomewhere.aPlan("Top")
+        }, compositeRangeSeekNotSupported))
+
+      // Then
+      result.toList should equal(orderOf(11 to 100).take(3).map(age => Map("n.age" -> age)))
+    }
+
+    test(s"$cypherToken: should solve ORDER BY ... LIMIT on the last property with a composite prefix seek") {
+      // Given
+      graph.createIndex("User", "age", "name")
+      Seq("bob", "bobby", "bobbie", "alice", "robert").foreach(name => createLabeledNode(Map("age" -> 42, "name" -> name), "User"))
+      createLabeledNode(Map("age" -> 41, "name" -> "bobo"), "User")
+
+      // When
+      val result = executeWith(Configs.InterpretedAndSlotted,
+        s"MATCH (n:User) WHERE n.age = 42 AND n.name STARTS WITH 'bob' RETURN n.name ORDER BY n.name $cypherToken LIMIT 2",
+        planComparisonStrategy = ComparePlansWithAssertion((plan) => {
+          //THEN
+          plan should includeSomewhere.aPlan("NodeIndexSeekByRange").containingArgument(":User(age,name)")
+          plan shouldNot includeSomewhere.aPlan("Top")
+        }, compositeRangeSeekNotSupported))
+
+      // Then
+      result.toList should equal(orderOf(Seq("bob", "bobbie", "bobby")).take(2).map(name => Map("n.name" -> name)))
+    }
+
+    test(s"$cypherToken: should merge added, removed and changed nodes of the transaction into a composite range seek in order") {
+      // Given
+      createUsers()
+
+      // Changes in the same transaction as the query
+      def changeUsers(): Unit = {
+        graph.execute("MATCH (n:User {name: 'joe', age: 12}) DELETE n")
+        graph.execute("MATCH (n:User {name: 'joe', age: 13}) SET n.age = 5")
+        graph.execute("MATCH (n:User {name: 'joe', age: 99}) SET n.name = 'jack'")
+        graph.execute("MATCH (n:User {name: 'jane', age: 3}) SET n.name = 'joe', n.age = 14")
+        graph.execute("CREATE (:User {name: 'joe', age: 11}), (:User {name: 'joe', age: 200}), (:User {name: 'jane', age: 300})")
+      }
+
+      // When
+      val result = executeWith(Configs.InterpretedAndSlotted,
+        s"MATCH (n:User) WHERE n.name = 'joe' AND n.age > 10 RETURN n.age ORDER BY n.age $cypherToken LIMIT 5",
+        planComparisonStrategy = ComparePlansWithAssertion((plan) => {
+          //THEN
+          plan should includeSomewhere.aPlan("NodeIndexSeekByRange").containingArgument(":User(name,age)")
+          plan shouldNot includeSomewhere.aPlan("Top")
+        }, compositeRangeSeekNotSupported),
+        executeBefore = changeUsers)
+
+      // Then
+      val ages = (Seq(11, 14, 200) ++ (11 to 100).filterNot(Set(12, 13, 99))).sorted
+      result.toList should equal(orderOf(ages).take(5).map(age => Map("n.age" -> age)))
+    }
+
+    test(s"$cypherToken: should solve ORDER BY ... LIMIT on the last property with a unique composite range seek") {
+      // Given
+      graph.execute("CREATE CONSTRAINT ON (n:Account) ASSERT (n.bank, n.number) IS NODE KEY")
+      (1 to 50).foreach { number =>
+        createLabeledNode(Map("bank" -> "first", "number" -> number), "Account")
+        createLabeledNode(Map("bank" -> "second", "number" -> number), "Account")
+      }
+
+      // Changes in the same transaction as the query
+      def changeAccounts(): Unit = {
+        graph.execute("MATCH (n:Account {bank: 'second', number: 21}) DELETE n")
+        graph.execute("CREATE (:Account {bank: 'second', number: 21.5}), (:Account {bank: 'second', number: 100})")
+      }
+
+      // When
+      val result = executeWith(Configs.InterpretedAndSlotted,
+        s"MATCH (n:Account) WHERE n.bank = 'second' AND 20 <= n.number < 30 RETURN n.number ORDER BY n.number $cypherToken LIMIT 4",
+        planComparisonStrategy = ComparePlansWithAssertion((plan) => {
+          //THEN
+          plan should includeSomewhere.aPlan("NodeUniqueIndexSeekByRange").containingArgument(":Account(bank,number)")
+          plan shouldNot includeSomewhere.aPlan("Top")
+        }, compositeRangeSeekNotSupported),
+        executeBefore = changeAccounts)
+
+      // Then
+      val numbers = Seq(20.0, 21.5) ++ (22 until 30).map(_.toDouble)
+      result.toList should equal(orderOf(numbers).take(4).map(number => Map("n.number" -> number)))
+    }
+  }
+
+  test("should fall back from the compiled runtime for a composite range seek") {
+    // Given
+    createUsers()
+    val query = "MATCH (n:User) WHERE n.name = 'joe' AND n.age > 10 RETURN n.age ORDER BY n.age LIMIT 2"
+
+    // When
+    val explained = executeSingle(s"EXPLAIN CYPHER runtime=compiled $query")
+    val result = executeSingle(s"CYPHER runtime=compiled $query")
+
+    // Then
+    explained.notifications should contain(RUNTIME_UNSUPPORTED.notification(graphdb.InputPosition.empty))
+    result.executionPlanDescription().arguments.collectFirst { case Runtime(name) => name } should not equal Some("COMPILED")
+    result.executionPlanDescription() should includeSomewhere.aPlan("NodeIndexSeekByRange").containingArgument(":User(name,age)")
+    result.toList should equal(List(Map("n.age" -> 11), Map("n.age" -> 12)))
+  }
+
   test("should not use composite index for range, prefix, contains and exists predicates") {
     // Given
     graph.createIndex("User", "name", "surname", "age", "active")
@@ -507,6 +627,17 @@ class CompositeIndexAcceptanceTest extends ExecutionEngineFunSuite with CypherCo
     resultIndex.toComparableResult should equal(resultNoIndex.toComparableResult)
   }
 
+  // Only the 3.6 planner seeks composite indexes by exact values followed by a range
+  private def compositeRangeSeekNotSupported = Configs.Version2_3 + Configs.Version3_1 + Configs.Version3_4
+
+  private def createUsers(): Unit = {
+    graph.createIndex("User", "name", "age")
+    (1 to 100).foreach { age =>
+      createLabeledNode(Map("name" -> "joe", "age" -> age), "User")
+      createLabeledNode(Map("name" -> "jane", "age" -> age), "User")
+    }
+  }
+
   case class haveIndexes(expectedIndexes: String*) extends Matcher[GraphDatabaseQueryService] {
     def apply(graph: GraphDatabaseQueryService): MatchResult = {
       graph.inTx {
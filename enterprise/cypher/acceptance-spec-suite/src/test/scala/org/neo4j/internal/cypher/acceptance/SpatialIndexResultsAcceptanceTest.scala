@@ -18,6 +18,7 @@
  */
 package org.neo4j.internal.cypher.acceptance
 
+import org.neo4j.cypher.CypherExecutionException
 import org.neo4j.graphdb.Node
 import org.neo4j.graphdb.spatial.Point
 import org.neo4j.internal.cypher.acceptance.comparisonsupport.ComparePlansWithAssertion
@@ -725,6 +726,119 @@ class SpatialIndexResultsAcceptanceTest extends IndexingTestSupport {
     nodes.size should be(expected.size)
   }
 
+  test("nearest neighbours procedure should find the closest indexed points, closest first") {
+    // Given
+    createIndex()
+    val random = new scala.util.Random(42)
+    (1 to 500).foreach(_ => createIndexedNode(cartesianPoint(random.nextDouble() * 1000 - 500, random.nextDouble() * 1000 - 500)))
+    (1 to 100).foreach(_ => createIndexedNode(wgsPoint(random.nextDouble() * 360 - 180, random.nextDouble() * 180 - 90)))
+
+    // Then
+    assertNearestNeighbours(cartesianPoint(0, 0), 1, "no transaction state")
+    assertNearestNeighbours(cartesianPoint(123.4, -56.7), 10, "no transaction state")
+    assertNearestNeighbours(cartesianPoint(10000, 10000), 20, "no transaction state")
+    assertNearestNeighbours(wgsPoint(179.9, 12.3), 5, "no transaction state")
+    assertNearestNeighbours(cartesianPoint(0, 0), 1000, "no transaction state")
+  }
+
+  test("nearest neighbours procedure should see added, removed and changed points of the transaction") {
+    // Given
+    createIndex()
+    val random = new scala.util.Random(42)
+    (1 to 500).foreach(_ => createIndexedNode(cartesianPoint(random.nextDouble() * 1000 - 500, random.nextDouble() * 1000 - 500)))
+    val far = createIndexedNode(cartesianPoint(-499.9, -499.9))
+    val query = cartesianPoint(12.3, 45.6)
+    val closest = executeSingle(s"CALL db.index.nearestNeighbours(':$LABEL($PROPERTY)', {point}, 5) YIELD node RETURN node",
+      scala.Predef.Map("point" -> query)).columnAs[Node]("node").toList
+
+    graph.inTx {
+      // When
+      closest.head.delete()
+      closest(1).removeProperty(PROPERTY)
+      closest(2).setProperty(PROPERTY, cartesianPoint(400, 400).asObject())
+      far.setProperty(PROPERTY, cartesianPoint(12.31, 45.61).asObject())
+      createIndexedNode(cartesianPoint(12, 45))
+      createIndexedNode(wgsPoint(12.3, 45.6))
+
+      // Then
+      assertNearestNeighbours(query, 5, "nodes changed in same transaction")
+      assertNearestNeighbours(query, 600, "nodes changed in same transaction")
+    }
+    assertNearestNeighbours(query, 5, "no transaction state")
+  }
+
+  test("nearest neighbours procedure should reject composite indexes") {
+    graph.createIndex(LABEL, PROPERTY, NONINDEXED)
+
+    a[CypherExecutionException] should be thrownBy
+      executeSingle(s"CALL db.index.nearestNeighbours(':$LABEL($PROPERTY,$NONINDEXED)', point({x: 1, y: 2}), 3)")
+  }
+
+  test("order by distance with limit should seek the nearest neighbours in the index") {
+    // Given
+    createIndex()
+    val random = new scala.util.Random(42)
+    (1 to 500).foreach(_ => createIndexedNode(cartesianPoint(random.nextDouble() * 1000 - 500, random.nextDouble() * 1000 - 500)))
+    (1 to 100).foreach(_ => createIndexedNode(wgsPoint(random.nextDouble() * 360 - 180, random.nextDouble() * 180 - 90)))
+    val params = scala.Predef.Map("point" -> cartesianPoint(123.4, -56.7))
+
+    // When
+    val localConfig = Configs.InterpretedAndSlotted - Configs.Version2_3 - Configs.RulePlanner
+    val result = executeWith(localConfig,
+      s"MATCH (n:$LABEL) RETURN n AS node, distance(n.$PROPERTY, $$point) AS weight ORDER BY weight LIMIT 10",
+      planComparisonStrategy = ComparePlansWithAssertion({ plan =>
+        plan should includeSomewhere.aPlan("NodeIndexNearestNeighboursSeek").containingArgument(s":$LABEL($PROPERTY)")
+      }, expectPlansToFail = Configs.All - Configs.Version3_5),
+      params = params)
+
+    // Then
+    val expected = executeSingle(
+      s"""MATCH (n:$LABEL) WITH n, distance(n.$PROPERTY, {point}) AS weight WHERE weight IS NOT NULL
+         |RETURN n AS node, weight ORDER BY weight LIMIT 10""".stripMargin, params).toList
+    result.toList.map(_ ("node")) should equal(expected.map(_ ("node")))
+  }
+
+  test("order by distance with limit should return nodes without comparable points after the nearest neighbours") {
+    // Given
+    createIndex()
+    val random = new scala.util.Random(42)
+    (1 to 50).foreach(_ => createIndexedNode(cartesianPoint(random.nextDouble() * 1000 - 500, random.nextDouble() * 1000 - 500)))
+    (1 to 20).foreach(_ => createIndexedNode(wgsPoint(random.nextDouble() * 360 - 180, random.nextDouble() * 180 - 90)))
+    (1 to 10).foreach(_ => createLabeledNode(LABEL))
+    val params = scala.Predef.Map("point" -> cartesianPoint(12.3, 45.6))
+
+    // When
+    val result = executeSingle(
+      s"MATCH (n:$LABEL) RETURN n AS node, distance(n.$PROPERTY, {point}) AS weight ORDER BY weight LIMIT 75", params)
+
+    // Then
+    result.executionPlanDescription() should includeSomewhere.aPlan("NodeIndexNearestNeighboursSeek")
+    val weights = result.toList.map(_ ("weight"))
+    val expected = executeSingle(
+      s"""MATCH (n:$LABEL) WITH n, distance(n.$PROPERTY, {point}) AS weight WHERE weight IS NOT NULL
+         |RETURN weight ORDER BY weight""".stripMargin, params).toList.map(_ ("weight"))
+    weights.take(50) should equal(expected)
+    weights.drop(50) should equal(List.fill(25)(null))
+  }
+
+  /**
+    * Compares the nearest neighbours found by the procedure with those of sorting all points of the same CRS by distance.
+    */
+  private def assertNearestNeighbours(point: PointValue, k: Int, name: String): Unit = {
+    val params = scala.Predef.Map("point" -> point, "k" -> k)
+    val found = executeSingle(s"CALL db.index.nearestNeighbours(':$LABEL($PROPERTY)', {point}, {k}) YIELD node, weight RETURN node, weight",
+      params).toList
+    val expected = executeSingle(
+      s"""MATCH (n:$LABEL) WITH n, distance(n.$PROPERTY, {point}) AS weight WHERE weight IS NOT NULL
+         |RETURN n AS node, weight ORDER BY weight, id(node) LIMIT {k}""".stripMargin, params).toList
+    withClue(s"Nearest $k neighbours of $point ($name)") {
+      found.map(_ ("node")) should equal(expected.map(_ ("node")))
+      found.map(_ ("weight").asInstanceOf[Double]).zip(expected.map(_ ("weight").asInstanceOf[Double])).foreach {
+        case (foundWeight, expectedWeight) => foundWeight should equal(expectedWeight +- 1e-9)
+      }
+    }
+  }
+
   private def cartesianPoint(x: Double, y: Double) = Values.pointValue(CoordinateReferenceSystem.Cartesian, x, y)
 
   private def cartesianPoint(x: Double, y: Double, z: Double) = Values.pointValue(CoordinateReferenceSystem.Cartesian_3D, x, y, z)
@@ -66,6 +66,7 @@ public class TransactionStatusResult
     public final long pageFaults;
     /** @since Neo4j 3.5 */
     public final String connectionId;
+    public final Long peakAllocatedDirectBytes;
 
     public TransactionStatusResult( KernelTransactionHandle transaction,
             TransactionDependenciesResolver transactionDependenciesResolver,
@@ -82,6 +83,7 @@ public class TransactionStatusResult
         cpuTimeMillis = statistic.getCpuTimeMillis();
         allocatedBytes = statistic.getHeapAllocatedBytes();
         allocatedDirectBytes = statistic.getDirectAllocatedBytes();
+        peakAllocatedDirectBytes = statistic.getPeakDirectAllocatedBytes();
         waitTimeMillis = statistic.getWaitTimeMillis();
         idleTimeMillis = statistic.getIdleTimeMillis();
         pageHits = statistic.getPageHits();
@@ -20,12 +20,15 @@ package org.neo4j.kernel.enterprise.builtinprocs;
 
 import org.junit.Test;
 
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
 import java.net.InetSocketAddress;
 import java.time.ZoneId;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import org.neo4j.collection.pool.Pool;
@@ -128,6 +131,19 @@ public class TransactionStatusResultTest
         checkTransactionStatus( statusResult, "testQuery", "query-7", "1970-01-01T01:00:01.984+01:00" );
     }
 
+    @Test
+    public void newColumnsAreAppendedAfterExistingOnes()
+    {
+        // procedure output columns follow the declaration order of the fields
+        List<String> columns = Stream.of( TransactionStatusResult.class.getDeclaredFields() )
+                .filter( field -> !Modifier.isStatic( field.getModifiers() ) )
+                .map( Field::getName )
+                .collect( Collectors.toList() );
+
+        assertEquals( asList( "allocatedDirectBytes", "pageHits", "pageFaults", "connectionId", "peakAllocatedDirectBytes" ),
+                columns.subList( columns.size() - 5, columns.size() ) );
+    }
+
     private void checkTransactionStatusWithoutQueries( TransactionStatusResult statusResult )
     {
         assertEquals( "transaction-8", statusResult.transactionId );
@@ -149,6 +165,7 @@ public class TransactionStatusResultTest
         assertEquals( Long.valueOf( 1809 ), statusResult.idleTimeMillis );
         assertEquals( Long.valueOf( 1 ), statusResult.allocatedBytes );
         assertEquals( Long.valueOf( 0 ), statusResult.allocatedDirectBytes );
+        assertEquals( Long.valueOf( 0 ), statusResult.peakAllocatedDirectBytes );
         assertEquals( 0L, statusResult.pageHits );
         assertEquals( 0L, statusResult.pageFaults );
     }
@@ -175,6 +192,7 @@ public class TransactionStatusResultTest
         assertEquals( Long.valueOf( 1809 ), statusResult.idleTimeMillis );
         assertEquals( Long.valueOf( 1 ), statusResult.allocatedBytes );
         assertEquals( Long.valueOf( 0 ), statusResult.allocatedDirectBytes );
+        assertEquals( Long.valueOf( 0 ), statusResult.peakAllocatedDirectBytes );
         assertEquals( 0, statusResult.pageHits );
         assertEquals( 0, statusResult.pageFaults );
     }
@@ -117,6 +117,8 @@ public class StoreMigratorTest
         actualVersions.add( StoreVersion.STANDARD_V3_4.versionString() );
         assertFalse( CountsMigrator.countStoreRebuildRequired( StoreVersion.STANDARD_V3_6.versionString() ) );
         actualVersions.add( StoreVersion.STANDARD_V3_6.versionString() );
+        assertFalse( CountsMigrator.countStoreRebuildRequired( StoreVersion.STANDARD_COMPRESSED_V3_6.versionString() ) );
+        actualVersions.add( StoreVersion.STANDARD_COMPRESSED_V3_6.versionString() );
 
         assertTrue( CountsMigrator.countStoreRebuildRequired( StoreVersion.HIGH_LIMIT_V3_0_0.versionString() ) );
         actualVersions.add( StoreVersion.HIGH_LIMIT_V3_0_0.versionString() );
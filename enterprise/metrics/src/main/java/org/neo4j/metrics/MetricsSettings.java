@@ -94,6 +94,11 @@ public class MetricsSettings implements LoadableConfig
     public static final Setting<Boolean> neoLogRotationEnabled = buildSetting(
             "metrics.neo4j.logrotation.enabled", BOOLEAN ).inherits( neoEnabled ).build();
 
+    @Description( "Enable reporting metrics about eventually consistent fulltext indexes; how often they are refreshed, how long refreshing " +
+                  "takes, how stale their contents get, and how many index updates are queued up." )
+    public static final Setting<Boolean> neoFulltextEnabled = buildSetting(
+            "metrics.neo4j.fulltext.enabled", BOOLEAN ).inherits( neoEnabled ).build();
+
     /**
      * @deprecated high availability database/edition is deprecated in favour of causal clustering. It will be removed in next major release.
      */
@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2018-2020 "Graph Foundation"
+ * Graph Foundation, Inc. [https://graphfoundation.org]
+ *
+ * Copyright (c) 2002-2018 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of ONgDB Enterprise Edition. The included source
+ * code can be redistributed and/or modified under the terms of the
+ * GNU AFFERO GENERAL PUBLIC LICENSE Version 3
+ * (http://www.fsf.org/licensing/licenses/agpl-3.0.html) as found
+ * in the associated LICENSE.txt file.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ */
+package org.neo4j.metrics.source.db;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.neo4j.kernel.api.impl.fulltext.EventuallyConsistentIndexRefresher;
+import org.neo4j.kernel.impl.annotations.Documented;
+import org.neo4j.kernel.lifecycle.LifecycleAdapter;
+import org.neo4j.kernel.monitoring.Monitors;
+import org.neo4j.metrics.output.EventReporter;
+
+import static com.codahale.metrics.MetricRegistry.name;
+import static java.util.Collections.emptySortedMap;
+
+@Documented( ".Eventually consistent fulltext index metrics" )
+public class FulltextIndexMetrics extends LifecycleAdapter
+{
+    private static final String FULLTEXT_PREFIX = "neo4j.fulltext";
+
+    @Documented( "The total number of eventually consistent fulltext index refreshes executed so far" )
+    public static final String REFRESH_EVENTS = name( FULLTEXT_PREFIX, "refresh_events" );
+    @Documented( "The total time spent refreshing eventually consistent fulltext indexes so far" )
+    public static final String REFRESH_TOTAL_TIME = name( FULLTEXT_PREFIX, "refresh_total_time" );
+    @Documented( "The duration of the refresh event" )
+    public static final String REFRESH_DURATION = name( FULLTEXT_PREFIX, "refresh_duration" );
+    @Documented( "How long the oldest update made visible by the refresh event waited to become visible" )
+    public static final String REFRESH_STALENESS = name( FULLTEXT_PREFIX, "refresh_staleness" );
+    @Documented( "The number of queued eventually consistent fulltext index updates not yet applied, as of the latest refresh" )
+    public static final String UPDATE_QUEUE_DEPTH = name( FULLTEXT_PREFIX, "update_queue_depth" );
+
+    private final MetricRegistry registry;
+    private final Monitors monitors;
+    private final FulltextRefreshMonitor refreshMonitor;
+
+    public FulltextIndexMetrics( EventReporter reporter, MetricRegistry registry, Monitors monitors )
+    {
+        this.registry = registry;
+        this.monitors = monitors;
+        this.refreshMonitor = new FulltextRefreshMonitor( reporter );
+    }
+
+    @Override
+    public void start()
+    {
+        monitors.addMonitorListener( refreshMonitor );
+
+        registry.register( REFRESH_EVENTS, (Gauge<Long>) refreshMonitor.refreshEvents::get );
+        registry.register( REFRESH_TOTAL_TIME, (Gauge<Long>) refreshMonitor.refreshTotalTime::get );
+        registry.register( UPDATE_QUEUE_DEPTH, (Gauge<Long>) refreshMonitor.queueDepth::get );
+    }
+
+    @Override
+    public void stop()
+    {
+        monitors.removeMonitorListener( refreshMonitor );
+
+        registry.remove( REFRESH_EVENTS );
+        registry.remove( REFRESH_TOTAL_TIME );
+        registry.remove( UPDATE_QUEUE_DEPTH );
+    }
+
+    private static class FulltextRefreshMonitor implements EventuallyConsistentIndexRefresher.Monitor
+    {
+        private final EventReporter reporter;
+
+        final AtomicLong refreshEvents = new AtomicLong();
+        final AtomicLong refreshTotalTime = new AtomicLong();
+        final AtomicLong queueDepth = new AtomicLong();
+
+        FulltextRefreshMonitor( EventReporter reporter )
+        {
+            this.reporter = reporter;
+        }
+
+        @Override
+        public void refreshed( String indexName, long stalenessMillis, long refreshMillis, int queueDepth )
+        {
+            refreshEvents.incrementAndGet();
+            refreshTotalTime.addAndGet( refreshMillis );
+            this.queueDepth.set( queueDepth );
+
+            TreeMap<String,Gauge> gauges = new TreeMap<>();
+            gauges.put( REFRESH_DURATION, () -> refreshMillis );
+            gauges.put( REFRESH_STALENESS, () -> stalenessMillis );
+            reporter.report( gauges, emptySortedMap(), emptySortedMap(), emptySortedMap(), emptySortedMap() );
+        }
+    }
+}
@@ -246,6 +246,11 @@ public class ProcedureResourcesIT
         case "db.resampleIndex":
             proc.withParam( "'" + indexDefinition + "'" );
             break;
+        case "db.index.nearestNeighbours":
+            proc.withParam( "'" + indexDefinition + "'" );
+            proc.withParam( "point({x: 1.0, y: 2.0})" );
+            proc.withParam( 10 );
+            break;
         case "db.createRelationshipType":
             proc.withParam( "'RelType'" );
             break;
@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2018-2020 "Graph Foundation"
+ * Graph Foundation, Inc. [https://graphfoundation.org]
+ *
+ * Copyright (c) 2002-2018 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of ONgDB Enterprise Edition. The included source
+ * code can be redistributed and/or modified under the terms of the
+ * GNU AFFERO GENERAL PUBLIC LICENSE Version 3
+ * (http://www.fsf.org/licensing/licenses/agpl-3.0.html) as found
+ * in the associated LICENSE.txt file.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ */
+package org.neo4j.tools.defrag;
+
+import java.io.File;
+
+import org.neo4j.helpers.Args;
+import org.neo4j.io.fs.DefaultFileSystemAbstraction;
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.layout.DatabaseLayout;
+import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.kernel.configuration.Config;
+import org.neo4j.kernel.internal.locker.GlobalStoreLocker;
+import org.neo4j.kernel.internal.locker.StoreLocker;
+import org.neo4j.kernel.monitoring.Monitors;
+import org.neo4j.logging.FormattedLogProvider;
+import org.neo4j.logging.Log;
+import org.neo4j.logging.LogProvider;
+import org.neo4j.scheduler.JobScheduler;
+import org.neo4j.unsafe.impl.batchimport.Configuration;
+import org.neo4j.unsafe.impl.batchimport.PropertyStoreDefragmenter;
+import org.neo4j.unsafe.impl.batchimport.staging.ExecutionMonitors;
+
+import static java.lang.String.format;
+import static org.neo4j.kernel.impl.pagecache.ConfigurableStandalonePageCacheFactory.createPageCache;
+import static org.neo4j.kernel.impl.recovery.RecoveryRequiredChecker.assertRecoveryIsNotRequired;
+import static org.neo4j.kernel.impl.scheduler.JobSchedulerFactory.createInitialisedScheduler;
+
+/**
+ * Stand alone tool defragmenting the property store of a database, which must not be running, so that the property
+ * records of every node and relationship are stored next to each other.
+ *
+ * @see PropertyStoreDefragmenter
+ */
+public class DefragmentPropertyStore
+{
+    private static final String HELP_FLAG = "help";
+
+    public static void main( String[] args ) throws Exception
+    {
+        Args arguments = Args.withFlags( HELP_FLAG ).parse( args );
+        if ( arguments.getBoolean( HELP_FLAG, false ) || arguments.orphans().size() != 1 )
+        {
+            printUsageAndExit();
+        }
+        File databaseDirectory = new File( arguments.orphans().get( 0 ) );
+        if ( !databaseDirectory.isDirectory() )
+        {
+            System.out.println( "Invalid directory: '" + databaseDirectory + "'" );
+            printUsageAndExit();
+        }
+
+        try ( FileSystemAbstraction fs = new DefaultFileSystemAbstraction() )
+        {
+            run( fs, DatabaseLayout.of( databaseDirectory ), Config.defaults(), FormattedLogProvider.toOutputStream( System.out ) );
+        }
+    }
+
+    /**
+     * Defragments the property store of the database in the given layout.
+     *
+     * @param fs file system of the database.
+     * @param databaseLayout layout of the database to defragment, which must not be running and must not need recovery.
+     * @param config configuration of the database.
+     * @param userLogProvider where to log progress.
+     * @throws Exception if the database is in use, needs recovery or on failure defragmenting it.
+     */
+    public static void run( FileSystemAbstraction fs, DatabaseLayout databaseLayout, Config config, LogProvider userLogProvider ) throws Exception
+    {
+        Log log = userLogProvider.getLog( DefragmentPropertyStore.class );
+        try ( JobScheduler jobScheduler = createInitialisedScheduler();
+              PageCache pageCache = createPageCache( fs, config, jobScheduler );
+              StoreLocker storeLocker = new GlobalStoreLocker( fs, databaseLayout.getStoreLayout() ) )
+        {
+            storeLocker.checkLock();
+            assertRecoveryIsNotRequired( fs, pageCache, config, databaseLayout, new Monitors() );
+
+            long startTime = System.currentTimeMillis();
+            new PropertyStoreDefragmenter( fs, pageCache, config, userLogProvider, Configuration.DEFAULT,
+                    ExecutionMonitors.defaultVisible( jobScheduler ) ).defragment( databaseLayout );
+            log.info( format( "Defragmentation completed in %d s%n", (System.currentTimeMillis() - startTime) / 1000 ) );
+        }
+    }
+
+    private static void printUsageAndExit()
+    {
+        System.out.println( "Defragments the property store of a database which is not running, laying out the properties " +
+                            "of every node and relationship next to each other." );
+        System.out.println( "If defragmentation fails while moving the defragmented files into place, run it again to complete it." );
+        System.out.println( "Property record ids change, so backups and other copies of the database must be replaced " +
+                            "by a copy of the defragmented database." );
+        System.out.println();
+        System.out.println( "Options:" );
+        System.out.println( "-help    print this help message" );
+        System.out.println();
+        System.out.println( "Usage:" );
+        System.out.println( "./defragmentPropertyStore [option] <database directory>" );
+        System.exit( 1 );
+    }
+}
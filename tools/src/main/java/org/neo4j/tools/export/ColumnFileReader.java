@@ -0,0 +1,178 @@
+/*
+ * Copyright (c) 2018-2020 "Graph Foundation"
+ * Graph Foundation, Inc. [https://graphfoundation.org]
+ *
+ * Copyright (c) 2002-2018 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of ONgDB Enterprise Edition. The included source
+ * code can be redistributed and/or modified under the terms of the
+ * GNU AFFERO GENERAL PUBLIC LICENSE Version 3
+ * (http://www.fsf.org/licensing/licenses/agpl-3.0.html) as found
+ * in the associated LICENSE.txt file.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ */
+package org.neo4j.tools.export;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+
+import org.neo4j.string.UTF8;
+
+import static org.neo4j.tools.export.ColumnFileWriter.BOOLEAN;
+import static org.neo4j.tools.export.ColumnFileWriter.DICTIONARY;
+import static org.neo4j.tools.export.ColumnFileWriter.DOUBLE;
+import static org.neo4j.tools.export.ColumnFileWriter.FORMAT_VERSION;
+import static org.neo4j.tools.export.ColumnFileWriter.LONG;
+import static org.neo4j.tools.export.ColumnFileWriter.MAGIC;
+import static org.neo4j.tools.export.ColumnFileWriter.STRING;
+
+/**
+ * Reads back column files written by {@link ColumnFileWriter}.
+ */
+public class ColumnFileReader
+{
+    private ColumnFileReader()
+    {
+    }
+
+    /**
+     * Reads a whole column into memory.
+     *
+     * @param file the column file.
+     * @param rowCount number of rows of the label the column belongs to, i.e. number of node ids in its {@code ids} file.
+     * @return one element per row, being a {@link Long}, {@link Double}, {@link Boolean}, {@link String},
+     * or {@code null} for rows without value.
+     * @throws IOException on failure reading the file or if the file isn't a column file.
+     */
+    public static Object[] read( File file, int rowCount ) throws IOException
+    {
+        Object[] values = new Object[rowCount];
+        forEachChunk( file, ( firstRow, chunk ) -> System.arraycopy( chunk, 0, values, Math.toIntExact( firstRow ), chunk.length ) );
+        return values;
+    }
+
+    /**
+     * Reads a column one chunk at a time, in the order the chunks were written. Unlike {@link #read(File, int)}
+     * only a single chunk is kept in memory, which suits columns of labels with too many rows to hold at once.
+     *
+     * @param file the column file.
+     * @param visitor receives the values of every chunk.
+     * @throws IOException on failure reading the file, if the file isn't a column file or if thrown by the visitor.
+     */
+    public static void forEachChunk( File file, ChunkVisitor visitor ) throws IOException
+    {
+        try ( DataInputStream in = new DataInputStream( new BufferedInputStream( new FileInputStream( file ), 1 << 16 ) ) )
+        {
+            if ( in.readInt() != MAGIC || in.readByte() != FORMAT_VERSION )
+            {
+                throw new IOException( "Not a column file of version " + FORMAT_VERSION + ": " + file );
+            }
+            while ( true )
+            {
+                long firstRow;
+                try
+                {
+                    firstRow = in.readLong();
+                }
+                catch ( EOFException e )
+                {
+                    break;
+                }
+                visitor.chunk( firstRow, readChunk( in ) );
+            }
+        }
+    }
+
+    /**
+     * Reads the node ids of a label, i.e. the {@code ids} file in its directory.
+     */
+    public static long[] readIds( File file, int rowCount ) throws IOException
+    {
+        long[] ids = new long[rowCount];
+        forEachChunk( file, ( firstRow, chunk ) ->
+        {
+            int offset = Math.toIntExact( firstRow );
+            for ( int i = 0; i < chunk.length; i++ )
+            {
+                ids[offset + i] = (Long) chunk[i];
+            }
+        } );
+        return ids;
+    }
+
+    private static Object[] readChunk( DataInputStream in ) throws IOException
+    {
+        int count = in.readInt();
+        Object[] values = new Object[count];
+        byte type = in.readByte();
+        long[] validity = new long[(count + Long.SIZE - 1) / Long.SIZE];
+        for ( int i = 0; i < validity.length; i++ )
+        {
+            validity[i] = in.readLong();
+        }
+        String[] dictionary = null;
+        if ( type == DICTIONARY )
+        {
+            dictionary = new String[in.readInt()];
+            for ( int i = 0; i < dictionary.length; i++ )
+            {
+                dictionary[i] = readString( in );
+            }
+        }
+        for ( int i = 0; i < count; i++ )
+        {
+            if ( (validity[i / Long.SIZE] & (1L << (i % Long.SIZE))) == 0 )
+            {
+                continue;
+            }
+            Object value;
+            switch ( type )
+            {
+            case LONG:
+                value = in.readLong();
+                break;
+            case DOUBLE:
+                value = in.readDouble();
+                break;
+            case BOOLEAN:
+                value = in.readBoolean();
+                break;
+            case STRING:
+                value = readString( in );
+                break;
+            case DICTIONARY:
+                value = dictionary[in.readInt()];
+                break;
+            default:
+                throw new IOException( "Unknown value type " + type );
+            }
+            values[i] = value;
+        }
+        return values;
+    }
+
+    private static String readString( DataInputStream in ) throws IOException
+    {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully( bytes );
+        return UTF8.decode( bytes );
+    }
+
+    public interface ChunkVisitor
+    {
+        /**
+         * @param firstRow row of the first value of the chunk.
+         * @param values one element per row of the chunk, see {@link #read(File, int)}.
+         */
+        void chunk( long firstRow, Object[] values ) throws IOException;
+    }
+}
@@ -0,0 +1,261 @@
+/*
+ * Copyright (c) 2018-2020 "Graph Foundation"
+ * Graph Foundation, Inc. [https://graphfoundation.org]
+ *
+ * Copyright (c) 2002-2018 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of ONgDB Enterprise Edition. The included source
+ * code can be redistributed and/or modified under the terms of the
+ * GNU AFFERO GENERAL PUBLIC LICENSE Version 3
+ * (http://www.fsf.org/licensing/licenses/agpl-3.0.html) as found
+ * in the associated LICENSE.txt file.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ */
+package org.neo4j.tools.export;
+
+import org.eclipse.collections.api.map.primitive.MutableObjectIntMap;
+import org.eclipse.collections.impl.map.mutable.primitive.ObjectIntHashMap;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.neo4j.kernel.impl.store.PropertyType;
+import org.neo4j.string.UTF8;
+import org.neo4j.values.storable.BooleanValue;
+import org.neo4j.values.storable.IntegralValue;
+import org.neo4j.values.storable.NumberValue;
+import org.neo4j.values.storable.TextValue;
+import org.neo4j.values.storable.Value;
+
+/**
+ * Writes a single column of a {@link ColumnarExport} to a file. A column file starts with {@link #MAGIC} and
+ * {@link #FORMAT_VERSION}, followed by any number of chunks, each covering a consecutive range of rows:
+ * <pre>
+ * long     first row
+ * int      row count
+ * byte     value type, one of LONG, DOUBLE, BOOLEAN, STRING or DICTIONARY
+ * long[]   validity bitmap, one bit per row, set for rows having a value
+ * ...      values of the rows having a value, encoded according to the value type
+ * </pre>
+ * Chunks are written in row order, but rows not covered by any chunk have no value. All numbers are big-endian.
+ * <p>
+ * Every column has a single type, decided before any of its chunks are written, see {@link #typeOf(PropertyType)}
+ * and {@link #widen(byte, byte)}. All chunks of a column have that value type, except that chunks of a STRING column
+ * may be written as DICTIONARY chunks.
+ * <p>
+ * Strings are written as an int byte length followed by UTF-8 bytes. A DICTIONARY chunk starts with an int
+ * dictionary size followed by the distinct strings of the chunk, after which every value is an int index into
+ * the dictionary. Columns mixing value types, or having types other than numbers, booleans and strings,
+ * are STRING columns of the {@link Value#prettyPrint() printed} values.
+ */
+class ColumnFileWriter implements Closeable
+{
+    static final int MAGIC = 0x4E434F4C; // "NCOL"
+    static final byte FORMAT_VERSION = 1;
+
+    static final byte NO_TYPE = 0;
+    static final byte LONG = 1;
+    static final byte DOUBLE = 2;
+    static final byte BOOLEAN = 3;
+    static final byte STRING = 4;
+    static final byte DICTIONARY = 5;
+
+    private final DataOutputStream out;
+
+    ColumnFileWriter( File file ) throws IOException
+    {
+        this.out = new DataOutputStream( new BufferedOutputStream( new FileOutputStream( file ), 1 << 16 ) );
+        out.writeInt( MAGIC );
+        out.writeByte( FORMAT_VERSION );
+    }
+
+    /**
+     * Writes a chunk where every row has a long value.
+     */
+    void writeLongs( long firstRow, long[] values, int count ) throws IOException
+    {
+        writeChunkHeader( firstRow, count, LONG );
+        for ( int i = 0; i < count; i += Long.SIZE )
+        {
+            int bits = Math.min( Long.SIZE, count - i );
+            out.writeLong( bits == Long.SIZE ? -1L : (1L << bits) - 1 );
+        }
+        for ( int i = 0; i < count; i++ )
+        {
+            out.writeLong( values[i] );
+        }
+    }
+
+    /**
+     * Writes a chunk of values, where {@code null} means that the row has no value.
+     *
+     * @param columnType type of the column, one of LONG, DOUBLE, BOOLEAN or STRING, which all values must be
+     * convertible to.
+     */
+    void writeValues( long firstRow, Value[] values, int count, byte columnType ) throws IOException
+    {
+        byte type = columnType;
+        List<String> dictionary = null;
+        MutableObjectIntMap<String> dictionaryIndex = null;
+        if ( type == STRING )
+        {
+            dictionaryIndex = new ObjectIntHashMap<>();
+            dictionary = new ArrayList<>();
+            int present = 0;
+            for ( int i = 0; i < count; i++ )
+            {
+                if ( values[i] != null )
+                {
+                    present++;
+                    String string = stringOf( values[i] );
+                    if ( !dictionaryIndex.containsKey( string ) )
+                    {
+                        dictionaryIndex.put( string, dictionary.size() );
+                        dictionary.add( string );
+                    }
+                }
+            }
+            if ( dictionary.size() * 2 <= present )
+            {
+                type = DICTIONARY;
+            }
+        }
+
+        writeChunkHeader( firstRow, count, type );
+        for ( int i = 0; i < count; i += Long.SIZE )
+        {
+            long bits = 0;
+            for ( int j = i; j < Math.min( count, i + Long.SIZE ); j++ )
+            {
+                if ( values[j] != null )
+                {
+                    bits |= 1L << (j - i);
+                }
+            }
+            out.writeLong( bits );
+        }
+        if ( type == DICTIONARY )
+        {
+            out.writeInt( dictionary.size() );
+            for ( String string : dictionary )
+            {
+                writeString( string );
+            }
+        }
+        for ( int i = 0; i < count; i++ )
+        {
+            Value value = values[i];
+            if ( value == null )
+            {
+                continue;
+            }
+            switch ( type )
+            {
+            case LONG:
+                out.writeLong( ((IntegralValue) value).longValue() );
+                break;
+            case DOUBLE:
+                out.writeDouble( ((NumberValue) value).doubleValue() );
+                break;
+            case BOOLEAN:
+                out.writeBoolean( ((BooleanValue) value).booleanValue() );
+                break;
+            case DICTIONARY:
+                out.writeInt( dictionaryIndex.get( stringOf( value ) ) );
+                break;
+            default:
+                writeString( stringOf( value ) );
+                break;
+            }
+        }
+    }
+
+    private void writeChunkHeader( long firstRow, int count, byte type ) throws IOException
+    {
+        out.writeLong( firstRow );
+        out.writeInt( count );
+        out.writeByte( type );
+    }
+
+    private void writeString( String string ) throws IOException
+    {
+        byte[] bytes = UTF8.encode( string );
+        out.writeInt( bytes.length );
+        out.write( bytes );
+    }
+
+    /**
+     * @param type type of a stored property value.
+     * @return column type that values of the given type are written as.
+     */
+    static byte typeOf( PropertyType type )
+    {
+        switch ( type )
+        {
+        case BYTE:
+        case SHORT:
+        case INT:
+        case LONG:
+            return LONG;
+        case FLOAT:
+        case DOUBLE:
+            return DOUBLE;
+        case BOOL:
+            return BOOLEAN;
+        default:
+            return STRING;
+        }
+    }
+
+    /**
+     * @param type column type decided so far, or {@link #NO_TYPE} if none.
+     * @param other column type of another value of the same column.
+     * @return the narrowest column type able to hold values of both types.
+     */
+    static byte widen( byte type, byte other )
+    {
+        if ( type == NO_TYPE || type == other )
+        {
+            return other;
+        }
+        boolean numbers = (type == LONG || type == DOUBLE) && (other == LONG || other == DOUBLE);
+        return numbers ? DOUBLE : STRING;
+    }
+
+    static String typeName( byte type )
+    {
+        switch ( type )
+        {
+        case LONG:
+            return "long";
+        case DOUBLE:
+            return "double";
+        case BOOLEAN:
+            return "boolean";
+        default:
+            return "string";
+        }
+    }
+
+    private static String stringOf( Value value )
+    {
+        return value instanceof TextValue ? ((TextValue) value).stringValue() : value.prettyPrint();
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        out.close();
+    }
+}
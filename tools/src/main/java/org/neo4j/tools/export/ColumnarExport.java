@@ -0,0 +1,494 @@
+/*
+ * Copyright (c) 2018-2020 "Graph Foundation"
+ * Graph Foundation, Inc. [https://graphfoundation.org]
+ *
+ * Copyright (c) 2002-2018 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of ONgDB Enterprise Edition. The included source
+ * code can be redistributed and/or modified under the terms of the
+ * GNU AFFERO GENERAL PUBLIC LICENSE Version 3
+ * (http://www.fsf.org/licensing/licenses/agpl-3.0.html) as found
+ * in the associated LICENSE.txt file.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ */
+package org.neo4j.tools.export;
+
+import org.eclipse.collections.api.map.primitive.IntByteMap;
+import org.eclipse.collections.api.map.primitive.MutableIntByteMap;
+import org.eclipse.collections.api.map.primitive.MutableIntObjectMap;
+import org.eclipse.collections.impl.list.mutable.primitive.ByteArrayList;
+import org.eclipse.collections.impl.list.mutable.primitive.IntArrayList;
+import org.eclipse.collections.impl.map.mutable.primitive.IntByteHashMap;
+import org.eclipse.collections.impl.map.mutable.primitive.IntObjectHashMap;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.PrintWriter;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+import org.neo4j.graphdb.factory.GraphDatabaseSettings;
+import org.neo4j.helpers.Args;
+import org.neo4j.internal.kernel.api.NamedToken;
+import org.neo4j.io.IOUtils;
+import org.neo4j.io.fs.DefaultFileSystemAbstraction;
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.layout.DatabaseLayout;
+import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.io.pagecache.tracing.cursor.context.EmptyVersionContextSupplier;
+import org.neo4j.kernel.configuration.Config;
+import org.neo4j.kernel.configuration.Settings;
+import org.neo4j.kernel.impl.store.NeoStores;
+import org.neo4j.kernel.impl.store.NodeLabelsField;
+import org.neo4j.kernel.impl.store.NodeStore;
+import org.neo4j.kernel.impl.store.PropertyStore;
+import org.neo4j.kernel.impl.store.StoreFactory;
+import org.neo4j.kernel.impl.store.id.ReadOnlyIdGeneratorFactory;
+import org.neo4j.kernel.impl.store.record.NodeRecord;
+import org.neo4j.kernel.impl.store.record.PropertyBlock;
+import org.neo4j.kernel.impl.store.record.PropertyRecord;
+import org.neo4j.kernel.impl.store.record.Record;
+import org.neo4j.logging.NullLogProvider;
+import org.neo4j.scheduler.JobScheduler;
+import org.neo4j.values.storable.Value;
+
+import static org.neo4j.io.pagecache.impl.muninn.StandalonePageCacheFactory.createPageCache;
+import static org.neo4j.kernel.impl.scheduler.JobSchedulerFactory.createInitialisedScheduler;
+import static org.neo4j.kernel.impl.store.record.RecordLoad.CHECK;
+
+/**
+ * Stand alone tool exporting node properties of a database, which must not be running, into column files
+ * suitable for bulk loading into analytics tools. The node store is scanned in parallel, in batches of node ids.
+ * <p>
+ * The output directory gets one directory per label, named {@code label-<label id>}, and an {@code unlabeled}
+ * directory for nodes without labels. A node with several labels is exported in the directory of each of its labels.
+ * Every label directory has an {@value #IDS_FILE} column with the node ids of its rows, in node id order, and one
+ * {@code property-<property key id>.col} column per property key found on nodes with that label.
+ * See {@link ColumnFileWriter} for the format of the column files and {@link ColumnFileReader} for reading them.
+ * Every column has a single value type, the narrowest one able to hold all values of that property key on nodes with
+ * that label, which is why the node store is scanned twice: first for the value types and then for the values.
+ * The {@value #MANIFEST_FILE} file maps label directories and column files to label and property key names,
+ * lists the number of rows of every label directory and the value type of every column.
+ */
+public class ColumnarExport
+{
+    static final String IDS_FILE = "ids.col";
+    static final String MANIFEST_FILE = "manifest.tsv";
+    static final String UNLABELED_DIRECTORY = "unlabeled";
+    static final int DEFAULT_BATCH_SIZE = 100_000;
+    private static final int NO_LABEL = -1;
+
+    private final NeoStores neoStores;
+    private final NodeStore nodeStore;
+    private final PropertyStore propertyStore;
+    private final File outputDirectory;
+    private final int threads;
+    private final int batchSize;
+    private final MutableIntObjectMap<LabelOutput> outputs = new IntObjectHashMap<>();
+    private final ColumnTypes columnTypes = new ColumnTypes();
+
+    private ColumnarExport( NeoStores neoStores, File outputDirectory, int threads, int batchSize )
+    {
+        this.neoStores = neoStores;
+        this.nodeStore = neoStores.getNodeStore();
+        this.propertyStore = neoStores.getPropertyStore();
+        this.outputDirectory = outputDirectory;
+        this.threads = threads;
+        this.batchSize = batchSize;
+    }
+
+    public static void main( String[] args ) throws Exception
+    {
+        Args arguments = Args.parse( args );
+        if ( arguments.orphans().size() != 2 )
+        {
+            System.err.println( "SYNTAX: [--threads=<number of threads>] [--batch-size=<nodes per batch>] <database dir> <output dir>" );
+            System.exit( 1 );
+        }
+        File databaseDirectory = new File( arguments.orphans().get( 0 ) );
+        File outputDirectory = new File( arguments.orphans().get( 1 ) );
+        int threads = arguments.getNumber( "threads", Runtime.getRuntime().availableProcessors() ).intValue();
+        int batchSize = arguments.getNumber( "batch-size", DEFAULT_BATCH_SIZE ).intValue();
+
+        try ( DefaultFileSystemAbstraction fs = new DefaultFileSystemAbstraction();
+              JobScheduler jobScheduler = createInitialisedScheduler();
+              PageCache pageCache = createPageCache( fs, jobScheduler ) )
+        {
+            export( fs, pageCache, DatabaseLayout.of( databaseDirectory ), outputDirectory, threads, batchSize );
+        }
+    }
+
+    /**
+     * Exports node properties of the database in the given layout into the given output directory.
+     *
+     * @param fs file system of the database.
+     * @param pageCache page cache to read the store files through.
+     * @param databaseLayout layout of the database to export, which must not be running.
+     * @param outputDirectory directory to write column files into, created if it doesn't exist.
+     * @param threads number of threads scanning the node store.
+     * @param batchSize number of node ids scanned by one thread at a time, also the maximum number of rows of a chunk.
+     * @throws IOException on failure reading the store or writing the column files.
+     */
+    public static void export( FileSystemAbstraction fs, PageCache pageCache, DatabaseLayout databaseLayout, File outputDirectory,
+            int threads, int batchSize ) throws IOException
+    {
+        Config config = Config.defaults( GraphDatabaseSettings.read_only, Settings.TRUE );
+        StoreFactory storeFactory = new StoreFactory( databaseLayout, config, new ReadOnlyIdGeneratorFactory( fs ), pageCache, fs,
+                NullLogProvider.getInstance(), EmptyVersionContextSupplier.EMPTY );
+        try ( NeoStores neoStores = storeFactory.openAllNeoStores() )
+        {
+            new ColumnarExport( neoStores, outputDirectory, threads, batchSize ).run();
+        }
+    }
+
+    private void run() throws IOException
+    {
+        if ( !outputDirectory.isDirectory() && !outputDirectory.mkdirs() )
+        {
+            throw new IOException( "Unable to create output directory " + outputDirectory );
+        }
+        ExecutorService executor = Executors.newFixedThreadPool( threads );
+        try
+        {
+            inBatches( executor, this::scanTypes, columnTypes::widen );
+            inBatches( executor, this::scan, this::write );
+        }
+        finally
+        {
+            executor.shutdownNow();
+            IOUtils.closeAll( outputs.values() );
+        }
+        writeManifest();
+    }
+
+    private <T> void inBatches( ExecutorService executor, BatchScanner<T> scanner, BatchConsumer<T> consumer ) throws IOException
+    {
+        long highId = nodeStore.getHighId();
+        try
+        {
+            // Batches are scanned in parallel, but consumed in node id order, keeping a bounded number of them in memory
+            Deque<Future<T>> inFlight = new ArrayDeque<>();
+            long nextBatchStart = 0;
+            while ( nextBatchStart < highId || !inFlight.isEmpty() )
+            {
+                while ( nextBatchStart < highId && inFlight.size() < threads * 2 )
+                {
+                    long from = nextBatchStart;
+                    long to = Math.min( highId, from + batchSize );
+                    inFlight.add( executor.submit( () -> scanner.scan( from, to ) ) );
+                    nextBatchStart = to;
+                }
+                consumer.accept( inFlight.poll().get() );
+            }
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException( "Interrupted while exporting nodes" );
+        }
+        catch ( ExecutionException e )
+        {
+            throw new IOException( "Failed to export nodes", e.getCause() );
+        }
+    }
+
+    private ColumnTypes scanTypes( long fromId, long toId )
+    {
+        ColumnTypes types = new ColumnTypes();
+        NodeRecord node = nodeStore.newRecord();
+        PropertyRecord property = propertyStore.newRecord();
+        IntArrayList keys = new IntArrayList();
+        ByteArrayList valueTypes = new ByteArrayList();
+        for ( long nodeId = fromId; nodeId < toId; nodeId++ )
+        {
+            nodeStore.getRecord( nodeId, node, CHECK );
+            if ( !node.inUse() )
+            {
+                continue;
+            }
+
+            keys.clear();
+            valueTypes.clear();
+            forEachPropertyBlock( node, property, block ->
+            {
+                keys.add( block.getKeyIndexId() );
+                valueTypes.add( ColumnFileWriter.typeOf( block.getType() ) );
+            } );
+
+            long[] labels = NodeLabelsField.get( node, nodeStore );
+            for ( int i = 0; i < keys.size(); i++ )
+            {
+                if ( labels.length == 0 )
+                {
+                    types.widen( NO_LABEL, keys.get( i ), valueTypes.get( i ) );
+                }
+                for ( long label : labels )
+                {
+                    types.widen( (int) label, keys.get( i ), valueTypes.get( i ) );
+                }
+            }
+        }
+        return types;
+    }
+
+    private NodeBatch scan( long fromId, long toId )
+    {
+        NodeBatch batch = new NodeBatch();
+        NodeRecord node = nodeStore.newRecord();
+        PropertyRecord property = propertyStore.newRecord();
+        IntArrayList keys = new IntArrayList();
+        List<Value> values = new ArrayList<>();
+        for ( long nodeId = fromId; nodeId < toId; nodeId++ )
+        {
+            nodeStore.getRecord( nodeId, node, CHECK );
+            if ( !node.inUse() )
+            {
+                continue;
+            }
+
+            keys.clear();
+            values.clear();
+            forEachPropertyBlock( node, property, block ->
+            {
+                keys.add( block.getKeyIndexId() );
+                values.add( block.newPropertyValue( propertyStore ) );
+            } );
+
+            long[] labels = NodeLabelsField.get( node, nodeStore );
+            if ( labels.length == 0 )
+            {
+                batch.label( NO_LABEL ).add( nodeId, keys, values );
+            }
+            for ( long label : labels )
+            {
+                batch.label( (int) label ).add( nodeId, keys, values );
+            }
+        }
+        return batch;
+    }
+
+    private void forEachPropertyBlock( NodeRecord node, PropertyRecord property, Consumer<PropertyBlock> visitor )
+    {
+        long nextProp = node.getNextProp();
+        while ( !Record.NO_NEXT_PROPERTY.is( nextProp ) )
+        {
+            propertyStore.getRecord( nextProp, property, CHECK );
+            if ( !property.inUse() )
+            {
+                break;
+            }
+            for ( PropertyBlock block : property )
+            {
+                visitor.accept( block );
+            }
+            nextProp = property.getNextProp();
+        }
+    }
+
+    private void write( NodeBatch batch ) throws IOException
+    {
+        for ( LabelBatch labelBatch : batch.labels )
+        {
+            LabelOutput output = outputs.get( labelBatch.labelId );
+            if ( output == null )
+            {
+                output = new LabelOutput( new File( outputDirectory, directoryName( labelBatch.labelId ) ),
+                        columnTypes.label( labelBatch.labelId ) );
+                outputs.put( labelBatch.labelId, output );
+            }
+            output.write( labelBatch );
+        }
+    }
+
+    private void writeManifest() throws IOException
+    {
+        try ( PrintWriter manifest = new PrintWriter( new File( outputDirectory, MANIFEST_FILE ), "UTF-8" ) )
+        {
+            List<NamedToken> labelTokens = neoStores.getLabelTokenStore().getTokens();
+            if ( outputs.containsKey( NO_LABEL ) )
+            {
+                manifest.printf( "label\t%s\t\t%d%n", UNLABELED_DIRECTORY, outputs.get( NO_LABEL ).rows );
+            }
+            for ( NamedToken label : labelTokens )
+            {
+                LabelOutput output = outputs.get( label.id() );
+                if ( output != null )
+                {
+                    manifest.printf( "label\t%s\t%s\t%d%n", directoryName( label.id() ), label.name(), output.rows );
+                }
+            }
+            for ( NamedToken key : neoStores.getPropertyKeyTokenStore().getTokens() )
+            {
+                manifest.printf( "property\t%s\t%s%n", columnFileName( key.id() ), key.name() );
+            }
+            for ( int labelId : outputs.keySet().toSortedArray() )
+            {
+                MutableIntByteMap types = columnTypes.label( labelId );
+                for ( int key : types.keySet().toSortedArray() )
+                {
+                    manifest.printf( "column\t%s\t%s\t%s%n", directoryName( labelId ), columnFileName( key ),
+                            ColumnFileWriter.typeName( types.get( key ) ) );
+                }
+            }
+        }
+    }
+
+    static String directoryName( int labelId )
+    {
+        return labelId == NO_LABEL ? UNLABELED_DIRECTORY : "label-" + labelId;
+    }
+
+    static String columnFileName( int propertyKeyId )
+    {
+        return "property-" + propertyKeyId + ".col";
+    }
+
+    private interface BatchScanner<T>
+    {
+        T scan( long fromId, long toId );
+    }
+
+    private interface BatchConsumer<T>
+    {
+        void accept( T batch ) throws IOException;
+    }
+
+    /**
+     * Value types of the columns of every label, widened over all nodes seen so far.
+     */
+    private static class ColumnTypes
+    {
+        private final MutableIntObjectMap<MutableIntByteMap> labels = new IntObjectHashMap<>();
+
+        MutableIntByteMap label( int labelId )
+        {
+            return labels.getIfAbsentPut( labelId, IntByteHashMap::new );
+        }
+
+        void widen( int labelId, int propertyKeyId, byte type )
+        {
+            MutableIntByteMap types = label( labelId );
+            types.put( propertyKeyId, ColumnFileWriter.widen( types.get( propertyKeyId ), type ) );
+        }
+
+        void widen( ColumnTypes other )
+        {
+            other.labels.forEachKeyValue( ( labelId, types ) ->
+                    types.forEachKeyValue( ( propertyKeyId, type ) -> widen( labelId, propertyKeyId, type ) ) );
+        }
+    }
+
+    /**
+     * Rows of a range of node ids, grouped by label.
+     */
+    private static class NodeBatch
+    {
+        private final List<LabelBatch> labels = new ArrayList<>();
+        private final MutableIntObjectMap<LabelBatch> byLabel = new IntObjectHashMap<>();
+
+        LabelBatch label( int labelId )
+        {
+            LabelBatch batch = byLabel.get( labelId );
+            if ( batch == null )
+            {
+                batch = new LabelBatch( labelId );
+                byLabel.put( labelId, batch );
+                labels.add( batch );
+            }
+            return batch;
+        }
+    }
+
+    private static class LabelBatch
+    {
+        private final int labelId;
+        private final MutableIntObjectMap<Value[]> columns = new IntObjectHashMap<>();
+        private long[] nodeIds = new long[16];
+        private int rows;
+
+        LabelBatch( int labelId )
+        {
+            this.labelId = labelId;
+        }
+
+        void add( long nodeId, IntArrayList keys, List<Value> values )
+        {
+            if ( rows == nodeIds.length )
+            {
+                nodeIds = Arrays.copyOf( nodeIds, rows * 2 );
+            }
+            for ( int i = 0; i < keys.size(); i++ )
+            {
+                int key = keys.get( i );
+                Value[] column = columns.get( key );
+                if ( column == null || column.length <= rows )
+                {
+                    column = column == null ? new Value[nodeIds.length] : Arrays.copyOf( column, nodeIds.length );
+                    columns.put( key, column );
+                }
+                column[rows] = values.get( i );
+            }
+            nodeIds[rows++] = nodeId;
+        }
+    }
+
+    private static class LabelOutput implements AutoCloseable
+    {
+        private final File directory;
+        private final ColumnFileWriter ids;
+        private final MutableIntObjectMap<ColumnFileWriter> columns = new IntObjectHashMap<>();
+        private final IntByteMap types;
+        private long rows;
+
+        LabelOutput( File directory, IntByteMap types ) throws IOException
+        {
+            if ( !directory.isDirectory() && !directory.mkdirs() )
+            {
+                throw new IOException( "Unable to create directory " + directory );
+            }
+            this.directory = directory;
+            this.types = types;
+            this.ids = new ColumnFileWriter( new File( directory, IDS_FILE ) );
+        }
+
+        void write( LabelBatch batch ) throws IOException
+        {
+            ids.writeLongs( rows, batch.nodeIds, batch.rows );
+            for ( int key : batch.columns.keySet().toSortedArray() )
+            {
+                ColumnFileWriter column = columns.get( key );
+                if ( column == null )
+                {
+                    column = new ColumnFileWriter( new File( directory, columnFileName( key ) ) );
+                    columns.put( key, column );
+                }
+                Value[] values = batch.columns.get( key );
+                column.writeValues( rows, values.length < batch.rows ? Arrays.copyOf( values, batch.rows ) : values, batch.rows,
+                        types.get( key ) );
+            }
+            rows += batch.rows;
+        }
+
+        @Override
+        public void close() throws IOException
+        {
+            List<AutoCloseable> writers = new ArrayList<>( columns.values() );
+            writers.add( ids );
+            IOUtils.closeAll( writers );
+        }
+    }
+}
@@ -117,7 +117,7 @@ public class StoreMigration
         {
             Dependencies deps = new Dependencies();
             Monitors monitors = new Monitors();
-            deps.satisfyDependencies( fs, config, migrationIndexProvider, pageCache, logService, monitors,
+            deps.satisfyDependencies( fs, config, migrationIndexProvider, pageCache, logService, monitors, jobScheduler,
                     RecoveryCleanupWorkCollector.immediate() );
 
             KernelContext kernelContext = new SimpleKernelContext( storeDirectory, DatabaseInfo.UNKNOWN, deps );
@@ -0,0 +1,126 @@
+/*
+ * Copyright (c) 2018-2020 "Graph Foundation"
+ * Graph Foundation, Inc. [https://graphfoundation.org]
+ *
+ * Copyright (c) 2002-2018 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of ONgDB Enterprise Edition. The included source
+ * code can be redistributed and/or modified under the terms of the
+ * GNU AFFERO GENERAL PUBLIC LICENSE Version 3
+ * (http://www.fsf.org/licensing/licenses/agpl-3.0.html) as found
+ * in the associated LICENSE.txt file.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ */
+package org.neo4j.tools.defrag;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.RuleChain;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Relationship;
+import org.neo4j.graphdb.RelationshipType;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.io.layout.DatabaseLayout;
+import org.neo4j.kernel.configuration.Config;
+import org.neo4j.logging.NullLogProvider;
+import org.neo4j.test.TestGraphDatabaseFactory;
+import org.neo4j.test.rule.TestDirectory;
+import org.neo4j.test.rule.fs.DefaultFileSystemRule;
+
+import static org.junit.Assert.assertEquals;
+
+public class DefragmentPropertyStoreTest
+{
+    private final TestDirectory directory = TestDirectory.testDirectory();
+    private final DefaultFileSystemRule fileSystemRule = new DefaultFileSystemRule();
+
+    @Rule
+    public RuleChain ruleChain = RuleChain.outerRule( directory ).around( fileSystemRule );
+
+    @Test
+    public void shouldKeepAllPropertiesWhenDefragmenting() throws Exception
+    {
+        // given properties added to nodes and relationships in interleaved transactions
+        Map<Long,String> nodeValues = new HashMap<>();
+        Map<Long,String> relationshipValues = new HashMap<>();
+        GraphDatabaseService db = new TestGraphDatabaseFactory().newEmbeddedDatabase( directory.databaseDir() );
+        try
+        {
+            Node[] nodes = new Node[50];
+            try ( Transaction tx = db.beginTx() )
+            {
+                for ( int i = 0; i < nodes.length; i++ )
+                {
+                    nodes[i] = db.createNode();
+                    nodes[i].setProperty( "id", i );
+                }
+                tx.success();
+            }
+            for ( int round = 0; round < 3; round++ )
+            {
+                try ( Transaction tx = db.beginTx() )
+                {
+                    for ( int i = 0; i < nodes.length; i++ )
+                    {
+                        String value = longString( "node-" + i + "-" + round );
+                        nodes[i].setProperty( "key" + round, value );
+                        nodeValues.merge( nodes[i].getId(), value, String::concat );
+                        Relationship relationship = nodes[i].createRelationshipTo( nodes[(i + 1) % nodes.length],
+                                RelationshipType.withName( "NEXT" ) );
+                        relationship.setProperty( "key", value );
+                        relationshipValues.put( relationship.getId(), value );
+                    }
+                    tx.success();
+                }
+            }
+        }
+        finally
+        {
+            db.shutdown();
+        }
+
+        // when
+        DefragmentPropertyStore.run( fileSystemRule.get(), DatabaseLayout.of( directory.databaseDir() ), Config.defaults(),
+                NullLogProvider.getInstance() );
+
+        // then
+        db = new TestGraphDatabaseFactory().newEmbeddedDatabase( directory.databaseDir() );
+        try ( Transaction tx = db.beginTx() )
+        {
+            for ( Map.Entry<Long,String> entry : nodeValues.entrySet() )
+            {
+                Node node = db.getNodeById( entry.getKey() );
+                assertEquals( entry.getValue(), node.getProperty( "key0" ) + "" + node.getProperty( "key1" ) + node.getProperty( "key2" ) );
+            }
+            for ( Map.Entry<Long,String> entry : relationshipValues.entrySet() )
+            {
+                assertEquals( entry.getValue(), db.getRelationshipById( entry.getKey() ).getProperty( "key" ) );
+            }
+            tx.success();
+        }
+        finally
+        {
+            db.shutdown();
+        }
+    }
+
+    private static String longString( String prefix )
+    {
+        StringBuilder builder = new StringBuilder( prefix );
+        while ( builder.length() < 200 )
+        {
+            builder.append( '-' ).append( prefix );
+        }
+        return builder.toString();
+    }
+}
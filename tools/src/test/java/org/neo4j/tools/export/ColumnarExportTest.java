@@ -0,0 +1,198 @@
+/*
+ * Copyright (c) 2018-2020 "Graph Foundation"
+ * Graph Foundation, Inc. [https://graphfoundation.org]
+ *
+ * Copyright (c) 2002-2018 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of ONgDB Enterprise Edition. The included source
+ * code can be redistributed and/or modified under the terms of the
+ * GNU AFFERO GENERAL PUBLIC LICENSE Version 3
+ * (http://www.fsf.org/licensing/licenses/agpl-3.0.html) as found
+ * in the associated LICENSE.txt file.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ */
+package org.neo4j.tools.export;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.RuleChain;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Label;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.test.TestGraphDatabaseFactory;
+import org.neo4j.test.rule.PageCacheRule;
+import org.neo4j.test.rule.TestDirectory;
+import org.neo4j.test.rule.fs.DefaultFileSystemRule;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+public class ColumnarExportTest
+{
+    private static final Label PERSON = Label.label( "Person" );
+    private static final Label EMPLOYEE = Label.label( "Employee" );
+
+    private final TestDirectory directory = TestDirectory.testDirectory();
+    private final DefaultFileSystemRule fileSystemRule = new DefaultFileSystemRule();
+    private final PageCacheRule pageCacheRule = new PageCacheRule();
+
+    @Rule
+    public RuleChain ruleChain = RuleChain.outerRule( directory ).around( fileSystemRule ).around( pageCacheRule );
+
+    private final Map<String,String> labelDirectories = new HashMap<>();
+    private final Map<String,Integer> labelRows = new HashMap<>();
+    private final Map<String,String> columnFiles = new HashMap<>();
+    private final Map<String,String> columnTypes = new HashMap<>();
+
+    @Test
+    public void shouldExportNodePropertiesIntoColumnsPerLabel() throws Exception
+    {
+        // given
+        List<Long> persons = new ArrayList<>();
+        List<Long> employees = new ArrayList<>();
+        List<Long> unlabeled = new ArrayList<>();
+        GraphDatabaseService db = new TestGraphDatabaseFactory().newEmbeddedDatabase( directory.databaseDir() );
+        try
+        {
+            try ( Transaction tx = db.beginTx() )
+            {
+                for ( int i = 0; i < 100; i++ )
+                {
+                    Node node = i % 4 == 0 ? db.createNode( PERSON, EMPLOYEE ) : db.createNode( PERSON );
+                    node.setProperty( "name", "name" + i % 3 );
+                    node.setProperty( "age", i );
+                    if ( i % 2 == 0 )
+                    {
+                        node.setProperty( "score", i + 0.5 );
+                    }
+                    if ( i % 4 == 0 )
+                    {
+                        node.setProperty( "company", i % 8 == 0 ? (Object) "acme" : (Object) i );
+                        employees.add( node.getId() );
+                    }
+                    persons.add( node.getId() );
+                }
+                for ( int i = 0; i < 10; i++ )
+                {
+                    Node node = db.createNode();
+                    node.setProperty( "flag", i % 2 == 0 );
+                    unlabeled.add( node.getId() );
+                }
+                tx.success();
+            }
+            try ( Transaction tx = db.beginTx() )
+            {
+                db.getNodeById( persons.remove( 50 ) ).delete();
+                tx.success();
+            }
+        }
+        finally
+        {
+            db.shutdown();
+        }
+
+        // when
+        File output = directory.directory( "export" );
+        ColumnarExport.export( fileSystemRule.get(), pageCacheRule.getPageCache( fileSystemRule.get() ), directory.databaseLayout(),
+                output, 3, 7 );
+
+        // then
+        readManifest( output );
+        assertArrayEquals( toArray( persons ), ids( output, "Person" ) );
+        assertArrayEquals( toArray( employees ), ids( output, "Employee" ) );
+        assertArrayEquals( toArray( unlabeled ), ids( output, null ) );
+
+        Object[] names = column( output, "Person", "name" );
+        Object[] ages = column( output, "Person", "age" );
+        Object[] scores = column( output, "Person", "score" );
+        for ( int row = 0; row < persons.size(); row++ )
+        {
+            int i = row < 50 ? row : row + 1;
+            assertEquals( "name" + i % 3, names[row] );
+            assertEquals( (long) i, ages[row] );
+            assertEquals( i % 2 == 0 ? i + 0.5 : null, scores[row] );
+        }
+
+        Object[] companies = column( output, "Employee", "company" );
+        for ( int row = 0; row < employees.size(); row++ )
+        {
+            int i = row * 4;
+            // The column mixes strings and numbers, so every chunk holds the numbers as strings
+            assertEquals( i % 8 == 0 ? "acme" : String.valueOf( i ), companies[row] );
+        }
+        assertEquals( "string", columnType( "Employee", "company" ) );
+        assertEquals( "long", columnType( "Person", "age" ) );
+        assertEquals( "long", columnType( "Employee", "age" ) );
+        assertEquals( "double", columnType( "Person", "score" ) );
+        assertEquals( "string", columnType( "Person", "name" ) );
+
+        Object[] flags = column( output, null, "flag" );
+        for ( int row = 0; row < unlabeled.size(); row++ )
+        {
+            assertEquals( row % 2 == 0, flags[row] );
+        }
+        assertEquals( "boolean", columnType( null, "flag" ) );
+        assertFalse( new File( new File( output, labelDirectories.get( null ) ), columnFiles.get( "name" ) ).exists() );
+    }
+
+    private void readManifest( File output ) throws IOException
+    {
+        for ( String line : Files.readAllLines( new File( output, ColumnarExport.MANIFEST_FILE ).toPath(), StandardCharsets.UTF_8 ) )
+        {
+            String[] parts = line.split( "\t", -1 );
+            if ( parts[0].equals( "label" ) )
+            {
+                String name = parts[2].isEmpty() ? null : parts[2];
+                labelDirectories.put( name, parts[1] );
+                labelRows.put( name, Integer.parseInt( parts[3] ) );
+            }
+            else if ( parts[0].equals( "property" ) )
+            {
+                columnFiles.put( parts[2], parts[1] );
+            }
+            else
+            {
+                columnTypes.put( parts[1] + "/" + parts[2], parts[3] );
+            }
+        }
+    }
+
+    private long[] ids( File output, String label ) throws IOException
+    {
+        File file = new File( new File( output, labelDirectories.get( label ) ), ColumnarExport.IDS_FILE );
+        return ColumnFileReader.readIds( file, labelRows.get( label ) );
+    }
+
+    private Object[] column( File output, String label, String propertyKey ) throws IOException
+    {
+        File file = new File( new File( output, labelDirectories.get( label ) ), columnFiles.get( propertyKey ) );
+        return ColumnFileReader.read( file, labelRows.get( label ) );
+    }
+
+    private String columnType( String label, String propertyKey )
+    {
+        return columnTypes.get( labelDirectories.get( label ) + "/" + columnFiles.get( propertyKey ) );
+    }
+
+    private static long[] toArray( List<Long> ids )
+    {
+        return ids.stream().mapToLong( Long::longValue ).toArray();
+    }
+}